@@ -17,6 +17,7 @@
 package com.helger.commons.cache;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnegative;
@@ -69,8 +70,11 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
   protected final IMutableStatisticsHandlerCache m_aCacheAccessStats;
   private final IMutableStatisticsHandlerCounter m_aCacheRemoveStats;
   private final IMutableStatisticsHandlerCounter m_aCacheClearStats;
+  private final ECacheMode m_eCacheMode;
   @CodingStyleguideUnaware
   private Map <KEYTYPE, VALUETYPE> m_aCache;
+  // Only present in the modes CONCURRENT and CONCURRENT_SOFT
+  private final ConcurrentCacheStore <KEYTYPE, VALUETYPE> m_aConcurrentStore;
 
   public AbstractCache (@Nonnull final String sCacheName)
   {
@@ -79,8 +83,34 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
 
   public AbstractCache (@CheckForSigned final int nMaxSize, @Nonnull @Nonempty final String sCacheName)
   {
+    this (nMaxSize, sCacheName, ECacheMode.DEFAULT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxSize
+   *        The maximum number of elements in the cache. Values &le; 0 mean
+   *        unbounded.
+   * @param sCacheName
+   *        The name of the cache. Used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   * @param eCacheMode
+   *        The backing store to be used. May not be <code>null</code>.
+   * @since 8.6.0
+   */
+  public AbstractCache (@CheckForSigned final int nMaxSize,
+                        @Nonnull @Nonempty final String sCacheName,
+                        @Nonnull final ECacheMode eCacheMode)
+  {
+    ValueEnforcer.notNull (eCacheMode, "CacheMode");
     m_nMaxSize = nMaxSize;
     m_sCacheName = ValueEnforcer.notEmpty (sCacheName, "cacheName");
+    m_eCacheMode = eCacheMode;
+    if (eCacheMode == ECacheMode.LOCKED_SOFT)
+      m_aConcurrentStore = null;
+    else
+      m_aConcurrentStore = new ConcurrentCacheStore <> (nMaxSize, eCacheMode == ECacheMode.CONCURRENT_SOFT);
     m_aCacheAccessStats = StatisticsManager.getCacheHandler (STATISTICS_PREFIX + sCacheName + "$access");
     m_aCacheRemoveStats = StatisticsManager.getCounterHandler (STATISTICS_PREFIX + sCacheName + "$remove");
     m_aCacheClearStats = StatisticsManager.getCounterHandler (STATISTICS_PREFIX + sCacheName + "$clear");
@@ -106,7 +136,17 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
   }
 
   /**
-   * Create a new cache map.
+   * @return The backing store mode of this cache. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final ECacheMode getCacheMode ()
+  {
+    return m_eCacheMode;
+  }
+
+  /**
+   * Create a new cache map. Only used in mode {@link ECacheMode#LOCKED_SOFT}.
    *
    * @return Never <code>null</code>.
    */
@@ -133,6 +173,12 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
     ValueEnforcer.notNull (aKey, "cacheKey");
     ValueEnforcer.notNull (aValue, "cacheValue");
 
+    if (m_aConcurrentStore != null)
+    {
+      m_aConcurrentStore.put (aKey, aValue);
+      return;
+    }
+
     // try again in write lock
     if (m_aCache == null)
     {
@@ -157,13 +203,19 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
     ValueEnforcer.notNull (aKey, "cacheKey");
     ValueEnforcer.notNull (aValue, "cacheValue");
 
-    m_aRWLock.writeLocked ( () -> putInCacheNotLocked (aKey, aValue));
+    if (m_aConcurrentStore != null)
+      m_aConcurrentStore.put (aKey, aValue);
+    else
+      m_aRWLock.writeLocked ( () -> putInCacheNotLocked (aKey, aValue));
   }
 
   @MustBeLocked (ELockType.READ)
   @Nullable
   protected final VALUETYPE getFromCacheNoStatsNotLocked (@Nullable final KEYTYPE aKey)
   {
+    if (m_aConcurrentStore != null)
+      return m_aConcurrentStore.get (aKey);
+
     // Since null is not allowed as value, we don't need to check with
     // containsKey before get!
     return m_aCache == null ? null : m_aCache.get (aKey);
@@ -173,6 +225,10 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
   @OverridingMethodsMustInvokeSuper
   protected final VALUETYPE getFromCacheNoStats (@Nullable final KEYTYPE aKey)
   {
+    // No lock needed for the concurrent store
+    if (m_aConcurrentStore != null)
+      return m_aConcurrentStore.get (aKey);
+
     return m_aRWLock.readLocked ( () -> getFromCacheNoStatsNotLocked (aKey));
   }
 
@@ -201,10 +257,71 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
     return aValue;
   }
 
+  /**
+   * Get the value from the cache or create it with the provided value provider
+   * and put it into the cache. In mode {@link ECacheMode#LOCKED_SOFT} the
+   * value is created inside the write lock, in the modes
+   * {@link ECacheMode#CONCURRENT} and {@link ECacheMode#CONCURRENT_SOFT}
+   * concurrent requests for the same key wait for the first one, but different
+   * keys can be created in parallel.
+   *
+   * @param aKey
+   *        The cache key. May be <code>null</code>able or not - depends upon
+   *        the implementation.
+   * @param aValueProvider
+   *        The function to create the value to cache. May not be
+   *        <code>null</code> and may not return <code>null</code>.
+   * @return The cached value. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  protected final VALUETYPE getFromCacheOrCreate (@Nullable final KEYTYPE aKey,
+                                                  @Nonnull final Function <? super KEYTYPE, ? extends VALUETYPE> aValueProvider)
+  {
+    if (m_aConcurrentStore != null)
+      return m_aConcurrentStore.getOrLoad (aKey, aValueProvider, m_aCacheAccessStats);
+
+    // read existing value
+    VALUETYPE aValue = getFromCacheNoStats (aKey);
+    if (aValue == null)
+    {
+      // No old value in the cache
+      aValue = m_aRWLock.writeLocked ( () -> {
+        // Read again, in case the value was set between the two locking
+        // sections
+        // Note: do not increase statistics in this second try
+        VALUETYPE aWLValue = getFromCacheNoStatsNotLocked (aKey);
+        if (aWLValue == null)
+        {
+          // Create the value to cache
+          aWLValue = aValueProvider.apply (aKey);
+
+          // Put the new value into the cache
+          putInCacheNotLocked (aKey, aWLValue);
+          m_aCacheAccessStats.cacheMiss ();
+        }
+        else
+          m_aCacheAccessStats.cacheHit ();
+        return aWLValue;
+      });
+    }
+    else
+      m_aCacheAccessStats.cacheHit ();
+    return aValue;
+  }
+
   @Nonnull
   @OverridingMethodsMustInvokeSuper
   public EChange removeFromCache (final KEYTYPE aKey)
   {
+    if (m_aConcurrentStore != null)
+    {
+      if (!m_aConcurrentStore.remove (aKey))
+        return EChange.UNCHANGED;
+      m_aCacheRemoveStats.increment ();
+      return EChange.CHANGED;
+    }
+
     return m_aRWLock.writeLocked ( () -> {
       if (m_aCache == null || m_aCache.remove (aKey) == null)
         return EChange.UNCHANGED;
@@ -217,6 +334,18 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
   @OverridingMethodsMustInvokeSuper
   public EChange clearCache ()
   {
+    if (m_aConcurrentStore != null)
+    {
+      if (!m_aConcurrentStore.clear ())
+        return EChange.UNCHANGED;
+      m_aCacheClearStats.increment ();
+
+      if (s_aLogger.isDebugEnabled ())
+        s_aLogger.debug ("Cache was cleared: " + getClass ().getName ());
+
+      return EChange.CHANGED;
+    }
+
     return m_aRWLock.writeLocked ( () -> {
       if (m_aCache == null || m_aCache.isEmpty ())
         return EChange.UNCHANGED;
@@ -234,22 +363,31 @@ public abstract class AbstractCache <KEYTYPE, VALUETYPE> implements IMutableCach
   @Nonnegative
   public int getSize ()
   {
+    if (m_aConcurrentStore != null)
+      return m_aConcurrentStore.size ();
     return m_aRWLock.readLocked ( () -> CollectionHelper.getSize (m_aCache));
   }
 
   public boolean isEmpty ()
   {
+    if (m_aConcurrentStore != null)
+      return m_aConcurrentStore.isEmpty ();
     return m_aRWLock.readLocked ( () -> CollectionHelper.isEmpty (m_aCache));
   }
 
   public boolean isNotEmpty ()
   {
+    if (m_aConcurrentStore != null)
+      return !m_aConcurrentStore.isEmpty ();
     return m_aRWLock.readLocked ( () -> CollectionHelper.isNotEmpty (m_aCache));
   }
 
   @Override
   public String toString ()
   {
-    return new ToStringGenerator (this).append ("cacheName", m_sCacheName).append ("content", m_aCache).toString ();
+    return new ToStringGenerator (this).append ("cacheName", m_sCacheName)
+                                       .append ("cacheMode", m_eCacheMode)
+                                       .append ("content", m_aConcurrentStore != null ? m_aConcurrentStore : m_aCache)
+                                       .toString ();
   }
 }
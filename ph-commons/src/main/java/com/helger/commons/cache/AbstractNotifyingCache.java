@@ -24,8 +24,6 @@ import com.helger.commons.CGlobal;
 import com.helger.commons.annotation.ELockType;
 import com.helger.commons.annotation.IsLocked;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-
 /**
  * A caching class that has the ability to fill itself with the abstract
  * getValueToCache(Object) method.
@@ -49,9 +47,19 @@ public abstract class AbstractNotifyingCache <KEYTYPE, VALUETYPE> extends Abstra
     super (nMaxSize, sCacheName);
   }
 
+  public AbstractNotifyingCache (@CheckForSigned final int nMaxSize,
+                                 @Nonnull final String sCacheName,
+                                 @Nonnull final ECacheMode eCacheMode)
+  {
+    super (nMaxSize, sCacheName, eCacheMode);
+  }
+
   /**
    * This abstract method is invoked, once a new value needs to be put into the
-   * cache. This method is invoked within a locked section.
+   * cache. In mode {@link ECacheMode#LOCKED_SOFT} this method is invoked
+   * within a locked section, in the modes {@link ECacheMode#CONCURRENT} and
+   * {@link ECacheMode#CONCURRENT_SOFT} it is invoked at most once concurrently
+   * for the same key.
    *
    * @param aKey
    *        The key for which the value to cache is required. May be
@@ -63,41 +71,16 @@ public abstract class AbstractNotifyingCache <KEYTYPE, VALUETYPE> extends Abstra
   protected abstract VALUETYPE getValueToCache (KEYTYPE aKey);
 
   @Override
-  @SuppressFBWarnings ("RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE")
   public final VALUETYPE getFromCache (final KEYTYPE aKey)
   {
-    // read existing value
-    VALUETYPE aValue = super.getFromCacheNoStats (aKey);
-
-    if (aValue == null)
-    {
-      // No old value in the cache
-      aValue = m_aRWLock.writeLocked ( () -> {
-        // Read again, in case the value was set between the two locking
-        // sections
-        // Note: do not increase statistics in this second try
-        VALUETYPE aWLValue = super.getFromCacheNoStatsNotLocked (aKey);
-        if (aWLValue == null)
-        {
-          // Call the abstract method to create the value to cache
-          aWLValue = getValueToCache (aKey);
-
-          // Just a consistency check
-          if (aWLValue == null)
-            throw new IllegalStateException ("The value to cache was null for key '" + aKey + "'");
-
-          // Put the new value into the cache
-          super.putInCacheNotLocked (aKey, aWLValue);
-          m_aCacheAccessStats.cacheMiss ();
-        }
-        else
-          m_aCacheAccessStats.cacheHit ();
-        return aWLValue;
-      });
-    }
-    else
-      m_aCacheAccessStats.cacheHit ();
+    return getFromCacheOrCreate (aKey, k -> {
+      // Call the abstract method to create the value to cache
+      final VALUETYPE aValue = getValueToCache (k);
 
-    return aValue;
+      // Just a consistency check
+      if (aValue == null)
+        throw new IllegalStateException ("The value to cache was null for key '" + k + "'");
+      return aValue;
+    });
   }
 }
@@ -47,6 +47,13 @@ public class CacheWithConversion <KEYTYPE, VALUETYPE> extends AbstractCache <KEY
     super (nMaxSize, sCacheName);
   }
 
+  public CacheWithConversion (@CheckForSigned final int nMaxSize,
+                              @Nonnull final String sCacheName,
+                              @Nonnull final ECacheMode eCacheMode)
+  {
+    super (nMaxSize, sCacheName, eCacheMode);
+  }
+
   /**
    * Get the value from the cache. If no value is yet in the cache, the passed
    * converter is used to get the value to cache.
@@ -63,35 +70,14 @@ public class CacheWithConversion <KEYTYPE, VALUETYPE> extends AbstractCache <KEY
   public final VALUETYPE getFromCache (@Nonnull final KEYTYPE aKey,
                                        @Nonnull final Function <KEYTYPE, VALUETYPE> aValueRetriever)
   {
-    // Already in the cache?
-    VALUETYPE aValue = super.getFromCacheNoStats (aKey);
-    if (aValue == null)
-    {
-      // No old value in the cache
-      aValue = m_aRWLock.writeLocked ( () -> {
-        // Read again, in case the value was set between the two locking
-        // sections
-        // Note: do not increase statistics in this second try
-        VALUETYPE aWLValue = super.getFromCacheNoStatsNotLocked (aKey);
-        if (aWLValue == null)
-        {
-          // Get the value to cache
-          aWLValue = aValueRetriever.apply (aKey);
-
-          // We cannot cache null values!
-          if (aWLValue == null)
-            throw new IllegalStateException ("The converter returned a null object for the key '" + aKey + "'");
+    return getFromCacheOrCreate (aKey, k -> {
+      // Get the value to cache
+      final VALUETYPE aValue = aValueRetriever.apply (k);
 
-          super.putInCacheNotLocked (aKey, aWLValue);
-          m_aCacheAccessStats.cacheMiss ();
-        }
-        else
-          m_aCacheAccessStats.cacheHit ();
-        return aWLValue;
-      });
-    }
-    else
-      m_aCacheAccessStats.cacheHit ();
-    return aValue;
+      // We cannot cache null values!
+      if (aValue == null)
+        throw new IllegalStateException ("The converter returned a null object for the key '" + k + "'");
+      return aValue;
+    });
   }
 }
@@ -0,0 +1,556 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCache;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * The backing store of {@link AbstractCache} in mode
+ * {@link ECacheMode#CONCURRENT}. Reads are a single lock-free lookup in a
+ * {@link ConcurrentHashMap}. If a maximum size is present, modifications are
+ * serialized on an internal lock, entries are evicted with a CLOCK (second
+ * chance) sweep and new entries are only admitted if their estimated access
+ * frequency (TinyLFU) is higher than the one of the eviction victim. This keeps
+ * frequently used entries in the cache even if many one-time keys are
+ * requested (e.g. a scan).<br>
+ * Optionally the values are only softly referenced, so that they can be
+ * reclaimed by the garbage collector. This is meant for unbounded stores.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @param <KEYTYPE>
+ *        Cache key type. <code>null</code> keys are supported.
+ * @param <VALUETYPE>
+ *        Cache value type. <code>null</code> values are not supported.
+ */
+@ThreadSafe
+public final class ConcurrentCacheStore <KEYTYPE, VALUETYPE>
+{
+  /** Internal replacement for the <code>null</code> key */
+  private static final Object NULL_KEY = new Object ();
+
+  private static final class Entry <V>
+  {
+    private final Object m_aKey;
+    // Exactly one of the two values is present
+    private final V m_aStrongValue;
+    private final SoftValue <V> m_aSoftValue;
+    // Racy by design - only a hint for the CLOCK sweep
+    private volatile boolean m_bReferenced;
+
+    Entry (@Nonnull final Object aKey,
+           @Nonnull final V aValue,
+           @Nullable final ReferenceQueue <? super V> aQueue)
+    {
+      m_aKey = aKey;
+      if (aQueue == null)
+      {
+        m_aStrongValue = aValue;
+        m_aSoftValue = null;
+      }
+      else
+      {
+        m_aStrongValue = null;
+        m_aSoftValue = new SoftValue <> (aValue, aQueue, this);
+      }
+    }
+
+    /**
+     * @return <code>null</code> if the softly referenced value was reclaimed.
+     */
+    @Nullable
+    V getValue ()
+    {
+      return m_aSoftValue != null ? m_aSoftValue.get () : m_aStrongValue;
+    }
+  }
+
+  /**
+   * A softly referenced value, that knows its entry for removal.
+   */
+  private static final class SoftValue <V> extends SoftReference <V>
+  {
+    private final Entry <V> m_aEntry;
+
+    SoftValue (@Nonnull final V aValue,
+               @Nonnull final ReferenceQueue <? super V> aQueue,
+               @Nonnull final Entry <V> aEntry)
+    {
+      super (aValue, aQueue);
+      m_aEntry = aEntry;
+    }
+  }
+
+  /**
+   * A load in progress, remembering the loading thread to detect recursive
+   * loads of the same key.
+   */
+  private static final class LoadingTask <V> extends FutureTask <V>
+  {
+    private final Thread m_aOwner = Thread.currentThread ();
+
+    LoadingTask (@Nonnull final Callable <V> aCallable)
+    {
+      super (aCallable);
+    }
+  }
+
+  /**
+   * A count-min sketch with 4 hash functions and counters saturating at 15,
+   * that is periodically aged by halving all counters.
+   */
+  @NotThreadSafe
+  private static final class FrequencySketch
+  {
+    private static final int MAX_TABLE_SIZE = 1 << 22;
+    private static final int [] SEEDS = new int [] { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+    private static final byte MAX_COUNTER = 15;
+
+    private final byte [] m_aTable;
+    private final int m_nMask;
+    private final int m_nSampleSize;
+    private int m_nAdditions = 0;
+
+    FrequencySketch (@Nonnegative final int nMaxSize)
+    {
+      int nTableSize = 1024;
+      while (nTableSize < MAX_TABLE_SIZE && nTableSize < nMaxSize * 8L)
+        nTableSize <<= 1;
+      m_aTable = new byte [nTableSize];
+      m_nMask = nTableSize - 1;
+      m_nSampleSize = (int) Math.min (Integer.MAX_VALUE, nMaxSize * 10L);
+    }
+
+    private int _index (final int nHash, final int nSeedIndex)
+    {
+      int h = (nHash + SEEDS[nSeedIndex]) * SEEDS[nSeedIndex];
+      h ^= h >>> 16;
+      return h & m_nMask;
+    }
+
+    int getFrequency (@Nonnull final Object aKey)
+    {
+      final int nHash = aKey.hashCode ();
+      int ret = MAX_COUNTER;
+      for (int i = 0; i < SEEDS.length; ++i)
+        ret = Math.min (ret, m_aTable[_index (nHash, i)]);
+      return ret;
+    }
+
+    void increment (@Nonnull final Object aKey)
+    {
+      final int nHash = aKey.hashCode ();
+      boolean bAdded = false;
+      for (int i = 0; i < SEEDS.length; ++i)
+      {
+        final int nIndex = _index (nHash, i);
+        if (m_aTable[nIndex] < MAX_COUNTER)
+        {
+          m_aTable[nIndex]++;
+          bAdded = true;
+        }
+      }
+      if (bAdded && ++m_nAdditions >= m_nSampleSize)
+      {
+        // Age all counters so that the sketch follows workload changes
+        for (int i = 0; i < m_aTable.length; ++i)
+          m_aTable[i] >>>= 1;
+        m_nAdditions /= 2;
+      }
+    }
+
+    void clear ()
+    {
+      Arrays.fill (m_aTable, (byte) 0);
+      m_nAdditions = 0;
+    }
+  }
+
+  private final int m_nMaxSize;
+  // Only present if values are softly referenced
+  private final ReferenceQueue <VALUETYPE> m_aQueue;
+  private final ConcurrentHashMap <Object, Entry <VALUETYPE>> m_aMap = new ConcurrentHashMap <> ();
+  private final ConcurrentHashMap <Object, LoadingTask <VALUETYPE>> m_aLoading = new ConcurrentHashMap <> ();
+  private final SimpleLock m_aLock = new SimpleLock ();
+  @GuardedBy ("m_aLock")
+  private final ArrayDeque <Entry <VALUETYPE>> m_aClock;
+  @GuardedBy ("m_aLock")
+  private final FrequencySketch m_aSketch;
+
+  /**
+   * Constructor for a store with strongly referenced values.
+   *
+   * @param nMaxSize
+   *        The maximum number of entries. Values &le; 0 mean unbounded.
+   */
+  public ConcurrentCacheStore (@CheckForSigned final int nMaxSize)
+  {
+    this (nMaxSize, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxSize
+   *        The maximum number of entries. Values &le; 0 mean unbounded.
+   * @param bSoftValues
+   *        <code>true</code> to only softly reference the values, so that they
+   *        can be reclaimed by the garbage collector.
+   */
+  public ConcurrentCacheStore (@CheckForSigned final int nMaxSize, final boolean bSoftValues)
+  {
+    m_nMaxSize = nMaxSize;
+    m_aQueue = bSoftValues ? new ReferenceQueue <> () : null;
+    if (nMaxSize > 0)
+    {
+      m_aClock = new ArrayDeque <> (Math.min (nMaxSize, 1024));
+      m_aSketch = new FrequencySketch (nMaxSize);
+    }
+    else
+    {
+      m_aClock = null;
+      m_aSketch = null;
+    }
+  }
+
+  /**
+   * @return The maximum number of entries. Values &le; 0 mean unbounded.
+   */
+  @CheckForSigned
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  public boolean hasMaxSize ()
+  {
+    return m_nMaxSize > 0;
+  }
+
+  /**
+   * @return <code>true</code> if the values are only softly referenced.
+   */
+  public boolean isSoftValues ()
+  {
+    return m_aQueue != null;
+  }
+
+  /**
+   * Remove all entries whose softly referenced value was reclaimed.
+   */
+  @SuppressWarnings ("unchecked")
+  private void _expungeReclaimedEntries ()
+  {
+    if (m_aQueue != null)
+    {
+      Reference <? extends VALUETYPE> aRef;
+      while ((aRef = m_aQueue.poll ()) != null)
+      {
+        final Entry <VALUETYPE> aEntry = ((SoftValue <VALUETYPE>) aRef).m_aEntry;
+        m_aMap.remove (aEntry.m_aKey, aEntry);
+      }
+    }
+  }
+
+  @Nonnull
+  private static Object _internalKey (@Nullable final Object aKey)
+  {
+    return aKey == null ? NULL_KEY : aKey;
+  }
+
+  /**
+   * Get the value for the provided key. This method never blocks.
+   *
+   * @param aKey
+   *        The key to search. May be <code>null</code>.
+   * @return <code>null</code> if no such value is in the store.
+   */
+  @Nullable
+  public VALUETYPE get (@Nullable final KEYTYPE aKey)
+  {
+    final Entry <VALUETYPE> aEntry = m_aMap.get (_internalKey (aKey));
+    if (aEntry == null)
+      return null;
+    final VALUETYPE ret = aEntry.getValue ();
+    if (ret == null)
+    {
+      // Softly referenced value was reclaimed
+      m_aMap.remove (aEntry.m_aKey, aEntry);
+      return null;
+    }
+    // Avoid the volatile write if it is already set
+    if (!aEntry.m_bReferenced)
+      aEntry.m_bReferenced = true;
+    return ret;
+  }
+
+  @GuardedBy ("m_aLock")
+  private void _compactClock ()
+  {
+    // Remove stale entries that were removed or replaced in the meantime
+    if (m_aClock.size () > 2 * Math.max (m_nMaxSize, m_aMap.size ()))
+      m_aClock.removeIf (x -> m_aMap.get (x.m_aKey) != x);
+  }
+
+  @GuardedBy ("m_aLock")
+  @Nullable
+  private Entry <VALUETYPE> _findVictim ()
+  {
+    while (true)
+    {
+      final Entry <VALUETYPE> aEntry = m_aClock.pollFirst ();
+      if (aEntry == null)
+        return null;
+
+      if (m_aMap.get (aEntry.m_aKey) != aEntry)
+      {
+        // Stale entry
+        continue;
+      }
+
+      if (aEntry.m_bReferenced)
+      {
+        // Second chance - remember the access in the sketch
+        aEntry.m_bReferenced = false;
+        m_aSketch.increment (aEntry.m_aKey);
+        m_aClock.addLast (aEntry);
+        continue;
+      }
+      return aEntry;
+    }
+  }
+
+  /**
+   * Put a new value into the store. If the store is full, the new value may
+   * not be admitted, if it is less frequently requested than the entry that
+   * would need to be evicted.
+   *
+   * @param aKey
+   *        The key to use. May be <code>null</code>.
+   * @param aValue
+   *        The value to use. May not be <code>null</code>.
+   * @return <code>true</code> if the value was stored, <code>false</code> if it
+   *         was not admitted.
+   */
+  public boolean put (@Nullable final KEYTYPE aKey, @Nonnull final VALUETYPE aValue)
+  {
+    ValueEnforcer.notNull (aValue, "Value");
+
+    final Object aInternalKey = _internalKey (aKey);
+    _expungeReclaimedEntries ();
+
+    final Entry <VALUETYPE> aNewEntry = new Entry <> (aInternalKey, aValue, m_aQueue);
+    if (m_aClock == null)
+    {
+      // Unbounded
+      m_aMap.put (aInternalKey, aNewEntry);
+      return true;
+    }
+
+    return m_aLock.locked ( () -> {
+      m_aSketch.increment (aInternalKey);
+      if (!m_aMap.containsKey (aInternalKey))
+      {
+        while (m_aMap.size () >= m_nMaxSize)
+        {
+          final Entry <VALUETYPE> aVictim = _findVictim ();
+          if (aVictim == null)
+            break;
+          if (m_aSketch.getFrequency (aInternalKey) <= m_aSketch.getFrequency (aVictim.m_aKey))
+          {
+            // Candidate is rejected - keep the victim where it was
+            m_aClock.addFirst (aVictim);
+            return false;
+          }
+          m_aMap.remove (aVictim.m_aKey, aVictim);
+        }
+      }
+      m_aMap.put (aInternalKey, aNewEntry);
+      m_aClock.addLast (aNewEntry);
+      _compactClock ();
+      return true;
+    });
+  }
+
+  @Nonnull
+  private static <V> V _getResult (@Nonnull final FutureTask <V> aTask)
+  {
+    try
+    {
+      return aTask.get ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new IllegalStateException ("Interrupted while waiting for the value to cache", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      final Throwable aCause = ex.getCause ();
+      if (aCause instanceof RuntimeException)
+        throw (RuntimeException) aCause;
+      if (aCause instanceof Error)
+        throw (Error) aCause;
+      throw new IllegalStateException ("Failed to create the value to cache", aCause);
+    }
+  }
+
+  /**
+   * Get the value for the provided key or create it with the provided loader.
+   * If multiple threads request the same missing key concurrently, only one of
+   * them invokes the loader and all others wait for its result. The access is
+   * recorded as a cache miss only for the loading thread. A loader that
+   * requests its own key again fails with an {@link IllegalStateException}
+   * instead of waiting for itself forever.
+   *
+   * @param aKey
+   *        The key to search. May be <code>null</code>.
+   * @param aLoader
+   *        The loader to create the value. May not be <code>null</code> and may
+   *        not return <code>null</code>.
+   * @param aStats
+   *        The statistics handler to update. May not be <code>null</code>.
+   * @return The cached or created value. Never <code>null</code>.
+   */
+  @Nonnull
+  public VALUETYPE getOrLoad (@Nullable final KEYTYPE aKey,
+                              @Nonnull final Function <? super KEYTYPE, ? extends VALUETYPE> aLoader,
+                              @Nonnull final IMutableStatisticsHandlerCache aStats)
+  {
+    VALUETYPE aValue = get (aKey);
+    if (aValue != null)
+    {
+      aStats.cacheHit ();
+      return aValue;
+    }
+
+    final Object aInternalKey = _internalKey (aKey);
+    final LoadingTask <VALUETYPE> aNewTask = new LoadingTask <> ( () -> aLoader.apply (aKey));
+    final LoadingTask <VALUETYPE> aOtherTask = m_aLoading.putIfAbsent (aInternalKey, aNewTask);
+    if (aOtherTask != null)
+    {
+      if (aOtherTask.m_aOwner == Thread.currentThread ())
+        throw new IllegalStateException ("Recursive load of cache key '" + aKey + "' detected");
+
+      // Another thread is already loading this key
+      aValue = _getResult (aOtherTask);
+      aStats.cacheHit ();
+      return aValue;
+    }
+
+    try
+    {
+      // Re-check, in case another load finished between the two calls
+      aValue = get (aKey);
+      if (aValue != null)
+      {
+        aStats.cacheHit ();
+        return aValue;
+      }
+
+      aNewTask.run ();
+      aValue = _getResult (aNewTask);
+      put (aKey, aValue);
+      aStats.cacheMiss ();
+      return aValue;
+    }
+    finally
+    {
+      m_aLoading.remove (aInternalKey, aNewTask);
+    }
+  }
+
+  /**
+   * Remove the provided key.
+   *
+   * @param aKey
+   *        The key to remove. May be <code>null</code>.
+   * @return <code>true</code> if something was removed.
+   */
+  public boolean remove (@Nullable final KEYTYPE aKey)
+  {
+    // Stale clock entries are cleaned lazily
+    return m_aMap.remove (_internalKey (aKey)) != null;
+  }
+
+  /**
+   * Remove all entries.
+   *
+   * @return <code>true</code> if something was removed.
+   */
+  public boolean clear ()
+  {
+    if (m_aClock == null)
+    {
+      final boolean bWasEmpty = m_aMap.isEmpty ();
+      m_aMap.clear ();
+      return !bWasEmpty;
+    }
+
+    return m_aLock.locked ( () -> {
+      final boolean bWasEmpty = m_aMap.isEmpty ();
+      m_aMap.clear ();
+      m_aClock.clear ();
+      m_aSketch.clear ();
+      return !bWasEmpty;
+    });
+  }
+
+  @Nonnegative
+  public int size ()
+  {
+    _expungeReclaimedEntries ();
+    return m_aMap.size ();
+  }
+
+  public boolean isEmpty ()
+  {
+    _expungeReclaimedEntries ();
+    return m_aMap.isEmpty ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("maxSize", m_nMaxSize)
+                                       .append ("softValues", isSoftValues ())
+                                       .append ("size", m_aMap.size ())
+                                       .toString ();
+  }
+}
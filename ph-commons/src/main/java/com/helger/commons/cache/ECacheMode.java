@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.cache;
+
+/**
+ * Defines the backing store to be used by {@link AbstractCache}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+public enum ECacheMode
+{
+  /**
+   * A soft-referenced map guarded by a single read-write lock. This is the
+   * classical mode and the default for custom caches.
+   */
+  LOCKED_SOFT,
+  /**
+   * A lock-free read path on top of a concurrent map, with CLOCK eviction and
+   * TinyLFU admission when a maximum size is present. Values are strongly
+   * referenced and concurrent misses for the same key are only computed once.
+   * Unbounded caches in this mode never release their values, so
+   * {@link #CONCURRENT_SOFT} should be used for them.
+   */
+  CONCURRENT,
+  /**
+   * Like {@link #CONCURRENT} but the values are only softly referenced, so
+   * that they can be reclaimed by the garbage collector. This is the mode to
+   * use for unbounded caches with concurrent access.
+   */
+  CONCURRENT_SOFT;
+
+  /** The default mode for caches not specifying one explicitly */
+  public static final ECacheMode DEFAULT = LOCKED_SOFT;
+}
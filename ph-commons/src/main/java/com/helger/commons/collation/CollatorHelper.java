@@ -28,11 +28,10 @@ import javax.annotation.concurrent.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.helger.commons.annotation.ELockType;
-import com.helger.commons.annotation.IsLocked;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.system.SystemHelper;
@@ -60,12 +59,11 @@ public final class CollatorHelper
 
     public CollatorCache ()
     {
-      super (-1, CollatorHelper.class.getName ());
+      super (-1, CollatorHelper.class.getName (), ECacheMode.CONCURRENT_SOFT);
     }
 
     @Override
     @Nonnull
-    @IsLocked (ELockType.WRITE)
     @SuppressFBWarnings ("RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE")
     protected Collator getValueToCache (@Nullable final Locale aLocale)
     {
@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.equals.EqualsHelper;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A growable list of primitive double values, that never boxes its elements.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class DoubleArrayList implements Serializable
+{
+  public static final int DEFAULT_CAPACITY = 16;
+
+  private double [] m_aData;
+  private int m_nSize;
+
+  public DoubleArrayList ()
+  {
+    this (DEFAULT_CAPACITY);
+  }
+
+  public DoubleArrayList (@Nonnegative final int nInitialCapacity)
+  {
+    ValueEnforcer.isGE0 (nInitialCapacity, "InitialCapacity");
+    m_aData = new double [nInitialCapacity];
+  }
+
+  private void _ensureCapacity (final int nMinCapacity)
+  {
+    if (nMinCapacity > m_aData.length)
+    {
+      // Grow by 50%
+      final int nNewCapacity = Math.max (nMinCapacity, m_aData.length + (m_aData.length >> 1) + 1);
+      m_aData = Arrays.copyOf (m_aData, nNewCapacity);
+    }
+  }
+
+  private void _checkIndex (final int nIndex)
+  {
+    if (nIndex < 0 || nIndex >= m_nSize)
+      throw new IndexOutOfBoundsException ("Index " + nIndex + " is invalid for size " + m_nSize);
+  }
+
+  public void add (final double dValue)
+  {
+    _ensureCapacity (m_nSize + 1);
+    m_aData[m_nSize++] = dValue;
+  }
+
+  public void addAll (@Nullable final double... aValues)
+  {
+    if (aValues != null && aValues.length > 0)
+    {
+      _ensureCapacity (m_nSize + aValues.length);
+      System.arraycopy (aValues, 0, m_aData, m_nSize, aValues.length);
+      m_nSize += aValues.length;
+    }
+  }
+
+  public double get (@Nonnegative final int nIndex)
+  {
+    _checkIndex (nIndex);
+    return m_aData[nIndex];
+  }
+
+  /**
+   * Set the value at the specified index.
+   *
+   * @param nIndex
+   *        The index to set. Must be &ge; 0 and &lt; {@link #size()}.
+   * @param dValue
+   *        The new value
+   * @return The old value at the specified index
+   */
+  public double set (@Nonnegative final int nIndex, final double dValue)
+  {
+    _checkIndex (nIndex);
+    final double ret = m_aData[nIndex];
+    m_aData[nIndex] = dValue;
+    return ret;
+  }
+
+  /**
+   * Remove the value at the specified index. All following values are shifted
+   * to the left.
+   *
+   * @param nIndex
+   *        The index to remove. Must be &ge; 0 and &lt; {@link #size()}.
+   * @return The removed value
+   */
+  public double removeAtIndex (@Nonnegative final int nIndex)
+  {
+    _checkIndex (nIndex);
+    final double ret = m_aData[nIndex];
+    final int nMoved = m_nSize - nIndex - 1;
+    if (nMoved > 0)
+      System.arraycopy (m_aData, nIndex + 1, m_aData, nIndex, nMoved);
+    m_nSize--;
+    return ret;
+  }
+
+  @CheckForSigned
+  public int indexOf (final double dValue)
+  {
+    for (int i = 0; i < m_nSize; ++i)
+      if (EqualsHelper.equals (m_aData[i], dValue))
+        return i;
+    return -1;
+  }
+
+  public boolean contains (final double dValue)
+  {
+    return indexOf (dValue) >= 0;
+  }
+
+  public void clear ()
+  {
+    m_nSize = 0;
+  }
+
+  @Nonnegative
+  public int size ()
+  {
+    return m_nSize;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_nSize == 0;
+  }
+
+  /**
+   * Sort all values in ascending order.
+   */
+  public void sort ()
+  {
+    Arrays.sort (m_aData, 0, m_nSize);
+  }
+
+  /**
+   * Invoke the passed consumer for all values of this list in order, without
+   * boxing.
+   *
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  public void forEach (@Nonnull final DoubleConsumer aConsumer)
+  {
+    final double [] aData = m_aData;
+    for (int i = 0; i < m_nSize; ++i)
+      aConsumer.accept (aData[i]);
+  }
+
+  /**
+   * @return A copy of all values of this list. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public double [] toArray ()
+  {
+    return Arrays.copyOf (m_aData, m_nSize);
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final DoubleArrayList rhs = (DoubleArrayList) o;
+    if (m_nSize != rhs.m_nSize)
+      return false;
+    for (int i = 0; i < m_nSize; ++i)
+      if (!EqualsHelper.equals (m_aData[i], rhs.m_aData[i]))
+        return false;
+    return true;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    final HashCodeGenerator aHCG = new HashCodeGenerator (this).append (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      aHCG.append (m_aData[i]);
+    return aHCG.getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Values", toArray ()).toString ();
+  }
+}
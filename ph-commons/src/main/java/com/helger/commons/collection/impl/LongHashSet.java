@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.map.MapHelper;
+
+/**
+ * Special long-primitive set. It uses the same open addressing approach as
+ * {@link com.helger.commons.collection.map.LongLongMap}, without the values.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class LongHashSet implements Serializable
+{
+  private static final long FREE_KEY = 0;
+
+  /** Keys */
+  private long [] m_aKeys;
+
+  /** Do we have 'free' key in the set? */
+  private boolean m_bHasFreeKey;
+
+  /** Fill factor, must be between (0 and 1) */
+  private final float m_fFillFactor;
+  /** We will resize a set once it reaches this size */
+  private int m_nThreshold;
+  /** Current set size */
+  private int m_nSize;
+  /** Mask to calculate the original position */
+  private int m_nMask;
+
+  public LongHashSet ()
+  {
+    this (16);
+  }
+
+  public LongHashSet (final int nSize)
+  {
+    this (nSize, 0.75f);
+  }
+
+  public LongHashSet (final int nSize, final float fFillFactor)
+  {
+    ValueEnforcer.isBetweenInclusive (fFillFactor, "FillFactor", 0f, 1f);
+    ValueEnforcer.isGT0 (nSize, "Size");
+    final int nCapacity = MapHelper.arraySize (nSize, fFillFactor);
+    m_nMask = nCapacity - 1;
+    m_fFillFactor = fFillFactor;
+
+    m_aKeys = new long [nCapacity];
+    m_nThreshold = (int) (nCapacity * fFillFactor);
+  }
+
+  public boolean contains (final long key)
+  {
+    if (key == FREE_KEY)
+      return m_bHasFreeKey;
+    return _getReadIndex (key) != -1;
+  }
+
+  /**
+   * Add a value to the set.
+   *
+   * @param key
+   *        The value to add
+   * @return <code>true</code> if the value was added, <code>false</code> if
+   *         it was already contained.
+   */
+  public boolean add (final long key)
+  {
+    if (key == FREE_KEY)
+    {
+      if (m_bHasFreeKey)
+        return false;
+      m_bHasFreeKey = true;
+      ++m_nSize;
+      return true;
+    }
+
+    int idx = _getPutIndex (key);
+    if (idx < 0)
+    {
+      // no insertion point? Should not happen...
+      _rehash (m_aKeys.length * 2);
+      idx = _getPutIndex (key);
+    }
+    if (m_aKeys[idx] == key)
+      return false;
+
+    m_aKeys[idx] = key;
+    ++m_nSize;
+    if (m_nSize >= m_nThreshold)
+      _rehash (m_aKeys.length * 2);
+    return true;
+  }
+
+  /**
+   * Remove a value from the set.
+   *
+   * @param key
+   *        The value to remove
+   * @return <code>true</code> if the value was removed, <code>false</code> if
+   *         it was not contained.
+   */
+  public boolean remove (final long key)
+  {
+    if (key == FREE_KEY)
+    {
+      if (!m_bHasFreeKey)
+        return false;
+      m_bHasFreeKey = false;
+      --m_nSize;
+      return true;
+    }
+
+    final int idx = _getReadIndex (key);
+    if (idx == -1)
+      return false;
+
+    _shiftKeys (idx);
+    --m_nSize;
+    return true;
+  }
+
+  public void clear ()
+  {
+    Arrays.fill (m_aKeys, FREE_KEY);
+    m_bHasFreeKey = false;
+    m_nSize = 0;
+  }
+
+  @Nonnegative
+  public int size ()
+  {
+    return m_nSize;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_nSize == 0;
+  }
+
+  /**
+   * Invoke the passed consumer for all values of this set, without boxing. The
+   * order of the values is undefined.
+   *
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  public void forEach (@Nonnull final LongConsumer aConsumer)
+  {
+    if (m_bHasFreeKey)
+      aConsumer.accept (FREE_KEY);
+    final long [] aKeys = m_aKeys;
+    for (final long nKey : aKeys)
+      if (nKey != FREE_KEY)
+        aConsumer.accept (nKey);
+  }
+
+  /**
+   * @return All values of this set in an undefined order. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public long [] toArray ()
+  {
+    final long [] ret = new long [m_nSize];
+    int nIndex = 0;
+    if (m_bHasFreeKey)
+      ret[nIndex++] = FREE_KEY;
+    for (final long nKey : m_aKeys)
+      if (nKey != FREE_KEY)
+        ret[nIndex++] = nKey;
+    return ret;
+  }
+
+  private void _rehash (final int nNewCapacity)
+  {
+    m_nThreshold = (int) (nNewCapacity * m_fFillFactor);
+    m_nMask = nNewCapacity - 1;
+
+    final int nOldCapacity = m_aKeys.length;
+    final long [] aOldKeys = m_aKeys;
+
+    m_aKeys = new long [nNewCapacity];
+    m_nSize = m_bHasFreeKey ? 1 : 0;
+
+    int i = nOldCapacity;
+    while (i > 0)
+    {
+      i--;
+      if (aOldKeys[i] != FREE_KEY)
+        add (aOldKeys[i]);
+    }
+  }
+
+  private int _shiftKeys (final int nPos)
+  {
+    // Shift entries with the same hash.
+    int pos = nPos;
+    final long [] keys = m_aKeys;
+    while (true)
+    {
+      final int last = pos;
+      pos = _getNextIndex (pos);
+      long k;
+      while (true)
+      {
+        k = keys[pos];
+        if (k == FREE_KEY)
+        {
+          keys[last] = FREE_KEY;
+          return last;
+        }
+        // calculate the starting slot for the current key
+        final int slot = MapHelper.phiMix (k) & m_nMask;
+        if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+          break;
+        pos = _getNextIndex (pos);
+      }
+      keys[last] = k;
+    }
+  }
+
+  /**
+   * Find key position in the set.
+   *
+   * @param key
+   *        Key to look for
+   * @return Key position or -1 if not found
+   */
+  @CheckForSigned
+  private int _getReadIndex (final long key)
+  {
+    int idx = MapHelper.phiMix (key) & m_nMask;
+    if (m_aKeys[idx] == key)
+    {
+      // we check FREE prior to this call
+      return idx;
+    }
+    if (m_aKeys[idx] == FREE_KEY)
+    {
+      // end of chain already
+      return -1;
+    }
+    final int startIdx = idx;
+    while ((idx = _getNextIndex (idx)) != startIdx)
+    {
+      if (m_aKeys[idx] == FREE_KEY)
+        return -1;
+      if (m_aKeys[idx] == key)
+        return idx;
+    }
+    return -1;
+  }
+
+  /**
+   * Find an index of a cell which should be updated by 'add' operation. It can
+   * be: 1) a cell with a given key 2) first free cell in the chain
+   *
+   * @param key
+   *        Key to look for
+   * @return Index of a cell to be updated by an 'add' operation
+   */
+  @CheckForSigned
+  private int _getPutIndex (final long key)
+  {
+    final int readIdx = _getReadIndex (key);
+    if (readIdx >= 0)
+      return readIdx;
+    // key not found, find insertion point
+    final int startIdx = MapHelper.phiMix (key) & m_nMask;
+    if (m_aKeys[startIdx] == FREE_KEY)
+      return startIdx;
+    int idx = startIdx;
+    while (m_aKeys[idx] != FREE_KEY)
+    {
+      idx = _getNextIndex (idx);
+      if (idx == startIdx)
+        return -1;
+    }
+    return idx;
+  }
+
+  private int _getNextIndex (final int currentIndex)
+  {
+    return (currentIndex + 1) & m_nMask;
+  }
+}
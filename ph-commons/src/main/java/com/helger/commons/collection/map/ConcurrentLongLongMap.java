@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import java.util.function.LongUnaryOperator;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.function.ILongLongConsumer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Thread-safe variant of {@link LongLongMap}, e.g. for counters keyed by
+ * numeric IDs. The keys are distributed over a fixed number of segments, each
+ * being a {@link LongLongMap} guarded by its own read-write lock, so that
+ * accesses to different segments don't block each other. Neither keys nor
+ * values are ever boxed.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public class ConcurrentLongLongMap
+{
+  /** The default number of segments */
+  public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+  /** The maximum number of segments */
+  public static final int MAX_CONCURRENCY_LEVEL = 1 << 16;
+
+  public static final long NO_VALUE = LongLongMap.NO_VALUE;
+
+  private static final class Segment
+  {
+    private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+    private final LongLongMap m_aMap;
+
+    Segment (@Nonnegative final int nSize)
+    {
+      m_aMap = new LongLongMap (nSize);
+    }
+  }
+
+  private final Segment [] m_aSegments;
+  private final int m_nSegmentShift;
+
+  public ConcurrentLongLongMap ()
+  {
+    this (DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  public ConcurrentLongLongMap (@Nonnegative final int nConcurrencyLevel)
+  {
+    this (nConcurrencyLevel, 16);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nConcurrencyLevel
+   *        The estimated number of concurrently updating threads. It is
+   *        rounded up to the next power of two and used as the number of
+   *        segments. Must be between 1 and {@link #MAX_CONCURRENCY_LEVEL}.
+   * @param nInitialSize
+   *        The expected total number of entries. Must be &gt; 0.
+   */
+  public ConcurrentLongLongMap (@Nonnegative final int nConcurrencyLevel, @Nonnegative final int nInitialSize)
+  {
+    ValueEnforcer.isBetweenInclusive (nConcurrencyLevel, "ConcurrencyLevel", 1, MAX_CONCURRENCY_LEVEL);
+    ValueEnforcer.isGT0 (nInitialSize, "InitialSize");
+
+    final int nSegments = (int) MapHelper.nextPowerOfTwo (nConcurrencyLevel);
+    // The highest bit of the mixed hash code is not used, as it is not
+    // distributed evenly
+    m_nSegmentShift = 31 - Integer.numberOfTrailingZeros (nSegments);
+    final int nSegmentSize = Math.max (1, nInitialSize / nSegments);
+    m_aSegments = new Segment [nSegments];
+    for (int i = 0; i < nSegments; ++i)
+      m_aSegments[i] = new Segment (nSegmentSize);
+  }
+
+  @Nonnull
+  private Segment _getSegment (final long key)
+  {
+    // Use the upper bits of the hash, as the segment maps use the lower bits
+    return m_aSegments[(MapHelper.phiMix (key) >>> m_nSegmentShift) & (m_aSegments.length - 1)];
+  }
+
+  /**
+   * @return The number of segments used. Always a power of two.
+   */
+  @Nonnegative
+  public final int getSegmentCount ()
+  {
+    return m_aSegments.length;
+  }
+
+  public long get (final long key)
+  {
+    final Segment aSegment = _getSegment (key);
+    return aSegment.m_aRWLock.readLocked ( () -> aSegment.m_aMap.get (key));
+  }
+
+  public long get (final long key, final long nDefault)
+  {
+    final Segment aSegment = _getSegment (key);
+    return aSegment.m_aRWLock.readLocked ( () -> aSegment.m_aMap.get (key, nDefault));
+  }
+
+  public boolean containsKey (final long key)
+  {
+    final Segment aSegment = _getSegment (key);
+    return aSegment.m_aRWLock.readLocked ( () -> aSegment.m_aMap.containsKey (key));
+  }
+
+  /**
+   * Get the value of the passed key or atomically create it, if it is not
+   * present or {@link #NO_VALUE}. The provider is invoked while the segment of
+   * the key is locked, so it should be fast and must not access this map.
+   *
+   * @param key
+   *        The key to get or create.
+   * @param aProvider
+   *        The provider for the new value. May not be <code>null</code>. If it
+   *        returns {@link #NO_VALUE}, nothing is added.
+   * @return The existing or the newly created value.
+   */
+  public long computeIfAbsent (final long key, @Nonnull final LongUnaryOperator aProvider)
+  {
+    ValueEnforcer.notNull (aProvider, "Provider");
+
+    final Segment aSegment = _getSegment (key);
+    final long ret = aSegment.m_aRWLock.readLocked ( () -> aSegment.m_aMap.get (key));
+    if (ret != NO_VALUE)
+      return ret;
+
+    // Check again in write lock
+    return aSegment.m_aRWLock.writeLocked ( () -> aSegment.m_aMap.computeIfAbsent (key, aProvider));
+  }
+
+  /**
+   * Atomically add the passed delta to the value of the passed key. If the key
+   * is not contained, it is added with the delta as the value.
+   *
+   * @param key
+   *        The key to be modified
+   * @param nDelta
+   *        The delta to add
+   * @return The new value
+   */
+  public long addAndGet (final long key, final long nDelta)
+  {
+    final Segment aSegment = _getSegment (key);
+    return aSegment.m_aRWLock.writeLocked ( () -> aSegment.m_aMap.addAndGet (key, nDelta));
+  }
+
+  public long incrementAndGet (final long key)
+  {
+    return addAndGet (key, 1);
+  }
+
+  public long put (final long key, final long nValue)
+  {
+    final Segment aSegment = _getSegment (key);
+    return aSegment.m_aRWLock.writeLocked ( () -> aSegment.m_aMap.put (key, nValue));
+  }
+
+  public long remove (final long key)
+  {
+    final Segment aSegment = _getSegment (key);
+    return aSegment.m_aRWLock.writeLocked ( () -> aSegment.m_aMap.remove (key));
+  }
+
+  /**
+   * @return The number of entries in this map. As the segments are counted one
+   *         after the other, concurrent modifications may or may not be
+   *         reflected.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    int ret = 0;
+    for (final Segment aSegment : m_aSegments)
+      ret += aSegment.m_aRWLock.readLocked (aSegment.m_aMap::size);
+    return ret;
+  }
+
+  public boolean isEmpty ()
+  {
+    for (final Segment aSegment : m_aSegments)
+      if (!aSegment.m_aRWLock.readLocked (aSegment.m_aMap::isEmpty))
+        return false;
+    return true;
+  }
+
+  /**
+   * Invoke the passed consumer for all entries of this map, without boxing. The
+   * segments are iterated one after the other, each while holding its read
+   * lock, so the consumer must not modify this map. Concurrent modifications
+   * of other segments may or may not be reflected.
+   *
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  public void forEach (@Nonnull final ILongLongConsumer aConsumer)
+  {
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    for (final Segment aSegment : m_aSegments)
+      aSegment.m_aRWLock.readLocked ( () -> aSegment.m_aMap.forEach (aConsumer));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("SegmentCount", m_aSegments.length)
+                                       .append ("Size", size ())
+                                       .toString ();
+  }
+}
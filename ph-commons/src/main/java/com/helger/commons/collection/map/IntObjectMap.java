@@ -29,6 +29,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.equals.EqualsHelper;
+import com.helger.commons.function.IIntObjectConsumer;
 import com.helger.commons.lang.GenericReflection;
 
 /**
@@ -204,6 +205,47 @@ public class IntObjectMap <T> implements Serializable
     return m_nSize;
   }
 
+  /**
+   * @return <code>true</code> if the map is empty, <code>false</code> if not.
+   * @since 8.6.0
+   */
+  public boolean isEmpty ()
+  {
+    return m_nSize == 0;
+  }
+
+  /**
+   * @param key
+   *        The key to check
+   * @return <code>true</code> if a mapping for the key is present,
+   *         <code>false</code> if not.
+   * @since 8.6.0
+   */
+  public boolean containsKey (final int key)
+  {
+    if (key == FREE_KEY)
+      return m_bHasFreeKey;
+    return _getReadIndex (key) != -1;
+  }
+
+  /**
+   * Invoke the passed consumer for all entries of this map, without boxing.
+   * The order of the entries is undefined.
+   *
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   * @since 8.6.0
+   */
+  public void forEach (@Nonnull final IIntObjectConsumer <? super T> aConsumer)
+  {
+    if (m_bHasFreeKey)
+      aConsumer.accept (FREE_KEY, m_aFreeValue);
+    final int [] aKeys = m_aKeys;
+    for (int i = 0; i < aKeys.length; ++i)
+      if (aKeys[i] != FREE_KEY)
+        aConsumer.accept (aKeys[i], m_aValues[i]);
+  }
+
   private void _rehash (final int nNewCapacity)
   {
     m_nThreshold = (int) (nNewCapacity * m_fFillFactor);
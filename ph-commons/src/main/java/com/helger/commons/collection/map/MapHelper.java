@@ -20,13 +20,14 @@ import javax.annotation.Nonnegative;
 import javax.annotation.concurrent.Immutable;
 
 /**
- * Primitive map common methods
+ * Primitive map common methods. Public since 8.6.0 so that hash tables in
+ * other packages can use the same index calculation.
  *
  * @author Mikhail Vorontsov
  * @author Philip Helger
  */
 @Immutable
-final class MapHelper
+public final class MapHelper
 {
   private MapHelper ()
   {}
@@ -81,10 +82,33 @@ final class MapHelper
 
   // taken from FastUtil
   private static final int INT_PHI = 0x9E3779B9;
+  private static final long LONG_PHI = 0x9E3779B97F4A7C15L;
 
+  /**
+   * Mix an int value so that it can be used as a hash table index.
+   *
+   * @param n
+   *        The value to mix
+   * @return The mixed value. Only the lower bits are relevant.
+   */
   public static int phiMix (final int n)
   {
     final int h = n * INT_PHI;
     return h ^ (h >> 16);
   }
+
+  /**
+   * Mix a long value so that it can be used as a hash table index.
+   *
+   * @param n
+   *        The value to mix
+   * @return The mixed value. Only the lower bits are relevant.
+   * @since 8.6.0
+   */
+  public static int phiMix (final long n)
+  {
+    long h = n * LONG_PHI;
+    h ^= h >>> 32;
+    return (int) (h ^ (h >>> 16));
+  }
 }
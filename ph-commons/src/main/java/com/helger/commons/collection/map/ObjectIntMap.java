@@ -0,0 +1,337 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import java.io.Serializable;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.lang.GenericReflection;
+
+/**
+ * Special Object-int-primitive map, e.g. for counters. It uses the same open
+ * addressing approach as {@link IntIntMap}. <code>null</code> keys are not
+ * supported.
+ *
+ * @author Philip Helger
+ * @param <K>
+ *        Key type
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class ObjectIntMap <K> implements Serializable
+{
+  public static final int NO_VALUE = 0;
+
+  /** Keys - null means free */
+  private K [] m_aKeys;
+  /** Values */
+  private int [] m_aValues;
+
+  /** Fill factor, must be between (0 and 1) */
+  private final float m_fFillFactor;
+  /** We will resize a map once it reaches this size */
+  private int m_nThreshold;
+  /** Current map size */
+  private int m_nSize;
+  /** Mask to calculate the original position */
+  private int m_nMask;
+
+  public ObjectIntMap ()
+  {
+    this (16);
+  }
+
+  public ObjectIntMap (final int nSize)
+  {
+    this (nSize, 0.75f);
+  }
+
+  public ObjectIntMap (final int nSize, final float fFillFactor)
+  {
+    ValueEnforcer.isBetweenInclusive (fFillFactor, "FillFactor", 0f, 1f);
+    ValueEnforcer.isGT0 (nSize, "Size");
+    final int nCapacity = MapHelper.arraySize (nSize, fFillFactor);
+    m_nMask = nCapacity - 1;
+    m_fFillFactor = fFillFactor;
+
+    m_aKeys = _createKeyArray (nCapacity);
+    m_aValues = new int [nCapacity];
+    m_nThreshold = (int) (nCapacity * fFillFactor);
+  }
+
+  @Nonnull
+  private K [] _createKeyArray (@Nonnegative final int nSize)
+  {
+    return GenericReflection.uncheckedCast (new Object [nSize]);
+  }
+
+  private int _getStartIndex (@Nonnull final Object aKey)
+  {
+    return MapHelper.phiMix (aKey.hashCode ()) & m_nMask;
+  }
+
+  public int get (@Nonnull final K key)
+  {
+    return get (key, NO_VALUE);
+  }
+
+  public int get (@Nonnull final K key, final int nDefault)
+  {
+    final int idx = _getReadIndex (key);
+    return idx != -1 ? m_aValues[idx] : nDefault;
+  }
+
+  public int computeIfAbsent (@Nonnull final K key, @Nonnull final ToIntFunction <? super K> aProvider)
+  {
+    int ret = get (key);
+    if (ret == NO_VALUE)
+    {
+      ret = aProvider.applyAsInt (key);
+      if (ret != NO_VALUE)
+        put (key, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Add the passed delta to the value of the passed key. If the key is not
+   * contained, it is added with the delta as the value.
+   *
+   * @param key
+   *        The key to be modified. May not be <code>null</code>.
+   * @param nDelta
+   *        The delta to add
+   * @return The new value
+   */
+  public int addAndGet (@Nonnull final K key, final int nDelta)
+  {
+    ValueEnforcer.notNull (key, "Key");
+
+    int idx = _getPutIndex (key);
+    if (idx < 0)
+    {
+      // no insertion point? Should not happen...
+      _rehash (m_aKeys.length * 2);
+      idx = _getPutIndex (key);
+    }
+    if (m_aKeys[idx] == null)
+    {
+      m_aKeys[idx] = key;
+      m_aValues[idx] = nDelta;
+      ++m_nSize;
+      if (m_nSize >= m_nThreshold)
+        _rehash (m_aKeys.length * 2);
+      return nDelta;
+    }
+    return m_aValues[idx] += nDelta;
+  }
+
+  public int put (@Nonnull final K key, final int value)
+  {
+    ValueEnforcer.notNull (key, "Key");
+
+    int idx = _getPutIndex (key);
+    if (idx < 0)
+    {
+      // no insertion point? Should not happen...
+      _rehash (m_aKeys.length * 2);
+      idx = _getPutIndex (key);
+    }
+    final int prev = m_aValues[idx];
+    if (m_aKeys[idx] == null)
+    {
+      m_aKeys[idx] = key;
+      m_aValues[idx] = value;
+      ++m_nSize;
+      if (m_nSize >= m_nThreshold)
+        _rehash (m_aKeys.length * 2);
+    }
+    else
+    {
+      // it means used cell with our key
+      m_aValues[idx] = value;
+    }
+    return prev;
+  }
+
+  public int remove (@Nonnull final K key)
+  {
+    final int idx = _getReadIndex (key);
+    if (idx == -1)
+      return NO_VALUE;
+
+    final int res = m_aValues[idx];
+    m_aValues[idx] = NO_VALUE;
+    _shiftKeys (idx);
+    --m_nSize;
+    return res;
+  }
+
+  @Nonnegative
+  public int size ()
+  {
+    return m_nSize;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_nSize == 0;
+  }
+
+  public boolean containsKey (@Nonnull final K key)
+  {
+    return _getReadIndex (key) != -1;
+  }
+
+  /**
+   * Invoke the passed consumer for all entries of this map, without boxing the
+   * values. The order of the entries is undefined.
+   *
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  public void forEach (@Nonnull final ObjIntConsumer <? super K> aConsumer)
+  {
+    final K [] aKeys = m_aKeys;
+    for (int i = 0; i < aKeys.length; ++i)
+      if (aKeys[i] != null)
+        aConsumer.accept (aKeys[i], m_aValues[i]);
+  }
+
+  private void _rehash (final int nNewCapacity)
+  {
+    m_nThreshold = (int) (nNewCapacity * m_fFillFactor);
+    m_nMask = nNewCapacity - 1;
+
+    final int nOldCapacity = m_aKeys.length;
+    final K [] aOldKeys = m_aKeys;
+    final int [] aOldValues = m_aValues;
+
+    m_aKeys = _createKeyArray (nNewCapacity);
+    m_aValues = new int [nNewCapacity];
+    m_nSize = 0;
+
+    int i = nOldCapacity;
+    while (i > 0)
+    {
+      i--;
+      if (aOldKeys[i] != null)
+        put (aOldKeys[i], aOldValues[i]);
+    }
+  }
+
+  private int _shiftKeys (final int nPos)
+  {
+    // Shift entries with the same hash.
+    int pos = nPos;
+    final K [] keys = m_aKeys;
+    while (true)
+    {
+      final int last = pos;
+      pos = _getNextIndex (pos);
+      K k;
+      while (true)
+      {
+        k = keys[pos];
+        if (k == null)
+        {
+          keys[last] = null;
+          m_aValues[last] = NO_VALUE;
+          return last;
+        }
+        // calculate the starting slot for the current key
+        final int slot = _getStartIndex (k);
+        if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+          break;
+        pos = _getNextIndex (pos);
+      }
+      keys[last] = k;
+      m_aValues[last] = m_aValues[pos];
+    }
+  }
+
+  /**
+   * Find key position in the map.
+   *
+   * @param key
+   *        Key to look for
+   * @return Key position or -1 if not found
+   */
+  @CheckForSigned
+  private int _getReadIndex (@Nonnull final Object key)
+  {
+    int idx = _getStartIndex (key);
+    Object k = m_aKeys[idx];
+    if (k == null)
+    {
+      // end of chain already
+      return -1;
+    }
+    if (k == key || k.equals (key))
+      return idx;
+    final int startIdx = idx;
+    while ((idx = _getNextIndex (idx)) != startIdx)
+    {
+      k = m_aKeys[idx];
+      if (k == null)
+        return -1;
+      if (k == key || k.equals (key))
+        return idx;
+    }
+    return -1;
+  }
+
+  /**
+   * Find an index of a cell which should be updated by 'put' operation. It can
+   * be: 1) a cell with a given key 2) first free cell in the chain
+   *
+   * @param key
+   *        Key to look for
+   * @return Index of a cell to be updated by a 'put' operation
+   */
+  @CheckForSigned
+  private int _getPutIndex (@Nonnull final Object key)
+  {
+    final int readIdx = _getReadIndex (key);
+    if (readIdx >= 0)
+      return readIdx;
+    // key not found, find insertion point
+    final int startIdx = _getStartIndex (key);
+    if (m_aKeys[startIdx] == null)
+      return startIdx;
+    int idx = startIdx;
+    while (m_aKeys[idx] != null)
+    {
+      idx = _getNextIndex (idx);
+      if (idx == startIdx)
+        return -1;
+    }
+    return idx;
+  }
+
+  private int _getNextIndex (final int currentIndex)
+  {
+    return (currentIndex + 1) & m_nMask;
+  }
+}
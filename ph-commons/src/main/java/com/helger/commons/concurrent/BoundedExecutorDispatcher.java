@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.callback.exception.IExceptionCallback;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Passes items to a {@link Consumer}, either directly in the calling thread or
+ * via an {@link Executor}. When an executor is used, the number of items that
+ * were dispatched but not yet processed is limited, so that a fast producer
+ * (like a streaming reader) is blocked instead of filling up the memory. After
+ * the first failed item, the remaining pending items are skipped and
+ * {@link #isFailed()} returns <code>true</code>, so that the producer can stop.
+ *
+ * @author Philip Helger
+ * @param <DATATYPE>
+ *        The type of items to be dispatched
+ * @since 8.6.0
+ */
+@ThreadSafe
+public final class BoundedExecutorDispatcher <DATATYPE>
+{
+  private final Consumer <? super DATATYPE> m_aConsumer;
+  private final IExceptionCallback <Throwable> m_aExceptionHandler;
+  private final Executor m_aExecutor;
+  private final int m_nMaxPending;
+  private final Semaphore m_aPending;
+  private final AtomicBoolean m_aFailed = new AtomicBoolean (false);
+
+  /**
+   * Constructor
+   *
+   * @param aExecutor
+   *        The executor to process the items. May be <code>null</code> to
+   *        process the items in the calling thread.
+   * @param nMaxPending
+   *        The maximum number of items dispatched to the executor that are not
+   *        yet processed. Must be &gt; 0.
+   * @param aConsumer
+   *        The consumer that is invoked for each item. May not be
+   *        <code>null</code>.
+   * @param aExceptionHandler
+   *        The exception handler that is invoked for exceptions thrown by the
+   *        consumer on the executor. Exceptions thrown in the calling thread
+   *        are propagated instead. May not be <code>null</code>.
+   */
+  public BoundedExecutorDispatcher (@Nullable final Executor aExecutor,
+                                    @Nonnegative final int nMaxPending,
+                                    @Nonnull final Consumer <? super DATATYPE> aConsumer,
+                                    @Nonnull final IExceptionCallback <Throwable> aExceptionHandler)
+  {
+    ValueEnforcer.isGT0 (nMaxPending, "MaxPending");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+    ValueEnforcer.notNull (aExceptionHandler, "ExceptionHandler");
+    m_aConsumer = aConsumer;
+    m_aExceptionHandler = aExceptionHandler;
+    m_aExecutor = aExecutor;
+    m_nMaxPending = nMaxPending;
+    m_aPending = aExecutor == null ? null : new Semaphore (nMaxPending);
+  }
+
+  /**
+   * @return <code>true</code> if processing of at least one item on the
+   *         executor failed.
+   */
+  public boolean isFailed ()
+  {
+    return m_aFailed.get ();
+  }
+
+  /**
+   * Process the passed item. Without an executor the consumer is invoked
+   * directly. Otherwise this method blocks until less than the maximum number
+   * of items are pending and then passes the item to the executor.
+   *
+   * @param aItem
+   *        The item to be processed. May not be <code>null</code>.
+   * @throws InterruptedException
+   *         if waiting for a pending item to finish was interrupted. The item
+   *         was not dispatched in this case.
+   * @throws RejectedExecutionException
+   *         if the executor does not accept the item
+   */
+  public void dispatch (@Nonnull final DATATYPE aItem) throws InterruptedException
+  {
+    if (m_aExecutor == null)
+    {
+      // Process in this thread
+      m_aConsumer.accept (aItem);
+      return;
+    }
+
+    m_aPending.acquire ();
+    try
+    {
+      m_aExecutor.execute ( () -> {
+        try
+        {
+          if (!m_aFailed.get ())
+            m_aConsumer.accept (aItem);
+        }
+        catch (final Throwable t)
+        {
+          m_aFailed.set (true);
+          m_aExceptionHandler.onException (t);
+        }
+        finally
+        {
+          m_aPending.release ();
+        }
+      });
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      m_aPending.release ();
+      throw ex;
+    }
+  }
+
+  /**
+   * Wait until all items dispatched to the executor are processed.
+   *
+   * @return {@link ESuccess#FAILURE} if the processing of at least one item
+   *         failed or if waiting was interrupted. In the latter case the
+   *         interrupted flag of the current thread is set again.
+   */
+  @Nonnull
+  public ESuccess waitForPending ()
+  {
+    if (m_aExecutor != null)
+    {
+      try
+      {
+        m_aPending.acquire (m_nMaxPending);
+        m_aPending.release (m_nMaxPending);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        return ESuccess.FAILURE;
+      }
+    }
+    return ESuccess.valueOf (!m_aFailed.get ());
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).appendIfNotNull ("Executor", m_aExecutor)
+                                       .append ("MaxPending", m_nMaxPending)
+                                       .append ("Failed", m_aFailed.get ())
+                                       .toString ();
+  }
+}
@@ -27,6 +27,7 @@ import com.helger.commons.annotation.IsLocked;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.Singleton;
 import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
 
 /**
  * This class provides a cache for {@link DateTimeFormatter} instances. It
@@ -50,7 +51,7 @@ public final class DateTimeFormatterCache extends AbstractNotifyingCache <DateTi
 
   private DateTimeFormatterCache ()
   {
-    super (MAX_CACHE_SIZE, DateTimeFormatterCache.class.getName ());
+    super (MAX_CACHE_SIZE, DateTimeFormatterCache.class.getName (), ECacheMode.CONCURRENT);
   }
 
   public static boolean isInstantiated ()
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.function;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Represents an operation that accepts an int key and an object value and
+ * returns no result. This is the primitive type specialization of
+ * {@link BiConsumer} for an {@code int} key.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The type of the second argument
+ * @since 8.6.0
+ */
+@FunctionalInterface
+public interface IIntObjectConsumer <T>
+{
+  /**
+   * Performs this operation on the given arguments.
+   *
+   * @param nKey
+   *        the first input argument
+   * @param aValue
+   *        the second input argument
+   */
+  void accept (int nKey, T aValue);
+}
@@ -29,12 +29,11 @@ import javax.annotation.concurrent.ThreadSafe;
 import com.helger.commons.CGlobal;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.CodingStyleguideUnaware;
-import com.helger.commons.annotation.ELockType;
-import com.helger.commons.annotation.IsLocked;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.annotation.ReturnsImmutableObject;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
 import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.CommonsHashMap;
 import com.helger.commons.collection.ext.ICommonsList;
@@ -62,12 +61,11 @@ public final class LocaleHelper
   {
     public LocaleListCache ()
     {
-      super (LocaleListCache.class.getName ());
+      super (CGlobal.ILLEGAL_UINT, LocaleListCache.class.getName (), ECacheMode.CONCURRENT_SOFT);
     }
 
     @Override
     @Nullable
-    @IsLocked (ELockType.WRITE)
     @ReturnsImmutableObject
     @CodingStyleguideUnaware
     protected List <Locale> getValueToCache (@Nullable final Locale aBaseLocale)
@@ -0,0 +1,563 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.pool;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.factory.IFactory;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
+import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A scalable generic object pool with a configurable maximum size. In contrast
+ * to {@link ObjectPool} borrowing and returning objects does not require a
+ * lock: the number of borrowed objects is limited by a non-fair
+ * {@link Semaphore} and each pooled object is claimed via a compare-and-set on
+ * its own state. Each thread first tries to reuse the object it used last
+ * (thread affinity), so that usually neither borrowing nor returning needs to
+ * scan the pooled objects. Objects are created lazily via the factory.<br>
+ * Optionally a timeout for borrowing, a validator that is called before an
+ * idle object is borrowed and a reset hook that is called when an object is
+ * returned can be provided. If a statistics name is provided, the pool usage
+ * is recorded in the {@link StatisticsManager}.
+ *
+ * @author Philip Helger
+ * @param <DATATYPE>
+ *        The type of the objects contained in the pool.
+ * @since 8.6.0
+ */
+@ThreadSafe
+public final class ConcurrentObjectPool <DATATYPE> implements IMutableObjectPool <DATATYPE>
+{
+  /** Borrow timeout value indicating to wait until an object is available */
+  public static final long WAIT_FOREVER = -1;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (ConcurrentObjectPool.class);
+
+  /**
+   * Semaphore whose number of permits can be reduced.
+   */
+  private static final class ResizableSemaphore extends Semaphore
+  {
+    ResizableSemaphore (final int nPermits)
+    {
+      super (nPermits);
+    }
+
+    @Override
+    public void reducePermits (final int nReduction)
+    {
+      super.reducePermits (nReduction);
+    }
+  }
+
+  /**
+   * A single pooled object together with its usage state.
+   */
+  private static final class PoolEntry <DATATYPE>
+  {
+    private final DATATYPE m_aItem;
+    private final AtomicBoolean m_aInUse = new AtomicBoolean (true);
+
+    PoolEntry (@Nonnull final DATATYPE aItem)
+    {
+      m_aItem = aItem;
+    }
+  }
+
+  private final SimpleLock m_aLock = new SimpleLock ();
+  private final IFactory <DATATYPE> m_aFactory;
+  private final ResizableSemaphore m_aAvailable;
+  // Only modified when objects are created or discarded
+  private final CopyOnWriteArrayList <PoolEntry <DATATYPE>> m_aEntries = new CopyOnWriteArrayList<> ();
+  // The entry last used by the current thread. Weakly referenced, so that
+  // discarded entries are not kept alive by idle threads.
+  private final ThreadLocal <WeakReference <PoolEntry <DATATYPE>>> m_aLastEntry = new ThreadLocal<> ();
+  private final AtomicLong m_aCreatedCount = new AtomicLong (0);
+  private volatile int m_nMaxSize;
+  private volatile long m_nBorrowTimeoutMillis = WAIT_FOREVER;
+  private volatile Predicate <? super DATATYPE> m_aValidator;
+  private volatile Consumer <? super DATATYPE> m_aResetter;
+
+  // Statistics - all null if no statistics name is present
+  private final IMutableStatisticsHandlerCounter m_aStatsBorrow;
+  private final IMutableStatisticsHandlerCounter m_aStatsCreate;
+  private final IMutableStatisticsHandlerCounter m_aStatsTimeout;
+  private final IMutableStatisticsHandlerCounter m_aStatsDiscard;
+  private final IMutableStatisticsHandlerTimer m_aStatsWait;
+
+  /**
+   * Create a new object pool without statistics.
+   *
+   * @param nMaxSize
+   *        The maximum number of items in the pool. Must be &ge; 1.
+   * @param aFactory
+   *        The factory to create object. May not be <code>null</code>. The
+   *        factory may not create <code>null</code> objects, as this leads to
+   *        an error!
+   */
+  public ConcurrentObjectPool (@Nonnegative final int nMaxSize, @Nonnull final IFactory <DATATYPE> aFactory)
+  {
+    this (null, nMaxSize, aFactory);
+  }
+
+  /**
+   * Create a new object pool.
+   *
+   * @param sStatisticsName
+   *        The name prefix of the statistics handlers to use. May be
+   *        <code>null</code> to not record any statistics. Otherwise the
+   *        counters <code>$borrow</code>, <code>$create</code>,
+   *        <code>$timeout</code> and <code>$discard</code> as well as the timer
+   *        <code>$wait</code> (time spent waiting for an object) are used.
+   * @param nMaxSize
+   *        The maximum number of items in the pool. Must be &ge; 1.
+   * @param aFactory
+   *        The factory to create object. May not be <code>null</code>. The
+   *        factory may not create <code>null</code> objects, as this leads to
+   *        an error!
+   */
+  public ConcurrentObjectPool (@Nullable final String sStatisticsName,
+                               @Nonnegative final int nMaxSize,
+                               @Nonnull final IFactory <DATATYPE> aFactory)
+  {
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    ValueEnforcer.notNull (aFactory, "Factory");
+
+    m_aFactory = aFactory;
+    m_aAvailable = new ResizableSemaphore (nMaxSize);
+    m_nMaxSize = nMaxSize;
+    if (StringHelper.hasText (sStatisticsName))
+    {
+      m_aStatsBorrow = StatisticsManager.getCounterHandler (sStatisticsName + "$borrow");
+      m_aStatsCreate = StatisticsManager.getCounterHandler (sStatisticsName + "$create");
+      m_aStatsTimeout = StatisticsManager.getCounterHandler (sStatisticsName + "$timeout");
+      m_aStatsDiscard = StatisticsManager.getCounterHandler (sStatisticsName + "$discard");
+      m_aStatsWait = StatisticsManager.getTimerHandler (sStatisticsName + "$wait");
+    }
+    else
+    {
+      m_aStatsBorrow = null;
+      m_aStatsCreate = null;
+      m_aStatsTimeout = null;
+      m_aStatsDiscard = null;
+      m_aStatsWait = null;
+    }
+  }
+
+  /**
+   * @return The maximum number of objects that can be borrowed at the same
+   *         time. Always &ge; 1.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * Change the maximum pool size. If the size is reduced while more objects
+   * are borrowed than allowed by the new size, new borrowers have to wait
+   * until enough objects were returned.
+   *
+   * @param nMaxSize
+   *        The new maximum number of items in the pool. Must be &ge; 1.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setMaxSize (@Nonnegative final int nMaxSize)
+  {
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    m_aLock.locked ( () -> {
+      final int nDelta = nMaxSize - m_nMaxSize;
+      if (nDelta > 0)
+        m_aAvailable.release (nDelta);
+      else
+        if (nDelta < 0)
+        {
+          m_aAvailable.reducePermits (-nDelta);
+          // Superfluous objects are discarded when they are returned
+        }
+      m_nMaxSize = nMaxSize;
+    });
+    return this;
+  }
+
+  /**
+   * @return The default timeout in milliseconds used by
+   *         {@link #borrowObject()}. {@link #WAIT_FOREVER} if
+   *         {@link #borrowObject()} waits until an object is available.
+   */
+  @CheckForSigned
+  public long getBorrowTimeoutMillis ()
+  {
+    return m_nBorrowTimeoutMillis;
+  }
+
+  /**
+   * @param nBorrowTimeoutMillis
+   *        The default timeout in milliseconds used by {@link #borrowObject()}.
+   *        Use {@link #WAIT_FOREVER} to wait until an object is available.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setBorrowTimeoutMillis (final long nBorrowTimeoutMillis)
+  {
+    m_nBorrowTimeoutMillis = nBorrowTimeoutMillis < 0 ? WAIT_FOREVER : nBorrowTimeoutMillis;
+    return this;
+  }
+
+  /**
+   * @return The validator that is invoked before an idle object is borrowed.
+   *         May be <code>null</code>.
+   */
+  @Nullable
+  public Predicate <? super DATATYPE> getValidator ()
+  {
+    return m_aValidator;
+  }
+
+  /**
+   * @param aValidator
+   *        The validator that is invoked before an idle object is borrowed.
+   *        Objects not matching the validator are discarded. May be
+   *        <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setValidator (@Nullable final Predicate <? super DATATYPE> aValidator)
+  {
+    m_aValidator = aValidator;
+    return this;
+  }
+
+  /**
+   * @return The hook that is invoked when an object is returned. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public Consumer <? super DATATYPE> getResetter ()
+  {
+    return m_aResetter;
+  }
+
+  /**
+   * @param aResetter
+   *        The hook that is invoked when an object is returned, e.g. to reset
+   *        its state. If the hook throws an exception, the object is
+   *        discarded. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setResetter (@Nullable final Consumer <? super DATATYPE> aResetter)
+  {
+    m_aResetter = aResetter;
+    return this;
+  }
+
+  /**
+   * @return The number of currently borrowed objects.
+   */
+  @Nonnegative
+  public int getBorrowedCount ()
+  {
+    int ret = 0;
+    for (final PoolEntry <DATATYPE> aEntry : m_aEntries)
+      if (aEntry.m_aInUse.get ())
+        ret++;
+    return ret;
+  }
+
+  /**
+   * @return The number of idle objects in the pool.
+   */
+  @Nonnegative
+  public int getIdleCount ()
+  {
+    int ret = 0;
+    for (final PoolEntry <DATATYPE> aEntry : m_aEntries)
+      if (!aEntry.m_aInUse.get ())
+        ret++;
+    return ret;
+  }
+
+  /**
+   * @return The total number of objects created by the factory.
+   */
+  @Nonnegative
+  public long getCreatedCount ()
+  {
+    return m_aCreatedCount.get ();
+  }
+
+  /**
+   * Remove all idle objects from the pool. Borrowed objects are not affected.
+   */
+  public void clearUnusedItems ()
+  {
+    for (final PoolEntry <DATATYPE> aEntry : m_aEntries)
+    {
+      // Claim it, so that nobody else can borrow it anymore
+      if (aEntry.m_aInUse.compareAndSet (false, true))
+      {
+        m_aEntries.remove (aEntry);
+        if (_getLastEntry () == aEntry)
+          m_aLastEntry.remove ();
+      }
+    }
+  }
+
+  /**
+   * @return The entry last used by the current thread. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  private PoolEntry <DATATYPE> _getLastEntry ()
+  {
+    final WeakReference <PoolEntry <DATATYPE>> aRef = m_aLastEntry.get ();
+    return aRef == null ? null : aRef.get ();
+  }
+
+  /**
+   * Discard an entry that is claimed by the current thread. As it stays "in
+   * use" it can never be borrowed again.
+   */
+  private void _discard (@Nonnull final PoolEntry <DATATYPE> aEntry)
+  {
+    m_aEntries.remove (aEntry);
+    if (_getLastEntry () == aEntry)
+      m_aLastEntry.remove ();
+    if (m_aStatsDiscard != null)
+      m_aStatsDiscard.increment ();
+    if (s_aLogger.isDebugEnabled ())
+      s_aLogger.debug ("Discarding pooled object " + aEntry.m_aItem);
+  }
+
+  /**
+   * Try to claim the passed entry for the current thread.
+   *
+   * @return <code>true</code> if the entry was claimed and is valid
+   */
+  private boolean _claim (@Nonnull final PoolEntry <DATATYPE> aEntry,
+                          @Nullable final Predicate <? super DATATYPE> aValidator)
+  {
+    if (!aEntry.m_aInUse.compareAndSet (false, true))
+      return false;
+    if (aValidator != null && !aValidator.test (aEntry.m_aItem))
+    {
+      _discard (aEntry);
+      return false;
+    }
+    return true;
+  }
+
+  @Nonnull
+  private PoolEntry <DATATYPE> _borrowEntry ()
+  {
+    final Predicate <? super DATATYPE> aValidator = m_aValidator;
+
+    // Try the entry last used by this thread
+    final PoolEntry <DATATYPE> aLastEntry = _getLastEntry ();
+    if (aLastEntry != null && _claim (aLastEntry, aValidator))
+      return aLastEntry;
+
+    while (true)
+    {
+      // Try all other entries
+      for (final PoolEntry <DATATYPE> aEntry : m_aEntries)
+        if (_claim (aEntry, aValidator))
+          return aEntry;
+
+      // A permit was acquired, so there is either an idle entry (returned
+      // concurrently) or room for a new one
+      if (m_aEntries.size () < m_nMaxSize)
+      {
+        // Create a new object
+        final DATATYPE aItem = m_aFactory.get ();
+        if (aItem == null)
+          throw new IllegalStateException ("The factory returned a null object!");
+        m_aCreatedCount.incrementAndGet ();
+        if (m_aStatsCreate != null)
+          m_aStatsCreate.increment ();
+
+        final PoolEntry <DATATYPE> ret = new PoolEntry<> (aItem);
+        m_aEntries.add (ret);
+        return ret;
+      }
+      Thread.yield ();
+    }
+  }
+
+  /**
+   * Borrow an object from the pool using the default borrow timeout.
+   *
+   * @return The borrowed object. May be <code>null</code> if the timeout
+   *         elapsed or if the current thread was interrupted.
+   * @see #getBorrowTimeoutMillis()
+   */
+  @Nullable
+  public DATATYPE borrowObject ()
+  {
+    return borrowObject (m_nBorrowTimeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Borrow an object from the pool.
+   *
+   * @param nTimeout
+   *        The maximum time to wait for an object. A negative value means to
+   *        wait until an object is available.
+   * @param eUnit
+   *        The time unit of the timeout. May not be <code>null</code>.
+   * @return The borrowed object. May be <code>null</code> if the timeout
+   *         elapsed or if the current thread was interrupted.
+   */
+  @Nullable
+  public DATATYPE borrowObject (final long nTimeout, @Nonnull final TimeUnit eUnit)
+  {
+    ValueEnforcer.notNull (eUnit, "Unit");
+
+    // Wait for an object to be available
+    if (!m_aAvailable.tryAcquire ())
+    {
+      final long nStart = System.nanoTime ();
+      try
+      {
+        if (nTimeout < 0)
+          m_aAvailable.acquire ();
+        else
+          if (!m_aAvailable.tryAcquire (nTimeout, eUnit))
+          {
+            if (m_aStatsTimeout != null)
+              m_aStatsTimeout.increment ();
+            return null;
+          }
+      }
+      catch (final InterruptedException ex)
+      {
+        // In case of acquisition interruption -> return null
+        s_aLogger.error ("ConcurrentObjectPool interrupted", ex);
+        Thread.currentThread ().interrupt ();
+        return null;
+      }
+      if (m_aStatsWait != null)
+        m_aStatsWait.addTime (TimeUnit.NANOSECONDS.toMillis (System.nanoTime () - nStart));
+    }
+
+    try
+    {
+      final PoolEntry <DATATYPE> aEntry = _borrowEntry ();
+      if (_getLastEntry () != aEntry)
+        m_aLastEntry.set (new WeakReference<> (aEntry));
+      if (m_aStatsBorrow != null)
+        m_aStatsBorrow.increment ();
+      return aEntry.m_aItem;
+    }
+    catch (final RuntimeException ex)
+    {
+      m_aAvailable.release ();
+      throw ex;
+    }
+  }
+
+  @Nonnull
+  public ESuccess returnObject (@Nonnull final DATATYPE aItem)
+  {
+    ValueEnforcer.notNull (aItem, "Item");
+
+    // Usually the object is returned by the borrowing thread
+    PoolEntry <DATATYPE> aEntry = _getLastEntry ();
+    if (aEntry == null || aEntry.m_aItem != aItem)
+    {
+      aEntry = null;
+      for (final PoolEntry <DATATYPE> aCurEntry : m_aEntries)
+        if (aCurEntry.m_aItem == aItem)
+        {
+          aEntry = aCurEntry;
+          break;
+        }
+    }
+    if (aEntry == null || !aEntry.m_aInUse.get ())
+    {
+      s_aLogger.warn ("Object " + aItem + " is not pooled!");
+      return ESuccess.FAILURE;
+    }
+
+    boolean bReuse = m_aEntries.size () <= m_nMaxSize;
+    final Consumer <? super DATATYPE> aResetter = m_aResetter;
+    if (aResetter != null)
+      try
+      {
+        aResetter.accept (aItem);
+      }
+      catch (final RuntimeException ex)
+      {
+        s_aLogger.warn ("Failed to reset pooled object " + aItem + " - discarding it", ex);
+        bReuse = false;
+      }
+
+    if (bReuse)
+    {
+      if (!aEntry.m_aInUse.compareAndSet (true, false))
+      {
+        // Concurrently returned twice
+        s_aLogger.warn ("Object " + aItem + " was already returned!");
+        return ESuccess.FAILURE;
+      }
+    }
+    else
+      _discard (aEntry);
+
+    // Okay, we have one more available item
+    m_aAvailable.release ();
+    return ESuccess.SUCCESS;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxSize", m_nMaxSize)
+                                       .append ("BorrowTimeoutMillis", m_nBorrowTimeoutMillis)
+                                       .append ("EntryCount", m_aEntries.size ())
+                                       .append ("CreatedCount", m_aCreatedCount.get ())
+                                       .appendIfNotNull ("Validator", m_aValidator)
+                                       .appendIfNotNull ("Resetter", m_aResetter)
+                                       .toString ();
+  }
+}
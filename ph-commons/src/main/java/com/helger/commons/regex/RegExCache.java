@@ -28,6 +28,7 @@ import com.helger.commons.annotation.IsLocked;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.Singleton;
 import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
 
 /**
  * This class provides a cached for compiled regular expressions. It caches up
@@ -51,7 +52,7 @@ public final class RegExCache extends AbstractNotifyingCache <RegExPattern, Patt
 
   private RegExCache ()
   {
-    super (MAX_CACHE_SIZE, RegExCache.class.getName ());
+    super (MAX_CACHE_SIZE, RegExCache.class.getName (), ECacheMode.CONCURRENT);
   }
 
   public static boolean isInstantiated ()
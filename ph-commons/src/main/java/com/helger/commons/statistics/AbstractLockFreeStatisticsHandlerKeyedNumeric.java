@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsHashMap;
+import com.helger.commons.collection.ext.CommonsHashSet;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.collection.ext.ICommonsSet;
+
+/**
+ * Abstract base class for a lock-free keyed numeric statistic handler. Compared
+ * to {@link AbstractStatisticsHandlerKeyedNumeric} adding a value for an
+ * existing key never blocks and percentiles are available per key.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public abstract class AbstractLockFreeStatisticsHandlerKeyedNumeric implements IStatisticsHandlerKeyedNumeric
+{
+  /** The map key used for <code>null</code> keys */
+  private static final Object NULL_KEY = new Object ();
+
+  private static final class State implements Serializable
+  {
+    private final LongAdder m_aInvocationCount = new LongAdder ();
+    private final StatisticsWriterGate m_aGate = new StatisticsWriterGate ();
+    private final ConcurrentHashMap <Object, LockFreeStatisticsNumericValue> m_aMap = new ConcurrentHashMap <> ();
+  }
+
+  private final AtomicReference <State> m_aState = new AtomicReference <> (new State ());
+
+  @Nonnull
+  private static Object _mapKey (@Nullable final String sKey)
+  {
+    return sKey == null ? NULL_KEY : sKey;
+  }
+
+  @Nullable
+  private LockFreeStatisticsNumericValue _get (@Nullable final String sKey)
+  {
+    return m_aState.get ().m_aMap.get (_mapKey (sKey));
+  }
+
+  @Nonnegative
+  public final int getInvocationCount ()
+  {
+    return m_aState.get ().m_aInvocationCount.intValue ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeys ()
+  {
+    final ConcurrentHashMap <Object, LockFreeStatisticsNumericValue> aMap = m_aState.get ().m_aMap;
+    final ICommonsSet <String> ret = new CommonsHashSet <> (aMap.size ());
+    for (final Object aKey : aMap.keySet ())
+      ret.add (aKey == NULL_KEY ? null : (String) aKey);
+    return ret;
+  }
+
+  protected final void addValue (@Nullable final String sKey, final long nValue)
+  {
+    final Object aMapKey = _mapKey (sKey);
+    while (true)
+    {
+      final State aState = m_aState.get ();
+      if (aState.m_aGate.enter ())
+      {
+        try
+        {
+          aState.m_aInvocationCount.increment ();
+          LockFreeStatisticsNumericValue aValue = aState.m_aMap.get (aMapKey);
+          if (aValue == null)
+            aValue = aState.m_aMap.computeIfAbsent (aMapKey, k -> new LockFreeStatisticsNumericValue ());
+          aValue.add (nValue);
+        }
+        finally
+        {
+          aState.m_aGate.exit ();
+        }
+        return;
+      }
+      // A snapshot was taken in the meantime - retry on the new state
+    }
+  }
+
+  @CheckForSigned
+  public final int getInvocationCount (@Nullable final String sKey)
+  {
+    final LockFreeStatisticsNumericValue aValue = _get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_UINT : aValue.getInvocationCount ();
+  }
+
+  @Nullable
+  public final BigInteger getSum (@Nullable final String sKey)
+  {
+    final LockFreeStatisticsNumericValue aValue = _get (sKey);
+    return aValue == null ? null : aValue.getSum ();
+  }
+
+  @CheckForSigned
+  public final long getMin (@Nullable final String sKey)
+  {
+    final LockFreeStatisticsNumericValue aValue = _get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMin ();
+  }
+
+  @CheckForSigned
+  public final long getAverage (@Nullable final String sKey)
+  {
+    final LockFreeStatisticsNumericValue aValue = _get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getAverage ();
+  }
+
+  @CheckForSigned
+  public long getMax (@Nullable final String sKey)
+  {
+    final LockFreeStatisticsNumericValue aValue = _get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMax ();
+  }
+
+  @Override
+  public boolean hasPercentiles ()
+  {
+    return true;
+  }
+
+  @Override
+  @CheckForSigned
+  public long getPercentile (@Nullable final String sKey, final double dPercentile)
+  {
+    final LockFreeStatisticsNumericValue aValue = _get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getPercentile (dPercentile);
+  }
+
+  /**
+   * @return A read-only copy of the current values. This object is reset to the
+   *         initial state by atomically exchanging the underlying map. Values
+   *         added concurrently are either part of the returned snapshot or of
+   *         this object afterwards.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final ImmutableStatisticsHandlerKeyedNumeric getSnapshotAndReset ()
+  {
+    final State aOld = m_aState.getAndSet (new State ());
+    aOld.m_aGate.closeAndAwait ();
+    final ICommonsMap <String, ImmutableStatisticsHandlerNumeric> aMap = new CommonsHashMap <> (aOld.m_aMap.size ());
+    for (final Map.Entry <Object, LockFreeStatisticsNumericValue> aEntry : aOld.m_aMap.entrySet ())
+      aMap.put (aEntry.getKey () == NULL_KEY ? null : (String) aEntry.getKey (), aEntry.getValue ().getAsImmutable ());
+    return new ImmutableStatisticsHandlerKeyedNumeric (aOld.m_aInvocationCount.intValue (), aMap, true);
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Abstract base class for lock-free numeric statistic handler. Compared to
+ * {@link AbstractStatisticsHandlerNumeric} adding a value never blocks and
+ * percentiles are available.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public abstract class AbstractLockFreeStatisticsHandlerNumeric implements IStatisticsHandlerNumeric
+{
+  private static final class State implements Serializable
+  {
+    private final LockFreeStatisticsNumericValue m_aValue = new LockFreeStatisticsNumericValue ();
+    private final StatisticsWriterGate m_aGate = new StatisticsWriterGate ();
+  }
+
+  private final AtomicReference <State> m_aState = new AtomicReference <> (new State ());
+
+  @Nonnegative
+  public final int getInvocationCount ()
+  {
+    return m_aState.get ().m_aValue.getInvocationCount ();
+  }
+
+  protected final void addValue (final long nValue)
+  {
+    while (true)
+    {
+      final State aState = m_aState.get ();
+      if (aState.m_aGate.enter ())
+      {
+        try
+        {
+          aState.m_aValue.add (nValue);
+        }
+        finally
+        {
+          aState.m_aGate.exit ();
+        }
+        return;
+      }
+      // A snapshot was taken in the meantime - retry on the new state
+    }
+  }
+
+  @Nonnull
+  public final BigInteger getSum ()
+  {
+    return m_aState.get ().m_aValue.getSum ();
+  }
+
+  @CheckForSigned
+  public final long getMin ()
+  {
+    return m_aState.get ().m_aValue.getMin ();
+  }
+
+  @CheckForSigned
+  public final long getAverage ()
+  {
+    return m_aState.get ().m_aValue.getAverage ();
+  }
+
+  @CheckForSigned
+  public long getMax ()
+  {
+    return m_aState.get ().m_aValue.getMax ();
+  }
+
+  @Override
+  public boolean hasPercentiles ()
+  {
+    return true;
+  }
+
+  @Override
+  @CheckForSigned
+  public long getPercentile (final double dPercentile)
+  {
+    return m_aState.get ().m_aValue.getPercentile (dPercentile);
+  }
+
+  /**
+   * @return A read-only copy of the current values. This object is reset to the
+   *         initial state by atomically exchanging the underlying value.
+   *         Values added concurrently are either part of the returned snapshot
+   *         or of this object afterwards.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final ImmutableStatisticsHandlerNumeric getSnapshotAndReset ()
+  {
+    final State aOld = m_aState.getAndSet (new State ());
+    aOld.m_aGate.closeAndAwait ();
+    return aOld.m_aValue.getAsImmutable ();
+  }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.mutable.MutableLong;
+
+/**
+ * Abstract base class for all rolling statistics handlers. The values are
+ * recorded in a ring of buckets, each covering
+ * {@link ERollingStatisticsWindow#BUCKET_MILLIS} milliseconds. Outdated buckets
+ * are replaced by a compare-and-set of the ring slot, so recording never blocks
+ * - a recorder losing the race simply uses the bucket of the winner.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @param <BUCKETTYPE>
+ *        The bucket implementation type
+ */
+@ThreadSafe
+abstract class AbstractRollingStatisticsHandler <BUCKETTYPE extends AbstractRollingStatisticsHandler.AbstractBucket>
+                                                implements
+                                                IRollingStatisticsHandler
+{
+  /**
+   * Base class for a single bucket.
+   *
+   * @author Philip Helger
+   */
+  abstract static class AbstractBucket implements Serializable
+  {
+    private final long m_nEpoch;
+
+    protected AbstractBucket (final long nEpoch)
+    {
+      m_nEpoch = nEpoch;
+    }
+
+    final long getEpoch ()
+    {
+      return m_nEpoch;
+    }
+
+    @Nonnegative
+    abstract long getCount ();
+  }
+
+  /** The default clock, based on the monotonic system timer */
+  static final LongSupplier DEFAULT_CLOCK = () -> System.nanoTime () / CGlobal.NANOSECONDS_PER_MILLISECOND;
+
+  private static final int SLOT_COUNT = ERollingStatisticsWindow.getLongest ().getBucketCount ();
+
+  private final transient LongSupplier m_aClock;
+  private final long m_nCreationMillis;
+  private final LongAdder m_aInvocationCount = new LongAdder ();
+  private final AtomicReferenceArray <BUCKETTYPE> m_aSlots = new AtomicReferenceArray <> (SLOT_COUNT);
+
+  protected AbstractRollingStatisticsHandler (@Nonnull final LongSupplier aClock)
+  {
+    ValueEnforcer.notNull (aClock, "Clock");
+    m_aClock = aClock;
+    m_nCreationMillis = aClock.getAsLong ();
+  }
+
+  /**
+   * Create a new empty bucket.
+   *
+   * @param nEpoch
+   *        The epoch (current time divided by the bucket duration) of the
+   *        bucket.
+   * @return The new bucket. May not be <code>null</code>.
+   */
+  @Nonnull
+  protected abstract BUCKETTYPE createBucket (long nEpoch);
+
+  /**
+   * Count a new invocation and get the bucket to record the values in.
+   *
+   * @return The bucket for the current time. Never <code>null</code>.
+   */
+  @Nonnull
+  protected final BUCKETTYPE recordInvocation ()
+  {
+    m_aInvocationCount.increment ();
+
+    final long nEpoch = Math.floorDiv (m_aClock.getAsLong (), ERollingStatisticsWindow.BUCKET_MILLIS);
+    final int nSlot = (int) Math.floorMod (nEpoch, SLOT_COUNT);
+    BUCKETTYPE aBucket = m_aSlots.get (nSlot);
+    while (aBucket == null || aBucket.getEpoch () < nEpoch)
+    {
+      final BUCKETTYPE aNewBucket = createBucket (nEpoch);
+      if (m_aSlots.compareAndSet (nSlot, aBucket, aNewBucket))
+        return aNewBucket;
+      aBucket = m_aSlots.get (nSlot);
+    }
+    // If this thread was delayed, the bucket may already be newer - this is
+    // tolerated
+    return aBucket;
+  }
+
+  /**
+   * Invoke the provided consumer for all buckets inside the provided window.
+   *
+   * @param nNowMillis
+   *        The current time in milliseconds as returned by the clock.
+   * @param eWindow
+   *        The window to use. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  protected final void forEachBucket (final long nNowMillis,
+                                      @Nonnull final ERollingStatisticsWindow eWindow,
+                                      @Nonnull final Consumer <? super BUCKETTYPE> aConsumer)
+  {
+    ValueEnforcer.notNull (eWindow, "Window");
+
+    final long nNowEpoch = Math.floorDiv (nNowMillis, ERollingStatisticsWindow.BUCKET_MILLIS);
+    final long nMinEpoch = nNowEpoch - eWindow.getBucketCount ();
+    for (int i = 0; i < SLOT_COUNT; ++i)
+    {
+      final BUCKETTYPE aBucket = m_aSlots.get (i);
+      if (aBucket != null && aBucket.getEpoch () > nMinEpoch && aBucket.getEpoch () <= nNowEpoch)
+        aConsumer.accept (aBucket);
+    }
+  }
+
+  /**
+   * Invoke the provided consumer for all buckets inside the provided window,
+   * based on the current time.
+   *
+   * @param eWindow
+   *        The window to use. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  protected final void forEachBucket (@Nonnull final ERollingStatisticsWindow eWindow,
+                                      @Nonnull final Consumer <? super BUCKETTYPE> aConsumer)
+  {
+    forEachBucket (m_aClock.getAsLong (), eWindow, aConsumer);
+  }
+
+  @Nonnegative
+  public final int getInvocationCount ()
+  {
+    return m_aInvocationCount.intValue ();
+  }
+
+  @Nonnegative
+  private long _getCount (final long nNowMillis, @Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aCount = new MutableLong (0);
+    forEachBucket (nNowMillis, eWindow, aBucket -> aCount.inc (aBucket.getCount ()));
+    return aCount.longValue ();
+  }
+
+  @Nonnegative
+  public final long getCount (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    return _getCount (m_aClock.getAsLong (), eWindow);
+  }
+
+  @Nonnegative
+  public final double getRate (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final long nNowMillis = m_aClock.getAsLong ();
+    final long nCount = _getCount (nNowMillis, eWindow);
+
+    // The newest bucket is only partially elapsed
+    final long nNewestMillis = Math.floorMod (nNowMillis, ERollingStatisticsWindow.BUCKET_MILLIS);
+    long nCoveredMillis = (eWindow.getBucketCount () - 1) * ERollingStatisticsWindow.BUCKET_MILLIS + nNewestMillis;
+    nCoveredMillis = Math.min (nCoveredMillis, nNowMillis - m_nCreationMillis);
+    return nCount * (double) CGlobal.MILLISECONDS_PER_SECOND / Math.max (nCoveredMillis, 1);
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.mutable.MutableLong;
+
+/**
+ * Abstract base class for rolling timer and size handlers.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+abstract class AbstractRollingStatisticsHandlerNumeric extends
+                                                      AbstractRollingStatisticsHandler <AbstractRollingStatisticsHandlerNumeric.Bucket>
+                                                      implements
+                                                      IRollingStatisticsHandlerNumeric
+{
+  static final class Bucket extends AbstractRollingStatisticsHandler.AbstractBucket
+  {
+    private final LongAdder m_aCount = new LongAdder ();
+    private final LongAdder m_aSum = new LongAdder ();
+    private final LongAccumulator m_aMin = new LongAccumulator (Math::min, Long.MAX_VALUE);
+    private final LongAccumulator m_aMax = new LongAccumulator (Math::max, Long.MIN_VALUE);
+    private final StatisticsHistogram m_aHistogram = new StatisticsHistogram ();
+
+    Bucket (final long nEpoch)
+    {
+      super (nEpoch);
+    }
+
+    void add (final long nValue)
+    {
+      m_aCount.increment ();
+      m_aSum.add (nValue);
+      m_aMin.accumulate (nValue);
+      m_aMax.accumulate (nValue);
+      m_aHistogram.addValue (nValue);
+    }
+
+    @Override
+    @Nonnegative
+    long getCount ()
+    {
+      return m_aCount.sum ();
+    }
+  }
+
+  protected AbstractRollingStatisticsHandlerNumeric (@Nonnull final LongSupplier aClock)
+  {
+    super (aClock);
+  }
+
+  @Override
+  @Nonnull
+  protected final Bucket createBucket (final long nEpoch)
+  {
+    return new Bucket (nEpoch);
+  }
+
+  protected final void addValue (final long nValue)
+  {
+    recordInvocation ().add (nValue);
+  }
+
+  public final long getSum (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aSum = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> aSum.inc (aBucket.m_aSum.sum ()));
+    return aSum.longValue ();
+  }
+
+  @CheckForSigned
+  public final long getMin (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aMin = new MutableLong (Long.MAX_VALUE);
+    final MutableLong aCount = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> {
+      aCount.inc (aBucket.getCount ());
+      aMin.set (Math.min (aMin.longValue (), aBucket.m_aMin.get ()));
+    });
+    return aCount.longValue () == 0 ? CGlobal.ILLEGAL_ULONG : aMin.longValue ();
+  }
+
+  @CheckForSigned
+  public final long getAverage (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aSum = new MutableLong (0);
+    final MutableLong aCount = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> {
+      aCount.inc (aBucket.getCount ());
+      aSum.inc (aBucket.m_aSum.sum ());
+    });
+    return aCount.longValue () == 0 ? CGlobal.ILLEGAL_ULONG : aSum.longValue () / aCount.longValue ();
+  }
+
+  @CheckForSigned
+  public final long getMax (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aMax = new MutableLong (Long.MIN_VALUE);
+    final MutableLong aCount = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> {
+      aCount.inc (aBucket.getCount ());
+      aMax.set (Math.max (aMax.longValue (), aBucket.m_aMax.get ()));
+    });
+    return aCount.longValue () == 0 ? CGlobal.ILLEGAL_ULONG : aMax.longValue ();
+  }
+
+  @CheckForSigned
+  public final long getPercentile (@Nonnull final ERollingStatisticsWindow eWindow, final double dPercentile)
+  {
+    final StatisticsHistogram aMerged = new StatisticsHistogram ();
+    final MutableLong aMax = new MutableLong (Long.MIN_VALUE);
+    forEachBucket (eWindow, aBucket -> {
+      aMerged.addAll (aBucket.m_aHistogram);
+      aMax.set (Math.max (aMax.longValue (), aBucket.m_aMax.get ()));
+    });
+    final long nValue = aMerged.getValueAtPercentile (dPercentile);
+    if (nValue == CGlobal.ILLEGAL_ULONG)
+      return nValue;
+    // The histogram returns the bucket upper bound - never report more than
+    // the real maximum
+    return Math.min (nValue, aMax.longValue ());
+  }
+}
@@ -18,6 +18,7 @@ package com.helger.commons.statistics;
 
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.CheckForSigned;
@@ -97,6 +98,12 @@ public abstract class AbstractStatisticsHandlerKeyedNumeric implements IStatisti
       return m_aSum.divide (BigInteger.valueOf (m_nInvocationCount)).longValue ();
     }
 
+    @Nonnull
+    public ImmutableStatisticsHandlerNumeric getAsImmutable ()
+    {
+      return new ImmutableStatisticsHandlerNumeric (m_nInvocationCount, m_nMin, m_nMax, m_aSum, null);
+    }
+
     @Override
     public String toString ()
     {
@@ -128,8 +135,8 @@ public abstract class AbstractStatisticsHandlerKeyedNumeric implements IStatisti
 
   protected final void addValue (@Nullable final String sKey, final long nValue)
   {
-    m_aInvocationCount.incrementAndGet ();
     m_aRWLock.writeLocked ( () -> {
+      m_aInvocationCount.incrementAndGet ();
       final Value aValue = m_aMap.get (sKey);
       if (aValue == null)
         m_aMap.put (sKey, new Value (nValue));
@@ -182,4 +189,21 @@ public abstract class AbstractStatisticsHandlerKeyedNumeric implements IStatisti
       return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMax ();
     });
   }
+
+  /**
+   * @return A read-only copy of the current values. This object is reset to the
+   *         initial state in the same atomic step.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final ImmutableStatisticsHandlerKeyedNumeric getSnapshotAndReset ()
+  {
+    return m_aRWLock.writeLocked ( () -> {
+      final ICommonsMap <String, ImmutableStatisticsHandlerNumeric> aMap = new CommonsHashMap <> (m_aMap.size ());
+      for (final Map.Entry <String, Value> aEntry : m_aMap.entrySet ())
+        aMap.put (aEntry.getKey (), aEntry.getValue ().getAsImmutable ());
+      m_aMap.clear ();
+      return new ImmutableStatisticsHandlerKeyedNumeric (m_aInvocationCount.getAndSet (0), aMap, false);
+    });
+  }
 }
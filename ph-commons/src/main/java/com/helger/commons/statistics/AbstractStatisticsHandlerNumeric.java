@@ -85,4 +85,26 @@ public abstract class AbstractStatisticsHandlerNumeric implements IStatisticsHan
   {
     return m_aRWLock.readLocked ( () -> m_nMax);
   }
+
+  /**
+   * @return A read-only copy of the current values. This object is reset to the
+   *         initial state in the same atomic step.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final ImmutableStatisticsHandlerNumeric getSnapshotAndReset ()
+  {
+    return m_aRWLock.writeLocked ( () -> {
+      final ImmutableStatisticsHandlerNumeric ret = new ImmutableStatisticsHandlerNumeric (m_nInvocationCount,
+                                                                                           m_nMin,
+                                                                                           m_nMax,
+                                                                                           m_aSum,
+                                                                                           null);
+      m_nInvocationCount = 0;
+      m_nMin = CGlobal.ILLEGAL_ULONG;
+      m_nMax = CGlobal.ILLEGAL_ULONG;
+      m_aSum = BigInteger.ZERO;
+      return ret;
+    });
+  }
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.time.Duration;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import com.helger.commons.CGlobal;
+
+/**
+ * The time windows supported by the rolling statistics handlers.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+public enum ERollingStatisticsWindow
+{
+  /** The last minute */
+  ONE_MINUTE (1),
+  /** The last 5 minutes */
+  FIVE_MINUTES (5),
+  /** The last 15 minutes */
+  FIFTEEN_MINUTES (15);
+
+  /** The duration of a single bucket in milliseconds */
+  public static final long BUCKET_MILLIS = 15 * CGlobal.MILLISECONDS_PER_SECOND;
+
+  private final int m_nMinutes;
+
+  private ERollingStatisticsWindow (@Nonnegative final int nMinutes)
+  {
+    m_nMinutes = nMinutes;
+  }
+
+  /**
+   * @return The duration of this window. Never <code>null</code>.
+   */
+  @Nonnull
+  public Duration getDuration ()
+  {
+    return Duration.ofMinutes (m_nMinutes);
+  }
+
+  /**
+   * @return The duration of this window in milliseconds.
+   */
+  @Nonnegative
+  public long getMillis ()
+  {
+    return m_nMinutes * CGlobal.MILLISECONDS_PER_MINUTE;
+  }
+
+  /**
+   * @return The number of buckets of {@link #BUCKET_MILLIS} covering this
+   *         window. The newest bucket is usually only partially filled.
+   */
+  @Nonnegative
+  public int getBucketCount ()
+  {
+    return (int) (getMillis () / BUCKET_MILLIS);
+  }
+
+  /**
+   * @return The longest of all windows. Never <code>null</code>.
+   */
+  @Nonnull
+  public static ERollingStatisticsWindow getLongest ()
+  {
+    return FIFTEEN_MINUTES;
+  }
+}
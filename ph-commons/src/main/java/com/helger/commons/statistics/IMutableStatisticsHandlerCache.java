@@ -16,6 +16,8 @@
  */
 package com.helger.commons.statistics;
 
+import javax.annotation.Nonnull;
+
 /**
  * Statistics handler for cache hit/miss
  *
@@ -32,4 +34,23 @@ public interface IMutableStatisticsHandlerCache extends IStatisticsHandlerCache
    * Called when a cache miss occurred.
    */
   void cacheMiss ();
+
+  /**
+   * Get a read-only copy of the current values and reset this handler to the
+   * initial state in one step. Writers are not blocked for longer than a
+   * regular update, so values added concurrently to this call may be reported
+   * either in the returned snapshot or in this handler afterwards.
+   *
+   * @return The snapshot of the values before the reset. Never
+   *         <code>null</code>.
+   * @throws UnsupportedOperationException
+   *         if the implementation does not support this. All
+   *         implementations of this package support it.
+   * @since 8.6.0
+   */
+  @Nonnull
+  default IStatisticsHandlerCache getSnapshotAndReset ()
+  {
+    throw new UnsupportedOperationException (getClass ().getName () + " does not support snapshots");
+  }
 }
@@ -17,6 +17,7 @@
 package com.helger.commons.statistics;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 
 /**
  * Statistics handler for sizes.
@@ -32,4 +33,23 @@ public interface IMutableStatisticsHandlerSize extends IStatisticsHandlerSize
    *        The size to be added. Must be &ge; 0 as sizes cannot be negative.
    */
   void addSize (@Nonnegative long nSize);
+
+  /**
+   * Get a read-only copy of the current values and reset this handler to the
+   * initial state in one step. Writers are not blocked for longer than a
+   * regular update, so values added concurrently to this call may be reported
+   * either in the returned snapshot or in this handler afterwards.
+   *
+   * @return The snapshot of the values before the reset. Never
+   *         <code>null</code>.
+   * @throws UnsupportedOperationException
+   *         if the implementation does not support this. All
+   *         implementations of this package support it.
+   * @since 8.6.0
+   */
+  @Nonnull
+  default IStatisticsHandlerSize getSnapshotAndReset ()
+  {
+    throw new UnsupportedOperationException (getClass ().getName () + " does not support snapshots");
+  }
 }
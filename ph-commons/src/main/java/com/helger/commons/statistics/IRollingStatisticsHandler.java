@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Base interface for all rolling statistics handlers. In contrast to the
+ * regular statistics handlers, all values are only aggregated over a sliding
+ * time window so that recent changes become visible. The invocation count
+ * inherited from {@link IStatisticsHandler} is the total count since creation.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+public interface IRollingStatisticsHandler extends IStatisticsHandler
+{
+  /**
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @return The number of invocations inside the provided window.
+   */
+  @Nonnegative
+  long getCount (@Nonnull ERollingStatisticsWindow eWindow);
+
+  /**
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @return The number of invocations per second inside the provided window.
+   *         If the handler is younger than the window, only the lifetime of the
+   *         handler is considered.
+   */
+  @Nonnegative
+  double getRate (@Nonnull ERollingStatisticsWindow eWindow);
+}
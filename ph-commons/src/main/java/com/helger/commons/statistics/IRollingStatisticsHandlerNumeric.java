@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnull;
+
+/**
+ * Read-only rolling statistics handler for timer and size values.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+public interface IRollingStatisticsHandlerNumeric extends IRollingStatisticsHandler
+{
+  /**
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @return The sum of all values inside the provided window.
+   */
+  long getSum (@Nonnull ERollingStatisticsWindow eWindow);
+
+  /**
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @return The smallest value inside the provided window or
+   *         {@link com.helger.commons.CGlobal#ILLEGAL_ULONG} if no value is
+   *         present.
+   */
+  @CheckForSigned
+  long getMin (@Nonnull ERollingStatisticsWindow eWindow);
+
+  /**
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @return The average value inside the provided window or
+   *         {@link com.helger.commons.CGlobal#ILLEGAL_ULONG} if no value is
+   *         present.
+   */
+  @CheckForSigned
+  long getAverage (@Nonnull ERollingStatisticsWindow eWindow);
+
+  /**
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @return The biggest value inside the provided window or
+   *         {@link com.helger.commons.CGlobal#ILLEGAL_ULONG} if no value is
+   *         present.
+   */
+  @CheckForSigned
+  long getMax (@Nonnull ERollingStatisticsWindow eWindow);
+
+  /**
+   * Get the approximated value at the provided percentile.
+   *
+   * @param eWindow
+   *        The time window to query. May not be <code>null</code>.
+   * @param dPercentile
+   *        The percentile to query. Must be between 0 and 100 (both inclusive).
+   *        E.g. 99 for the p99 value.
+   * @return The value at the provided percentile inside the provided window or
+   *         {@link com.helger.commons.CGlobal#ILLEGAL_ULONG} if no value is
+   *         present.
+   */
+  @CheckForSigned
+  long getPercentile (@Nonnull ERollingStatisticsWindow eWindow, double dPercentile);
+}
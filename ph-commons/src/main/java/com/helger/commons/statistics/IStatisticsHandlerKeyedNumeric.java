@@ -21,6 +21,8 @@ import java.math.BigInteger;
 import javax.annotation.CheckForSigned;
 import javax.annotation.Nullable;
 
+import com.helger.commons.CGlobal;
+
 /**
  * Base interface for size and timer handler.
  *
@@ -66,4 +68,35 @@ public interface IStatisticsHandlerKeyedNumeric extends IStatisticsHandlerKeyed
    */
   @CheckForSigned
   long getMax (@Nullable String sKey);
+
+  /**
+   * @return <code>true</code> if this handler records the distribution of the
+   *         values and therefore supports
+   *         {@link #getPercentile(String, double)}, <code>false</code> if not.
+   * @since 8.6.0
+   */
+  default boolean hasPercentiles ()
+  {
+    return false;
+  }
+
+  /**
+   * Get the approximated value at the provided percentile.
+   *
+   * @param sKey
+   *        The key to be queried.
+   * @param dPercentile
+   *        The percentile to query. Must be between 0 and 100 (both inclusive).
+   *        E.g. 99 for the p99 value.
+   * @return The value at the provided percentile. Returns
+   *         {@link com.helger.commons.CGlobal#ILLEGAL_ULONG} if no such key
+   *         exists or if this handler does not support percentiles.
+   * @see #hasPercentiles()
+   * @since 8.6.0
+   */
+  @CheckForSigned
+  default long getPercentile (@Nullable final String sKey, final double dPercentile)
+  {
+    return CGlobal.ILLEGAL_ULONG;
+  }
 }
@@ -21,6 +21,8 @@ import java.math.BigInteger;
 import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnull;
 
+import com.helger.commons.CGlobal;
+
 /**
  * Base interface for size and timer handler.
  *
@@ -57,4 +59,33 @@ public interface IStatisticsHandlerNumeric extends IStatisticsHandler
    */
   @CheckForSigned
   long getMax ();
+
+  /**
+   * @return <code>true</code> if this handler records the distribution of the
+   *         values and therefore supports {@link #getPercentile(double)},
+   *         <code>false</code> if not.
+   * @since 8.6.0
+   */
+  default boolean hasPercentiles ()
+  {
+    return false;
+  }
+
+  /**
+   * Get the approximated value at the provided percentile.
+   *
+   * @param dPercentile
+   *        The percentile to query. Must be between 0 and 100 (both inclusive).
+   *        E.g. 99 for the p99 value.
+   * @return The value at the provided percentile. Returns
+   *         {@link com.helger.commons.CGlobal#ILLEGAL_ULONG} if the invocation
+   *         count is 0 or if this handler does not support percentiles.
+   * @see #hasPercentiles()
+   * @since 8.6.0
+   */
+  @CheckForSigned
+  default long getPercentile (final double dPercentile)
+  {
+    return CGlobal.ILLEGAL_ULONG;
+  }
 }
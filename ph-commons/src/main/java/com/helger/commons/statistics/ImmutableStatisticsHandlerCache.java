@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Read-only cache statistics handler that contains a snapshot of the values of
+ * a cache handler.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @see IMutableStatisticsHandlerCache#getSnapshotAndReset()
+ */
+@Immutable
+public final class ImmutableStatisticsHandlerCache implements IStatisticsHandlerCache
+{
+  private final int m_nHits;
+  private final int m_nMisses;
+
+  ImmutableStatisticsHandlerCache (@Nonnegative final int nHits, @Nonnegative final int nMisses)
+  {
+    ValueEnforcer.isGE0 (nHits, "Hits");
+    ValueEnforcer.isGE0 (nMisses, "Misses");
+    m_nHits = nHits;
+    m_nMisses = nMisses;
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_nHits + m_nMisses;
+  }
+
+  @Nonnegative
+  public int getHits ()
+  {
+    return m_nHits;
+  }
+
+  @Nonnegative
+  public int getMisses ()
+  {
+    return m_nMisses;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("hits", m_nHits).append ("misses", m_nMisses).toString ();
+  }
+}
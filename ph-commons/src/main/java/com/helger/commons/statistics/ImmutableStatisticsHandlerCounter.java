@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Read-only counter statistics handler that contains a snapshot of the values
+ * of a counter handler.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @see IMutableStatisticsHandlerCounter#getSnapshotAndReset()
+ */
+@Immutable
+public final class ImmutableStatisticsHandlerCounter implements IStatisticsHandlerCounter
+{
+  private final int m_nInvocationCount;
+  private final long m_nCount;
+
+  ImmutableStatisticsHandlerCounter (@Nonnegative final int nInvocationCount, final long nCount)
+  {
+    ValueEnforcer.isGE0 (nInvocationCount, "InvocationCount");
+    m_nInvocationCount = nInvocationCount;
+    m_nCount = nCount;
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_nInvocationCount;
+  }
+
+  @CheckForSigned
+  public long getCount ()
+  {
+    return m_nCount;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("invocations", m_nInvocationCount)
+                                       .append ("count", m_nCount)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Read-only keyed counter statistics handler that contains a snapshot of the
+ * values of a keyed counter handler.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @see IMutableStatisticsHandlerKeyedCounter#getSnapshotAndReset()
+ */
+@Immutable
+public final class ImmutableStatisticsHandlerKeyedCounter implements IStatisticsHandlerKeyedCounter
+{
+  private final int m_nInvocationCount;
+  private final ICommonsMap <String, ImmutableStatisticsHandlerCounter> m_aMap;
+
+  ImmutableStatisticsHandlerKeyedCounter (@Nonnegative final int nInvocationCount,
+                                          @Nonnull final ICommonsMap <String, ImmutableStatisticsHandlerCounter> aMap)
+  {
+    ValueEnforcer.isGE0 (nInvocationCount, "InvocationCount");
+    ValueEnforcer.notNull (aMap, "Map");
+    m_nInvocationCount = nInvocationCount;
+    m_aMap = aMap;
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_nInvocationCount;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeys ()
+  {
+    return m_aMap.copyOfKeySet ();
+  }
+
+  @CheckForSigned
+  public int getInvocationCount (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerCounter aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_UINT : aValue.getInvocationCount ();
+  }
+
+  @CheckForSigned
+  public long getCount (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerCounter aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getCount ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("invocations", m_nInvocationCount)
+                                       .append ("map", m_aMap)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.math.BigInteger;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Read-only keyed numeric statistics handler that contains a snapshot of the
+ * values of a keyed timer or keyed size handler.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @see IMutableStatisticsHandlerKeyedTimer#getSnapshotAndReset()
+ * @see IMutableStatisticsHandlerKeyedSize#getSnapshotAndReset()
+ */
+@Immutable
+public final class ImmutableStatisticsHandlerKeyedNumeric implements
+                                                          IStatisticsHandlerKeyedTimer,
+                                                          IStatisticsHandlerKeyedSize
+{
+  private final int m_nInvocationCount;
+  private final ICommonsMap <String, ImmutableStatisticsHandlerNumeric> m_aMap;
+  private final boolean m_bHasPercentiles;
+
+  ImmutableStatisticsHandlerKeyedNumeric (@Nonnegative final int nInvocationCount,
+                                          @Nonnull final ICommonsMap <String, ImmutableStatisticsHandlerNumeric> aMap,
+                                          final boolean bHasPercentiles)
+  {
+    ValueEnforcer.isGE0 (nInvocationCount, "InvocationCount");
+    ValueEnforcer.notNull (aMap, "Map");
+    m_nInvocationCount = nInvocationCount;
+    m_aMap = aMap;
+    m_bHasPercentiles = bHasPercentiles;
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_nInvocationCount;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeys ()
+  {
+    return m_aMap.copyOfKeySet ();
+  }
+
+  @CheckForSigned
+  public int getInvocationCount (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerNumeric aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_UINT : aValue.getInvocationCount ();
+  }
+
+  @Nullable
+  public BigInteger getSum (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerNumeric aValue = m_aMap.get (sKey);
+    return aValue == null ? null : aValue.getSum ();
+  }
+
+  @CheckForSigned
+  public long getMin (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerNumeric aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMin ();
+  }
+
+  @CheckForSigned
+  public long getAverage (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerNumeric aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getAverage ();
+  }
+
+  @CheckForSigned
+  public long getMax (@Nullable final String sKey)
+  {
+    final ImmutableStatisticsHandlerNumeric aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMax ();
+  }
+
+  @Override
+  public boolean hasPercentiles ()
+  {
+    return m_bHasPercentiles;
+  }
+
+  @Override
+  @CheckForSigned
+  public long getPercentile (@Nullable final String sKey, final double dPercentile)
+  {
+    final ImmutableStatisticsHandlerNumeric aValue = m_aMap.get (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getPercentile (dPercentile);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("invocations", m_nInvocationCount)
+                                       .append ("map", m_aMap)
+                                       .append ("percentiles", m_bHasPercentiles)
+                                       .toString ();
+  }
+}
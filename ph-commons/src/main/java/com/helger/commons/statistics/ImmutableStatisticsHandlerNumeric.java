@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.math.BigInteger;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Read-only numeric statistics handler that contains a snapshot of the values
+ * of a timer or size handler.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ * @see IMutableStatisticsHandlerTimer#getSnapshotAndReset()
+ * @see IMutableStatisticsHandlerSize#getSnapshotAndReset()
+ */
+@Immutable
+public final class ImmutableStatisticsHandlerNumeric implements IStatisticsHandlerTimer, IStatisticsHandlerSize
+{
+  /** An empty object without any value */
+  public static final ImmutableStatisticsHandlerNumeric EMPTY = new ImmutableStatisticsHandlerNumeric (0,
+                                                                                                      CGlobal.ILLEGAL_ULONG,
+                                                                                                      CGlobal.ILLEGAL_ULONG,
+                                                                                                      BigInteger.ZERO,
+                                                                                                      null);
+
+  private final int m_nInvocationCount;
+  private final long m_nMin;
+  private final long m_nMax;
+  private final BigInteger m_aSum;
+  private final StatisticsHistogram m_aHistogram;
+
+  ImmutableStatisticsHandlerNumeric (@Nonnegative final int nInvocationCount,
+                                     final long nMin,
+                                     final long nMax,
+                                     @Nonnull final BigInteger aSum,
+                                     @Nullable final StatisticsHistogram aHistogram)
+  {
+    ValueEnforcer.isGE0 (nInvocationCount, "InvocationCount");
+    ValueEnforcer.notNull (aSum, "Sum");
+    m_nInvocationCount = nInvocationCount;
+    m_nMin = nMin;
+    m_nMax = nMax;
+    m_aSum = aSum;
+    m_aHistogram = aHistogram;
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_nInvocationCount;
+  }
+
+  @Nonnull
+  public BigInteger getSum ()
+  {
+    return m_aSum;
+  }
+
+  @CheckForSigned
+  public long getMin ()
+  {
+    return m_nMin;
+  }
+
+  @CheckForSigned
+  public long getAverage ()
+  {
+    if (m_nInvocationCount == 0)
+      return CGlobal.ILLEGAL_ULONG;
+    return m_aSum.divide (BigInteger.valueOf (m_nInvocationCount)).longValue ();
+  }
+
+  @CheckForSigned
+  public long getMax ()
+  {
+    return m_nMax;
+  }
+
+  @Override
+  public boolean hasPercentiles ()
+  {
+    return m_aHistogram != null;
+  }
+
+  @Override
+  @CheckForSigned
+  public long getPercentile (final double dPercentile)
+  {
+    if (m_aHistogram == null || m_nInvocationCount == 0)
+      return CGlobal.ILLEGAL_ULONG;
+    final long nValue = m_aHistogram.getValueAtPercentile (dPercentile);
+    if (nValue == CGlobal.ILLEGAL_ULONG)
+      return nValue;
+    return Math.min (nValue, m_nMax);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("invocations", m_nInvocationCount)
+                                       .append ("min", m_nMin)
+                                       .append ("max", m_nMax)
+                                       .append ("sum", m_aSum)
+                                       .append ("percentiles", hasPercentiles ())
+                                       .toString ();
+  }
+}
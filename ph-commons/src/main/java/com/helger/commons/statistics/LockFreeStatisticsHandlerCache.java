@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Lock-free implementation of {@link IMutableStatisticsHandlerCache} based on
+ * striped {@link LongAdder}s, so that concurrent hits and misses do not contend
+ * on a single atomic value.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public class LockFreeStatisticsHandlerCache implements IMutableStatisticsHandlerCache
+{
+  private static final class State implements Serializable
+  {
+    private final LongAdder m_aHits = new LongAdder ();
+    private final LongAdder m_aMisses = new LongAdder ();
+    private final StatisticsWriterGate m_aGate = new StatisticsWriterGate ();
+  }
+
+  private final AtomicReference <State> m_aState = new AtomicReference <> (new State ());
+
+  private void _increment (final boolean bHit)
+  {
+    while (true)
+    {
+      final State aState = m_aState.get ();
+      if (aState.m_aGate.enter ())
+      {
+        try
+        {
+          (bHit ? aState.m_aHits : aState.m_aMisses).increment ();
+        }
+        finally
+        {
+          aState.m_aGate.exit ();
+        }
+        return;
+      }
+      // A snapshot was taken in the meantime - retry on the new state
+    }
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    final State aState = m_aState.get ();
+    return aState.m_aHits.intValue () + aState.m_aMisses.intValue ();
+  }
+
+  public void cacheHit ()
+  {
+    _increment (true);
+  }
+
+  public void cacheMiss ()
+  {
+    _increment (false);
+  }
+
+  @Nonnegative
+  public int getHits ()
+  {
+    return m_aState.get ().m_aHits.intValue ();
+  }
+
+  @Nonnegative
+  public int getMisses ()
+  {
+    return m_aState.get ().m_aMisses.intValue ();
+  }
+
+  /**
+   * @return A read-only copy of the current values. This object is reset to the
+   *         initial state by atomically exchanging the underlying counters, so
+   *         hits and misses of the snapshot belong together.
+   */
+  @Nonnull
+  public ImmutableStatisticsHandlerCache getSnapshotAndReset ()
+  {
+    final State aOld = m_aState.getAndSet (new State ());
+    aOld.m_aGate.closeAndAwait ();
+    return new ImmutableStatisticsHandlerCache (aOld.m_aHits.intValue (), aOld.m_aMisses.intValue ());
+  }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsHashMap;
+import com.helger.commons.collection.ext.CommonsHashSet;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Lock-free implementation of {@link IMutableStatisticsHandlerKeyedCounter}
+ * based on striped {@link LongAdder}s.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public class LockFreeStatisticsHandlerKeyedCounter implements IMutableStatisticsHandlerKeyedCounter
+{
+  @ThreadSafe
+  private static final class Value implements Serializable
+  {
+    private final LongAdder m_aInvocationCount = new LongAdder ();
+    private final LongAdder m_aCount = new LongAdder ();
+
+    public void increment (final long nByHowMany)
+    {
+      m_aInvocationCount.increment ();
+      m_aCount.add (nByHowMany);
+    }
+
+    @Nonnegative
+    public int getInvocationCount ()
+    {
+      return m_aInvocationCount.intValue ();
+    }
+
+    public long getCount ()
+    {
+      return m_aCount.sum ();
+    }
+
+    @Nonnull
+    public ImmutableStatisticsHandlerCounter getAsImmutable ()
+    {
+      return new ImmutableStatisticsHandlerCounter (getInvocationCount (), getCount ());
+    }
+
+    @Override
+    public String toString ()
+    {
+      // No object needed for ctor
+      return new ToStringGenerator (null).append ("invocations", getInvocationCount ())
+                                         .append ("count", getCount ())
+                                         .toString ();
+    }
+  }
+
+  /** The map key used for <code>null</code> keys */
+  private static final Object NULL_KEY = new Object ();
+
+  private static final class State implements Serializable
+  {
+    private final LongAdder m_aInvocationCount = new LongAdder ();
+    private final StatisticsWriterGate m_aGate = new StatisticsWriterGate ();
+    private final ConcurrentHashMap <Object, Value> m_aMap = new ConcurrentHashMap <> ();
+  }
+
+  private final AtomicReference <State> m_aState = new AtomicReference <> (new State ());
+
+  @Nonnull
+  private static Object _mapKey (@Nullable final String sKey)
+  {
+    return sKey == null ? NULL_KEY : sKey;
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_aState.get ().m_aInvocationCount.intValue ();
+  }
+
+  public void increment (@Nullable final String sKey)
+  {
+    increment (sKey, 1L);
+  }
+
+  public void increment (@Nullable final String sKey, final long nByHowMany)
+  {
+    final Object aMapKey = _mapKey (sKey);
+    while (true)
+    {
+      final State aState = m_aState.get ();
+      if (aState.m_aGate.enter ())
+      {
+        try
+        {
+          aState.m_aInvocationCount.increment ();
+          Value aPerKey = aState.m_aMap.get (aMapKey);
+          if (aPerKey == null)
+            aPerKey = aState.m_aMap.computeIfAbsent (aMapKey, k -> new Value ());
+          aPerKey.increment (nByHowMany);
+        }
+        finally
+        {
+          aState.m_aGate.exit ();
+        }
+        return;
+      }
+      // A snapshot was taken in the meantime - retry on the new state
+    }
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeys ()
+  {
+    final ConcurrentHashMap <Object, Value> aMap = m_aState.get ().m_aMap;
+    final ICommonsSet <String> ret = new CommonsHashSet <> (aMap.size ());
+    for (final Object aKey : aMap.keySet ())
+      ret.add (aKey == NULL_KEY ? null : (String) aKey);
+    return ret;
+  }
+
+  @CheckForSigned
+  public long getCount (@Nullable final String sKey)
+  {
+    final Value aCount = m_aState.get ().m_aMap.get (_mapKey (sKey));
+    return aCount == null ? CGlobal.ILLEGAL_ULONG : aCount.getCount ();
+  }
+
+  @CheckForSigned
+  public int getInvocationCount (@Nullable final String sKey)
+  {
+    final Value aCount = m_aState.get ().m_aMap.get (_mapKey (sKey));
+    return aCount == null ? CGlobal.ILLEGAL_UINT : aCount.getInvocationCount ();
+  }
+
+  @Nonnull
+  public ImmutableStatisticsHandlerKeyedCounter getSnapshotAndReset ()
+  {
+    final State aOld = m_aState.getAndSet (new State ());
+    aOld.m_aGate.closeAndAwait ();
+    final ICommonsMap <String, ImmutableStatisticsHandlerCounter> aMap = new CommonsHashMap <> (aOld.m_aMap.size ());
+    for (final Map.Entry <Object, Value> aEntry : aOld.m_aMap.entrySet ())
+      aMap.put (aEntry.getKey () == NULL_KEY ? null : (String) aEntry.getKey (), aEntry.getValue ().getAsImmutable ());
+    return new ImmutableStatisticsHandlerKeyedCounter (aOld.m_aInvocationCount.intValue (), aMap);
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * The lock-free aggregation of numeric values used by the lock-free statistics
+ * handlers. Count and sum are striped {@link LongAdder}s, min and max are
+ * {@link LongAccumulator}s and all values are additionally recorded in a
+ * {@link StatisticsHistogram}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+final class LockFreeStatisticsNumericValue implements Serializable
+{
+  private final LongAdder m_aCount = new LongAdder ();
+  private final LongAdder m_aSum = new LongAdder ();
+  private final LongAccumulator m_aMin = new LongAccumulator (Math::min, Long.MAX_VALUE);
+  private final LongAccumulator m_aMax = new LongAccumulator (Math::max, Long.MIN_VALUE);
+  private final StatisticsHistogram m_aHistogram = new StatisticsHistogram ();
+
+  public LockFreeStatisticsNumericValue ()
+  {}
+
+  public void add (final long nValue)
+  {
+    m_aCount.increment ();
+    m_aSum.add (nValue);
+    m_aMin.accumulate (nValue);
+    m_aMax.accumulate (nValue);
+    m_aHistogram.addValue (nValue);
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_aCount.intValue ();
+  }
+
+  @Nonnull
+  public BigInteger getSum ()
+  {
+    return BigInteger.valueOf (m_aSum.sum ());
+  }
+
+  @CheckForSigned
+  public long getMin ()
+  {
+    return m_aCount.sum () == 0 ? CGlobal.ILLEGAL_ULONG : m_aMin.get ();
+  }
+
+  @CheckForSigned
+  public long getMax ()
+  {
+    return m_aCount.sum () == 0 ? CGlobal.ILLEGAL_ULONG : m_aMax.get ();
+  }
+
+  @CheckForSigned
+  public long getAverage ()
+  {
+    final long nCount = m_aCount.sum ();
+    if (nCount == 0)
+      return CGlobal.ILLEGAL_ULONG;
+    return m_aSum.sum () / nCount;
+  }
+
+  @CheckForSigned
+  public long getPercentile (final double dPercentile)
+  {
+    final long nValue = m_aHistogram.getValueAtPercentile (dPercentile);
+    if (nValue == CGlobal.ILLEGAL_ULONG)
+      return nValue;
+    // The histogram returns the bucket upper bound - never report more than
+    // the real maximum
+    return Math.min (nValue, m_aMax.get ());
+  }
+
+  /**
+   * @return A read-only copy of the current values. The histogram is copied as
+   *         well, so later modifications of this object are not visible in the
+   *         returned object.
+   */
+  @Nonnull
+  public ImmutableStatisticsHandlerNumeric getAsImmutable ()
+  {
+    final StatisticsHistogram aHistogram = new StatisticsHistogram ();
+    aHistogram.addAll (m_aHistogram);
+    return new ImmutableStatisticsHandlerNumeric (getInvocationCount (), getMin (), getMax (), getSum (), aHistogram);
+  }
+
+  @Override
+  public String toString ()
+  {
+    // No object ID needed for toString
+    return new ToStringGenerator (null).append ("invocations", getInvocationCount ())
+                                       .append ("min", getMin ())
+                                       .append ("max", getMax ())
+                                       .append ("sum", m_aSum.sum ())
+                                       .toString ();
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.mutable.MutableLong;
+
+/**
+ * Default implementation of {@link IMutableRollingStatisticsHandlerCache}
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public class RollingStatisticsHandlerCache extends
+                                           AbstractRollingStatisticsHandler <RollingStatisticsHandlerCache.Bucket>
+                                           implements
+                                           IMutableRollingStatisticsHandlerCache
+{
+  static final class Bucket extends AbstractRollingStatisticsHandler.AbstractBucket
+  {
+    private final LongAdder m_aHits = new LongAdder ();
+    private final LongAdder m_aMisses = new LongAdder ();
+
+    Bucket (final long nEpoch)
+    {
+      super (nEpoch);
+    }
+
+    @Override
+    @Nonnegative
+    long getCount ()
+    {
+      return m_aHits.sum () + m_aMisses.sum ();
+    }
+  }
+
+  public RollingStatisticsHandlerCache ()
+  {
+    this (DEFAULT_CLOCK);
+  }
+
+  RollingStatisticsHandlerCache (@Nonnull final LongSupplier aClock)
+  {
+    super (aClock);
+  }
+
+  @Override
+  @Nonnull
+  protected final Bucket createBucket (final long nEpoch)
+  {
+    return new Bucket (nEpoch);
+  }
+
+  public void cacheHit ()
+  {
+    recordInvocation ().m_aHits.increment ();
+  }
+
+  public void cacheMiss ()
+  {
+    recordInvocation ().m_aMisses.increment ();
+  }
+
+  @Nonnegative
+  public long getHits (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aHits = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> aHits.inc (aBucket.m_aHits.sum ()));
+    return aHits.longValue ();
+  }
+
+  @Nonnegative
+  public long getMisses (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aMisses = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> aMisses.inc (aBucket.m_aMisses.sum ()));
+    return aMisses.longValue ();
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.mutable.MutableLong;
+
+/**
+ * Default implementation of {@link IMutableRollingStatisticsHandlerCounter}
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public class RollingStatisticsHandlerCounter extends
+                                             AbstractRollingStatisticsHandler <RollingStatisticsHandlerCounter.Bucket>
+                                             implements
+                                             IMutableRollingStatisticsHandlerCounter
+{
+  static final class Bucket extends AbstractRollingStatisticsHandler.AbstractBucket
+  {
+    private final LongAdder m_aCount = new LongAdder ();
+    private final LongAdder m_aValue = new LongAdder ();
+
+    Bucket (final long nEpoch)
+    {
+      super (nEpoch);
+    }
+
+    @Override
+    @Nonnegative
+    long getCount ()
+    {
+      return m_aCount.sum ();
+    }
+  }
+
+  public RollingStatisticsHandlerCounter ()
+  {
+    this (DEFAULT_CLOCK);
+  }
+
+  RollingStatisticsHandlerCounter (@Nonnull final LongSupplier aClock)
+  {
+    super (aClock);
+  }
+
+  @Override
+  @Nonnull
+  protected final Bucket createBucket (final long nEpoch)
+  {
+    return new Bucket (nEpoch);
+  }
+
+  public void increment ()
+  {
+    increment (1L);
+  }
+
+  public void increment (final long nByHowMany)
+  {
+    final Bucket aBucket = recordInvocation ();
+    aBucket.m_aCount.increment ();
+    aBucket.m_aValue.add (nByHowMany);
+  }
+
+  public long getValue (@Nonnull final ERollingStatisticsWindow eWindow)
+  {
+    final MutableLong aValue = new MutableLong (0);
+    forEachBucket (eWindow, aBucket -> aValue.inc (aBucket.m_aValue.sum ()));
+    return aValue.longValue ();
+  }
+}
@@ -16,9 +16,12 @@
  */
 package com.helger.commons.statistics;
 
+import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -29,34 +32,70 @@ import javax.annotation.concurrent.ThreadSafe;
 @ThreadSafe
 public class StatisticsHandlerCache implements IMutableStatisticsHandlerCache
 {
-  private final AtomicInteger m_aHits = new AtomicInteger ();
-  private final AtomicInteger m_aMisses = new AtomicInteger ();
+  private static final class State implements Serializable
+  {
+    private final AtomicInteger m_aHits = new AtomicInteger ();
+    private final AtomicInteger m_aMisses = new AtomicInteger ();
+    private final StatisticsWriterGate m_aGate = new StatisticsWriterGate ();
+  }
+
+  private final AtomicReference <State> m_aState = new AtomicReference <> (new State ());
+
+  private void _increment (final boolean bHit)
+  {
+    while (true)
+    {
+      final State aState = m_aState.get ();
+      if (aState.m_aGate.enter ())
+      {
+        try
+        {
+          (bHit ? aState.m_aHits : aState.m_aMisses).incrementAndGet ();
+        }
+        finally
+        {
+          aState.m_aGate.exit ();
+        }
+        return;
+      }
+      // A snapshot was taken in the meantime - retry on the new state
+    }
+  }
 
   @Nonnegative
   public int getInvocationCount ()
   {
-    return getHits () + getMisses ();
+    final State aState = m_aState.get ();
+    return aState.m_aHits.intValue () + aState.m_aMisses.intValue ();
   }
 
   public void cacheHit ()
   {
-    m_aHits.incrementAndGet ();
+    _increment (true);
   }
 
   public void cacheMiss ()
   {
-    m_aMisses.incrementAndGet ();
+    _increment (false);
   }
 
   @Nonnegative
   public int getHits ()
   {
-    return m_aHits.intValue ();
+    return m_aState.get ().m_aHits.intValue ();
   }
 
   @Nonnegative
   public int getMisses ()
   {
-    return m_aMisses.intValue ();
+    return m_aState.get ().m_aMisses.intValue ();
+  }
+
+  @Nonnull
+  public ImmutableStatisticsHandlerCache getSnapshotAndReset ()
+  {
+    final State aOld = m_aState.getAndSet (new State ());
+    aOld.m_aGate.closeAndAwait ();
+    return new ImmutableStatisticsHandlerCache (aOld.m_aHits.intValue (), aOld.m_aMisses.intValue ());
   }
 }
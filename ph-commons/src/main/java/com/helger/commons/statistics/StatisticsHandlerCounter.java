@@ -21,6 +21,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -57,4 +58,10 @@ public class StatisticsHandlerCounter implements IMutableStatisticsHandlerCounte
     m_aInvocationCount.incrementAndGet ();
     m_aCount.addAndGet (nByHowMany);
   }
+
+  @Nonnull
+  public ImmutableStatisticsHandlerCounter getSnapshotAndReset ()
+  {
+    return new ImmutableStatisticsHandlerCounter (m_aInvocationCount.getAndSet (0), m_aCount.getAndSet (0));
+  }
 }
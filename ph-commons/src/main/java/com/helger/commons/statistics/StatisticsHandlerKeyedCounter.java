@@ -17,6 +17,7 @@
 package com.helger.commons.statistics;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.CheckForSigned;
@@ -71,6 +72,12 @@ public class StatisticsHandlerKeyedCounter implements IMutableStatisticsHandlerK
       return m_nCount;
     }
 
+    @Nonnull
+    public ImmutableStatisticsHandlerCounter getAsImmutable ()
+    {
+      return new ImmutableStatisticsHandlerCounter (m_nInvocationCount, m_nCount);
+    }
+
     @Override
     public String toString ()
     {
@@ -98,8 +105,8 @@ public class StatisticsHandlerKeyedCounter implements IMutableStatisticsHandlerK
 
   public void increment (@Nullable final String sKey, final long nByHowMany)
   {
-    m_aInvocationCount.incrementAndGet ();
     m_aRWLock.writeLocked ( () -> {
+      m_aInvocationCount.incrementAndGet ();
       final Value aPerKey = m_aMap.get (sKey);
       if (aPerKey == null)
         m_aMap.put (sKey, new Value (nByHowMany));
@@ -132,4 +139,16 @@ public class StatisticsHandlerKeyedCounter implements IMutableStatisticsHandlerK
       return aCount == null ? CGlobal.ILLEGAL_UINT : aCount.getInvocationCount ();
     });
   }
+
+  @Nonnull
+  public ImmutableStatisticsHandlerKeyedCounter getSnapshotAndReset ()
+  {
+    return m_aRWLock.writeLocked ( () -> {
+      final ICommonsMap <String, ImmutableStatisticsHandlerCounter> aMap = new CommonsHashMap <> (m_aMap.size ());
+      for (final Map.Entry <String, Value> aEntry : m_aMap.entrySet ())
+        aMap.put (aEntry.getKey (), aEntry.getValue ().getAsImmutable ());
+      m_aMap.clear ();
+      return new ImmutableStatisticsHandlerKeyedCounter (m_aInvocationCount.getAndSet (0), aMap);
+    });
+  }
 }
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A lock-free histogram with log-linear buckets, similar to an HDR histogram.
+ * Each power of two range is split into {@value #SUB_BUCKET_COUNT} linear sub
+ * buckets, so the relative error of a reported percentile is at most
+ * 1/{@value #SUB_BUCKET_COUNT}. Values up to 2*{@value #SUB_BUCKET_COUNT} are
+ * recorded exactly. Negative values are recorded as 0.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public final class StatisticsHistogram implements Serializable
+{
+  /** Number of bits used for the linear sub buckets */
+  public static final int SUB_BUCKET_BITS = 4;
+  /** Number of linear sub buckets per power of two */
+  public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray m_aCounts = new AtomicLongArray (BUCKET_COUNT);
+
+  public StatisticsHistogram ()
+  {}
+
+  static int getBucketIndex (final long nValue)
+  {
+    if (nValue < 2 * SUB_BUCKET_COUNT)
+      return nValue <= 0 ? 0 : (int) nValue;
+
+    final int nExponent = Long.SIZE - 1 - Long.numberOfLeadingZeros (nValue);
+    final int nShift = nExponent - SUB_BUCKET_BITS;
+    final int nSubBucket = (int) (nValue >>> nShift);
+    return (nShift + 1) * SUB_BUCKET_COUNT + nSubBucket - SUB_BUCKET_COUNT;
+  }
+
+  static long getBucketLowerBound (final int nIndex)
+  {
+    if (nIndex < 2 * SUB_BUCKET_COUNT)
+      return nIndex;
+    final int nShift = nIndex / SUB_BUCKET_COUNT - 1;
+    final long nSubBucket = nIndex % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    return nSubBucket << nShift;
+  }
+
+  static long getBucketUpperBound (final int nIndex)
+  {
+    if (nIndex < 2 * SUB_BUCKET_COUNT)
+      return nIndex;
+    final int nShift = nIndex / SUB_BUCKET_COUNT - 1;
+    final long nSubBucket = nIndex % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    // For the last bucket this overflows to exactly Long.MAX_VALUE
+    return ((nSubBucket + 1) << nShift) - 1;
+  }
+
+  /**
+   * Record a single value.
+   *
+   * @param nValue
+   *        The value to record. Negative values are recorded as 0.
+   */
+  public void addValue (final long nValue)
+  {
+    m_aCounts.incrementAndGet (getBucketIndex (nValue));
+  }
+
+  /**
+   * Add all values recorded in the passed histogram to this histogram.
+   *
+   * @param aOther
+   *        The histogram to be added. May not be <code>null</code>.
+   */
+  void addAll (@Nonnull final StatisticsHistogram aOther)
+  {
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      final long nCount = aOther.m_aCounts.get (i);
+      if (nCount > 0)
+        m_aCounts.addAndGet (i, nCount);
+    }
+  }
+
+  /**
+   * @return The total number of recorded values. Note: this sums up all buckets
+   *         and is therefore not a cheap operation.
+   */
+  @Nonnegative
+  public long getTotalCount ()
+  {
+    long ret = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+      ret += m_aCounts.get (i);
+    return ret;
+  }
+
+  /**
+   * Get the value at the provided percentile. The returned value is the upper
+   * bound of the bucket containing the percentile, so it is never less than the
+   * real value. Concurrent modifications while calculating are possible, so
+   * the result is a close approximation.
+   *
+   * @param dPercentile
+   *        The percentile to query. Must be between 0 and 100 (both inclusive).
+   *        E.g. 50 for the median or 99.9 for the p999.
+   * @return {@link CGlobal#ILLEGAL_ULONG} if no value was recorded.
+   */
+  @CheckForSigned
+  public long getValueAtPercentile (final double dPercentile)
+  {
+    ValueEnforcer.isBetweenInclusive (dPercentile, "Percentile", 0, 100);
+
+    // Take a snapshot to work on consistent numbers
+    final long [] aCounts = new long [BUCKET_COUNT];
+    long nTotal = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      aCounts[i] = m_aCounts.get (i);
+      nTotal += aCounts[i];
+    }
+    if (nTotal == 0)
+      return CGlobal.ILLEGAL_ULONG;
+
+    final long nRank = Math.max (1, (long) Math.ceil (dPercentile / 100d * nTotal));
+    long nSum = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      nSum += aCounts[i];
+      if (nSum >= nRank)
+        return getBucketUpperBound (i);
+    }
+    // Cannot happen
+    return getBucketUpperBound (BUCKET_COUNT - 1);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("totalCount", getTotalCount ()).toString ();
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A pre-resolved handle for a statistics handler name. Instances are interned,
+ * so that all callers using the same name share the same object. Each key
+ * remembers the handlers it was resolved to by {@link StatisticsManager}, so
+ * that looking up a handler via a key is a plain field access as long as
+ * {@link StatisticsManager#clearCache()} was not called in between. Callers
+ * that need to resolve a handler frequently should therefore keep a reference
+ * to the key instead of building the name string again and again.<br>
+ * Note: interned keys are never released, just like the handlers registered
+ * in {@link StatisticsManager}. Keys are therefore meant for a fixed set of
+ * names (e.g. class names or constants) and must not be created for names
+ * built from request data or other unbounded input.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public final class StatisticsKey
+{
+  static final int SLOT_CACHE = 0;
+  static final int SLOT_TIMER = 1;
+  static final int SLOT_KEYED_TIMER = 2;
+  static final int SLOT_SIZE = 3;
+  static final int SLOT_KEYED_SIZE = 4;
+  static final int SLOT_COUNTER = 5;
+  static final int SLOT_KEYED_COUNTER = 6;
+  static final int SLOT_ROLLING_TIMER = 7;
+  static final int SLOT_ROLLING_SIZE = 8;
+  static final int SLOT_ROLLING_COUNTER = 9;
+  static final int SLOT_ROLLING_CACHE = 10;
+  private static final int SLOT_COUNT = 11;
+
+  private static final class Resolved
+  {
+    private final int m_nGeneration;
+    private final IStatisticsHandler m_aHandler;
+
+    Resolved (final int nGeneration, @Nonnull final IStatisticsHandler aHandler)
+    {
+      m_nGeneration = nGeneration;
+      m_aHandler = aHandler;
+    }
+  }
+
+  private static final ConcurrentHashMap <String, StatisticsKey> s_aInstances = new ConcurrentHashMap <> ();
+
+  private final String m_sName;
+  private final AtomicReferenceArray <Resolved> m_aResolved = new AtomicReferenceArray <> (SLOT_COUNT);
+
+  private StatisticsKey (@Nonnull @Nonempty final String sName)
+  {
+    m_sName = sName;
+  }
+
+  /**
+   * @return The name of the statistics handlers this key refers to. Neither
+   *         <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  @Nullable
+  IStatisticsHandler getResolved (final int nSlot, final int nGeneration)
+  {
+    final Resolved aResolved = m_aResolved.get (nSlot);
+    return aResolved != null && aResolved.m_nGeneration == nGeneration ? aResolved.m_aHandler : null;
+  }
+
+  void setResolved (final int nSlot, final int nGeneration, @Nonnull final IStatisticsHandler aHandler)
+  {
+    m_aResolved.set (nSlot, new Resolved (nGeneration, aHandler));
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final StatisticsKey rhs = (StatisticsKey) o;
+    return m_sName.equals (rhs.m_sName);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_sName).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Name", m_sName).toString ();
+  }
+
+  /**
+   * Get the shared key for the provided name. The key is kept for the
+   * lifetime of the application, so only use names from a fixed set.
+   *
+   * @param sName
+   *        The name of the statistics handler. May neither be
+   *        <code>null</code> nor empty.
+   * @return The key and never <code>null</code>.
+   */
+  @Nonnull
+  public static StatisticsKey getInstance (@Nonnull @Nonempty final String sName)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+
+    StatisticsKey ret = s_aInstances.get (sName);
+    if (ret == null)
+      ret = s_aInstances.computeIfAbsent (sName, StatisticsKey::new);
+    return ret;
+  }
+
+  /**
+   * Get the shared key for the provided class. The class name is used as the
+   * name.
+   *
+   * @param aClass
+   *        The class to use. May not be <code>null</code>.
+   * @return The key and never <code>null</code>.
+   */
+  @Nonnull
+  public static StatisticsKey getInstance (@Nonnull final Class <?> aClass)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+
+    return getInstance (aClass.getName ());
+  }
+}
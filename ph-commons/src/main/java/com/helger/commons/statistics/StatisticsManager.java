@@ -16,6 +16,12 @@
  */
 package com.helger.commons.statistics;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -26,10 +32,11 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsConcurrentHashMap;
 import com.helger.commons.collection.ext.CommonsHashMap;
 import com.helger.commons.collection.ext.ICommonsMap;
 import com.helger.commons.collection.ext.ICommonsSet;
-import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.datetime.PDTFactory;
 
 /**
  * Provides a central manager for the internal statistics.
@@ -39,20 +46,27 @@ import com.helger.commons.concurrent.SimpleReadWriteLock;
 @ThreadSafe
 public final class StatisticsManager
 {
-  private static final SimpleReadWriteLock s_aRWLockCache = new SimpleReadWriteLock ();
-  private static final SimpleReadWriteLock s_aRWLockTimer = new SimpleReadWriteLock ();
-  private static final SimpleReadWriteLock s_aRWLockKeyedTimer = new SimpleReadWriteLock ();
-  private static final SimpleReadWriteLock s_aRWLockSize = new SimpleReadWriteLock ();
-  private static final SimpleReadWriteLock s_aRWLockKeyedSize = new SimpleReadWriteLock ();
-  private static final SimpleReadWriteLock s_aRWLockCounter = new SimpleReadWriteLock ();
-  private static final SimpleReadWriteLock s_aRWLockKeyedCounter = new SimpleReadWriteLock ();
-  private static final ICommonsMap <String, StatisticsHandlerCache> s_aHdlCache = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerTimer> s_aHdlTimer = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerKeyedTimer> s_aHdlKeyedTimer = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerSize> s_aHdlSize = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerKeyedSize> s_aHdlKeyedSize = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerCounter> s_aHdlCounter = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerKeyedCounter> s_aHdlKeyedCounter = new CommonsHashMap <> ();
+  /**
+   * By default the lock based handlers are used
+   *
+   * @since 8.6.0
+   */
+  public static final boolean DEFAULT_USE_LOCK_FREE_HANDLERS = false;
+
+  private static final AtomicBoolean s_aUseLockFreeHandlers = new AtomicBoolean (DEFAULT_USE_LOCK_FREE_HANDLERS);
+  // Incremented upon each clear, so that keys can detect outdated handlers
+  private static final AtomicInteger s_aGeneration = new AtomicInteger (0);
+  private static final ICommonsMap <String, IMutableStatisticsHandlerCache> s_aHdlCache = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerTimer> s_aHdlTimer = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerKeyedTimer> s_aHdlKeyedTimer = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerSize> s_aHdlSize = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerKeyedSize> s_aHdlKeyedSize = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerCounter> s_aHdlCounter = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerKeyedCounter> s_aHdlKeyedCounter = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableRollingStatisticsHandlerTimer> s_aHdlRollingTimer = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableRollingStatisticsHandlerSize> s_aHdlRollingSize = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableRollingStatisticsHandlerCounter> s_aHdlRollingCounter = new CommonsConcurrentHashMap <> ();
+  private static final ICommonsMap <String, IMutableRollingStatisticsHandlerCache> s_aHdlRollingCache = new CommonsConcurrentHashMap <> ();
 
   private static final Logger s_aLogger = LoggerFactory.getLogger (StatisticsManager.class);
 
@@ -62,6 +76,106 @@ public final class StatisticsManager
   private StatisticsManager ()
   {}
 
+  /**
+   * @return <code>true</code> if newly created handlers are lock-free (based on
+   *         striped adders and with percentile support), <code>false</code> if
+   *         the classical lock based handlers are created.
+   * @since 8.6.0
+   */
+  public static boolean isUseLockFreeHandlers ()
+  {
+    return s_aUseLockFreeHandlers.get ();
+  }
+
+  /**
+   * Define whether newly created handlers should be lock-free or not. Handlers
+   * that were already created are not affected, so this should be called as
+   * early as possible upon application startup.
+   *
+   * @param bUseLockFreeHandlers
+   *        <code>true</code> to create lock-free handlers, <code>false</code>
+   *        to create lock based handlers.
+   * @since 8.6.0
+   */
+  public static void setUseLockFreeHandlers (final boolean bUseLockFreeHandlers)
+  {
+    s_aUseLockFreeHandlers.set (bUseLockFreeHandlers);
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerCache _createCacheHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerCache () : new StatisticsHandlerCache ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerTimer _createTimerHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerTimer () : new StatisticsHandlerTimer ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerKeyedTimer _createKeyedTimerHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerKeyedTimer () : new StatisticsHandlerKeyedTimer ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerSize _createSizeHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerSize () : new StatisticsHandlerSize ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerKeyedSize _createKeyedSizeHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerKeyedSize () : new StatisticsHandlerKeyedSize ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerCounter _createCounterHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerCounter () : new StatisticsHandlerCounter ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerKeyedCounter _createKeyedCounterHandler ()
+  {
+    return isUseLockFreeHandlers () ? new LockFreeStatisticsHandlerKeyedCounter ()
+                                    : new StatisticsHandlerKeyedCounter ();
+  }
+
+  @Nonnull
+  private static <T extends IStatisticsHandler> T _getHandler (@Nonnull final ICommonsMap <String, T> aMap,
+                                                               @Nonnull final String sName,
+                                                               @Nonnull final Supplier <? extends T> aFactory)
+  {
+    // Single lock-free lookup in the common case
+    T ret = aMap.get (sName);
+    if (ret == null)
+      ret = aMap.computeIfAbsent (sName, k -> aFactory.get ());
+    return ret;
+  }
+
+  @Nonnull
+  @SuppressWarnings ("unchecked")
+  private static <T extends IStatisticsHandler> T _getHandler (@Nonnull final ICommonsMap <String, T> aMap,
+                                                               @Nonnull final StatisticsKey aKey,
+                                                               final int nSlot,
+                                                               @Nonnull final Supplier <? extends T> aFactory)
+  {
+    // Read the generation before the map is accessed, so that a concurrent
+    // clear can never leave an outdated handler in the key
+    final int nGeneration = s_aGeneration.get ();
+    T ret = (T) aKey.getResolved (nSlot, nGeneration);
+    if (ret == null)
+    {
+      ret = _getHandler (aMap, aKey.getName (), aFactory);
+      aKey.setResolved (nSlot, nGeneration, ret);
+    }
+    return ret;
+  }
+
   @Nonnull
   public static IMutableStatisticsHandlerCache getCacheHandler (@Nonnull final Class <?> aClass)
   {
@@ -75,24 +189,31 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerCache aHdl = s_aRWLockCache.readLocked ( () -> s_aHdlCache.get (sName));
-
-    if (aHdl == null)
-    {
-      // Try again in write lock
-      aHdl = s_aRWLockCache.writeLocked ( () -> s_aHdlCache.computeIfAbsent (sName,
-                                                                             k -> new StatisticsHandlerCache ()));
-    }
+    return _getHandler (s_aHdlCache, sName, StatisticsManager::_createCacheHandler);
+  }
 
-    return aHdl;
+  /**
+   * Get the cache handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The cache handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerCache getCacheHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
 
+    return _getHandler (s_aHdlCache, aKey, StatisticsKey.SLOT_CACHE, StatisticsManager::_createCacheHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllCacheHandler ()
   {
-    return s_aRWLockCache.readLocked ( () -> s_aHdlCache.copyOfKeySet ());
+    return s_aHdlCache.copyOfKeySet ();
   }
 
   @Nonnull
@@ -108,21 +229,31 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerTimer aHdl = s_aRWLockTimer.readLocked ( () -> s_aHdlTimer.get (sName));
-    if (aHdl == null)
-    {
-      aHdl = s_aRWLockTimer.writeLocked ( () -> s_aHdlTimer.computeIfAbsent (sName,
-                                                                             k -> new StatisticsHandlerTimer ()));
-    }
+    return _getHandler (s_aHdlTimer, sName, StatisticsManager::_createTimerHandler);
+  }
+
+  /**
+   * Get the timer handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The timer handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerTimer getTimerHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
 
-    return aHdl;
+    return _getHandler (s_aHdlTimer, aKey, StatisticsKey.SLOT_TIMER, StatisticsManager::_createTimerHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllTimerHandler ()
   {
-    return s_aRWLockTimer.readLocked ( () -> s_aHdlTimer.copyOfKeySet ());
+    return s_aHdlTimer.copyOfKeySet ();
   }
 
   @Nonnull
@@ -138,21 +269,34 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerKeyedTimer aHdl = s_aRWLockKeyedTimer.readLocked ( () -> s_aHdlKeyedTimer.get (sName));
+    return _getHandler (s_aHdlKeyedTimer, sName, StatisticsManager::_createKeyedTimerHandler);
+  }
 
-    if (aHdl == null)
-    {
-      aHdl = s_aRWLockKeyedTimer.writeLocked ( () -> s_aHdlKeyedTimer.computeIfAbsent (sName,
-                                                                                       k -> new StatisticsHandlerKeyedTimer ()));
-    }
-    return aHdl;
+  /**
+   * Get the keyed timer handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The keyed timer handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerKeyedTimer getKeyedTimerHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlKeyedTimer,
+                        aKey,
+                        StatisticsKey.SLOT_KEYED_TIMER,
+                        StatisticsManager::_createKeyedTimerHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllKeyedTimerHandler ()
   {
-    return s_aRWLockKeyedTimer.readLocked ( () -> s_aHdlKeyedTimer.copyOfKeySet ());
+    return s_aHdlKeyedTimer.copyOfKeySet ();
   }
 
   @Nonnull
@@ -168,20 +312,31 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerSize aHdl = s_aRWLockSize.readLocked ( () -> s_aHdlSize.get (sName));
+    return _getHandler (s_aHdlSize, sName, StatisticsManager::_createSizeHandler);
+  }
 
-    if (aHdl == null)
-    {
-      aHdl = s_aRWLockSize.writeLocked ( () -> s_aHdlSize.computeIfAbsent (sName, k -> new StatisticsHandlerSize ()));
-    }
-    return aHdl;
+  /**
+   * Get the size handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The size handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerSize getSizeHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlSize, aKey, StatisticsKey.SLOT_SIZE, StatisticsManager::_createSizeHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllSizeHandler ()
   {
-    return s_aRWLockSize.readLocked ( () -> s_aHdlSize.copyOfKeySet ());
+    return s_aHdlSize.copyOfKeySet ();
   }
 
   @Nonnull
@@ -197,21 +352,34 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerKeyedSize aHdl = s_aRWLockKeyedSize.readLocked ( () -> s_aHdlKeyedSize.get (sName));
+    return _getHandler (s_aHdlKeyedSize, sName, StatisticsManager::_createKeyedSizeHandler);
+  }
 
-    if (aHdl == null)
-    {
-      aHdl = s_aRWLockKeyedSize.writeLocked ( () -> s_aHdlKeyedSize.computeIfAbsent (sName,
-                                                                                     k -> new StatisticsHandlerKeyedSize ()));
-    }
-    return aHdl;
+  /**
+   * Get the keyed size handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The keyed size handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerKeyedSize getKeyedSizeHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlKeyedSize,
+                        aKey,
+                        StatisticsKey.SLOT_KEYED_SIZE,
+                        StatisticsManager::_createKeyedSizeHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllKeyedSizeHandler ()
   {
-    return s_aRWLockKeyedSize.readLocked ( () -> s_aHdlKeyedSize.copyOfKeySet ());
+    return s_aHdlKeyedSize.copyOfKeySet ();
   }
 
   @Nonnull
@@ -227,21 +395,31 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerCounter aHdl = s_aRWLockCounter.readLocked ( () -> s_aHdlCounter.get (sName));
+    return _getHandler (s_aHdlCounter, sName, StatisticsManager::_createCounterHandler);
+  }
 
-    if (aHdl == null)
-    {
-      aHdl = s_aRWLockCounter.writeLocked ( () -> s_aHdlCounter.computeIfAbsent (sName,
-                                                                                 k -> new StatisticsHandlerCounter ()));
-    }
-    return aHdl;
+  /**
+   * Get the counter handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The counter handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerCounter getCounterHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlCounter, aKey, StatisticsKey.SLOT_COUNTER, StatisticsManager::_createCounterHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllCounterHandler ()
   {
-    return s_aRWLockCounter.readLocked ( () -> s_aHdlCounter.copyOfKeySet ());
+    return s_aHdlCounter.copyOfKeySet ();
   }
 
   @Nonnull
@@ -257,32 +435,332 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerKeyedCounter aHdl = s_aRWLockKeyedCounter.readLocked ( () -> s_aHdlKeyedCounter.get (sName));
+    return _getHandler (s_aHdlKeyedCounter, sName, StatisticsManager::_createKeyedCounterHandler);
+  }
 
-    if (aHdl == null)
-    {
-      aHdl = s_aRWLockKeyedCounter.writeLocked ( () -> s_aHdlKeyedCounter.computeIfAbsent (sName,
-                                                                                           k -> new StatisticsHandlerKeyedCounter ()));
-    }
-    return aHdl;
+  /**
+   * Get the keyed counter handler for the provided key. Subsequent lookups with the same
+   * key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The keyed counter handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableStatisticsHandlerKeyedCounter getKeyedCounterHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlKeyedCounter,
+                        aKey,
+                        StatisticsKey.SLOT_KEYED_COUNTER,
+                        StatisticsManager::_createKeyedCounterHandler);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllKeyedCounterHandler ()
   {
-    return s_aRWLockKeyedCounter.readLocked ( () -> s_aHdlKeyedCounter.copyOfKeySet ());
+    return s_aHdlKeyedCounter.copyOfKeySet ();
+  }
+
+  /**
+   * Get the rolling timer handler for the provided class. The class name is used
+   * as the name.
+   *
+   * @param aClass
+   *        The class to use. May not be <code>null</code>.
+   * @return The rolling timer handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerTimer getRollingTimerHandler (@Nonnull final Class <?> aClass)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+
+    return getRollingTimerHandler (aClass.getName ());
+  }
+
+  /**
+   * Get or create the rolling timer handler with the provided name.
+   *
+   * @param sName
+   *        The name of the handler. May neither be <code>null</code> nor empty.
+   * @return The rolling timer handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerTimer getRollingTimerHandler (@Nonnull @Nonempty final String sName)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+
+    return _getHandler (s_aHdlRollingTimer, sName, RollingStatisticsHandlerTimer::new);
+  }
+
+  /**
+   * Get the rolling timer handler for the provided key. Subsequent lookups with
+   * the same key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The rolling timer handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerTimer getRollingTimerHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlRollingTimer, aKey, StatisticsKey.SLOT_ROLLING_TIMER, RollingStatisticsHandlerTimer::new);
+  }
+
+  /**
+   * @return The names of all rolling timer handlers. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllRollingTimerHandler ()
+  {
+    return s_aHdlRollingTimer.copyOfKeySet ();
+  }
+
+  /**
+   * Get the rolling size handler for the provided class. The class name is used
+   * as the name.
+   *
+   * @param aClass
+   *        The class to use. May not be <code>null</code>.
+   * @return The rolling size handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerSize getRollingSizeHandler (@Nonnull final Class <?> aClass)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+
+    return getRollingSizeHandler (aClass.getName ());
+  }
+
+  /**
+   * Get or create the rolling size handler with the provided name.
+   *
+   * @param sName
+   *        The name of the handler. May neither be <code>null</code> nor empty.
+   * @return The rolling size handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerSize getRollingSizeHandler (@Nonnull @Nonempty final String sName)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+
+    return _getHandler (s_aHdlRollingSize, sName, RollingStatisticsHandlerSize::new);
+  }
+
+  /**
+   * Get the rolling size handler for the provided key. Subsequent lookups with
+   * the same key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The rolling size handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerSize getRollingSizeHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlRollingSize, aKey, StatisticsKey.SLOT_ROLLING_SIZE, RollingStatisticsHandlerSize::new);
+  }
+
+  /**
+   * @return The names of all rolling size handlers. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllRollingSizeHandler ()
+  {
+    return s_aHdlRollingSize.copyOfKeySet ();
+  }
+
+  /**
+   * Get the rolling counter handler for the provided class. The class name is used
+   * as the name.
+   *
+   * @param aClass
+   *        The class to use. May not be <code>null</code>.
+   * @return The rolling counter handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerCounter getRollingCounterHandler (@Nonnull final Class <?> aClass)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+
+    return getRollingCounterHandler (aClass.getName ());
+  }
+
+  /**
+   * Get or create the rolling counter handler with the provided name.
+   *
+   * @param sName
+   *        The name of the handler. May neither be <code>null</code> nor empty.
+   * @return The rolling counter handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerCounter getRollingCounterHandler (@Nonnull @Nonempty final String sName)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+
+    return _getHandler (s_aHdlRollingCounter, sName, RollingStatisticsHandlerCounter::new);
+  }
+
+  /**
+   * Get the rolling counter handler for the provided key. Subsequent lookups with
+   * the same key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The rolling counter handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerCounter getRollingCounterHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlRollingCounter,
+                        aKey,
+                        StatisticsKey.SLOT_ROLLING_COUNTER,
+                        RollingStatisticsHandlerCounter::new);
+  }
+
+  /**
+   * @return The names of all rolling counter handlers. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllRollingCounterHandler ()
+  {
+    return s_aHdlRollingCounter.copyOfKeySet ();
+  }
+
+  /**
+   * Get the rolling cache handler for the provided class. The class name is used
+   * as the name.
+   *
+   * @param aClass
+   *        The class to use. May not be <code>null</code>.
+   * @return The rolling cache handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerCache getRollingCacheHandler (@Nonnull final Class <?> aClass)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+
+    return getRollingCacheHandler (aClass.getName ());
+  }
+
+  /**
+   * Get or create the rolling cache handler with the provided name.
+   *
+   * @param sName
+   *        The name of the handler. May neither be <code>null</code> nor empty.
+   * @return The rolling cache handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerCache getRollingCacheHandler (@Nonnull @Nonempty final String sName)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+
+    return _getHandler (s_aHdlRollingCache, sName, RollingStatisticsHandlerCache::new);
+  }
+
+  /**
+   * Get the rolling cache handler for the provided key. Subsequent lookups with
+   * the same key are resolved without any map access.
+   *
+   * @param aKey
+   *        The key to resolve. May not be <code>null</code>.
+   * @return The rolling cache handler and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static IMutableRollingStatisticsHandlerCache getRollingCacheHandler (@Nonnull final StatisticsKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+
+    return _getHandler (s_aHdlRollingCache, aKey, StatisticsKey.SLOT_ROLLING_CACHE, RollingStatisticsHandlerCache::new);
+  }
+
+  /**
+   * @return The names of all rolling cache handlers. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllRollingCacheHandler ()
+  {
+    return s_aHdlRollingCache.copyOfKeySet ();
+  }
+
+  @Nonnull
+  private static <T extends IStatisticsHandler, M extends IStatisticsHandler> ICommonsMap <String, T> _getSnapshotAndReset (@Nonnull final ICommonsMap <String, M> aMap,
+                                                                                                                         @Nonnull final Function <? super M, ? extends T> aSnapshotter)
+  {
+    final ICommonsMap <String, T> ret = new CommonsHashMap <> (aMap.size ());
+    aMap.forEach ( (k, v) -> ret.put (k, aSnapshotter.apply (v)));
+    return ret;
+  }
+
+  /**
+   * Create a read-only snapshot of all registered statistics handlers and
+   * reset all of them in the same step. Rolling handlers are not part of the
+   * snapshot, as they only cover a sliding time window anyway. Each handler is
+   * reset atomically with its snapshot, so no value is counted twice in two
+   * subsequent snapshots.
+   * Writers are not blocked by this method and the registered handlers stay
+   * valid, so this can be used for periodic exporting.
+   *
+   * @return The snapshot and never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static StatisticsSnapshot getSnapshotAndReset ()
+  {
+    final LocalDateTime aNow = PDTFactory.getCurrentLocalDateTime ();
+    return new StatisticsSnapshot (aNow,
+                                   _getSnapshotAndReset (s_aHdlCache, IMutableStatisticsHandlerCache::getSnapshotAndReset),
+                                   _getSnapshotAndReset (s_aHdlTimer, IMutableStatisticsHandlerTimer::getSnapshotAndReset),
+                                   _getSnapshotAndReset (s_aHdlKeyedTimer, IMutableStatisticsHandlerKeyedTimer::getSnapshotAndReset),
+                                   _getSnapshotAndReset (s_aHdlSize, IMutableStatisticsHandlerSize::getSnapshotAndReset),
+                                   _getSnapshotAndReset (s_aHdlKeyedSize, IMutableStatisticsHandlerKeyedSize::getSnapshotAndReset),
+                                   _getSnapshotAndReset (s_aHdlCounter, IMutableStatisticsHandlerCounter::getSnapshotAndReset),
+                                   _getSnapshotAndReset (s_aHdlKeyedCounter, IMutableStatisticsHandlerKeyedCounter::getSnapshotAndReset));
   }
 
   public static void clearCache ()
   {
-    s_aRWLockCache.writeLocked ( () -> s_aHdlCache.clear ());
-    s_aRWLockTimer.writeLocked ( () -> s_aHdlTimer.clear ());
-    s_aRWLockKeyedTimer.writeLocked ( () -> s_aHdlKeyedTimer.clear ());
-    s_aRWLockSize.writeLocked ( () -> s_aHdlSize.clear ());
-    s_aRWLockKeyedSize.writeLocked ( () -> s_aHdlKeyedSize.clear ());
-    s_aRWLockCounter.writeLocked ( () -> s_aHdlCounter.clear ());
-    s_aRWLockKeyedCounter.writeLocked ( () -> s_aHdlKeyedCounter.clear ());
+    s_aHdlCache.clear ();
+    s_aHdlTimer.clear ();
+    s_aHdlKeyedTimer.clear ();
+    s_aHdlSize.clear ();
+    s_aHdlKeyedSize.clear ();
+    s_aHdlCounter.clear ();
+    s_aHdlKeyedCounter.clear ();
+    s_aHdlRollingTimer.clear ();
+    s_aHdlRollingSize.clear ();
+    s_aHdlRollingCounter.clear ();
+    s_aHdlRollingCache.clear ();
+    s_aGeneration.incrementAndGet ();
 
     if (s_aLogger.isDebugEnabled ())
       s_aLogger.debug ("Cache was cleared: " + StatisticsManager.class.getName ());
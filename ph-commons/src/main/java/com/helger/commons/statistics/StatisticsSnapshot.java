@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A read-only snapshot of all statistics handlers, as created by
+ * {@link StatisticsManager#getSnapshotAndReset()}. Contains only read-only
+ * handlers, so the values do not change over time.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@Immutable
+public final class StatisticsSnapshot
+{
+  private final LocalDateTime m_aCreationDT;
+  private final ICommonsMap <String, IStatisticsHandlerCache> m_aHdlCache;
+  private final ICommonsMap <String, IStatisticsHandlerTimer> m_aHdlTimer;
+  private final ICommonsMap <String, IStatisticsHandlerKeyedTimer> m_aHdlKeyedTimer;
+  private final ICommonsMap <String, IStatisticsHandlerSize> m_aHdlSize;
+  private final ICommonsMap <String, IStatisticsHandlerKeyedSize> m_aHdlKeyedSize;
+  private final ICommonsMap <String, IStatisticsHandlerCounter> m_aHdlCounter;
+  private final ICommonsMap <String, IStatisticsHandlerKeyedCounter> m_aHdlKeyedCounter;
+
+  StatisticsSnapshot (@Nonnull final LocalDateTime aCreationDT,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerCache> aHdlCache,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerTimer> aHdlTimer,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerKeyedTimer> aHdlKeyedTimer,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerSize> aHdlSize,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerKeyedSize> aHdlKeyedSize,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerCounter> aHdlCounter,
+                      @Nonnull final ICommonsMap <String, IStatisticsHandlerKeyedCounter> aHdlKeyedCounter)
+  {
+    ValueEnforcer.notNull (aCreationDT, "CreationDT");
+    ValueEnforcer.notNull (aHdlCache, "CacheHandler");
+    ValueEnforcer.notNull (aHdlTimer, "TimerHandler");
+    ValueEnforcer.notNull (aHdlKeyedTimer, "KeyedTimerHandler");
+    ValueEnforcer.notNull (aHdlSize, "SizeHandler");
+    ValueEnforcer.notNull (aHdlKeyedSize, "KeyedSizeHandler");
+    ValueEnforcer.notNull (aHdlCounter, "CounterHandler");
+    ValueEnforcer.notNull (aHdlKeyedCounter, "KeyedCounterHandler");
+    m_aCreationDT = aCreationDT;
+    m_aHdlCache = aHdlCache;
+    m_aHdlTimer = aHdlTimer;
+    m_aHdlKeyedTimer = aHdlKeyedTimer;
+    m_aHdlSize = aHdlSize;
+    m_aHdlKeyedSize = aHdlKeyedSize;
+    m_aHdlCounter = aHdlCounter;
+    m_aHdlKeyedCounter = aHdlKeyedCounter;
+  }
+
+  /**
+   * @return The date and time when this snapshot was created. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public LocalDateTime getCreationDateTime ()
+  {
+    return m_aCreationDT;
+  }
+
+  /**
+   * @param sName
+   *        The name of the cache handler to query. May be <code>null</code>.
+   * @return The cache handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerCache getCacheHandler (@Nullable final String sName)
+  {
+    return m_aHdlCache.get (sName);
+  }
+
+  /**
+   * @return The names of all contained cache handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllCacheHandler ()
+  {
+    return m_aHdlCache.copyOfKeySet ();
+  }
+
+  /**
+   * @param sName
+   *        The name of the timer handler to query. May be <code>null</code>.
+   * @return The timer handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerTimer getTimerHandler (@Nullable final String sName)
+  {
+    return m_aHdlTimer.get (sName);
+  }
+
+  /**
+   * @return The names of all contained timer handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllTimerHandler ()
+  {
+    return m_aHdlTimer.copyOfKeySet ();
+  }
+
+  /**
+   * @param sName
+   *        The name of the keyed timer handler to query. May be <code>null</code>.
+   * @return The keyed timer handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerKeyedTimer getKeyedTimerHandler (@Nullable final String sName)
+  {
+    return m_aHdlKeyedTimer.get (sName);
+  }
+
+  /**
+   * @return The names of all contained keyed timer handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeyedTimerHandler ()
+  {
+    return m_aHdlKeyedTimer.copyOfKeySet ();
+  }
+
+  /**
+   * @param sName
+   *        The name of the size handler to query. May be <code>null</code>.
+   * @return The size handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerSize getSizeHandler (@Nullable final String sName)
+  {
+    return m_aHdlSize.get (sName);
+  }
+
+  /**
+   * @return The names of all contained size handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllSizeHandler ()
+  {
+    return m_aHdlSize.copyOfKeySet ();
+  }
+
+  /**
+   * @param sName
+   *        The name of the keyed size handler to query. May be <code>null</code>.
+   * @return The keyed size handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerKeyedSize getKeyedSizeHandler (@Nullable final String sName)
+  {
+    return m_aHdlKeyedSize.get (sName);
+  }
+
+  /**
+   * @return The names of all contained keyed size handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeyedSizeHandler ()
+  {
+    return m_aHdlKeyedSize.copyOfKeySet ();
+  }
+
+  /**
+   * @param sName
+   *        The name of the counter handler to query. May be <code>null</code>.
+   * @return The counter handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerCounter getCounterHandler (@Nullable final String sName)
+  {
+    return m_aHdlCounter.get (sName);
+  }
+
+  /**
+   * @return The names of all contained counter handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllCounterHandler ()
+  {
+    return m_aHdlCounter.copyOfKeySet ();
+  }
+
+  /**
+   * @param sName
+   *        The name of the keyed counter handler to query. May be <code>null</code>.
+   * @return The keyed counter handler with the provided name or <code>null</code> if
+   *         no such handler was contained in the snapshot.
+   */
+  @Nullable
+  public IStatisticsHandlerKeyedCounter getKeyedCounterHandler (@Nullable final String sName)
+  {
+    return m_aHdlKeyedCounter.get (sName);
+  }
+
+  /**
+   * @return The names of all contained keyed counter handlers. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeyedCounterHandler ()
+  {
+    return m_aHdlKeyedCounter.copyOfKeySet ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("CreationDT", m_aCreationDT)
+                                       .append ("CacheHandler", m_aHdlCache)
+                                       .append ("TimerHandler", m_aHdlTimer)
+                                       .append ("KeyedTimerHandler", m_aHdlKeyedTimer)
+                                       .append ("SizeHandler", m_aHdlSize)
+                                       .append ("KeyedSizeHandler", m_aHdlKeyedSize)
+                                       .append ("CounterHandler", m_aHdlCounter)
+                                       .append ("KeyedCounterHandler", m_aHdlKeyedCounter)
+                                       .toString ();
+  }
+}
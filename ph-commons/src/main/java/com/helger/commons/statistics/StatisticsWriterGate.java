@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A small handshake between the writers of a lock-free statistics value and
+ * the thread taking a snapshot of it. Writers register via {@link #enter()}
+ * before modifying the value and deregister via {@link #exit()}. After the
+ * value was atomically exchanged, the snapshot thread calls
+ * {@link #closeAndAwait()} which rejects all further writers and waits until
+ * all registered writers are done. Rejected writers retry on the new value, so
+ * every value ends up either in the snapshot or in the handler afterwards.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+final class StatisticsWriterGate implements Serializable
+{
+  // Striped so that concurrent writers don't contend on a single counter
+  private final LongAdder m_aEntered = new LongAdder ();
+  private final LongAdder m_aExited = new LongAdder ();
+  private volatile boolean m_bClosed = false;
+
+  public StatisticsWriterGate ()
+  {}
+
+  /**
+   * Try to register a writer.
+   *
+   * @return <code>true</code> if the writer may modify the guarded value and
+   *         must call {@link #exit()} afterwards, <code>false</code> if the gate
+   *         is already closed and the writer must retry on the current value.
+   */
+  public boolean enter ()
+  {
+    m_aEntered.increment ();
+    if (m_bClosed)
+    {
+      m_aExited.increment ();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Deregister a writer that was successfully registered via {@link #enter()}.
+   */
+  public void exit ()
+  {
+    m_aExited.increment ();
+  }
+
+  /**
+   * Reject all further writers and wait until all registered writers finished.
+   * Afterwards the guarded value is no longer modified.
+   */
+  public void closeAndAwait ()
+  {
+    m_bClosed = true;
+    while (true)
+    {
+      // Read the exits first: every counted exit has a counted entry then, so
+      // equality means that no writer is still active
+      final long nExited = m_aExited.sum ();
+      final long nEntered = m_aEntered.sum ();
+      if (nExited == nEntered)
+        break;
+      Thread.yield ();
+    }
+  }
+}
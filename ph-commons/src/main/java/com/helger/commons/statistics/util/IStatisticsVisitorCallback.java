@@ -19,6 +19,9 @@ package com.helger.commons.statistics.util;
 import javax.annotation.Nonnull;
 
 import com.helger.commons.callback.ICallback;
+import com.helger.commons.statistics.IRollingStatisticsHandlerCache;
+import com.helger.commons.statistics.IRollingStatisticsHandlerCounter;
+import com.helger.commons.statistics.IRollingStatisticsHandlerNumeric;
 import com.helger.commons.statistics.IStatisticsHandlerCache;
 import com.helger.commons.statistics.IStatisticsHandlerCounter;
 import com.helger.commons.statistics.IStatisticsHandlerKeyedCounter;
@@ -110,4 +113,52 @@ public interface IStatisticsVisitorCallback extends ICallback
    */
   default void onKeyedCounter (@Nonnull final String sName, @Nonnull final IStatisticsHandlerKeyedCounter aHandler)
   {}
+
+  /**
+   * Called per rolling timer entry
+   *
+   * @param sName
+   *        Name. Never <code>null</code>.
+   * @param aHandler
+   *        Statistics handler. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  default void onRollingTimer (@Nonnull final String sName, @Nonnull final IRollingStatisticsHandlerNumeric aHandler)
+  {}
+
+  /**
+   * Called per rolling size entry
+   *
+   * @param sName
+   *        Name. Never <code>null</code>.
+   * @param aHandler
+   *        Statistics handler. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  default void onRollingSize (@Nonnull final String sName, @Nonnull final IRollingStatisticsHandlerNumeric aHandler)
+  {}
+
+  /**
+   * Called per rolling counter entry
+   *
+   * @param sName
+   *        Name. Never <code>null</code>.
+   * @param aHandler
+   *        Statistics handler. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  default void onRollingCounter (@Nonnull final String sName, @Nonnull final IRollingStatisticsHandlerCounter aHandler)
+  {}
+
+  /**
+   * Called per rolling cache entry
+   *
+   * @param sName
+   *        Name. Never <code>null</code>.
+   * @param aHandler
+   *        Statistics handler. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  default void onRollingCache (@Nonnull final String sName, @Nonnull final IRollingStatisticsHandlerCache aHandler)
+  {}
 }
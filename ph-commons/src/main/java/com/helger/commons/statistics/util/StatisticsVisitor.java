@@ -24,6 +24,9 @@ import javax.annotation.concurrent.Immutable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.statistics.IRollingStatisticsHandlerCache;
+import com.helger.commons.statistics.IRollingStatisticsHandlerCounter;
+import com.helger.commons.statistics.IRollingStatisticsHandlerNumeric;
 import com.helger.commons.statistics.IStatisticsHandlerCache;
 import com.helger.commons.statistics.IStatisticsHandlerCounter;
 import com.helger.commons.statistics.IStatisticsHandlerKeyedCounter;
@@ -32,6 +35,7 @@ import com.helger.commons.statistics.IStatisticsHandlerKeyedTimer;
 import com.helger.commons.statistics.IStatisticsHandlerSize;
 import com.helger.commons.statistics.IStatisticsHandlerTimer;
 import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.statistics.StatisticsSnapshot;
 
 /**
  * Class for iterating all available statistics
@@ -112,5 +116,89 @@ public final class StatisticsVisitor
       final IStatisticsHandlerKeyedCounter aHandler = StatisticsManager.getKeyedCounterHandler (sName);
       aCallback.onKeyedCounter (sName, aHandler);
     }
+
+    // For all rolling timer handler
+    aHandlers = StatisticsManager.getAllRollingTimerHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+    {
+      final IRollingStatisticsHandlerNumeric aHandler = StatisticsManager.getRollingTimerHandler (sName);
+      aCallback.onRollingTimer (sName, aHandler);
+    }
+
+    // For all rolling size handler
+    aHandlers = StatisticsManager.getAllRollingSizeHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+    {
+      final IRollingStatisticsHandlerNumeric aHandler = StatisticsManager.getRollingSizeHandler (sName);
+      aCallback.onRollingSize (sName, aHandler);
+    }
+
+    // For all rolling counter handler
+    aHandlers = StatisticsManager.getAllRollingCounterHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+    {
+      final IRollingStatisticsHandlerCounter aHandler = StatisticsManager.getRollingCounterHandler (sName);
+      aCallback.onRollingCounter (sName, aHandler);
+    }
+
+    // For all rolling cache handler
+    aHandlers = StatisticsManager.getAllRollingCacheHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+    {
+      final IRollingStatisticsHandlerCache aHandler = StatisticsManager.getRollingCacheHandler (sName);
+      aCallback.onRollingCache (sName, aHandler);
+    }
+  }
+
+  /**
+   * Walk all statistics elements of the passed snapshot with the passed
+   * statistics visitor.
+   *
+   * @param aSnapshot
+   *        The snapshot to be visited. May not be <code>null</code>.
+   * @param aCallback
+   *        The visitor to use. May not be <code>null</code>.
+   * @since 8.6.0
+   */
+  public static void visitStatistics (@Nonnull final StatisticsSnapshot aSnapshot,
+                                      @Nonnull final IStatisticsVisitorCallback aCallback)
+  {
+    ValueEnforcer.notNull (aSnapshot, "Snapshot");
+    ValueEnforcer.notNull (aCallback, "Callback");
+
+    // For all cache handler
+    ICommonsList <String> aHandlers = aSnapshot.getAllCacheHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onCache (sName, aSnapshot.getCacheHandler (sName));
+
+    // For all timer handler
+    aHandlers = aSnapshot.getAllTimerHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onTimer (sName, aSnapshot.getTimerHandler (sName));
+
+    // For all keyed timer handler
+    aHandlers = aSnapshot.getAllKeyedTimerHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onKeyedTimer (sName, aSnapshot.getKeyedTimerHandler (sName));
+
+    // For all size handler
+    aHandlers = aSnapshot.getAllSizeHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onSize (sName, aSnapshot.getSizeHandler (sName));
+
+    // For all keyed size handler
+    aHandlers = aSnapshot.getAllKeyedSizeHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onKeyedSize (sName, aSnapshot.getKeyedSizeHandler (sName));
+
+    // For all counter handler
+    aHandlers = aSnapshot.getAllCounterHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onCounter (sName, aSnapshot.getCounterHandler (sName));
+
+    // For all keyed counter handler
+    aHandlers = aSnapshot.getAllKeyedCounterHandler ().getSorted (Comparator.naturalOrder ());
+    for (final String sName : aHandlers)
+      aCallback.onKeyedCounter (sName, aSnapshot.getKeyedCounterHandler (sName));
   }
 }
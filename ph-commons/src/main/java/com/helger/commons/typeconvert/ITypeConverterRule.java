@@ -68,4 +68,26 @@ public interface ITypeConverterRule <SRC, DST> extends ITypeConverter <SRC, DST>
    *         otherwise.
    */
   boolean canConvert (@Nonnull Class <?> aSrcClass, @Nonnull Class <?> aDstClass);
+
+  /**
+   * Get the type converter to be used for the conversion from the passed
+   * source to the passed destination class. This method is only called after
+   * {@link #canConvert(Class, Class)} returned <code>true</code> for the same
+   * parameters. The returned converter may be cached for the provided source
+   * and destination class, so it may not depend on any other state.
+   *
+   * @param aSrcClass
+   *        Source class to convert from. Never <code>null</code>.
+   * @param aDstClass
+   *        Destination class to convert to. Never <code>null</code>.
+   * @return The type converter to use. By default this object is returned.
+   *         Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  default ITypeConverter <SRC, DST> getTypeConverter (@Nonnull final Class <?> aSrcClass,
+                                                     @Nonnull final Class <?> aDstClass)
+  {
+    return this;
+  }
 }
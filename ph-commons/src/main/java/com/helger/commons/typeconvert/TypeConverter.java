@@ -16,6 +16,9 @@
  */
 package com.helger.commons.typeconvert;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -27,6 +30,7 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.lang.ClassHelper;
 import com.helger.commons.lang.GenericReflection;
+import com.helger.commons.string.StringParser;
 import com.helger.commons.typeconvert.TypeConverterException.EReason;
 
 /**
@@ -98,6 +102,220 @@ public final class TypeConverter
     return convertIfNecessary (Short.valueOf (aSrcValue), aDstClass);
   }
 
+  /**
+   * Check if the passed value is one of the JDK number types, for which the
+   * primitive conversions can be performed directly. Other {@link Number}
+   * implementations (like the atomic or mutable ones) may have their own type
+   * converters registered.
+   *
+   * @param aSrcValue
+   *        Source value. May not be <code>null</code>.
+   * @return <code>true</code> if the value can be handled via the
+   *         {@link Number} methods.
+   */
+  private static boolean _isPlainNumber (@Nonnull final Object aSrcValue)
+  {
+    final Class <?> aSrcClass = aSrcValue.getClass ();
+    return aSrcClass == Integer.class ||
+           aSrcClass == Long.class ||
+           aSrcClass == Double.class ||
+           aSrcClass == Float.class ||
+           aSrcClass == Short.class ||
+           aSrcClass == Byte.class ||
+           aSrcClass == BigDecimal.class ||
+           aSrcClass == BigInteger.class;
+  }
+
+  // The following methods convert the most common source types directly to
+  // the primitive destination type, with the same semantics as the converters
+  // registered in BaseTypeConverterRegistrar. This avoids boxing and the
+  // converter lookup. Everything else (incl. unparsable strings) is passed to
+  // the registered type converters, so that the same exceptions occur.
+
+  private static boolean _convertToBoolean (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).intValue () != 0;
+    if (aSrcValue instanceof String)
+      return StringParser.parseBool ((String) aSrcValue);
+    if (aSrcValue instanceof Boolean)
+      return ((Boolean) aSrcValue).booleanValue ();
+    if (aSrcValue instanceof Character)
+      return ((Character) aSrcValue).charValue () != 0;
+    final Boolean aValue = convertIfNecessary (aSrcValue, Boolean.class);
+    return aValue.booleanValue ();
+  }
+
+  private static byte _convertToByte (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).byteValue ();
+    if (aSrcValue instanceof String)
+    {
+      final String sSrcValue = (String) aSrcValue;
+      if (sSrcValue.length () > 0)
+        try
+        {
+          return Byte.parseByte (sSrcValue);
+        }
+        catch (final NumberFormatException ex)
+        {
+          // Fall through
+        }
+    }
+    else
+      if (aSrcValue instanceof Boolean)
+        return ((Boolean) aSrcValue).booleanValue () ? (byte) 1 : (byte) 0;
+      else
+        if (aSrcValue instanceof Character)
+          return (byte) ((Character) aSrcValue).charValue ();
+    final Byte aValue = convertIfNecessary (aSrcValue, Byte.class);
+    return aValue.byteValue ();
+  }
+
+  private static char _convertToChar (@Nonnull final Object aSrcValue)
+  {
+    if (aSrcValue instanceof Character)
+      return ((Character) aSrcValue).charValue ();
+    if (aSrcValue instanceof String)
+    {
+      final String sSrcValue = (String) aSrcValue;
+      if (sSrcValue.length () == 1)
+        return sSrcValue.charAt (0);
+    }
+    else
+      if (_isPlainNumber (aSrcValue))
+        return (char) ((Number) aSrcValue).intValue ();
+      else
+        if (aSrcValue instanceof Boolean)
+          return ((Boolean) aSrcValue).booleanValue () ? (char) 1 : (char) 0;
+    final Character aValue = convertIfNecessary (aSrcValue, Character.class);
+    return aValue.charValue ();
+  }
+
+  private static double _convertToDouble (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).doubleValue ();
+    if (aSrcValue instanceof String)
+    {
+      // NaN is the "cannot be parsed" indicator of the registered converter
+      final double dValue = StringParser.parseDouble ((String) aSrcValue, Double.NaN);
+      if (!Double.isNaN (dValue))
+        return dValue;
+    }
+    else
+      if (aSrcValue instanceof Boolean)
+        return ((Boolean) aSrcValue).booleanValue () ? 1d : 0d;
+      else
+        if (aSrcValue instanceof Character)
+          return ((Character) aSrcValue).charValue ();
+    final Double aValue = convertIfNecessary (aSrcValue, Double.class);
+    return aValue.doubleValue ();
+  }
+
+  private static float _convertToFloat (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).floatValue ();
+    if (aSrcValue instanceof String)
+    {
+      // NaN is the "cannot be parsed" indicator of the registered converter
+      final float fValue = StringParser.parseFloat ((String) aSrcValue, Float.NaN);
+      if (!Float.isNaN (fValue))
+        return fValue;
+    }
+    else
+      if (aSrcValue instanceof Boolean)
+        return ((Boolean) aSrcValue).booleanValue () ? 1f : 0f;
+      else
+        if (aSrcValue instanceof Character)
+          return ((Character) aSrcValue).charValue ();
+    final Float aValue = convertIfNecessary (aSrcValue, Float.class);
+    return aValue.floatValue ();
+  }
+
+  private static int _convertToInt (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).intValue ();
+    if (aSrcValue instanceof String)
+    {
+      final String sSrcValue = (String) aSrcValue;
+      if (sSrcValue.length () > 0)
+        try
+        {
+          return Integer.parseInt (sSrcValue);
+        }
+        catch (final NumberFormatException ex)
+        {
+          // Fall through
+        }
+    }
+    else
+      if (aSrcValue instanceof Boolean)
+        return ((Boolean) aSrcValue).booleanValue () ? 1 : 0;
+      else
+        if (aSrcValue instanceof Character)
+          return ((Character) aSrcValue).charValue ();
+    final Integer aValue = convertIfNecessary (aSrcValue, Integer.class);
+    return aValue.intValue ();
+  }
+
+  private static long _convertToLong (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).longValue ();
+    if (aSrcValue instanceof String)
+    {
+      final String sSrcValue = (String) aSrcValue;
+      if (sSrcValue.length () > 0)
+        try
+        {
+          return Long.parseLong (sSrcValue);
+        }
+        catch (final NumberFormatException ex)
+        {
+          // Fall through
+        }
+    }
+    else
+      if (aSrcValue instanceof Boolean)
+        return ((Boolean) aSrcValue).booleanValue () ? 1L : 0L;
+      else
+        if (aSrcValue instanceof Character)
+          return ((Character) aSrcValue).charValue ();
+    final Long aValue = convertIfNecessary (aSrcValue, Long.class);
+    return aValue.longValue ();
+  }
+
+  private static short _convertToShort (@Nonnull final Object aSrcValue)
+  {
+    if (_isPlainNumber (aSrcValue))
+      return ((Number) aSrcValue).shortValue ();
+    if (aSrcValue instanceof String)
+    {
+      final String sSrcValue = (String) aSrcValue;
+      if (sSrcValue.length () > 0)
+        try
+        {
+          return Short.parseShort (sSrcValue);
+        }
+        catch (final NumberFormatException ex)
+        {
+          // Fall through
+        }
+    }
+    else
+      if (aSrcValue instanceof Boolean)
+        return ((Boolean) aSrcValue).booleanValue () ? (short) 1 : (short) 0;
+      else
+        if (aSrcValue instanceof Character)
+          return (short) ((Character) aSrcValue).charValue ();
+    final Short aValue = convertIfNecessary (aSrcValue, Short.class);
+    return aValue.shortValue ();
+  }
+
   /**
    * Convert the passed source value to boolean
    *
@@ -115,8 +333,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (boolean.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Boolean aValue = convertIfNecessary (aSrcValue, Boolean.class);
-    return aValue.booleanValue ();
+    return _convertToBoolean (aSrcValue);
   }
 
   /**
@@ -134,8 +351,16 @@ public final class TypeConverter
    */
   public static boolean convertToBoolean (@Nullable final Object aSrcValue, final boolean bDefault)
   {
-    final Boolean aValue = convertIfNecessary (aSrcValue, Boolean.class, null);
-    return aValue == null ? bDefault : aValue.booleanValue ();
+    if (aSrcValue == null)
+      return bDefault;
+    try
+    {
+      return _convertToBoolean (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return bDefault;
+    }
   }
 
   /**
@@ -155,8 +380,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (byte.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Byte aValue = convertIfNecessary (aSrcValue, Byte.class);
-    return aValue.byteValue ();
+    return _convertToByte (aSrcValue);
   }
 
   /**
@@ -174,8 +398,16 @@ public final class TypeConverter
    */
   public static byte convertToByte (@Nullable final Object aSrcValue, final byte nDefault)
   {
-    final Byte aValue = convertIfNecessary (aSrcValue, Byte.class, null);
-    return aValue == null ? nDefault : aValue.byteValue ();
+    if (aSrcValue == null)
+      return nDefault;
+    try
+    {
+      return _convertToByte (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return nDefault;
+    }
   }
 
   /**
@@ -195,8 +427,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (char.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Character aValue = convertIfNecessary (aSrcValue, Character.class);
-    return aValue.charValue ();
+    return _convertToChar (aSrcValue);
   }
 
   /**
@@ -214,8 +445,16 @@ public final class TypeConverter
    */
   public static char convertToChar (@Nullable final Object aSrcValue, final char cDefault)
   {
-    final Character aValue = convertIfNecessary (aSrcValue, Character.class, null);
-    return aValue == null ? cDefault : aValue.charValue ();
+    if (aSrcValue == null)
+      return cDefault;
+    try
+    {
+      return _convertToChar (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return cDefault;
+    }
   }
 
   /**
@@ -235,8 +474,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (double.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Double aValue = convertIfNecessary (aSrcValue, Double.class);
-    return aValue.doubleValue ();
+    return _convertToDouble (aSrcValue);
   }
 
   /**
@@ -254,8 +492,16 @@ public final class TypeConverter
    */
   public static double convertToDouble (@Nullable final Object aSrcValue, final double dDefault)
   {
-    final Double aValue = convertIfNecessary (aSrcValue, Double.class, null);
-    return aValue == null ? dDefault : aValue.doubleValue ();
+    if (aSrcValue == null)
+      return dDefault;
+    try
+    {
+      return _convertToDouble (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return dDefault;
+    }
   }
 
   /**
@@ -275,8 +521,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (float.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Float aValue = convertIfNecessary (aSrcValue, Float.class);
-    return aValue.floatValue ();
+    return _convertToFloat (aSrcValue);
   }
 
   /**
@@ -294,8 +539,16 @@ public final class TypeConverter
    */
   public static float convertToFloat (@Nullable final Object aSrcValue, final float fDefault)
   {
-    final Float aValue = convertIfNecessary (aSrcValue, Float.class, null);
-    return aValue == null ? fDefault : aValue.floatValue ();
+    if (aSrcValue == null)
+      return fDefault;
+    try
+    {
+      return _convertToFloat (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return fDefault;
+    }
   }
 
   /**
@@ -315,8 +568,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (int.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Integer aValue = convertIfNecessary (aSrcValue, Integer.class);
-    return aValue.intValue ();
+    return _convertToInt (aSrcValue);
   }
 
   /**
@@ -334,8 +586,16 @@ public final class TypeConverter
    */
   public static int convertToInt (@Nullable final Object aSrcValue, final int nDefault)
   {
-    final Integer aValue = convertIfNecessary (aSrcValue, Integer.class, null);
-    return aValue == null ? nDefault : aValue.intValue ();
+    if (aSrcValue == null)
+      return nDefault;
+    try
+    {
+      return _convertToInt (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return nDefault;
+    }
   }
 
   /**
@@ -355,8 +615,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (long.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Long aValue = convertIfNecessary (aSrcValue, Long.class);
-    return aValue.longValue ();
+    return _convertToLong (aSrcValue);
   }
 
   /**
@@ -374,8 +633,16 @@ public final class TypeConverter
    */
   public static long convertToLong (@Nullable final Object aSrcValue, final long nDefault)
   {
-    final Long aValue = convertIfNecessary (aSrcValue, Long.class, null);
-    return aValue == null ? nDefault : aValue.longValue ();
+    if (aSrcValue == null)
+      return nDefault;
+    try
+    {
+      return _convertToLong (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return nDefault;
+    }
   }
 
   /**
@@ -395,8 +662,7 @@ public final class TypeConverter
   {
     if (aSrcValue == null)
       throw new TypeConverterException (short.class, EReason.NULL_SOURCE_NOT_ALLOWED);
-    final Short aValue = convertIfNecessary (aSrcValue, Short.class);
-    return aValue.shortValue ();
+    return _convertToShort (aSrcValue);
   }
 
   /**
@@ -414,8 +680,16 @@ public final class TypeConverter
    */
   public static short convertToShort (@Nullable final Object aSrcValue, final short nDefault)
   {
-    final Short aValue = convertIfNecessary (aSrcValue, Short.class, null);
-    return aValue == null ? nDefault : aValue.shortValue ();
+    if (aSrcValue == null)
+      return nDefault;
+    try
+    {
+      return _convertToShort (aSrcValue);
+    }
+    catch (final TypeConverterException ex)
+    {
+      return nDefault;
+    }
   }
 
   /**
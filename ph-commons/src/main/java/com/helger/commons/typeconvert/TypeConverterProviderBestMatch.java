@@ -45,20 +45,7 @@ public final class TypeConverterProviderBestMatch implements ITypeConverterProvi
   public ITypeConverter <Object, Object> getTypeConverter (@Nonnull final Class <?> aSrcClass,
                                                            @Nonnull final Class <?> aDstClass)
   {
-    final TypeConverterRegistry aTCR = TypeConverterRegistry.getInstance ();
-
-    // Find exact hit first
-    ITypeConverter <?, ?> ret = aTCR.getExactConverter (aSrcClass, aDstClass);
-    if (ret == null)
-    {
-      // No exact match was found -> try rule based converter
-      ret = aTCR.getRuleBasedConverter (aSrcClass, aDstClass);
-      if (ret == null)
-      {
-        // No exact match was found -> try fuzzy converter
-        ret = aTCR.getFuzzyConverter (aSrcClass, aDstClass);
-      }
-    }
-    return GenericReflection.uncheckedCast (ret);
+    return GenericReflection.uncheckedCast (TypeConverterRegistry.getInstance ().getBestMatchConverter (aSrcClass,
+                                                                                                        aDstClass));
   }
 }
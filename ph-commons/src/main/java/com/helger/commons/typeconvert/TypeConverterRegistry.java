@@ -18,6 +18,7 @@ package com.helger.commons.typeconvert;
 
 import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -31,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.annotation.Singleton;
+import com.helger.commons.cache.ConcurrentCacheStore;
 import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.CommonsHashMap;
 import com.helger.commons.collection.ext.CommonsWeakHashMap;
@@ -40,6 +42,7 @@ import com.helger.commons.collection.multimap.IMultiMapListBased;
 import com.helger.commons.collection.multimap.MultiTreeMapArrayListBased;
 import com.helger.commons.concurrent.SimpleReadWriteLock;
 import com.helger.commons.debug.GlobalDebug;
+import com.helger.commons.hashcode.HashCodeGenerator;
 import com.helger.commons.lang.ClassHelper;
 import com.helger.commons.lang.ClassHierarchyCache;
 import com.helger.commons.lang.ServiceLoaderHelper;
@@ -62,6 +65,75 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     private static final TypeConverterRegistry s_aInstance = new TypeConverterRegistry ();
   }
 
+  /**
+   * A lock-free cache for resolved type converters per source and destination
+   * class. Negative results are cached as well. The number of entries is
+   * limited, so that classes of discarded class loaders are not referenced
+   * forever. Instead of clearing an instance it is replaced with a new one upon
+   * modification, so that a resolution that was started before the
+   * modification can never end up in the current cache.
+   */
+  private static final class ResolvedConverterCache
+  {
+    // Marker for "no converter found"
+    private static final ITypeConverter <?, ?> NO_CONVERTER = aSource -> null;
+
+    private static final class Key
+    {
+      private final Class <?> m_aSrcClass;
+      private final Class <?> m_aDstClass;
+      private final int m_nHashCode;
+
+      Key (@Nonnull final Class <?> aSrcClass, @Nonnull final Class <?> aDstClass)
+      {
+        m_aSrcClass = aSrcClass;
+        m_aDstClass = aDstClass;
+        m_nHashCode = new HashCodeGenerator (this).append (aSrcClass).append (aDstClass).getHashCode ();
+      }
+
+      @Override
+      public boolean equals (final Object o)
+      {
+        if (o == this)
+          return true;
+        if (o == null || !getClass ().equals (o.getClass ()))
+          return false;
+        final Key rhs = (Key) o;
+        return m_aSrcClass.equals (rhs.m_aSrcClass) && m_aDstClass.equals (rhs.m_aDstClass);
+      }
+
+      @Override
+      public int hashCode ()
+      {
+        return m_nHashCode;
+      }
+    }
+
+    private final ConcurrentCacheStore <Key, ITypeConverter <?, ?>> m_aStore = new ConcurrentCacheStore <> (MAX_CACHED_CONVERTERS);
+
+    @Nullable
+    ITypeConverter <?, ?> getOrResolve (@Nonnull final Class <?> aSrcClass,
+                                        @Nonnull final Class <?> aDstClass,
+                                        @Nonnull final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> aResolver)
+    {
+      final Key aKey = new Key (aSrcClass, aDstClass);
+      ITypeConverter <?, ?> ret = m_aStore.get (aKey);
+      if (ret == null)
+      {
+        // Resolve outside of any lock - concurrent resolutions of the same pair
+        // deliver the same result anyway
+        ret = aResolver.apply (aSrcClass, aDstClass);
+        if (ret == null)
+          ret = NO_CONVERTER;
+        m_aStore.put (aKey, ret);
+      }
+      return ret == NO_CONVERTER ? null : ret;
+    }
+  }
+
+  /** The maximum number of resolved converters per cache */
+  private static final int MAX_CACHED_CONVERTERS = 1000;
+
   private static final Logger s_aLogger = LoggerFactory.getLogger (TypeConverterRegistry.class);
 
   private static boolean s_bDefaultInstantiated = false;
@@ -74,6 +146,10 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
   @GuardedBy ("m_aRWLock")
   private final IMultiMapListBased <ITypeConverterRule.ESubType, ITypeConverterRule <?, ?>> m_aRules = new MultiTreeMapArrayListBased<> ();
 
+  // The caches are only held as long as the converters and rules don't change
+  private volatile ResolvedConverterCache m_aFuzzyCache = new ResolvedConverterCache ();
+  private volatile ResolvedConverterCache m_aBestMatchCache = new ResolvedConverterCache ();
+
   private TypeConverterRegistry ()
   {
     _reinitialize ();
@@ -109,6 +185,16 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     return ret;
   }
 
+  /**
+   * Drop all resolved converters. Must be called after each modification of
+   * the registered converters or rules.
+   */
+  private void _invalidateCaches ()
+  {
+    m_aFuzzyCache = new ResolvedConverterCache ();
+    m_aBestMatchCache = new ResolvedConverterCache ();
+  }
+
   /**
    * Register a default type converter.
    *
@@ -167,6 +253,7 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
           }
       }
     });
+    _invalidateCaches ();
   }
 
   public <SRC, DST> void registerTypeConverter (@Nonnull final Class <SRC> aSrcClass,
@@ -232,6 +319,33 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     });
   }
 
+  /**
+   * Resolve a rule based converter that may be cached for the provided source
+   * and destination class.
+   *
+   * @param aSrcClass
+   *        Source class. May not be <code>null</code>.
+   * @param aDstClass
+   *        Destination class. May not be <code>null</code>.
+   * @return <code>null</code> if no such type converter exists, the converter
+   *         bound to the provided classes otherwise.
+   * @see ITypeConverterRule#getTypeConverter(Class, Class)
+   */
+  @Nullable
+  private ITypeConverter <?, ?> _getCacheableRuleBasedConverter (@Nonnull final Class <?> aSrcClass,
+                                                                 @Nonnull final Class <?> aDstClass)
+  {
+    return m_aRWLock.readLocked ( () -> {
+      // Check all rules in the correct order
+      for (final Map.Entry <ITypeConverterRule.ESubType, ICommonsList <ITypeConverterRule <?, ?>>> aEntry : m_aRules.entrySet ())
+        for (final ITypeConverterRule <?, ?> aRule : aEntry.getValue ())
+          if (aRule.canConvert (aSrcClass, aDstClass))
+            return aRule.getTypeConverter (aSrcClass, aDstClass);
+
+      return null;
+    });
+  }
+
   /**
    * Iterate all possible fuzzy converters from source class to destination
    * class.
@@ -291,6 +405,13 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     if (aSrcClass == null || aDstClass == null)
       return null;
 
+    return m_aFuzzyCache.getOrResolve (aSrcClass, aDstClass, this::_getFuzzyConverter);
+  }
+
+  @Nullable
+  private ITypeConverter <?, ?> _getFuzzyConverter (@Nonnull final Class <?> aSrcClass,
+                                                    @Nonnull final Class <?> aDstClass)
+  {
     return m_aRWLock.readLocked ( () -> {
       if (GlobalDebug.isDebugMode ())
       {
@@ -321,6 +442,43 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     });
   }
 
+  /**
+   * Get the best matching converter that can convert objects from aSrcClass to
+   * aDstClass. First an exact match is searched, than the rule based
+   * converters are checked and finally a fuzzy match is searched. The result
+   * is cached, so that repeated lookups for the same classes are lock-free.
+   *
+   * @param aSrcClass
+   *        Source class. May not be <code>null</code>.
+   * @param aDstClass
+   *        Destination class. May not be <code>null</code>.
+   * @return <code>null</code> if no such type converter exists, the converter
+   *         object otherwise.
+   * @since 8.6.0
+   */
+  @Nullable
+  ITypeConverter <?, ?> getBestMatchConverter (@Nullable final Class <?> aSrcClass, @Nullable final Class <?> aDstClass)
+  {
+    if (aSrcClass == null || aDstClass == null)
+      return null;
+
+    return m_aBestMatchCache.getOrResolve (aSrcClass, aDstClass, (aSrc, aDst) -> {
+      // Find exact hit first
+      ITypeConverter <?, ?> ret = getExactConverter (aSrc, aDst);
+      if (ret == null)
+      {
+        // No exact match was found -> try rule based converter
+        ret = _getCacheableRuleBasedConverter (aSrc, aDst);
+        if (ret == null)
+        {
+          // No exact match was found -> try fuzzy converter
+          ret = _getFuzzyConverter (aSrc, aDst);
+        }
+      }
+      return ret;
+    });
+  }
+
   /**
    * Iterate all registered type converters. For informational purposes only.
    *
@@ -358,6 +516,7 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     ValueEnforcer.notNull (aTypeConverterRule, "TypeConverterRule");
 
     m_aRWLock.writeLocked ( () -> m_aRules.putSingle (aTypeConverterRule.getSubType (), aTypeConverterRule));
+    _invalidateCaches ();
 
     if (s_aLogger.isTraceEnabled ())
       s_aLogger.trace ("Registered type converter rule " +
@@ -386,6 +545,7 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
           s_aLogger.debug ("Calling registerTypeConverter on " + aSPI.getClass ().getName ());
         aSPI.registerTypeConverter (this);
       }
+      _invalidateCaches ();
     });
 
     if (s_aLogger.isDebugEnabled ())
@@ -22,6 +22,7 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.typeconvert.ITypeConverter;
 import com.helger.commons.typeconvert.TypeConverter;
 
 /**
@@ -68,6 +69,15 @@ public class TypeConverterRuleFixedSourceAnyDestination <SRC> extends AbstractTy
     return TypeConverter.convertIfNecessary (aInBetweenValue, m_aEffectiveDstClass);
   }
 
+  @Override
+  @Nonnull
+  public ITypeConverter <SRC, Object> getTypeConverter (@Nonnull final Class <?> aSrcClass,
+                                                        @Nonnull final Class <?> aDstClass)
+  {
+    // Bind the destination class, so that the converter can be cached
+    return aSource -> TypeConverter.convertIfNecessary (getInBetweenValue (aSource), aDstClass);
+  }
+
   @Nonnull
   public final Class <?> getSourceClass ()
   {
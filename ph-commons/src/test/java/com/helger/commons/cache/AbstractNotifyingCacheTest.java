@@ -17,6 +17,7 @@
 package com.helger.commons.cache;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -37,4 +38,37 @@ public final class AbstractNotifyingCacheTest
       c.getFromCache ("key" + i);
     assertEquals (5, c.getSize ());
   }
+
+  @Test
+  public void testConcurrent ()
+  {
+    final MockNotifyingCache c = new MockNotifyingCache (5, ECacheMode.CONCURRENT);
+    assertEquals (5, c.getMaxSize ());
+    assertEquals (ECacheMode.CONCURRENT, c.getCacheMode ());
+
+    for (int i = 0; i < c.getMaxSize () * 10; ++i)
+      assertEquals ("key" + i, c.getFromCache ("key" + i));
+    assertEquals (5, c.getSize ());
+    assertTrue (c.clearCache ().isChanged ());
+    assertTrue (c.isEmpty ());
+
+    // null keys are supported
+    assertEquals ("", c.getFromCache (null));
+    assertEquals (1, c.getSize ());
+    assertTrue (c.removeFromCache (null).isChanged ());
+    assertTrue (c.isEmpty ());
+  }
+
+  @Test
+  public void testConcurrentSoft ()
+  {
+    final MockNotifyingCache c = new MockNotifyingCache (-1, ECacheMode.CONCURRENT_SOFT);
+    assertEquals (ECacheMode.CONCURRENT_SOFT, c.getCacheMode ());
+
+    for (int i = 0; i < 50; ++i)
+      assertEquals ("key" + i, c.getFromCache ("key" + i));
+    assertTrue (c.getSize () <= 50);
+    assertTrue (c.clearCache ().isChanged ());
+    assertTrue (c.isEmpty ());
+  }
 }
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCache;
+import com.helger.commons.statistics.StatisticsManager;
+
+/**
+ * Test class for class {@link ConcurrentCacheStore}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentCacheStoreTest
+{
+  @Test
+  public void testUnbounded ()
+  {
+    final ConcurrentCacheStore <String, String> aStore = new ConcurrentCacheStore <> (-1);
+    assertFalse (aStore.hasMaxSize ());
+    assertTrue (aStore.isEmpty ());
+    for (int i = 0; i < 1000; ++i)
+      assertTrue (aStore.put ("k" + i, "v" + i));
+    assertEquals (1000, aStore.size ());
+    assertEquals ("v17", aStore.get ("k17"));
+    assertTrue (aStore.remove ("k17"));
+    assertFalse (aStore.remove ("k17"));
+    assertNull (aStore.get ("k17"));
+    assertTrue (aStore.clear ());
+    assertFalse (aStore.clear ());
+  }
+
+  @Test
+  public void testSoftValues ()
+  {
+    final ConcurrentCacheStore <String, String> aStore = new ConcurrentCacheStore <> (-1, true);
+    assertTrue (aStore.isSoftValues ());
+    assertFalse (new ConcurrentCacheStore <> (-1).isSoftValues ());
+    assertTrue (aStore.isEmpty ());
+    for (int i = 0; i < 100; ++i)
+      assertTrue (aStore.put ("k" + i, "v" + i));
+    assertEquals ("v17", aStore.get ("k17"));
+    assertTrue (aStore.remove ("k17"));
+    assertNull (aStore.get ("k17"));
+    assertTrue (aStore.clear ());
+    assertTrue (aStore.isEmpty ());
+  }
+
+  @Test
+  public void testScanResistance ()
+  {
+    final ConcurrentCacheStore <String, String> aStore = new ConcurrentCacheStore <> (10);
+    assertTrue (aStore.hasMaxSize ());
+
+    // Establish a hot set
+    for (int nRound = 0; nRound < 5; ++nRound)
+      for (int i = 0; i < 10; ++i)
+        if (aStore.get ("hot" + i) == null)
+          aStore.put ("hot" + i, "v");
+    assertEquals (10, aStore.size ());
+
+    // Scan with keys that are only used once, while the hot set is still in
+    // use
+    for (int i = 0; i < 1000; ++i)
+    {
+      if (aStore.get ("scan" + i) == null)
+        aStore.put ("scan" + i, "v");
+      if ((i % 10) == 0)
+        for (int j = 0; j < 10; ++j)
+          if (aStore.get ("hot" + j) == null)
+            aStore.put ("hot" + j, "v");
+    }
+    assertEquals (10, aStore.size ());
+
+    // The hot set survived
+    for (int i = 0; i < 10; ++i)
+      assertNotNull (aStore.get ("hot" + i));
+  }
+
+  @Test
+  public void testEvictionOfColdEntries ()
+  {
+    final ConcurrentCacheStore <String, String> aStore = new ConcurrentCacheStore <> (2);
+    aStore.put ("a", "v");
+    aStore.put ("b", "v");
+
+    // "c" is requested often enough to be admitted
+    int nTries = 0;
+    while (!aStore.put ("c", "v"))
+      ++nTries;
+    assertTrue (nTries < 20);
+    assertEquals (2, aStore.size ());
+    assertNotNull (aStore.get ("c"));
+  }
+
+  @Test
+  public void testSingleFlight () throws Exception
+  {
+    final ConcurrentCacheStore <String, String> aStore = new ConcurrentCacheStore <> (100);
+    final IMutableStatisticsHandlerCache aStats = StatisticsManager.getCacheHandler (getClass ().getName () +
+                                                                                    "$singleflight");
+    final AtomicInteger aLoadCount = new AtomicInteger (0);
+    final int nThreads = 16;
+    final CountDownLatch aStart = new CountDownLatch (1);
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+    for (int i = 0; i < nThreads; ++i)
+      aES.submit ( () -> {
+        aStart.await ();
+        return aStore.getOrLoad ("key", k -> {
+          aLoadCount.incrementAndGet ();
+          try
+          {
+            Thread.sleep (50);
+          }
+          catch (final InterruptedException ex)
+          {
+            Thread.currentThread ().interrupt ();
+          }
+          return "value";
+        }, aStats);
+      });
+    aStart.countDown ();
+    new ManagedExecutorService (aES).shutdownAndWaitUntilAllTasksAreFinished ();
+
+    assertEquals (1, aLoadCount.get ());
+    assertEquals ("value", aStore.get ("key"));
+    assertEquals (1, aStats.getMisses ());
+    assertEquals (nThreads - 1, aStats.getHits ());
+  }
+
+  @Test
+  public void testRecursiveLoad ()
+  {
+    final ConcurrentCacheStore <String, String> aStore = new ConcurrentCacheStore <> (-1);
+    final IMutableStatisticsHandlerCache aStats = StatisticsManager.getCacheHandler (getClass ().getName () +
+                                                                                    "$recursive");
+    try
+    {
+      aStore.getOrLoad ("key", k -> aStore.getOrLoad (k, k2 -> "inner", aStats), aStats);
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+    // The failed load must not block subsequent loads
+    assertEquals ("value", aStore.getOrLoad ("key", k -> "value", aStats));
+  }
+}
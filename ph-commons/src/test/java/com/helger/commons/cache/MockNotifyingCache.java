@@ -27,6 +27,11 @@ public final class MockNotifyingCache extends AbstractNotifyingCache <String, St
     super (nMaxSize, "Mock");
   }
 
+  public MockNotifyingCache (final int nMaxSize, final ECacheMode eCacheMode)
+  {
+    super (nMaxSize, "Mock", eCacheMode);
+  }
+
   @Override
   protected String getValueToCache (@Nullable final String aKey)
   {
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link DoubleArrayList}.
+ *
+ * @author Philip Helger
+ */
+public final class DoubleArrayListTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final DoubleArrayList aList = new DoubleArrayList ();
+    for (int i = 0; i < 1000; ++i)
+      aList.add (i / 2d);
+    assertEquals (1000, aList.size ());
+    assertEquals (499.5, aList.get (999), 0);
+    assertEquals (3, aList.indexOf (1.5));
+
+    final double [] aSum = new double [1];
+    aList.forEach (x -> aSum[0] += x);
+    assertEquals (999 * 1000 / 4d, aSum[0], 0.0001);
+
+    // NaN is found
+    aList.add (Double.NaN);
+    assertTrue (aList.contains (Double.NaN));
+    assertEquals (1000, aList.indexOf (Double.NaN));
+
+    aList.clear ();
+    aList.addAll (3.5, -1, 2);
+    aList.sort ();
+    assertArrayEquals (new double [] { -1, 2, 3.5 }, aList.toArray (), 0);
+    assertEquals (2, aList.set (1, 4), 0);
+
+    final DoubleArrayList aList2 = new DoubleArrayList ();
+    aList2.addAll (-1, 4, 3.5);
+    assertEquals (aList, aList2);
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link IntArrayList}.
+ *
+ * @author Philip Helger
+ */
+public final class IntArrayListTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final IntArrayList aList = new IntArrayList (0);
+    assertTrue (aList.isEmpty ());
+    for (int i = 0; i < 1000; ++i)
+      aList.add (i);
+    assertEquals (1000, aList.size ());
+    assertEquals (999, aList.get (999));
+    assertEquals (500, aList.indexOf (500));
+    assertEquals (-1, aList.indexOf (1000));
+    assertTrue (aList.contains (0));
+
+    assertEquals (5, aList.set (5, -5));
+    assertEquals (-5, aList.get (5));
+    assertEquals (0, aList.removeAtIndex (0));
+    assertEquals (999, aList.size ());
+    assertEquals (1, aList.get (0));
+    assertEquals (999, aList.removeAtIndex (998));
+
+    final AtomicLong aSum = new AtomicLong ();
+    aList.forEach (x -> aSum.addAndGet (x));
+    assertEquals (998 * 999 / 2 - 5 - 5, aSum.get ());
+
+    try
+    {
+      aList.get (998);
+      fail ();
+    }
+    catch (final IndexOutOfBoundsException ex)
+    {
+      // expected
+    }
+
+    aList.clear ();
+    assertTrue (aList.isEmpty ());
+    assertFalse (aList.contains (1));
+  }
+
+  @Test
+  public void testArrayAndEquals ()
+  {
+    final IntArrayList aList = new IntArrayList ();
+    aList.addAll (3, 1, 2);
+    aList.addAll ();
+    aList.sort ();
+    assertArrayEquals (new int [] { 1, 2, 3 }, aList.toArray ());
+
+    final IntArrayList aList2 = new IntArrayList (1);
+    aList2.addAll (1, 2, 3, 4);
+    assertNotEquals (aList, aList2);
+    aList2.removeAtIndex (3);
+    assertEquals (aList, aList2);
+    assertEquals (aList.hashCode (), aList2.hashCode ());
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link IntHashSet}.
+ *
+ * @author Philip Helger
+ */
+public final class IntHashSetTest
+{
+  private static final float [] FILL_FACTORS = { 0.25f, 0.5f, 0.75f, 0.9f, 0.99f };
+
+  @Test
+  public void testAddAndRemove ()
+  {
+    for (final float ff : FILL_FACTORS)
+    {
+      final IntHashSet set = new IntHashSet (100, ff);
+      for (int i = -50000; i < 50000; ++i)
+      {
+        assertTrue (set.add (i));
+        assertFalse (set.add (i));
+      }
+      assertEquals (100000, set.size ());
+      for (int i = -50000; i < 50000; i += 2)
+        assertTrue (set.remove (i));
+      assertFalse (set.remove (-50000));
+      assertEquals (50000, set.size ());
+      for (int i = -50000; i < 50000; ++i)
+        assertEquals (i % 2 != 0, set.contains (i));
+    }
+  }
+
+  @Test
+  public void testIterate ()
+  {
+    final IntHashSet set = new IntHashSet ();
+    assertTrue (set.isEmpty ());
+    set.add (0);
+    set.add (Integer.MIN_VALUE);
+    set.add (Integer.MAX_VALUE);
+    set.add (17);
+    set.add (17);
+    assertEquals (4, set.size ());
+
+    final int [] aValues = set.toArray ();
+    Arrays.sort (aValues);
+    assertArrayEquals (new int [] { Integer.MIN_VALUE, 0, 17, Integer.MAX_VALUE }, aValues);
+
+    final AtomicLong aSum = new AtomicLong ();
+    set.forEach (x -> aSum.addAndGet (x));
+    assertEquals (-1L + 17, aSum.get ());
+
+    set.clear ();
+    assertTrue (set.isEmpty ());
+    assertFalse (set.contains (0));
+    assertFalse (set.contains (17));
+    assertEquals (0, set.toArray ().length);
+  }
+}
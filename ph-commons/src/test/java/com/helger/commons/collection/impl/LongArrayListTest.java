@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link LongArrayList}.
+ *
+ * @author Philip Helger
+ */
+public final class LongArrayListTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final LongArrayList aList = new LongArrayList ();
+    for (long i = 0; i < 1000; ++i)
+      aList.add (i << 32);
+    assertEquals (1000, aList.size ());
+    assertEquals (999L << 32, aList.get (999));
+    assertEquals (7, aList.indexOf (7L << 32));
+    assertEquals (-1, aList.indexOf (7));
+
+    final AtomicLong aSum = new AtomicLong ();
+    aList.forEach (x -> aSum.addAndGet (x >> 32));
+    assertEquals (999 * 1000 / 2, aSum.get ());
+
+    aList.clear ();
+    aList.addAll (Long.MAX_VALUE, Long.MIN_VALUE);
+    aList.sort ();
+    assertArrayEquals (new long [] { Long.MIN_VALUE, Long.MAX_VALUE }, aList.toArray ());
+    assertEquals (Long.MIN_VALUE, aList.removeAtIndex (0));
+    assertTrue (aList.contains (Long.MAX_VALUE));
+  }
+}
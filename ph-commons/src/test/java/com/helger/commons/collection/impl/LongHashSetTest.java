@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link LongHashSet}.
+ *
+ * @author Philip Helger
+ */
+public final class LongHashSetTest
+{
+  @Test
+  public void testAddAndRemove ()
+  {
+    final LongHashSet set = new LongHashSet ();
+    for (long i = 0; i < 100000; ++i)
+      assertTrue (set.add (i << 33));
+    assertEquals (100000, set.size ());
+    for (long i = 0; i < 100000; i += 2)
+      assertTrue (set.remove (i << 33));
+    assertEquals (50000, set.size ());
+    for (long i = 0; i < 100000; ++i)
+      assertEquals (i % 2 != 0, set.contains (i << 33));
+  }
+
+  @Test
+  public void testIterate ()
+  {
+    final LongHashSet set = new LongHashSet (1);
+    set.add (0);
+    set.add (Long.MIN_VALUE);
+    set.add (Long.MAX_VALUE);
+    assertFalse (set.add (0));
+    final long [] aValues = set.toArray ();
+    Arrays.sort (aValues);
+    assertArrayEquals (new long [] { Long.MIN_VALUE, 0, Long.MAX_VALUE }, aValues);
+
+    final AtomicInteger aCount = new AtomicInteger ();
+    set.forEach (x -> aCount.incrementAndGet ());
+    assertEquals (3, aCount.get ());
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.concurrent.ManagedExecutorService;
+
+/**
+ * Test class for class {@link ConcurrentIntObjectMap}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentIntObjectMapTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final ConcurrentIntObjectMap <String> aMap = new ConcurrentIntObjectMap<> ();
+    assertTrue (aMap.isEmpty ());
+    for (int i = -5000; i < 5000; ++i)
+      assertNull (aMap.put (i, "str" + i));
+    assertEquals (10000, aMap.size ());
+    for (int i = -5000; i < 5000; ++i)
+      assertEquals ("str" + i, aMap.get (i));
+    assertEquals ("str0", aMap.remove (0));
+    assertNull (aMap.remove (0));
+    assertFalse (aMap.containsKey (0));
+    assertEquals ("x", aMap.get (0, "x"));
+
+    final AtomicInteger aCount = new AtomicInteger ();
+    aMap.forEach ( (k, v) -> {
+      assertEquals ("str" + k, v);
+      aCount.incrementAndGet ();
+    });
+    assertEquals (9999, aCount.get ());
+  }
+
+  @Test
+  public void testConcurrentComputeIfAbsent ()
+  {
+    final int nThreads = 8;
+    final ConcurrentIntObjectMap <Object> aMap = new ConcurrentIntObjectMap<> (4);
+    final AtomicInteger aCreated = new AtomicInteger ();
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+    for (int t = 0; t < nThreads; ++t)
+      aES.submit ( () -> {
+        for (int i = 0; i < 1000; ++i)
+          aMap.computeIfAbsent (i, k -> {
+            aCreated.incrementAndGet ();
+            return new Object ();
+          });
+      });
+    ManagedExecutorService.shutdownAndWaitUntilAllTasksAreFinished (aES);
+
+    // Each value must have been created exactly once
+    assertEquals (1000, aCreated.get ());
+    assertEquals (1000, aMap.size ());
+    final Object aObj = aMap.get (17);
+    assertSame (aObj, aMap.computeIfAbsent (17, k -> new Object ()));
+  }
+}
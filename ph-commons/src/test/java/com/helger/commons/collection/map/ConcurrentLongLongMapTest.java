@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.helger.commons.concurrent.ManagedExecutorService;
+
+/**
+ * Test class for class {@link ConcurrentLongLongMap}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentLongLongMapTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final ConcurrentLongLongMap aMap = new ConcurrentLongLongMap (5);
+    assertEquals (8, aMap.getSegmentCount ());
+    assertEquals (1, new ConcurrentLongLongMap (1).getSegmentCount ());
+    assertTrue (aMap.isEmpty ());
+
+    for (long i = 0; i < 10000; ++i)
+      assertEquals (ConcurrentLongLongMap.NO_VALUE, aMap.put (i << 20, i));
+    assertEquals (10000, aMap.size ());
+    for (long i = 0; i < 10000; ++i)
+    {
+      assertTrue (aMap.containsKey (i << 20));
+      assertEquals (i, aMap.get (i << 20));
+    }
+    assertEquals (-1, aMap.get (1, -1));
+    assertEquals (5, aMap.remove (5 << 20));
+    assertFalse (aMap.containsKey (5 << 20));
+    assertEquals (9999, aMap.size ());
+
+    assertEquals (42, aMap.computeIfAbsent (1, k -> 42));
+    assertEquals (42, aMap.computeIfAbsent (1, k -> 43));
+    assertEquals (43, aMap.incrementAndGet (1));
+
+    final AtomicLong aSum = new AtomicLong ();
+    aMap.forEach ( (k, v) -> aSum.addAndGet (v));
+    assertEquals (9999L * 10000 / 2 - 5 + 43, aSum.get ());
+  }
+
+  @Test
+  public void testConcurrentCounters ()
+  {
+    final int nThreads = 8;
+    final int nIncrements = 10000;
+    final ConcurrentLongLongMap aMap = new ConcurrentLongLongMap ();
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+    for (int t = 0; t < nThreads; ++t)
+      aES.submit ( () -> {
+        for (int i = 0; i < nIncrements; ++i)
+          aMap.incrementAndGet (i % 100);
+      });
+    ManagedExecutorService.shutdownAndWaitUntilAllTasksAreFinished (aES);
+
+    assertEquals (100, aMap.size ());
+    for (long i = 0; i < 100; ++i)
+      assertEquals (nThreads * nIncrements / 100, aMap.get (i));
+  }
+}
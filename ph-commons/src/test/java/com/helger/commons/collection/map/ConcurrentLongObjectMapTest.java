@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ConcurrentLongObjectMap}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentLongObjectMapTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final ConcurrentLongObjectMap <String> aMap = new ConcurrentLongObjectMap<> (2, 100);
+    assertEquals (2, aMap.getSegmentCount ());
+    for (long i = 0; i < 10000; ++i)
+      assertNull (aMap.put (i * 0x100000001L, "str" + i));
+    assertEquals (10000, aMap.size ());
+    for (long i = 0; i < 10000; ++i)
+      assertEquals ("str" + i, aMap.get (i * 0x100000001L));
+    assertEquals ("str1", aMap.remove (0x100000001L));
+    assertEquals (9999, aMap.size ());
+    assertEquals ("a", aMap.computeIfAbsent (Long.MIN_VALUE, k -> "a"));
+    assertTrue (aMap.containsKey (Long.MIN_VALUE));
+    assertNull (aMap.computeIfAbsent (Long.MAX_VALUE, k -> null));
+    assertEquals (10000, aMap.size ());
+  }
+}
@@ -17,6 +17,8 @@
 package com.helger.commons.collection.map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Random;
 
@@ -140,4 +142,23 @@ public final class IntIntMapTest
     for (int i = removeCnt; i < addCnt; ++i)
       assertEquals (i, map.get (i));
   }
+
+  @Test
+  public void testForEach ()
+  {
+    final IntIntMap map = _makeMap (10, 0.75f);
+    assertTrue (map.isEmpty ());
+    for (int i = 0; i < 100; ++i)
+      map.put (i, i * 2);
+    assertTrue (map.containsKey (0));
+    assertFalse (map.containsKey (100));
+
+    final int [] aSums = new int [2];
+    map.forEach ( (k, v) -> {
+      aSums[0] += k;
+      aSums[1] += v;
+    });
+    assertEquals (4950, aSums[0]);
+    assertEquals (9900, aSums[1]);
+  }
 }
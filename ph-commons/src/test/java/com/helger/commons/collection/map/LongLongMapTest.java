@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsHashSet;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.random.RandomHelper;
+
+/**
+ * Test class for class {@link LongLongMap}.
+ *
+ * @author Philip Helger
+ */
+public final class LongLongMapTest
+{
+  private static final float [] FILL_FACTORS = { 0.25f, 0.5f, 0.75f, 0.9f, 0.99f };
+
+  @Test
+  public void testPut ()
+  {
+    for (final float ff : FILL_FACTORS)
+    {
+      final LongLongMap map = new LongLongMap (100, ff);
+      for (long i = 0; i < 100000; ++i)
+      {
+        // Use keys outside of the int range
+        final long nKey = i << 32;
+        assertEquals (0, map.put (nKey, i));
+        assertEquals (i + 1, map.size ());
+        assertEquals (i, map.get (nKey));
+      }
+      // now check the final state
+      for (long i = 0; i < 100000; ++i)
+        assertEquals (i, map.get (i << 32));
+    }
+  }
+
+  @Test
+  public void testPutRandom ()
+  {
+    final Random aRandom = RandomHelper.getRandom ();
+    final int SIZE = 100 * 1000;
+    final ICommonsSet <Long> set = new CommonsHashSet<> (SIZE);
+    while (set.size () < SIZE)
+      set.add (Long.valueOf (aRandom.nextLong ()));
+
+    final LongLongMap map = new LongLongMap ();
+    for (final Long v : set)
+      map.put (v.longValue (), v.longValue ());
+    assertEquals (SIZE, map.size ());
+    for (final Long v : set)
+    {
+      assertTrue (map.containsKey (v.longValue ()));
+      assertEquals (v.longValue (), map.get (v.longValue ()));
+    }
+  }
+
+  @Test
+  public void testRemove ()
+  {
+    for (final float ff : FILL_FACTORS)
+    {
+      final LongLongMap map = new LongLongMap (100, ff);
+      long addCnt = 0;
+      long removeCnt = 0;
+      for (int i = 0; i < 100000; ++i)
+      {
+        assertEquals (0, map.put (addCnt, addCnt));
+        addCnt++;
+        assertEquals (LongLongMap.NO_VALUE, map.put (addCnt, addCnt));
+        addCnt++;
+        assertEquals (removeCnt, map.remove (removeCnt));
+        removeCnt++;
+
+        // map grows by one element on each iteration
+        assertEquals (i + 1, map.size ());
+      }
+      for (long i = removeCnt; i < addCnt; ++i)
+        assertEquals (i, map.get (i));
+      assertFalse (map.containsKey (0));
+    }
+  }
+
+  @Test
+  public void testAddAndGetAndForEach ()
+  {
+    final LongLongMap map = new LongLongMap ();
+    assertTrue (map.isEmpty ());
+    for (int i = 0; i < 1000; ++i)
+      map.addAndGet (i % 10, 2);
+    assertEquals (10, map.size ());
+    assertEquals (200, map.get (0));
+    assertEquals (200, map.get (9));
+    assertEquals (5, map.get (100, 5));
+
+    final AtomicLong aKeySum = new AtomicLong ();
+    final AtomicLong aValueSum = new AtomicLong ();
+    map.forEach ( (k, v) -> {
+      aKeySum.addAndGet (k);
+      aValueSum.addAndGet (v);
+    });
+    assertEquals (45, aKeySum.get ());
+    assertEquals (2000, aValueSum.get ());
+
+    assertEquals (17, map.computeIfAbsent (4711, k -> 17));
+    assertEquals (17, map.computeIfAbsent (4711, k -> 18));
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsHashMap;
+import com.helger.commons.collection.ext.ICommonsMap;
+
+/**
+ * Test class for class {@link LongObjectMap}.
+ *
+ * @author Philip Helger
+ */
+public final class LongObjectMapTest
+{
+  private static final float [] FILL_FACTORS = { 0.25f, 0.5f, 0.75f, 0.9f, 0.99f };
+
+  @Test
+  public void testPutAndRemove ()
+  {
+    for (final float ff : FILL_FACTORS)
+    {
+      final LongObjectMap <String> map = new LongObjectMap<> (100, ff);
+      for (long i = 0; i < 50000; ++i)
+      {
+        assertNull (map.put (-i * 1000003L, "str" + i));
+        assertEquals (i + 1, map.size ());
+      }
+      for (long i = 0; i < 50000; ++i)
+        assertEquals ("str" + i, map.get (-i * 1000003L));
+      for (long i = 0; i < 50000; i += 2)
+        assertEquals ("str" + i, map.remove (-i * 1000003L));
+      assertEquals (25000, map.size ());
+      for (long i = 0; i < 50000; ++i)
+        assertEquals (i % 2 == 0 ? null : "str" + i, map.get (-i * 1000003L));
+      assertFalse (map.containsKey (0));
+      assertNull (map.remove (0));
+    }
+  }
+
+  @Test
+  public void testForEach ()
+  {
+    final LongObjectMap <String> map = new LongObjectMap<> ();
+    assertTrue (map.isEmpty ());
+    map.put (0, "zero");
+    map.put (Long.MAX_VALUE, "max");
+    map.put (Long.MIN_VALUE, "min");
+    assertEquals ("x", map.computeIfAbsent (5, k -> "x"));
+    assertEquals ("x", map.computeIfAbsent (5, k -> "y"));
+    assertEquals (4, map.size ());
+    assertTrue (map.containsKey (0));
+
+    final ICommonsMap <Long, String> aCopy = new CommonsHashMap<> ();
+    map.forEach ( (k, v) -> aCopy.put (Long.valueOf (k), v));
+    assertEquals (4, aCopy.size ());
+    assertEquals ("zero", aCopy.get (Long.valueOf (0)));
+    assertEquals ("max", aCopy.get (Long.valueOf (Long.MAX_VALUE)));
+    assertEquals ("min", aCopy.get (Long.valueOf (Long.MIN_VALUE)));
+    assertEquals ("x", aCopy.get (Long.valueOf (5)));
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ObjectIntMap}.
+ *
+ * @author Philip Helger
+ */
+public final class ObjectIntMapTest
+{
+  private static final float [] FILL_FACTORS = { 0.25f, 0.5f, 0.75f, 0.9f, 0.99f };
+
+  @Test
+  public void testPutAndRemove ()
+  {
+    for (final float ff : FILL_FACTORS)
+    {
+      final ObjectIntMap <String> map = new ObjectIntMap<> (100, ff);
+      for (int i = 0; i < 50000; ++i)
+      {
+        assertEquals (0, map.put ("str" + i, i));
+        assertEquals (i + 1, map.size ());
+        assertEquals (i, map.get ("str" + i));
+      }
+      for (int i = 0; i < 50000; i += 2)
+        assertEquals (i, map.remove ("str" + i));
+      assertEquals (25000, map.size ());
+      for (int i = 0; i < 50000; ++i)
+      {
+        assertEquals (i % 2 != 0, map.containsKey ("str" + i));
+        assertEquals (i % 2 == 0 ? -1 : i, map.get ("str" + i, -1));
+      }
+    }
+  }
+
+  @Test
+  public void testCounter ()
+  {
+    final ObjectIntMap <String> map = new ObjectIntMap<> ();
+    assertTrue (map.isEmpty ());
+    final String [] aWords = { "a", "b", "c", "a", "b", "a" };
+    for (final String sWord : aWords)
+      map.addAndGet (sWord, 1);
+    assertEquals (3, map.size ());
+    assertEquals (3, map.get ("a"));
+    assertEquals (2, map.get ("b"));
+    assertEquals (1, map.get ("c"));
+    assertEquals (0, map.get ("d"));
+    assertFalse (map.containsKey ("d"));
+    assertEquals (13, map.addAndGet ("a", 10));
+
+    final AtomicInteger aSum = new AtomicInteger ();
+    map.forEach ( (k, v) -> aSum.addAndGet (v));
+    assertEquals (16, aSum.get ());
+
+    assertEquals (7, map.computeIfAbsent ("e", String::length) + 6);
+    assertEquals (1, map.get ("e"));
+  }
+}
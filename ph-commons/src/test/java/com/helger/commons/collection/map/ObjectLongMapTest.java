@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ObjectLongMap}.
+ *
+ * @author Philip Helger
+ */
+public final class ObjectLongMapTest
+{
+  private static final float [] FILL_FACTORS = { 0.25f, 0.5f, 0.75f, 0.9f, 0.99f };
+
+  @Test
+  public void testPutAndRemove ()
+  {
+    for (final float ff : FILL_FACTORS)
+    {
+      final ObjectLongMap <Integer> map = new ObjectLongMap<> (100, ff);
+      for (int i = 0; i < 50000; ++i)
+      {
+        assertEquals (0, map.put (Integer.valueOf (i), i * 1000000000L));
+        assertEquals (i + 1, map.size ());
+      }
+      for (int i = 0; i < 50000; i += 2)
+        assertEquals (i * 1000000000L, map.remove (Integer.valueOf (i)));
+      assertEquals (25000, map.size ());
+      for (int i = 0; i < 50000; ++i)
+      {
+        assertEquals (i % 2 != 0, map.containsKey (Integer.valueOf (i)));
+        assertEquals (i % 2 == 0 ? -1 : i * 1000000000L, map.get (Integer.valueOf (i), -1));
+      }
+    }
+  }
+
+  @Test
+  public void testCounter ()
+  {
+    final ObjectLongMap <String> map = new ObjectLongMap<> ();
+    assertTrue (map.isEmpty ());
+    map.addAndGet ("a", Long.MAX_VALUE - 1);
+    assertEquals (Long.MAX_VALUE, map.addAndGet ("a", 1));
+    map.addAndGet ("b", -5);
+    assertEquals (2, map.size ());
+    assertFalse (map.containsKey ("c"));
+
+    final AtomicLong aSum = new AtomicLong ();
+    map.forEach ( (k, v) -> aSum.addAndGet (v));
+    assertEquals (Long.MAX_VALUE - 5, aSum.get ());
+  }
+}
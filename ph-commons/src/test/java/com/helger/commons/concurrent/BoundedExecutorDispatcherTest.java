@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.mock.CommonsTestHelper;
+
+/**
+ * Test class for class {@link BoundedExecutorDispatcher}.
+ *
+ * @author Philip Helger
+ */
+public final class BoundedExecutorDispatcherTest
+{
+  @Test
+  public void testSerial () throws InterruptedException
+  {
+    final AtomicInteger aSum = new AtomicInteger ();
+    final BoundedExecutorDispatcher <Integer> aDispatcher = new BoundedExecutorDispatcher <> (null,
+                                                                                              1,
+                                                                                              aSum::addAndGet,
+                                                                                              ex -> {});
+    for (int i = 1; i <= 10; ++i)
+      aDispatcher.dispatch (Integer.valueOf (i));
+    assertEquals (55, aSum.get ());
+    assertTrue (aDispatcher.waitForPending ().isSuccess ());
+    CommonsTestHelper.testToStringImplementation (aDispatcher);
+  }
+
+  @Test
+  public void testParallel () throws InterruptedException
+  {
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final AtomicInteger aSum = new AtomicInteger ();
+      final AtomicInteger aRunning = new AtomicInteger ();
+      final AtomicInteger aMaxRunning = new AtomicInteger ();
+      final BoundedExecutorDispatcher <Integer> aDispatcher = new BoundedExecutorDispatcher <> (aES, 2, x -> {
+        aMaxRunning.accumulateAndGet (aRunning.incrementAndGet (), Math::max);
+        aSum.addAndGet (x.intValue ());
+        aRunning.decrementAndGet ();
+      }, ex -> {});
+      for (int i = 1; i <= 1000; ++i)
+        aDispatcher.dispatch (Integer.valueOf (i));
+      assertTrue (aDispatcher.waitForPending ().isSuccess ());
+      assertEquals (500500, aSum.get ());
+      assertTrue (aMaxRunning.get () <= 2);
+      assertFalse (aDispatcher.isFailed ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testFailure () throws InterruptedException
+  {
+    final ExecutorService aES = Executors.newSingleThreadExecutor ();
+    try
+    {
+      final AtomicInteger aErrors = new AtomicInteger ();
+      final BoundedExecutorDispatcher <Integer> aDispatcher = new BoundedExecutorDispatcher <> (aES, 4, x -> {
+        throw new IllegalStateException ("oops");
+      }, ex -> aErrors.incrementAndGet ());
+      aDispatcher.dispatch (Integer.valueOf (1));
+      assertTrue (aDispatcher.waitForPending ().isFailure ());
+      assertTrue (aDispatcher.isFailed ());
+      assertEquals (1, aErrors.get ());
+
+      // Items after the failure are skipped
+      aDispatcher.dispatch (Integer.valueOf (2));
+      assertTrue (aDispatcher.waitForPending ().isFailure ());
+      assertEquals (1, aErrors.get ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+}
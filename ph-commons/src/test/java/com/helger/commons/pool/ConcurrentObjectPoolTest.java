@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.statistics.StatisticsManager;
+
+/**
+ * Test class for class {@link ConcurrentObjectPool}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentObjectPoolTest
+{
+  @Test
+  public void testSimple ()
+  {
+    final AtomicInteger aCounter = new AtomicInteger ();
+    final ConcurrentObjectPool <String> aOP = new ConcurrentObjectPool<> (2,
+                                                                          () -> "item" + aCounter.incrementAndGet ());
+    assertEquals (2, aOP.getMaxSize ());
+    assertEquals (ConcurrentObjectPool.WAIT_FOREVER, aOP.getBorrowTimeoutMillis ());
+
+    final String s1 = aOP.borrowObject ();
+    final String s2 = aOP.borrowObject ();
+    assertEquals ("item1", s1);
+    assertEquals ("item2", s2);
+    assertEquals (2, aOP.getBorrowedCount ());
+    assertEquals (2, aOP.getCreatedCount ());
+
+    // Pool is exhausted
+    assertNull (aOP.borrowObject (10, TimeUnit.MILLISECONDS));
+    aOP.setBorrowTimeoutMillis (10);
+    assertNull (aOP.borrowObject ());
+
+    // The last returned object is reused first
+    assertTrue (aOP.returnObject (s1).isSuccess ());
+    assertTrue (aOP.returnObject (s2).isSuccess ());
+    assertEquals (0, aOP.getBorrowedCount ());
+    assertEquals (2, aOP.getIdleCount ());
+    assertSame (s2, aOP.borrowObject ());
+    assertTrue (aOP.returnObject (s2).isSuccess ());
+
+    // Cannot return more than borrowed
+    assertFalse (aOP.returnObject ("any").isSuccess ());
+
+    aOP.clearUnusedItems ();
+    assertEquals (0, aOP.getIdleCount ());
+    assertEquals ("item3", aOP.borrowObject ());
+  }
+
+  @Test
+  public void testHooks ()
+  {
+    final AtomicInteger aCounter = new AtomicInteger ();
+    final AtomicBoolean aValid = new AtomicBoolean (true);
+    final ConcurrentObjectPool <StringBuilder> aOP = new ConcurrentObjectPool<> (ConcurrentObjectPoolTest.class.getName (),
+                                                                                 2,
+                                                                                 () -> new StringBuilder ("sb" +
+                                                                                                          aCounter.incrementAndGet ()));
+    aOP.setValidator (x -> aValid.get ()).setResetter (x -> {
+      if (x.length () == 0)
+        throw new IllegalStateException ("Empty");
+      x.setLength (3);
+    });
+
+    final StringBuilder aSB = aOP.borrowObject ();
+    aSB.append ("dirty");
+    assertTrue (aOP.returnObject (aSB).isSuccess ());
+    // Reset was applied
+    assertEquals ("sb1", aSB.toString ());
+    assertSame (aSB, aOP.borrowObject ());
+
+    // Reset fails - object is discarded
+    aSB.setLength (0);
+    assertTrue (aOP.returnObject (aSB).isSuccess ());
+    assertEquals (0, aOP.getIdleCount ());
+    final StringBuilder aSB2 = aOP.borrowObject ();
+    assertEquals ("sb2", aSB2.toString ());
+    assertTrue (aOP.returnObject (aSB2).isSuccess ());
+
+    // Validation fails - object is discarded
+    aValid.set (false);
+    final StringBuilder aSB3 = aOP.borrowObject ();
+    assertNotSame (aSB2, aSB3);
+    assertEquals ("sb3", aSB3.toString ());
+    assertTrue (aOP.returnObject (aSB3).isSuccess ());
+
+    final String sName = ConcurrentObjectPoolTest.class.getName ();
+    assertEquals (3, StatisticsManager.getCounterHandler (sName + "$create").getCount ());
+    assertEquals (4, StatisticsManager.getCounterHandler (sName + "$borrow").getCount ());
+    assertEquals (2, StatisticsManager.getCounterHandler (sName + "$discard").getCount ());
+  }
+
+  @Test
+  public void testResize ()
+  {
+    final ConcurrentObjectPool <Object> aOP = new ConcurrentObjectPool<> (1, Object::new);
+    final Object o1 = aOP.borrowObject ();
+    assertNull (aOP.borrowObject (1, TimeUnit.MILLISECONDS));
+
+    aOP.setMaxSize (2);
+    final Object o2 = aOP.borrowObject (1, TimeUnit.MILLISECONDS);
+    assertNotNull (o2);
+
+    aOP.setMaxSize (1);
+    aOP.returnObject (o1);
+    // Still one too many borrowed
+    assertNull (aOP.borrowObject (1, TimeUnit.MILLISECONDS));
+    aOP.returnObject (o2);
+    // The superfluous object was discarded
+    assertSame (o2, aOP.borrowObject (1, TimeUnit.MILLISECONDS));
+    assertEquals (0, aOP.getIdleCount ());
+    assertEquals (1, aOP.getBorrowedCount ());
+    assertEquals (2, aOP.getCreatedCount ());
+  }
+
+  @Test
+  public void testConcurrent () throws InterruptedException
+  {
+    final int nMaxSize = 4;
+    final ConcurrentObjectPool <AtomicBoolean> aOP = new ConcurrentObjectPool<> (nMaxSize, AtomicBoolean::new);
+    final AtomicInteger aErrors = new AtomicInteger ();
+    final ExecutorService aES = Executors.newFixedThreadPool (16);
+    for (int i = 0; i < 10_000; ++i)
+      aES.submit ( () -> {
+        final AtomicBoolean aItem = aOP.borrowObject ();
+        // Each object may only be used by one thread
+        if (!aItem.compareAndSet (false, true))
+          aErrors.incrementAndGet ();
+        aItem.set (false);
+        aOP.returnObject (aItem);
+      });
+    aES.shutdown ();
+    assertTrue (aES.awaitTermination (1, TimeUnit.MINUTES));
+    assertEquals (0, aErrors.get ());
+    assertEquals (0, aOP.getBorrowedCount ());
+    assertTrue (aOP.getCreatedCount () <= nMaxSize);
+  }
+}
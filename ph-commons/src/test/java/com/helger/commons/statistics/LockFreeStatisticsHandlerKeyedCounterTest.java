@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.concurrent.ManagedExecutorService;
+
+/**
+ * Test class for class {@link LockFreeStatisticsHandlerKeyedCounter}.
+ *
+ * @author Philip Helger
+ */
+public final class LockFreeStatisticsHandlerKeyedCounterTest
+{
+  @Test
+  public void testAll ()
+  {
+    final LockFreeStatisticsHandlerKeyedCounter sh = new LockFreeStatisticsHandlerKeyedCounter ();
+    assertEquals (0, sh.getInvocationCount ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getCount ("key"));
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getInvocationCount ("key"));
+    sh.increment ("key");
+    assertEquals (1, sh.getInvocationCount ());
+    assertEquals (1, sh.getCount ("key"));
+    assertEquals (1, sh.getInvocationCount ("key"));
+    sh.increment ("key", 5);
+    assertEquals (2, sh.getInvocationCount ());
+    assertEquals (6, sh.getCount ("key"));
+    assertEquals (2, sh.getInvocationCount ("key"));
+    sh.increment (null, -3);
+    assertEquals (-3, sh.getCount (null));
+    assertEquals (2, sh.getAllKeys ().size ());
+  }
+
+  @Test
+  public void testConcurrent ()
+  {
+    final LockFreeStatisticsHandlerKeyedCounter sh = new LockFreeStatisticsHandlerKeyedCounter ();
+    final ExecutorService aES = Executors.newFixedThreadPool (8);
+    for (int i = 0; i < 8; ++i)
+      aES.submit ( () -> {
+        for (int j = 0; j < 10000; ++j)
+          sh.increment ("key" + (j % 4));
+      });
+    new ManagedExecutorService (aES).shutdownAndWaitUntilAllTasksAreFinished ();
+    assertEquals (80000, sh.getInvocationCount ());
+    for (int i = 0; i < 4; ++i)
+      assertEquals (20000, sh.getCount ("key" + i));
+  }
+
+  @Test
+  public void testConcurrentSnapshotAndReset ()
+  {
+    final LockFreeStatisticsHandlerKeyedCounter sh = new LockFreeStatisticsHandlerKeyedCounter ();
+    final ExecutorService aES = Executors.newFixedThreadPool (8);
+    for (int i = 0; i < 8; ++i)
+      aES.submit ( () -> {
+        for (int j = 0; j < 10000; ++j)
+          sh.increment ("key" + (j % 4));
+      });
+    // Take snapshots while the writers are running
+    long nTotal = 0;
+    int nInvocations = 0;
+    for (int i = 0; i < 100; ++i)
+    {
+      final ImmutableStatisticsHandlerKeyedCounter aSnapshot = sh.getSnapshotAndReset ();
+      nInvocations += aSnapshot.getInvocationCount ();
+      for (final String sKey : aSnapshot.getAllKeys ())
+        nTotal += aSnapshot.getCount (sKey);
+    }
+    new ManagedExecutorService (aES).shutdownAndWaitUntilAllTasksAreFinished ();
+    final ImmutableStatisticsHandlerKeyedCounter aSnapshot = sh.getSnapshotAndReset ();
+    nInvocations += aSnapshot.getInvocationCount ();
+    for (final String sKey : aSnapshot.getAllKeys ())
+      nTotal += aSnapshot.getCount (sKey);
+    // Nothing may get lost
+    assertEquals (80000, nInvocations);
+    assertEquals (80000, nTotal);
+  }
+}
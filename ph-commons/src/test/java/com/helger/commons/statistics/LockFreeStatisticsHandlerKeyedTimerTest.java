@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+
+/**
+ * Test class for class {@link LockFreeStatisticsHandlerKeyedTimer}.
+ *
+ * @author Philip Helger
+ */
+public final class LockFreeStatisticsHandlerKeyedTimerTest
+{
+  @Test
+  public void testAll ()
+  {
+    final LockFreeStatisticsHandlerKeyedTimer sh = new LockFreeStatisticsHandlerKeyedTimer ();
+    assertTrue (sh.hasPercentiles ());
+    assertEquals (0, sh.getInvocationCount ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key1"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key2"));
+
+    sh.addTime ("key1", 100);
+    assertEquals (1, sh.getInvocationCount ());
+    assertEquals (1, sh.getInvocationCount ("key1"));
+    assertEquals (100L, sh.getMin ("key1"));
+    assertEquals (100L, sh.getMax ("key1"));
+    assertEquals (100L, sh.getPercentile ("key1", 99));
+    assertEquals (BigInteger.valueOf (100L), sh.getSum ("key1"));
+    assertEquals (100L, sh.getAverage ("key1"));
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getInvocationCount ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMax ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getPercentile ("key2", 99));
+    assertNull (sh.getSum ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getAverage ("key2"));
+
+    sh.addTime ("key1", 200L);
+    assertEquals (2, sh.getInvocationCount ());
+    assertEquals (2, sh.getInvocationCount ("key1"));
+    assertEquals (100L, sh.getMin ("key1"));
+    assertEquals (200L, sh.getMax ("key1"));
+    assertEquals (BigInteger.valueOf (300L), sh.getSum ("key1"));
+    assertEquals (150L, sh.getAverage ("key1"));
+
+    sh.addTime (null, 1000);
+    assertEquals (3, sh.getInvocationCount ());
+    assertEquals (1, sh.getInvocationCount (null));
+    assertEquals (1000L, sh.getMin (null));
+    assertEquals (2, sh.getAllKeys ().size ());
+    assertTrue (sh.getAllKeys ().contains (null));
+  }
+
+  @Test
+  public void testSnapshotAndReset ()
+  {
+    final LockFreeStatisticsHandlerKeyedTimer sh = new LockFreeStatisticsHandlerKeyedTimer ();
+    sh.addTime ("key1", 100);
+    sh.addTime ("key1", 300);
+    sh.addTime (null, 5);
+
+    final IStatisticsHandlerKeyedTimer aSnapshot = sh.getSnapshotAndReset ();
+    assertEquals (0, sh.getInvocationCount ());
+    assertTrue (sh.getAllKeys ().isEmpty ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key1"));
+
+    assertTrue (aSnapshot.hasPercentiles ());
+    assertEquals (3, aSnapshot.getInvocationCount ());
+    assertEquals (2, aSnapshot.getInvocationCount ("key1"));
+    assertEquals (100L, aSnapshot.getMin ("key1"));
+    assertEquals (300L, aSnapshot.getMax ("key1"));
+    assertEquals (200L, aSnapshot.getAverage ("key1"));
+    assertEquals (300L, aSnapshot.getPercentile ("key1", 100));
+    assertEquals (5L, aSnapshot.getMin (null));
+    assertEquals (2, aSnapshot.getAllKeys ().size ());
+
+    // Handler is still usable
+    sh.addTime ("key1", 7);
+    assertEquals (1, sh.getInvocationCount ("key1"));
+    assertEquals (2, aSnapshot.getInvocationCount ("key1"));
+  }
+}
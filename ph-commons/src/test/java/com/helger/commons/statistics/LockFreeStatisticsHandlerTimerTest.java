@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+
+/**
+ * Test class for class {@link LockFreeStatisticsHandlerTimer}.
+ *
+ * @author Philip Helger
+ */
+public final class LockFreeStatisticsHandlerTimerTest
+{
+  @Test
+  public void testAll ()
+  {
+    final LockFreeStatisticsHandlerTimer sh = new LockFreeStatisticsHandlerTimer ();
+    assertTrue (sh.hasPercentiles ());
+    assertEquals (0, sh.getInvocationCount ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getMin ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getAverage ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getMax ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getPercentile (50));
+    assertEquals (BigInteger.ZERO, sh.getSum ());
+    sh.addTime (5);
+    assertEquals (1, sh.getInvocationCount ());
+    assertEquals (5, sh.getMin ());
+    assertEquals (5, sh.getAverage ());
+    assertEquals (5, sh.getMax ());
+    assertEquals (5, sh.getPercentile (50));
+    assertEquals (BigInteger.valueOf (5), sh.getSum ());
+    sh.addTime (45);
+    assertEquals (2, sh.getInvocationCount ());
+    assertEquals (5, sh.getMin ());
+    assertEquals (25, sh.getAverage ());
+    assertEquals (45, sh.getMax ());
+    assertEquals (BigInteger.valueOf (50), sh.getSum ());
+    sh.addTime (25);
+    assertEquals (3, sh.getInvocationCount ());
+    assertEquals (5, sh.getMin ());
+    assertEquals (25, sh.getAverage ());
+    assertEquals (45, sh.getMax ());
+    assertEquals (25, sh.getPercentile (50));
+    assertEquals (45, sh.getPercentile (100));
+    assertEquals (BigInteger.valueOf (75), sh.getSum ());
+  }
+
+  @Test
+  public void testPercentiles ()
+  {
+    final LockFreeStatisticsHandlerTimer sh = new LockFreeStatisticsHandlerTimer ();
+    for (int i = 1; i <= 10000; ++i)
+      sh.addTime (i);
+    assertEquals (10000, sh.getInvocationCount ());
+
+    // Relative error is at most 1/16
+    final long nP50 = sh.getPercentile (50);
+    assertTrue (Long.toString (nP50), nP50 >= 5000 && nP50 <= 5000 * 17 / 16);
+    final long nP99 = sh.getPercentile (99);
+    assertTrue (Long.toString (nP99), nP99 >= 9900 && nP99 <= 10000);
+    assertEquals (10000, sh.getPercentile (99.9));
+    assertEquals (10000, sh.getPercentile (100));
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.mutable.MutableLong;
+
+/**
+ * Test class for class {@link RollingStatisticsHandlerCache}.
+ *
+ * @author Philip Helger
+ */
+public final class RollingStatisticsHandlerCacheTest
+{
+  @Test
+  public void testAll ()
+  {
+    final MutableLong aNow = new MutableLong (1000 * CGlobal.MILLISECONDS_PER_MINUTE);
+    final RollingStatisticsHandlerCache sh = new RollingStatisticsHandlerCache (aNow::longValue);
+    sh.cacheHit ();
+    sh.cacheHit ();
+    sh.cacheMiss ();
+    assertEquals (3, sh.getInvocationCount ());
+    assertEquals (3, sh.getCount (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (2, sh.getHits (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (1, sh.getMisses (ERollingStatisticsWindow.ONE_MINUTE));
+
+    aNow.inc (16 * CGlobal.MILLISECONDS_PER_MINUTE);
+    sh.cacheMiss ();
+    assertEquals (0, sh.getHits (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+    assertEquals (1, sh.getMisses (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+    assertEquals (4, sh.getInvocationCount ());
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.mutable.MutableLong;
+
+/**
+ * Test class for class {@link RollingStatisticsHandlerTimer}.
+ *
+ * @author Philip Helger
+ */
+public final class RollingStatisticsHandlerTimerTest
+{
+  private static final long SECOND = CGlobal.MILLISECONDS_PER_SECOND;
+  private static final long MINUTE = CGlobal.MILLISECONDS_PER_MINUTE;
+
+  @Test
+  public void testEmpty ()
+  {
+    final MutableLong aNow = new MutableLong (1000 * MINUTE);
+    final RollingStatisticsHandlerTimer sh = new RollingStatisticsHandlerTimer (aNow::longValue);
+    for (final ERollingStatisticsWindow e : ERollingStatisticsWindow.values ())
+    {
+      assertEquals (0, sh.getCount (e));
+      assertEquals (0, sh.getRate (e), 0);
+      assertEquals (0, sh.getSum (e));
+      assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin (e));
+      assertEquals (CGlobal.ILLEGAL_ULONG, sh.getAverage (e));
+      assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMax (e));
+      assertEquals (CGlobal.ILLEGAL_ULONG, sh.getPercentile (e, 50));
+    }
+    assertEquals (0, sh.getInvocationCount ());
+  }
+
+  @Test
+  public void testWindows ()
+  {
+    final MutableLong aNow = new MutableLong (1000 * MINUTE);
+    final RollingStatisticsHandlerTimer sh = new RollingStatisticsHandlerTimer (aNow::longValue);
+
+    // 10 values of 100 now
+    for (int i = 0; i < 10; ++i)
+      sh.addTime (100);
+    // 10 values of 20 three minutes later
+    aNow.inc (3 * MINUTE);
+    for (int i = 0; i < 10; ++i)
+      sh.addTime (20);
+
+    assertEquals (20, sh.getInvocationCount ());
+    assertEquals (10, sh.getCount (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (20, sh.getMax (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (20, sh.getAverage (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (20, sh.getCount (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (1200, sh.getSum (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (20, sh.getMin (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (60, sh.getAverage (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (100, sh.getMax (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (20, sh.getPercentile (ERollingStatisticsWindow.FIVE_MINUTES, 50));
+    assertEquals (100, sh.getPercentile (ERollingStatisticsWindow.FIVE_MINUTES, 99));
+    assertEquals (20, sh.getCount (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+
+    // The old values leave the 5 minute window
+    aNow.inc (3 * MINUTE);
+    assertEquals (0, sh.getCount (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (10, sh.getCount (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (20, sh.getMax (ERollingStatisticsWindow.FIVE_MINUTES));
+    assertEquals (20, sh.getCount (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+
+    // Everything is outdated
+    aNow.inc (20 * MINUTE);
+    assertEquals (0, sh.getCount (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMax (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+
+    // Reuse of the ring slots
+    sh.addTime (7);
+    assertEquals (1, sh.getCount (ERollingStatisticsWindow.ONE_MINUTE));
+    assertEquals (7, sh.getMax (ERollingStatisticsWindow.FIFTEEN_MINUTES));
+    assertEquals (21, sh.getInvocationCount ());
+  }
+
+  @Test
+  public void testRate ()
+  {
+    final MutableLong aNow = new MutableLong (1000 * MINUTE);
+    final RollingStatisticsHandlerTimer sh = new RollingStatisticsHandlerTimer (aNow::longValue);
+
+    // 2 invocations per second for 10 minutes
+    for (int i = 0; i < 600; ++i)
+    {
+      sh.addTime (1);
+      sh.addTime (1);
+      aNow.inc (SECOND);
+    }
+    assertEquals (2, sh.getRate (ERollingStatisticsWindow.ONE_MINUTE), 0.01);
+    assertEquals (2, sh.getRate (ERollingStatisticsWindow.FIVE_MINUTES), 0.01);
+    // Only 10 minutes of lifetime
+    assertEquals (2, sh.getRate (ERollingStatisticsWindow.FIFTEEN_MINUTES), 0.01);
+  }
+}
@@ -17,6 +17,7 @@
 package com.helger.commons.statistics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 
 import java.math.BigInteger;
@@ -77,4 +78,23 @@ public final class StatisticsHandlerKeyedTimerTest
 
     assertEquals (2, sh.getAllKeys ().size ());
   }
+
+  @Test
+  public void testSnapshotAndReset ()
+  {
+    final StatisticsHandlerKeyedTimer sh = new StatisticsHandlerKeyedTimer ();
+    sh.addTime ("key1", 100);
+    sh.addTime ("key1", 300);
+
+    final IStatisticsHandlerKeyedTimer aSnapshot = sh.getSnapshotAndReset ();
+    assertEquals (0, sh.getInvocationCount ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getInvocationCount ("key1"));
+
+    assertFalse (aSnapshot.hasPercentiles ());
+    assertEquals (2, aSnapshot.getInvocationCount ());
+    assertEquals (2, aSnapshot.getInvocationCount ("key1"));
+    assertEquals (100L, aSnapshot.getMin ("key1"));
+    assertEquals (300L, aSnapshot.getMax ("key1"));
+    assertEquals (BigInteger.valueOf (400L), aSnapshot.getSum ("key1"));
+  }
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+
+/**
+ * Test class for class {@link StatisticsHistogram}.
+ *
+ * @author Philip Helger
+ */
+public final class StatisticsHistogramTest
+{
+  @Test
+  public void testBuckets ()
+  {
+    // Exact for small values
+    for (int i = 0; i < 2 * StatisticsHistogram.SUB_BUCKET_COUNT; ++i)
+      assertEquals (i, StatisticsHistogram.getBucketIndex (i));
+    assertEquals (0, StatisticsHistogram.getBucketIndex (-5));
+
+    // Each value is within the bounds of its bucket
+    for (final long nValue : new long [] { 31, 32, 33, 63, 64, 100, 1000, 4711, 1_000_000, Integer.MAX_VALUE, Long.MAX_VALUE })
+    {
+      final int nIndex = StatisticsHistogram.getBucketIndex (nValue);
+      assertTrue (StatisticsHistogram.getBucketLowerBound (nIndex) <= nValue);
+      assertTrue (StatisticsHistogram.getBucketUpperBound (nIndex) >= nValue);
+    }
+
+    // Buckets are contiguous
+    for (int i = 1; i < 500; ++i)
+      assertEquals (StatisticsHistogram.getBucketUpperBound (i - 1) + 1, StatisticsHistogram.getBucketLowerBound (i));
+    assertEquals (Long.MAX_VALUE,
+                  StatisticsHistogram.getBucketUpperBound (StatisticsHistogram.getBucketIndex (Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void testPercentile ()
+  {
+    final StatisticsHistogram aHisto = new StatisticsHistogram ();
+    assertEquals (0, aHisto.getTotalCount ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, aHisto.getValueAtPercentile (50));
+
+    for (int i = 0; i < 99; ++i)
+      aHisto.addValue (10);
+    aHisto.addValue (5000);
+    assertEquals (100, aHisto.getTotalCount ());
+    assertEquals (10, aHisto.getValueAtPercentile (0));
+    assertEquals (10, aHisto.getValueAtPercentile (50));
+    assertEquals (10, aHisto.getValueAtPercentile (99));
+    final long nMax = aHisto.getValueAtPercentile (100);
+    assertTrue (nMax >= 5000 && nMax <= 5000 * 17 / 16);
+  }
+}
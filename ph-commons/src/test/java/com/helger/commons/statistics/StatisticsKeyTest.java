@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.helger.commons.mock.CommonsTestHelper;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Test class for class {@link StatisticsKey}.
+ *
+ * @author Philip Helger
+ */
+public final class StatisticsKeyTest
+{
+  @Test
+  @SuppressFBWarnings (value = "NP_NONNULL_PARAM_VIOLATION")
+  public void testBasic ()
+  {
+    final StatisticsKey aKey = StatisticsKey.getInstance ("abc");
+    assertEquals ("abc", aKey.getName ());
+    assertSame (aKey, StatisticsKey.getInstance ("abc"));
+    assertNotSame (aKey, StatisticsKey.getInstance ("def"));
+    assertSame (StatisticsKey.getInstance (StatisticsKeyTest.class),
+                StatisticsKey.getInstance (StatisticsKeyTest.class.getName ()));
+
+    CommonsTestHelper.testDefaultImplementationWithDifferentContentObject (aKey, StatisticsKey.getInstance ("def"));
+
+    try
+    {
+      StatisticsKey.getInstance ((String) null);
+      fail ();
+    }
+    catch (final NullPointerException ex)
+    {}
+    try
+    {
+      StatisticsKey.getInstance ("");
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {}
+  }
+}
@@ -16,8 +16,13 @@
  */
 package com.helger.commons.statistics;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
@@ -240,4 +245,93 @@ public final class StatisticsManagerTest
     catch (final IllegalArgumentException ex)
     {}
   }
+
+  @Test
+  public void testLockFreeHandlers ()
+  {
+    assertFalse (StatisticsManager.isUseLockFreeHandlers ());
+    StatisticsManager.setUseLockFreeHandlers (true);
+    try
+    {
+      assertTrue (StatisticsManager.getTimerHandler ("lockfree-timer") instanceof LockFreeStatisticsHandlerTimer);
+      assertTrue (StatisticsManager.getKeyedSizeHandler ("lockfree-size") instanceof LockFreeStatisticsHandlerKeyedSize);
+      assertTrue (StatisticsManager.getCacheHandler ("lockfree-cache") instanceof LockFreeStatisticsHandlerCache);
+    }
+    finally
+    {
+      StatisticsManager.setUseLockFreeHandlers (StatisticsManager.DEFAULT_USE_LOCK_FREE_HANDLERS);
+    }
+    assertTrue (StatisticsManager.getTimerHandler ("lockfree-timer").hasPercentiles ());
+  }
+
+  @Test
+  public void testStatisticsKey ()
+  {
+    final StatisticsKey aKey = StatisticsKey.getInstance (StatisticsManagerTest.class.getName () + "$key");
+    final IMutableStatisticsHandlerTimer aTimer = StatisticsManager.getTimerHandler (aKey);
+    assertNotNull (aTimer);
+    assertSame (aTimer, StatisticsManager.getTimerHandler (aKey));
+    assertSame (aTimer, StatisticsManager.getTimerHandler (aKey.getName ()));
+    assertTrue (StatisticsManager.getAllTimerHandler ().contains (aKey.getName ()));
+
+    // Same name but different handler types
+    final IMutableStatisticsHandlerCounter aCounter = StatisticsManager.getCounterHandler (aKey);
+    assertSame (aCounter, StatisticsManager.getCounterHandler (aKey));
+    assertSame (aTimer, StatisticsManager.getTimerHandler (aKey));
+
+    // Resolved handlers must be dropped upon clear
+    StatisticsManager.clearCache ();
+    final IMutableStatisticsHandlerTimer aTimer2 = StatisticsManager.getTimerHandler (aKey);
+    assertNotSame (aTimer, aTimer2);
+    assertSame (aTimer2, StatisticsManager.getTimerHandler (aKey.getName ()));
+  }
+
+  @Test
+  public void testSnapshotAndReset ()
+  {
+    final String sName = StatisticsManagerTest.class.getName () + "$snapshot";
+    final IMutableStatisticsHandlerTimer aTimer = StatisticsManager.getTimerHandler (sName);
+    final IMutableStatisticsHandlerKeyedCounter aKeyedCounter = StatisticsManager.getKeyedCounterHandler (sName);
+    aTimer.addTime (10);
+    aTimer.addTime (30);
+    aKeyedCounter.increment ("a");
+    aKeyedCounter.increment ("b", 5);
+
+    StatisticsSnapshot aSnapshot = StatisticsManager.getSnapshotAndReset ();
+    assertNotNull (aSnapshot.getCreationDateTime ());
+    assertEquals (2, aSnapshot.getTimerHandler (sName).getInvocationCount ());
+    assertEquals (20, aSnapshot.getTimerHandler (sName).getAverage ());
+    assertEquals (10, aSnapshot.getTimerHandler (sName).getMin ());
+    assertEquals (30, aSnapshot.getTimerHandler (sName).getMax ());
+    assertEquals (2, aSnapshot.getKeyedCounterHandler (sName).getInvocationCount ());
+    assertEquals (5, aSnapshot.getKeyedCounterHandler (sName).getCount ("b"));
+    assertNull (aSnapshot.getTimerHandler ("does-not-exist"));
+
+    // The registered handlers were reset but are still in use
+    assertEquals (0, aTimer.getInvocationCount ());
+    assertEquals (0, aKeyedCounter.getInvocationCount ());
+    assertTrue (aKeyedCounter.getAllKeys ().isEmpty ());
+    assertSame (aTimer, StatisticsManager.getTimerHandler (sName));
+
+    aTimer.addTime (50);
+    aSnapshot = StatisticsManager.getSnapshotAndReset ();
+    assertEquals (1, aSnapshot.getTimerHandler (sName).getInvocationCount ());
+    assertEquals (50, aSnapshot.getTimerHandler (sName).getMax ());
+    assertEquals (0, aSnapshot.getKeyedCounterHandler (sName).getInvocationCount ());
+  }
+
+  @Test
+  public void testRollingHandler ()
+  {
+    final String sName = StatisticsManagerTest.class.getName () + "$rolling";
+    final IMutableRollingStatisticsHandlerTimer aTimer = StatisticsManager.getRollingTimerHandler (sName);
+    assertSame (aTimer, StatisticsManager.getRollingTimerHandler (sName));
+    assertSame (aTimer, StatisticsManager.getRollingTimerHandler (StatisticsKey.getInstance (sName)));
+    assertTrue (StatisticsManager.getAllRollingTimerHandler ().contains (sName));
+    aTimer.addTime (5);
+    assertEquals (1, aTimer.getCount (ERollingStatisticsWindow.ONE_MINUTE));
+    assertNotNull (StatisticsManager.getRollingSizeHandler (StatisticsManagerTest.class));
+    assertNotNull (StatisticsManager.getRollingCounterHandler (StatisticsManagerTest.class));
+    assertNotNull (StatisticsManager.getRollingCacheHandler (StatisticsManagerTest.class));
+  }
 }
@@ -16,8 +16,15 @@
  */
 package com.helger.commons.statistics.util;
 
+import static org.junit.Assert.assertEquals;
+
 import org.junit.Test;
 
+import com.helger.commons.mutable.MutableInt;
+import com.helger.commons.statistics.IStatisticsHandlerCounter;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.statistics.StatisticsSnapshot;
+
 /**
  * Test class for class {@link StatisticsVisitor}.
  *
@@ -32,4 +39,25 @@ public final class StatisticsVisitorTest
     StatisticsVisitor.visitStatistics (new IStatisticsVisitorCallback ()
     {});
   }
+
+  @Test
+  public void testWalkSnapshot ()
+  {
+    StatisticsManager.getCounterHandler (StatisticsVisitorTest.class).increment ();
+    final StatisticsSnapshot aSnapshot = StatisticsManager.getSnapshotAndReset ();
+    final MutableInt aCounters = new MutableInt (0);
+    StatisticsVisitor.visitStatistics (aSnapshot, new IStatisticsVisitorCallback ()
+    {
+      @Override
+      public void onCounter (final String sName, final IStatisticsHandlerCounter aHandler)
+      {
+        if (sName.equals (StatisticsVisitorTest.class.getName ()))
+        {
+          assertEquals (1, aHandler.getCount ());
+          aCounters.inc ();
+        }
+      }
+    });
+    assertEquals (1, aCounters.intValue ());
+  }
 }
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.helger.commons.collection.ext.CommonsConcurrentHashMap;
+import com.helger.commons.collection.map.ConcurrentIntObjectMap;
+import com.helger.commons.collection.map.ConcurrentLongLongMap;
+import com.helger.commons.concurrent.ManagedExecutorService;
+
+/**
+ * Compare the concurrent primitive maps with the boxed
+ * {@link CommonsConcurrentHashMap} under multi-threaded load.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkConcurrentPrimitiveMaps extends AbstractBenchmarkTask
+{
+  private static final int RUNS = 100000;
+  private static final int KEYS = 1000;
+
+  private BenchmarkConcurrentPrimitiveMaps ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+    _run ();
+  }
+
+  private static Runnable _getRunnable (final int nThreads, final Runnable aRunnable)
+  {
+    if (nThreads == 1)
+      return aRunnable;
+
+    return () -> {
+      final ExecutorService aExecSvc = Executors.newFixedThreadPool (nThreads);
+      for (int i = 0; i < nThreads; ++i)
+        aExecSvc.submit (aRunnable);
+      new ManagedExecutorService (aExecSvc).shutdownAndWaitUntilAllTasksAreFinished ();
+    };
+  }
+
+  private static void _run ()
+  {
+    for (final int nThreads : new int [] { 1, 4, 16 })
+    {
+      // Counters
+      final CommonsConcurrentHashMap <Long, Long> aBoxedCounters = new CommonsConcurrentHashMap<> ();
+      double dTime = benchmarkTask (_getRunnable (nThreads, () -> {
+        for (int i = 0; i < RUNS; ++i)
+          aBoxedCounters.merge (Long.valueOf (i % KEYS), Long.valueOf (1), Long::sum);
+      }));
+      s_aLogger.info ("Time using CommonsConcurrentHashMap<Long,Long>.merge[" + nThreads + "]: " + dTime + " ns");
+
+      final ConcurrentLongLongMap aCounters = new ConcurrentLongLongMap ();
+      dTime = benchmarkTask (_getRunnable (nThreads, () -> {
+        for (int i = 0; i < RUNS; ++i)
+          aCounters.addAndGet (i % KEYS, 1);
+      }));
+      s_aLogger.info ("Time using ConcurrentLongLongMap.addAndGet[" + nThreads + "]:           " + dTime + " ns");
+
+      // Index lookups
+      final CommonsConcurrentHashMap <Integer, String> aBoxedIndex = new CommonsConcurrentHashMap<> ();
+      dTime = benchmarkTask (_getRunnable (nThreads, () -> {
+        for (int i = 0; i < RUNS; ++i)
+          aBoxedIndex.computeIfAbsent (Integer.valueOf (i % KEYS), k -> "v");
+      }));
+      s_aLogger.info ("Time using CommonsConcurrentHashMap<Integer,String>.computeIfAbsent[" +
+                      nThreads +
+                      "]: " +
+                      dTime +
+                      " ns");
+
+      final ConcurrentIntObjectMap <String> aIndex = new ConcurrentIntObjectMap<> ();
+      dTime = benchmarkTask (_getRunnable (nThreads, () -> {
+        for (int i = 0; i < RUNS; ++i)
+          aIndex.computeIfAbsent (i % KEYS, k -> "v");
+      }));
+      s_aLogger.info ("Time using ConcurrentIntObjectMap.computeIfAbsent[" + nThreads + "]:                  " +
+                      dTime +
+                      " ns");
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.pool.ConcurrentObjectPool;
+import com.helger.commons.pool.IMutableObjectPool;
+import com.helger.commons.pool.ObjectPool;
+
+/**
+ * Compare the locking {@link ObjectPool} with the {@link ConcurrentObjectPool}
+ * under contention.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkObjectPool extends AbstractBenchmarkTask
+{
+  private static final int RUNS = 1000;
+  private static final int POOL_SIZE = 5;
+
+  private BenchmarkObjectPool ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+    _run ();
+  }
+
+  private static Runnable _getRunnable (final int nThreads, final IMutableObjectPool <StringBuilder> aPool)
+  {
+    final Runnable aRunnable = () -> {
+      for (int i = 0; i < RUNS; ++i)
+      {
+        final StringBuilder aSB = aPool.borrowObject ();
+        // Simulate a little bit of work
+        aSB.setLength (0);
+        aSB.append (i);
+        aPool.returnObject (aSB);
+      }
+    };
+    if (nThreads == 1)
+      return aRunnable;
+
+    return () -> {
+      final ExecutorService aExecSvc = Executors.newFixedThreadPool (nThreads);
+      for (int i = 0; i < nThreads; ++i)
+        aExecSvc.submit (aRunnable);
+      new ManagedExecutorService (aExecSvc).shutdownAndWaitUntilAllTasksAreFinished ();
+    };
+  }
+
+  private static void _run ()
+  {
+    for (final int nThreads : new int [] { 1, 8, 64 })
+    {
+      double dTime = benchmarkTask (_getRunnable (nThreads, new ObjectPool<> (POOL_SIZE, StringBuilder::new)));
+      s_aLogger.info ("Time using ObjectPool[" + nThreads + "]:                " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (nThreads, new ConcurrentObjectPool<> (POOL_SIZE, StringBuilder::new)));
+      s_aLogger.info ("Time using ConcurrentObjectPool[" + nThreads + "]:      " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (nThreads, new ConcurrentObjectPool<> (nThreads, StringBuilder::new)));
+      s_aLogger.info ("Time using ConcurrentObjectPool[" + nThreads + "/" + nThreads + "]: " + dTime + " ns");
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.util.Random;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsHashMap;
+import com.helger.commons.collection.ext.CommonsHashSet;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.collection.impl.IntHashSet;
+import com.helger.commons.collection.impl.LongArrayList;
+import com.helger.commons.collection.map.LongLongMap;
+import com.helger.commons.collection.map.ObjectIntMap;
+
+/**
+ * Compare the primitive collections with their boxed equivalents.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkPrimitiveCollections extends AbstractBenchmarkTask
+{
+  private static final int SIZE = 100000;
+
+  private static long [] s_aLongs;
+  private static String [] s_aWords;
+  // Prevent dead code elimination
+  private static volatile long s_nBlackhole;
+
+  private BenchmarkPrimitiveCollections ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+
+    final Random aRandom = new Random (42);
+    s_aLongs = new long [SIZE];
+    for (int i = 0; i < SIZE; ++i)
+      s_aLongs[i] = aRandom.nextLong ();
+    s_aWords = new String [SIZE];
+    for (int i = 0; i < SIZE; ++i)
+      s_aWords[i] = "word" + aRandom.nextInt (SIZE / 10);
+
+    _runLongLongMap ();
+    _runObjectIntMap ();
+    _runIntHashSet ();
+    _runLongArrayList ();
+  }
+
+  private static void _runLongLongMap ()
+  {
+    double dTime = benchmarkTask ( () -> {
+      final ICommonsMap <Long, Long> aMap = new CommonsHashMap<> ();
+      for (final long n : s_aLongs)
+        aMap.put (Long.valueOf (n), Long.valueOf (n));
+      long nSum = 0;
+      for (final long n : s_aLongs)
+        nSum += aMap.get (Long.valueOf (n)).longValue ();
+      s_nBlackhole = nSum;
+    });
+    s_aLogger.info ("Time using CommonsHashMap<Long,Long>: " + dTime + " ns");
+
+    dTime = benchmarkTask ( () -> {
+      final LongLongMap aMap = new LongLongMap ();
+      for (final long n : s_aLongs)
+        aMap.put (n, n);
+      long nSum = 0;
+      for (final long n : s_aLongs)
+        nSum += aMap.get (n);
+      s_nBlackhole = nSum;
+    });
+    s_aLogger.info ("Time using LongLongMap:               " + dTime + " ns");
+  }
+
+  private static void _runObjectIntMap ()
+  {
+    double dTime = benchmarkTask ( () -> {
+      final ICommonsMap <String, Integer> aMap = new CommonsHashMap<> ();
+      for (final String s : s_aWords)
+        aMap.merge (s, Integer.valueOf (1), (a, b) -> Integer.valueOf (a.intValue () + b.intValue ()));
+      s_nBlackhole = aMap.size ();
+    });
+    s_aLogger.info ("Time using CommonsHashMap<String,Integer> counter: " + dTime + " ns");
+
+    dTime = benchmarkTask ( () -> {
+      final ObjectIntMap <String> aMap = new ObjectIntMap<> ();
+      for (final String s : s_aWords)
+        aMap.addAndGet (s, 1);
+      s_nBlackhole = aMap.size ();
+    });
+    s_aLogger.info ("Time using ObjectIntMap<String> counter:           " + dTime + " ns");
+  }
+
+  private static void _runIntHashSet ()
+  {
+    double dTime = benchmarkTask ( () -> {
+      final ICommonsSet <Integer> aSet = new CommonsHashSet<> ();
+      for (final long n : s_aLongs)
+        aSet.add (Integer.valueOf ((int) n));
+      long nSum = 0;
+      for (final Integer n : aSet)
+        nSum += n.intValue ();
+      s_nBlackhole = nSum;
+    });
+    s_aLogger.info ("Time using CommonsHashSet<Integer>: " + dTime + " ns");
+
+    dTime = benchmarkTask ( () -> {
+      final IntHashSet aSet = new IntHashSet ();
+      for (final long n : s_aLongs)
+        aSet.add ((int) n);
+      final long [] aSum = new long [1];
+      aSet.forEach (n -> aSum[0] += n);
+      s_nBlackhole = aSum[0];
+    });
+    s_aLogger.info ("Time using IntHashSet:              " + dTime + " ns");
+  }
+
+  private static void _runLongArrayList ()
+  {
+    double dTime = benchmarkTask ( () -> {
+      final ICommonsList <Long> aList = new CommonsArrayList<> ();
+      for (final long n : s_aLongs)
+        aList.add (Long.valueOf (n));
+      long nSum = 0;
+      for (final Long n : aList)
+        nSum += n.longValue ();
+      s_nBlackhole = nSum;
+    });
+    s_aLogger.info ("Time using CommonsArrayList<Long>: " + dTime + " ns");
+
+    dTime = benchmarkTask ( () -> {
+      final LongArrayList aList = new LongArrayList ();
+      for (final long n : s_aLongs)
+        aList.add (n);
+      final long [] aSum = new long [1];
+      aList.forEach (n -> aSum[0] += n);
+      s_nBlackhole = aSum[0];
+    });
+    s_aLogger.info ("Time using LongArrayList:          " + dTime + " ns");
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.statistics.IMutableStatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
+import com.helger.commons.statistics.LockFreeStatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.LockFreeStatisticsHandlerTimer;
+import com.helger.commons.statistics.StatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.StatisticsHandlerTimer;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * Compare the lock based statistics handlers with the lock-free ones under
+ * contention.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkStatisticsHandler extends AbstractBenchmarkTask
+{
+  private static final int RUNS = 10000;
+
+  private BenchmarkStatisticsHandler ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+    _run ();
+  }
+
+  private static Runnable _getRunnable (final int nThreads, final Runnable aRunnable)
+  {
+    if (nThreads == 1)
+      return aRunnable;
+
+    return () -> {
+      final ExecutorService aExecSvc = Executors.newFixedThreadPool (nThreads);
+      for (int i = 0; i < nThreads; ++i)
+        aExecSvc.submit (aRunnable);
+      new ManagedExecutorService (aExecSvc).shutdownAndWaitUntilAllTasksAreFinished ();
+    };
+  }
+
+  private static Runnable _timer (final IMutableStatisticsHandlerTimer aHdl)
+  {
+    return () -> {
+      for (int i = 0; i < RUNS; ++i)
+        aHdl.addTime (i);
+    };
+  }
+
+  private static Runnable _keyedTimer (final IMutableStatisticsHandlerKeyedTimer aHdl)
+  {
+    return () -> {
+      for (int i = 0; i < RUNS; ++i)
+        aHdl.addTime ("key" + (i % 8), i);
+    };
+  }
+
+  private static void _run ()
+  {
+    for (int i = 1; i <= SystemHelper.getNumberOfProcessors () * 2; ++i)
+    {
+      double dTime = benchmarkTask (_getRunnable (i, _timer (new StatisticsHandlerTimer ())));
+      s_aLogger.info ("Time using locked timer[" + i + "]:          " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (i, _timer (new LockFreeStatisticsHandlerTimer ())));
+      s_aLogger.info ("Time using lock-free timer[" + i + "]:       " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (i, _keyedTimer (new StatisticsHandlerKeyedTimer ())));
+      s_aLogger.info ("Time using locked keyed timer[" + i + "]:    " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (i, _keyedTimer (new LockFreeStatisticsHandlerKeyedTimer ())));
+      s_aLogger.info ("Time using lock-free keyed timer[" + i + "]: " + dTime + " ns");
+    }
+  }
+}
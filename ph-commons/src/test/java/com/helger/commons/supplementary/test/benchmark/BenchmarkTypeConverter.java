@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.system.SystemHelper;
+import com.helger.commons.typeconvert.TypeConverter;
+
+/**
+ * Benchmark the type conversion for commonly used source and destination
+ * classes with an increasing number of threads.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkTypeConverter extends AbstractBenchmarkTask
+{
+  private static final int RUNS = 10000;
+
+  private BenchmarkTypeConverter ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+    _run ();
+  }
+
+  private static Runnable _getRunnable (final int nThreads, final Runnable aRunnable)
+  {
+    if (nThreads == 1)
+      return aRunnable;
+
+    return () -> {
+      final ExecutorService aExecSvc = Executors.newFixedThreadPool (nThreads);
+      for (int i = 0; i < nThreads; ++i)
+        aExecSvc.submit (aRunnable);
+      new ManagedExecutorService (aExecSvc).shutdownAndWaitUntilAllTasksAreFinished ();
+    };
+  }
+
+  private static Runnable _convert (final Object aSrc, final Class <?> aDstClass)
+  {
+    return () -> {
+      for (int i = 0; i < RUNS; ++i)
+        if (TypeConverter.convertIfNecessary (aSrc, aDstClass) == null)
+          throw new IllegalStateException ();
+    };
+  }
+
+  private static void _run ()
+  {
+    // Object as source class is resolved via the fuzzy converter
+    final Object aObj = new Object ();
+    for (int i = 1; i <= SystemHelper.getNumberOfProcessors () * 2; ++i)
+    {
+      double dTime = benchmarkTask (_getRunnable (i, _convert ("4711", Integer.class)));
+      s_aLogger.info ("Time String->Integer[" + i + "]:     " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (i, _convert (Integer.valueOf (4711), String.class)));
+      s_aLogger.info ("Time Integer->String[" + i + "]:     " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (i, _convert (aObj, String.class)));
+      s_aLogger.info ("Time Object->String[" + i + "]:      " + dTime + " ns");
+
+      dTime = benchmarkTask (_getRunnable (i, _convert (new BigDecimal ("4711"), Long.class)));
+      s_aLogger.info ("Time BigDecimal->Long[" + i + "]:    " + dTime + " ns");
+    }
+  }
+}
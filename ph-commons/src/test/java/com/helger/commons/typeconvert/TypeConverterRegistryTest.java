@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.typeconvert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.helger.commons.lang.GenericReflection;
+import com.helger.commons.mutable.MutableInt;
+import com.helger.commons.typeconvert.rule.TypeConverterRuleAssignableSourceFixedDestination;
+
+/**
+ * Test class for class {@link TypeConverterRegistry}.
+ *
+ * @author Philip Helger
+ */
+public final class TypeConverterRegistryTest
+{
+  @Test
+  public void testResolvedConverterCache ()
+  {
+    final TypeConverterRegistry aTCR = TypeConverterRegistry.getInstance ();
+
+    // Cache hit
+    final ITypeConverter <?, ?> aConv = aTCR.getBestMatchConverter (String.class, Integer.class);
+    assertNotNull (aConv);
+    assertSame (aConv, aTCR.getBestMatchConverter (String.class, Integer.class));
+    assertSame (aTCR.getRuleBasedConverter (String.class, Integer.class), aConv);
+    assertNotNull (aTCR.getFuzzyConverter (BigDecimal.class, Number.class));
+    assertSame (aTCR.getFuzzyConverter (BigDecimal.class, Number.class),
+                aTCR.getFuzzyConverter (BigDecimal.class, Number.class));
+    assertNull (aTCR.getBestMatchConverter (null, Integer.class));
+    assertNull (aTCR.getBestMatchConverter (String.class, null));
+
+    try
+    {
+      // Negative results are cached
+      assertNull (aTCR.getBestMatchConverter (MockImplementation.class, MockSubImplementation.class));
+      assertNull (aTCR.getBestMatchConverter (MockImplementation.class, MockSubImplementation.class));
+      assertNull (aTCR.getFuzzyConverter (MockSubImplementation.class, MockSubImplementation.class));
+      assertNull (aTCR.getRuleBasedConverter (MockImplementation.class, MockSubImplementation.class));
+
+      // Registering a converter invalidates the cache
+      aTCR.registerTypeConverter (MockImplementation.class,
+                                  MockSubImplementation.class,
+                                  aSrc -> new MockSubImplementation ());
+      assertNotNull (aTCR.getBestMatchConverter (MockImplementation.class, MockSubImplementation.class));
+      // Found via the super class
+      assertNotNull (aTCR.getFuzzyConverter (MockSubImplementation.class, MockSubImplementation.class));
+      assertNull (aTCR.getRuleBasedConverter (MockImplementation.class, MockSubImplementation.class));
+
+      // Registering a rule invalidates the cache
+      final int nRuleCount = (int) aTCR.getRegisteredTypeConverterRuleCount ();
+      aTCR.registerTypeConverterRule (new TypeConverterRuleAssignableSourceFixedDestination<> (IMockInterface.class,
+                                                                                           MockSubImplementation.class,
+                                                                                           aSrc -> new MockSubImplementation ()));
+      assertEquals (nRuleCount + 1, aTCR.getRegisteredTypeConverterRuleCount ());
+      assertNotNull (aTCR.getRuleBasedConverter (MockImplementation.class, MockSubImplementation.class));
+    }
+    finally
+    {
+      // Reinitialization invalidates the cache
+      aTCR.reinitialize ();
+    }
+    assertNull (aTCR.getBestMatchConverter (MockImplementation.class, MockSubImplementation.class));
+    assertNull (aTCR.getRuleBasedConverter (MockImplementation.class, MockSubImplementation.class));
+    assertNotNull (aTCR.getBestMatchConverter (String.class, Integer.class));
+  }
+
+  @Test
+  public void testCachedRuleWithAnyDestination ()
+  {
+    final TypeConverterRegistry aTCR = TypeConverterRegistry.getInstance ();
+
+    // The rule itself is returned
+    assertTrue (aTCR.getRuleBasedConverter (MutableInt.class, Long.class) instanceof ITypeConverterRule <?, ?>);
+
+    // The cached converter may not depend on the last resolution
+    final ITypeConverter <Object, Object> aToLong = GenericReflection.uncheckedCast (aTCR.getBestMatchConverter (MutableInt.class,
+                                                                                                                  Long.class));
+    final ITypeConverter <Object, Object> aToString = GenericReflection.uncheckedCast (aTCR.getBestMatchConverter (MutableInt.class,
+                                                                                                                    String.class));
+    assertNotNull (aToLong);
+    assertNotNull (aToString);
+    assertEquals (Long.valueOf (5), aToLong.apply (new MutableInt (5)));
+    assertEquals ("5", aToString.apply (new MutableInt (5)));
+    assertEquals (Long.valueOf (6), aToLong.apply (new MutableInt (6)));
+  }
+}
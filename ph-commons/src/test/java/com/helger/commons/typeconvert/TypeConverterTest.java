@@ -472,4 +472,91 @@ public final class TypeConverterTest extends AbstractCommonsTestCase
     assertEquals ("5", TypeConverter.convert ((short) 5, String.class));
     assertEquals ("-6", TypeConverter.convert ((short) -6, String.class));
   }
+
+  @Test
+  public void testPrimitiveFastPath ()
+  {
+    // The direct primitive conversions must deliver the same results as the
+    // registered type converters
+    final Object [] aSrcValues = new Object [] { "0",
+                                                 "1",
+                                                 "-5",
+                                                 "127",
+                                                 "128",
+                                                 "40000",
+                                                 "4294967296",
+                                                 "1.5",
+                                                 "1,5",
+                                                 "NaN",
+                                                 "",
+                                                 "a",
+                                                 "true",
+                                                 "FALSE",
+                                                 Boolean.TRUE,
+                                                 Boolean.FALSE,
+                                                 Character.valueOf ('a'),
+                                                 Character.valueOf ('\0'),
+                                                 Byte.valueOf ((byte) -3),
+                                                 Short.valueOf ((short) 300),
+                                                 Integer.valueOf (70000),
+                                                 Long.valueOf (Long.MAX_VALUE),
+                                                 Float.valueOf (0.5f),
+                                                 Double.valueOf (-17.9),
+                                                 new BigDecimal ("123.456"),
+                                                 new BigInteger ("12345678901234567890"),
+                                                 new AtomicInteger (12),
+                                                 new MutableInt (13) };
+    for (final Object aSrc : aSrcValues)
+    {
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Boolean.class, null),
+                    Boolean.valueOf (TypeConverter.convertToBoolean (aSrc, false)));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Byte.class, Byte.valueOf ((byte) 99)),
+                    Byte.valueOf (TypeConverter.convertToByte (aSrc, (byte) 99)));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Character.class, Character.valueOf ('X')),
+                    Character.valueOf (TypeConverter.convertToChar (aSrc, 'X')));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Double.class, Double.valueOf (99.5)),
+                    Double.valueOf (TypeConverter.convertToDouble (aSrc, 99.5)));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Float.class, Float.valueOf (99.5f)),
+                    Float.valueOf (TypeConverter.convertToFloat (aSrc, 99.5f)));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Integer.class, Integer.valueOf (99)),
+                    Integer.valueOf (TypeConverter.convertToInt (aSrc, 99)));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Long.class, Long.valueOf (99)),
+                    Long.valueOf (TypeConverter.convertToLong (aSrc, 99L)));
+      assertEquals (TypeConverter.convertIfNecessary (aSrc, Short.class, Short.valueOf ((short) 99)),
+                    Short.valueOf (TypeConverter.convertToShort (aSrc, (short) 99)));
+    }
+
+    assertEquals (4711, TypeConverter.convertToInt ("4711"));
+    assertEquals (-3L, TypeConverter.convertToLong ("-3"));
+    assertEquals (1.5, TypeConverter.convertToDouble ("1,5"), 0);
+    assertEquals ('b', TypeConverter.convertToChar ("b"));
+    assertTrue (TypeConverter.convertToBoolean (Integer.valueOf (2)));
+    try
+    {
+      TypeConverter.convertToInt ("abc");
+      fail ();
+    }
+    catch (final TypeConverterException ex)
+    {
+      assertEquals (EReason.CONVERSION_FAILED, ex.getReason ());
+    }
+    try
+    {
+      TypeConverter.convertToChar ("ab");
+      fail ();
+    }
+    catch (final TypeConverterException ex)
+    {
+      assertEquals (EReason.CONVERSION_FAILED, ex.getReason ());
+    }
+    try
+    {
+      TypeConverter.convertToDouble ("NaN");
+      fail ();
+    }
+    catch (final TypeConverterException ex)
+    {
+      assertEquals (EReason.CONVERSION_FAILED, ex.getReason ());
+    }
+  }
 }
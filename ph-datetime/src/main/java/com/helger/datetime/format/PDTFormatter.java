@@ -26,9 +26,11 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 
+import com.helger.commons.CGlobal;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
 import com.helger.commons.datetime.DateTimeFormatterCache;
 import com.helger.commons.hashcode.HashCodeGenerator;
 import com.helger.commons.string.StringHelper;
@@ -119,7 +121,7 @@ public final class PDTFormatter
   {
     public LocalizedDateFormatCache ()
     {
-      super (LocalizedDateFormatCache.class.getName ());
+      super (CGlobal.ILLEGAL_UINT, LocalizedDateFormatCache.class.getName (), ECacheMode.CONCURRENT_SOFT);
     }
 
     @Nonnull
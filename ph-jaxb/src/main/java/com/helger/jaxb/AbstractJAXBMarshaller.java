@@ -20,6 +20,7 @@ import java.nio.charset.Charset;
 import java.util.List;
 import java.util.function.Function;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -44,10 +45,13 @@ import com.helger.commons.annotation.OverrideOnDemand;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.concurrent.SimpleLock;
 import com.helger.commons.debug.GlobalDebug;
 import com.helger.commons.equals.EqualsHelper;
+import com.helger.commons.function.IThrowingConsumer;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.lang.IHasClassLoader;
+import com.helger.commons.pool.ConcurrentObjectPool;
 import com.helger.commons.state.EChange;
 import com.helger.commons.state.ESuccess;
 import com.helger.jaxb.builder.JAXBBuilderDefaultSettings;
@@ -73,8 +77,55 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
   @Deprecated
   public static final boolean DEFAULT_USE_CONTEXT_CACHE = JAXBBuilderDefaultSettings.DEFAULT_USE_CONTEXT_CACHE;
 
+  /**
+   * By default marshallers and unmarshallers are not pooled
+   *
+   * @since 8.6.0
+   */
+  public static final boolean DEFAULT_USE_POOLING = false;
+
+  /**
+   * The default maximum number of pooled marshallers and unmarshallers each
+   *
+   * @since 8.6.0
+   */
+  public static final int DEFAULT_POOL_SIZE = Math.max (5, 2 * Runtime.getRuntime ().availableProcessors ());
+
   private static final Logger s_aLogger = LoggerFactory.getLogger (AbstractJAXBMarshaller.class);
 
+  /**
+   * A configured marshaller or unmarshaller together with the original
+   * validation event handler of the JAXB implementation.
+   */
+  private static final class ConfiguredItem <T>
+  {
+    private final T m_aObject;
+    private final ValidationEventHandler m_aOrgEventHandler;
+
+    ConfiguredItem (@Nonnull final T aObject, @Nullable final ValidationEventHandler aOrgEventHandler)
+    {
+      m_aObject = aObject;
+      m_aOrgEventHandler = aOrgEventHandler;
+    }
+  }
+
+  /**
+   * Transports a {@link JAXBException} out of a pool factory.
+   */
+  private static final class PooledCreationException extends RuntimeException
+  {
+    PooledCreationException (@Nonnull final JAXBException ex)
+    {
+      super (ex);
+    }
+
+    @Override
+    public synchronized JAXBException getCause ()
+    {
+      return (JAXBException) super.getCause ();
+    }
+  }
+
   private final Class <JAXBTYPE> m_aType;
   private final ICommonsList <IReadableResource> m_aXSDs = new CommonsArrayList<> ();
   private final Function <JAXBTYPE, JAXBElement <JAXBTYPE>> m_aWrapper;
@@ -86,6 +137,11 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
   private String m_sIndentString;
   private boolean m_bUseContextCache = JAXBBuilderDefaultSettings.DEFAULT_USE_CONTEXT_CACHE;
   private ClassLoader m_aClassLoader;
+  private boolean m_bUsePooling = DEFAULT_USE_POOLING;
+  private int m_nPoolSize = DEFAULT_POOL_SIZE;
+  private final SimpleLock m_aPoolLock = new SimpleLock ();
+  private volatile ConcurrentObjectPool <ConfiguredItem <Unmarshaller>> m_aUnmarshallerPool;
+  private volatile ConcurrentObjectPool <ConfiguredItem <Marshaller>> m_aMarshallerPool;
 
   /**
    * Constructor without XSD paths.
@@ -143,6 +199,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
   public final void setClassLoader (@Nullable final ClassLoader aClassLoader)
   {
     m_aClassLoader = aClassLoader;
+    clearPools ();
   }
 
   @Nullable
@@ -151,6 +208,16 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     return m_aClassLoader;
   }
 
+  /**
+   * @return The class of the JAXB document implementation type. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  final Class <JAXBTYPE> getType ()
+  {
+    return m_aType;
+  }
+
   /**
    * Set another factory to be used to create {@link ValidationEventHandler}
    * objects. By default a
@@ -162,6 +229,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
   public final void setValidationEventHandlerFactory (@Nullable final IValidationEventHandlerFactory aVEHFactory)
   {
     m_aVEHFactory = aVEHFactory;
+    clearPools ();
   }
 
   /**
@@ -219,6 +287,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (EqualsHelper.equals (aNSContext, m_aNSContext))
       return EChange.UNCHANGED;
     m_aNSContext = aNSContext;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -267,6 +336,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (bWriteFormatted == m_bFormattedOutput)
       return EChange.UNCHANGED;
     m_bFormattedOutput = bWriteFormatted;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -290,6 +360,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (EqualsHelper.equals (aCharset, m_aCharset))
       return EChange.UNCHANGED;
     m_aCharset = aCharset;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -313,6 +384,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (EqualsHelper.equals (sIndentString, m_sIndentString))
       return EChange.UNCHANGED;
     m_sIndentString = sIndentString;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -330,6 +402,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (bUseContextCache == m_bUseContextCache)
       return EChange.UNCHANGED;
     m_bUseContextCache = bUseContextCache;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -338,6 +411,100 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     return m_bUseContextCache;
   }
 
+  /**
+   * @return <code>true</code> if configured marshallers and unmarshallers are
+   *         pooled and reused, <code>false</code> if a new one is created for
+   *         each read and write (default).
+   * @since 8.6.0
+   */
+  public final boolean isUsePooling ()
+  {
+    return m_bUsePooling;
+  }
+
+  /**
+   * Enable or disable pooling of marshallers and unmarshallers. When pooling
+   * is enabled, at most {@link #getPoolSize()} configured marshallers and
+   * unmarshallers each are kept and reused, so that the JAXB context lookup,
+   * the schema lookup and the setting of all properties happens only once per
+   * pooled object. A pooled object is only used by a single thread at a time
+   * and a new validation event handler is created for each use. If all pooled
+   * objects are in use, a new unpooled object is created. Note:
+   * {@link #customizeMarshaller(Marshaller)} and
+   * {@link #customizeUnmarshaller(Unmarshaller)} are only invoked once per
+   * pooled object. Usage statistics of the pools are recorded in the
+   * {@link com.helger.commons.statistics.StatisticsManager}.
+   *
+   * @param bUsePooling
+   *        <code>true</code> to enable pooling, <code>false</code> to disable
+   *        it.
+   * @return {@link EChange}
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final EChange setUsePooling (final boolean bUsePooling)
+  {
+    if (bUsePooling == m_bUsePooling)
+      return EChange.UNCHANGED;
+    m_bUsePooling = bUsePooling;
+    clearPools ();
+    return EChange.CHANGED;
+  }
+
+  /**
+   * @return The maximum number of pooled marshallers and unmarshallers each.
+   *         Always &ge; 1. Defaults to {@link #DEFAULT_POOL_SIZE}.
+   * @since 8.6.0
+   */
+  @Nonnegative
+  public final int getPoolSize ()
+  {
+    return m_nPoolSize;
+  }
+
+  /**
+   * Set the maximum number of pooled marshallers and unmarshallers each. Only
+   * relevant if pooling is enabled.
+   *
+   * @param nPoolSize
+   *        The maximum pool size. Must be &ge; 1.
+   * @return {@link EChange}
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final EChange setPoolSize (@Nonnegative final int nPoolSize)
+  {
+    ValueEnforcer.isGT0 (nPoolSize, "PoolSize");
+    if (nPoolSize == m_nPoolSize)
+      return EChange.UNCHANGED;
+    m_nPoolSize = nPoolSize;
+    m_aPoolLock.locked ( () -> {
+      if (m_aUnmarshallerPool != null)
+        m_aUnmarshallerPool.setMaxSize (nPoolSize);
+      if (m_aMarshallerPool != null)
+        m_aMarshallerPool.setMaxSize (nPoolSize);
+    });
+    return EChange.CHANGED;
+  }
+
+  /**
+   * Discard all pooled marshallers and unmarshallers, so that new ones are
+   * created with the current settings. This happens automatically when a
+   * setting of this class is changed. Call this method if a setting of a
+   * derived class that is used in
+   * {@link #customizeMarshaller(Marshaller)} or
+   * {@link #customizeUnmarshaller(Unmarshaller)} changes.
+   *
+   * @since 8.6.0
+   */
+  protected final void clearPools ()
+  {
+    m_aPoolLock.locked ( () -> {
+      m_aUnmarshallerPool = null;
+      m_aMarshallerPool = null;
+    });
+  }
+
   /**
    * @return A list of all XSD resources used for validation. Never
    *         <code>null</code>.
@@ -365,12 +532,13 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
    * @param aClassLoader
    *        The class loader to be used for XML schema resolving. May be
    *        <code>null</code>.
-   * @return The JAXB unmarshaller to use. Never <code>null</code>.
+   * @return The JAXB unmarshaller to use together with its original event
+   *         handler. Never <code>null</code>.
    * @throws JAXBException
    *         In case the creation fails.
    */
   @Nonnull
-  private Unmarshaller _createUnmarshaller (@Nullable final ClassLoader aClassLoader) throws JAXBException
+  private ConfiguredItem <Unmarshaller> _createUnmarshaller (@Nullable final ClassLoader aClassLoader) throws JAXBException
   {
     final Package aPackage = m_aType.getPackage ();
     final JAXBContext aJAXBContext = m_bUseContextCache ? JAXBContextCache.getInstance ().getFromCache (aPackage,
@@ -379,10 +547,11 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
 
     // create an Unmarshaller
     final Unmarshaller aUnmarshaller = aJAXBContext.createUnmarshaller ();
+    final ValidationEventHandler aOrgEvHdl = aUnmarshaller.getEventHandler ();
     if (m_aVEHFactory != null)
     {
       // Create and set a new event handler
-      final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aUnmarshaller.getEventHandler ());
+      final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aOrgEvHdl);
       if (aEvHdl != null)
         aUnmarshaller.setEventHandler (aEvHdl);
     }
@@ -392,7 +561,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (aValidationSchema != null)
       aUnmarshaller.setSchema (aValidationSchema);
 
-    return aUnmarshaller;
+    return new ConfiguredItem<> (aUnmarshaller, aOrgEvHdl);
   }
 
   /**
@@ -433,7 +602,25 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
 
     try
     {
-      final Unmarshaller aUnmarshaller = _createUnmarshaller (m_aClassLoader);
+      if (m_bUsePooling)
+      {
+        final ConcurrentObjectPool <ConfiguredItem <Unmarshaller>> aPool = _getUnmarshallerPool ();
+        final ConfiguredItem <Unmarshaller> aItem = aPool.borrowObject ();
+        if (aItem != null)
+        {
+          try
+          {
+            return aHandler.doUnmarshal (aItem.m_aObject, m_aType).getValue ();
+          }
+          finally
+          {
+            aPool.returnObject (aItem);
+          }
+        }
+        // All pooled unmarshallers are in use - create a new one
+      }
+
+      final Unmarshaller aUnmarshaller = _createUnmarshaller (m_aClassLoader).m_aObject;
       customizeUnmarshaller (aUnmarshaller);
       return aHandler.doUnmarshal (aUnmarshaller, m_aType).getValue ();
     }
@@ -441,17 +628,21 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     {
       handleReadException (ex);
     }
+    catch (final PooledCreationException ex)
+    {
+      handleReadException (ex.getCause ());
+    }
     return null;
   }
 
   /**
-   * @return A marshaller for converting document to XML. Never
-   *         <code>null</code>.
+   * @return A marshaller for converting document to XML together with its
+   *         original event handler. Never <code>null</code>.
    * @throws JAXBException
    *         In case of an error.
    */
   @Nonnull
-  private Marshaller _createMarshaller () throws JAXBException
+  private ConfiguredItem <Marshaller> _createMarshaller () throws JAXBException
   {
     final Package aPackage = m_aType.getPackage ();
     final JAXBContext aJAXBContext = m_bUseContextCache ? JAXBContextCache.getInstance ().getFromCache (aPackage,
@@ -460,10 +651,11 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
 
     // create an Unmarshaller
     final Marshaller aMarshaller = aJAXBContext.createMarshaller ();
+    final ValidationEventHandler aOrgEvHdl = aMarshaller.getEventHandler ();
     if (m_aVEHFactory != null)
     {
       // Create and set the event handler
-      final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aMarshaller.getEventHandler ());
+      final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aOrgEvHdl);
       if (aEvHdl != null)
         aMarshaller.setEventHandler (aEvHdl);
     }
@@ -498,7 +690,111 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     if (aValidationSchema != null)
       aMarshaller.setSchema (aValidationSchema);
 
-    return aMarshaller;
+    return new ConfiguredItem<> (aMarshaller, aOrgEvHdl);
+  }
+
+  @Nonnull
+  private String _getPoolStatisticsName (@Nonnull final String sSuffix)
+  {
+    return AbstractJAXBMarshaller.class.getName () + "$" + m_aType.getName () + "$" + sSuffix;
+  }
+
+  /**
+   * Assign a new validation event handler to a pooled object.
+   *
+   * @param aItem
+   *        The pooled item. May not be <code>null</code>.
+   * @param aSetter
+   *        The setter of the event handler on the pooled object.
+   */
+  private <T> void _resetEventHandler (@Nonnull final ConfiguredItem <T> aItem,
+                                       @Nonnull final IThrowingConsumer <ValidationEventHandler, JAXBException> aSetter)
+  {
+    if (m_aVEHFactory != null)
+      try
+      {
+        aSetter.accept (m_aVEHFactory.apply (aItem.m_aOrgEventHandler));
+      }
+      catch (final JAXBException ex)
+      {
+        throw new IllegalStateException ("Failed to reset the validation event handler", ex);
+      }
+  }
+
+  @Nonnull
+  private ConfiguredItem <Unmarshaller> _createPooledUnmarshaller ()
+  {
+    try
+    {
+      final ConfiguredItem <Unmarshaller> ret = _createUnmarshaller (m_aClassLoader);
+      customizeUnmarshaller (ret.m_aObject);
+      return ret;
+    }
+    catch (final JAXBException ex)
+    {
+      throw new PooledCreationException (ex);
+    }
+  }
+
+  @Nonnull
+  private ConfiguredItem <Marshaller> _createPooledMarshaller ()
+  {
+    try
+    {
+      final ConfiguredItem <Marshaller> ret = _createMarshaller ();
+      customizeMarshaller (ret.m_aObject);
+      return ret;
+    }
+    catch (final JAXBException ex)
+    {
+      throw new PooledCreationException (ex);
+    }
+  }
+
+  @Nonnull
+  private ConcurrentObjectPool <ConfiguredItem <Unmarshaller>> _getUnmarshallerPool ()
+  {
+    ConcurrentObjectPool <ConfiguredItem <Unmarshaller>> ret = m_aUnmarshallerPool;
+    if (ret == null)
+    {
+      ret = m_aPoolLock.locked ( () -> {
+        if (m_aUnmarshallerPool == null)
+        {
+          final ConcurrentObjectPool <ConfiguredItem <Unmarshaller>> aPool = new ConcurrentObjectPool<> (_getPoolStatisticsName ("unmarshallerpool"),
+                                                                                                        m_nPoolSize,
+                                                                                                        this::_createPooledUnmarshaller);
+          // Don't wait if all pooled objects are in use
+          aPool.setBorrowTimeoutMillis (0);
+          aPool.setResetter (x -> _resetEventHandler (x, x.m_aObject::setEventHandler));
+          m_aUnmarshallerPool = aPool;
+        }
+        return m_aUnmarshallerPool;
+      });
+    }
+    return ret;
+  }
+
+  @Nonnull
+  private ConcurrentObjectPool <ConfiguredItem <Marshaller>> _getMarshallerPool ()
+  {
+    ConcurrentObjectPool <ConfiguredItem <Marshaller>> ret = m_aMarshallerPool;
+    if (ret == null)
+    {
+      ret = m_aPoolLock.locked ( () -> {
+        if (m_aMarshallerPool == null)
+        {
+          final ConcurrentObjectPool <ConfiguredItem <Marshaller>> aPool = new ConcurrentObjectPool<> (_getPoolStatisticsName ("marshallerpool"),
+                                                                                                        m_nPoolSize,
+                                                                                                        this::_createPooledMarshaller);
+          // Don't wait if all pooled objects are in use
+          aPool.setBorrowTimeoutMillis (0);
+          aPool.setResetter (x -> _resetEventHandler (x, x.m_aObject::setEventHandler));
+          m_aMarshallerPool = aPool;
+        }
+        return m_aMarshallerPool;
+      });
+    }
+    return ret;
   }
 
   /**
@@ -531,10 +827,28 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
 
     try
     {
-      final Marshaller aMarshaller = _createMarshaller ();
-      customizeMarshaller (aMarshaller);
-
       final JAXBElement <JAXBTYPE> aJAXBElement = m_aWrapper.apply (aObject);
+      if (m_bUsePooling)
+      {
+        final ConcurrentObjectPool <ConfiguredItem <Marshaller>> aPool = _getMarshallerPool ();
+        final ConfiguredItem <Marshaller> aItem = aPool.borrowObject ();
+        if (aItem != null)
+        {
+          try
+          {
+            aMarshallerFunc.doMarshal (aItem.m_aObject, aJAXBElement);
+            return ESuccess.SUCCESS;
+          }
+          finally
+          {
+            aPool.returnObject (aItem);
+          }
+        }
+        // All pooled marshallers are in use - create a new one
+      }
+
+      final Marshaller aMarshaller = _createMarshaller ().m_aObject;
+      customizeMarshaller (aMarshaller);
       aMarshallerFunc.doMarshal (aMarshaller, aJAXBElement);
       return ESuccess.SUCCESS;
     }
@@ -542,6 +856,10 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE>
     {
       handleWriteException (ex);
     }
+    catch (final PooledCreationException ex)
+    {
+      handleWriteException (ex.getCause ());
+    }
     return ESuccess.FAILURE;
   }
 }
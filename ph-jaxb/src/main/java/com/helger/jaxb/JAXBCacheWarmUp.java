@@ -0,0 +1,386 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsLinkedHashMap;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsOrderedMap;
+import com.helger.commons.concurrent.BasicThreadFactory;
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
+import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.timing.StopWatch;
+import com.helger.jaxb.builder.IJAXBDocumentType;
+import com.helger.xml.schema.XMLSchemaCache;
+
+/**
+ * Eagerly creates JAXB contexts (in the {@link JAXBContextCache}) and compiles
+ * XML schemas (in the {@link XMLSchemaCache}) in parallel on a bounded number
+ * of threads. This avoids the latency of the lazy creation upon first usage
+ * and is meant to be called once during startup, before the application
+ * takes traffic. Each context and schema is only created once, even if it was
+ * added multiple times. The creation times are recorded in the
+ * {@link StatisticsManager}.<br>
+ * Schemas are compiled with a separate schema factory per task, outside of
+ * the {@link XMLSchemaCache} lock. Use
+ * {@link #setCompileSchemasConcurrently(boolean)} to compile them via the
+ * regular, serial {@link XMLSchemaCache} path instead.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class JAXBCacheWarmUp
+{
+  /** The default maximum number of threads to use */
+  public static final int DEFAULT_MAX_THREADS = Runtime.getRuntime ().availableProcessors ();
+  /** By default schemas are compiled concurrently */
+  public static final boolean DEFAULT_COMPILE_SCHEMAS_CONCURRENTLY = true;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (JAXBCacheWarmUp.class);
+  private static final IMutableStatisticsHandlerTimer s_aContextTimerHdl = StatisticsManager.getTimerHandler (JAXBCacheWarmUp.class.getName () +
+                                                                                                               "$context");
+  private static final IMutableStatisticsHandlerTimer s_aSchemaTimerHdl = StatisticsManager.getTimerHandler (JAXBCacheWarmUp.class.getName () +
+                                                                                                              "$schema");
+  private static final IMutableStatisticsHandlerCounter s_aErrorCounterHdl = StatisticsManager.getCounterHandler (JAXBCacheWarmUp.class.getName () +
+                                                                                                                  "$error");
+
+  /**
+   * A single context or schema to be created.
+   */
+  private static final class WarmUpTask
+  {
+    private final Runnable m_aRunnable;
+    private final IMutableStatisticsHandlerTimer m_aTimerHdl;
+
+    WarmUpTask (@Nonnull final Runnable aRunnable, @Nonnull final IMutableStatisticsHandlerTimer aTimerHdl)
+    {
+      m_aRunnable = aRunnable;
+      m_aTimerHdl = aTimerHdl;
+    }
+  }
+
+  // Task name to task
+  private final ICommonsOrderedMap <String, WarmUpTask> m_aTasks = new CommonsLinkedHashMap<> ();
+  private int m_nMaxThreads = DEFAULT_MAX_THREADS;
+  private boolean m_bCompileSchemasConcurrently = DEFAULT_COMPILE_SCHEMAS_CONCURRENTLY;
+
+  public JAXBCacheWarmUp ()
+  {}
+
+  /**
+   * @return The maximum number of threads used for warming up. Always &ge; 1.
+   */
+  @Nonnegative
+  public final int getMaxThreads ()
+  {
+    return m_nMaxThreads;
+  }
+
+  /**
+   * Set the maximum number of threads used for warming up.
+   *
+   * @param nMaxThreads
+   *        The maximum number of threads. Must be &ge; 1.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp setMaxThreads (@Nonnegative final int nMaxThreads)
+  {
+    ValueEnforcer.isGT0 (nMaxThreads, "MaxThreads");
+    m_nMaxThreads = nMaxThreads;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the added schemas are compiled
+   *         concurrently.
+   */
+  public final boolean isCompileSchemasConcurrently ()
+  {
+    return m_bCompileSchemasConcurrently;
+  }
+
+  /**
+   * Define whether the added schemas should be compiled concurrently. If
+   * enabled, each schema is compiled with its own schema factory outside of
+   * the {@link XMLSchemaCache} lock. The error handler and the resource
+   * resolver of the {@link XMLSchemaCache} must be thread safe in this case,
+   * which is true for the default ones. If disabled, the schemas are compiled
+   * one after the other.
+   *
+   * @param bCompileSchemasConcurrently
+   *        <code>true</code> to compile concurrently, <code>false</code> to
+   *        compile one after the other.
+   * @return this for chaining
+   * @see XMLSchemaCache#preloadSchema
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp setCompileSchemasConcurrently (final boolean bCompileSchemasConcurrently)
+  {
+    m_bCompileSchemasConcurrently = bCompileSchemasConcurrently;
+    return this;
+  }
+
+  /**
+   * @return The number of contexts and schemas to be created. Always &ge; 0.
+   */
+  @Nonnegative
+  public final int getTaskCount ()
+  {
+    return m_aTasks.size ();
+  }
+
+  /**
+   * Add the JAXB context of the provided package using the default class
+   * loader.
+   *
+   * @param aPackage
+   *        The package to create the context for. May not be
+   *        <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addContext (@Nonnull final Package aPackage)
+  {
+    return addContext (aPackage, (ClassLoader) null);
+  }
+
+  /**
+   * Add the JAXB context of the provided package.
+   *
+   * @param aPackage
+   *        The package to create the context for. May not be
+   *        <code>null</code>.
+   * @param aClassLoader
+   *        The class loader to use. May be <code>null</code> to use the
+   *        default class loader.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addContext (@Nonnull final Package aPackage, @Nullable final ClassLoader aClassLoader)
+  {
+    final JAXBContextCacheKey aKey = new JAXBContextCacheKey (aPackage, aClassLoader);
+    m_aTasks.computeIfAbsent ("JAXBContext " + aPackage.getName () + " with " + aKey.getClassLoader (),
+                              k -> new WarmUpTask ( () -> JAXBContextCache.getInstance ().getFromCache (aKey),
+                                                    s_aContextTimerHdl));
+    return this;
+  }
+
+  /**
+   * Add the JAXB context of the package of the provided class using the
+   * default class loader.
+   *
+   * @param aClass
+   *        A class of the package to create the context for. May not be
+   *        <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addContext (@Nonnull final Class <?> aClass)
+  {
+    ValueEnforcer.notNull (aClass, "Class");
+    return addContext (aClass.getPackage ());
+  }
+
+  /**
+   * Add an XML schema consisting of the provided resources using the default
+   * class loader.
+   *
+   * @param aXSDs
+   *        The XSD resources. May neither be <code>null</code> nor empty.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addSchema (@Nonnull @Nonempty final Collection <? extends IReadableResource> aXSDs)
+  {
+    return addSchema (aXSDs, (ClassLoader) null);
+  }
+
+  /**
+   * Add an XML schema consisting of the provided resources.
+   *
+   * @param aXSDs
+   *        The XSD resources. May neither be <code>null</code> nor empty.
+   * @param aClassLoader
+   *        The class loader to use for resolving referenced resources. May be
+   *        <code>null</code> to use the default class loader.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addSchema (@Nonnull @Nonempty final Collection <? extends IReadableResource> aXSDs,
+                                          @Nullable final ClassLoader aClassLoader)
+  {
+    ValueEnforcer.notEmptyNoNullValue (aXSDs, "XSDs");
+
+    final ICommonsList <IReadableResource> aKey = new CommonsArrayList<> (aXSDs);
+    m_aTasks.computeIfAbsent ("Schema " + aKey + " with " + aClassLoader,
+                              k -> new WarmUpTask ( () -> {
+                                final XMLSchemaCache aCache = XMLSchemaCache.getInstanceOfClassLoader (aClassLoader);
+                                if (m_bCompileSchemasConcurrently)
+                                  aCache.preloadSchema (XMLSchemaCache::createXSDSchemaFactory, aKey);
+                                else
+                                  aCache.getSchema (aKey);
+                              }, s_aSchemaTimerHdl));
+    return this;
+  }
+
+  /**
+   * Add the JAXB context (if the context cache is used) and the XML schema (if
+   * XSDs are present) of the provided marshaller.
+   *
+   * @param aMarshaller
+   *        The marshaller to warm up. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addMarshaller (@Nonnull final AbstractJAXBMarshaller <?> aMarshaller)
+  {
+    ValueEnforcer.notNull (aMarshaller, "Marshaller");
+
+    if (aMarshaller.isUseContextCache ())
+      addContext (aMarshaller.getType ().getPackage (), aMarshaller.getClassLoader ());
+
+    final ICommonsList <IReadableResource> aXSDs = aMarshaller.getOriginalXSDs ();
+    if (aXSDs.isNotEmpty ())
+      addSchema (aXSDs, aMarshaller.getClassLoader ());
+    return this;
+  }
+
+  /**
+   * Add the JAXB context and the XML schema (if XSDs are present) of the
+   * provided document type using the default class loader.
+   *
+   * @param aDocType
+   *        The document type to warm up. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final JAXBCacheWarmUp addDocumentType (@Nonnull final IJAXBDocumentType aDocType)
+  {
+    ValueEnforcer.notNull (aDocType, "DocType");
+
+    addContext (aDocType.getImplementationClass ());
+
+    final ICommonsList <String> aXSDPaths = aDocType.getAllXSDPaths ();
+    if (aXSDPaths.isNotEmpty ())
+    {
+      // Let the document type retrieve the schema, so that it is cached there
+      // as well
+      m_aTasks.computeIfAbsent ("Schema " + aXSDPaths + " of " + aDocType.getImplementationClass ().getName (),
+                                k -> new WarmUpTask ( () -> {
+                                  if (m_bCompileSchemasConcurrently)
+                                    XMLSchemaCache.getInstance ().preloadSchema (XMLSchemaCache::createXSDSchemaFactory,
+                                                                                 aDocType.getAllXSDResources ());
+                                  aDocType.getSchema ();
+                                }, s_aSchemaTimerHdl));
+    }
+    return this;
+  }
+
+  /**
+   * Create all contexts and schemas added so far in parallel and wait until
+   * all of them were created. The threads are only used during this call.
+   * Errors are logged and don't stop the creation of the remaining objects.
+   *
+   * @return {@link ESuccess#FAILURE} if at least one context or schema could
+   *         not be created.
+   */
+  @Nonnull
+  public ESuccess warmUp ()
+  {
+    if (m_aTasks.isEmpty ())
+      return ESuccess.SUCCESS;
+
+    final int nThreads = Math.min (m_nMaxThreads, m_aTasks.size ());
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads,
+                                                              new BasicThreadFactory.Builder ().setNamingPattern ("jaxb-warmup-%d")
+                                                                                               .setDaemon (true)
+                                                                                               .build ());
+    final AtomicInteger aErrorCount = new AtomicInteger (0);
+    final StopWatch aSW = StopWatch.createdStarted ();
+    try
+    {
+      for (final Map.Entry <String, WarmUpTask> aEntry : m_aTasks.entrySet ())
+      {
+        final String sName = aEntry.getKey ();
+        final WarmUpTask aTask = aEntry.getValue ();
+        aES.submit ( () -> {
+          final StopWatch aTaskSW = StopWatch.createdStarted ();
+          try
+          {
+            aTask.m_aRunnable.run ();
+
+            final long nMillis = aTaskSW.stopAndGetMillis ();
+            aTask.m_aTimerHdl.addTime (nMillis);
+            if (s_aLogger.isDebugEnabled ())
+              s_aLogger.debug ("Created " + sName + " in " + nMillis + " ms");
+          }
+          catch (final RuntimeException ex)
+          {
+            aErrorCount.incrementAndGet ();
+            s_aErrorCounterHdl.increment ();
+            s_aLogger.error ("Failed to create " + sName, ex);
+          }
+        });
+      }
+    }
+    finally
+    {
+      ManagedExecutorService.shutdownAndWaitUntilAllTasksAreFinished (aES);
+    }
+
+    s_aLogger.info ("Warmed up " +
+                    m_aTasks.size () +
+                    " JAXB contexts and XML schemas with " +
+                    nThreads +
+                    " threads in " +
+                    aSW.stopAndGetMillis () +
+                    " ms" +
+                    (aErrorCount.get () > 0 ? "; " + aErrorCount.get () + " errors" : ""));
+    return ESuccess.valueOf (aErrorCount.get () == 0);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Tasks", m_aTasks.keySet ())
+                                       .append ("MaxThreads", m_nMaxThreads)
+                                       .toString ();
+  }
+}
@@ -26,11 +26,11 @@ import javax.xml.bind.annotation.XmlSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.commons.CGlobal;
 import com.helger.commons.ValueEnforcer;
-import com.helger.commons.annotation.ELockType;
-import com.helger.commons.annotation.IsLocked;
 import com.helger.commons.annotation.Singleton;
 import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
 import com.helger.commons.debug.GlobalDebug;
 import com.helger.commons.lang.GenericReflection;
 import com.helger.commons.state.EChange;
@@ -56,7 +56,7 @@ public final class JAXBContextCache extends AbstractNotifyingCache <JAXBContextC
 
   private JAXBContextCache ()
   {
-    super (JAXBContextCache.class.getName ());
+    super (CGlobal.ILLEGAL_UINT, JAXBContextCache.class.getName (), ECacheMode.CONCURRENT_SOFT);
   }
 
   public static boolean isInstantiated ()
@@ -74,7 +74,6 @@ public final class JAXBContextCache extends AbstractNotifyingCache <JAXBContextC
 
   @Override
   @Nullable
-  @IsLocked (ELockType.WRITE)
   public JAXBContext getValueToCache (@Nullable final JAXBContextCacheKey aCacheKey)
   {
     if (aCacheKey == null)
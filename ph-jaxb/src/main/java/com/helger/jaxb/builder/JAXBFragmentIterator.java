@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.builder;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An iterator that unmarshals all occurrences of a certain element from a
+ * StAX stream, one at a time. Only the current fragment is held in memory.
+ * Fragments nested inside other fragments are part of the outer fragment. Use
+ * {@link JAXBFragmentReaderBuilder#createIterator(InputStream)} to create
+ * instances.<br>
+ * As {@link Iterator} does not allow checked exceptions, all reading errors
+ * are wrapped in an {@link IllegalStateException} with the
+ * {@link JAXBException} or {@link XMLStreamException} as the cause.
+ *
+ * @author Philip Helger
+ * @param <JAXBTYPE>
+ *        The JAXB type of the fragments
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public final class JAXBFragmentIterator <JAXBTYPE> implements Iterator <JAXBTYPE>, Closeable
+{
+  private final XMLStreamReader m_aReader;
+  private final InputStream m_aIS;
+  private final Unmarshaller m_aUnmarshaller;
+  private final QName m_aFragmentName;
+  private final Class <JAXBTYPE> m_aImplClass;
+  private JAXBTYPE m_aNext;
+  private boolean m_bEOF = false;
+  private int m_nFragmentCount = 0;
+
+  JAXBFragmentIterator (@Nonnull final XMLStreamReader aReader,
+                        @Nonnull @WillCloseWhenClosed final InputStream aIS,
+                        @Nonnull final Unmarshaller aUnmarshaller,
+                        @Nonnull final QName aFragmentName,
+                        @Nonnull final Class <JAXBTYPE> aImplClass)
+  {
+    m_aReader = ValueEnforcer.notNull (aReader, "Reader");
+    m_aIS = ValueEnforcer.notNull (aIS, "InputStream");
+    m_aUnmarshaller = ValueEnforcer.notNull (aUnmarshaller, "Unmarshaller");
+    m_aFragmentName = ValueEnforcer.notNull (aFragmentName, "FragmentName");
+    m_aImplClass = ValueEnforcer.notNull (aImplClass, "ImplClass");
+  }
+
+  /**
+   * @return The qualified name of the fragment elements. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public QName getFragmentName ()
+  {
+    return m_aFragmentName;
+  }
+
+  /**
+   * @return The number of fragments unmarshalled so far. Always &ge; 0.
+   */
+  public int getFragmentCount ()
+  {
+    return m_nFragmentCount;
+  }
+
+  @Nullable
+  private JAXBTYPE _readNext () throws XMLStreamException, JAXBException
+  {
+    while (true)
+    {
+      final int nEventType = m_aReader.getEventType ();
+      if (nEventType == XMLStreamConstants.END_DOCUMENT)
+        return null;
+
+      if (nEventType == XMLStreamConstants.START_ELEMENT && m_aFragmentName.equals (m_aReader.getName ()))
+      {
+        // Unmarshalling leaves the reader on the event after the end element
+        final JAXBTYPE ret = m_aUnmarshaller.unmarshal (m_aReader, m_aImplClass).getValue ();
+        if (ret == null)
+          throw new IllegalStateException ("Failed to read JAXB fragment of class " +
+                                           m_aImplClass.getName () +
+                                           " - without exception!");
+        m_nFragmentCount++;
+        return ret;
+      }
+
+      if (!m_aReader.hasNext ())
+        return null;
+      m_aReader.next ();
+    }
+  }
+
+  public boolean hasNext ()
+  {
+    if (m_aNext == null && !m_bEOF)
+    {
+      try
+      {
+        m_aNext = _readNext ();
+      }
+      catch (final XMLStreamException | JAXBException ex)
+      {
+        m_bEOF = true;
+        throw new IllegalStateException ("Failed to read JAXB fragment " + m_aFragmentName, ex);
+      }
+      if (m_aNext == null)
+        m_bEOF = true;
+    }
+    return m_aNext != null;
+  }
+
+  @Nonnull
+  public JAXBTYPE next ()
+  {
+    if (!hasNext ())
+      throw new NoSuchElementException ();
+    final JAXBTYPE ret = m_aNext;
+    m_aNext = null;
+    return ret;
+  }
+
+  /**
+   * Close the underlying reader and input stream. Afterwards no more fragments
+   * are returned.
+   */
+  public void close ()
+  {
+    m_bEOF = true;
+    m_aNext = null;
+    try
+    {
+      m_aReader.close ();
+    }
+    catch (final XMLStreamException ex)
+    {
+      // ignore - the stream is closed anyway
+    }
+    finally
+    {
+      StreamHelper.close (m_aIS);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("FragmentName", m_aFragmentName)
+                                       .append ("ImplClass", m_aImplClass)
+                                       .append ("EOF", m_bEOF)
+                                       .append ("FragmentCount", m_nFragmentCount)
+                                       .toString ();
+  }
+}
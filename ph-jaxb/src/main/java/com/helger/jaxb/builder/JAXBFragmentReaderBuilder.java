@@ -0,0 +1,483 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.builder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillClose;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.Schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.callback.exception.IExceptionCallback;
+import com.helger.commons.concurrent.BoundedExecutorDispatcher;
+import com.helger.commons.io.file.FileHelper;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.lang.GenericReflection;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.jaxb.validation.LoggingValidationEventHandler;
+
+/**
+ * Builder class for streaming reading of JAXB documents that consist of many
+ * repeated elements, like a batch file with many invoices. Instead of
+ * unmarshalling the whole document into one object graph, a StAX reader is
+ * positioned on each occurrence of the fragment element and only this element
+ * is unmarshalled into the provided JAXB type. Each fragment is discarded after
+ * it was consumed, so the memory usage is bounded by the largest fragment and
+ * not by the size of the document.<br>
+ * The fragments can either be pulled via a {@link JAXBFragmentIterator} or be
+ * pushed to a {@link Consumer}. Optionally the consumer is invoked on an
+ * {@link Executor} for parallel processing. The number of fragments waiting for
+ * processing is limited, so that the memory usage stays bounded in this case
+ * as well.
+ *
+ * @author Philip Helger
+ * @param <JAXBTYPE>
+ *        The JAXB implementation class of the fragments to be read
+ * @param <IMPLTYPE>
+ *        The implementation class implementing this abstract class.
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class JAXBFragmentReaderBuilder <JAXBTYPE, IMPLTYPE extends JAXBFragmentReaderBuilder <JAXBTYPE, IMPLTYPE>>
+                                       extends AbstractJAXBBuilder <IMPLTYPE>
+{
+  /**
+   * The default exception handler, that logs JAXB exceptions like
+   * {@link JAXBReaderBuilder.DefaultExceptionHandler} and all other exceptions
+   * as errors.
+   */
+  public static class DefaultExceptionHandler implements IExceptionCallback <Throwable>
+  {
+    private static final Logger s_aLogger0 = LoggerFactory.getLogger (DefaultExceptionHandler.class);
+
+    private final JAXBReaderBuilder.DefaultExceptionHandler m_aJAXBHandler = new JAXBReaderBuilder.DefaultExceptionHandler ();
+
+    public void onException (@Nonnull final Throwable t)
+    {
+      if (t instanceof JAXBException)
+        m_aJAXBHandler.onException ((JAXBException) t);
+      else
+        s_aLogger0.error ("Exception reading JAXB fragments", t);
+    }
+  }
+
+  /** Default maximum number of fragments waiting for parallel processing */
+  public static final int DEFAULT_MAX_PENDING_FRAGMENTS = 256;
+
+  private final Class <JAXBTYPE> m_aImplClass;
+  private final QName m_aFragmentName;
+  private ValidationEventHandler m_aEventHandler = JAXBBuilderDefaultSettings.getDefaultValidationEventHandler ();
+  private IExceptionCallback <Throwable> m_aExceptionHandler = new DefaultExceptionHandler ();
+  private Consumer <Unmarshaller> m_aUnmarshallerCustomizer;
+  private boolean m_bReadSecure = true;
+  private boolean m_bValidateFragments = false;
+  private Executor m_aExecutor;
+  private int m_nMaxPendingFragments = DEFAULT_MAX_PENDING_FRAGMENTS;
+
+  /**
+   * Constructor
+   *
+   * @param aDocType
+   *        The document type of the fragments. Its implementation class is used
+   *        as the JAXB type and its XSDs are used for optional validation. May
+   *        not be <code>null</code>.
+   * @param aFragmentName
+   *        The qualified name of the fragment elements. May not be
+   *        <code>null</code>.
+   */
+  public JAXBFragmentReaderBuilder (@Nonnull final IJAXBDocumentType aDocType, @Nonnull final QName aFragmentName)
+  {
+    this (aDocType, GenericReflection.uncheckedCast (aDocType.getImplementationClass ()), aFragmentName);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDocType
+   *        The document type to be used for creating the JAXB context and for
+   *        optional validation. May not be <code>null</code>.
+   * @param aImplClass
+   *        The JAXB type of the fragments. May not be <code>null</code>.
+   * @param aFragmentName
+   *        The qualified name of the fragment elements. May not be
+   *        <code>null</code>.
+   */
+  public JAXBFragmentReaderBuilder (@Nonnull final IJAXBDocumentType aDocType,
+                                    @Nonnull final Class <JAXBTYPE> aImplClass,
+                                    @Nonnull final QName aFragmentName)
+  {
+    super (aDocType);
+    m_aImplClass = ValueEnforcer.notNull (aImplClass, "ImplClass");
+    m_aFragmentName = ValueEnforcer.notNull (aFragmentName, "FragmentName");
+  }
+
+  @Nonnull
+  protected final Class <JAXBTYPE> getImplClass ()
+  {
+    return m_aImplClass;
+  }
+
+  /**
+   * @return The qualified name of the fragment elements. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public final QName getFragmentName ()
+  {
+    return m_aFragmentName;
+  }
+
+  /**
+   * @return The special JAXB validation event handler to be used. By default
+   *         {@link JAXBBuilderDefaultSettings#getDefaultValidationEventHandler()}
+   *         is used.
+   */
+  @Nullable
+  public ValidationEventHandler getValidationEventHandler ()
+  {
+    return m_aEventHandler;
+  }
+
+  /**
+   * Set the JAXB validation event handler to be used. May be <code>null</code>.
+   *
+   * @param aEventHandler
+   *        The event handler to be used. May be <code>null</code>.
+   * @return this
+   */
+  @Nonnull
+  public IMPLTYPE setValidationEventHandler (@Nullable final ValidationEventHandler aEventHandler)
+  {
+    m_aEventHandler = aEventHandler;
+    return thisAsT ();
+  }
+
+  @Nonnull
+  public IExceptionCallback <Throwable> getExceptionHandler ()
+  {
+    return m_aExceptionHandler;
+  }
+
+  @Nonnull
+  public IMPLTYPE setExceptionHandler (@Nonnull final IExceptionCallback <Throwable> aExceptionHandler)
+  {
+    m_aExceptionHandler = ValueEnforcer.notNull (aExceptionHandler, "ExceptionHandler");
+    return thisAsT ();
+  }
+
+  @Nullable
+  public Consumer <Unmarshaller> getUnmarshallerCustomizer ()
+  {
+    return m_aUnmarshallerCustomizer;
+  }
+
+  @Nonnull
+  public IMPLTYPE setUnmarshallerCustomizer (@Nullable final Consumer <Unmarshaller> aUnmarshallerCustomizer)
+  {
+    m_aUnmarshallerCustomizer = aUnmarshallerCustomizer;
+    return thisAsT ();
+  }
+
+  public final boolean isReadSecure ()
+  {
+    return m_bReadSecure;
+  }
+
+  /**
+   * @param bReadSecure
+   *        <code>true</code> to disable DTDs and external entities in the StAX
+   *        reader. Enabled by default.
+   * @return this
+   */
+  @Nonnull
+  public IMPLTYPE setReadSecure (final boolean bReadSecure)
+  {
+    m_bReadSecure = bReadSecure;
+    return thisAsT ();
+  }
+
+  public final boolean isValidateFragments ()
+  {
+    return m_bValidateFragments;
+  }
+
+  /**
+   * Enable or disable the XSD validation of each fragment with the cached
+   * schema of the document type. As each fragment is validated standalone, the
+   * fragment element must be declared as a global element in the schema.
+   * Disabled by default.
+   *
+   * @param bValidateFragments
+   *        <code>true</code> to validate each fragment, <code>false</code> to
+   *        not validate.
+   * @return this
+   */
+  @Nonnull
+  public IMPLTYPE setValidateFragments (final boolean bValidateFragments)
+  {
+    m_bValidateFragments = bValidateFragments;
+    return thisAsT ();
+  }
+
+  /**
+   * @return The executor used for parallel processing of the fragments. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public final Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * Set the executor to be used to process fragments in parallel. The
+   * unmarshalling itself always happens in the reading thread, only the
+   * consumer is invoked on the executor. If an executor is present, fragments
+   * may be consumed in a different order than they appear in the document and
+   * the consumer must be thread-safe. The reading methods return only after
+   * all fragments were processed.
+   *
+   * @param aExecutor
+   *        The executor to use. May be <code>null</code> to process all
+   *        fragments in the reading thread.
+   * @return this
+   */
+  @Nonnull
+  public IMPLTYPE setExecutor (@Nullable final Executor aExecutor)
+  {
+    m_aExecutor = aExecutor;
+    return thisAsT ();
+  }
+
+  /**
+   * @return The maximum number of fragments that were read but not yet
+   *         processed when using an executor. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxPendingFragments ()
+  {
+    return m_nMaxPendingFragments;
+  }
+
+  /**
+   * @param nMaxPendingFragments
+   *        The maximum number of fragments that were read but not yet
+   *        processed when using an executor. If this limit is reached, reading
+   *        blocks until a fragment was processed. Must be &gt; 0.
+   * @return this
+   */
+  @Nonnull
+  public IMPLTYPE setMaxPendingFragments (@Nonnegative final int nMaxPendingFragments)
+  {
+    ValueEnforcer.isGT0 (nMaxPendingFragments, "MaxPendingFragments");
+    m_nMaxPendingFragments = nMaxPendingFragments;
+    return thisAsT ();
+  }
+
+  @Nonnull
+  protected XMLInputFactory createXMLInputFactory ()
+  {
+    final XMLInputFactory aFactory = XMLInputFactory.newInstance ();
+    aFactory.setProperty (XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+    if (m_bReadSecure)
+    {
+      aFactory.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+      aFactory.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+    return aFactory;
+  }
+
+  @Nonnull
+  protected Unmarshaller createUnmarshaller () throws JAXBException
+  {
+    // create an Unmarshaller
+    final Unmarshaller aUnmarshaller = getJAXBContext ().createUnmarshaller ();
+    if (m_aEventHandler != null)
+      aUnmarshaller.setEventHandler (m_aEventHandler);
+    else
+      aUnmarshaller.setEventHandler (new LoggingValidationEventHandler (aUnmarshaller.getEventHandler ()));
+
+    // Validating each fragment (if possible)
+    if (m_bValidateFragments)
+    {
+      final Schema aSchema = getSchema ();
+      if (aSchema == null)
+        throw new IllegalStateException ("Fragment validation is enabled but the document type has no schema");
+      aUnmarshaller.setSchema (aSchema);
+    }
+
+    // Customize on demand
+    if (m_aUnmarshallerCustomizer != null)
+      m_aUnmarshallerCustomizer.accept (aUnmarshaller);
+
+    return aUnmarshaller;
+  }
+
+  /**
+   * Create an iterator over all fragments of the passed input stream. The
+   * caller is responsible for closing the iterator, which closes the input
+   * stream as well. Reading errors while iterating are thrown as
+   * {@link IllegalStateException}.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the reader could not be created. In this case
+   *         the exception handler was invoked and the input stream is already
+   *         closed.
+   */
+  @Nullable
+  public JAXBFragmentIterator <JAXBTYPE> createIterator (@Nonnull @WillClose final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    try
+    {
+      final Unmarshaller aUnmarshaller = createUnmarshaller ();
+      final XMLStreamReader aReader = createXMLInputFactory ().createXMLStreamReader (aIS);
+      return new JAXBFragmentIterator<> (aReader, aIS, aUnmarshaller, m_aFragmentName, m_aImplClass);
+    }
+    catch (final JAXBException | XMLStreamException | RuntimeException ex)
+    {
+      StreamHelper.close (aIS);
+      m_aExceptionHandler.onException (ex);
+      return null;
+    }
+  }
+
+  @Nonnull
+  public ESuccess readFragments (@Nonnull final File aFile, @Nonnull final Consumer <? super JAXBTYPE> aConsumer)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    final InputStream aIS = FileHelper.getInputStream (aFile);
+    if (aIS == null)
+    {
+      m_aExceptionHandler.onException (new IllegalArgumentException ("Failed to open file " +
+                                                                      aFile.getAbsolutePath ()));
+      return ESuccess.FAILURE;
+    }
+    return readFragments (aIS, aConsumer);
+  }
+
+  @Nonnull
+  public ESuccess readFragments (@Nonnull final IReadableResource aRes,
+                                 @Nonnull final Consumer <? super JAXBTYPE> aConsumer)
+  {
+    ValueEnforcer.notNull (aRes, "Resource");
+
+    final InputStream aIS = aRes.getInputStream ();
+    if (aIS == null)
+    {
+      m_aExceptionHandler.onException (new IllegalArgumentException ("Failed to open resource " + aRes.getPath ()));
+      return ESuccess.FAILURE;
+    }
+    return readFragments (aIS, aConsumer);
+  }
+
+  /**
+   * Read all fragments from the passed input stream.
+   *
+   * @param aIS
+   *        The input stream to read from. Closed after reading. May not be
+   *        <code>null</code>.
+   * @param aConsumer
+   *        The consumer that is invoked for each fragment. May not be
+   *        <code>null</code>. If an exception is thrown by the consumer,
+   *        reading is stopped.
+   * @return {@link ESuccess#SUCCESS} if reading and processing of all
+   *         fragments succeeded, {@link ESuccess#FAILURE} otherwise.
+   */
+  @Nonnull
+  public ESuccess readFragments (@Nonnull @WillClose final InputStream aIS,
+                                 @Nonnull final Consumer <? super JAXBTYPE> aConsumer)
+  {
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final JAXBFragmentIterator <JAXBTYPE> aIter = createIterator (aIS);
+    if (aIter == null)
+      return ESuccess.FAILURE;
+
+    final BoundedExecutorDispatcher <JAXBTYPE> aDispatcher = new BoundedExecutorDispatcher <> (m_aExecutor,
+                                                                                             m_nMaxPendingFragments,
+                                                                                             aConsumer,
+                                                                                             m_aExceptionHandler);
+    boolean bSuccess = true;
+    try
+    {
+      while (aIter.hasNext () && !aDispatcher.isFailed ())
+        aDispatcher.dispatch (aIter.next ());
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      bSuccess = false;
+      m_aExceptionHandler.onException (new IllegalStateException ("Interrupted while waiting for fragment processing",
+                                                                  ex));
+    }
+    catch (final RuntimeException ex)
+    {
+      bSuccess = false;
+      final Throwable aCause = ex.getCause ();
+      m_aExceptionHandler.onException (aCause instanceof JAXBException || aCause instanceof XMLStreamException ? aCause
+                                                                                                             : ex);
+    }
+    finally
+    {
+      aIter.close ();
+    }
+
+    // Wait until all pending fragments are processed
+    if (aDispatcher.waitForPending ().isFailure ())
+      bSuccess = false;
+    return ESuccess.valueOf (bSuccess);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("ImplClass", m_aImplClass)
+                            .append ("FragmentName", m_aFragmentName)
+                            .append ("EventHandler", m_aEventHandler)
+                            .append ("ExceptionHandler", m_aExceptionHandler)
+                            .append ("UnmarshallerCustomizer", m_aUnmarshallerCustomizer)
+                            .append ("ReadSecure", m_bReadSecure)
+                            .append ("ValidateFragments", m_bValidateFragments)
+                            .appendIfNotNull ("Executor", m_aExecutor)
+                            .append ("MaxPendingFragments", m_nMaxPendingFragments)
+                            .toString ();
+  }
+}
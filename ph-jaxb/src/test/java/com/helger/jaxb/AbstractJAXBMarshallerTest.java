@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.ValidationEventHandler;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
+import com.helger.commons.state.EChange;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.jaxb.mock.MockMarshallerInternal;
+import com.helger.jaxb.mock.internal.MockJAXBArchive;
+import com.helger.jaxb.mock.internal.MockJAXBCollection;
+import com.helger.jaxb.validation.CollectingValidationEventHandler;
+
+/**
+ * Test class for class {@link AbstractJAXBMarshaller}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractJAXBMarshallerTest
+{
+  @Test
+  public void testPooling ()
+  {
+    final MockJAXBArchive aArc = new MockJAXBArchive ();
+    aArc.setVersion ("1.25");
+    final MockJAXBCollection aCollection = new MockJAXBCollection ();
+    aCollection.setDescription ("Pooled");
+    aCollection.setID (4711);
+    aArc.getCollection ().add (aCollection);
+
+    final MockMarshallerInternal m = new MockMarshallerInternal ();
+    assertEquals (AbstractJAXBMarshaller.DEFAULT_USE_POOLING, m.isUsePooling ());
+    final String sExpected = m.getAsString (aArc);
+    assertNotNull (sExpected);
+
+    final ICommonsList <ValidationEventHandler> aOrgHandlers = new CommonsArrayList<> ();
+    final AtomicInteger aHandlerCount = new AtomicInteger (0);
+    m.setValidationEventHandlerFactory (x -> {
+      aOrgHandlers.add (x);
+      aHandlerCount.incrementAndGet ();
+      return new CollectingValidationEventHandler (x);
+    });
+    assertEquals (EChange.CHANGED, m.setUsePooling (true));
+    assertEquals (EChange.UNCHANGED, m.setUsePooling (true));
+    assertEquals (EChange.CHANGED, m.setPoolSize (2));
+
+    final String sCreateCounter = AbstractJAXBMarshaller.class.getName () +
+                                  "$" +
+                                  MockJAXBArchive.class.getName () +
+                                  "$marshallerpool$create";
+    final long nCreated = StatisticsManager.getCounterHandler (sCreateCounter).getCount ();
+    for (int i = 0; i < 10; ++i)
+    {
+      // Output is identical to the unpooled version
+      assertEquals (sExpected, m.getAsString (aArc));
+
+      // Reading works as well
+      final MockJAXBArchive aRead = m.read (sExpected);
+      assertNotNull (aRead);
+      assertEquals ("1.25", aRead.getVersion ());
+      assertEquals (4711, aRead.getCollection ().get (0).getID ());
+    }
+    // Only one marshaller was created
+    assertEquals (nCreated + 1, StatisticsManager.getCounterHandler (sCreateCounter).getCount ());
+
+    // A new event handler is created for each use, always based on the
+    // original handler
+    assertTrue (aHandlerCount.get () >= 20);
+    for (final ValidationEventHandler aOrgHandler : aOrgHandlers)
+      assertTrue (aOrgHandler == null || !(aOrgHandler instanceof CollectingValidationEventHandler));
+
+    // Changing a setting discards the pooled objects
+    assertEquals (EChange.CHANGED, m.setFormattedOutput (false));
+    final String sUnformatted = m.getAsString (aArc);
+    assertTrue (sUnformatted.length () < sExpected.length ());
+    assertEquals (nCreated + 2, StatisticsManager.getCounterHandler (sCreateCounter).getCount ());
+
+    // Without pooling
+    assertEquals (EChange.CHANGED, m.setUsePooling (false));
+    assertEquals (sUnformatted, m.getAsString (aArc));
+    assertEquals (nCreated + 2, StatisticsManager.getCounterHandler (sCreateCounter).getCount ());
+  }
+
+  @Test
+  public void testPoolingSameThread ()
+  {
+    final MockJAXBArchive aArc = new MockJAXBArchive ();
+    aArc.setVersion ("1.26");
+
+    final MockMarshallerInternal m = new MockMarshallerInternal ();
+    m.setUsePooling (true);
+    m.setPoolSize (1);
+
+    // Nested write while the only pooled marshaller is in use
+    final String [] aNested = new String [1];
+    final String sOuter = m.getAsString (aArc);
+    assertNotNull (sOuter);
+    m.write (aArc, (aMarshaller, aElement) -> {
+      aNested[0] = m.getAsString (aArc);
+      aMarshaller.marshal (aElement, new NonBlockingStringWriter ());
+    });
+    assertEquals (sOuter, aNested[0]);
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.validation.Schema;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.jaxb.mock.MockMarshallerExternal;
+import com.helger.jaxb.mock.MockMarshallerInternal;
+import com.helger.xml.schema.XMLSchemaCache;
+
+/**
+ * Test class for class {@link JAXBCacheWarmUp}.
+ *
+ * @author Philip Helger
+ */
+public final class JAXBCacheWarmUpTest
+{
+  /**
+   * A resource that can only be read once another thread reads a resource
+   * with the same barrier.
+   */
+  private static final class BarrierResource extends ClassPathResource
+  {
+    private final CyclicBarrier m_aBarrier;
+    private final AtomicBoolean m_aFirstRead = new AtomicBoolean (true);
+
+    BarrierResource (@Nonnull final String sPath, @Nonnull final CyclicBarrier aBarrier)
+    {
+      super (sPath);
+      m_aBarrier = aBarrier;
+    }
+
+    @Override
+    @Nullable
+    public InputStream getInputStream ()
+    {
+      if (m_aFirstRead.getAndSet (false))
+        try
+        {
+          m_aBarrier.await (10, TimeUnit.SECONDS);
+        }
+        catch (final InterruptedException | BrokenBarrierException | TimeoutException ex)
+        {
+          throw new IllegalStateException ("The loads did not overlap", ex);
+        }
+      return super.getInputStream ();
+    }
+  }
+
+  @Test
+  public void testWarmUp ()
+  {
+    final IReadableResource aXSD = new ClassPathResource ("xml/test-warmup.xsd");
+    final JAXBCacheWarmUp aWarmUp = new JAXBCacheWarmUp ().setMaxThreads (2);
+    aWarmUp.addMarshaller (new MockMarshallerInternal ());
+    aWarmUp.addMarshaller (new MockMarshallerExternal ());
+    // Duplicates are ignored
+    aWarmUp.addContext (com.helger.jaxb.mock.internal.MockJAXBArchive.class);
+    aWarmUp.addSchema (new CommonsArrayList<> (aXSD));
+    aWarmUp.addSchema (new CommonsArrayList<> (aXSD));
+    assertEquals (3, aWarmUp.getTaskCount ());
+
+    final long nSchemaCount = StatisticsManager.getTimerHandler (JAXBCacheWarmUp.class.getName () + "$schema")
+                                               .getInvocationCount ();
+    assertTrue (aWarmUp.warmUp ().isSuccess ());
+    assertEquals (nSchemaCount + 1,
+                  StatisticsManager.getTimerHandler (JAXBCacheWarmUp.class.getName () + "$schema")
+                                   .getInvocationCount ());
+
+    // Contexts and schemas are cached
+    assertTrue (JAXBContextCache.getInstance ().getSize () >= 2);
+
+    // Warming up again is cheap
+    assertTrue (aWarmUp.warmUp ().isSuccess ());
+  }
+
+  @Test
+  public void testCompileSchemasSerially ()
+  {
+    final IReadableResource aXSD = new ClassPathResource ("xml/test-warmup.xsd");
+    final JAXBCacheWarmUp aWarmUp = new JAXBCacheWarmUp ();
+    assertTrue (aWarmUp.isCompileSchemasConcurrently ());
+    aWarmUp.setCompileSchemasConcurrently (false);
+    assertFalse (aWarmUp.isCompileSchemasConcurrently ());
+    aWarmUp.addMarshaller (new MockMarshallerExternal ());
+    aWarmUp.addSchema (new CommonsArrayList<> (aXSD));
+    assertTrue (aWarmUp.warmUp ().isSuccess ());
+
+    // The schema is cached
+    final Schema aSchema = XMLSchemaCache.getInstance ().getSchema (aXSD);
+    assertNotNull (aSchema);
+    assertSame (aSchema, XMLSchemaCache.getInstance ().getSchema (aXSD));
+  }
+
+  @Test
+  public void testLoadsOverlap ()
+  {
+    final CyclicBarrier aBarrier = new CyclicBarrier (2);
+    final JAXBCacheWarmUp aWarmUp = new JAXBCacheWarmUp ().setMaxThreads (2);
+    aWarmUp.addSchema (new CommonsArrayList<> (new BarrierResource ("xml/test-warmup.xsd", aBarrier)));
+    aWarmUp.addSchema (new CommonsArrayList<> (new BarrierResource ("xml/test-warmup2.xsd", aBarrier)));
+    // Each compilation waits for the other one to start, so this only
+    // succeeds if both run at the same time
+    assertTrue (aWarmUp.warmUp ().isSuccess ());
+  }
+
+  @Test
+  public void testError ()
+  {
+    final JAXBCacheWarmUp aWarmUp = new JAXBCacheWarmUp ();
+    aWarmUp.addSchema (new CommonsArrayList<> (new ClassPathResource ("xml/does-not-exist.xsd")));
+    aWarmUp.addContext (com.helger.jaxb.mock.external.MockJAXBArchive.class);
+    assertTrue (aWarmUp.warmUp ().isFailure ());
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.callback.exception.CollectingExceptionCallback;
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.collection.IteratorHelper;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.jaxb.mock.internal.MockJAXBArchive;
+import com.helger.jaxb.mock.internal.MockJAXBCollection;
+
+/**
+ * Test class for class {@link JAXBFragmentReaderBuilder}.
+ *
+ * @author Philip Helger
+ */
+public final class JAXBFragmentReaderBuilderTest
+{
+  private static final int COLLECTION_COUNT = 1000;
+
+  @Nonnull
+  private static InputStream _createArchive (final int nCollections)
+  {
+    final MockJAXBArchive aArc = new MockJAXBArchive ();
+    aArc.setVersion ("1.23");
+    IteratorHelper.forEach (nCollections, i -> {
+      final MockJAXBCollection aCollection = new MockJAXBCollection ();
+      aCollection.setDescription ("Collection " + i);
+      aCollection.setID (i);
+      aArc.getCollection ().add (aCollection);
+    });
+    final String sXML = new MockInternalArchiveWriterBuilder ().getAsString (aArc);
+    assertNotNull (sXML);
+    return new NonBlockingByteArrayInputStream (sXML.getBytes (CCharset.CHARSET_UTF_8_OBJ));
+  }
+
+  @Test
+  public void testReadFragments ()
+  {
+    final ICommonsList <MockJAXBCollection> aList = new CommonsArrayList<> ();
+    final MockInternalCollectionFragmentReaderBuilder aBuilder = new MockInternalCollectionFragmentReaderBuilder ();
+    assertTrue (aBuilder.readFragments (_createArchive (COLLECTION_COUNT), aList::add).isSuccess ());
+    assertEquals (COLLECTION_COUNT, aList.size ());
+    for (int i = 0; i < COLLECTION_COUNT; ++i)
+    {
+      assertEquals (i, aList.get (i).getID ());
+      assertEquals ("Collection " + i, aList.get (i).getDescription ());
+    }
+
+    // No matching fragments
+    aList.clear ();
+    assertTrue (aBuilder.readFragments (_createArchive (0), aList::add).isSuccess ());
+    assertTrue (aList.isEmpty ());
+  }
+
+  @Test
+  public void testIterator ()
+  {
+    final MockInternalCollectionFragmentReaderBuilder aBuilder = new MockInternalCollectionFragmentReaderBuilder ();
+    try (final JAXBFragmentIterator <MockJAXBCollection> aIter = aBuilder.createIterator (_createArchive (50)))
+    {
+      assertNotNull (aIter);
+      int nExpected = 0;
+      while (aIter.hasNext ())
+      {
+        // hasNext must not skip fragments
+        assertTrue (aIter.hasNext ());
+        assertEquals (nExpected, aIter.next ().getID ());
+        nExpected++;
+      }
+      assertEquals (50, nExpected);
+      assertEquals (50, aIter.getFragmentCount ());
+      assertFalse (aIter.hasNext ());
+    }
+  }
+
+  @Test
+  public void testReadFragmentsParallel ()
+  {
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final Set <Long> aIDs = ConcurrentHashMap.newKeySet ();
+      final MockInternalCollectionFragmentReaderBuilder aBuilder = new MockInternalCollectionFragmentReaderBuilder ().setExecutor (aES)
+                                                                                                                     .setMaxPendingFragments (8);
+      assertTrue (aBuilder.readFragments (_createArchive (COLLECTION_COUNT), x -> aIDs.add (Long.valueOf (x.getID ())))
+                          .isSuccess ());
+      // All fragments must have been processed when reading returns
+      assertEquals (COLLECTION_COUNT, aIDs.size ());
+
+      // Failing consumer
+      final AtomicInteger aCount = new AtomicInteger ();
+      final CollectingExceptionCallback <Throwable> aEH = new CollectingExceptionCallback<> ();
+      aBuilder.setExceptionHandler (aEH);
+      assertTrue (aBuilder.readFragments (_createArchive (COLLECTION_COUNT), x -> {
+        if (aCount.incrementAndGet () == 10)
+          throw new IllegalStateException ("Stop");
+      }).isFailure ());
+      assertTrue (aEH.hasException ());
+    }
+    finally
+    {
+      ManagedExecutorService.shutdownAndWaitUntilAllTasksAreFinished (aES);
+    }
+  }
+
+  @Test
+  public void testMalformed ()
+  {
+    final CollectingExceptionCallback <Throwable> aEH = new CollectingExceptionCallback<> ();
+    final ICommonsList <MockJAXBCollection> aList = new CommonsArrayList<> ();
+    final MockInternalCollectionFragmentReaderBuilder aBuilder = new MockInternalCollectionFragmentReaderBuilder ().setExceptionHandler (aEH);
+    final String sXML = "<Root Version='1'><Collection ID='1'/><Collection ID='2'></Root>";
+    assertTrue (aBuilder.readFragments (new NonBlockingByteArrayInputStream (sXML.getBytes (CCharset.CHARSET_UTF_8_OBJ)),
+                                        aList::add)
+                        .isFailure ());
+    assertTrue (aEH.hasException ());
+    // The first fragment was delivered before the error
+    assertEquals (1, aList.size ());
+
+    // Validation requires a schema
+    final CollectingExceptionCallback <Throwable> aEH2 = new CollectingExceptionCallback<> ();
+    aBuilder.setExceptionHandler (aEH2).setValidateFragments (true);
+    assertNull (aBuilder.createIterator (_createArchive (1)));
+    assertTrue (aEH2.hasException ());
+  }
+}
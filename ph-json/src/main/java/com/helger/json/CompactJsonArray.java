@@ -0,0 +1,391 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Immutable and memory efficient implementation of {@link IJsonArray}. All
+ * values are stored in flat arrays and integer and double values are stored
+ * without boxing. The contained {@link IJson} values are created on access.
+ * Instances are created with a {@link Builder} or via
+ * {@link #createFrom(IJsonArray)}. All modifying methods throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@Immutable
+public final class CompactJsonArray implements IJsonArray
+{
+  private static final byte [] EMPTY_TYPES = new byte [0];
+
+  private final byte [] m_aTypes;
+  private final long [] m_aPrims;
+  private final Object [] m_aRefs;
+
+  private CompactJsonArray (@Nonnull final byte [] aTypes,
+                            @Nullable final long [] aPrims,
+                            @Nullable final Object [] aRefs)
+  {
+    m_aTypes = aTypes;
+    m_aPrims = aPrims;
+    m_aRefs = aRefs;
+  }
+
+  public boolean isArray ()
+  {
+    return true;
+  }
+
+  public boolean isObject ()
+  {
+    return false;
+  }
+
+  public boolean isValue ()
+  {
+    return false;
+  }
+
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aTypes.length;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_aTypes.length == 0;
+  }
+
+  @Nonnull
+  private IJson _get (final int nIndex)
+  {
+    final byte nType = m_aTypes[nIndex];
+    return CompactJsonValues.getJson (nType,
+                                      m_aPrims == null ? 0 : m_aPrims[nIndex],
+                                      m_aRefs == null ? null : m_aRefs[nIndex]);
+  }
+
+  @Nonnull
+  public Iterator <IJson> iterator ()
+  {
+    return new Iterator <IJson> ()
+    {
+      private int m_nIndex = 0;
+
+      public boolean hasNext ()
+      {
+        return m_nIndex < m_aTypes.length;
+      }
+
+      public IJson next ()
+      {
+        if (!hasNext ())
+          throw new NoSuchElementException ();
+        return _get (m_nIndex++);
+      }
+    };
+  }
+
+  @Nonnull
+  public CompactJsonArray add (@Nonnull final IJson aValue)
+  {
+    throw new UnsupportedOperationException ("CompactJsonArray is immutable");
+  }
+
+  @Nonnull
+  public CompactJsonArray add (@Nonnegative final int nIndex, @Nonnull final IJson aValue)
+  {
+    throw new UnsupportedOperationException ("CompactJsonArray is immutable");
+  }
+
+  @Nonnull
+  public IJson removeAndReturnAtIndex (@Nonnegative final int nIndex)
+  {
+    throw new UnsupportedOperationException ("CompactJsonArray is immutable");
+  }
+
+  @Nonnull
+  public EChange removeAtIndex (@Nonnegative final int nIndex)
+  {
+    throw new UnsupportedOperationException ("CompactJsonArray is immutable");
+  }
+
+  @Nullable
+  public IJson get (@Nonnegative final int nIndex)
+  {
+    if (nIndex < 0 || nIndex >= m_aTypes.length)
+      return null;
+    return _get (nIndex);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public JsonArray getSubArray (@Nonnegative final int nStartIndex, @Nonnegative final int nEndIndex)
+  {
+    ValueEnforcer.isGE0 (nStartIndex, "StartIndex");
+    ValueEnforcer.isBetweenInclusive (nEndIndex, "EndIndex", nStartIndex, m_aTypes.length);
+
+    final JsonArray ret = new JsonArray (nEndIndex - nStartIndex);
+    for (int i = nStartIndex; i < nEndIndex; ++i)
+      ret.add (_get (i));
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IJson> getAll ()
+  {
+    final ICommonsList <IJson> ret = new CommonsArrayList <> (m_aTypes.length);
+    for (int i = 0; i < m_aTypes.length; ++i)
+      ret.add (_get (i));
+    return ret;
+  }
+
+  public void forEach (@Nonnull final Consumer <? super IJson> aConsumer)
+  {
+    for (int i = 0; i < m_aTypes.length; ++i)
+      aConsumer.accept (_get (i));
+  }
+
+  public void forEach (@Nonnull final ObjIntConsumer <? super IJson> aConsumer)
+  {
+    for (int i = 0; i < m_aTypes.length; ++i)
+      aConsumer.accept (_get (i), i);
+  }
+
+  public boolean contains (@Nullable final IJson aValue)
+  {
+    if (aValue != null)
+      for (int i = 0; i < m_aTypes.length; ++i)
+        if (_get (i).equals (aValue))
+          return true;
+    return false;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IJson> getClonedValues ()
+  {
+    final ICommonsList <IJson> ret = new CommonsArrayList <> (m_aTypes.length);
+    for (int i = 0; i < m_aTypes.length; ++i)
+      ret.add (_get (i).getClone ());
+    return ret;
+  }
+
+  /**
+   * @return A new object sharing the same immutable content.
+   */
+  @Nonnull
+  public CompactJsonArray getClone ()
+  {
+    return new CompactJsonArray (m_aTypes, m_aPrims, m_aRefs);
+  }
+
+  private boolean _contentEquals (@Nonnull final IJsonArray aOther)
+  {
+    if (m_aTypes.length != aOther.getSize ())
+      return false;
+    for (int i = 0; i < m_aTypes.length; ++i)
+      if (!_get (i).equals (aOther.get (i)))
+        return false;
+    return true;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    // Content based, so that it is equal to a JsonArray with the same content
+    if (!(o instanceof IJsonArray))
+      return false;
+    if (!(o instanceof CompactJsonArray))
+      return _contentEquals ((IJsonArray) o);
+    final CompactJsonArray rhs = (CompactJsonArray) o;
+    if (!Arrays.equals (m_aTypes, rhs.m_aTypes))
+      return false;
+    for (int i = 0; i < m_aTypes.length; ++i)
+    {
+      final byte nType = m_aTypes[i];
+      if (CompactJsonValues.isPrim (nType))
+      {
+        if (m_aPrims[i] != rhs.m_aPrims[i])
+          return false;
+      }
+      else
+        if (CompactJsonValues.isRef (nType))
+        {
+          if (!m_aRefs[i].equals (rhs.m_aRefs[i]))
+            return false;
+        }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    // The same as for JsonArray with the same content
+    int ret = 1;
+    for (int i = 0; i < m_aTypes.length; ++i)
+      ret = ret * 31 + _get (i).hashCode ();
+    return new HashCodeGenerator (IJsonArray.class).append (ret).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("json", getAsJsonString ()).toString ();
+  }
+
+  /**
+   * Create a compact copy of the passed JSON array. Nested arrays and objects
+   * are converted as well.
+   *
+   * @param aArray
+   *        The array to copy. May not be <code>null</code>.
+   * @return The passed array if it is already compact.
+   */
+  @Nonnull
+  public static CompactJsonArray createFrom (@Nonnull final IJsonArray aArray)
+  {
+    ValueEnforcer.notNull (aArray, "Array");
+    if (aArray instanceof CompactJsonArray)
+      return (CompactJsonArray) aArray;
+
+    final Builder aBuilder = new Builder (aArray.getSize ());
+    for (final IJson aValue : aArray)
+      aBuilder.add (aValue);
+    return aBuilder.build ();
+  }
+
+  /**
+   * Builder for {@link CompactJsonArray} objects.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public static final class Builder extends CompactJsonValues.Builder
+  {
+    public Builder ()
+    {
+      this (8);
+    }
+
+    public Builder (@Nonnegative final int nInitialCapacity)
+    {
+      super (nInitialCapacity);
+    }
+
+    @Nonnegative
+    public int getSize ()
+    {
+      return m_nSize;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final IJson aValue)
+    {
+      addJson (aValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sValue)
+    {
+      addString (sValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final Number aValue)
+    {
+      addNumber (aValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (final int nValue)
+    {
+      addPrim (CompactJsonValues.TYPE_INT, nValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (final long nValue)
+    {
+      addPrim (CompactJsonValues.TYPE_LONG, nValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (final double dValue)
+    {
+      addPrim (CompactJsonValues.TYPE_DOUBLE, Double.doubleToLongBits (dValue));
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (final boolean bValue)
+    {
+      addBoolean (bValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder addNull ()
+    {
+      addType (CompactJsonValues.TYPE_NULL);
+      return this;
+    }
+
+    /**
+     * @return A new immutable array with all values added so far. Never
+     *         <code>null</code>.
+     */
+    @Nonnull
+    public CompactJsonArray build ()
+    {
+      if (m_nSize == 0)
+        return new CompactJsonArray (EMPTY_TYPES, null, null);
+      return new CompactJsonArray (Arrays.copyOf (m_aTypes, m_nSize),
+                                   m_bHasPrims ? Arrays.copyOf (m_aPrims, m_nSize) : null,
+                                   m_bHasRefs ? Arrays.copyOf (m_aRefs, m_nSize) : null);
+    }
+  }
+}
@@ -0,0 +1,517 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsLinkedHashMap;
+import com.helger.commons.collection.ext.CommonsLinkedHashSet;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsOrderedMap;
+import com.helger.commons.collection.ext.ICommonsOrderedSet;
+import com.helger.commons.collection.impl.MapEntry;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Immutable and memory efficient implementation of {@link IJsonObject}. Keys
+ * and values are stored in flat arrays, integer and double values are stored
+ * without boxing and all keys are interned so that equal keys of different
+ * objects share the same instance. Small objects are searched linearly, larger
+ * objects use an open addressing index. The contained {@link IJson} values are
+ * created on access. Instances are created with a {@link Builder} or via
+ * {@link #createFrom(IJsonObject)}. All modifying methods throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@Immutable
+public final class CompactJsonObject implements IJsonObject
+{
+  /** Up to this number of keys a linear search is used */
+  public static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+  private static final String [] EMPTY_KEYS = new String [0];
+  private static final byte [] EMPTY_TYPES = new byte [0];
+
+  private final String [] m_aKeys;
+  private final byte [] m_aTypes;
+  private final long [] m_aPrims;
+  private final Object [] m_aRefs;
+  // Index + 1 of the key in each slot; 0 means free slot
+  private final int [] m_aIndex;
+
+  private CompactJsonObject (@Nonnull final String [] aKeys,
+                             @Nonnull final byte [] aTypes,
+                             @Nullable final long [] aPrims,
+                             @Nullable final Object [] aRefs,
+                             @Nullable final int [] aIndex)
+  {
+    m_aKeys = aKeys;
+    m_aTypes = aTypes;
+    m_aPrims = aPrims;
+    m_aRefs = aRefs;
+    m_aIndex = aIndex;
+  }
+
+  private static int _hash (@Nonnull final String sKey)
+  {
+    final int h = sKey.hashCode ();
+    return h ^ (h >>> 16);
+  }
+
+  private static int _indexOf (@Nonnull final String [] aKeys,
+                               @Nullable final int [] aIndex,
+                               @Nonnegative final int nSize,
+                               @Nonnull final String sKey)
+  {
+    if (aIndex == null)
+    {
+      for (int i = 0; i < nSize; ++i)
+        if (aKeys[i].equals (sKey))
+          return i;
+      return -1;
+    }
+
+    final int nMask = aIndex.length - 1;
+    int nSlot = _hash (sKey) & nMask;
+    while (true)
+    {
+      final int nEntry = aIndex[nSlot];
+      if (nEntry == 0)
+        return -1;
+      if (aKeys[nEntry - 1].equals (sKey))
+        return nEntry - 1;
+      nSlot = (nSlot + 1) & nMask;
+    }
+  }
+
+  private int _indexOf (@Nullable final String sName)
+  {
+    if (sName == null)
+      return -1;
+    return _indexOf (m_aKeys, m_aIndex, m_aKeys.length, sName);
+  }
+
+  public boolean isArray ()
+  {
+    return false;
+  }
+
+  public boolean isObject ()
+  {
+    return true;
+  }
+
+  public boolean isValue ()
+  {
+    return false;
+  }
+
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aKeys.length;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_aKeys.length == 0;
+  }
+
+  @Nonnull
+  private IJson _get (final int nIndex)
+  {
+    return CompactJsonValues.getJson (m_aTypes[nIndex],
+                                      m_aPrims == null ? 0 : m_aPrims[nIndex],
+                                      m_aRefs == null ? null : m_aRefs[nIndex]);
+  }
+
+  @Nonnull
+  public Iterator <Map.Entry <String, IJson>> iterator ()
+  {
+    return new Iterator <Map.Entry <String, IJson>> ()
+    {
+      private int m_nIndex = 0;
+
+      public boolean hasNext ()
+      {
+        return m_nIndex < m_aKeys.length;
+      }
+
+      public Map.Entry <String, IJson> next ()
+      {
+        if (!hasNext ())
+          throw new NoSuchElementException ();
+        final int nIndex = m_nIndex++;
+        return new MapEntry <> (m_aKeys[nIndex], _get (nIndex));
+      }
+    };
+  }
+
+  @Nonnull
+  public CompactJsonObject add (@Nonnull final String sName, @Nonnull final IJson aValue)
+  {
+    throw new UnsupportedOperationException ("CompactJsonObject is immutable");
+  }
+
+  @Nullable
+  public IJson removeKeyAndReturnValue (@Nullable final String sName)
+  {
+    throw new UnsupportedOperationException ("CompactJsonObject is immutable");
+  }
+
+  @Nonnull
+  public EChange removeKey (@Nullable final String sName)
+  {
+    throw new UnsupportedOperationException ("CompactJsonObject is immutable");
+  }
+
+  public boolean containsKey (@Nullable final String sName)
+  {
+    return _indexOf (sName) >= 0;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedSet <String> keySet ()
+  {
+    return new CommonsLinkedHashSet <> (m_aKeys);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IJson> values ()
+  {
+    final ICommonsList <IJson> ret = new CommonsArrayList <> (m_aKeys.length);
+    for (int i = 0; i < m_aKeys.length; ++i)
+      ret.add (_get (i));
+    return ret;
+  }
+
+  @Nullable
+  public IJson get (@Nullable final String sName)
+  {
+    final int nIndex = _indexOf (sName);
+    return nIndex < 0 ? null : _get (nIndex);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, IJson> getAll ()
+  {
+    final ICommonsOrderedMap <String, IJson> ret = new CommonsLinkedHashMap <> (m_aKeys.length);
+    for (int i = 0; i < m_aKeys.length; ++i)
+      ret.put (m_aKeys[i], _get (i));
+    return ret;
+  }
+
+  public void forEach (@Nonnull final BiConsumer <String, IJson> aConsumer)
+  {
+    for (int i = 0; i < m_aKeys.length; ++i)
+      aConsumer.accept (m_aKeys[i], _get (i));
+  }
+
+  public boolean containsValue (@Nullable final IJson aValue)
+  {
+    if (aValue != null)
+      for (int i = 0; i < m_aKeys.length; ++i)
+        if (_get (i).equals (aValue))
+          return true;
+    return false;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, IJson> getClonedValues ()
+  {
+    final ICommonsOrderedMap <String, IJson> ret = new CommonsLinkedHashMap <> (m_aKeys.length);
+    for (int i = 0; i < m_aKeys.length; ++i)
+      ret.put (m_aKeys[i], _get (i).getClone ());
+    return ret;
+  }
+
+  /**
+   * @return A new object sharing the same immutable content.
+   */
+  @Nonnull
+  public CompactJsonObject getClone ()
+  {
+    return new CompactJsonObject (m_aKeys, m_aTypes, m_aPrims, m_aRefs, m_aIndex);
+  }
+
+  private boolean _entryEquals (final int nIndex, @Nonnull final CompactJsonObject aOther, final int nOtherIndex)
+  {
+    final byte nType = m_aTypes[nIndex];
+    if (nType != aOther.m_aTypes[nOtherIndex])
+      return false;
+    if (CompactJsonValues.isPrim (nType))
+      return m_aPrims[nIndex] == aOther.m_aPrims[nOtherIndex];
+    if (CompactJsonValues.isRef (nType))
+      return m_aRefs[nIndex].equals (aOther.m_aRefs[nOtherIndex]);
+    return true;
+  }
+
+  private boolean _contentEquals (@Nonnull final IJsonObject aOther)
+  {
+    if (m_aKeys.length != aOther.getSize ())
+      return false;
+    for (int i = 0; i < m_aKeys.length; ++i)
+    {
+      final IJson aOtherValue = aOther.get (m_aKeys[i]);
+      if (aOtherValue == null || !_get (i).equals (aOtherValue))
+        return false;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    // Content based, so that it is equal to a JsonObject with the same content
+    if (!(o instanceof IJsonObject))
+      return false;
+    if (!(o instanceof CompactJsonObject))
+      return _contentEquals ((IJsonObject) o);
+    final CompactJsonObject rhs = (CompactJsonObject) o;
+    if (m_aKeys.length != rhs.m_aKeys.length)
+      return false;
+    // Same semantics as Map.equals - the order is irrelevant
+    for (int i = 0; i < m_aKeys.length; ++i)
+    {
+      final int nOtherIndex = rhs._indexOf (m_aKeys[i]);
+      if (nOtherIndex < 0 || !_entryEquals (i, rhs, nOtherIndex))
+        return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    // Order independent and the same as for JsonObject with the same content
+    int ret = 0;
+    for (int i = 0; i < m_aKeys.length; ++i)
+      ret += m_aKeys[i].hashCode () ^ _get (i).hashCode ();
+    return new HashCodeGenerator (IJsonObject.class).append (ret).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("json", getAsJsonString ()).toString ();
+  }
+
+  /**
+   * Create a compact copy of the passed JSON object. Nested arrays and objects
+   * are converted as well.
+   *
+   * @param aObject
+   *        The object to copy. May not be <code>null</code>.
+   * @return The passed object if it is already compact.
+   */
+  @Nonnull
+  public static CompactJsonObject createFrom (@Nonnull final IJsonObject aObject)
+  {
+    ValueEnforcer.notNull (aObject, "Object");
+    if (aObject instanceof CompactJsonObject)
+      return (CompactJsonObject) aObject;
+
+    final Builder aBuilder = new Builder (aObject.getSize ());
+    for (final Map.Entry <String, IJson> aEntry : aObject)
+      aBuilder.add (aEntry.getKey (), aEntry.getValue ());
+    return aBuilder.build ();
+  }
+
+  /**
+   * Builder for {@link CompactJsonObject} objects. If a key is added more than
+   * once, the last value is used but the position of the first occurrence is
+   * retained - the same as for {@link JsonObject}.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public static final class Builder extends CompactJsonValues.Builder
+  {
+    private String [] m_aKeys;
+
+    public Builder ()
+    {
+      this (8);
+    }
+
+    public Builder (@Nonnegative final int nInitialCapacity)
+    {
+      super (nInitialCapacity);
+      m_aKeys = new String [nInitialCapacity];
+    }
+
+    @Nonnegative
+    public int getSize ()
+    {
+      return m_nSize;
+    }
+
+    private void _addKey (@Nonnull final String sName)
+    {
+      ValueEnforcer.notNull (sName, "Name");
+      if (m_nSize == m_aKeys.length)
+        m_aKeys = Arrays.copyOf (m_aKeys, Math.max (4, m_nSize * 2));
+      m_aKeys[m_nSize] = sName.intern ();
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, @Nonnull final IJson aValue)
+    {
+      _addKey (sName);
+      addJson (aValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, @Nonnull final String sValue)
+    {
+      _addKey (sName);
+      addString (sValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, @Nonnull final Number aValue)
+    {
+      _addKey (sName);
+      addNumber (aValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, final int nValue)
+    {
+      _addKey (sName);
+      addPrim (CompactJsonValues.TYPE_INT, nValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, final long nValue)
+    {
+      _addKey (sName);
+      addPrim (CompactJsonValues.TYPE_LONG, nValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, final double dValue)
+    {
+      _addKey (sName);
+      addPrim (CompactJsonValues.TYPE_DOUBLE, Double.doubleToLongBits (dValue));
+      return this;
+    }
+
+    @Nonnull
+    public Builder add (@Nonnull final String sName, final boolean bValue)
+    {
+      _addKey (sName);
+      addBoolean (bValue);
+      return this;
+    }
+
+    @Nonnull
+    public Builder addNull (@Nonnull final String sName)
+    {
+      _addKey (sName);
+      addType (CompactJsonValues.TYPE_NULL);
+      return this;
+    }
+
+    /**
+     * @return A new immutable object with all values added so far. Never
+     *         <code>null</code>.
+     */
+    @Nonnull
+    public CompactJsonObject build ()
+    {
+      final int nCount = m_nSize;
+      if (nCount == 0)
+        return new CompactJsonObject (EMPTY_KEYS, EMPTY_TYPES, null, null, null);
+
+      final String [] aKeys = new String [nCount];
+      final byte [] aTypes = new byte [nCount];
+      final long [] aPrims = m_bHasPrims ? new long [nCount] : null;
+      final Object [] aRefs = m_bHasRefs ? new Object [nCount] : null;
+      int [] aIndex = null;
+      if (nCount > LINEAR_SEARCH_THRESHOLD)
+      {
+        // Load factor of at most 0.5
+        aIndex = new int [Integer.highestOneBit (nCount - 1) << 2];
+      }
+
+      int nSize = 0;
+      for (int i = 0; i < nCount; ++i)
+      {
+        final String sKey = m_aKeys[i];
+        int nTarget = _indexOf (aKeys, aIndex, nSize, sKey);
+        if (nTarget < 0)
+        {
+          nTarget = nSize++;
+          aKeys[nTarget] = sKey;
+          if (aIndex != null)
+          {
+            final int nMask = aIndex.length - 1;
+            int nSlot = _hash (sKey) & nMask;
+            while (aIndex[nSlot] != 0)
+              nSlot = (nSlot + 1) & nMask;
+            aIndex[nSlot] = nTarget + 1;
+          }
+        }
+        aTypes[nTarget] = m_aTypes[i];
+        if (aPrims != null)
+          aPrims[nTarget] = m_aPrims[i];
+        if (aRefs != null)
+          aRefs[nTarget] = m_aRefs[i];
+      }
+
+      if (nSize < nCount)
+      {
+        // Duplicate keys were found
+        return new CompactJsonObject (Arrays.copyOf (aKeys, nSize),
+                                      Arrays.copyOf (aTypes, nSize),
+                                      aPrims == null ? null : Arrays.copyOf (aPrims, nSize),
+                                      aRefs == null ? null : Arrays.copyOf (aRefs, nSize),
+                                      nSize > LINEAR_SEARCH_THRESHOLD ? aIndex : null);
+      }
+      return new CompactJsonObject (aKeys, aTypes, aPrims, aRefs, aIndex);
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+
+/**
+ * Flat storage for the values of {@link CompactJsonArray} and
+ * {@link CompactJsonObject}. Each entry has a type tag. Integer and double
+ * values are stored unboxed in a <code>long</code> array, strings are stored
+ * directly and booleans and <code>null</code> only need the type tag. The
+ * {@link IJson} objects are created on access.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+final class CompactJsonValues
+{
+  static final byte TYPE_JSON = 0;
+  static final byte TYPE_STRING = 1;
+  static final byte TYPE_INT = 2;
+  static final byte TYPE_LONG = 3;
+  static final byte TYPE_DOUBLE = 4;
+  static final byte TYPE_TRUE = 5;
+  static final byte TYPE_FALSE = 6;
+  static final byte TYPE_NULL = 7;
+
+  private CompactJsonValues ()
+  {}
+
+  /**
+   * Growable storage used by the builders.
+   */
+  @NotThreadSafe
+  static class Builder
+  {
+    byte [] m_aTypes;
+    long [] m_aPrims;
+    Object [] m_aRefs;
+    int m_nSize = 0;
+    boolean m_bHasPrims = false;
+    boolean m_bHasRefs = false;
+
+    Builder (@Nonnegative final int nInitialCapacity)
+    {
+      ValueEnforcer.isGE0 (nInitialCapacity, "InitialCapacity");
+      m_aTypes = new byte [nInitialCapacity];
+      m_aPrims = new long [nInitialCapacity];
+      m_aRefs = new Object [nInitialCapacity];
+    }
+
+    private void _ensureCapacity ()
+    {
+      if (m_nSize == m_aTypes.length)
+      {
+        final int nNewLen = Math.max (4, m_nSize * 2);
+        m_aTypes = Arrays.copyOf (m_aTypes, nNewLen);
+        m_aPrims = Arrays.copyOf (m_aPrims, nNewLen);
+        m_aRefs = Arrays.copyOf (m_aRefs, nNewLen);
+      }
+    }
+
+    final void addPrim (final byte nType, final long nPrim)
+    {
+      _ensureCapacity ();
+      m_aTypes[m_nSize] = nType;
+      m_aPrims[m_nSize] = nPrim;
+      m_nSize++;
+      m_bHasPrims = true;
+    }
+
+    final void addRef (final byte nType, @Nonnull final Object aRef)
+    {
+      _ensureCapacity ();
+      m_aTypes[m_nSize] = nType;
+      m_aRefs[m_nSize] = aRef;
+      m_nSize++;
+      m_bHasRefs = true;
+    }
+
+    final void addType (final byte nType)
+    {
+      _ensureCapacity ();
+      m_aTypes[m_nSize] = nType;
+      m_nSize++;
+    }
+
+    final void addString (@Nonnull final String sValue)
+    {
+      ValueEnforcer.notNull (sValue, "Value");
+      addRef (TYPE_STRING, sValue);
+    }
+
+    final void addNumber (@Nonnull final Number aValue)
+    {
+      ValueEnforcer.notNull (aValue, "Value");
+      if (aValue instanceof Integer)
+        addPrim (TYPE_INT, aValue.intValue ());
+      else
+        if (aValue instanceof Long)
+          addPrim (TYPE_LONG, aValue.longValue ());
+        else
+          if (aValue instanceof Double)
+            addPrim (TYPE_DOUBLE, Double.doubleToLongBits (aValue.doubleValue ()));
+          else
+            addRef (TYPE_JSON, JsonValue.create (aValue));
+    }
+
+    final void addBoolean (final boolean bValue)
+    {
+      addType (bValue ? TYPE_TRUE : TYPE_FALSE);
+    }
+
+    /**
+     * Add an arbitrary JSON value. Simple values are unwrapped and mutable
+     * arrays and objects are converted to their compact counterpart.
+     *
+     * @param aValue
+     *        The value to add. May not be <code>null</code>.
+     */
+    final void addJson (@Nonnull final IJson aValue)
+    {
+      ValueEnforcer.notNull (aValue, "Value");
+      if (aValue.isValue ())
+      {
+        // Unwrap the simple types
+        final Object aObj = ((IJsonValue) aValue).getValue ();
+        if (aObj == null)
+        {
+          addType (TYPE_NULL);
+          return;
+        }
+        if (aObj instanceof String)
+        {
+          addString ((String) aObj);
+          return;
+        }
+        if (aObj instanceof Boolean)
+        {
+          addBoolean (((Boolean) aObj).booleanValue ());
+          return;
+        }
+        final Class <?> aClass = aObj.getClass ();
+        if (aClass == Integer.class || aClass == Long.class || aClass == Double.class)
+        {
+          addNumber ((Number) aObj);
+          return;
+        }
+        addRef (TYPE_JSON, aValue);
+      }
+      else
+        if (aValue.isArray ())
+          addRef (TYPE_JSON, CompactJsonArray.createFrom ((IJsonArray) aValue));
+        else
+          addRef (TYPE_JSON, CompactJsonObject.createFrom ((IJsonObject) aValue));
+    }
+  }
+
+  /**
+   * Create the {@link IJson} for the provided entry.
+   *
+   * @param nType
+   *        Type tag
+   * @param nPrim
+   *        Primitive value. Only used for numeric types.
+   * @param aRef
+   *        Reference value. Only used for JSON and string types.
+   * @return The matching IJson. Never <code>null</code>.
+   */
+  @Nonnull
+  static IJson getJson (final byte nType, final long nPrim, @Nullable final Object aRef)
+  {
+    switch (nType)
+    {
+      case TYPE_JSON:
+        return (IJson) aRef;
+      case TYPE_STRING:
+        return JsonValue.create (aRef);
+      case TYPE_INT:
+        return JsonValue.create ((int) nPrim);
+      case TYPE_LONG:
+        return JsonValue.create (nPrim);
+      case TYPE_DOUBLE:
+        return JsonValue.create (Double.longBitsToDouble (nPrim));
+      case TYPE_TRUE:
+        return JsonValue.TRUE;
+      case TYPE_FALSE:
+        return JsonValue.FALSE;
+      case TYPE_NULL:
+        return JsonValue.NULL;
+      default:
+        throw new IllegalStateException ("Unsupported type " + nType);
+    }
+  }
+
+  static boolean isPrim (final byte nType)
+  {
+    return nType == TYPE_INT || nType == TYPE_LONG || nType == TYPE_DOUBLE;
+  }
+
+  static boolean isRef (final byte nType)
+  {
+    return nType == TYPE_JSON || nType == TYPE_STRING;
+  }
+}
@@ -207,16 +207,26 @@ public class JsonArray implements IJsonArray
   {
     if (o == this)
       return true;
-    if (o == null || !getClass ().equals (o.getClass ()))
+    // Content based, so that it is equal to a CompactJsonArray with the same
+    // content
+    if (!(o instanceof IJsonArray))
       return false;
-    final JsonArray rhs = (JsonArray) o;
-    return m_aValues.equals (rhs.m_aValues);
+    if (o instanceof JsonArray)
+      return m_aValues.equals (((JsonArray) o).m_aValues);
+    final IJsonArray rhs = (IJsonArray) o;
+    if (m_aValues.size () != rhs.getSize ())
+      return false;
+    for (int i = 0; i < m_aValues.size (); ++i)
+      if (!m_aValues.get (i).equals (rhs.get (i)))
+        return false;
+    return true;
   }
 
   @Override
   public int hashCode ()
   {
-    return new HashCodeGenerator (this).append (m_aValues).getHashCode ();
+    // Content based, so that it is consistent with CompactJsonArray
+    return new HashCodeGenerator (IJsonArray.class).append (m_aValues.hashCode ()).getHashCode ();
   }
 
   @Override
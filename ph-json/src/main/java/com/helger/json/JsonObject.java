@@ -201,16 +201,26 @@ public class JsonObject implements IJsonObject
   {
     if (o == this)
       return true;
-    if (o == null || !getClass ().equals (o.getClass ()))
+    // Content based, so that it is equal to a CompactJsonObject with the same
+    // content
+    if (!(o instanceof IJsonObject))
       return false;
-    final JsonObject rhs = (JsonObject) o;
-    return m_aValues.equals (rhs.m_aValues);
+    if (o instanceof JsonObject)
+      return m_aValues.equals (((JsonObject) o).m_aValues);
+    final IJsonObject rhs = (IJsonObject) o;
+    if (m_aValues.size () != rhs.getSize ())
+      return false;
+    for (final Map.Entry <String, IJson> aEntry : m_aValues.entrySet ())
+      if (!aEntry.getValue ().equals (rhs.get (aEntry.getKey ())))
+        return false;
+    return true;
   }
 
   @Override
   public int hashCode ()
   {
-    return new HashCodeGenerator (this).append (m_aValues).getHashCode ();
+    // Content based, so that it is consistent with CompactJsonObject
+    return new HashCodeGenerator (IJsonObject.class).append (m_aValues.hashCode ()).getHashCode ();
   }
 
   @Override
@@ -60,6 +60,18 @@ public final class JsonEscapeHelper
       throw new InitializationException ("Length are inconsistent");
   }
 
+  /**
+   * Direct lookup of the replacement string by char - all chars to mask are
+   * ASCII chars. Array elements are <code>null</code> if no masking is needed.
+   */
+  private static final String [] REPLACEMENT_BY_CHAR = new String [128];
+
+  static
+  {
+    for (int i = 0; i < CHARS_TO_MASK.length; ++i)
+      REPLACEMENT_BY_CHAR[CHARS_TO_MASK[i]] = REPLACEMENT_STRINGS[i];
+  }
+
   @PresentForCodeCoverage
   private static final JsonEscapeHelper s_aInstance = new JsonEscapeHelper ();
 
@@ -73,9 +85,9 @@ public final class JsonEscapeHelper
 
     for (final char cCurrent : aInput)
     {
-      final int nIndex = ArrayHelper.getFirstIndex (CHARS_TO_MASK, cCurrent);
-      if (nIndex >= 0)
-        aSB.append (REPLACEMENT_STRINGS[nIndex]);
+      final String sReplacement = _getReplacement (cCurrent);
+      if (sReplacement != null)
+        aSB.append (sReplacement);
       else
         aSB.append (cCurrent);
     }
@@ -118,20 +130,34 @@ public final class JsonEscapeHelper
     }
   }
 
+  @Nullable
+  private static String _getReplacement (final char c)
+  {
+    return c < REPLACEMENT_BY_CHAR.length ? REPLACEMENT_BY_CHAR[c] : null;
+  }
+
   public static void jsonEscapeToWriter (@Nonnull final char [] aInput,
                                          @Nonnull @WillNotClose final Writer aWriter) throws IOException
   {
     ValueEnforcer.notNull (aInput, "Input");
     ValueEnforcer.notNull (aWriter, "Writer");
 
-    for (final char cCurrent : aInput)
+    // Write all unmasked chars en bloc
+    final int nLen = aInput.length;
+    int nStart = 0;
+    for (int i = 0; i < nLen; ++i)
     {
-      final int nIndex = ArrayHelper.getFirstIndex (CHARS_TO_MASK, cCurrent);
-      if (nIndex >= 0)
-        aWriter.write (REPLACEMENT_STRINGS[nIndex]);
-      else
-        aWriter.write (cCurrent);
+      final String sReplacement = _getReplacement (aInput[i]);
+      if (sReplacement != null)
+      {
+        if (i > nStart)
+          aWriter.write (aInput, nStart, i - nStart);
+        aWriter.write (sReplacement);
+        nStart = i + 1;
+      }
     }
+    if (nStart < nLen)
+      aWriter.write (aInput, nStart, nLen - nStart);
   }
 
   public static void jsonEscapeToWriter (@Nullable final String sInput,
@@ -139,13 +165,24 @@ public final class JsonEscapeHelper
   {
     ValueEnforcer.notNull (aWriter, "Writer");
 
-    if (StringHelper.hasText (sInput))
+    if (sInput != null)
     {
-      final char [] aInput = sInput.toCharArray ();
-      if (!StringHelper.containsAny (aInput, CHARS_TO_MASK))
-        aWriter.write (aInput, 0, aInput.length);
-      else
-        jsonEscapeToWriter (aInput, aWriter);
+      // Write all unmasked chars en bloc without copying the input
+      final int nLen = sInput.length ();
+      int nStart = 0;
+      for (int i = 0; i < nLen; ++i)
+      {
+        final String sReplacement = _getReplacement (sInput.charAt (i));
+        if (sReplacement != null)
+        {
+          if (i > nStart)
+            aWriter.write (sInput, nStart, i - nStart);
+          aWriter.write (sReplacement);
+          nStart = i + 1;
+        }
+      }
+      if (nStart < nLen)
+        aWriter.write (sInput, nStart, nLen - nStart);
     }
   }
 
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+/**
+ * The different token types returned by {@link JsonCursor}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+public enum EJsonToken
+{
+  /** Start of an object ('{') */
+  OBJECT_START,
+  /** Name of an object element */
+  OBJECT_NAME,
+  /** End of an object ('}') */
+  OBJECT_END,
+  /** Start of an array ('[') */
+  ARRAY_START,
+  /** End of an array (']') */
+  ARRAY_END,
+  /** A string value */
+  STRING,
+  /** A numeric value */
+  NUMBER,
+  /** The keyword <code>true</code> */
+  TRUE,
+  /** The keyword <code>false</code> */
+  FALSE,
+  /** The keyword <code>null</code> */
+  NULL;
+
+  /**
+   * @return <code>true</code> if this token starts an object or an array.
+   */
+  public boolean isContainerStart ()
+  {
+    return this == OBJECT_START || this == ARRAY_START;
+  }
+
+  /**
+   * @return <code>true</code> if this token ends an object or an array.
+   */
+  public boolean isContainerEnd ()
+  {
+    return this == OBJECT_END || this == ARRAY_END;
+  }
+
+  /**
+   * @return <code>true</code> if this token is a simple value (string, number
+   *         or keyword).
+   */
+  public boolean isSimpleValue ()
+  {
+    return this == STRING || this == NUMBER || this == TRUE || this == FALSE || this == NULL;
+  }
+}
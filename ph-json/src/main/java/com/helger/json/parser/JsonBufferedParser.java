@@ -0,0 +1,826 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.StringHelper;
+import com.helger.json.CJson;
+import com.helger.json.parser.handler.IJsonParserHandler;
+
+/**
+ * The parsing engine used by {@link JsonParser} if buffered input is enabled.
+ * The input is read in chunks into a reusable char array and all tokens are
+ * scanned directly on that array. The original string representations are
+ * only created if {@link IJsonParserHandler#isOriginalStringRequired()} is
+ * <code>true</code> and line and column numbers are only calculated in case
+ * of an error.<br>
+ * The package private token methods are also used by {@link JsonCursor}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+final class JsonBufferedParser
+{
+  /** The default size of the input buffer in chars */
+  static final int DEFAULT_BUFFER_SIZE = 16 * CGlobal.BYTES_PER_KILOBYTE;
+
+  private static final int EOI = JsonParser.EOI;
+  private static final String NO_ORIGINAL = "";
+
+  // Constructor parameters
+  private final Reader m_aReader;
+  private final IJsonParserHandler m_aCallback;
+  private final boolean m_bAlwaysUseBigNumber;
+  private final boolean m_bRequireStringQuotes;
+  private final boolean m_bAllowSpecialCharsInStrings;
+  private final boolean m_bOriginalStringRequired;
+
+  // The input buffer. After the first read, index 0 always contains the last
+  // char of the previous chunk, so that a single char can always be unread.
+  private final char [] m_aBuf;
+  private int m_nPos = 0;
+  private int m_nLimit = 0;
+  // The absolute offset of m_aBuf[0]
+  private long m_nBufOffset = 0;
+  private boolean m_bEOI = false;
+
+  // Reusable builders for tokens
+  private final JsonStringBuilder m_aSB1 = new JsonStringBuilder (256);
+  private final JsonStringBuilder m_aSB2 = new JsonStringBuilder (256);
+  private String m_sOriginal;
+
+  // Lazy position tracking - null if disabled
+  private final JsonParsePositionTracker m_aPosTracker;
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader to read from. May not be <code>null</code>.
+   * @param aCallback
+   *        The callback to be invoked. May be <code>null</code> if only the
+   *        package private token methods are used (by {@link JsonCursor}). In
+   *        that case no whitespace and comment events are collected.
+   * @param bTrackPosition
+   *        <code>true</code> to track the position for error messages
+   * @param nTabSize
+   *        The tab size for position tracking
+   * @param bAlwaysUseBigNumber
+   *        <code>true</code> to always create BigDecimal and BigInteger
+   * @param bRequireStringQuotes
+   *        <code>true</code> if strings must be quoted
+   * @param bAllowSpecialCharsInStrings
+   *        <code>true</code> to allow special characters in strings
+   * @param nBufferSize
+   *        The size of the char buffer. Must be &gt; 0.
+   */
+  JsonBufferedParser (@Nonnull @WillNotClose final Reader aReader,
+                      @Nullable final IJsonParserHandler aCallback,
+                      final boolean bTrackPosition,
+                      @Nonnegative final int nTabSize,
+                      final boolean bAlwaysUseBigNumber,
+                      final boolean bRequireStringQuotes,
+                      final boolean bAllowSpecialCharsInStrings,
+                      @Nonnegative final int nBufferSize)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.isGT0 (nBufferSize, "BufferSize");
+    m_aReader = aReader;
+    m_aCallback = aCallback;
+    m_bAlwaysUseBigNumber = bAlwaysUseBigNumber;
+    m_bRequireStringQuotes = bRequireStringQuotes;
+    m_bAllowSpecialCharsInStrings = bAllowSpecialCharsInStrings;
+    m_bOriginalStringRequired = aCallback != null && aCallback.isOriginalStringRequired ();
+    // One additional char for the unread char
+    m_aBuf = new char [nBufferSize + 1];
+    m_aPosTracker = bTrackPosition ? new JsonParsePositionTracker (nTabSize, 0) : null;
+  }
+
+  private void _pushTokenStart ()
+  {
+    if (m_aPosTracker != null)
+      m_aPosTracker.pushTokenStart (m_nBufOffset + m_nPos);
+  }
+
+  private void _popTokenStart ()
+  {
+    if (m_aPosTracker != null)
+      m_aPosTracker.popTokenStart ();
+  }
+
+  /**
+   * @return The current parse position. Only updated if position tracking is
+   *         enabled.
+   */
+  @Nonnull
+  IJsonParsePosition getPosition ()
+  {
+    if (m_aPosTracker == null)
+      return new JsonParsePosition ();
+    m_aPosTracker.advance (m_aBuf, m_nBufOffset, m_nBufOffset + m_nPos);
+    return m_aPosTracker.getPosition ();
+  }
+
+  @Nonnull
+  JsonParseException parseEx (@Nonnull final String sMsg)
+  {
+    if (m_aPosTracker == null)
+      return new JsonParseException (sMsg);
+
+    // Resolves all open token starts as well
+    m_aPosTracker.advance (m_aBuf, m_nBufOffset, m_nBufOffset + m_nPos);
+    return m_aPosTracker.createParseException (sMsg);
+  }
+
+  /**
+   * Read the next chunk of input. May only be called if the current buffer is
+   * exhausted.
+   *
+   * @return <code>false</code> if the end of input was reached.
+   */
+  private boolean _fill ()
+  {
+    if (m_bEOI)
+      return false;
+
+    // Keep the last char for unreading
+    final int nKeep = m_nLimit > 0 ? 1 : 0;
+    final int nDiscard = m_nLimit - nKeep;
+    if (m_aPosTracker != null)
+      m_aPosTracker.advance (m_aBuf, m_nBufOffset, m_nBufOffset + nDiscard);
+    if (nKeep > 0)
+      m_aBuf[0] = m_aBuf[m_nLimit - 1];
+    m_nBufOffset += nDiscard;
+    m_nPos = nKeep;
+    m_nLimit = nKeep;
+
+    try
+    {
+      int nRead;
+      do
+      {
+        nRead = m_aReader.read (m_aBuf, nKeep, m_aBuf.length - nKeep);
+      } while (nRead == 0);
+
+      if (nRead < 0)
+      {
+        m_bEOI = true;
+        return false;
+      }
+      m_nLimit = nKeep + nRead;
+      return true;
+    }
+    catch (final IOException ex)
+    {
+      m_bEOI = true;
+      return false;
+    }
+  }
+
+  int peekChar ()
+  {
+    if (m_nPos == m_nLimit && !_fill ())
+      return EOI;
+    return m_aBuf[m_nPos];
+  }
+
+  int readChar ()
+  {
+    if (m_nPos == m_nLimit && !_fill ())
+      return EOI;
+    return m_aBuf[m_nPos++];
+  }
+
+  void unreadChar (final int c)
+  {
+    if (c != EOI)
+      m_nPos--;
+  }
+
+  private static boolean _isWhitespace (final char c)
+  {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+  }
+
+  private static boolean _isSpecialStringChar (final char c)
+  {
+    return c <= '\r' && (c == '\b' || c == '\t' || c == '\n' || c == '\f' || c == '\r');
+  }
+
+  private void _readComment () throws JsonParseException
+  {
+    _pushTokenStart ();
+    final boolean bCollect = m_aCallback != null;
+    final JsonStringBuilder aStrComment = m_aSB2;
+    aStrComment.reset ();
+
+    while (true)
+    {
+      if (m_nPos == m_nLimit && !_fill ())
+        throw parseEx ("Unclosed JSON comment at end of input");
+
+      final char [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      final int nStart = m_nPos;
+      int i = nStart;
+      while (i < nLimit && aBuf[i] != '*')
+        ++i;
+      if (bCollect)
+        aStrComment.append (aBuf, nStart, i - nStart);
+      m_nPos = i;
+
+      if (i < nLimit)
+      {
+        // Skip the '*'
+        m_nPos++;
+        final int c2 = peekChar ();
+        if (c2 == '/')
+        {
+          // End of comment!
+          m_nPos++;
+          if (bCollect)
+            m_aCallback.onComment (aStrComment.getAsString ());
+          _popTokenStart ();
+          return;
+        }
+        if (c2 == EOI)
+          throw parseEx ("Unclosed JSON comment at end of input");
+        if (bCollect)
+          aStrComment.append ('*');
+      }
+    }
+  }
+
+  void skipSpaces () throws JsonParseException
+  {
+    final boolean bCollect = m_aCallback != null;
+    final JsonStringBuilder aStrSpaces = m_aSB1;
+    aStrSpaces.reset ();
+
+    while (m_nPos < m_nLimit || _fill ())
+    {
+      final char [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      final int nStart = m_nPos;
+      int i = nStart;
+      while (i < nLimit && _isWhitespace (aBuf[i]))
+        ++i;
+      if (bCollect)
+        aStrSpaces.append (aBuf, nStart, i - nStart);
+      m_nPos = i;
+
+      if (i < nLimit)
+      {
+        // Non-whitespace char found - check for comment
+        if (aBuf[i] != '/')
+          break;
+
+        m_nPos++;
+        if (peekChar () != '*')
+        {
+          // No comment - unread the '/'
+          m_nPos--;
+          break;
+        }
+        m_nPos++;
+
+        if (aStrSpaces.hasContent ())
+        {
+          // Notify on previous whitespaces
+          m_aCallback.onWhitespace (aStrSpaces.getAsString ());
+          aStrSpaces.reset ();
+        }
+        _readComment ();
+      }
+    }
+
+    if (aStrSpaces.hasContent ())
+      m_aCallback.onWhitespace (aStrSpaces.getAsString ());
+  }
+
+  private int _getHexValue (final int c) throws JsonParseException
+  {
+    final int ret = StringHelper.getHexValue ((char) c);
+    if (ret == -1)
+      throw parseEx ("Invalid hex character " + JsonParser.getPrintableChar (c) + " provided!");
+    return ret;
+  }
+
+  private void _readStringEscapeChar (@Nonnull final JsonStringBuilder aStrUnescaped,
+                                      final boolean bOriginal,
+                                      @Nonnull final JsonStringBuilder aStrOriginal) throws JsonParseException
+  {
+    final int c2 = readChar ();
+    if (bOriginal)
+      aStrOriginal.append ((char) c2);
+    switch (c2)
+    {
+      case '"':
+      case '/':
+      case '\\':
+        aStrUnescaped.append ((char) c2);
+        break;
+      case 'b':
+        aStrUnescaped.append ('\b');
+        break;
+      case 'f':
+        aStrUnescaped.append ('\f');
+        break;
+      case 'n':
+        aStrUnescaped.append ('\n');
+        break;
+      case 'r':
+        aStrUnescaped.append ('\r');
+        break;
+      case 't':
+        aStrUnescaped.append ('\t');
+        break;
+      case 'u':
+      {
+        int nUnescapedChar = 0;
+        for (int i = 0; i < 4; ++i)
+        {
+          final int c = readChar ();
+          nUnescapedChar = (nUnescapedChar << 4) | _getHexValue (c);
+          if (bOriginal)
+            aStrOriginal.append ((char) c);
+        }
+        aStrUnescaped.append ((char) nUnescapedChar);
+        break;
+      }
+      default:
+        throw parseEx ("Invalid JSON String escape character " + JsonParser.getPrintableChar (c2));
+    }
+  }
+
+  /**
+   * Read a quoted or unquoted string. The original string is stored in
+   * {@link #m_sOriginal}.
+   *
+   * @param cQuoteChar
+   *        The quote char to use.
+   * @param bMaterialize
+   *        <code>true</code> to create the resulting strings,
+   *        <code>false</code> to only validate the string.
+   * @return The unescaped string without leading and trailing quotes or
+   *         <code>null</code> if the string should not be materialized.
+   * @throws JsonParseException
+   *         on error
+   */
+  @Nullable
+  String readString (final char cQuoteChar, final boolean bMaterialize) throws JsonParseException
+  {
+    _pushTokenStart ();
+    final boolean bOriginal = m_bOriginalStringRequired && bMaterialize;
+    final JsonStringBuilder aStrUnescaped = m_aSB1;
+    final JsonStringBuilder aStrOriginal = m_aSB2;
+    aStrUnescaped.reset ();
+    aStrOriginal.reset ();
+
+    final int cStart = readChar ();
+    final boolean bStringIsQuoted = cStart == cQuoteChar;
+    if (!bStringIsQuoted)
+    {
+      if (m_bRequireStringQuotes)
+        throw parseEx ("Invalid JSON String start character " +
+                        JsonParser.getPrintableChar (cStart) +
+                        " - expected " +
+                        JsonParser.getPrintableChar (cQuoteChar));
+      unreadChar (cStart);
+    }
+    if (bOriginal)
+      aStrOriginal.append (cQuoteChar);
+
+    while (true)
+    {
+      if (m_nPos == m_nLimit && !_fill ())
+        throw parseEx ("Unclosed JSON String at end of input");
+
+      // Scan all regular chars
+      final char [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      final int nStart = m_nPos;
+      int i = nStart;
+      if (bStringIsQuoted)
+      {
+        while (i < nLimit)
+        {
+          final char c = aBuf[i];
+          if (c == cQuoteChar || c == '\\' || _isSpecialStringChar (c))
+            break;
+          ++i;
+        }
+
+        if (i < nLimit && aBuf[i] == cQuoteChar && aStrUnescaped.getLength () == 0)
+        {
+          // Shortcut: the whole string is contained in the buffer
+          final String ret = bMaterialize ? new String (aBuf, nStart, i - nStart) : null;
+          m_nPos = i + 1;
+          m_sOriginal = bOriginal ? cQuoteChar + ret + cQuoteChar : NO_ORIGINAL;
+          _popTokenStart ();
+          return ret;
+        }
+      }
+      else
+      {
+        while (i < nLimit)
+        {
+          final char c = aBuf[i];
+          if (c == '\\' || !JsonParser.isUnquotedStringValidChar (c))
+            break;
+          ++i;
+        }
+      }
+
+      aStrUnescaped.append (aBuf, nStart, i - nStart);
+      if (bOriginal)
+        aStrOriginal.append (aBuf, nStart, i - nStart);
+      m_nPos = i;
+      if (i == nLimit)
+      {
+        // Buffer exhausted
+        continue;
+      }
+
+      final char c = aBuf[i];
+      m_nPos++;
+      if (bOriginal)
+        aStrOriginal.append (c);
+
+      if (c == '\\')
+      {
+        // Escape char
+        _readStringEscapeChar (aStrUnescaped, bOriginal, aStrOriginal);
+        continue;
+      }
+
+      if (_isSpecialStringChar (c) && !m_bAllowSpecialCharsInStrings)
+        throw parseEx ("Invalid JSON String character " + JsonParser.getPrintableChar (c));
+
+      if (bStringIsQuoted)
+      {
+        if (c == cQuoteChar)
+        {
+          // End of quoted string
+          break;
+        }
+        // Allowed special char
+        aStrUnescaped.append (c);
+      }
+      else
+      {
+        // End of unquoted string
+        unreadChar (c);
+        if (bOriginal)
+          aStrOriginal.backup (1);
+
+        if (aStrUnescaped.getLength () == 0)
+          throw parseEx ("Empty unquoted JSON String encountered");
+
+        // Since it is present on open, it must also be present on close
+        if (bOriginal)
+          aStrOriginal.append (cQuoteChar);
+        break;
+      }
+    }
+
+    m_sOriginal = bOriginal ? aStrOriginal.getAsString () : NO_ORIGINAL;
+    _popTokenStart ();
+    return bMaterialize ? aStrUnescaped.getAsString () : null;
+  }
+
+  /**
+   * Append all digits at the current position to the passed builder.
+   *
+   * @param aStrNumber
+   *        The builder to append to. May not be <code>null</code>.
+   * @return The number of appended digits.
+   */
+  private int _readDigits (@Nonnull final JsonStringBuilder aStrNumber)
+  {
+    int ret = 0;
+    while (m_nPos < m_nLimit || _fill ())
+    {
+      final char [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      final int nStart = m_nPos;
+      int i = nStart;
+      while (i < nLimit && aBuf[i] >= '0' && aBuf[i] <= '9')
+        ++i;
+      aStrNumber.append (aBuf, nStart, i - nStart);
+      ret += i - nStart;
+      m_nPos = i;
+      if (i < nLimit)
+        break;
+    }
+    return ret;
+  }
+
+  /**
+   * Read a number. The original string is stored in {@link #m_sOriginal}.
+   *
+   * @param bMaterialize
+   *        <code>true</code> to create the resulting number, <code>false</code>
+   *        to only validate the number.
+   * @return The parsed number or <code>null</code> if the number should not be
+   *         materialized.
+   * @throws JsonParseException
+   *         on error
+   */
+  @Nullable
+  Number readNumber (final boolean bMaterialize) throws JsonParseException
+  {
+    _pushTokenStart ();
+    final JsonStringBuilder aStrNumber = m_aSB1;
+    aStrNumber.reset ();
+
+    int c = readChar ();
+    if (c == '-')
+    {
+      // Leading minus?
+      // Note: leading plus is not allowed
+      aStrNumber.append ('-');
+      c = readChar ();
+    }
+
+    if (c == '0')
+    {
+      // No additional numbers allowed
+      aStrNumber.append ('0');
+    }
+    else
+      if (c >= '1' && c <= '9')
+      {
+        aStrNumber.append ((char) c);
+        _readDigits (aStrNumber);
+      }
+      else
+        throw parseEx ("Invalid JSON Number start character " + JsonParser.getPrintableChar (c));
+    c = readChar ();
+
+    final boolean bIsDecimal = c == '.';
+    if (bIsDecimal)
+    {
+      // read decimal part
+      aStrNumber.append ('.');
+      if (_readDigits (aStrNumber) == 0)
+        throw parseEx ("Missing digits after decimal point in JSON Number '" + aStrNumber.getAsString () + "'");
+      c = readChar ();
+    }
+
+    final boolean bHasExponent = c == 'e' || c == 'E';
+    boolean bHasPositiveExponent = false;
+    if (bHasExponent)
+    {
+      // read exponent
+      aStrNumber.append ((char) c);
+      c = readChar ();
+
+      // Any char other than "-" means the exponent is positive
+      bHasPositiveExponent = c != '-';
+
+      if (c == '+' || c == '-')
+        aStrNumber.append ((char) c);
+      else
+        unreadChar (c);
+
+      if (_readDigits (aStrNumber) == 0)
+        throw parseEx ("Missing digits after exponent sign in JSON Number '" + aStrNumber.getAsString () + "'");
+      c = readChar ();
+    }
+
+    // Backup last (unused) char
+    unreadChar (c);
+
+    Number aNum = null;
+    if (bMaterialize)
+      try
+      {
+        aNum = JsonParser.parseNumber (aStrNumber,
+                                       bIsDecimal,
+                                       bHasExponent,
+                                       bHasPositiveExponent,
+                                       m_bAlwaysUseBigNumber);
+      }
+      catch (final NumberFormatException ex)
+      {
+        throw parseEx ("Invalid JSON Number '" + aStrNumber.getAsString () + "'");
+      }
+    m_sOriginal = m_bOriginalStringRequired && bMaterialize ? aStrNumber.getAsString () : NO_ORIGINAL;
+    _popTokenStart ();
+    return aNum;
+  }
+
+  void expect (@Nonnull final String sKeyword) throws JsonParseException
+  {
+    _pushTokenStart ();
+    for (int i = 0; i < sKeyword.length (); ++i)
+    {
+      final char cExpected = sKeyword.charAt (i);
+      final int c = readChar ();
+      if (c != cExpected)
+        throw parseEx ("Expected " +
+                        JsonParser.getPrintableChar (cExpected) +
+                        " but got " +
+                        JsonParser.getPrintableChar (c) +
+                        " as part of JSON keyword \"" +
+                        sKeyword +
+                        "\"");
+    }
+    _popTokenStart ();
+  }
+
+  private void _readArray () throws JsonParseException
+  {
+    _pushTokenStart ();
+    m_aCallback.onArrayStart ();
+    int nIndex = 0;
+    while (true)
+    {
+      skipSpaces ();
+
+      // Check for empty array
+      int c = readChar ();
+      if (c == CJson.ARRAY_END)
+      {
+        if (nIndex != 0)
+          throw parseEx ("Expected another element in JSON Array");
+        break;
+      }
+      unreadChar (c);
+
+      _readValue ();
+
+      skipSpaces ();
+
+      c = readChar ();
+      if (c == CJson.ITEM_SEPARATOR)
+      {
+        ++nIndex;
+        m_aCallback.onArrayNextElement ();
+        continue;
+      }
+      if (c == CJson.ARRAY_END)
+        break;
+      throw parseEx ("Unexpected character " + JsonParser.getPrintableChar (c) + " in JSON array");
+    }
+    m_aCallback.onArrayEnd ();
+    _popTokenStart ();
+  }
+
+  private void _readObject () throws JsonParseException
+  {
+    _pushTokenStart ();
+    m_aCallback.onObjectStart ();
+    int nIndex = 0;
+    while (true)
+    {
+      skipSpaces ();
+
+      // Check for empty object
+      int c = readChar ();
+      if (c == CJson.OBJECT_END)
+      {
+        if (nIndex != 0)
+          throw parseEx ("Expected another element in JSON Object");
+        break;
+      }
+      unreadChar (c);
+
+      final String sName = readString (c == '\'' ? '\'' : '"', true);
+      m_aCallback.onObjectName (m_sOriginal, sName);
+
+      skipSpaces ();
+
+      c = readChar ();
+      if (c != CJson.NAME_VALUE_SEPARATOR)
+        throw parseEx ("Expected colon character in JSON Object but found " + JsonParser.getPrintableChar (c));
+      m_aCallback.onObjectColon ();
+
+      skipSpaces ();
+
+      _readValue ();
+
+      skipSpaces ();
+
+      c = readChar ();
+      if (c == CJson.ITEM_SEPARATOR)
+      {
+        ++nIndex;
+        m_aCallback.onObjectNextElement ();
+        continue;
+      }
+      if (c == CJson.OBJECT_END)
+        break;
+      throw parseEx ("Unexpected character " + JsonParser.getPrintableChar (c) + " in JSON Object");
+    }
+    m_aCallback.onObjectEnd ();
+    _popTokenStart ();
+  }
+
+  private void _readValue () throws JsonParseException
+  {
+    skipSpaces ();
+
+    _pushTokenStart ();
+    final int cFirst = peekChar ();
+    switch (cFirst)
+    {
+      case '\'':
+      case '"':
+      {
+        final String sString = readString ((char) cFirst, true);
+        m_aCallback.onString (m_sOriginal, sString);
+        break;
+      }
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+      {
+        final Number aNum = readNumber (true);
+        m_aCallback.onNumber (m_sOriginal, aNum);
+        break;
+      }
+      case 't':
+        expect (CJson.KEYWORD_TRUE);
+        m_aCallback.onTrue ();
+        break;
+      case 'f':
+        expect (CJson.KEYWORD_FALSE);
+        m_aCallback.onFalse ();
+        break;
+      case 'n':
+        expect (CJson.KEYWORD_NULL);
+        m_aCallback.onNull ();
+        break;
+      case CJson.ARRAY_START:
+        m_nPos++;
+        _readArray ();
+        break;
+      case CJson.OBJECT_START:
+        m_nPos++;
+        _readObject ();
+        break;
+      default:
+        if (cFirst != EOI)
+          m_nPos++;
+        throw parseEx ("Syntax error in JSON. Found " + JsonParser.getPrintableChar (cFirst));
+    }
+    _popTokenStart ();
+  }
+
+  /**
+   * Main parsing routine
+   *
+   * @throws JsonParseException
+   *         In case a parse error occurs.
+   */
+  void parse () throws JsonParseException
+  {
+    _readValue ();
+
+    // Check for trailing whitespaces
+    skipSpaces ();
+
+    _pushTokenStart ();
+
+    // Check for expected end of input
+    final int c = readChar ();
+    if (c != EOI)
+      throw parseEx ("Invalid character " + JsonParser.getPrintableChar (c) + " after JSON root object");
+    _popTokenStart ();
+  }
+}
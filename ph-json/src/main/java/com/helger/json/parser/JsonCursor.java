@@ -0,0 +1,548 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.CJson;
+import com.helger.json.IJson;
+import com.helger.json.parser.handler.CollectingJsonParserHandler;
+
+/**
+ * A pull style JSON reader. Each call to {@link #nextToken()} reads the next
+ * token from the input. This allows to stream over huge documents (e.g. big
+ * arrays of records), to materialize only single elements via
+ * {@link #readValueAsJson()} and to skip unneeded sub trees via
+ * {@link #skipChildren()} without creating any objects. Memory consumption
+ * only depends on the nesting depth and not on the document size.<br>
+ * Whitespaces and comments are skipped. The same syntax rules and error
+ * messages as in {@link JsonParser} apply.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class JsonCursor
+{
+  private static final int STATE_ROOT = 0;
+  private static final int STATE_ROOT_END = 1;
+  private static final int STATE_DONE = 2;
+  private static final int STATE_ARRAY_FIRST = 3;
+  private static final int STATE_ARRAY_NEXT = 4;
+  private static final int STATE_OBJECT_FIRST = 5;
+  private static final int STATE_OBJECT_NEXT = 6;
+  private static final int STATE_OBJECT_VALUE = 7;
+
+  // Constructor parameters
+  private final Reader m_aReader;
+
+  // Settings
+  private boolean m_bTrackPosition = false;
+  private int m_nTabSize = 8;
+  private boolean m_bAlwaysUseBigNumber = false;
+  private boolean m_bRequireStringQuotes = true;
+  private boolean m_bAllowSpecialCharsInStrings = false;
+
+  // Status variables
+  private JsonBufferedParser m_aEngine;
+  private int m_nState = STATE_ROOT;
+  // For each open container: true for object, false for array
+  private boolean [] m_aStack = new boolean [16];
+  private int m_nDepth = 0;
+  private boolean m_bMaterialize = true;
+  private EJsonToken m_eToken;
+  private String m_sString;
+  private Number m_aNumber;
+
+  public JsonCursor (@Nonnull @WillNotClose final Reader aReader)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    m_aReader = aReader;
+  }
+
+  private void _checkNotStarted ()
+  {
+    if (m_aEngine != null)
+      throw new IllegalStateException ("Settings cannot be changed after reading started");
+  }
+
+  public boolean isTrackPosition ()
+  {
+    return m_bTrackPosition;
+  }
+
+  @Nonnull
+  public JsonCursor setTrackPosition (final boolean bTrackPosition)
+  {
+    _checkNotStarted ();
+    m_bTrackPosition = bTrackPosition;
+    return this;
+  }
+
+  @Nonnegative
+  public int getTabSize ()
+  {
+    return m_nTabSize;
+  }
+
+  @Nonnull
+  public JsonCursor setTabSize (@Nonnegative final int nTabSize)
+  {
+    ValueEnforcer.isGT0 (nTabSize, "TabSize");
+    _checkNotStarted ();
+    m_nTabSize = nTabSize;
+    return this;
+  }
+
+  public boolean isAlwaysUseBigNumber ()
+  {
+    return m_bAlwaysUseBigNumber;
+  }
+
+  @Nonnull
+  public JsonCursor setAlwaysUseBigNumber (final boolean bAlwaysUseBigNumber)
+  {
+    _checkNotStarted ();
+    m_bAlwaysUseBigNumber = bAlwaysUseBigNumber;
+    return this;
+  }
+
+  public boolean isRequireStringQuotes ()
+  {
+    return m_bRequireStringQuotes;
+  }
+
+  @Nonnull
+  public JsonCursor setRequireStringQuotes (final boolean bRequireStringQuotes)
+  {
+    _checkNotStarted ();
+    m_bRequireStringQuotes = bRequireStringQuotes;
+    return this;
+  }
+
+  public boolean isAllowSpecialCharsInStrings ()
+  {
+    return m_bAllowSpecialCharsInStrings;
+  }
+
+  @Nonnull
+  public JsonCursor setAllowSpecialCharsInStrings (final boolean bAllowSpecialCharsInStrings)
+  {
+    _checkNotStarted ();
+    m_bAllowSpecialCharsInStrings = bAllowSpecialCharsInStrings;
+    return this;
+  }
+
+  @Nonnull
+  private JsonBufferedParser _getEngine ()
+  {
+    JsonBufferedParser ret = m_aEngine;
+    if (ret == null)
+    {
+      ret = new JsonBufferedParser (m_aReader,
+                                    null,
+                                    m_bTrackPosition,
+                                    m_nTabSize,
+                                    m_bAlwaysUseBigNumber,
+                                    m_bRequireStringQuotes,
+                                    m_bAllowSpecialCharsInStrings,
+                                    JsonBufferedParser.DEFAULT_BUFFER_SIZE);
+      m_aEngine = ret;
+    }
+    return ret;
+  }
+
+  /**
+   * @return The current line number. First line has a value of 1. Only
+   *         updated if position tracking is enabled.
+   */
+  @Nonnegative
+  public int getLineNumber ()
+  {
+    return m_aEngine == null ? 1 : m_aEngine.getPosition ().getLineNumber ();
+  }
+
+  /**
+   * @return The current column number. First column has a value of 1. Only
+   *         updated if position tracking is enabled.
+   */
+  @Nonnegative
+  public int getColumn ()
+  {
+    return m_aEngine == null ? 1 : m_aEngine.getPosition ().getColumnNumber ();
+  }
+
+  private void _push (final boolean bObject)
+  {
+    if (m_nDepth == m_aStack.length)
+      m_aStack = Arrays.copyOf (m_aStack, m_nDepth * 2);
+    m_aStack[m_nDepth++] = bObject;
+  }
+
+  private void _pop ()
+  {
+    m_nDepth--;
+    _afterValue ();
+  }
+
+  private void _afterValue ()
+  {
+    if (m_nDepth == 0)
+      m_nState = STATE_ROOT_END;
+    else
+      m_nState = m_aStack[m_nDepth - 1] ? STATE_OBJECT_NEXT : STATE_ARRAY_NEXT;
+  }
+
+  @Nonnull
+  private EJsonToken _readValue (@Nonnull final JsonBufferedParser aEngine) throws JsonParseException
+  {
+    aEngine.skipSpaces ();
+
+    final int cFirst = aEngine.peekChar ();
+    switch (cFirst)
+    {
+      case '\'':
+      case '"':
+        m_sString = aEngine.readString ((char) cFirst, m_bMaterialize);
+        _afterValue ();
+        return EJsonToken.STRING;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        m_aNumber = aEngine.readNumber (m_bMaterialize);
+        _afterValue ();
+        return EJsonToken.NUMBER;
+      case 't':
+        aEngine.expect (CJson.KEYWORD_TRUE);
+        _afterValue ();
+        return EJsonToken.TRUE;
+      case 'f':
+        aEngine.expect (CJson.KEYWORD_FALSE);
+        _afterValue ();
+        return EJsonToken.FALSE;
+      case 'n':
+        aEngine.expect (CJson.KEYWORD_NULL);
+        _afterValue ();
+        return EJsonToken.NULL;
+      case CJson.ARRAY_START:
+        aEngine.readChar ();
+        _push (false);
+        m_nState = STATE_ARRAY_FIRST;
+        return EJsonToken.ARRAY_START;
+      case CJson.OBJECT_START:
+        aEngine.readChar ();
+        _push (true);
+        m_nState = STATE_OBJECT_FIRST;
+        return EJsonToken.OBJECT_START;
+      default:
+        aEngine.readChar ();
+        throw aEngine.parseEx ("Syntax error in JSON. Found " + JsonParser.getPrintableChar (cFirst));
+    }
+  }
+
+  @Nonnull
+  private EJsonToken _readObjectName (@Nonnull final JsonBufferedParser aEngine, final int c) throws JsonParseException
+  {
+    m_sString = aEngine.readString (c == '\'' ? '\'' : '"', m_bMaterialize);
+
+    aEngine.skipSpaces ();
+
+    final int c2 = aEngine.readChar ();
+    if (c2 != CJson.NAME_VALUE_SEPARATOR)
+      throw aEngine.parseEx ("Expected colon character in JSON Object but found " + JsonParser.getPrintableChar (c2));
+    m_nState = STATE_OBJECT_VALUE;
+    return EJsonToken.OBJECT_NAME;
+  }
+
+  @Nullable
+  private EJsonToken _nextToken () throws JsonParseException
+  {
+    final JsonBufferedParser aEngine = _getEngine ();
+    switch (m_nState)
+    {
+      case STATE_ROOT:
+      case STATE_OBJECT_VALUE:
+        return _readValue (aEngine);
+      case STATE_ARRAY_FIRST:
+      {
+        aEngine.skipSpaces ();
+        final int c = aEngine.readChar ();
+        if (c == CJson.ARRAY_END)
+        {
+          _pop ();
+          return EJsonToken.ARRAY_END;
+        }
+        aEngine.unreadChar (c);
+        return _readValue (aEngine);
+      }
+      case STATE_ARRAY_NEXT:
+      {
+        aEngine.skipSpaces ();
+        final int c = aEngine.readChar ();
+        if (c == CJson.ITEM_SEPARATOR)
+        {
+          aEngine.skipSpaces ();
+          final int c2 = aEngine.readChar ();
+          if (c2 == CJson.ARRAY_END)
+            throw aEngine.parseEx ("Expected another element in JSON Array");
+          aEngine.unreadChar (c2);
+          return _readValue (aEngine);
+        }
+        if (c == CJson.ARRAY_END)
+        {
+          _pop ();
+          return EJsonToken.ARRAY_END;
+        }
+        throw aEngine.parseEx ("Unexpected character " + JsonParser.getPrintableChar (c) + " in JSON array");
+      }
+      case STATE_OBJECT_FIRST:
+      {
+        aEngine.skipSpaces ();
+        final int c = aEngine.readChar ();
+        if (c == CJson.OBJECT_END)
+        {
+          _pop ();
+          return EJsonToken.OBJECT_END;
+        }
+        aEngine.unreadChar (c);
+        return _readObjectName (aEngine, c);
+      }
+      case STATE_OBJECT_NEXT:
+      {
+        aEngine.skipSpaces ();
+        final int c = aEngine.readChar ();
+        if (c == CJson.ITEM_SEPARATOR)
+        {
+          aEngine.skipSpaces ();
+          final int c2 = aEngine.readChar ();
+          if (c2 == CJson.OBJECT_END)
+            throw aEngine.parseEx ("Expected another element in JSON Object");
+          aEngine.unreadChar (c2);
+          return _readObjectName (aEngine, c2);
+        }
+        if (c == CJson.OBJECT_END)
+        {
+          _pop ();
+          return EJsonToken.OBJECT_END;
+        }
+        throw aEngine.parseEx ("Unexpected character " + JsonParser.getPrintableChar (c) + " in JSON Object");
+      }
+      case STATE_ROOT_END:
+      {
+        aEngine.skipSpaces ();
+        final int c = aEngine.readChar ();
+        if (c != JsonParser.EOI)
+          throw aEngine.parseEx ("Invalid character " + JsonParser.getPrintableChar (c) + " after JSON root object");
+        m_nState = STATE_DONE;
+        return null;
+      }
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Read the next token.
+   *
+   * @return The token read or <code>null</code> if the end of the input was
+   *         reached.
+   * @throws JsonParseException
+   *         In case the input is not valid JSON
+   */
+  @Nullable
+  public EJsonToken nextToken () throws JsonParseException
+  {
+    m_sString = null;
+    m_aNumber = null;
+    m_eToken = _nextToken ();
+    return m_eToken;
+  }
+
+  /**
+   * @return The token read by the last call to {@link #nextToken()}. May be
+   *         <code>null</code> if reading did not start yet or if the end of
+   *         input was reached.
+   */
+  @Nullable
+  public EJsonToken getCurrentToken ()
+  {
+    return m_eToken;
+  }
+
+  /**
+   * @return The number of currently open objects and arrays. After
+   *         {@link EJsonToken#OBJECT_START} it is 1 on root level.
+   */
+  @Nonnegative
+  public int getDepth ()
+  {
+    return m_nDepth;
+  }
+
+  /**
+   * @return The unescaped string value if the current token is
+   *         {@link EJsonToken#STRING} or the unescaped name if the current
+   *         token is {@link EJsonToken#OBJECT_NAME}.
+   * @throws IllegalStateException
+   *         if the current token is neither a string nor an object name
+   */
+  @Nonnull
+  public String getString ()
+  {
+    if (m_eToken != EJsonToken.STRING && m_eToken != EJsonToken.OBJECT_NAME)
+      throw new IllegalStateException ("Current token " + m_eToken + " has no string value");
+    return m_sString;
+  }
+
+  /**
+   * @return The numeric value if the current token is
+   *         {@link EJsonToken#NUMBER}. The type of the number is the same as
+   *         for {@link JsonParser}.
+   * @throws IllegalStateException
+   *         if the current token is not a number
+   */
+  @Nonnull
+  public Number getNumber ()
+  {
+    if (m_eToken != EJsonToken.NUMBER)
+      throw new IllegalStateException ("Current token " + m_eToken + " has no number value");
+    return m_aNumber;
+  }
+
+  /**
+   * If the current token is {@link EJsonToken#OBJECT_START} or
+   * {@link EJsonToken#ARRAY_START} all tokens up to the matching end token are
+   * skipped. The input is still validated, but no strings and numbers are
+   * created. Afterwards the current token is the matching end token. For all
+   * other tokens nothing happens.
+   *
+   * @throws JsonParseException
+   *         In case the input is not valid JSON
+   */
+  public void skipChildren () throws JsonParseException
+  {
+    if (m_eToken != null && m_eToken.isContainerStart ())
+    {
+      final int nStartDepth = m_nDepth;
+      m_bMaterialize = false;
+      try
+      {
+        while (m_nDepth >= nStartDepth)
+          nextToken ();
+      }
+      finally
+      {
+        m_bMaterialize = true;
+      }
+    }
+  }
+
+  /**
+   * Create an {@link IJson} from the current value. If the current token is
+   * {@link EJsonToken#OBJECT_START} or {@link EJsonToken#ARRAY_START} all
+   * tokens up to the matching end token are read, and the current token is the
+   * matching end token afterwards.
+   *
+   * @return The materialized value. Never <code>null</code>.
+   * @throws JsonParseException
+   *         In case the input is not valid JSON
+   * @throws IllegalStateException
+   *         If the current token is not the start of a value
+   */
+  @Nonnull
+  public IJson readValueAsJson () throws JsonParseException
+  {
+    if (m_eToken == null || !(m_eToken.isContainerStart () || m_eToken.isSimpleValue ()))
+      throw new IllegalStateException ("Current token " + m_eToken + " is not the start of a value");
+
+    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler ();
+    _emit (aHandler);
+    if (m_eToken.isContainerStart ())
+    {
+      final int nStartDepth = m_nDepth;
+      while (m_nDepth >= nStartDepth)
+      {
+        nextToken ();
+        _emit (aHandler);
+      }
+    }
+    return aHandler.getJson ();
+  }
+
+  private void _emit (@Nonnull final CollectingJsonParserHandler aHandler)
+  {
+    switch (m_eToken)
+    {
+      case OBJECT_START:
+        aHandler.onObjectStart ();
+        break;
+      case OBJECT_NAME:
+        aHandler.onObjectName ("", m_sString);
+        break;
+      case OBJECT_END:
+        aHandler.onObjectEnd ();
+        break;
+      case ARRAY_START:
+        aHandler.onArrayStart ();
+        break;
+      case ARRAY_END:
+        aHandler.onArrayEnd ();
+        break;
+      case STRING:
+        aHandler.onString ("", m_sString);
+        break;
+      case NUMBER:
+        aHandler.onNumber ("", m_aNumber);
+        break;
+      case TRUE:
+        aHandler.onTrue ();
+        break;
+      case FALSE:
+        aHandler.onFalse ();
+        break;
+      case NULL:
+        aHandler.onNull ();
+        break;
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Token", m_eToken)
+                                       .append ("Depth", m_nDepth)
+                                       .append ("State", m_nState)
+                                       .toString ();
+  }
+}
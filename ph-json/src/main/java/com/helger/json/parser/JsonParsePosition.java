@@ -43,6 +43,8 @@ public class JsonParsePosition implements ICloneable <JsonParsePosition>, IJsonP
   {
     m_nLine = aOther.m_nLine;
     m_nColumn = aOther.m_nColumn;
+    m_bPrevCharIsCR = aOther.m_bPrevCharIsCR;
+    m_bPrevCharIsLF = aOther.m_bPrevCharIsLF;
   }
 
   protected void updatePosition (final int c, final int nTabSize)
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Lazy position tracking for the buffered JSON parsers. The position is only
+ * updated when a chunk of the input buffer is discarded or when an error
+ * occurs. The start offsets of all open tokens are remembered, so that their
+ * position can be determined as well. All offsets are absolute offsets in the
+ * input.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+final class JsonParsePositionTracker
+{
+  private final int m_nTabSize;
+  private final JsonParsePosition m_aPos = new JsonParsePosition ();
+  private long m_nPosOffset;
+  private long [] m_aTokenStartOffsets = new long [16];
+  private JsonParsePosition [] m_aTokenStartPos = new JsonParsePosition [16];
+  private int m_nTokenStartCount = 0;
+  private int m_nTokenStartResolved = 0;
+
+  /**
+   * Constructor
+   *
+   * @param nTabSize
+   *        The tab size to use. Must be &gt; 0.
+   * @param nStartOffset
+   *        The absolute offset of the first character of the input.
+   */
+  JsonParsePositionTracker (@Nonnegative final int nTabSize, final long nStartOffset)
+  {
+    m_nTabSize = nTabSize;
+    m_nPosOffset = nStartOffset;
+  }
+
+  void pushTokenStart (final long nOffset)
+  {
+    if (m_nTokenStartCount == m_aTokenStartOffsets.length)
+    {
+      final int nNewLen = m_nTokenStartCount * 2;
+      final long [] aNewOffsets = new long [nNewLen];
+      System.arraycopy (m_aTokenStartOffsets, 0, aNewOffsets, 0, m_nTokenStartCount);
+      m_aTokenStartOffsets = aNewOffsets;
+      final JsonParsePosition [] aNewPos = new JsonParsePosition [nNewLen];
+      System.arraycopy (m_aTokenStartPos, 0, aNewPos, 0, m_nTokenStartCount);
+      m_aTokenStartPos = aNewPos;
+    }
+    m_aTokenStartOffsets[m_nTokenStartCount++] = nOffset;
+  }
+
+  void popTokenStart ()
+  {
+    m_nTokenStartCount--;
+    if (m_nTokenStartResolved > m_nTokenStartCount)
+      m_nTokenStartResolved = m_nTokenStartCount;
+  }
+
+  /**
+   * Update the position so that it reflects all chars up to the passed offset.
+   * All open token starts up to that offset are resolved on the way.
+   *
+   * @param aBuf
+   *        The current char buffer. May not be <code>null</code>.
+   * @param nBufOffset
+   *        The absolute offset of the first char in the buffer.
+   * @param nOffset
+   *        The absolute offset. Must be part of the current buffer.
+   */
+  void advance (@Nonnull final char [] aBuf, final long nBufOffset, final long nOffset)
+  {
+    while (m_nTokenStartResolved < m_nTokenStartCount && m_aTokenStartOffsets[m_nTokenStartResolved] <= nOffset)
+    {
+      _update (aBuf, nBufOffset, m_aTokenStartOffsets[m_nTokenStartResolved]);
+      m_aTokenStartPos[m_nTokenStartResolved] = m_aPos.getClone ();
+      m_nTokenStartResolved++;
+    }
+    _update (aBuf, nBufOffset, nOffset);
+  }
+
+  private void _update (@Nonnull final char [] aBuf, final long nBufOffset, final long nOffset)
+  {
+    if (nOffset > m_nPosOffset)
+    {
+      final int nEnd = (int) (nOffset - nBufOffset);
+      for (int i = (int) (m_nPosOffset - nBufOffset); i < nEnd; ++i)
+        m_aPos.updatePosition (aBuf[i], m_nTabSize);
+      m_nPosOffset = nOffset;
+    }
+  }
+
+  /**
+   * Update the position so that it reflects all UTF-8 encoded bytes up to the
+   * passed offset. All open token starts up to that offset are resolved on the
+   * way. Columns are counted in UTF-16 chars, so that the same positions as for
+   * character based parsing are reported.
+   *
+   * @param aBuf
+   *        The current byte buffer. May not be <code>null</code>.
+   * @param nBufOffset
+   *        The absolute offset of the first byte in the buffer.
+   * @param nOffset
+   *        The absolute offset. Must be part of the current buffer.
+   */
+  void advance (@Nonnull final byte [] aBuf, final long nBufOffset, final long nOffset)
+  {
+    while (m_nTokenStartResolved < m_nTokenStartCount && m_aTokenStartOffsets[m_nTokenStartResolved] <= nOffset)
+    {
+      _update (aBuf, nBufOffset, m_aTokenStartOffsets[m_nTokenStartResolved]);
+      m_aTokenStartPos[m_nTokenStartResolved] = m_aPos.getClone ();
+      m_nTokenStartResolved++;
+    }
+    _update (aBuf, nBufOffset, nOffset);
+  }
+
+  private void _update (@Nonnull final byte [] aBuf, final long nBufOffset, final long nOffset)
+  {
+    if (nOffset > m_nPosOffset)
+    {
+      final int nEnd = (int) (nOffset - nBufOffset);
+      for (int i = (int) (m_nPosOffset - nBufOffset); i < nEnd; ++i)
+      {
+        final int b = aBuf[i] & 0xff;
+        // Continuation bytes don't start a new char
+        if ((b & 0xc0) != 0x80)
+        {
+          m_aPos.updatePosition (b, m_nTabSize);
+          // 4 byte sequences are a surrogate pair in UTF-16
+          if (b >= 0xf0)
+            m_aPos.updatePosition (b, m_nTabSize);
+        }
+      }
+      m_nPosOffset = nOffset;
+    }
+  }
+
+  /**
+   * @return The position as determined by the last call to one of the
+   *         <code>advance</code> methods.
+   */
+  @Nonnull
+  IJsonParsePosition getPosition ()
+  {
+    return m_aPos;
+  }
+
+  /**
+   * Create a parse exception for the innermost open token. The position must
+   * have been advanced to the error offset before.
+   *
+   * @param sMsg
+   *        The error message. May not be <code>null</code>.
+   * @return The new exception. Never <code>null</code>.
+   */
+  @Nonnull
+  JsonParseException createParseException (@Nonnull final String sMsg)
+  {
+    final IJsonParsePosition aTokenStart = m_nTokenStartCount == 0 ? m_aPos.getClone ()
+                                                                   : m_aTokenStartPos[m_nTokenStartCount - 1];
+    return new JsonParseException (aTokenStart, m_aPos.getClone (), sMsg);
+  }
+}
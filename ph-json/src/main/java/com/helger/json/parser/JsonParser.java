@@ -74,7 +74,11 @@ public class JsonParser
 
   private static final int MAX_PUSH_BACK_CHARS = 2;
 
+  /** By default buffered input is disabled */
+  public static final boolean DEFAULT_USE_BUFFERED_INPUT = false;
+
   // Constructor parameters
+  private final Reader m_aSrcReader;
   private final NonBlockingPushbackReader m_aReader;
   private final IJsonParserHandler m_aCallback;
 
@@ -84,16 +88,20 @@ public class JsonParser
   private boolean m_bAlwaysUseBigNumber = false;
   private boolean m_bRequireStringQuotes = true;
   private boolean m_bAllowSpecialCharsInStrings = false;
+  private boolean m_bUseBufferedInput = DEFAULT_USE_BUFFERED_INPUT;
 
   // Status variables
   // Position tracking
   private final JsonParsePosition m_aPos = new JsonParsePosition ();
   private int m_nBackupChars = 0;
+  // Buffered parsing engine - only used if buffered input is enabled
+  private JsonBufferedParser m_aBufferedParser;
 
   public JsonParser (@Nonnull @WillNotClose final Reader aReader, @Nonnull final IJsonParserHandler aCallback)
   {
     ValueEnforcer.notNull (aReader, "Reader");
     ValueEnforcer.notNull (aCallback, "Callback");
+    m_aSrcReader = aReader;
     // Maximum of 2 pushbacks
     m_aReader = new NonBlockingPushbackReader (aReader, MAX_PUSH_BACK_CHARS);
     m_aCallback = aCallback;
@@ -161,13 +169,51 @@ public class JsonParser
     return this;
   }
 
+  /**
+   * @return <code>true</code> if the buffered parsing engine is used,
+   *         <code>false</code> if the input is read char by char. Default is
+   *         {@link #DEFAULT_USE_BUFFERED_INPUT}.
+   * @since 8.6.0
+   */
+  public boolean isUseBufferedInput ()
+  {
+    return m_bUseBufferedInput;
+  }
+
+  /**
+   * Enable or disable the buffered parsing engine. If enabled, the input is
+   * read in chunks into a reusable char array and all tokens are scanned
+   * directly on that array. The original string representation is only
+   * created if {@link IJsonParserHandler#isOriginalStringRequired()} returns
+   * <code>true</code> and line and column numbers are only determined on
+   * demand. The events passed to the handler are identical in both modes.
+   *
+   * @param bUseBufferedInput
+   *        <code>true</code> to use the buffered engine, <code>false</code>
+   *        to read char by char.
+   * @return this for chaining
+   * @since 8.6.0
+   */
+  @Nonnull
+  public JsonParser setUseBufferedInput (final boolean bUseBufferedInput)
+  {
+    m_bUseBufferedInput = bUseBufferedInput;
+    return this;
+  }
+
+  @Nonnull
+  private IJsonParsePosition _getPosition ()
+  {
+    return m_aBufferedParser != null ? m_aBufferedParser.getPosition () : m_aPos;
+  }
+
   /**
    * @return The current line number. First line has a value of 1.
    */
   @Nonnegative
   public int getLineNumber ()
   {
-    return m_aPos.getLineNumber ();
+    return _getPosition ().getLineNumber ();
   }
 
   /**
@@ -176,7 +222,7 @@ public class JsonParser
   @Nonnegative
   public int getColumn ()
   {
-    return m_aPos.getColumnNumber ();
+    return _getPosition ().getColumnNumber ();
   }
 
   /**
@@ -225,12 +271,12 @@ public class JsonParser
       }
       catch (final IOException ex)
       {
-        throw new IllegalStateException ("Failed to unread character " + _getPrintableChar (c));
+        throw new IllegalStateException ("Failed to unread character " + getPrintableChar (c));
       }
   }
 
   @Nonnull
-  private static String _getPrintableChar (final int c)
+  static String getPrintableChar (final int c)
   {
     if (c == EOI)
       return "<EOI>";
@@ -341,7 +387,7 @@ public class JsonParser
   {
     final int ret = StringHelper.getHexValue ((char) c);
     if (ret == -1)
-      throw _parseEx (aStartPos, "Invalid hex character " + _getPrintableChar (c) + " provided!");
+      throw _parseEx (aStartPos, "Invalid hex character " + getPrintableChar (c) + " provided!");
     return ret;
   }
 
@@ -388,10 +434,10 @@ public class JsonParser
                   aStrStringUnescapedContent.append ((char) nUnescapedChar);
                 }
                 else
-                  throw _parseEx (aStartPos, "Invalid JSON String escape character " + _getPrintableChar (c2));
+                  throw _parseEx (aStartPos, "Invalid JSON String escape character " + getPrintableChar (c2));
   }
 
-  private static boolean _isUnquotedStringValidChar (final int c)
+  static boolean isUnquotedStringValidChar (final int c)
   {
     return (c >= 0x21 && c <= 0x7a) && c != ':';
   }
@@ -424,9 +470,9 @@ public class JsonParser
       if (m_bRequireStringQuotes)
         throw _parseEx (aStartPos,
                         "Invalid JSON String start character " +
-                                   _getPrintableChar (cStart) +
+                                   getPrintableChar (cStart) +
                                    " - expected " +
-                                   _getPrintableChar (cQuoteChar));
+                                   getPrintableChar (cQuoteChar));
 
       _backupChar (cStart);
       aStrStringOriginalContent.append ((char) cQuoteChar);
@@ -453,7 +499,7 @@ public class JsonParser
         case '\r':
         case '\t':
           if (!m_bAllowSpecialCharsInStrings)
-            throw _parseEx (aStartPos, "Invalid JSON String character " + _getPrintableChar (c));
+            throw _parseEx (aStartPos, "Invalid JSON String character " + getPrintableChar (c));
           // else fall-though!
         default:
           if (bStringIsQuoted)
@@ -467,7 +513,7 @@ public class JsonParser
           }
           else
           {
-            if (!_isUnquotedStringValidChar (c))
+            if (!isUnquotedStringValidChar (c))
             {
               // End of unquoted string
 
@@ -571,44 +617,72 @@ public class JsonParser
     return Long.valueOf (r);
   }
 
+  /**
+   * Convert the passed number chars to a {@link Number}. Shared between the
+   * different parser implementations.
+   *
+   * @param aNumChars
+   *        The validated number chars. May not be <code>null</code>.
+   * @param bIsDecimal
+   *        <code>true</code> if a decimal point is present
+   * @param bHasExponent
+   *        <code>true</code> if an exponent is present
+   * @param bHasPositiveExponent
+   *        <code>true</code> if the exponent is positive
+   * @param bAlwaysUseBigNumber
+   *        <code>true</code> to always create BigDecimal or BigInteger
+   * @return The number and never <code>null</code>.
+   * @throws NumberFormatException
+   *         If the number cannot be converted
+   */
   @Nonnull
-  private Number _parseNumber (@Nonnull final IJsonParsePosition aStartPos,
-                               final boolean bIsDecimal,
-                               final boolean bHasExponent,
-                               final boolean bHasPositiveExponent,
-                               @Nonnull final JsonStringBuilder aNumChars) throws JsonParseException
+  static Number parseNumber (@Nonnull final JsonStringBuilder aNumChars,
+                             final boolean bIsDecimal,
+                             final boolean bHasExponent,
+                             final boolean bHasPositiveExponent,
+                             final boolean bAlwaysUseBigNumber)
   {
-    try
-    {
-      final int nCharCount = aNumChars.getLength ();
+    final int nCharCount = aNumChars.getLength ();
 
-      if (bIsDecimal)
-      {
-        // Decimal number
-        if (nCharCount > 18 || m_bAlwaysUseBigNumber)
-          return aNumChars.getAsBigDecimal ();
+    if (bIsDecimal)
+    {
+      // Decimal number
+      if (nCharCount > 18 || bAlwaysUseBigNumber)
+        return aNumChars.getAsBigDecimal ();
 
-        return aNumChars.getAsDouble ();
-      }
+      return aNumChars.getAsDouble ();
+    }
 
-      if (bHasExponent)
+    if (bHasExponent)
+    {
+      // Integer number
+      if (bHasPositiveExponent)
       {
-        // Integer number
-        if (bHasPositiveExponent)
-        {
-          // Required for correct "e" handling
-          return aNumChars.getAsBigDecimal ().toBigIntegerExact ();
-        }
-
         // Required for correct "e" handling
-        return aNumChars.getAsBigDecimal ();
+        return aNumChars.getAsBigDecimal ().toBigIntegerExact ();
       }
 
-      // No exponent present
-      if (m_bAlwaysUseBigNumber)
-        return aNumChars.getAsBigInteger ();
+      // Required for correct "e" handling
+      return aNumChars.getAsBigDecimal ();
+    }
+
+    // No exponent present
+    if (bAlwaysUseBigNumber)
+      return aNumChars.getAsBigInteger ();
 
-      return _parseNumberInt (aNumChars);
+    return _parseNumberInt (aNumChars);
+  }
+
+  @Nonnull
+  private Number _parseNumber (@Nonnull final IJsonParsePosition aStartPos,
+                               final boolean bIsDecimal,
+                               final boolean bHasExponent,
+                               final boolean bHasPositiveExponent,
+                               @Nonnull final JsonStringBuilder aNumChars) throws JsonParseException
+  {
+    try
+    {
+      return parseNumber (aNumChars, bIsDecimal, bHasExponent, bHasPositiveExponent, m_bAlwaysUseBigNumber);
     }
     catch (final NumberFormatException ex)
     {
@@ -650,7 +724,7 @@ public class JsonParser
         }
       }
       else
-        throw _parseEx (aStartPos, "Invalid JSON Number start character " + _getPrintableChar (c));
+        throw _parseEx (aStartPos, "Invalid JSON Number start character " + getPrintableChar (c));
 
     final boolean bIsDecimal = c == '.';
     if (bIsDecimal)
@@ -718,9 +792,9 @@ public class JsonParser
       if (c != cExpected)
         throw _parseEx (aStartPos,
                         "Expected " +
-                                   _getPrintableChar (cExpected) +
+                                   getPrintableChar (cExpected) +
                                    " but got " +
-                                   _getPrintableChar (c) +
+                                   getPrintableChar (c) +
                                    " as part of JSON keyword \"" +
                                    sKeyword +
                                    "\"");
@@ -760,7 +834,7 @@ public class JsonParser
       }
       if (c == CJson.ARRAY_END)
         break;
-      throw _parseEx (aStartPos, "Unexpected character " + _getPrintableChar (c) + " in JSON array");
+      throw _parseEx (aStartPos, "Unexpected character " + getPrintableChar (c) + " in JSON array");
     }
     m_aCallback.onArrayEnd ();
   }
@@ -793,7 +867,7 @@ public class JsonParser
 
       c = _readChar ();
       if (c != CJson.NAME_VALUE_SEPARATOR)
-        throw _parseEx (aStartPos, "Expected colon character in JSON Object but found " + _getPrintableChar (c));
+        throw _parseEx (aStartPos, "Expected colon character in JSON Object but found " + getPrintableChar (c));
       m_aCallback.onObjectColon ();
 
       _skipSpaces ();
@@ -811,7 +885,7 @@ public class JsonParser
       }
       if (c == CJson.OBJECT_END)
         break;
-      throw _parseEx (aStartPos, "Unexpected character " + _getPrintableChar (c) + " in JSON Object");
+      throw _parseEx (aStartPos, "Unexpected character " + getPrintableChar (c) + " in JSON Object");
     }
     m_aCallback.onObjectEnd ();
   }
@@ -875,7 +949,7 @@ public class JsonParser
         _readObject ();
         break;
       default:
-        throw _parseEx (aStartPos, "Syntax error in JSON. Found " + _getPrintableChar (cFirst));
+        throw _parseEx (aStartPos, "Syntax error in JSON. Found " + getPrintableChar (cFirst));
     }
   }
 
@@ -887,6 +961,20 @@ public class JsonParser
    */
   public void parse () throws JsonParseException
   {
+    if (m_bUseBufferedInput)
+    {
+      m_aBufferedParser = new JsonBufferedParser (m_aSrcReader,
+                                                  m_aCallback,
+                                                  m_bTrackPosition,
+                                                  m_nTabSize,
+                                                  m_bAlwaysUseBigNumber,
+                                                  m_bRequireStringQuotes,
+                                                  m_bAllowSpecialCharsInStrings,
+                                                  JsonBufferedParser.DEFAULT_BUFFER_SIZE);
+      m_aBufferedParser.parse ();
+      return;
+    }
+
     _readValue ();
 
     // Check for trailing whitespaces
@@ -897,6 +985,6 @@ public class JsonParser
     // Check for expected end of input
     final int c = _readChar ();
     if (c != EOI)
-      throw _parseEx (aStartPos, "Invalid character " + _getPrintableChar (c) + " after JSON root object");
+      throw _parseEx (aStartPos, "Invalid character " + getPrintableChar (c) + " after JSON root object");
   }
 }
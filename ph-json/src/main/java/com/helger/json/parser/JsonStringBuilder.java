@@ -70,6 +70,30 @@ public class JsonStringBuilder implements Serializable
     m_aBuf[m_nLen++] = c;
   }
 
+  /**
+   * Append a range of chars.
+   *
+   * @param aChars
+   *        The source array. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the source array. Must be &ge; 0.
+   * @param nLen
+   *        Number of chars to append. Must be &ge; 0.
+   * @since 8.6.0
+   */
+  public void append (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
+  {
+    if (nLen > 0)
+    {
+      m_sCache = null;
+      final int nNewLen = m_nLen + nLen;
+      if (nNewLen > m_aBuf.length)
+        _expandCapacity (nNewLen);
+      System.arraycopy (aChars, nOfs, m_aBuf, m_nLen, nLen);
+      m_nLen = nNewLen;
+    }
+  }
+
   public boolean hasContent ()
   {
     return m_nLen > 0;
@@ -90,11 +114,13 @@ public class JsonStringBuilder implements Serializable
 
   public void reset ()
   {
+    m_sCache = null;
     m_nLen = 0;
   }
 
   public void backup (final int n)
   {
+    m_sCache = null;
     m_nLen -= n;
   }
 
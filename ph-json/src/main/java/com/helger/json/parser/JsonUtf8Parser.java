@@ -0,0 +1,1117 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.string.StringHelper;
+import com.helger.json.CJson;
+import com.helger.json.parser.handler.IJsonParserHandler;
+
+/**
+ * A JSON parser that works directly on UTF-8 encoded bytes. The input is
+ * either an {@link InputStream} (read in chunks into a reusable byte array), a
+ * byte array or a {@link ByteBuffer} (e.g. a memory mapped file). Only the
+ * content of strings and comments is decoded, all structural characters and
+ * numbers are processed on the raw ASCII bytes. The same
+ * {@link IJsonParserHandler} events as in {@link JsonParser} are emitted, so
+ * e.g. a {@link com.helger.json.parser.handler.CollectingJsonParserHandler}
+ * can be used to build an IJson tree. If position tracking is enabled, line
+ * and column numbers are reported in characters, as in {@link JsonParser}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class JsonUtf8Parser
+{
+  /** The default size of the input buffer in bytes */
+  public static final int DEFAULT_BUFFER_SIZE = 16 * CGlobal.BYTES_PER_KILOBYTE;
+
+  private static final int EOI = JsonParser.EOI;
+  private static final String NO_ORIGINAL = "";
+  private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+  // Constructor parameters
+  private final InputStream m_aIS;
+  private final ByteBuffer m_aBB;
+  private final IJsonParserHandler m_aCallback;
+
+  // Settings
+  private boolean m_bTrackPosition = false;
+  private int m_nTabSize = 8;
+  private boolean m_bAlwaysUseBigNumber = false;
+  private boolean m_bRequireStringQuotes = true;
+  private boolean m_bAllowSpecialCharsInStrings = false;
+
+  // The input buffer. For chunked input, index 0 always contains the last byte
+  // of the previous chunk, so that a single byte can always be unread.
+  private final byte [] m_aBuf;
+  private int m_nPos;
+  private int m_nLimit;
+  // The absolute offset of m_aBuf[0]
+  private long m_nBufOffset = 0;
+  private boolean m_bEOI;
+
+  // Status variables
+  private boolean m_bOriginalStringRequired;
+  private final JsonStringBuilder m_aSB1 = new JsonStringBuilder (256);
+  private final JsonStringBuilder m_aSB2 = new JsonStringBuilder (256);
+  private byte [] m_aBytes = new byte [256];
+  private int m_nBytesLen = 0;
+  private String m_sOriginal;
+  // Lazy position tracking - null if disabled
+  private JsonParsePositionTracker m_aPosTracker;
+
+  private JsonUtf8Parser (@Nonnull final IJsonParserHandler aCallback,
+                          final InputStream aIS,
+                          final ByteBuffer aBB,
+                          @Nonnull final byte [] aBuf,
+                          final int nPos,
+                          final int nLimit,
+                          final boolean bEOI)
+  {
+    ValueEnforcer.notNull (aCallback, "Callback");
+    m_aIS = aIS;
+    m_aBB = aBB;
+    m_aCallback = aCallback;
+    m_aBuf = aBuf;
+    m_nPos = nPos;
+    m_nLimit = nLimit;
+    m_bEOI = bEOI;
+  }
+
+  /**
+   * Constructor for parsing an {@link InputStream} that is read in chunks.
+   *
+   * @param aIS
+   *        The input stream to read from. Must be UTF-8 encoded and should not
+   *        contain a BOM. It is not closed by this class. May not be
+   *        <code>null</code>.
+   * @param aCallback
+   *        The handler to be invoked. May not be <code>null</code>.
+   */
+  public JsonUtf8Parser (@Nonnull @WillNotClose final InputStream aIS, @Nonnull final IJsonParserHandler aCallback)
+  {
+    this (aCallback,
+          ValueEnforcer.notNull (aIS, "InputStream"),
+          null,
+          new byte [DEFAULT_BUFFER_SIZE + 1],
+          0,
+          0,
+          false);
+  }
+
+  /**
+   * Constructor for parsing a complete byte array. The array is used directly
+   * and not copied.
+   *
+   * @param aBytes
+   *        The UTF-8 encoded bytes to parse. May not be <code>null</code>.
+   * @param aCallback
+   *        The handler to be invoked. May not be <code>null</code>.
+   */
+  public JsonUtf8Parser (@Nonnull final byte [] aBytes, @Nonnull final IJsonParserHandler aCallback)
+  {
+    this (aBytes, 0, aBytes.length, aCallback);
+  }
+
+  /**
+   * Constructor for parsing a part of a byte array. The array is used directly
+   * and not copied.
+   *
+   * @param aBytes
+   *        The UTF-8 encoded bytes to parse. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset into the array. Must be &ge; 0.
+   * @param nLen
+   *        The number of bytes to parse. Must be &ge; 0.
+   * @param aCallback
+   *        The handler to be invoked. May not be <code>null</code>.
+   */
+  public JsonUtf8Parser (@Nonnull final byte [] aBytes,
+                         @Nonnegative final int nOfs,
+                         @Nonnegative final int nLen,
+                         @Nonnull final IJsonParserHandler aCallback)
+  {
+    this (aCallback, null, null, _checkArray (aBytes, nOfs, nLen), nOfs, nOfs + nLen, true);
+  }
+
+  /**
+   * Constructor for parsing the remaining content of a {@link ByteBuffer}. If
+   * the buffer is backed by an array, the array is used directly. Otherwise
+   * (e.g. for direct or memory mapped buffers) the content is copied in chunks.
+   * The position of the passed buffer is not modified.
+   *
+   * @param aBB
+   *        The UTF-8 encoded byte buffer to parse. May not be
+   *        <code>null</code>.
+   * @param aCallback
+   *        The handler to be invoked. May not be <code>null</code>.
+   */
+  public JsonUtf8Parser (@Nonnull final ByteBuffer aBB, @Nonnull final IJsonParserHandler aCallback)
+  {
+    this (aCallback,
+          null,
+          aBB.hasArray () ? null : aBB.duplicate (),
+          aBB.hasArray () ? aBB.array () : new byte [DEFAULT_BUFFER_SIZE + 1],
+          aBB.hasArray () ? aBB.arrayOffset () + aBB.position () : 0,
+          aBB.hasArray () ? aBB.arrayOffset () + aBB.limit () : 0,
+          aBB.hasArray ());
+  }
+
+  @Nonnull
+  private static byte [] _checkArray (@Nonnull final byte [] aBytes,
+                                      @Nonnegative final int nOfs,
+                                      @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aBytes, nOfs, nLen);
+    return aBytes;
+  }
+
+  public boolean isTrackPosition ()
+  {
+    return m_bTrackPosition;
+  }
+
+  @Nonnull
+  public JsonUtf8Parser setTrackPosition (final boolean bTrackPosition)
+  {
+    m_bTrackPosition = bTrackPosition;
+    return this;
+  }
+
+  @Nonnegative
+  public int getTabSize ()
+  {
+    return m_nTabSize;
+  }
+
+  @Nonnull
+  public JsonUtf8Parser setTabSize (@Nonnegative final int nTabSize)
+  {
+    ValueEnforcer.isGT0 (nTabSize, "TabSize");
+    m_nTabSize = nTabSize;
+    return this;
+  }
+
+  public boolean isAlwaysUseBigNumber ()
+  {
+    return m_bAlwaysUseBigNumber;
+  }
+
+  @Nonnull
+  public JsonUtf8Parser setAlwaysUseBigNumber (final boolean bAlwaysUseBigNumber)
+  {
+    m_bAlwaysUseBigNumber = bAlwaysUseBigNumber;
+    return this;
+  }
+
+  public boolean isRequireStringQuotes ()
+  {
+    return m_bRequireStringQuotes;
+  }
+
+  @Nonnull
+  public JsonUtf8Parser setRequireStringQuotes (final boolean bRequireStringQuotes)
+  {
+    m_bRequireStringQuotes = bRequireStringQuotes;
+    return this;
+  }
+
+  public boolean isAllowSpecialCharsInStrings ()
+  {
+    return m_bAllowSpecialCharsInStrings;
+  }
+
+  @Nonnull
+  public JsonUtf8Parser setAllowSpecialCharsInStrings (final boolean bAllowSpecialCharsInStrings)
+  {
+    m_bAllowSpecialCharsInStrings = bAllowSpecialCharsInStrings;
+    return this;
+  }
+
+  private void _pushTokenStart ()
+  {
+    if (m_aPosTracker != null)
+      m_aPosTracker.pushTokenStart (m_nBufOffset + m_nPos);
+  }
+
+  private void _popTokenStart ()
+  {
+    if (m_aPosTracker != null)
+      m_aPosTracker.popTokenStart ();
+  }
+
+  /**
+   * @return The current parse position. Only updated if position tracking is
+   *         enabled.
+   */
+  @Nonnull
+  public IJsonParsePosition getPosition ()
+  {
+    if (m_aPosTracker == null)
+      return new JsonParsePosition ();
+    m_aPosTracker.advance (m_aBuf, m_nBufOffset, m_nBufOffset + m_nPos);
+    return m_aPosTracker.getPosition ();
+  }
+
+  @Nonnull
+  private JsonParseException _parseEx (@Nonnull final String sMsg)
+  {
+    if (m_aPosTracker == null)
+      return new JsonParseException (sMsg);
+
+    // Resolves all open token starts as well
+    m_aPosTracker.advance (m_aBuf, m_nBufOffset, m_nBufOffset + m_nPos);
+    return m_aPosTracker.createParseException (sMsg);
+  }
+
+  /**
+   * Read the next chunk of input. May only be called if the current buffer is
+   * exhausted.
+   *
+   * @return <code>false</code> if the end of input was reached.
+   */
+  private boolean _fill ()
+  {
+    if (m_bEOI)
+      return false;
+
+    // Keep the last byte for unreading
+    final int nKeep = m_nLimit > 0 ? 1 : 0;
+    final int nDiscard = m_nLimit - nKeep;
+    if (m_aPosTracker != null)
+      m_aPosTracker.advance (m_aBuf, m_nBufOffset, m_nBufOffset + nDiscard);
+    if (nKeep > 0)
+      m_aBuf[0] = m_aBuf[m_nLimit - 1];
+    m_nBufOffset += nDiscard;
+    m_nPos = nKeep;
+    m_nLimit = nKeep;
+
+    int nRead;
+    if (m_aIS != null)
+    {
+      try
+      {
+        do
+        {
+          nRead = m_aIS.read (m_aBuf, nKeep, m_aBuf.length - nKeep);
+        } while (nRead == 0);
+      }
+      catch (final IOException ex)
+      {
+        nRead = -1;
+      }
+    }
+    else
+    {
+      nRead = Math.min (m_aBB.remaining (), m_aBuf.length - nKeep);
+      if (nRead == 0)
+        nRead = -1;
+      else
+        m_aBB.get (m_aBuf, nKeep, nRead);
+    }
+
+    if (nRead < 0)
+    {
+      m_bEOI = true;
+      return false;
+    }
+    m_nLimit = nKeep + nRead;
+    return true;
+  }
+
+  private int _peekByte ()
+  {
+    if (m_nPos == m_nLimit && !_fill ())
+      return EOI;
+    return m_aBuf[m_nPos] & 0xff;
+  }
+
+  private int _readByte ()
+  {
+    if (m_nPos == m_nLimit && !_fill ())
+      return EOI;
+    return m_aBuf[m_nPos++] & 0xff;
+  }
+
+  private void _unreadByte (final int c)
+  {
+    if (c != EOI)
+      m_nPos--;
+  }
+
+  private static boolean _isWhitespace (final int c)
+  {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+  }
+
+  private static boolean _isSpecialStringChar (final int c)
+  {
+    return c <= '\r' && (c == '\b' || c == '\t' || c == '\n' || c == '\f' || c == '\r');
+  }
+
+  private void _appendBytes (@Nonnull final byte [] aSrc, final int nOfs, final int nLen)
+  {
+    if (nLen > 0)
+    {
+      final int nNewLen = m_nBytesLen + nLen;
+      if (nNewLen > m_aBytes.length)
+        m_aBytes = Arrays.copyOf (m_aBytes, Math.max (nNewLen, m_aBytes.length * 2));
+      System.arraycopy (aSrc, nOfs, m_aBytes, m_nBytesLen, nLen);
+      m_nBytesLen = nNewLen;
+    }
+  }
+
+  private void _appendByte (final int b)
+  {
+    if (m_nBytesLen == m_aBytes.length)
+      m_aBytes = Arrays.copyOf (m_aBytes, m_aBytes.length * 2);
+    m_aBytes[m_nBytesLen++] = (byte) b;
+  }
+
+  /**
+   * Decode all collected bytes as UTF-8 into the passed builder(s) and clear
+   * the collected bytes. Malformed sequences are replaced with U+FFFD.
+   *
+   * @param aDst1
+   *        The first builder to append to. May not be <code>null</code>.
+   * @param aDst2
+   *        The optional second builder to append to. May be <code>null</code>.
+   */
+  private void _flushBytes (@Nonnull final JsonStringBuilder aDst1, final JsonStringBuilder aDst2)
+  {
+    final byte [] aBytes = m_aBytes;
+    final int nLen = m_nBytesLen;
+    int i = 0;
+    while (i < nLen)
+    {
+      final int b = aBytes[i] & 0xff;
+      if (b < 0x80)
+      {
+        aDst1.append ((char) b);
+        if (aDst2 != null)
+          aDst2.append ((char) b);
+        ++i;
+        continue;
+      }
+
+      int nTrail;
+      int nCP;
+      int nMin;
+      if (b >= 0xc2 && b <= 0xdf)
+      {
+        nTrail = 1;
+        nCP = b & 0x1f;
+        nMin = 0x80;
+      }
+      else
+        if (b >= 0xe0 && b <= 0xef)
+        {
+          nTrail = 2;
+          nCP = b & 0x0f;
+          nMin = 0x800;
+        }
+        else
+          if (b >= 0xf0 && b <= 0xf4)
+          {
+            nTrail = 3;
+            nCP = b & 0x07;
+            nMin = 0x10000;
+          }
+          else
+          {
+            // Invalid lead byte
+            nTrail = 0;
+            nCP = -1;
+            nMin = 0;
+          }
+
+      // Consume all valid trailing bytes
+      int nConsumed = 1;
+      while (nConsumed <= nTrail && i + nConsumed < nLen && (aBytes[i + nConsumed] & 0xc0) == 0x80)
+      {
+        nCP = (nCP << 6) | (aBytes[i + nConsumed] & 0x3f);
+        ++nConsumed;
+      }
+
+      if (nConsumed <= nTrail || nCP < nMin || nCP > Character.MAX_CODE_POINT || (nCP >= 0xd800 && nCP <= 0xdfff))
+      {
+        // Malformed input
+        aDst1.append (REPLACEMENT_CHAR);
+        if (aDst2 != null)
+          aDst2.append (REPLACEMENT_CHAR);
+        i += nConsumed;
+        continue;
+      }
+
+      if (nCP < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+      {
+        aDst1.append ((char) nCP);
+        if (aDst2 != null)
+          aDst2.append ((char) nCP);
+      }
+      else
+      {
+        final char cHigh = Character.highSurrogate (nCP);
+        final char cLow = Character.lowSurrogate (nCP);
+        aDst1.append (cHigh);
+        aDst1.append (cLow);
+        if (aDst2 != null)
+        {
+          aDst2.append (cHigh);
+          aDst2.append (cLow);
+        }
+      }
+      i += nConsumed;
+    }
+    m_nBytesLen = 0;
+  }
+
+  private void _readComment () throws JsonParseException
+  {
+    _pushTokenStart ();
+    m_nBytesLen = 0;
+
+    while (true)
+    {
+      if (m_nPos == m_nLimit && !_fill ())
+        throw _parseEx ("Unclosed JSON comment at end of input");
+
+      final byte [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      final int nStart = m_nPos;
+      int i = nStart;
+      while (i < nLimit && aBuf[i] != '*')
+        ++i;
+      _appendBytes (aBuf, nStart, i - nStart);
+      m_nPos = i;
+
+      if (i < nLimit)
+      {
+        // Skip the '*'
+        m_nPos++;
+        final int c2 = _peekByte ();
+        if (c2 == '/')
+        {
+          // End of comment!
+          m_nPos++;
+          final JsonStringBuilder aStrComment = m_aSB2;
+          aStrComment.reset ();
+          _flushBytes (aStrComment, null);
+          m_aCallback.onComment (aStrComment.getAsString ());
+          _popTokenStart ();
+          return;
+        }
+        if (c2 == EOI)
+          throw _parseEx ("Unclosed JSON comment at end of input");
+        _appendByte ('*');
+      }
+    }
+  }
+
+  private void _skipSpaces () throws JsonParseException
+  {
+    final JsonStringBuilder aStrSpaces = m_aSB1;
+    aStrSpaces.reset ();
+
+    while (m_nPos < m_nLimit || _fill ())
+    {
+      final byte [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      int i = m_nPos;
+      while (i < nLimit && _isWhitespace (aBuf[i]))
+      {
+        aStrSpaces.append ((char) aBuf[i]);
+        ++i;
+      }
+      m_nPos = i;
+
+      if (i < nLimit)
+      {
+        // Non-whitespace byte found - check for comment
+        if (aBuf[i] != '/')
+          break;
+
+        m_nPos++;
+        if (_peekByte () != '*')
+        {
+          // No comment - unread the '/'
+          m_nPos--;
+          break;
+        }
+        m_nPos++;
+
+        if (aStrSpaces.hasContent ())
+        {
+          // Notify on previous whitespaces
+          m_aCallback.onWhitespace (aStrSpaces.getAsString ());
+          aStrSpaces.reset ();
+        }
+        _readComment ();
+      }
+    }
+
+    if (aStrSpaces.hasContent ())
+      m_aCallback.onWhitespace (aStrSpaces.getAsString ());
+  }
+
+  private int _getHexValue (final int c) throws JsonParseException
+  {
+    final int ret = c == EOI ? -1 : StringHelper.getHexValue ((char) c);
+    if (ret == -1)
+      throw _parseEx ("Invalid hex character " + JsonParser.getPrintableChar (c) + " provided!");
+    return ret;
+  }
+
+  private void _readStringEscapeChar (@Nonnull final JsonStringBuilder aStrUnescaped,
+                                      final boolean bOriginal,
+                                      @Nonnull final JsonStringBuilder aStrOriginal) throws JsonParseException
+  {
+    final int c2 = _readByte ();
+    if (bOriginal)
+      aStrOriginal.append ((char) c2);
+    switch (c2)
+    {
+      case '"':
+      case '/':
+      case '\\':
+        aStrUnescaped.append ((char) c2);
+        break;
+      case 'b':
+        aStrUnescaped.append ('\b');
+        break;
+      case 'f':
+        aStrUnescaped.append ('\f');
+        break;
+      case 'n':
+        aStrUnescaped.append ('\n');
+        break;
+      case 'r':
+        aStrUnescaped.append ('\r');
+        break;
+      case 't':
+        aStrUnescaped.append ('\t');
+        break;
+      case 'u':
+      {
+        int nUnescapedChar = 0;
+        for (int i = 0; i < 4; ++i)
+        {
+          final int c = _readByte ();
+          nUnescapedChar = (nUnescapedChar << 4) | _getHexValue (c);
+          if (bOriginal)
+            aStrOriginal.append ((char) c);
+        }
+        aStrUnescaped.append ((char) nUnescapedChar);
+        break;
+      }
+      default:
+        throw _parseEx ("Invalid JSON String escape character " + JsonParser.getPrintableChar (c2));
+    }
+  }
+
+  /**
+   * Read a quoted or unquoted string. The original string is stored in
+   * {@link #m_sOriginal}.
+   *
+   * @param cQuoteChar
+   *        The quote char to use.
+   * @return The unescaped string without leading and trailing quotes.
+   * @throws JsonParseException
+   *         on error
+   */
+  @Nonnull
+  private String _readString (final char cQuoteChar) throws JsonParseException
+  {
+    _pushTokenStart ();
+    final boolean bOriginal = m_bOriginalStringRequired;
+    final JsonStringBuilder aStrUnescaped = m_aSB1;
+    final JsonStringBuilder aStrOriginal = bOriginal ? m_aSB2 : null;
+    aStrUnescaped.reset ();
+    if (bOriginal)
+    {
+      aStrOriginal.reset ();
+      aStrOriginal.append (cQuoteChar);
+    }
+    m_nBytesLen = 0;
+
+    final int cStart = _readByte ();
+    final boolean bStringIsQuoted = cStart == cQuoteChar;
+    if (!bStringIsQuoted)
+    {
+      if (m_bRequireStringQuotes)
+        throw _parseEx ("Invalid JSON String start character " +
+                        JsonParser.getPrintableChar (cStart) +
+                        " - expected " +
+                        JsonParser.getPrintableChar (cQuoteChar));
+      _unreadByte (cStart);
+    }
+
+    while (true)
+    {
+      if (m_nPos == m_nLimit && !_fill ())
+        throw _parseEx ("Unclosed JSON String at end of input");
+
+      // Scan all regular bytes
+      final byte [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      final int nStart = m_nPos;
+      int i = nStart;
+      if (bStringIsQuoted)
+      {
+        while (i < nLimit)
+        {
+          final byte b = aBuf[i];
+          if (b == cQuoteChar || b == '\\' || _isSpecialStringChar (b))
+            break;
+          ++i;
+        }
+
+        if (i < nLimit && aBuf[i] == cQuoteChar && m_nBytesLen == 0 && aStrUnescaped.getLength () == 0)
+        {
+          // Shortcut: the whole string is contained in the buffer
+          final String ret = new String (aBuf, nStart, i - nStart, CCharset.CHARSET_UTF_8_OBJ);
+          m_nPos = i + 1;
+          m_sOriginal = bOriginal ? cQuoteChar + ret + cQuoteChar : NO_ORIGINAL;
+          _popTokenStart ();
+          return ret;
+        }
+      }
+      else
+      {
+        while (i < nLimit)
+        {
+          final byte b = aBuf[i];
+          if (b == '\\' || !JsonParser.isUnquotedStringValidChar (b))
+            break;
+          ++i;
+        }
+      }
+
+      _appendBytes (aBuf, nStart, i - nStart);
+      m_nPos = i;
+      if (i == nLimit)
+      {
+        // Buffer exhausted
+        continue;
+      }
+
+      final int c = aBuf[i] & 0xff;
+      m_nPos++;
+
+      if (c == '\\')
+      {
+        // Escape char
+        _flushBytes (aStrUnescaped, aStrOriginal);
+        if (bOriginal)
+          aStrOriginal.append ('\\');
+        _readStringEscapeChar (aStrUnescaped, bOriginal, aStrOriginal);
+        continue;
+      }
+
+      if (_isSpecialStringChar (c) && !m_bAllowSpecialCharsInStrings)
+        throw _parseEx ("Invalid JSON String character " + JsonParser.getPrintableChar (c));
+
+      if (bStringIsQuoted)
+      {
+        if (c == cQuoteChar)
+        {
+          // End of quoted string
+          _flushBytes (aStrUnescaped, aStrOriginal);
+          break;
+        }
+        // Allowed special char
+        _appendByte (c);
+      }
+      else
+      {
+        // End of unquoted string
+        _unreadByte (c);
+        _flushBytes (aStrUnescaped, aStrOriginal);
+
+        if (aStrUnescaped.getLength () == 0)
+          throw _parseEx ("Empty unquoted JSON String encountered");
+        break;
+      }
+    }
+
+    if (bOriginal)
+    {
+      aStrOriginal.append (cQuoteChar);
+      m_sOriginal = aStrOriginal.getAsString ();
+    }
+    else
+      m_sOriginal = NO_ORIGINAL;
+    _popTokenStart ();
+    return aStrUnescaped.getAsString ();
+  }
+
+  /**
+   * Append all digits at the current position to the passed builder.
+   *
+   * @param aStrNumber
+   *        The builder to append to. May not be <code>null</code>.
+   * @return The number of appended digits.
+   */
+  private int _readDigits (@Nonnull final JsonStringBuilder aStrNumber)
+  {
+    int ret = 0;
+    while (m_nPos < m_nLimit || _fill ())
+    {
+      final byte [] aBuf = m_aBuf;
+      final int nLimit = m_nLimit;
+      int i = m_nPos;
+      while (i < nLimit && aBuf[i] >= '0' && aBuf[i] <= '9')
+      {
+        aStrNumber.append ((char) aBuf[i]);
+        ++i;
+      }
+      ret += i - m_nPos;
+      m_nPos = i;
+      if (i < nLimit)
+        break;
+    }
+    return ret;
+  }
+
+  private void _readNumber () throws JsonParseException
+  {
+    _pushTokenStart ();
+    final JsonStringBuilder aStrNumber = m_aSB1;
+    aStrNumber.reset ();
+
+    int c = _readByte ();
+    final boolean bNeg = c == '-';
+    if (bNeg)
+    {
+      // Leading minus?
+      // Note: leading plus is not allowed
+      aStrNumber.append ('-');
+      c = _readByte ();
+    }
+
+    // The integer value is calculated negative, as the negative range is larger
+    long nValue = 0;
+    int nDigits = 1;
+    if (c == '0')
+    {
+      // No additional numbers allowed
+      aStrNumber.append ('0');
+    }
+    else
+      if (c >= '1' && c <= '9')
+      {
+        aStrNumber.append ((char) c);
+        nValue = '0' - c;
+        while (m_nPos < m_nLimit || _fill ())
+        {
+          final byte [] aBuf = m_aBuf;
+          final int nLimit = m_nLimit;
+          int i = m_nPos;
+          while (i < nLimit && aBuf[i] >= '0' && aBuf[i] <= '9')
+          {
+            final byte b = aBuf[i];
+            aStrNumber.append ((char) b);
+            // Max 18 digits always fit into a long
+            if (nDigits < 18)
+              nValue = nValue * 10 + ('0' - b);
+            nDigits++;
+            ++i;
+          }
+          m_nPos = i;
+          if (i < nLimit)
+            break;
+        }
+      }
+      else
+        throw _parseEx ("Invalid JSON Number start character " + JsonParser.getPrintableChar (c));
+    c = _readByte ();
+
+    final boolean bIsDecimal = c == '.';
+    if (bIsDecimal)
+    {
+      // read decimal part
+      aStrNumber.append ('.');
+      if (_readDigits (aStrNumber) == 0)
+        throw _parseEx ("Missing digits after decimal point in JSON Number '" + aStrNumber.getAsString () + "'");
+      c = _readByte ();
+    }
+
+    final boolean bHasExponent = c == 'e' || c == 'E';
+    boolean bHasPositiveExponent = false;
+    if (bHasExponent)
+    {
+      // read exponent
+      aStrNumber.append ((char) c);
+      c = _readByte ();
+
+      // Any char other than "-" means the exponent is positive
+      bHasPositiveExponent = c != '-';
+
+      if (c == '+' || c == '-')
+        aStrNumber.append ((char) c);
+      else
+        _unreadByte (c);
+
+      if (_readDigits (aStrNumber) == 0)
+        throw _parseEx ("Missing digits after exponent sign in JSON Number '" + aStrNumber.getAsString () + "'");
+      c = _readByte ();
+    }
+
+    // Backup last (unused) byte
+    _unreadByte (c);
+
+    Number aNum;
+    if (!bIsDecimal && !bHasExponent && !m_bAlwaysUseBigNumber && nDigits <= 18)
+    {
+      // Directly use the calculated value
+      final long r = bNeg ? nValue : -nValue;
+      if (r >= Integer.MIN_VALUE && r <= Integer.MAX_VALUE)
+        aNum = Integer.valueOf ((int) r);
+      else
+        aNum = Long.valueOf (r);
+    }
+    else
+      try
+      {
+        aNum = JsonParser.parseNumber (aStrNumber,
+                                       bIsDecimal,
+                                       bHasExponent,
+                                       bHasPositiveExponent,
+                                       m_bAlwaysUseBigNumber);
+      }
+      catch (final NumberFormatException ex)
+      {
+        throw _parseEx ("Invalid JSON Number '" + aStrNumber.getAsString () + "'");
+      }
+    _popTokenStart ();
+    m_aCallback.onNumber (m_bOriginalStringRequired ? aStrNumber.getAsString () : NO_ORIGINAL, aNum);
+  }
+
+  private void _expect (@Nonnull final String sKeyword) throws JsonParseException
+  {
+    _pushTokenStart ();
+    for (int i = 0; i < sKeyword.length (); ++i)
+    {
+      final char cExpected = sKeyword.charAt (i);
+      final int c = _readByte ();
+      if (c != cExpected)
+        throw _parseEx ("Expected " +
+                        JsonParser.getPrintableChar (cExpected) +
+                        " but got " +
+                        JsonParser.getPrintableChar (c) +
+                        " as part of JSON keyword \"" +
+                        sKeyword +
+                        "\"");
+    }
+    _popTokenStart ();
+  }
+
+  private void _readArray () throws JsonParseException
+  {
+    _pushTokenStart ();
+    m_aCallback.onArrayStart ();
+    int nIndex = 0;
+    while (true)
+    {
+      _skipSpaces ();
+
+      // Check for empty array
+      int c = _readByte ();
+      if (c == CJson.ARRAY_END)
+      {
+        if (nIndex != 0)
+          throw _parseEx ("Expected another element in JSON Array");
+        break;
+      }
+      _unreadByte (c);
+
+      _readValue ();
+
+      _skipSpaces ();
+
+      c = _readByte ();
+      if (c == CJson.ITEM_SEPARATOR)
+      {
+        ++nIndex;
+        m_aCallback.onArrayNextElement ();
+        continue;
+      }
+      if (c == CJson.ARRAY_END)
+        break;
+      throw _parseEx ("Unexpected character " + JsonParser.getPrintableChar (c) + " in JSON array");
+    }
+    m_aCallback.onArrayEnd ();
+    _popTokenStart ();
+  }
+
+  private void _readObject () throws JsonParseException
+  {
+    _pushTokenStart ();
+    m_aCallback.onObjectStart ();
+    int nIndex = 0;
+    while (true)
+    {
+      _skipSpaces ();
+
+      // Check for empty object
+      int c = _readByte ();
+      if (c == CJson.OBJECT_END)
+      {
+        if (nIndex != 0)
+          throw _parseEx ("Expected another element in JSON Object");
+        break;
+      }
+      _unreadByte (c);
+
+      final String sName = _readString (c == '\'' ? '\'' : '"');
+      m_aCallback.onObjectName (m_sOriginal, sName);
+
+      _skipSpaces ();
+
+      c = _readByte ();
+      if (c != CJson.NAME_VALUE_SEPARATOR)
+        throw _parseEx ("Expected colon character in JSON Object but found " + JsonParser.getPrintableChar (c));
+      m_aCallback.onObjectColon ();
+
+      _skipSpaces ();
+
+      _readValue ();
+
+      _skipSpaces ();
+
+      c = _readByte ();
+      if (c == CJson.ITEM_SEPARATOR)
+      {
+        ++nIndex;
+        m_aCallback.onObjectNextElement ();
+        continue;
+      }
+      if (c == CJson.OBJECT_END)
+        break;
+      throw _parseEx ("Unexpected character " + JsonParser.getPrintableChar (c) + " in JSON Object");
+    }
+    m_aCallback.onObjectEnd ();
+    _popTokenStart ();
+  }
+
+  private void _readValue () throws JsonParseException
+  {
+    _skipSpaces ();
+
+    _pushTokenStart ();
+    final int cFirst = _peekByte ();
+    switch (cFirst)
+    {
+      case '\'':
+      case '"':
+      {
+        final String sString = _readString ((char) cFirst);
+        m_aCallback.onString (m_sOriginal, sString);
+        break;
+      }
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        _readNumber ();
+        break;
+      case 't':
+        _expect (CJson.KEYWORD_TRUE);
+        m_aCallback.onTrue ();
+        break;
+      case 'f':
+        _expect (CJson.KEYWORD_FALSE);
+        m_aCallback.onFalse ();
+        break;
+      case 'n':
+        _expect (CJson.KEYWORD_NULL);
+        m_aCallback.onNull ();
+        break;
+      case CJson.ARRAY_START:
+        m_nPos++;
+        _readArray ();
+        break;
+      case CJson.OBJECT_START:
+        m_nPos++;
+        _readObject ();
+        break;
+      default:
+        if (cFirst != EOI)
+          m_nPos++;
+        throw _parseEx ("Syntax error in JSON. Found " + JsonParser.getPrintableChar (cFirst));
+    }
+    _popTokenStart ();
+  }
+
+  /**
+   * Main parsing routine. A leading UTF-8 BOM is skipped for byte array and
+   * byte buffer input. May only be called once per instance.
+   *
+   * @throws JsonParseException
+   *         In case a parse error occurs.
+   */
+  public void parse () throws JsonParseException
+  {
+    m_bOriginalStringRequired = m_aCallback.isOriginalStringRequired ();
+
+    if (m_aIS == null &&
+        _peekByte () == 0xef &&
+        m_nLimit - m_nPos >= 3 &&
+        (m_aBuf[m_nPos + 1] & 0xff) == 0xbb &&
+        (m_aBuf[m_nPos + 2] & 0xff) == 0xbf)
+    {
+      // Skip UTF-8 BOM
+      m_nPos += 3;
+    }
+    if (m_bTrackPosition)
+      m_aPosTracker = new JsonParsePositionTracker (m_nTabSize, m_nBufOffset + m_nPos);
+
+    _readValue ();
+
+    // Check for trailing whitespaces
+    _skipSpaces ();
+
+    _pushTokenStart ();
+
+    // Check for expected end of input
+    final int c = _readByte ();
+    if (c != EOI)
+      throw _parseEx ("Invalid character " + JsonParser.getPrintableChar (c) + " after JSON root object");
+    _popTokenStart ();
+  }
+}
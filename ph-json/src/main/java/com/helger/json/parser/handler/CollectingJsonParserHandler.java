@@ -144,6 +144,13 @@ public class CollectingJsonParserHandler implements IJsonParserHandler
     m_aStack.pop ();
   }
 
+  @Override
+  public boolean isOriginalStringRequired ()
+  {
+    // Only the unescaped values are used
+    return false;
+  }
+
   @Nullable
   public IJson getJson ()
   {
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser.handler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.NonBlockingStack;
+import com.helger.json.CompactJsonArray;
+import com.helger.json.CompactJsonObject;
+import com.helger.json.IJson;
+import com.helger.json.JsonValue;
+
+/**
+ * This {@link IJsonParserHandler} constructs the whole JSON tree while parsing
+ * it, using the memory efficient immutable {@link CompactJsonArray} and
+ * {@link CompactJsonObject} classes. The resulting JSON object can be
+ * retrieved via {@link #getJson()}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class CompactJsonParserHandler implements IJsonParserHandler
+{
+  private IJson m_aJson;
+  // Contains either CompactJsonArray.Builder or CompactJsonObject.Builder
+  private final NonBlockingStack <Object> m_aStack = new NonBlockingStack <> ();
+  private final NonBlockingStack <String> m_aObjectName = new NonBlockingStack <> ();
+
+  @Nullable
+  private CompactJsonArray.Builder _getArrayParent ()
+  {
+    if (m_aStack.isEmpty ())
+      return null;
+    final Object aParent = m_aStack.peek ();
+    return aParent instanceof CompactJsonArray.Builder ? (CompactJsonArray.Builder) aParent : null;
+  }
+
+  private void _addJson (@Nonnull final IJson aValue)
+  {
+    if (m_aStack.isEmpty ())
+      m_aJson = aValue;
+    else
+    {
+      final CompactJsonArray.Builder aArray = _getArrayParent ();
+      if (aArray != null)
+        aArray.add (aValue);
+      else
+        ((CompactJsonObject.Builder) m_aStack.peek ()).add (m_aObjectName.pop (), aValue);
+    }
+  }
+
+  public void onWhitespace (@Nonnull @Nonempty final String sWhitespace)
+  {}
+
+  public void onComment (@Nonnull final String sComment)
+  {}
+
+  public void onString (@Nonnull final String sString, @Nonnull final String sUnescaped)
+  {
+    if (m_aStack.isEmpty ())
+      m_aJson = JsonValue.create (sUnescaped);
+    else
+    {
+      final CompactJsonArray.Builder aArray = _getArrayParent ();
+      if (aArray != null)
+        aArray.add (sUnescaped);
+      else
+        ((CompactJsonObject.Builder) m_aStack.peek ()).add (m_aObjectName.pop (), sUnescaped);
+    }
+  }
+
+  public void onNumber (@Nonnull final String sNumber, @Nonnull final Number aNumber)
+  {
+    if (m_aStack.isEmpty ())
+      m_aJson = JsonValue.create (aNumber);
+    else
+    {
+      final CompactJsonArray.Builder aArray = _getArrayParent ();
+      if (aArray != null)
+        aArray.add (aNumber);
+      else
+        ((CompactJsonObject.Builder) m_aStack.peek ()).add (m_aObjectName.pop (), aNumber);
+    }
+  }
+
+  public void onFalse ()
+  {
+    _addJson (JsonValue.FALSE);
+  }
+
+  public void onTrue ()
+  {
+    _addJson (JsonValue.TRUE);
+  }
+
+  public void onNull ()
+  {
+    _addJson (JsonValue.NULL);
+  }
+
+  public void onArrayStart ()
+  {
+    m_aStack.push (new CompactJsonArray.Builder ());
+  }
+
+  public void onArrayNextElement ()
+  {}
+
+  public void onArrayEnd ()
+  {
+    final CompactJsonArray.Builder aBuilder = (CompactJsonArray.Builder) m_aStack.pop ();
+    _addJson (aBuilder.build ());
+  }
+
+  public void onObjectStart ()
+  {
+    m_aStack.push (new CompactJsonObject.Builder ());
+  }
+
+  public void onObjectName (@Nonnull final String sString, @Nonnull final String sName)
+  {
+    m_aObjectName.push (sName);
+  }
+
+  public void onObjectColon ()
+  {}
+
+  public void onObjectNextElement ()
+  {}
+
+  public void onObjectEnd ()
+  {
+    final CompactJsonObject.Builder aBuilder = (CompactJsonObject.Builder) m_aStack.pop ();
+    _addJson (aBuilder.build ());
+  }
+
+  @Override
+  public boolean isOriginalStringRequired ()
+  {
+    // Only the unescaped values are used
+    return false;
+  }
+
+  /**
+   * @return The read JSON or <code>null</code> if nothing was read or if
+   *         parsing was not finished.
+   */
+  @Nullable
+  public IJson getJson ()
+  {
+    return m_aJson;
+  }
+}
@@ -75,4 +75,11 @@ public class DoNothingJsonParserHandler implements IJsonParserHandler
 
   public void onObjectEnd ()
   {}
+
+  @Override
+  public boolean isOriginalStringRequired ()
+  {
+    // Nothing is used
+    return false;
+  }
 }
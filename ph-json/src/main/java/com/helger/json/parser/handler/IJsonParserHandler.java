@@ -131,4 +131,21 @@ public interface IJsonParserHandler
    * {@link #onObjectStart()} was called.
    */
   void onObjectEnd ();
+
+  /**
+   * Check if the original string representations passed to
+   * {@link #onString(String, String)}, {@link #onNumber(String, Number)} and
+   * {@link #onObjectName(String, String)} are needed by this handler. If not,
+   * the buffered parsing engine (see
+   * {@link com.helger.json.parser.JsonParser#setUseBufferedInput(boolean)})
+   * may pass an empty string instead, to avoid creating them.
+   *
+   * @return <code>true</code> if the original strings are required. The
+   *         default is <code>true</code>.
+   * @since 8.6.0
+   */
+  default boolean isOriginalStringRequired ()
+  {
+    return true;
+  }
 }
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.util.function.Function;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -44,13 +45,17 @@ import com.helger.commons.io.stream.NonBlockingStringReader;
 import com.helger.commons.io.stream.StreamHelper;
 import com.helger.commons.state.ESuccess;
 import com.helger.commons.state.EValidity;
+import com.helger.json.CompactJsonArray;
+import com.helger.json.CompactJsonObject;
 import com.helger.json.IJson;
 import com.helger.json.parser.IJsonParserCustomizeCallback;
 import com.helger.json.parser.JsonParseException;
 import com.helger.json.parser.JsonParser;
+import com.helger.json.parser.JsonUtf8Parser;
 import com.helger.json.parser.errorhandler.IJsonParseExceptionCallback;
 import com.helger.json.parser.errorhandler.LoggingJsonParseExceptionCallback;
 import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.parser.handler.CompactJsonParserHandler;
 import com.helger.json.parser.handler.DoNothingJsonParserHandler;
 import com.helger.json.parser.handler.IJsonParserHandler;
 
@@ -105,6 +110,24 @@ public final class JsonReader
     });
   }
 
+  @Nullable
+  private static IJson _collectJson (@Nonnull final Function <IJsonParserHandler, ESuccess> aParser,
+                                     final boolean bCompact)
+  {
+    if (bCompact)
+    {
+      final CompactJsonParserHandler aHandler = new CompactJsonParserHandler ();
+      if (aParser.apply (aHandler).isFailure ())
+        return null;
+      return aHandler.getJson ();
+    }
+
+    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler ();
+    if (aParser.apply (aHandler).isFailure ())
+      return null;
+    return aHandler.getJson ();
+  }
+
   /**
    * Simple JSON parse method taking only the most basic parameters.
    *
@@ -170,6 +193,49 @@ public final class JsonReader
     }
   }
 
+  /**
+   * JSON parse method for UTF-8 encoded input streams. The bytes are parsed
+   * directly without decoding them to characters first, using
+   * {@link JsonUtf8Parser}.
+   *
+   * @param aIS
+   *        The UTF-8 encoded input stream to read from. Should not contain a
+   *        BOM. Is automatically closed. May not be <code>null</code>.
+   * @param aParserHandler
+   *        The parser handler. May not be <code>null</code>.
+   * @param aCustomExceptionCallback
+   *        A custom handler for unrecoverable errors. May be <code>null</code>.
+   * @return {@link ESuccess}
+   * @since 8.6.0
+   */
+  @Nonnull
+  public static ESuccess parseJsonUtf8 (@Nonnull @WillClose final InputStream aIS,
+                                        @Nonnull final IJsonParserHandler aParserHandler,
+                                        @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aParserHandler, "ParserHandler");
+
+    try
+    {
+      new JsonUtf8Parser (aIS, aParserHandler).parse ();
+      return ESuccess.SUCCESS;
+    }
+    catch (final JsonParseException ex)
+    {
+      // Unrecoverable error
+      if (aCustomExceptionCallback != null)
+        aCustomExceptionCallback.onException (ex);
+      else
+        getDefaultParseExceptionCallback ().onException (ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
+
   /**
    * Validate a JSON without building the tree in memory.
    *
@@ -185,7 +251,7 @@ public final class JsonReader
     // Force silent parsing :)
     final ESuccess eSuccess = parseJson (aReader,
                                          new DoNothingJsonParserHandler (),
-                                         (IJsonParserCustomizeCallback) null,
+                                         aParser -> aParser.setUseBufferedInput (true),
                                          ex -> {});
     return EValidity.valueOf (eSuccess.isSuccess ());
   }
@@ -325,6 +391,12 @@ public final class JsonReader
 
     try
     {
+      if (aCharsetToUse.equals (CCharset.CHARSET_UTF_8_OBJ))
+      {
+        // Parse the bytes directly
+        return parseJsonUtf8 (aISToUse, new DoNothingJsonParserHandler (), ex -> {}).isSuccess ();
+      }
+
       final Reader aReader = StreamHelper.getBuffered (StreamHelper.createReader (aISToUse, aCharsetToUse));
 
       return isValidJson (aReader);
@@ -381,6 +453,10 @@ public final class JsonReader
    *        <code>null</code>.
    * @param aCustomExceptionCallback
    *        A custom handler for unrecoverable errors. May be <code>null</code>.
+   * @param bCompact
+   *        <code>true</code> to create {@link CompactJsonArray} and
+   *        {@link CompactJsonObject}, <code>false</code> to create the mutable
+   *        default classes.
    * @return <code>null</code> if parsing failed with an unrecoverable error
    *         (and no throwing exception handler is used), or <code>null</code>
    *         if a recoverable error occurred or non-<code>null</code> if parsing
@@ -388,12 +464,14 @@ public final class JsonReader
    */
   @Nullable
   private static IJson _readJson (@Nonnull @WillClose final Reader aReader,
-                                  @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+                                  @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback,
+                                  final boolean bCompact)
   {
-    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler ();
-    if (parseJson (aReader, aHandler, (IJsonParserCustomizeCallback) null, aCustomExceptionCallback).isFailure ())
-      return null;
-    return aHandler.getJson ();
+    return _collectJson (aHandler -> parseJson (aReader,
+                                                aHandler,
+                                                aParser -> aParser.setUseBufferedInput (true),
+                                                aCustomExceptionCallback),
+                         bCompact);
   }
 
   /**
@@ -677,6 +755,15 @@ public final class JsonReader
   public static IJson readFromStream (@Nonnull final InputStream aIS,
                                       @Nonnull final Charset aFallbackCharset,
                                       @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+  {
+    return _readFromStream (aIS, aFallbackCharset, aCustomExceptionCallback, false);
+  }
+
+  @Nullable
+  private static IJson _readFromStream (@Nonnull final InputStream aIS,
+                                        @Nonnull final Charset aFallbackCharset,
+                                        @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback,
+                                        final boolean bCompact)
   {
     ValueEnforcer.notNull (aIS, "InputStream");
     ValueEnforcer.notNull (aFallbackCharset, "FallbackCharset");
@@ -694,9 +781,15 @@ public final class JsonReader
 
     try
     {
+      if (aCharsetToUse.equals (CCharset.CHARSET_UTF_8_OBJ))
+      {
+        // Parse the bytes directly
+        return _collectJson (aHandler -> parseJsonUtf8 (aISToUse, aHandler, aCustomExceptionCallback), bCompact);
+      }
+
       final Reader aReader = StreamHelper.getBuffered (StreamHelper.createReader (aISToUse, aCharsetToUse));
 
-      return _readJson (aReader, aCustomExceptionCallback);
+      return _readJson (aReader, aCustomExceptionCallback, bCompact);
     }
     finally
     {
@@ -738,6 +831,110 @@ public final class JsonReader
 
     // No charset determination, as the Reader already has an implicit Charset
 
-    return _readJson (StreamHelper.getBuffered (aReader), aCustomExceptionCallback);
+    return _readJson (StreamHelper.getBuffered (aReader), aCustomExceptionCallback, false);
+  }
+
+  /**
+   * Read the Json from the passed String into the immutable and memory
+   * efficient {@link CompactJsonArray} and {@link CompactJsonObject} classes.
+   * This is recommended for large JSON documents that are kept in memory and
+   * are not modified.
+   *
+   * @param sJson
+   *        The source string containing the Json to be parsed. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the Json declarations
+   *         otherwise.
+   * @since 8.6.0
+   */
+  @Nullable
+  public static IJson readCompactFromString (@Nonnull final String sJson)
+  {
+    return readCompactFromReader (new NonBlockingStringReader (sJson), null);
+  }
+
+  /**
+   * Read the Json from the passed File into the immutable and memory efficient
+   * {@link CompactJsonArray} and {@link CompactJsonObject} classes.
+   *
+   * @param aFile
+   *        The file containing the Json to be parsed. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the Json declarations
+   *         otherwise.
+   * @since 8.6.0
+   */
+  @Nullable
+  public static IJson readCompactFromFile (@Nonnull final File aFile)
+  {
+    return readCompactFromStream (new FileSystemResource (aFile));
+  }
+
+  /**
+   * Read the Json from the passed {@link IHasInputStream} into the immutable
+   * and memory efficient {@link CompactJsonArray} and
+   * {@link CompactJsonObject} classes, using the default charset.
+   *
+   * @param aISP
+   *        The input stream to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the Json declarations
+   *         otherwise.
+   * @since 8.6.0
+   */
+  @Nullable
+  public static IJson readCompactFromStream (@Nonnull final IHasInputStream aISP)
+  {
+    ValueEnforcer.notNull (aISP, "InputStreamProvider");
+    final InputStream aIS = aISP.getInputStream ();
+    if (aIS == null)
+      return null;
+    return readCompactFromStream (aIS, DEFAULT_CHARSET, null);
+  }
+
+  /**
+   * Read the Json from the passed {@link InputStream} into the immutable and
+   * memory efficient {@link CompactJsonArray} and {@link CompactJsonObject}
+   * classes.
+   *
+   * @param aIS
+   *        The input stream to use. May not be <code>null</code>.
+   * @param aFallbackCharset
+   *        The charset to be used in case no BOM is present. May not be
+   *        <code>null</code>.
+   * @param aCustomExceptionCallback
+   *        An optional custom exception handler that can be used to collect the
+   *        unrecoverable parsing errors. May be <code>null</code>.
+   * @return <code>null</code> if reading failed, the Json declarations
+   *         otherwise.
+   * @since 8.6.0
+   */
+  @Nullable
+  public static IJson readCompactFromStream (@Nonnull final InputStream aIS,
+                                             @Nonnull final Charset aFallbackCharset,
+                                             @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+  {
+    return _readFromStream (aIS, aFallbackCharset, aCustomExceptionCallback, true);
+  }
+
+  /**
+   * Read the Json from the passed {@link Reader} into the immutable and memory
+   * efficient {@link CompactJsonArray} and {@link CompactJsonObject} classes.
+   *
+   * @param aReader
+   *        The reader to use. May not be <code>null</code>.
+   * @param aCustomExceptionCallback
+   *        An optional custom exception handler that can be used to collect the
+   *        unrecoverable parsing errors. May be <code>null</code>.
+   * @return <code>null</code> if reading failed, the Json declarations
+   *         otherwise.
+   * @since 8.6.0
+   */
+  @Nullable
+  public static IJson readCompactFromReader (@Nonnull final Reader aReader,
+                                             @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+
+    return _readJson (StreamHelper.getBuffered (aReader), aCustomExceptionCallback, true);
   }
 }
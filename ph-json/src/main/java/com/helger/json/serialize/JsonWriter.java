@@ -17,10 +17,17 @@
 package com.helger.json.serialize;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Map;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.WillClose;
 import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -29,7 +36,6 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.io.stream.NonBlockingStringWriter;
 import com.helger.commons.io.stream.StreamHelper;
-import com.helger.commons.string.StringHelper;
 import com.helger.json.CJson;
 import com.helger.json.IJson;
 import com.helger.json.IJsonArray;
@@ -48,6 +54,8 @@ import com.helger.json.valueserializer.JsonValueSerializerEscaped;
 public class JsonWriter
 {
   private final IJsonWriterSettings m_aSettings;
+  // Indent strings by level - lazily filled
+  private String [] m_aIndentCache = new String [16];
 
   public JsonWriter ()
   {
@@ -71,104 +79,159 @@ public class JsonWriter
     return m_aSettings.getClone ();
   }
 
-  private void _writeToWriter (@Nonnull final IJson aJson,
-                               @Nonnull @WillNotClose final Writer aWriter,
-                               final int nIndentLevel) throws IOException
+  /**
+   * The iteration state of a single array or object that is currently written.
+   */
+  private static final class WriteFrame
   {
-    ValueEnforcer.notNull (aJson, "Json");
+    private final Iterator <IJson> m_aArrayIter;
+    private final Iterator <Map.Entry <String, IJson>> m_aObjectIter;
+    private final int m_nIndentLevel;
+    private final boolean m_bIndentEnabled;
+    private boolean m_bFirst = true;
+
+    WriteFrame (@Nullable final Iterator <IJson> aArrayIter,
+                @Nullable final Iterator <Map.Entry <String, IJson>> aObjectIter,
+                final int nIndentLevel,
+                final boolean bIndentEnabled)
+    {
+      m_aArrayIter = aArrayIter;
+      m_aObjectIter = aObjectIter;
+      m_nIndentLevel = nIndentLevel;
+      m_bIndentEnabled = bIndentEnabled;
+    }
 
-    if (aJson.isValue ())
+    boolean isArray ()
     {
-      // Simple value
-      ((IJsonValue) aJson).appendAsJsonString (aWriter);
+      return m_aArrayIter != null;
     }
-    else
+
+    boolean hasNext ()
     {
-      // Complex (array or object)
-      final boolean bIsIndentEnabled = m_aSettings.isIdentEnabled () && ((IJsonCollection) aJson).isNotEmpty ();
-      final String sSingleIndent = m_aSettings.getIndentString ();
-      final String sIndentString = bIsIndentEnabled ? StringHelper.getRepeated (sSingleIndent, nIndentLevel) : "";
-      final String sNestedIndentString = bIsIndentEnabled ? sIndentString + sSingleIndent : "";
-      final String sNewlineString = bIsIndentEnabled ? m_aSettings.getNewlineString () : "";
-      final boolean bQuoteNames = m_aSettings.isQuoteNames ();
-
-      if (aJson.isArray ())
-      {
-        aWriter.write (CJson.ARRAY_START);
+      return m_aArrayIter != null ? m_aArrayIter.hasNext () : m_aObjectIter.hasNext ();
+    }
+  }
 
-        if (bIsIndentEnabled)
-          aWriter.write (sNewlineString);
+  /**
+   * @param nIndentLevel
+   *        The indentation level. Must be &ge; 0.
+   * @return The indent string for the provided level. Created only once per
+   *         level and writer.
+   */
+  @Nonnull
+  private String _getIndentString (@Nonnegative final int nIndentLevel)
+  {
+    if (nIndentLevel >= m_aIndentCache.length)
+      m_aIndentCache = Arrays.copyOf (m_aIndentCache, Math.max (nIndentLevel + 1, m_aIndentCache.length * 2));
 
-        int nIndex = 0;
-        for (final IJson aChild : (IJsonArray) aJson)
-        {
-          if (nIndex++ > 0)
-          {
-            aWriter.write (CJson.ITEM_SEPARATOR);
+    String ret = m_aIndentCache[nIndentLevel];
+    if (ret == null)
+    {
+      ret = nIndentLevel == 0 ? "" : _getIndentString (nIndentLevel - 1) + m_aSettings.getIndentString ();
+      m_aIndentCache[nIndentLevel] = ret;
+    }
+    return ret;
+  }
 
-            if (bIsIndentEnabled)
-              aWriter.write (sNewlineString);
-          }
+  @Nonnull
+  private WriteFrame _openCollection (@Nonnull final IJson aJson,
+                                      @Nonnegative final int nIndentLevel,
+                                      @Nonnull @WillNotClose final Writer aWriter) throws IOException
+  {
+    final boolean bIndentEnabled = m_aSettings.isIdentEnabled () && ((IJsonCollection) aJson).isNotEmpty ();
+    final WriteFrame ret;
+    if (aJson.isArray ())
+    {
+      aWriter.write (CJson.ARRAY_START);
+      ret = new WriteFrame (((IJsonArray) aJson).iterator (), null, nIndentLevel, bIndentEnabled);
+    }
+    else
+    {
+      // Must be an object
+      aWriter.write (CJson.OBJECT_START);
+      ret = new WriteFrame (null, ((IJsonObject) aJson).iterator (), nIndentLevel, bIndentEnabled);
+    }
 
-          if (bIsIndentEnabled)
-            aWriter.write (sNestedIndentString);
+    if (bIndentEnabled)
+      aWriter.write (m_aSettings.getNewlineString ());
+    return ret;
+  }
 
-          _writeToWriter (aChild, aWriter, nIndentLevel + 1);
-        }
+  private void _writeToWriter (@Nonnull final IJson aJson,
+                               @Nonnull @WillNotClose final Writer aWriter) throws IOException
+  {
+    ValueEnforcer.notNull (aJson, "Json");
 
+    if (aJson.isValue ())
+    {
+      // Simple value
+      ((IJsonValue) aJson).appendAsJsonString (aWriter);
+      return;
+    }
+
+    // Complex (array or object)
+    // Use an explicit stack instead of recursion so that arbitrarily deep
+    // structures can be written
+    final String sNewlineString = m_aSettings.getNewlineString ();
+    final boolean bQuoteNames = m_aSettings.isQuoteNames ();
+    final Deque <WriteFrame> aStack = new ArrayDeque <> ();
+    aStack.push (_openCollection (aJson, 0, aWriter));
+
+    while (!aStack.isEmpty ())
+    {
+      final WriteFrame aFrame = aStack.peek ();
+      if (!aFrame.hasNext ())
+      {
         // Newline after the last entry
-        if (bIsIndentEnabled)
+        if (aFrame.m_bIndentEnabled)
         {
-          aWriter.write (m_aSettings.getNewlineString ());
-          aWriter.write (sIndentString);
+          aWriter.write (sNewlineString);
+          aWriter.write (_getIndentString (aFrame.m_nIndentLevel));
         }
 
-        aWriter.write (CJson.ARRAY_END);
+        aWriter.write (aFrame.isArray () ? CJson.ARRAY_END : CJson.OBJECT_END);
+        aStack.pop ();
+        continue;
       }
+
+      if (aFrame.m_bFirst)
+        aFrame.m_bFirst = false;
       else
       {
-        // Must be an object
-        aWriter.write (CJson.OBJECT_START);
+        aWriter.write (CJson.ITEM_SEPARATOR);
 
-        if (bIsIndentEnabled)
+        if (aFrame.m_bIndentEnabled)
           aWriter.write (sNewlineString);
+      }
 
-        int nIndex = 0;
-        for (final Map.Entry <String, IJson> aEntry : (IJsonObject) aJson)
-        {
-          if (nIndex++ > 0)
-          {
-            aWriter.write (CJson.ITEM_SEPARATOR);
-
-            if (bIsIndentEnabled)
-              aWriter.write (sNewlineString);
-          }
-
-          if (bIsIndentEnabled)
-            aWriter.write (sNestedIndentString);
-
-          // Object name
-          if (bQuoteNames)
-            JsonValueSerializerEscaped.appendEscapedJsonString (aEntry.getKey (), aWriter);
-          else
-            JsonEscapeHelper.jsonEscapeToWriter (aEntry.getKey (), aWriter);
+      if (aFrame.m_bIndentEnabled)
+        aWriter.write (_getIndentString (aFrame.m_nIndentLevel + 1));
 
-          // Name value separator
-          aWriter.write (CJson.NAME_VALUE_SEPARATOR);
+      final IJson aChild;
+      if (aFrame.isArray ())
+        aChild = aFrame.m_aArrayIter.next ();
+      else
+      {
+        final Map.Entry <String, IJson> aEntry = aFrame.m_aObjectIter.next ();
 
-          // Object value
-          _writeToWriter (aEntry.getValue (), aWriter, nIndentLevel + 1);
-        }
+        // Object name
+        if (bQuoteNames)
+          JsonValueSerializerEscaped.appendEscapedJsonString (aEntry.getKey (), aWriter);
+        else
+          JsonEscapeHelper.jsonEscapeToWriter (aEntry.getKey (), aWriter);
 
-        // Newline after the last entry
-        if (bIsIndentEnabled)
-        {
-          aWriter.write (sNewlineString);
-          aWriter.write (sIndentString);
-        }
+        // Name value separator
+        aWriter.write (CJson.NAME_VALUE_SEPARATOR);
 
-        aWriter.write (CJson.OBJECT_END);
+        // Object value
+        aChild = aEntry.getValue ();
       }
+
+      ValueEnforcer.notNull (aChild, "Json");
+      if (aChild.isValue ())
+        ((IJsonValue) aChild).appendAsJsonString (aWriter);
+      else
+        aStack.push (_openCollection (aChild, aFrame.m_nIndentLevel + 1, aWriter));
     }
   }
 
@@ -177,7 +240,7 @@ public class JsonWriter
     ValueEnforcer.notNull (aJson, "Json");
     ValueEnforcer.notNull (aWriter, "Writer");
 
-    _writeToWriter (aJson, aWriter, 0);
+    _writeToWriter (aJson, aWriter);
 
     if (m_aSettings.isWriteNewlineAtEnd ())
       aWriter.write (m_aSettings.getNewlineString ());
@@ -199,6 +262,61 @@ public class JsonWriter
     }
   }
 
+  /**
+   * Write the passed JSON as UTF-8 bytes to the provided stream. The chars are
+   * encoded directly into an internal byte buffer, so this is the fastest way
+   * to serialize large JSON structures to a file or a network stream.
+   *
+   * @param aJson
+   *        The JSON to be written. May not be <code>null</code>.
+   * @param aOS
+   *        The stream to write to. May not be <code>null</code>. The stream
+   *        is flushed but not closed.
+   * @throws IOException
+   *         In case writing fails
+   * @since 8.6.0
+   */
+  public void writeToStream (@Nonnull final IJson aJson, @Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.notNull (aJson, "Json");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    final Utf8BufferedWriter aWriter = new Utf8BufferedWriter (aOS);
+    writeToWriter (aJson, aWriter);
+    aWriter.finish ();
+    aOS.flush ();
+  }
+
+  /**
+   * Write the passed JSON as UTF-8 bytes to the provided stream and close the
+   * stream afterwards.
+   *
+   * @param aJson
+   *        The JSON to be written. May not be <code>null</code>.
+   * @param aOS
+   *        The stream to write to. May not be <code>null</code>. The stream
+   *        is closed in any case.
+   * @throws IOException
+   *         In case writing fails
+   * @since 8.6.0
+   * @see #writeToStream(IJson, OutputStream)
+   */
+  public void writeToStreamAndClose (@Nonnull final IJson aJson,
+                                     @Nonnull @WillClose final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.notNull (aJson, "Json");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    try
+    {
+      writeToStream (aJson, aOS);
+    }
+    finally
+    {
+      StreamHelper.close (aOS);
+    }
+  }
+
   @Nonnull
   public String writeAsString (@Nonnull final IJson aJson)
   {
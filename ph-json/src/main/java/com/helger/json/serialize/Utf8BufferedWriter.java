@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.serialize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+
+/**
+ * A {@link Writer} that encodes all chars directly as UTF-8 into an internal
+ * byte buffer which is written to the underlying {@link OutputStream} en bloc.
+ * This avoids the overhead of a generic charset encoder and many small writes.
+ * Unpaired surrogates are written as '?' like {@link String#getBytes} does.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+final class Utf8BufferedWriter extends Writer
+{
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
+  private static final byte REPLACEMENT_BYTE = '?';
+
+  private final OutputStream m_aOS;
+  private final byte [] m_aBuf;
+  private int m_nPos = 0;
+  // The last high surrogate if the low surrogate is still missing or 0
+  private char m_cHighSurrogate = 0;
+
+  public Utf8BufferedWriter (@Nonnull @WillCloseWhenClosed final OutputStream aOS)
+  {
+    this (aOS, DEFAULT_BUFFER_SIZE);
+  }
+
+  public Utf8BufferedWriter (@Nonnull @WillCloseWhenClosed final OutputStream aOS,
+                             @Nonnegative final int nBufferSize)
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    // At least one 4-byte sequence must fit
+    ValueEnforcer.isTrue (nBufferSize >= 4, "BufferSize must be at least 4");
+    m_aOS = aOS;
+    m_aBuf = new byte [nBufferSize];
+  }
+
+  private void _flushBuffer () throws IOException
+  {
+    if (m_nPos > 0)
+    {
+      m_aOS.write (m_aBuf, 0, m_nPos);
+      m_nPos = 0;
+    }
+  }
+
+  private void _writeChar (final char c) throws IOException
+  {
+    if (m_aBuf.length - m_nPos < 4)
+      _flushBuffer ();
+
+    final byte [] aBuf = m_aBuf;
+    if (m_cHighSurrogate != 0)
+    {
+      final char cHigh = m_cHighSurrogate;
+      m_cHighSurrogate = 0;
+      if (Character.isLowSurrogate (c))
+      {
+        final int nCP = Character.toCodePoint (cHigh, c);
+        aBuf[m_nPos++] = (byte) (0xf0 | (nCP >> 18));
+        aBuf[m_nPos++] = (byte) (0x80 | ((nCP >> 12) & 0x3f));
+        aBuf[m_nPos++] = (byte) (0x80 | ((nCP >> 6) & 0x3f));
+        aBuf[m_nPos++] = (byte) (0x80 | (nCP & 0x3f));
+        return;
+      }
+      // Unpaired high surrogate
+      aBuf[m_nPos++] = REPLACEMENT_BYTE;
+      if (m_aBuf.length - m_nPos < 3)
+        _flushBuffer ();
+    }
+
+    if (c < 0x80)
+      aBuf[m_nPos++] = (byte) c;
+    else
+      if (c < 0x800)
+      {
+        aBuf[m_nPos++] = (byte) (0xc0 | (c >> 6));
+        aBuf[m_nPos++] = (byte) (0x80 | (c & 0x3f));
+      }
+      else
+        if (Character.isHighSurrogate (c))
+          m_cHighSurrogate = c;
+        else
+          if (Character.isLowSurrogate (c))
+          {
+            // Unpaired low surrogate
+            aBuf[m_nPos++] = REPLACEMENT_BYTE;
+          }
+          else
+          {
+            aBuf[m_nPos++] = (byte) (0xe0 | (c >> 12));
+            aBuf[m_nPos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            aBuf[m_nPos++] = (byte) (0x80 | (c & 0x3f));
+          }
+  }
+
+  @Override
+  public void write (final int c) throws IOException
+  {
+    _writeChar ((char) c);
+  }
+
+  @Override
+  public void write (@Nonnull final char [] aBuf, final int nOfs, final int nLen) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aBuf, nOfs, nLen);
+
+    final int nEnd = nOfs + nLen;
+    int i = nOfs;
+    while (i < nEnd)
+    {
+      // Fast path: copy ASCII chars directly
+      if (m_cHighSurrogate == 0)
+      {
+        final int nMax = Math.min (nEnd, i + m_aBuf.length - m_nPos);
+        char c;
+        while (i < nMax && (c = aBuf[i]) < 0x80)
+        {
+          m_aBuf[m_nPos++] = (byte) c;
+          ++i;
+        }
+      }
+      if (i < nEnd)
+        _writeChar (aBuf[i++]);
+    }
+  }
+
+  @Override
+  public void write (@Nonnull final String sStr, final int nOfs, final int nLen) throws IOException
+  {
+    final int nEnd = nOfs + nLen;
+    int i = nOfs;
+    while (i < nEnd)
+    {
+      // Fast path: copy ASCII chars directly
+      if (m_cHighSurrogate == 0)
+      {
+        final int nMax = Math.min (nEnd, i + m_aBuf.length - m_nPos);
+        char c;
+        while (i < nMax && (c = sStr.charAt (i)) < 0x80)
+        {
+          m_aBuf[m_nPos++] = (byte) c;
+          ++i;
+        }
+      }
+      if (i < nEnd)
+        _writeChar (sStr.charAt (i++));
+    }
+  }
+
+  @Override
+  public void write (@Nonnull final String sStr) throws IOException
+  {
+    write (sStr, 0, sStr.length ());
+  }
+
+  /**
+   * Write an unpaired trailing high surrogate and write the buffer to the
+   * underlying stream, without flushing the stream itself.
+   *
+   * @throws IOException
+   *         In case writing fails
+   */
+  public void finish () throws IOException
+  {
+    if (m_cHighSurrogate != 0)
+    {
+      m_cHighSurrogate = 0;
+      if (m_nPos == m_aBuf.length)
+        _flushBuffer ();
+      m_aBuf[m_nPos++] = REPLACEMENT_BYTE;
+    }
+    _flushBuffer ();
+  }
+
+  @Override
+  public void flush () throws IOException
+  {
+    _flushBuffer ();
+    m_aOS.flush ();
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    try
+    {
+      finish ();
+    }
+    finally
+    {
+      m_aOS.close ();
+    }
+  }
+}
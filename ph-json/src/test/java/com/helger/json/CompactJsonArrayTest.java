@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.mock.CommonsTestHelper;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Test class for class {@link CompactJsonArray}.
+ *
+ * @author Philip Helger
+ */
+public final class CompactJsonArrayTest
+{
+  @Test
+  public void testBuilder ()
+  {
+    final CompactJsonArray aArray = new CompactJsonArray.Builder ().add (5)
+                                                                   .add (Long.MAX_VALUE)
+                                                                   .add (3.1234)
+                                                                   .add ("str")
+                                                                   .add (true)
+                                                                   .add (false)
+                                                                   .addNull ()
+                                                                   .add (new BigDecimal ("1.5"))
+                                                                   .add (new JsonArray ().add (1).add ("x"))
+                                                                   .build ();
+    assertEquals (9, aArray.getSize ());
+    assertEquals ("[5," +
+                  Long.MAX_VALUE +
+                  ",3.1234,\"str\",true,false,null,1.5,[1,\"x\"]]",
+                  aArray.getAsJsonString ());
+    assertEquals (JsonValue.create (5), aArray.get (0));
+    assertEquals (JsonValue.create (Long.MAX_VALUE), aArray.get (1));
+    assertEquals (JsonValue.create (3.1234), aArray.get (2));
+    assertSame (JsonValue.TRUE, aArray.get (4));
+    assertSame (JsonValue.NULL, aArray.get (6));
+    assertTrue (aArray.get (8) instanceof CompactJsonArray);
+    assertNull (aArray.get (-1));
+    assertNull (aArray.get (9));
+    assertTrue (aArray.contains (5));
+    assertTrue (aArray.contains ("str"));
+    assertFalse (aArray.contains (6));
+    assertEquals (2, aArray.getSubArray (3, 5).getSize ());
+    assertEquals (9, aArray.getAll ().size ());
+
+    CommonsTestHelper.testDefaultImplementationWithEqualContentObject (aArray,
+                                                                       CompactJsonArray.createFrom (new JsonArray (aArray.getAll ())));
+    CommonsTestHelper.testDefaultImplementationWithDifferentContentObject (aArray,
+                                                                           new CompactJsonArray.Builder ().add (5)
+                                                                                                          .build ());
+    CommonsTestHelper.testGetClone (aArray);
+    // BigDecimal would be read back as Double
+    CommonsTestHelper.testDefaultSerialization (CompactJsonArray.createFrom (aArray.getSubArray (0, 7)));
+
+    final CompactJsonArray aEmpty = new CompactJsonArray.Builder ().build ();
+    assertTrue (aEmpty.isEmpty ());
+    assertEquals ("[]", aEmpty.getAsJsonString ());
+  }
+
+  @Test
+  public void testImmutable ()
+  {
+    final CompactJsonArray aArray = new CompactJsonArray.Builder ().add (1).build ();
+    try
+    {
+      aArray.add (2);
+      fail ();
+    }
+    catch (final UnsupportedOperationException ex)
+    {
+      // expected
+    }
+    try
+    {
+      aArray.removeAtIndex (0);
+      fail ();
+    }
+    catch (final UnsupportedOperationException ex)
+    {
+      // expected
+    }
+    assertEquals (1, aArray.getSize ());
+  }
+
+  @Test
+  public void testEqualsMutable ()
+  {
+    final IJsonArray aMutable = new JsonArray ().add (1).add ("x").add (new JsonObject ().add ("a", true));
+    // A subclass with the same content
+    final JsonArray aDerived = new JsonArray ()
+    {};
+    aDerived.add (1).add ("x").add (new JsonObject ().add ("a", true));
+    final CompactJsonArray aCompact = CompactJsonArray.createFrom (aMutable);
+
+    for (final IJsonArray aLeft : new IJsonArray [] { aMutable, aDerived, aCompact })
+      for (final IJsonArray aRight : new IJsonArray [] { aMutable, aDerived, aCompact })
+      {
+        assertEquals (aLeft, aRight);
+        assertEquals (aLeft.hashCode (), aRight.hashCode ());
+      }
+
+    final IJsonArray aOther = aMutable.getClone ().add (2);
+    assertFalse (aOther.equals (aCompact));
+    assertFalse (aCompact.equals (aOther));
+    assertFalse (aDerived.equals (aOther));
+    assertFalse (aMutable.equals (new JsonObject ()));
+  }
+
+  @Test
+  public void testReadCompact ()
+  {
+    final String sJson = "[1,-2,12345678901,1.5e3,123456789012345678901234567890,0.1,\"a\",{\"b\":[true,null]},[]]";
+    final IJson aDefault = JsonReader.readFromString (sJson);
+    assertTrue (aDefault instanceof JsonArray);
+
+    final IJson aCompact = JsonReader.readCompactFromString (sJson);
+    assertTrue (aCompact instanceof CompactJsonArray);
+    assertEquals (aDefault.getAsJsonString (), aCompact.getAsJsonString ());
+    assertEquals (JsonValue.create (new BigInteger ("123456789012345678901234567890")), aCompact.getAsArray ().get (4));
+    assertTrue (aCompact.getAsArray ().get (7) instanceof CompactJsonObject);
+
+    // Equal by content
+    assertEquals (aDefault, aCompact);
+    assertEquals (aCompact, aDefault);
+    assertEquals (aDefault.hashCode (), aCompact.hashCode ());
+    assertFalse (aCompact.equals (JsonReader.readFromString ("[1]")));
+    assertFalse (JsonReader.readFromString ("[1]").equals (aCompact));
+
+    // The mutable classes are not affected
+    CommonsTestHelper.testDefaultSerialization (aDefault);
+    assertTrue (JsonReader.readFromString (sJson) instanceof JsonArray);
+  }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.mock.CommonsTestHelper;
+import com.helger.json.parser.handler.CompactJsonParserHandler;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Test class for class {@link CompactJsonObject}.
+ *
+ * @author Philip Helger
+ */
+public final class CompactJsonObjectTest
+{
+  @Test
+  public void testBuilder ()
+  {
+    final CompactJsonObject aObj = new CompactJsonObject.Builder ().add ("i", 5)
+                                                                   .add ("l", 12345678901L)
+                                                                   .add ("d", 0.5)
+                                                                   .add ("s", "str")
+                                                                   .add ("t", true)
+                                                                   .addNull ("n")
+                                                                   .add ("o", new JsonObject ().add ("x", 1))
+                                                                   .build ();
+    assertEquals (7, aObj.getSize ());
+    assertEquals ("{\"i\":5,\"l\":12345678901,\"d\":0.5,\"s\":\"str\",\"t\":true,\"n\":null,\"o\":{\"x\":1}}",
+                  aObj.getAsJsonString ());
+    assertEquals (JsonValue.create (5), aObj.get ("i"));
+    assertEquals (5, aObj.getAsInt ("i"));
+    assertEquals ("str", aObj.getAsString ("s"));
+    assertSame (JsonValue.NULL, aObj.get ("n"));
+    assertTrue (aObj.get ("o") instanceof CompactJsonObject);
+    assertNull (aObj.get ("x"));
+    assertNull (aObj.get (null));
+    assertTrue (aObj.containsKey ("d"));
+    assertFalse (aObj.containsKey ("D"));
+    assertTrue (aObj.containsValue (JsonValue.create ("str")));
+    assertEquals (new CommonsArrayList <> ("i", "l", "d", "s", "t", "n", "o"), aObj.keySet ().getCopyAsList ());
+
+    CommonsTestHelper.testDefaultImplementationWithEqualContentObject (aObj,
+                                                                       CompactJsonObject.createFrom (new JsonObject (aObj.getAll ())));
+    CommonsTestHelper.testDefaultImplementationWithDifferentContentObject (aObj,
+                                                                           new CompactJsonObject.Builder ().add ("i",
+                                                                                                                 5)
+                                                                                                            .build ());
+    CommonsTestHelper.testGetClone (aObj);
+    CommonsTestHelper.testDefaultSerialization (aObj);
+
+    // Equal to the mutable implementation with the same content
+    final IJsonObject aMutable = new JsonObject ().add ("l", 12345678901L)
+                                                  .add ("i", 5)
+                                                  .add ("d", 0.5)
+                                                  .add ("s", "str")
+                                                  .add ("t", true)
+                                                  .add ("n", JsonValue.NULL)
+                                                  .add ("o", new JsonObject ().add ("x", 1));
+    assertEquals (aMutable, aObj);
+    assertEquals (aObj, aMutable);
+    assertEquals (aMutable.hashCode (), aObj.hashCode ());
+    aMutable.add ("s", "other");
+    assertFalse (aMutable.equals (aObj));
+    assertFalse (aObj.equals (aMutable));
+
+    // Order is irrelevant for equality
+    CommonsTestHelper.testDefaultImplementationWithEqualContentObject (new CompactJsonObject.Builder ().add ("a", 1)
+                                                                                                       .add ("b", 2)
+                                                                                                       .build (),
+                                                                       new CompactJsonObject.Builder ().add ("b", 2)
+                                                                                                       .add ("a", 1)
+                                                                                                       .build ());
+  }
+
+  @Test
+  public void testLargeAndDuplicateKeys ()
+  {
+    for (final int nCount : new int [] { 3, CompactJsonObject.LINEAR_SEARCH_THRESHOLD, 9, 100, 1000 })
+    {
+      final CompactJsonObject.Builder aBuilder = new CompactJsonObject.Builder ();
+      final JsonObject aRef = new JsonObject ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        aBuilder.add ("key" + i, i);
+        aRef.add ("key" + i, i);
+      }
+      // Overwrite an existing key
+      aBuilder.add ("key0", "last");
+      aRef.add ("key0", "last");
+
+      final CompactJsonObject aObj = aBuilder.build ();
+      assertEquals (nCount, aObj.getSize ());
+      assertEquals (aRef.getAsJsonString (), aObj.getAsJsonString ());
+      for (int i = 1; i < nCount; ++i)
+        assertEquals (i, aObj.getAsInt ("key" + i));
+      assertEquals ("last", aObj.getAsString ("key0"));
+      assertNull (aObj.get ("key" + nCount));
+      assertEquals (aObj, CompactJsonObject.createFrom (aRef));
+    }
+  }
+
+  @Test
+  public void testEqualsMutable ()
+  {
+    final IJsonObject aMutable = new JsonObject ().add ("a", 1).add ("b", new JsonArray ().add ("x"));
+    // A subclass with the same content
+    final JsonObject aDerived = new JsonObject ()
+    {};
+    aDerived.add ("a", 1).add ("b", new JsonArray ().add ("x"));
+    final CompactJsonObject aCompact = CompactJsonObject.createFrom (aMutable);
+
+    for (final IJsonObject aLeft : new IJsonObject [] { aMutable, aDerived, aCompact })
+      for (final IJsonObject aRight : new IJsonObject [] { aMutable, aDerived, aCompact })
+      {
+        assertEquals (aLeft, aRight);
+        assertEquals (aLeft.hashCode (), aRight.hashCode ());
+      }
+
+    final IJsonObject aOther = aMutable.getClone ().add ("c", 2);
+    assertFalse (aOther.equals (aCompact));
+    assertFalse (aCompact.equals (aOther));
+    assertFalse (aDerived.equals (aOther));
+    assertFalse (aMutable.equals (new JsonArray ()));
+  }
+
+  @Test
+  public void testInternedKeys ()
+  {
+    final IJsonArray aArray = JsonReader.readFromString ("[{\"name\":1},{\"name\":2}]").getAsArray ();
+    final CompactJsonArray aCompact = CompactJsonArray.createFrom (aArray);
+    final String sKey1 = aCompact.get (0).getAsObject ().keySet ().getFirst ();
+    final String sKey2 = aCompact.get (1).getAsObject ().keySet ().getFirst ();
+    assertSame (sKey1, sKey2);
+  }
+
+  @Test
+  public void testImmutable ()
+  {
+    final CompactJsonObject aObj = new CompactJsonObject.Builder ().add ("a", 1).build ();
+    try
+    {
+      aObj.add ("b", 2);
+      fail ();
+    }
+    catch (final UnsupportedOperationException ex)
+    {
+      // expected
+    }
+    try
+    {
+      aObj.removeKey ("a");
+      fail ();
+    }
+    catch (final UnsupportedOperationException ex)
+    {
+      // expected
+    }
+    assertEquals (1, aObj.getSize ());
+  }
+
+  @Test
+  public void testReadFiles ()
+  {
+    for (final String sFile : new String [] { "json/sample.json",
+                                              "json/pass1.json",
+                                              "json/json-generator1.json",
+                                              "json/rfc7159.1.json" })
+    {
+      final IJson aDefault = JsonReader.readFromStream (new ClassPathResource (sFile));
+      final CompactJsonParserHandler aHandler = new CompactJsonParserHandler ();
+      assertTrue (JsonReader.parseJson (new ClassPathResource (sFile).getReader (JsonReader.DEFAULT_CHARSET),
+                                        aHandler)
+                            .isSuccess ());
+      final IJson aCompact = aHandler.getJson ();
+      assertEquals (sFile, aDefault.getAsJsonString (), aCompact.getAsJsonString ());
+    }
+  }
+}
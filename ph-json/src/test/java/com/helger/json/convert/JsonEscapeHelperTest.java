@@ -19,9 +19,12 @@ package com.helger.json.convert;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.IOException;
+
 import org.junit.Test;
 
 import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
 import com.helger.commons.string.StringHelper;
 import com.helger.json.serialize.JsonReader;
 
@@ -42,6 +45,21 @@ public final class JsonEscapeHelperTest
     assertEquals ("", JsonEscapeHelper.jsonEscape (""));
   }
 
+  @Test
+  public void testEscapeToWriter () throws IOException
+  {
+    for (final String s : new String [] { STRING_UNESCAPED, "", "abc", "\"", "a\"", "\"a", "\u00e4\\\u20ac\n" })
+    {
+      NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+      JsonEscapeHelper.jsonEscapeToWriter (s, aSW);
+      assertEquals (JsonEscapeHelper.jsonEscape (s), aSW.getAsString ());
+
+      aSW = new NonBlockingStringWriter ();
+      JsonEscapeHelper.jsonEscapeToWriter (s.toCharArray (), aSW);
+      assertEquals (JsonEscapeHelper.jsonEscape (s), aSW.getAsString ());
+    }
+  }
+
   @Test
   public void testUnscape ()
   {
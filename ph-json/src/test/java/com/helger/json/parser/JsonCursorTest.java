@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.json.IJson;
+import com.helger.json.IJsonObject;
+import com.helger.json.parser.handler.DoNothingJsonParserHandler;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Test class for class {@link JsonCursor}.
+ *
+ * @author Philip Helger
+ */
+public final class JsonCursorTest
+{
+  /**
+   * A reader that creates a big JSON array of records on the fly.
+   */
+  private static final class RecordReader extends Reader
+  {
+    private final int m_nRecords;
+    private int m_nIndex = -1;
+    private String m_sCurrent = "[";
+    private int m_nCurrentPos = 0;
+
+    RecordReader (final int nRecords)
+    {
+      m_nRecords = nRecords;
+    }
+
+    @Override
+    public int read (final char [] aBuf, final int nOfs, final int nLen)
+    {
+      if (m_nCurrentPos == m_sCurrent.length ())
+      {
+        m_nIndex++;
+        if (m_nIndex > m_nRecords)
+          return -1;
+        m_nCurrentPos = 0;
+        if (m_nIndex == m_nRecords)
+          m_sCurrent = "]";
+        else
+          m_sCurrent = (m_nIndex > 0 ? "," : "") +
+                       "{\"id\":" +
+                       m_nIndex +
+                       ",\"name\":\"record " +
+                       m_nIndex +
+                       "\",\"skip\":{\"a\":[1,2,3,{\"b\":null}],\"c\":\"text\"},\"ok\":true}";
+      }
+      final int nCount = Math.min (nLen, m_sCurrent.length () - m_nCurrentPos);
+      m_sCurrent.getChars (m_nCurrentPos, m_nCurrentPos + nCount, aBuf, nOfs);
+      m_nCurrentPos += nCount;
+      return nCount;
+    }
+
+    @Override
+    public void close ()
+    {}
+  }
+
+  @Nonnull
+  private static ICommonsList <EJsonToken> _getAllTokens (@Nonnull final String sJson) throws JsonParseException
+  {
+    final ICommonsList <EJsonToken> ret = new CommonsArrayList <> ();
+    final JsonCursor aCursor = new JsonCursor (new NonBlockingStringReader (sJson));
+    EJsonToken eToken;
+    while ((eToken = aCursor.nextToken ()) != null)
+      ret.add (eToken);
+    return ret;
+  }
+
+  @Test
+  public void testTokens () throws JsonParseException
+  {
+    assertEquals (new CommonsArrayList <> (EJsonToken.NUMBER), _getAllTokens (" 5 "));
+    assertEquals (new CommonsArrayList <> (EJsonToken.ARRAY_START, EJsonToken.ARRAY_END), _getAllTokens ("[ ]"));
+    assertEquals (new CommonsArrayList <> (EJsonToken.OBJECT_START,
+                                           EJsonToken.OBJECT_NAME,
+                                           EJsonToken.ARRAY_START,
+                                           EJsonToken.TRUE,
+                                           EJsonToken.FALSE,
+                                           EJsonToken.NULL,
+                                           EJsonToken.STRING,
+                                           EJsonToken.ARRAY_END,
+                                           EJsonToken.OBJECT_NAME,
+                                           EJsonToken.OBJECT_START,
+                                           EJsonToken.OBJECT_END,
+                                           EJsonToken.OBJECT_END),
+                  _getAllTokens ("/*x*/{\"a\" : [true, false, null, 'x'], \"b\":{}}"));
+
+    final JsonCursor aCursor = new JsonCursor (new NonBlockingStringReader ("{\"a\\tb\":-1.5e3,\"c\":\"d\\u0041\"}"));
+    assertEquals (EJsonToken.OBJECT_START, aCursor.nextToken ());
+    assertEquals (1, aCursor.getDepth ());
+    assertEquals (EJsonToken.OBJECT_NAME, aCursor.nextToken ());
+    assertEquals ("a\tb", aCursor.getString ());
+    assertEquals (EJsonToken.NUMBER, aCursor.nextToken ());
+    assertEquals (Double.valueOf (-1500), aCursor.getNumber ());
+    assertEquals (EJsonToken.OBJECT_NAME, aCursor.nextToken ());
+    assertEquals ("c", aCursor.getString ());
+    assertEquals (EJsonToken.STRING, aCursor.nextToken ());
+    assertEquals ("dA", aCursor.getString ());
+    assertEquals (EJsonToken.OBJECT_END, aCursor.nextToken ());
+    assertEquals (0, aCursor.getDepth ());
+    assertNull (aCursor.nextToken ());
+    assertNull (aCursor.nextToken ());
+
+    try
+    {
+      aCursor.getString ();
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadValueAsJson () throws JsonParseException
+  {
+    final String sJson = "[{\"a\":1,\"b\":[1,2,{\"c\":\"d\"}]}, 5, \"x\", [], {}, [[null]], true]";
+    final JsonCursor aCursor = new JsonCursor (new NonBlockingStringReader (sJson));
+    assertEquals (EJsonToken.ARRAY_START, aCursor.nextToken ());
+    final ICommonsList <IJson> aList = new CommonsArrayList <> ();
+    while (aCursor.nextToken () != EJsonToken.ARRAY_END)
+      aList.add (aCursor.readValueAsJson ());
+    assertNull (aCursor.nextToken ());
+    assertEquals (JsonReader.readFromString (sJson).getAsArray ().getAll (), aList);
+  }
+
+  @Test
+  public void testSkipChildren () throws JsonParseException
+  {
+    final String sJson = "{\"skip\":{\"a\":[1,{\"b\":'c'}],\"d\":[]},\"keep\":[1,2],\"skip2\":[[[]]],\"v\":5}";
+    final JsonCursor aCursor = new JsonCursor (new NonBlockingStringReader (sJson));
+    assertEquals (EJsonToken.OBJECT_START, aCursor.nextToken ());
+    final ICommonsList <String> aNames = new CommonsArrayList <> ();
+    while (aCursor.nextToken () == EJsonToken.OBJECT_NAME)
+    {
+      final String sName = aCursor.getString ();
+      aNames.add (sName);
+      aCursor.nextToken ();
+      if (sName.startsWith ("skip"))
+      {
+        aCursor.skipChildren ();
+        assertEquals (1, aCursor.getDepth ());
+      }
+      else
+        if (sName.equals ("keep"))
+          assertEquals (JsonReader.readFromString ("[1,2]"), aCursor.readValueAsJson ());
+        else
+          assertEquals (Integer.valueOf (5), aCursor.getNumber ());
+    }
+    assertEquals (EJsonToken.OBJECT_END, aCursor.getCurrentToken ());
+    assertEquals (new CommonsArrayList <> ("skip", "keep", "skip2", "v"), aNames);
+  }
+
+  @Test
+  public void testHugeArray () throws JsonParseException
+  {
+    final int nRecords = 50_000;
+    final JsonCursor aCursor = new JsonCursor (new RecordReader (nRecords));
+    assertEquals (EJsonToken.ARRAY_START, aCursor.nextToken ());
+    int nCount = 0;
+    while (aCursor.nextToken () == EJsonToken.OBJECT_START)
+    {
+      if ((nCount % 2) == 0)
+      {
+        final IJsonObject aObj = aCursor.readValueAsJson ().getAsObject ();
+        assertEquals (nCount, aObj.getAsInt ("id"));
+        assertEquals ("record " + nCount, aObj.getAsString ("name"));
+      }
+      else
+        aCursor.skipChildren ();
+      nCount++;
+    }
+    assertEquals (EJsonToken.ARRAY_END, aCursor.getCurrentToken ());
+    assertNull (aCursor.nextToken ());
+    assertEquals (nRecords, nCount);
+  }
+
+  @Test
+  public void testErrors ()
+  {
+    for (final String sJson : new String [] { "",
+                                              "/* open",
+                                              "\"open",
+                                              "\"\\x\"",
+                                              "-",
+                                              "1.",
+                                              "1e+",
+                                              "tru",
+                                              "[1,]",
+                                              "[1 2]",
+                                              "{\"a\":1,}",
+                                              "{\"a\" 1}",
+                                              "{\"a\":1 2}",
+                                              "{:1}",
+                                              "#",
+                                              "[1] x" })
+    {
+      String sExpected = null;
+      try
+      {
+        new JsonParser (new NonBlockingStringReader (sJson), new DoNothingJsonParserHandler ()).parse ();
+        fail (sJson);
+      }
+      catch (final JsonParseException ex)
+      {
+        sExpected = ex.getPureMessage ();
+      }
+
+      try
+      {
+        final JsonCursor aCursor = new JsonCursor (new NonBlockingStringReader (sJson));
+        while (aCursor.nextToken () != null)
+        {}
+        fail (sJson);
+      }
+      catch (final JsonParseException ex)
+      {
+        assertEquals (sJson, sExpected, ex.getPureMessage ());
+      }
+    }
+  }
+}
@@ -18,7 +18,11 @@ package com.helger.json.parser;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
@@ -31,6 +35,8 @@ import com.helger.commons.io.stream.NonBlockingStringReader;
 import com.helger.json.IJson;
 import com.helger.json.IJsonValue;
 import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.parser.handler.IJsonParserHandler;
+import com.helger.json.parser.handler.StringAssemblyJsonParserHandler;
 import com.helger.json.serialize.JsonReader;
 
 /**
@@ -93,4 +99,139 @@ public final class JsonParserTest
     assertEquals (1, sValue.length ());
     assertEquals ('\u1234', sValue.charAt (0));
   }
+
+  /**
+   * A reader that returns at most the provided number of chars per read call,
+   * to test the buffer boundary handling.
+   */
+  private static final class ChunkedReader extends NonBlockingStringReader
+  {
+    private final int m_nMaxChars;
+
+    ChunkedReader (@Nonnull final String sJson, final int nMaxChars)
+    {
+      super (sJson);
+      m_nMaxChars = nMaxChars;
+    }
+
+    @Override
+    public int read (final char [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      return super.read (aBuf, nOfs, Math.min (nLen, m_nMaxChars));
+    }
+  }
+
+  @Nonnull
+  private static JsonParser _createParser (@Nonnull final Reader aReader,
+                                           @Nonnull final IJsonParserHandler aHandler,
+                                           final boolean bBuffered)
+  {
+    return new JsonParser (aReader, aHandler).setUseBufferedInput (bBuffered)
+                                             .setRequireStringQuotes (false)
+                                             .setTrackPosition (true);
+  }
+
+  private static final String [] VALID = new String [] { "0",
+                                                          " -1 ",
+                                                          "\t\r\n[1, 2.5, -3e2, 4E+2, 5e-2, 12345678901234567890, -9223372036854775808]\n",
+                                                          "{}",
+                                                          "[]",
+                                                          "[true,false,null]",
+                                                          "\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\\u00e4\\uABCD\"",
+                                                          "'single'",
+                                                          "/* comment */ { /**/ \"a\" /* x * y ** */ : 1 , b:'x', \"c\\td\" : [ ] } /* end */",
+                                                          "{\"key\":{\"nested\":[{\"deep\":\"value with spaces and \\u0041\"}]}}",
+                                                          "[\"\", '', \"long string long string long string long string\"]" };
+
+  @Test
+  public void testBufferedInputSameEvents () throws JsonParseException
+  {
+    for (final String sJson : VALID)
+      for (final int nMaxChars : new int [] { 1, 2, 3, 7, 1000 })
+      {
+        final StringAssemblyJsonParserHandler aHdl1 = new StringAssemblyJsonParserHandler ();
+        _createParser (new NonBlockingStringReader (sJson), aHdl1, false).parse ();
+
+        final StringAssemblyJsonParserHandler aHdl2 = new StringAssemblyJsonParserHandler ();
+        _createParser (new ChunkedReader (sJson, nMaxChars), aHdl2, true).parse ();
+        assertEquals (sJson + " @ " + nMaxChars, aHdl1.getJsonString (), aHdl2.getJsonString ());
+
+        final CollectingJsonParserHandler aHdl3 = new CollectingJsonParserHandler ();
+        _createParser (new NonBlockingStringReader (sJson), aHdl3, false).parse ();
+
+        final CollectingJsonParserHandler aHdl4 = new CollectingJsonParserHandler ();
+        _createParser (new ChunkedReader (sJson, nMaxChars), aHdl4, true).parse ();
+        assertEquals (sJson + " @ " + nMaxChars, aHdl3.getJson (), aHdl4.getJson ());
+      }
+  }
+
+  @Test
+  public void testBufferedInputErrors ()
+  {
+    for (final String sJson : new String [] { "",
+                                              "/* open",
+                                              "/* open *",
+                                              "\"open",
+                                              "\"a\nb\"",
+                                              "\"\\x\"",
+                                              "\"\\u12g4\"",
+                                              "-",
+                                              "01",
+                                              "1.",
+                                              "1e",
+                                              "1e+",
+                                              "tru",
+                                              "nul!",
+                                              "[1,]",
+                                              "[1 2]",
+                                              "{\"a\":1,}",
+                                              "{\"a\" 1}",
+                                              "{\"a\":1 2}",
+                                              "{:1}",
+                                              "#",
+                                              "[1] x" })
+      for (final int nMaxChars : new int [] { 1, 1000 })
+      {
+        String sMsg1 = null;
+        try
+        {
+          _createParser (new NonBlockingStringReader (sJson), new CollectingJsonParserHandler (), false).parse ();
+          fail (sJson);
+        }
+        catch (final JsonParseException ex)
+        {
+          sMsg1 = ex.getPureMessage ();
+        }
+
+        String sMsg2 = null;
+        try
+        {
+          _createParser (new ChunkedReader (sJson, nMaxChars), new CollectingJsonParserHandler (), true).parse ();
+          fail (sJson);
+        }
+        catch (final JsonParseException ex)
+        {
+          sMsg2 = ex.getPureMessage ();
+          assertTrue (ex.getErrorLine () >= 1);
+        }
+        assertEquals (sJson, sMsg1, sMsg2);
+      }
+  }
+
+  @Test
+  public void testBufferedInputPosition ()
+  {
+    final String sJson = "{\n  \"a\" : 1,\r\n  \"b\" : x }";
+    for (final int nMaxChars : new int [] { 1, 3, 1000 })
+      try
+      {
+        _createParser (new ChunkedReader (sJson, nMaxChars), new CollectingJsonParserHandler (), true).parse ();
+        fail ();
+      }
+      catch (final JsonParseException ex)
+      {
+        assertEquals (3, ex.getErrorLine ());
+        assertEquals (3, ex.getTokenStartLine ());
+      }
+  }
 }
@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.json.IJson;
+import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.parser.handler.IJsonParserHandler;
+import com.helger.json.parser.handler.StringAssemblyJsonParserHandler;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Test class for class {@link JsonUtf8Parser}.
+ *
+ * @author Philip Helger
+ */
+public final class JsonUtf8ParserTest
+{
+  private static final String [] VALID = new String [] { "0",
+                                                          " -1 ",
+                                                          "\t\r\n[1, 2.5, -3e2, 4E+2, 5e-2, 123456789012345678, 1234567890123456789, 12345678901234567890, -9223372036854775808, 2147483648]\n",
+                                                          "{}",
+                                                          "[]",
+                                                          "[true,false,null]",
+                                                          "\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\\u00e4\\uABCD\"",
+                                                          "'single'",
+                                                          "/* comment \u00e4\u20ac */ { /**/ \"a\" /* x * y ** */ : 1 , b:'x', \"c\\td\" : [ ] } /* end */",
+                                                          "{\"key\":{\"nested\":[{\"deep\":\"value with spaces and \\u0041\"}]}}",
+                                                          "[\"\", '', \"long string long string long string long string\"]",
+                                                          "{\"\u00e4\u00f6\u00fc\":\"\u20ac \ud83d\ude00 \u00df\",\"mixed\":\"a\u00e4\\n\u20acb\"}" };
+
+  /**
+   * An input stream that returns at most the provided number of bytes per read
+   * call, to test the buffer boundary handling.
+   */
+  private static final class ChunkedInputStream extends NonBlockingByteArrayInputStream
+  {
+    private final int m_nMaxBytes;
+
+    ChunkedInputStream (@Nonnull final byte [] aBytes, final int nMaxBytes)
+    {
+      super (aBytes);
+      m_nMaxBytes = nMaxBytes;
+    }
+
+    @Override
+    public int read (final byte [] aBuf, final int nOfs, final int nLen)
+    {
+      return super.read (aBuf, nOfs, Math.min (nLen, m_nMaxBytes));
+    }
+  }
+
+  @Nonnull
+  private static String _getCharBased (@Nonnull final String sJson) throws JsonParseException
+  {
+    final StringAssemblyJsonParserHandler aHdl = new StringAssemblyJsonParserHandler ();
+    new JsonParser (new NonBlockingStringReader (sJson), aHdl).setRequireStringQuotes (false).parse ();
+    return aHdl.getJsonString ();
+  }
+
+  @Nonnull
+  private static IJson _readCharBased (@Nonnull final String sJson) throws JsonParseException
+  {
+    final CollectingJsonParserHandler aHdl = new CollectingJsonParserHandler ();
+    new JsonParser (new NonBlockingStringReader (sJson), aHdl).setRequireStringQuotes (false).parse ();
+    return aHdl.getJson ();
+  }
+
+  @Nonnull
+  private static JsonUtf8Parser [] _createParsers (@Nonnull final byte [] aBytes,
+                                                   @Nonnull final IJsonParserHandler [] aHandlers)
+  {
+    // Place the bytes in the middle of a bigger array
+    final byte [] aPadded = new byte [aBytes.length + 4];
+    System.arraycopy (aBytes, 0, aPadded, 2, aBytes.length);
+    final ByteBuffer aDirect = ByteBuffer.allocateDirect (aBytes.length);
+    aDirect.put (aBytes).flip ();
+
+    return new JsonUtf8Parser [] { new JsonUtf8Parser (aBytes, aHandlers[0]),
+                                   new JsonUtf8Parser (aPadded, 2, aBytes.length, aHandlers[1]),
+                                   new JsonUtf8Parser (ByteBuffer.wrap (aPadded, 2, aBytes.length).slice (),
+                                                       aHandlers[2]),
+                                   new JsonUtf8Parser (aDirect, aHandlers[3]),
+                                   new JsonUtf8Parser (new ChunkedInputStream (aBytes, 1), aHandlers[4]),
+                                   new JsonUtf8Parser (new ChunkedInputStream (aBytes, 3), aHandlers[5]),
+                                   new JsonUtf8Parser (new NonBlockingByteArrayInputStream (aBytes), aHandlers[6]) };
+  }
+
+  @Test
+  public void testSameEvents () throws JsonParseException
+  {
+    for (final String sJson : VALID)
+    {
+      final byte [] aBytes = sJson.getBytes (CCharset.CHARSET_UTF_8_OBJ);
+
+      final String sExpected = _getCharBased (sJson);
+      final StringAssemblyJsonParserHandler [] aHdls = new StringAssemblyJsonParserHandler [7];
+      for (int i = 0; i < aHdls.length; ++i)
+        aHdls[i] = new StringAssemblyJsonParserHandler ();
+      for (final JsonUtf8Parser aParser : _createParsers (aBytes, aHdls))
+        aParser.setRequireStringQuotes (false).parse ();
+      for (final StringAssemblyJsonParserHandler aHdl : aHdls)
+        assertEquals (sJson, sExpected, aHdl.getJsonString ());
+
+      final IJson aExpected = _readCharBased (sJson);
+      final CollectingJsonParserHandler [] aHdls2 = new CollectingJsonParserHandler [7];
+      for (int i = 0; i < aHdls2.length; ++i)
+        aHdls2[i] = new CollectingJsonParserHandler ();
+      for (final JsonUtf8Parser aParser : _createParsers (aBytes, aHdls2))
+        aParser.setRequireStringQuotes (false).parse ();
+      for (final CollectingJsonParserHandler aHdl : aHdls2)
+        assertEquals (sJson, aExpected, aHdl.getJson ());
+    }
+  }
+
+  @Test
+  public void testErrors ()
+  {
+    for (final String sJson : new String [] { "",
+                                              "/* open",
+                                              "/* open *",
+                                              "\"open",
+                                              "\"a\nb\"",
+                                              "\"\\x\"",
+                                              "\"\\u12g4\"",
+                                              "-",
+                                              "01",
+                                              "1.",
+                                              "1e",
+                                              "1e+",
+                                              "tru",
+                                              "nul!",
+                                              "[1,]",
+                                              "[1 2]",
+                                              "{\"a\":1,}",
+                                              "{\"a\" 1}",
+                                              "{\"a\":1 2}",
+                                              "{:1}",
+                                              "#",
+                                              "[1] x" })
+    {
+      String sExpected = null;
+      try
+      {
+        _getCharBased (sJson);
+        fail (sJson);
+      }
+      catch (final JsonParseException ex)
+      {
+        sExpected = ex.getPureMessage ();
+      }
+
+      final IJsonParserHandler [] aHdls = new IJsonParserHandler [7];
+      for (int i = 0; i < aHdls.length; ++i)
+        aHdls[i] = new CollectingJsonParserHandler ();
+      for (final JsonUtf8Parser aParser : _createParsers (sJson.getBytes (CCharset.CHARSET_UTF_8_OBJ), aHdls))
+        try
+        {
+          aParser.setRequireStringQuotes (false).parse ();
+          fail (sJson);
+        }
+        catch (final JsonParseException ex)
+        {
+          assertEquals (sJson, sExpected, ex.getPureMessage ());
+        }
+    }
+  }
+
+  @Test
+  public void testErrorPosition ()
+  {
+    for (final String sJson : new String [] { "{\n  \"a\" : 1,\r\n  \"b\" : x }",
+                                              "[\"\u00e4\u20ac\",\t\"\ud83d\ude00\", 1.]",
+                                              "/* \u00e4\n\u20ac */ [1,\n\t\"open",
+                                              "{\"\u00e4\u00f6\" : tru }" })
+    {
+      JsonParseException aExpected = null;
+      try
+      {
+        new JsonParser (new NonBlockingStringReader (sJson),
+                        new CollectingJsonParserHandler ()).setUseBufferedInput (true).setTrackPosition (true).parse ();
+        fail (sJson);
+      }
+      catch (final JsonParseException ex)
+      {
+        aExpected = ex;
+      }
+
+      final IJsonParserHandler [] aHdls = new IJsonParserHandler [7];
+      for (int i = 0; i < aHdls.length; ++i)
+        aHdls[i] = new CollectingJsonParserHandler ();
+      for (final JsonUtf8Parser aParser : _createParsers (sJson.getBytes (CCharset.CHARSET_UTF_8_OBJ), aHdls))
+        try
+        {
+          aParser.setTrackPosition (true).parse ();
+          fail (sJson);
+        }
+        catch (final JsonParseException ex)
+        {
+          assertEquals (sJson, aExpected.getMessage (), ex.getMessage ());
+          assertEquals (sJson, aExpected.getErrorLine (), ex.getErrorLine ());
+          assertEquals (sJson, aExpected.getErrorColumn (), ex.getErrorColumn ());
+          assertEquals (sJson, aExpected.getTokenStartLine (), ex.getTokenStartLine ());
+          assertEquals (sJson, aExpected.getTokenStartColumn (), ex.getTokenStartColumn ());
+        }
+    }
+  }
+
+  @Test
+  public void testMalformedUtf8 () throws JsonParseException
+  {
+    // Invalid lead byte, truncated sequence and overlong encoding
+    final byte [] aBytes = new byte [] { '"', 'a', (byte) 0xff, 'b', (byte) 0xe2, (byte) 0x82, 'c', '\\', 'n', (byte) 0xc0, (byte) 0x80, '"' };
+    final CollectingJsonParserHandler aHdl = new CollectingJsonParserHandler ();
+    new JsonUtf8Parser (aBytes, aHdl).parse ();
+    assertEquals ("a\uFFFDb\uFFFDc\n\uFFFD\uFFFD", aHdl.getJson ().getAsValue ().getAsString ());
+  }
+
+  @Test
+  public void testBOM () throws JsonParseException
+  {
+    final byte [] aBytes = new byte [] { (byte) 0xef, (byte) 0xbb, (byte) 0xbf, '[', '1', ']' };
+    final CollectingJsonParserHandler aHdl = new CollectingJsonParserHandler ();
+    new JsonUtf8Parser (aBytes, aHdl).parse ();
+    assertNotNull (aHdl.getJson ());
+    assertEquals (1, aHdl.getJson ().getAsArray ().getSize ());
+  }
+
+  @Test
+  public void testJsonReader () throws IOException
+  {
+    for (final String sJson : VALID)
+    {
+      final IJson aJson = JsonReader.readFromStream (new NonBlockingByteArrayInputStream (sJson.getBytes (CCharset.CHARSET_UTF_8_OBJ)));
+      assertEquals (sJson, JsonReader.readFromString (sJson), aJson);
+    }
+  }
+}
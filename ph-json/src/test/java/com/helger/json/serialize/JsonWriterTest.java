@@ -16,9 +16,11 @@
  */
 package com.helger.json.serialize;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Map;
@@ -30,6 +32,7 @@ import javax.annotation.Nullable;
 
 import org.junit.Test;
 
+import com.helger.commons.charset.CCharset;
 import com.helger.commons.collection.CollectionHelper;
 import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.CommonsHashMap;
@@ -39,6 +42,7 @@ import com.helger.commons.collection.ext.ICommonsList;
 import com.helger.commons.collection.ext.ICommonsMap;
 import com.helger.commons.collection.ext.ICommonsNavigableMap;
 import com.helger.commons.collection.ext.ICommonsOrderedMap;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
 import com.helger.commons.mutable.MutableBoolean;
 import com.helger.commons.mutable.MutableByte;
 import com.helger.commons.mutable.MutableChar;
@@ -47,7 +51,10 @@ import com.helger.commons.mutable.MutableFloat;
 import com.helger.commons.mutable.MutableInt;
 import com.helger.commons.mutable.MutableLong;
 import com.helger.commons.mutable.MutableShort;
+import com.helger.commons.string.StringHelper;
 import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
 import com.helger.json.JsonArray;
 import com.helger.json.JsonObject;
 import com.helger.json.convert.JsonConverter;
@@ -297,4 +304,88 @@ public final class JsonWriterTest
                   new JsonWriter (new JsonWriterSettings ().setWriteNewlineAtEnd (true)).writeAsString (new JsonObject ().add ("foo",
                                                                                                                                "bar")));
   }
+
+  @Test
+  public void testDeepNesting ()
+  {
+    // Deep enough to overflow the stack with a recursive implementation
+    final int nDepth = 100_000;
+    final JsonArray aRoot = new JsonArray ();
+    JsonArray aCur = aRoot;
+    for (int i = 1; i < nDepth; ++i)
+    {
+      final JsonArray aChild = new JsonArray ();
+      aCur.add (aChild);
+      aCur = aChild;
+    }
+    aCur.add ("x");
+
+    final String sJson = new JsonWriter ().writeAsString (aRoot);
+    assertEquals (nDepth * 2 + 3, sJson.length ());
+    assertEquals (StringHelper.getRepeated ('[', nDepth) + "\"x\"" + StringHelper.getRepeated (']', nDepth), sJson);
+
+    // Indented - the output size grows quadratically with the depth
+    final int nIndentDepth = 1_000;
+    final JsonArray aIndentRoot = new JsonArray ();
+    aCur = aIndentRoot;
+    for (int i = 1; i < nIndentDepth; ++i)
+    {
+      final JsonArray aChild = new JsonArray ();
+      aCur.add (aChild);
+      aCur = aChild;
+    }
+    aCur.add ("x");
+
+    final String sNL = JsonWriterSettings.DEFAULT_NEWLINE_STRING;
+    final String sIndent = JsonWriterSettings.DEFAULT_INDENT_STRING;
+    final StringBuilder aExpected = new StringBuilder ();
+    for (int i = 0; i < nIndentDepth; ++i)
+      aExpected.append (StringHelper.getRepeated (sIndent, i)).append ('[').append (sNL);
+    aExpected.append (StringHelper.getRepeated (sIndent, nIndentDepth)).append ("\"x\"");
+    for (int i = nIndentDepth - 1; i >= 0; --i)
+      aExpected.append (sNL).append (StringHelper.getRepeated (sIndent, i)).append (']');
+    assertEquals (aExpected.toString (),
+                  new JsonWriter (new JsonWriterSettings ().setIndentEnabled (true)).writeAsString (aIndentRoot));
+  }
+
+  @Test
+  public void testWriteToStream () throws IOException
+  {
+    final IJsonObject aObj = new JsonObject ().add ("a\"b", "\u00e4\u00f6\u00fc \u20ac \ud83d\ude00\n\\")
+                                             .add ("list",
+                                                   new JsonArray ().add (1)
+                                                                   .add (2.5)
+                                                                   .add (true)
+                                                                   .add (new JsonObject ())
+                                                                   .add (new JsonArray ()))
+                                             .add ("nested",
+                                                   new JsonObject ().add ("x",
+                                                                          new JsonObject ().add ("y",
+                                                                                                 StringHelper.getRepeated ('z',
+                                                                                                                           20_000))));
+    for (final JsonWriterSettings aSettings : new JsonWriterSettings [] { new JsonWriterSettings (),
+                                                                           new JsonWriterSettings ().setIndentEnabled (true)
+                                                                                                    .setWriteNewlineAtEnd (true),
+                                                                           new JsonWriterSettings ().setQuoteNames (false) })
+    {
+      final JsonWriter aWriter = new JsonWriter (aSettings);
+      final String sExpected = aWriter.writeAsString (aObj);
+
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+      {
+        aWriter.writeToStream (aObj, aBAOS);
+        assertEquals (sExpected, aBAOS.getAsString (CCharset.CHARSET_UTF_8_OBJ));
+        assertArrayEquals (sExpected.getBytes (CCharset.CHARSET_UTF_8_OBJ), aBAOS.toByteArray ());
+      }
+    }
+
+    // Unpaired surrogates are written like String.getBytes does
+    for (final String s : new String [] { "a\ud83d", "\ud83db", "\ude00", "\ud83d\ud83d\ude00" })
+    {
+      final IJsonArray aArray = new JsonArray ().add (s);
+      final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+      new JsonWriter ().writeToStreamAndClose (aArray, aBAOS);
+      assertArrayEquals (aArray.getAsJsonString ().getBytes (CCharset.CHARSET_UTF_8_OBJ), aBAOS.toByteArray ());
+    }
+  }
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.supplementary.test.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.json.IJson;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Compare the heap usage of the default JSON classes with
+ * {@link com.helger.json.CompactJsonObject} and
+ * {@link com.helger.json.CompactJsonArray}. Best run with a fixed heap size
+ * and a stop-the-world garbage collector.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkJsonMemoryFootprint
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (BenchmarkJsonMemoryFootprint.class);
+  private static final int DOCUMENTS = 200;
+  private static final int RECORDS = 500;
+
+  private BenchmarkJsonMemoryFootprint ()
+  {}
+
+  private static String _createDocument ()
+  {
+    final JsonArray aRecords = new JsonArray ();
+    for (int i = 0; i < RECORDS; ++i)
+      aRecords.add (new JsonObject ().add ("id", i)
+                                     .add ("timestamp", 1_500_000_000_000L + i)
+                                     .add ("name", "Record " + i)
+                                     .add ("active", (i % 3) == 0)
+                                     .add ("price", i * 1.25)
+                                     .add ("tags", new JsonArray ().add ("a").add ("b").add (i % 7))
+                                     .add ("parent", new JsonObject ().add ("ref", i * 1000).add ("type", "node")));
+    return new JsonObject ().add ("version", 1).add ("records", aRecords).getAsJsonString ();
+  }
+
+  private static long _getUsedHeap ()
+  {
+    final Runtime aRuntime = Runtime.getRuntime ();
+    for (int i = 0; i < 5; ++i)
+    {
+      System.gc ();
+      try
+      {
+        Thread.sleep (50);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+    }
+    return aRuntime.totalMemory () - aRuntime.freeMemory ();
+  }
+
+  private static void _measure (final String sJson, final boolean bCompact)
+  {
+    final ICommonsList <IJson> aKeep = new CommonsArrayList <> (DOCUMENTS);
+    final long nBefore = _getUsedHeap ();
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < DOCUMENTS; ++i)
+      aKeep.add (bCompact ? JsonReader.readCompactFromString (sJson) : JsonReader.readFromString (sJson));
+    final long nNanos = System.nanoTime () - nStart;
+    final long nAfter = _getUsedHeap ();
+
+    s_aLogger.info ((bCompact ? "Compact: " : "Default: ") +
+                    (nAfter - nBefore) / DOCUMENTS +
+                    " bytes per document; " +
+                    (nAfter - nBefore) / CGlobal.BYTES_PER_MEGABYTE +
+                    " MB total; " +
+                    nNanos / DOCUMENTS / CGlobal.NANOSECONDS_PER_MICROSECOND +
+                    " us parsing per document; " +
+                    aKeep.size () +
+                    " documents");
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    final String sJson = _createDocument ();
+    s_aLogger.info ("Document size: " + sJson.length () + " chars with " + RECORDS + " records");
+
+    // Warm up
+    _measure (sJson, false);
+    _measure (sJson, true);
+
+    for (int i = 0; i < 3; ++i)
+    {
+      _measure (sJson, false);
+      _measure (sJson, true);
+    }
+  }
+}
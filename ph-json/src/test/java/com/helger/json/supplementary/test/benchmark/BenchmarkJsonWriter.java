@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.supplementary.test.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.collection.ArrayHelper;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.string.StringHelper;
+import com.helger.json.CJson;
+import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonCollection;
+import com.helger.json.IJsonObject;
+import com.helger.json.IJsonValue;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.json.serialize.IJsonWriterSettings;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+
+/**
+ * Compare the {@link JsonWriter} writing to a {@link Writer} and writing UTF-8
+ * directly to an {@link java.io.OutputStream} with the previous recursive
+ * implementation that rebuilt the indent strings per collection and escaped
+ * char by char.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkJsonWriter
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (BenchmarkJsonWriter.class);
+  private static final int RECORDS = 20_000;
+  private static final int RUNS = 20;
+
+  private static final char [] CHARS_TO_MASK = new char [] { '\0', '"', '\\', '\b', '\t', '\n', '\r', '\f' };
+  private static final String [] REPLACEMENT_STRINGS = new String [] { "\\u0000",
+                                                                       "\\\"",
+                                                                       "\\\\",
+                                                                       "\\b",
+                                                                       "\\t",
+                                                                       "\\n",
+                                                                       "\\r",
+                                                                       "\\f" };
+
+  // Avoid dead code elimination
+  private static long s_nDummy;
+
+  private BenchmarkJsonWriter ()
+  {}
+
+  /**
+   * The previous implementation for comparison
+   */
+  private static final class LegacyJsonWriter
+  {
+    private final IJsonWriterSettings m_aSettings;
+
+    LegacyJsonWriter (final IJsonWriterSettings aSettings)
+    {
+      m_aSettings = aSettings;
+    }
+
+    private static void _escape (final String sInput, final Writer aWriter) throws IOException
+    {
+      final char [] aInput = sInput.toCharArray ();
+      if (!StringHelper.containsAny (aInput, CHARS_TO_MASK))
+        aWriter.write (aInput, 0, aInput.length);
+      else
+        for (final char cCurrent : aInput)
+        {
+          final int nIndex = ArrayHelper.getFirstIndex (CHARS_TO_MASK, cCurrent);
+          if (nIndex >= 0)
+            aWriter.write (REPLACEMENT_STRINGS[nIndex]);
+          else
+            aWriter.write (cCurrent);
+        }
+    }
+
+    private static void _writeQuoted (final String sValue, final Writer aWriter) throws IOException
+    {
+      aWriter.write ('"');
+      _escape (sValue, aWriter);
+      aWriter.write ('"');
+    }
+
+    void write (final IJson aJson, final Writer aWriter, final int nIndentLevel) throws IOException
+    {
+      if (aJson.isValue ())
+      {
+        final IJsonValue aValue = (IJsonValue) aJson;
+        if (aValue.isStringValue ())
+          _writeQuoted ((String) aValue.getValue (), aWriter);
+        else
+          aValue.appendAsJsonString (aWriter);
+        return;
+      }
+
+      final boolean bIsIndentEnabled = m_aSettings.isIdentEnabled () && ((IJsonCollection) aJson).isNotEmpty ();
+      final String sSingleIndent = m_aSettings.getIndentString ();
+      final String sIndentString = bIsIndentEnabled ? StringHelper.getRepeated (sSingleIndent, nIndentLevel) : "";
+      final String sNestedIndentString = bIsIndentEnabled ? sIndentString + sSingleIndent : "";
+      final String sNewlineString = bIsIndentEnabled ? m_aSettings.getNewlineString () : "";
+
+      aWriter.write (aJson.isArray () ? CJson.ARRAY_START : CJson.OBJECT_START);
+      if (bIsIndentEnabled)
+        aWriter.write (sNewlineString);
+
+      int nIndex = 0;
+      if (aJson.isArray ())
+      {
+        for (final IJson aChild : (IJsonArray) aJson)
+        {
+          if (nIndex++ > 0)
+          {
+            aWriter.write (CJson.ITEM_SEPARATOR);
+            if (bIsIndentEnabled)
+              aWriter.write (sNewlineString);
+          }
+          if (bIsIndentEnabled)
+            aWriter.write (sNestedIndentString);
+          write (aChild, aWriter, nIndentLevel + 1);
+        }
+      }
+      else
+      {
+        for (final Map.Entry <String, IJson> aEntry : (IJsonObject) aJson)
+        {
+          if (nIndex++ > 0)
+          {
+            aWriter.write (CJson.ITEM_SEPARATOR);
+            if (bIsIndentEnabled)
+              aWriter.write (sNewlineString);
+          }
+          if (bIsIndentEnabled)
+            aWriter.write (sNestedIndentString);
+          _writeQuoted (aEntry.getKey (), aWriter);
+          aWriter.write (CJson.NAME_VALUE_SEPARATOR);
+          write (aEntry.getValue (), aWriter, nIndentLevel + 1);
+        }
+      }
+
+      if (bIsIndentEnabled)
+      {
+        aWriter.write (sNewlineString);
+        aWriter.write (sIndentString);
+      }
+      aWriter.write (aJson.isArray () ? CJson.ARRAY_END : CJson.OBJECT_END);
+    }
+  }
+
+  private static IJson _createDocument ()
+  {
+    final JsonArray aRecords = new JsonArray ();
+    for (int i = 0; i < RECORDS; ++i)
+      aRecords.add (new JsonObject ().add ("id", i)
+                                     .add ("timestamp", 1_500_000_000_000L + i)
+                                     .add ("name", "Record \"" + i + "\" äöü")
+                                     .add ("description", "A somewhat longer text of record " + i + " without escaping")
+                                     .add ("active", (i % 3) == 0)
+                                     .add ("price", i * 1.25)
+                                     .add ("tags", new JsonArray ().add ("a").add ("b").add (i % 7))
+                                     .add ("parent", new JsonObject ().add ("ref", i * 1000).add ("type", "node")));
+    return new JsonObject ().add ("version", 1).add ("records", aRecords);
+  }
+
+  private interface IWriteAction
+  {
+    void write (NonBlockingByteArrayOutputStream aBAOS) throws IOException;
+  }
+
+  private static long _run (final IWriteAction aAction) throws IOException
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream (4 * CGlobal.BYTES_PER_MEGABYTE);
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+    {
+      aBAOS.reset ();
+      aAction.write (aBAOS);
+      s_nDummy += aBAOS.getSize ();
+    }
+    return (System.nanoTime () - nStart) / RUNS;
+  }
+
+  private static String _ms (final long nNanos)
+  {
+    return Long.toString (nNanos / CGlobal.NANOSECONDS_PER_MILLISECOND) + " ms";
+  }
+
+  public static void main (final String [] aArgs) throws IOException
+  {
+    final IJson aJson = _createDocument ();
+
+    for (final boolean bIndent : new boolean [] { false, true })
+    {
+      final JsonWriterSettings aSettings = new JsonWriterSettings ().setIndentEnabled (bIndent);
+      final LegacyJsonWriter aLegacy = new LegacyJsonWriter (aSettings);
+      final JsonWriter aWriter = new JsonWriter (aSettings);
+
+      final IWriteAction aLegacyAction = aBAOS -> {
+        final Writer aOSW = new OutputStreamWriter (aBAOS, CCharset.CHARSET_UTF_8_OBJ);
+        aLegacy.write (aJson, aOSW, 0);
+        aOSW.flush ();
+      };
+      final IWriteAction aWriterAction = aBAOS -> {
+        final Writer aOSW = new OutputStreamWriter (aBAOS, CCharset.CHARSET_UTF_8_OBJ);
+        aWriter.writeToWriter (aJson, aOSW);
+        aOSW.flush ();
+      };
+      final IWriteAction aStreamAction = aBAOS -> aWriter.writeToStream (aJson, aBAOS);
+
+      // Warm up
+      for (int i = 0; i < 3; ++i)
+      {
+        _run (aLegacyAction);
+        _run (aWriterAction);
+        _run (aStreamAction);
+      }
+
+      s_aLogger.info ("Indent " +
+                      bIndent +
+                      ": legacy recursive writer " +
+                      _ms (_run (aLegacyAction)) +
+                      "; JsonWriter to Writer " +
+                      _ms (_run (aWriterAction)) +
+                      "; JsonWriter to OutputStream " +
+                      _ms (_run (aStreamAction)));
+    }
+  }
+}
@@ -16,6 +16,7 @@
  */
 package com.helger.xml.microdom;
 
+import java.util.ArrayList;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -58,6 +59,19 @@ public abstract class AbstractMicroNodeWithChildren extends AbstractMicroNode im
     return m_aChildren;
   }
 
+  /**
+   * Reduce the capacity of the internal child list to the number of contained
+   * children. This is meant to be called after a node was completely built, to
+   * reduce the memory footprint of large documents.
+   *
+   * @since 8.6.0
+   */
+  public final void trimChildrenToSize ()
+  {
+    if (m_aChildren instanceof ArrayList <?>)
+      ((ArrayList <?>) m_aChildren).trimToSize ();
+  }
+
   private void _afterInsertAsChildOfThis (@Nonnull final AbstractMicroNode aChildNode)
   {
     aChildNode.internalSetParentNode (this);
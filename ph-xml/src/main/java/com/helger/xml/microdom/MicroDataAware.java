@@ -21,81 +21,89 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.helger.commons.ValueEnforcer;
-import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.hashcode.HashCodeGenerator;
 import com.helger.commons.lang.ICloneable;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 
 /**
- * Default implementation of the {@link IMicroDataAware} interface.
+ * Default implementation of the {@link IMicroDataAware} interface. The data is
+ * stored as an exact-sized immutable {@link String} and only converted to a
+ * {@link StringBuilder} upon the first modification.
  *
  * @author Philip Helger
  */
 final class MicroDataAware implements IMicroDataAware, ICloneable <MicroDataAware>
 {
-  private final StringBuilder m_aSB;
+  // Either a String or a StringBuilder
+  private CharSequence m_aData;
 
   public MicroDataAware (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
   {
     ValueEnforcer.isArrayOfsLen (aChars, nOfs, nLen);
-    m_aSB = new StringBuilder (nLen + 16).append (aChars, nOfs, nLen);
+    m_aData = new String (aChars, nOfs, nLen);
   }
 
   public MicroDataAware (@Nullable final CharSequence aText)
   {
-    if (StringHelper.hasNoText (aText))
-      m_aSB = new StringBuilder ();
-    else
-      m_aSB = new StringBuilder (aText);
+    m_aData = StringHelper.hasNoText (aText) ? "" : aText.toString ();
   }
 
   @Nonnull
-  public StringBuilder getData ()
+  private StringBuilder _getModifiable ()
   {
-    return m_aSB;
+    if (m_aData instanceof StringBuilder)
+      return (StringBuilder) m_aData;
+    final StringBuilder ret = new StringBuilder (m_aData.length () + 16).append (m_aData);
+    m_aData = ret;
+    return ret;
+  }
+
+  @Nonnull
+  public CharSequence getData ()
+  {
+    return m_aData;
   }
 
   public void setData (@Nullable final CharSequence aData)
   {
-    m_aSB.setLength (0);
-    m_aSB.append (aData);
+    m_aData = aData == null ? "null" : aData.toString ();
   }
 
   public void appendData (@Nullable final CharSequence sData)
   {
-    m_aSB.append (sData);
+    _getModifiable ().append (sData);
   }
 
   public void appendData (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
   {
-    m_aSB.append (aChars, nOfs, nLen);
+    _getModifiable ().append (aChars, nOfs, nLen);
   }
 
   public void appendData (final char cChar)
   {
-    m_aSB.append (cChar);
+    _getModifiable ().append (cChar);
   }
 
   public void prependData (@Nullable final CharSequence sData)
   {
-    m_aSB.insert (0, sData);
+    _getModifiable ().insert (0, sData);
   }
 
   public void prependData (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
   {
-    m_aSB.insert (0, aChars, nOfs, nLen);
+    _getModifiable ().insert (0, aChars, nOfs, nLen);
   }
 
   public void prependData (final char cChar)
   {
-    m_aSB.insert (0, cChar);
+    _getModifiable ().insert (0, cChar);
   }
 
   @Nonnull
   public MicroDataAware getClone ()
   {
-    return new MicroDataAware (m_aSB);
+    return new MicroDataAware (m_aData);
   }
 
   @Override
@@ -106,18 +114,18 @@ final class MicroDataAware implements IMicroDataAware, ICloneable <MicroDataAwar
     if (o == null || !getClass ().equals (o.getClass ()))
       return false;
     final MicroDataAware rhs = (MicroDataAware) o;
-    return EqualsHelper.equals (m_aSB, rhs.m_aSB);
+    return m_aData.toString ().equals (rhs.m_aData.toString ());
   }
 
   @Override
   public int hashCode ()
   {
-    return new HashCodeGenerator (this).append (m_aSB).getHashCode ();
+    return new HashCodeGenerator (this).append (m_aData.toString ()).getHashCode ();
   }
 
   @Override
   public String toString ()
   {
-    return new ToStringGenerator (this).append ("data", m_aSB).toString ();
+    return new ToStringGenerator (this).append ("data", m_aData).toString ();
   }
 }
@@ -16,6 +16,7 @@
  */
 package com.helger.xml.microdom;
 
+import java.util.Arrays;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -31,8 +32,10 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.VisibleForTesting;
 import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.CommonsLinkedHashMap;
+import com.helger.commons.collection.ext.CommonsLinkedHashSet;
 import com.helger.commons.collection.ext.ICommonsList;
 import com.helger.commons.collection.ext.ICommonsOrderedMap;
 import com.helger.commons.collection.ext.ICommonsOrderedSet;
@@ -57,9 +60,20 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (MicroElement.class);
 
+  /**
+   * Up to this number of attributes are stored in a plain array. If an element
+   * has more attributes, a map is used.
+   *
+   * @since 8.6.0
+   */
+  public static final int MAX_ATTRIBUTES_IN_ARRAY = 8;
+
   private String m_sNamespaceURI;
   private final String m_sTagName;
-  private ICommonsOrderedMap <IMicroQName, MicroAttribute> m_aAttrs;
+  // Exact-sized array for a small number of attributes
+  private MicroAttribute [] m_aAttrArray;
+  // Map for a larger number of attributes - if present, the array is null
+  private ICommonsOrderedMap <IMicroQName, MicroAttribute> m_aAttrMap;
 
   public MicroElement (@Nonnull @Nonempty final String sTagName)
   {
@@ -110,18 +124,43 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
 
   public boolean hasAttributes ()
   {
-    return m_aAttrs != null && m_aAttrs.isNotEmpty ();
+    return getAttributeCount () > 0;
   }
 
   public boolean hasNoAttributes ()
   {
-    return m_aAttrs == null || m_aAttrs.isEmpty ();
+    return getAttributeCount () == 0;
+  }
+
+  /**
+   * @return <code>true</code> if the attributes are stored in the exact-sized
+   *         array, <code>false</code> if there are none or if they are stored
+   *         in a map.
+   */
+  @VisibleForTesting
+  final boolean isAttributeArrayStorage ()
+  {
+    return m_aAttrArray != null;
   }
 
   @Nonnegative
   public int getAttributeCount ()
   {
-    return m_aAttrs == null ? 0 : m_aAttrs.size ();
+    if (m_aAttrArray != null)
+      return m_aAttrArray.length;
+    return m_aAttrMap == null ? 0 : m_aAttrMap.size ();
+  }
+
+  private void _forAllAttributeObjs (@Nonnull final Consumer <? super MicroAttribute> aConsumer)
+  {
+    if (m_aAttrArray != null)
+    {
+      for (final MicroAttribute aAttr : m_aAttrArray)
+        aConsumer.accept (aAttr);
+    }
+    else
+      if (m_aAttrMap != null)
+        m_aAttrMap.forEachValue (aConsumer);
   }
 
   @Nullable
@@ -130,7 +169,9 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     if (hasNoAttributes ())
       return null;
-    return m_aAttrs.copyOfValues ();
+    if (m_aAttrArray != null)
+      return new CommonsArrayList<> (m_aAttrArray);
+    return m_aAttrMap.copyOfValues ();
   }
 
   @Nullable
@@ -139,9 +180,9 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     if (hasNoAttributes ())
       return null;
-    return new CommonsLinkedHashMap<> (m_aAttrs.values (),
-                                       IMicroAttribute::getAttributeQName,
-                                       IMicroAttribute::getAttributeValue);
+    final ICommonsOrderedMap <IMicroQName, String> ret = new CommonsLinkedHashMap<> ();
+    _forAllAttributeObjs (a -> ret.put (a.getAttributeQName (), a.getAttributeValue ()));
+    return ret;
   }
 
   @Nullable
@@ -150,33 +191,50 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     if (hasNoAttributes ())
       return null;
-    return m_aAttrs.copyOfKeySet ();
+    final ICommonsOrderedSet <IMicroQName> ret = new CommonsLinkedHashSet<> ();
+    _forAllAttributeObjs (a -> ret.add (a.getAttributeQName ()));
+    return ret;
   }
 
   public void forAllAttributes (@Nonnull final Consumer <? super IMicroAttribute> aConsumer)
   {
-    if (m_aAttrs != null)
-      m_aAttrs.forEachValue (aConsumer);
+    _forAllAttributeObjs (aConsumer);
   }
 
   public void forAllAttributes (@Nonnull final BiConsumer <? super IMicroQName, ? super String> aConsumer)
   {
-    if (m_aAttrs != null)
-      m_aAttrs.forEachValue (a -> aConsumer.accept (a.getAttributeQName (), a.getAttributeValue ()));
+    _forAllAttributeObjs (a -> aConsumer.accept (a.getAttributeQName (), a.getAttributeValue ()));
   }
 
   public void forAllAttributes (@Nonnull final ITriConsumer <? super String, ? super String, ? super String> aConsumer)
   {
-    if (m_aAttrs != null)
-      m_aAttrs.forEachValue (x -> aConsumer.accept (x.getNamespaceURI (),
-                                                    x.getAttributeName (),
-                                                    x.getAttributeValue ()));
+    _forAllAttributeObjs (x -> aConsumer.accept (x.getNamespaceURI (), x.getAttributeName (), x.getAttributeValue ()));
+  }
+
+  private int _getAttributeArrayIndex (@Nonnull final IMicroQName aQName)
+  {
+    final MicroAttribute [] aAttrs = m_aAttrArray;
+    // Check for identity first, as the QNames are often shared
+    for (int i = 0; i < aAttrs.length; ++i)
+      if (aAttrs[i].getAttributeQName () == aQName)
+        return i;
+    for (int i = 0; i < aAttrs.length; ++i)
+      if (aAttrs[i].getAttributeQName ().equals (aQName))
+        return i;
+    return -1;
   }
 
   @Nullable
   public MicroAttribute getAttributeObj (@Nullable final IMicroQName aQName)
   {
-    return aQName == null || m_aAttrs == null ? null : m_aAttrs.get (aQName);
+    if (aQName == null)
+      return null;
+    if (m_aAttrArray != null)
+    {
+      final int nIndex = _getAttributeArrayIndex (aQName);
+      return nIndex < 0 ? null : m_aAttrArray[nIndex];
+    }
+    return m_aAttrMap == null ? null : m_aAttrMap.get (aQName);
   }
 
   @Nullable
@@ -201,15 +259,34 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
 
   public boolean hasAttribute (@Nullable final IMicroQName aAttrName)
   {
-    return m_aAttrs != null && aAttrName != null && m_aAttrs.containsKey (aAttrName);
+    return getAttributeObj (aAttrName) != null;
   }
 
   @Nonnull
   public EChange removeAttribute (@Nullable final IMicroQName aAttrName)
   {
-    if (m_aAttrs == null || aAttrName == null)
+    if (aAttrName == null)
+      return EChange.UNCHANGED;
+    if (m_aAttrArray != null)
+    {
+      final int nIndex = _getAttributeArrayIndex (aAttrName);
+      if (nIndex < 0)
+        return EChange.UNCHANGED;
+      final int nNewLength = m_aAttrArray.length - 1;
+      if (nNewLength == 0)
+        m_aAttrArray = null;
+      else
+      {
+        final MicroAttribute [] aNewAttrs = new MicroAttribute [nNewLength];
+        System.arraycopy (m_aAttrArray, 0, aNewAttrs, 0, nIndex);
+        System.arraycopy (m_aAttrArray, nIndex + 1, aNewAttrs, nIndex, nNewLength - nIndex);
+        m_aAttrArray = aNewAttrs;
+      }
+      return EChange.CHANGED;
+    }
+    if (m_aAttrMap == null)
       return EChange.UNCHANGED;
-    return m_aAttrs.removeObject (aAttrName);
+    return m_aAttrMap.removeObject (aAttrName);
   }
 
   @Nonnull
@@ -218,9 +295,38 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     ValueEnforcer.notNull (aAttrName, "AttrName");
     if (sAttrValue != null)
     {
-      if (m_aAttrs == null)
-        m_aAttrs = new CommonsLinkedHashMap<> ();
-      m_aAttrs.put (aAttrName, new MicroAttribute (aAttrName, sAttrValue));
+      final MicroAttribute aAttr = new MicroAttribute (aAttrName, sAttrValue);
+      if (m_aAttrMap != null)
+        m_aAttrMap.put (aAttrName, aAttr);
+      else
+        if (m_aAttrArray == null)
+          m_aAttrArray = new MicroAttribute [] { aAttr };
+        else
+        {
+          final int nIndex = _getAttributeArrayIndex (aAttrName);
+          if (nIndex >= 0)
+          {
+            // Replace existing attribute at the same position
+            m_aAttrArray[nIndex] = aAttr;
+          }
+          else
+            if (m_aAttrArray.length < MAX_ATTRIBUTES_IN_ARRAY)
+            {
+              // Keep the array exactly sized
+              final MicroAttribute [] aNewAttrs = Arrays.copyOf (m_aAttrArray, m_aAttrArray.length + 1);
+              aNewAttrs[m_aAttrArray.length] = aAttr;
+              m_aAttrArray = aNewAttrs;
+            }
+            else
+            {
+              // Switch to map
+              m_aAttrMap = new CommonsLinkedHashMap<> (m_aAttrArray.length * 2);
+              for (final MicroAttribute aOld : m_aAttrArray)
+                m_aAttrMap.put (aOld.getAttributeQName (), aOld);
+              m_aAttrMap.put (aAttrName, aAttr);
+              m_aAttrArray = null;
+            }
+        }
     }
     else
       removeAttribute (aAttrName);
@@ -230,9 +336,14 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   @Nonnull
   public EChange removeAllAttributes ()
   {
-    if (m_aAttrs == null)
+    if (m_aAttrArray != null)
+    {
+      m_aAttrArray = null;
+      return EChange.CHANGED;
+    }
+    if (m_aAttrMap == null)
       return EChange.UNCHANGED;
-    return m_aAttrs.removeAll ();
+    return m_aAttrMap.removeAll ();
   }
 
   @Nullable
@@ -373,9 +484,11 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     final MicroElement ret = new MicroElement (m_sNamespaceURI, m_sTagName);
 
-    // Copy attributes
-    if (m_aAttrs != null)
-      ret.m_aAttrs = new CommonsLinkedHashMap<> (m_aAttrs);
+    // Copy attributes - they are immutable as far as the element is concerned
+    if (m_aAttrArray != null)
+      ret.m_aAttrArray = m_aAttrArray.clone ();
+    if (m_aAttrMap != null)
+      ret.m_aAttrMap = new CommonsLinkedHashMap<> (m_aAttrMap);
 
     // Deep clone all child nodes
     forAllChildren (aChildNode -> ret.appendChild (aChildNode.getClone ()));
@@ -392,7 +505,7 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     final MicroElement rhs = (MicroElement) o;
     return EqualsHelper.equals (m_sNamespaceURI, rhs.m_sNamespaceURI) &&
            m_sTagName.equals (rhs.m_sTagName) &&
-           EqualsHelper.equals (m_aAttrs, rhs.m_aAttrs);
+           EqualsHelper.equals (getAllQAttributes (), rhs.getAllQAttributes ());
   }
 
   @Override
@@ -401,7 +514,7 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     return ToStringGenerator.getDerived (super.toString ())
                             .appendIfNotNull ("namespace", m_sNamespaceURI)
                             .append ("tagname", m_sTagName)
-                            .appendIfNotNull ("attrs", m_aAttrs)
+                            .appendIfNotNull ("attrs", getAllQAttributes ())
                             .toString ();
   }
 }
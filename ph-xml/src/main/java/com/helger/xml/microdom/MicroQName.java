@@ -30,8 +30,6 @@ import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.compare.CompareHelper;
 import com.helger.commons.debug.GlobalDebug;
 import com.helger.commons.equals.EqualsHelper;
-import com.helger.commons.hashcode.HashCodeGenerator;
-import com.helger.commons.hashcode.IHashCodeGenerator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.xml.CXML;
@@ -50,8 +48,8 @@ public final class MicroQName implements IMicroQName, Comparable <MicroQName>
 
   private final String m_sNamespaceURI;
   private final String m_sName;
-  // Status vars
-  private transient int m_nHashCode = IHashCodeGenerator.ILLEGAL_HASHCODE;
+  // Precomputed, as QNames are mainly used as map keys
+  private final int m_nHashCode;
 
   public MicroQName (@Nonnull @Nonempty final String sName)
   {
@@ -78,6 +76,7 @@ public final class MicroQName implements IMicroQName, Comparable <MicroQName>
                       "'");
       m_sName = sName.substring (nPrefixEnd + 1);
     }
+    m_nHashCode = getHashCode (m_sNamespaceURI, m_sName);
 
     // Only for the debug version, as this slows things down heavily
     if (GlobalDebug.isDebugMode ())
@@ -86,6 +85,22 @@ public final class MicroQName implements IMicroQName, Comparable <MicroQName>
           throw new IllegalArgumentException ("The micro XML name '" + m_sName + "' is not a valid XML name!");
   }
 
+  /**
+   * Get the hash code a {@link MicroQName} with the provided values would have.
+   * This is cheap, as {@link String} caches its hash code.
+   *
+   * @param sNamespaceURI
+   *        Namespace URI. Must already be unified, so an empty namespace URI
+   *        must be <code>null</code>.
+   * @param sName
+   *        Local name. May not be <code>null</code>.
+   * @return The hash code
+   */
+  static int getHashCode (@Nullable final String sNamespaceURI, @Nonnull final String sName)
+  {
+    return (sNamespaceURI == null ? 0 : sNamespaceURI.hashCode () * 31) + sName.hashCode ();
+  }
+
   @Nullable
   public String getNamespaceURI ()
   {
@@ -142,16 +157,16 @@ public final class MicroQName implements IMicroQName, Comparable <MicroQName>
     if (o == null || !getClass ().equals (o.getClass ()))
       return false;
     final MicroQName rhs = (MicroQName) o;
+    // Cheap pre-check
+    if (m_nHashCode != rhs.m_nHashCode)
+      return false;
     return EqualsHelper.equals (m_sNamespaceURI, rhs.m_sNamespaceURI) && m_sName.equals (rhs.m_sName);
   }
 
   @Override
   public int hashCode ()
   {
-    int ret = m_nHashCode;
-    if (ret == IHashCodeGenerator.ILLEGAL_HASHCODE)
-      ret = m_nHashCode = new HashCodeGenerator (this).append (m_sNamespaceURI).append (m_sName).getHashCode ();
-    return ret;
+    return m_nHashCode;
   }
 
   @Override
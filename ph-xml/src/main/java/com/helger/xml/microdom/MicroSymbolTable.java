@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.map.MapHelper;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A symbol table that canonicalizes namespace URIs, local names and
+ * {@link MicroQName} objects. It is meant to be used for a single parse
+ * operation, so that all equal names of a document share the same instance.
+ * This saves memory for repetitive documents and turns most equality checks
+ * into reference checks. Lookups of qualified names don't create temporary
+ * objects.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public final class MicroSymbolTable
+{
+  public static final int DEFAULT_INITIAL_CAPACITY = 64;
+  private static final float FILL_FACTOR = 0.5f;
+
+  private String [] m_aNames;
+  private int m_nNameCount;
+  private MicroQName [] m_aQNames;
+  private int m_nQNameCount;
+
+  public MicroSymbolTable ()
+  {
+    this (DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nInitialCapacity
+   *        The number of expected distinct names. Must be &gt; 0.
+   */
+  public MicroSymbolTable (@Nonnegative final int nInitialCapacity)
+  {
+    ValueEnforcer.isGT0 (nInitialCapacity, "InitialCapacity");
+    // Next power of two of at least twice the initial capacity
+    final int nSize = Integer.highestOneBit (Math.max (nInitialCapacity * 2 - 1, 1)) << 1;
+    m_aNames = new String [nSize];
+    m_aQNames = new MicroQName [nSize];
+  }
+
+  private static int _getStartIndex (final int nHashCode, final int nLength)
+  {
+    return MapHelper.phiMix (nHashCode) & (nLength - 1);
+  }
+
+  private static boolean _isFull (final int nCount, final int nLength)
+  {
+    return nCount >= nLength * FILL_FACTOR;
+  }
+
+  /**
+   * Get the canonical instance of the provided name.
+   *
+   * @param sName
+   *        The name to canonicalize. May be <code>null</code>.
+   * @return <code>null</code> if the passed name is <code>null</code>, the
+   *         canonical instance otherwise.
+   */
+  @Nullable
+  public String getName (@Nullable final String sName)
+  {
+    if (sName == null)
+      return null;
+
+    String [] aNames = m_aNames;
+    int nMask = aNames.length - 1;
+    int nIndex = _getStartIndex (sName.hashCode (), aNames.length);
+    String sExisting;
+    while ((sExisting = aNames[nIndex]) != null)
+    {
+      if (sExisting == sName || sExisting.equals (sName))
+        return sExisting;
+      nIndex = (nIndex + 1) & nMask;
+    }
+
+    if (_isFull (m_nNameCount + 1, aNames.length))
+    {
+      // Rehash
+      final String [] aNewNames = new String [aNames.length * 2];
+      nMask = aNewNames.length - 1;
+      for (final String sOld : aNames)
+        if (sOld != null)
+        {
+          int nNewIndex = _getStartIndex (sOld.hashCode (), aNewNames.length);
+          while (aNewNames[nNewIndex] != null)
+            nNewIndex = (nNewIndex + 1) & nMask;
+          aNewNames[nNewIndex] = sOld;
+        }
+      m_aNames = aNames = aNewNames;
+      nIndex = _getStartIndex (sName.hashCode (), aNames.length);
+      while (aNames[nIndex] != null)
+        nIndex = (nIndex + 1) & nMask;
+    }
+    aNames[nIndex] = sName;
+    m_nNameCount++;
+    return sName;
+  }
+
+  /**
+   * Get the canonical instance of the provided namespace URI. An empty
+   * namespace URI is unified to <code>null</code>, as in {@link MicroQName}.
+   *
+   * @param sNamespaceURI
+   *        The namespace URI to canonicalize. May be <code>null</code>.
+   * @return <code>null</code> if the passed namespace URI is <code>null</code>
+   *         or empty, the canonical instance otherwise.
+   */
+  @Nullable
+  public String getNamespaceURI (@Nullable final String sNamespaceURI)
+  {
+    return StringHelper.hasNoText (sNamespaceURI) ? null : getName (sNamespaceURI);
+  }
+
+  @Nullable
+  private MicroQName _findQName (@Nullable final String sNamespaceURI, @Nonnull final String sName)
+  {
+    final MicroQName [] aQNames = m_aQNames;
+    final int nMask = aQNames.length - 1;
+    int nIndex = _getStartIndex (MicroQName.getHashCode (sNamespaceURI, sName), aQNames.length);
+    MicroQName aExisting;
+    while ((aExisting = aQNames[nIndex]) != null)
+    {
+      final String sExistingNamespaceURI = aExisting.getNamespaceURI ();
+      final String sExistingName = aExisting.getName ();
+      if ((sExistingName == sName || sExistingName.equals (sName)) &&
+          (sExistingNamespaceURI == sNamespaceURI ||
+           (sExistingNamespaceURI != null && sExistingNamespaceURI.equals (sNamespaceURI))))
+        return aExisting;
+      nIndex = (nIndex + 1) & nMask;
+    }
+    return null;
+  }
+
+  private static void _insertQName (@Nonnull final MicroQName [] aQNames, @Nonnull final MicroQName aQName)
+  {
+    final int nMask = aQNames.length - 1;
+    int nIndex = _getStartIndex (aQName.hashCode (), aQNames.length);
+    while (aQNames[nIndex] != null)
+      nIndex = (nIndex + 1) & nMask;
+    aQNames[nIndex] = aQName;
+  }
+
+  /**
+   * Get the canonical {@link MicroQName} for the provided namespace URI and
+   * local name. The namespace URI and the name of a newly created
+   * {@link MicroQName} are canonicalized as well.
+   *
+   * @param sNamespaceURI
+   *        Namespace URI. May be <code>null</code>.
+   * @param sName
+   *        Local name. May neither be <code>null</code> nor empty.
+   * @return The canonical {@link MicroQName} and never <code>null</code>.
+   */
+  @Nonnull
+  public MicroQName getQName (@Nullable final String sNamespaceURI, @Nonnull @Nonempty final String sName)
+  {
+    final String sRealNamespaceURI = StringHelper.hasNoText (sNamespaceURI) ? null : sNamespaceURI;
+    MicroQName ret = _findQName (sRealNamespaceURI, sName);
+    if (ret == null)
+    {
+      ret = new MicroQName (getNamespaceURI (sRealNamespaceURI), getName (sName));
+      if (ret.getName () != sName)
+      {
+        // The namespace prefix was cut - check again with the local name
+        final MicroQName aExisting = _findQName (ret.getNamespaceURI (), ret.getName ());
+        if (aExisting != null)
+          return aExisting;
+      }
+
+      MicroQName [] aQNames = m_aQNames;
+      if (_isFull (m_nQNameCount + 1, aQNames.length))
+      {
+        // Rehash
+        final MicroQName [] aNewQNames = new MicroQName [aQNames.length * 2];
+        for (final MicroQName aOld : aQNames)
+          if (aOld != null)
+            _insertQName (aNewQNames, aOld);
+        m_aQNames = aQNames = aNewQNames;
+      }
+      _insertQName (aQNames, ret);
+      m_nQNameCount++;
+    }
+    return ret;
+  }
+
+  /**
+   * @return The number of distinct names and namespace URIs contained.
+   */
+  @Nonnegative
+  public int getNameCount ()
+  {
+    return m_nNameCount;
+  }
+
+  /**
+   * @return The number of distinct qualified names contained.
+   */
+  @Nonnegative
+  public int getQNameCount ()
+  {
+    return m_nQNameCount;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("NameCount", m_nNameCount)
+                                       .append ("QNameCount", m_nQNameCount)
+                                       .toString ();
+  }
+}
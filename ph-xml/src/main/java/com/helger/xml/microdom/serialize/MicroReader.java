@@ -41,6 +41,7 @@ import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.sax.InputSourceFactory;
 import com.helger.xml.serialize.read.ISAXReaderSettings;
 import com.helger.xml.serialize.read.SAXReader;
+import com.helger.xml.serialize.read.SAXReaderDefaultSettings;
 import com.helger.xml.serialize.read.SAXReaderSettings;
 
 /**
@@ -83,7 +84,11 @@ public final class MicroReader
       return null;
 
     final EntityResolver aEntityResolver = aSettings == null ? null : aSettings.getEntityResolver ();
-    final MicroSAXHandler aMicroHandler = new MicroSAXHandler (false, aEntityResolver);
+    final boolean bCompact = aSettings == null ? SAXReaderDefaultSettings.isCompactMicroDOM ()
+                                               : aSettings.isCompactMicroDOM ();
+    final boolean bUseSymbolTable = aSettings == null ? SAXReaderDefaultSettings.isUseMicroSymbolTable ()
+                                                      : aSettings.isUseMicroSymbolTable ();
+    final MicroSAXHandler aMicroHandler = new MicroSAXHandler (false, aEntityResolver, bCompact, bUseSymbolTable);
 
     // Copy and modify settings
     final SAXReaderSettings aRealSettings = SAXReaderSettings.createCloneOnDemand (aSettings);
@@ -0,0 +1,513 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.EntityResolver2;
+import org.xml.sax.ext.LexicalHandler;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.callback.exception.IExceptionCallback;
+import com.helger.commons.concurrent.BoundedExecutorDispatcher;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.xml.EXMLParserFeature;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroQName;
+import com.helger.xml.sax.InputSourceFactory;
+import com.helger.xml.serialize.read.ISAXReaderSettings;
+import com.helger.xml.serialize.read.SAXReader;
+import com.helger.xml.serialize.read.SAXReaderDefaultSettings;
+import com.helger.xml.serialize.read.SAXReaderSettings;
+
+/**
+ * Streaming reader for XML documents that consist of many repeated records,
+ * like <code>&lt;items&gt;&lt;item&gt;...&lt;/item&gt;...&lt;/items&gt;</code>.
+ * Each element matching the record name (and optionally the record depth) is
+ * read into a standalone {@link IMicroElement} and passed to a consumer.
+ * Everything outside of the records is skipped and each record is discarded
+ * after it was consumed, so the memory usage is bounded by the largest record
+ * and not by the size of the document. Records nested inside other records are
+ * part of the outer record.<br>
+ * Optionally the records can be dispatched to an {@link Executor} for parallel
+ * processing. The number of records waiting for processing is limited, so that
+ * the memory usage stays bounded in this case as well.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class MicroRecordReader
+{
+  /** Record depth that matches records on any depth */
+  public static final int ANY_DEPTH = -1;
+  /** Default maximum number of records waiting for parallel processing */
+  public static final int DEFAULT_MAX_PENDING_RECORDS = 256;
+
+  private final String m_sRecordNamespaceURI;
+  private final String m_sRecordName;
+  private int m_nRecordDepth = ANY_DEPTH;
+  private ISAXReaderSettings m_aSettings;
+  private Executor m_aExecutor;
+  private int m_nMaxPendingRecords = DEFAULT_MAX_PENDING_RECORDS;
+
+  /**
+   * Constructor for records without a namespace URI.
+   *
+   * @param sRecordName
+   *        The local name of the record elements. May neither be
+   *        <code>null</code> nor empty.
+   */
+  public MicroRecordReader (@Nonnull @Nonempty final String sRecordName)
+  {
+    this (null, sRecordName);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aRecordName
+   *        The qualified name of the record elements. May not be
+   *        <code>null</code>.
+   */
+  public MicroRecordReader (@Nonnull final IMicroQName aRecordName)
+  {
+    this (ValueEnforcer.notNull (aRecordName, "RecordName").getNamespaceURI (), aRecordName.getName ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sRecordNamespaceURI
+   *        The namespace URI of the record elements. May be <code>null</code>.
+   * @param sRecordName
+   *        The local name of the record elements. May neither be
+   *        <code>null</code> nor empty.
+   */
+  public MicroRecordReader (@Nullable final String sRecordNamespaceURI, @Nonnull @Nonempty final String sRecordName)
+  {
+    ValueEnforcer.notEmpty (sRecordName, "RecordName");
+    m_sRecordNamespaceURI = StringHelper.hasNoText (sRecordNamespaceURI) ? null : sRecordNamespaceURI;
+    m_sRecordName = sRecordName;
+  }
+
+  /**
+   * @return The namespace URI of the record elements. May be <code>null</code>.
+   */
+  @Nullable
+  public final String getRecordNamespaceURI ()
+  {
+    return m_sRecordNamespaceURI;
+  }
+
+  /**
+   * @return The local name of the record elements. Neither <code>null</code>
+   *         nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public final String getRecordName ()
+  {
+    return m_sRecordName;
+  }
+
+  /**
+   * @return The depth of the record elements, where the document element has
+   *         depth 0. {@link #ANY_DEPTH} if records are matched on any depth.
+   */
+  public final int getRecordDepth ()
+  {
+    return m_nRecordDepth;
+  }
+
+  /**
+   * Set the depth of the record elements, to avoid matching elements with the
+   * same name on other levels.
+   *
+   * @param nRecordDepth
+   *        The depth of the record elements, where the document element has
+   *        depth 0. Use {@link #ANY_DEPTH} to match records on any depth.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final MicroRecordReader setRecordDepth (final int nRecordDepth)
+  {
+    ValueEnforcer.isTrue (nRecordDepth >= 0 || nRecordDepth == ANY_DEPTH, "Invalid record depth");
+    m_nRecordDepth = nRecordDepth;
+    return this;
+  }
+
+  /**
+   * @return The SAX reader settings to use. May be <code>null</code> in which
+   *         case the default settings are used.
+   */
+  @Nullable
+  public final ISAXReaderSettings getSAXReaderSettings ()
+  {
+    return m_aSettings;
+  }
+
+  /**
+   * @param aSettings
+   *        The SAX reader settings to use. May be <code>null</code> in which
+   *        case the default settings are used. The handlers contained in the
+   *        settings are replaced, except for the error handler.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final MicroRecordReader setSAXReaderSettings (@Nullable final ISAXReaderSettings aSettings)
+  {
+    m_aSettings = aSettings;
+    return this;
+  }
+
+  /**
+   * @return The executor used for parallel processing of the records. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public final Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * Set the executor to be used to process records in parallel. If an executor
+   * is present, records may be consumed in a different order than they appear
+   * in the document and the consumer must be thread-safe. The reading methods
+   * return only after all records were processed.
+   *
+   * @param aExecutor
+   *        The executor to use. May be <code>null</code> to process all records
+   *        in the reading thread.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final MicroRecordReader setExecutor (@Nullable final Executor aExecutor)
+  {
+    m_aExecutor = aExecutor;
+    return this;
+  }
+
+  /**
+   * @return The maximum number of records that were read but not yet processed
+   *         when using an executor. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxPendingRecords ()
+  {
+    return m_nMaxPendingRecords;
+  }
+
+  /**
+   * @param nMaxPendingRecords
+   *        The maximum number of records that were read but not yet processed
+   *        when using an executor. If this limit is reached, reading blocks
+   *        until a record was processed. Must be &gt; 0.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final MicroRecordReader setMaxPendingRecords (@Nonnegative final int nMaxPendingRecords)
+  {
+    ValueEnforcer.isGT0 (nMaxPendingRecords, "MaxPendingRecords");
+    m_nMaxPendingRecords = nMaxPendingRecords;
+    return this;
+  }
+
+  @Nonnull
+  public ESuccess readRecords (@Nonnull final File aFile, @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    return readRecords (InputSourceFactory.create (aFile), aConsumer);
+  }
+
+  @Nonnull
+  public ESuccess readRecords (@Nonnull final IReadableResource aRes,
+                               @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    return readRecords (InputSourceFactory.create (aRes), aConsumer);
+  }
+
+  @Nonnull
+  public ESuccess readRecords (@Nonnull @WillClose final InputStream aIS,
+                               @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    return readRecords (InputSourceFactory.create (aIS), aConsumer);
+  }
+
+  @Nonnull
+  public ESuccess readRecords (@Nonnull final String sXML, @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    return readRecords (InputSourceFactory.create (sXML), aConsumer);
+  }
+
+  /**
+   * Read all records from the passed input source.
+   *
+   * @param aInputSource
+   *        The input source to read from. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer that is invoked for each record. The passed element
+   *        has no parent. May not be <code>null</code>. If an exception is
+   *        thrown by the consumer, reading is stopped.
+   * @return {@link ESuccess#SUCCESS} if reading and processing of all records
+   *         succeeded, {@link ESuccess#FAILURE} otherwise.
+   */
+  @Nonnull
+  public ESuccess readRecords (@Nonnull @WillClose final InputSource aInputSource,
+                               @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    ValueEnforcer.notNull (aInputSource, "InputSource");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final ISAXReaderSettings aSettings = m_aSettings;
+    final EntityResolver aEntityResolver = aSettings == null ? null : aSettings.getEntityResolver ();
+    final boolean bCompact = aSettings == null ? SAXReaderDefaultSettings.isCompactMicroDOM ()
+                                               : aSettings.isCompactMicroDOM ();
+    final boolean bUseSymbolTable = aSettings == null ? SAXReaderDefaultSettings.isUseMicroSymbolTable ()
+                                                      : aSettings.isUseMicroSymbolTable ();
+    // One handler is used for all records of a document
+    final MicroSAXHandler aMicroHandler = new MicroSAXHandler (false, aEntityResolver, bCompact, bUseSymbolTable);
+
+    final SAXReaderSettings aRealSettings = SAXReaderSettings.createCloneOnDemand (aSettings);
+    final RecordHandler aRecordHandler = new RecordHandler (aMicroHandler,
+                                                            aConsumer,
+                                                            aRealSettings.getExceptionHandler ());
+    aRealSettings.setEntityResolver (aMicroHandler)
+                 .setDTDHandler (aMicroHandler)
+                 .setContentHandler (aRecordHandler)
+                 .setLexicalHandler (aRecordHandler);
+    if (aRealSettings.getErrorHandler () == null)
+    {
+      // Use MicroHandler as default error handler if none is specified
+      aRealSettings.setErrorHandler (aMicroHandler);
+    }
+    if (aEntityResolver instanceof EntityResolver2)
+    {
+      // Ensure to use the new aEntityResolver2 APIs if available
+      aRealSettings.setFeatureValue (EXMLParserFeature.USE_ENTITY_RESOLVER2, true);
+    }
+
+    ESuccess eSuccess = SAXReader.readXMLSAX (aInputSource, aRealSettings);
+    // Wait until all pending records are processed
+    if (aRecordHandler.waitForPendingRecords ().isFailure ())
+      eSuccess = ESuccess.FAILURE;
+    return eSuccess;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).appendIfNotNull ("RecordNamespaceURI", m_sRecordNamespaceURI)
+                                       .append ("RecordName", m_sRecordName)
+                                       .append ("RecordDepth", m_nRecordDepth)
+                                       .appendIfNotNull ("Settings", m_aSettings)
+                                       .appendIfNotNull ("Executor", m_aExecutor)
+                                       .append ("MaxPendingRecords", m_nMaxPendingRecords)
+                                       .toString ();
+  }
+
+  /**
+   * The SAX handler that forwards all events inside a record to the
+   * {@link MicroSAXHandler} and dispatches the finished records.
+   */
+  private final class RecordHandler implements ContentHandler, LexicalHandler
+  {
+    private final MicroSAXHandler m_aMicroHandler;
+    private final BoundedExecutorDispatcher <IMicroElement> m_aDispatcher;
+    // Status vars
+    private int m_nDepth = 0;
+    private int m_nRecordStartDepth = -1;
+
+    RecordHandler (@Nonnull final MicroSAXHandler aMicroHandler,
+                   @Nonnull final Consumer <? super IMicroElement> aConsumer,
+                   @Nonnull final IExceptionCallback <Throwable> aExceptionHandler)
+    {
+      m_aMicroHandler = aMicroHandler;
+      m_aDispatcher = new BoundedExecutorDispatcher <> (m_aExecutor,
+                                                        m_nMaxPendingRecords,
+                                                        aConsumer,
+                                                        aExceptionHandler);
+    }
+
+    private boolean _isInRecord ()
+    {
+      return m_nRecordStartDepth >= 0;
+    }
+
+    private boolean _isRecordStart (@Nullable final String sNamespaceURI, @Nonnull final String sLocalName)
+    {
+      if (m_nRecordDepth != ANY_DEPTH && m_nRecordDepth != m_nDepth)
+        return false;
+      if (!m_sRecordName.equals (sLocalName))
+        return false;
+      if (StringHelper.hasNoText (sNamespaceURI))
+        return m_sRecordNamespaceURI == null;
+      return sNamespaceURI.equals (m_sRecordNamespaceURI);
+    }
+
+    private void _dispatchRecord (@Nonnull final IMicroElement aRecord) throws SAXException
+    {
+      try
+      {
+        m_aDispatcher.dispatch (aRecord);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        throw new SAXException ("Interrupted while waiting for record processing", ex);
+      }
+    }
+
+    /**
+     * Wait until all records dispatched to the executor are processed.
+     *
+     * @return {@link ESuccess#FAILURE} if the processing of at least one record
+     *         failed or if waiting was interrupted.
+     */
+    @Nonnull
+    ESuccess waitForPendingRecords ()
+    {
+      return m_aDispatcher.waitForPending ();
+    }
+
+    public void setDocumentLocator (final Locator aLocator)
+    {}
+
+    public void startDocument ()
+    {}
+
+    public void endDocument ()
+    {}
+
+    public void startPrefixMapping (final String sPrefix, final String sNamespaceURI)
+    {}
+
+    public void endPrefixMapping (final String sPrefix)
+    {}
+
+    public void startElement (@Nullable final String sNamespaceURI,
+                              @Nonnull final String sLocalName,
+                              @Nullable final String sQName,
+                              @Nullable final Attributes aAttributes) throws SAXException
+    {
+      if (!_isInRecord () && _isRecordStart (sNamespaceURI, sLocalName))
+      {
+        if (m_aDispatcher.isFailed ())
+          throw new SAXException ("Stopped reading, because processing a previous record failed");
+        m_nRecordStartDepth = m_nDepth;
+      }
+      if (_isInRecord ())
+        m_aMicroHandler.startElement (sNamespaceURI, sLocalName, sQName, aAttributes);
+      m_nDepth++;
+    }
+
+    public void endElement (final String sNamespaceURI,
+                            final String sLocalName,
+                            final String sQName) throws SAXException
+    {
+      m_nDepth--;
+      if (_isInRecord ())
+      {
+        m_aMicroHandler.endElement (sNamespaceURI, sLocalName, sQName);
+        if (m_nDepth == m_nRecordStartDepth)
+        {
+          // Record is complete
+          m_nRecordStartDepth = -1;
+          _dispatchRecord (m_aMicroHandler.detachDocumentElement ());
+        }
+      }
+    }
+
+    public void characters (@Nonnull final char [] aChars,
+                            @Nonnegative final int nStart,
+                            @Nonnegative final int nLength)
+    {
+      if (_isInRecord ())
+        m_aMicroHandler.characters (aChars, nStart, nLength);
+    }
+
+    public void ignorableWhitespace (@Nonnull final char [] aChars,
+                                     @Nonnegative final int nStart,
+                                     @Nonnegative final int nLength)
+    {
+      if (_isInRecord ())
+        m_aMicroHandler.ignorableWhitespace (aChars, nStart, nLength);
+    }
+
+    public void processingInstruction (final String sTarget, final String sData)
+    {
+      if (_isInRecord ())
+        m_aMicroHandler.processingInstruction (sTarget, sData);
+    }
+
+    public void skippedEntity (final String sName)
+    {
+      m_aMicroHandler.skippedEntity (sName);
+    }
+
+    public void startDTD (final String sName, final String sPublicId, final String sSystemId)
+    {}
+
+    public void endDTD ()
+    {}
+
+    public void startEntity (final String sName)
+    {}
+
+    public void endEntity (final String sName)
+    {}
+
+    public void startCDATA () throws SAXException
+    {
+      if (_isInRecord ())
+        m_aMicroHandler.startCDATA ();
+    }
+
+    public void endCDATA () throws SAXException
+    {
+      if (_isInRecord ())
+        m_aMicroHandler.endCDATA ();
+    }
+
+    public void comment (@Nonnull final char [] aChars,
+                         @Nonnegative final int nStart,
+                         @Nonnegative final int nLength) throws SAXException
+    {
+      if (_isInRecord ())
+        m_aMicroHandler.comment (aChars, nStart, nLength);
+    }
+  }
+}
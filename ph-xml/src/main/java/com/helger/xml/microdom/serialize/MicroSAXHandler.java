@@ -42,6 +42,7 @@ import com.helger.commons.error.level.EErrorLevel;
 import com.helger.commons.error.level.IErrorLevel;
 import com.helger.commons.string.StringHelper;
 import com.helger.xml.CXML;
+import com.helger.xml.microdom.AbstractMicroNodeWithChildren;
 import com.helger.xml.microdom.IMicroCDATA;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroDocumentType;
@@ -50,10 +51,19 @@ import com.helger.xml.microdom.IMicroNode;
 import com.helger.xml.microdom.IMicroText;
 import com.helger.xml.microdom.MicroDocument;
 import com.helger.xml.microdom.MicroDocumentType;
+import com.helger.xml.microdom.MicroSymbolTable;
 import com.helger.xml.sax.AbstractSAXErrorHandler;
 
 /**
- * The SAX handler used by the {@link MicroReader}.
+ * The SAX handler used by the {@link MicroReader}.<br>
+ * If a symbol table is used, all element names, namespace URIs and attribute
+ * names are canonicalized via a {@link MicroSymbolTable} that lives as long as
+ * this handler, so equal names share the same instance.<br>
+ * In compact mode the created document uses less memory: element names,
+ * namespace URIs and attribute names are shared within the document, all
+ * characters of a text node are collected before the node is created so that
+ * the text is stored in an exact-sized immutable string, and the child lists
+ * are trimmed when an element is finished.
  *
  * @author Philip Helger
  */
@@ -61,6 +71,16 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (MicroSAXHandler.class);
 
+  /**
+   * The type of the text collected in compact mode.
+   */
+  private static enum EPendingText
+  {
+    TEXT,
+    CDATA,
+    IGNORABLE_WHITESPACE;
+  }
+
   private IMicroDocument m_aDoc;
   private IMicroDocumentType m_aDocType;
   private IMicroNode m_aParent;
@@ -70,12 +90,125 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
   private final boolean m_bSaveIgnorableWhitespaces;
   private final EntityResolver m_aEntityResolver;
   private final EntityResolver2 m_aEntityResolver2;
+  private final boolean m_bCompact;
+  private final MicroSymbolTable m_aSymbolTable;
+  // Compact mode only
+  private StringBuilder m_aPendingText;
+  private EPendingText m_ePendingTextType;
 
   public MicroSAXHandler (final boolean bSaveIgnorableWhitespaces, @Nullable final EntityResolver aEntityResolver)
+  {
+    this (bSaveIgnorableWhitespaces, aEntityResolver, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bSaveIgnorableWhitespaces
+   *        <code>true</code> to create text nodes for ignorable whitespaces.
+   * @param aEntityResolver
+   *        Optional entity resolver. May be <code>null</code>.
+   * @param bCompact
+   *        <code>true</code> to create a document with the compact memory
+   *        layout. This implies the usage of a symbol table.
+   * @since 8.6.0
+   */
+  public MicroSAXHandler (final boolean bSaveIgnorableWhitespaces,
+                          @Nullable final EntityResolver aEntityResolver,
+                          final boolean bCompact)
+  {
+    this (bSaveIgnorableWhitespaces, aEntityResolver, bCompact, bCompact);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bSaveIgnorableWhitespaces
+   *        <code>true</code> to create text nodes for ignorable whitespaces.
+   * @param aEntityResolver
+   *        Optional entity resolver. May be <code>null</code>.
+   * @param bCompact
+   *        <code>true</code> to create a document with the compact memory
+   *        layout. This implies the usage of a symbol table.
+   * @param bUseSymbolTable
+   *        <code>true</code> to canonicalize all names via a
+   *        {@link MicroSymbolTable}.
+   * @since 8.6.0
+   */
+  public MicroSAXHandler (final boolean bSaveIgnorableWhitespaces,
+                          @Nullable final EntityResolver aEntityResolver,
+                          final boolean bCompact,
+                          final boolean bUseSymbolTable)
   {
     m_bSaveIgnorableWhitespaces = bSaveIgnorableWhitespaces;
     m_aEntityResolver = aEntityResolver;
     m_aEntityResolver2 = aEntityResolver instanceof EntityResolver2 ? (EntityResolver2) aEntityResolver : null;
+    m_bCompact = bCompact;
+    m_aSymbolTable = bCompact || bUseSymbolTable ? new MicroSymbolTable () : null;
+    if (bCompact)
+      m_aPendingText = new StringBuilder ();
+  }
+
+  /**
+   * @return <code>true</code> if the compact memory layout is used.
+   * @since 8.6.0
+   */
+  public final boolean isCompact ()
+  {
+    return m_bCompact;
+  }
+
+  /**
+   * @return The symbol table used to canonicalize names. Is only present if
+   *         the compact mode or the symbol table usage is enabled.
+   * @since 8.6.0
+   */
+  @Nullable
+  public final MicroSymbolTable getSymbolTable ()
+  {
+    return m_aSymbolTable;
+  }
+
+  /**
+   * Create the text node collected in compact mode.
+   */
+  private void _flushPendingText ()
+  {
+    if (m_ePendingTextType != null)
+    {
+      final String sText = m_aPendingText.toString ();
+      switch (m_ePendingTextType)
+      {
+        case CDATA:
+          m_aParent.appendCDATA (sText);
+          break;
+        case TEXT:
+          m_aParent.appendText (sText);
+          break;
+        case IGNORABLE_WHITESPACE:
+          m_aParent.appendIgnorableWhitespaceText (sText);
+          break;
+      }
+      m_aPendingText.setLength (0);
+      m_ePendingTextType = null;
+    }
+  }
+
+  /**
+   * Collect text in compact mode. Directly following chunks of the same type
+   * are merged into one node, like in the regular mode.
+   */
+  private void _addPendingText (@Nonnull final EPendingText eType,
+                                @Nonnull final char [] aChars,
+                                @Nonnegative final int nStart,
+                                @Nonnegative final int nLength)
+  {
+    if (m_ePendingTextType != eType)
+    {
+      _flushPendingText ();
+      m_ePendingTextType = eType;
+    }
+    m_aPendingText.append (aChars, nStart, nLength);
   }
 
   private void _createParentDocument ()
@@ -95,7 +228,10 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
   {}
 
   public void endDocument ()
-  {}
+  {
+    if (m_bCompact && m_aDoc instanceof AbstractMicroNodeWithChildren)
+      ((AbstractMicroNodeWithChildren) m_aDoc).trimChildrenToSize ();
+  }
 
   public void startDTD (final String sName, final String sPublicId, final String sSystemId) throws SAXException
   {
@@ -117,12 +253,25 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
                             @Nullable final Attributes aAttributes)
   {
     _createParentDocument ();
+    if (m_bCompact)
+      _flushPendingText ();
 
+    final MicroSymbolTable aSymbolTable = m_aSymbolTable;
     IMicroElement aElement;
-    if (StringHelper.hasText (sNamespaceURI))
-      aElement = m_aParent.appendElement (sNamespaceURI, sLocalName);
+    if (aSymbolTable != null)
+    {
+      final String sRealNamespaceURI = aSymbolTable.getNamespaceURI (sNamespaceURI);
+      final String sRealLocalName = aSymbolTable.getName (sLocalName);
+      if (sRealNamespaceURI != null)
+        aElement = m_aParent.appendElement (sRealNamespaceURI, sRealLocalName);
+      else
+        aElement = m_aParent.appendElement (sRealLocalName);
+    }
     else
-      aElement = m_aParent.appendElement (sLocalName);
+      if (StringHelper.hasText (sNamespaceURI))
+        aElement = m_aParent.appendElement (sNamespaceURI, sLocalName);
+      else
+        aElement = m_aParent.appendElement (sLocalName);
 
     // copy attributes
     if (aAttributes != null)
@@ -137,7 +286,12 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
         // Ignore the "xmlns" attributes, as the SAX handler passes the correct
         // namespace URIs
         if (!sAttrName.startsWith (CXML.XML_ATTR_XMLNS))
-          aElement.setAttribute (sAttrNamespaceURI, sAttrName, sAttrValue);
+        {
+          if (aSymbolTable != null)
+            aElement.setAttribute (aSymbolTable.getQName (sAttrNamespaceURI, sAttrName), sAttrValue);
+          else
+            aElement.setAttribute (sAttrNamespaceURI, sAttrName, sAttrValue);
+        }
       }
     }
 
@@ -146,11 +300,23 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
 
   public void endElement (final String sNamespaceURI, final String sLocalName, final String sQName)
   {
+    if (m_bCompact)
+    {
+      _flushPendingText ();
+      if (m_aParent instanceof AbstractMicroNodeWithChildren)
+        ((AbstractMicroNodeWithChildren) m_aParent).trimChildrenToSize ();
+    }
     m_aParent = m_aParent.getParent ();
   }
 
   public void characters (@Nonnull final char [] aChars, @Nonnegative final int nStart, @Nonnegative final int nLength)
   {
+    if (m_bCompact)
+    {
+      _addPendingText (m_bCDATAMode ? EPendingText.CDATA : EPendingText.TEXT, aChars, nStart, nLength);
+      return;
+    }
+
     if (m_bCDATAMode)
     {
       // CDATA mode
@@ -201,6 +367,12 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
   {
     if (m_bSaveIgnorableWhitespaces)
     {
+      if (m_bCompact)
+      {
+        _addPendingText (EPendingText.IGNORABLE_WHITESPACE, aChars, nStart, nLength);
+        return;
+      }
+
       final IMicroNode aLastChild = m_aParent.getLastChild ();
       if (aLastChild != null && aLastChild.getType ().isText ())
       {
@@ -222,6 +394,8 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
   public void processingInstruction (final String sTarget, final String sData)
   {
     _createParentDocument ();
+    if (m_bCompact)
+      _flushPendingText ();
     m_aParent.appendProcessingInstruction (sTarget, sData);
   }
 
@@ -358,11 +532,32 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
     {
       // In case the comment comes before the root element....
       _createParentDocument ();
+      if (m_bCompact)
+        _flushPendingText ();
 
       m_aParent.appendComment (aChars, nStart, nLength);
     }
   }
 
+  /**
+   * Detach the document element that was read since the last call from its
+   * document and reset this handler, so that the next element can be read.
+   * This is used for reading single records of a document.
+   *
+   * @return The detached document element. May be <code>null</code> if no
+   *         element was read.
+   */
+  @Nullable
+  final IMicroElement detachDocumentElement ()
+  {
+    final IMicroElement ret = m_aDoc == null ? null : m_aDoc.getDocumentElement ();
+    if (ret != null)
+      ret.detachFromParent ();
+    m_aDoc = null;
+    m_aParent = null;
+    return ret;
+  }
+
   /**
    * @return The created and filled micro document. May be <code>null</code> if
    *         no document start event came in.
@@ -0,0 +1,291 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.xml.namespace.NamespaceContext;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.xml.microdom.IMicroAttribute;
+import com.helger.xml.microdom.IMicroNode;
+
+/**
+ * A compiled path expression that is evaluated directly on a micro DOM tree,
+ * without the need to convert it to a W3C DOM. A practical subset of XPath 1.0
+ * is supported:
+ * <ul>
+ * <li>Absolute and relative location paths including the abbreviations
+ * <code>//</code>, <code>@</code>, <code>.</code> and <code>..</code></li>
+ * <li>The axes <code>child</code>, <code>descendant</code>,
+ * <code>descendant-or-self</code>, <code>self</code>, <code>parent</code> and
+ * <code>attribute</code></li>
+ * <li>Name tests with namespace prefixes (resolved at compile time via the
+ * {@link NamespaceContext}) and wildcards, as well as the node type tests
+ * <code>node()</code>, <code>text()</code>, <code>comment()</code> and
+ * <code>processing-instruction()</code></li>
+ * <li>Predicates with positions, comparisons, arithmetic, <code>and</code>,
+ * <code>or</code> and the functions <code>position</code>, <code>last</code>,
+ * <code>count</code>, <code>not</code>, <code>true</code>, <code>false</code>,
+ * <code>boolean</code>, <code>number</code>, <code>string</code>,
+ * <code>string-length</code>, <code>normalize-space</code>,
+ * <code>concat</code>, <code>contains</code>, <code>starts-with</code>,
+ * <code>local-name</code> and <code>namespace-uri</code></li>
+ * </ul>
+ * Not supported are unions, variables, filter expressions and the ancestor,
+ * sibling, following, preceding and namespace axes. Unprefixed element names
+ * match the default namespace of the provided namespace context, or no
+ * namespace if none is present. Micro containers are transparent and
+ * adjacent text and CDATA nodes are not merged into a single text node. Because
+ * micro attributes have no reference to their owning element, steps after an
+ * attribute step only support the <code>self</code> axis.<br>
+ * Instances are immutable and may be shared between threads. Use
+ * {@link #compile(String, NamespaceContext)} to benefit from the compiled
+ * expression cache.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@Immutable
+public final class MicroXPath
+{
+  private final String m_sExpression;
+  private final MicroXPathPath m_aPath;
+
+  /**
+   * Compile a new expression without using the cache.
+   *
+   * @param sExpression
+   *        The expression to compile. May neither be <code>null</code> nor
+   *        empty.
+   * @param aNamespaceContext
+   *        The namespace context used to resolve prefixes. May be
+   *        <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the expression is invalid or uses unsupported features.
+   */
+  public MicroXPath (@Nonnull @Nonempty final String sExpression, @Nullable final NamespaceContext aNamespaceContext)
+  {
+    ValueEnforcer.notEmpty (sExpression, "Expression");
+    m_sExpression = sExpression;
+    m_aPath = new MicroXPathParser (sExpression, aNamespaceContext).parse ();
+  }
+
+  /**
+   * @return The original expression. Neither <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getExpression ()
+  {
+    return m_sExpression;
+  }
+
+  /**
+   * @return <code>true</code> if this expression selects attributes,
+   *         <code>false</code> if it selects nodes.
+   */
+  public boolean isAttributeResult ()
+  {
+    return m_aPath.isAttributeResult ();
+  }
+
+  private void _checkNodeResult ()
+  {
+    if (m_aPath.isAttributeResult ())
+      throw new IllegalStateException ("The expression '" + m_sExpression + "' selects attributes and not nodes");
+  }
+
+  private void _checkAttributeResult ()
+  {
+    if (!m_aPath.isAttributeResult ())
+      throw new IllegalStateException ("The expression '" + m_sExpression + "' selects nodes and not attributes");
+  }
+
+  /**
+   * Select all matching nodes.
+   *
+   * @param aContextNode
+   *        The context node. May not be <code>null</code>.
+   * @return A new list with all matching nodes in document order. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         If this expression selects attributes.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IMicroNode> selectNodes (@Nonnull final IMicroNode aContextNode)
+  {
+    ValueEnforcer.notNull (aContextNode, "ContextNode");
+    _checkNodeResult ();
+
+    final ICommonsList <Object> aItems = m_aPath.evaluate (aContextNode);
+    final ICommonsList <IMicroNode> ret = new CommonsArrayList <> (aItems.size ());
+    for (final Object aItem : aItems)
+      ret.add ((IMicroNode) aItem);
+    return ret;
+  }
+
+  /**
+   * Select the first matching node in document order. If the expression
+   * contains no step that requires sorting, evaluation stops at the first
+   * match.
+   *
+   * @param aContextNode
+   *        The context node. May not be <code>null</code>.
+   * @return <code>null</code> if no node matches.
+   * @throws IllegalStateException
+   *         If this expression selects attributes.
+   */
+  @Nullable
+  public IMicroNode selectFirstNode (@Nonnull final IMicroNode aContextNode)
+  {
+    ValueEnforcer.notNull (aContextNode, "ContextNode");
+    _checkNodeResult ();
+
+    return (IMicroNode) m_aPath.getFirstItem (aContextNode);
+  }
+
+  /**
+   * Select all matching attributes.
+   *
+   * @param aContextNode
+   *        The context node. May not be <code>null</code>.
+   * @return A new list with all matching attributes in document order. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         If this expression selects nodes.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IMicroAttribute> selectAttributes (@Nonnull final IMicroNode aContextNode)
+  {
+    ValueEnforcer.notNull (aContextNode, "ContextNode");
+    _checkAttributeResult ();
+
+    final ICommonsList <Object> aItems = m_aPath.evaluate (aContextNode);
+    final ICommonsList <IMicroAttribute> ret = new CommonsArrayList <> (aItems.size ());
+    for (final Object aItem : aItems)
+      ret.add ((IMicroAttribute) aItem);
+    return ret;
+  }
+
+  /**
+   * Select the string values of all matching nodes or attributes. The string
+   * value of an element is the concatenation of all contained text and CDATA
+   * nodes.
+   *
+   * @param aContextNode
+   *        The context node. May not be <code>null</code>.
+   * @return A new list with the string values in document order. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <String> selectValues (@Nonnull final IMicroNode aContextNode)
+  {
+    ValueEnforcer.notNull (aContextNode, "ContextNode");
+
+    final ICommonsList <Object> aItems = m_aPath.evaluate (aContextNode);
+    final ICommonsList <String> ret = new CommonsArrayList <> (aItems.size ());
+    for (final Object aItem : aItems)
+      ret.add (MicroXPathExpr.getStringValue (aItem));
+    return ret;
+  }
+
+  /**
+   * Select the string value of the first matching node or attribute.
+   *
+   * @param aContextNode
+   *        The context node. May not be <code>null</code>.
+   * @return <code>null</code> if nothing matches.
+   */
+  @Nullable
+  public String selectValue (@Nonnull final IMicroNode aContextNode)
+  {
+    ValueEnforcer.notNull (aContextNode, "ContextNode");
+
+    final Object aItem = m_aPath.getFirstItem (aContextNode);
+    return aItem == null ? null : MicroXPathExpr.getStringValue (aItem);
+  }
+
+  /**
+   * Check if at least one node or attribute matches. Evaluation stops at the
+   * first match.
+   *
+   * @param aContextNode
+   *        The context node. May not be <code>null</code>.
+   * @return <code>true</code> if at least one item matches.
+   */
+  public boolean hasMatch (@Nonnull final IMicroNode aContextNode)
+  {
+    ValueEnforcer.notNull (aContextNode, "ContextNode");
+
+    return m_aPath.hasMatch (aContextNode);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Expression", m_sExpression).append ("Path", m_aPath).toString ();
+  }
+
+  /**
+   * Get the compiled expression from the cache, compiling it if necessary.
+   *
+   * @param sExpression
+   *        The expression to compile. May neither be <code>null</code> nor
+   *        empty.
+   * @return The compiled expression. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the expression is invalid or uses unsupported features.
+   * @see MicroXPathCache
+   */
+  @Nonnull
+  public static MicroXPath compile (@Nonnull @Nonempty final String sExpression)
+  {
+    return compile (sExpression, null);
+  }
+
+  /**
+   * Get the compiled expression from the cache, compiling it if necessary. The
+   * namespace context is compared by identity.
+   *
+   * @param sExpression
+   *        The expression to compile. May neither be <code>null</code> nor
+   *        empty.
+   * @param aNamespaceContext
+   *        The namespace context used to resolve prefixes. May be
+   *        <code>null</code>.
+   * @return The compiled expression. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the expression is invalid or uses unsupported features.
+   * @see MicroXPathCache
+   */
+  @Nonnull
+  public static MicroXPath compile (@Nonnull @Nonempty final String sExpression,
+                                    @Nullable final NamespaceContext aNamespaceContext)
+  {
+    return MicroXPathCache.getInstance ().getFromCache (new MicroXPathCache.XPathKey (sExpression, aNamespaceContext));
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.namespace.NamespaceContext;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ELockType;
+import com.helger.commons.annotation.IsLocked;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.Singleton;
+import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * This class provides a cache for compiled {@link MicroXPath} expressions. As
+ * compiled expressions are immutable, a single cache is shared by all threads.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+@Singleton
+public final class MicroXPathCache extends AbstractNotifyingCache <MicroXPathCache.XPathKey, MicroXPath>
+{
+  /**
+   * The key of a single compiled expression. The namespace context is
+   * compared by identity.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class XPathKey
+  {
+    private final String m_sExpression;
+    private final NamespaceContext m_aNamespaceContext;
+    // Status vars
+    private final int m_nHashCode;
+
+    public XPathKey (@Nonnull @Nonempty final String sExpression, @Nullable final NamespaceContext aNamespaceContext)
+    {
+      ValueEnforcer.notEmpty (sExpression, "Expression");
+      m_sExpression = sExpression;
+      m_aNamespaceContext = aNamespaceContext;
+      m_nHashCode = new HashCodeGenerator (this).append (sExpression)
+                                                .append (System.identityHashCode (aNamespaceContext))
+                                                .getHashCode ();
+    }
+
+    @Nonnull
+    @Nonempty
+    public String getExpression ()
+    {
+      return m_sExpression;
+    }
+
+    @Nullable
+    public NamespaceContext getNamespaceContext ()
+    {
+      return m_aNamespaceContext;
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final XPathKey rhs = (XPathKey) o;
+      return m_sExpression.equals (rhs.m_sExpression) && m_aNamespaceContext == rhs.m_aNamespaceContext;
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return m_nHashCode;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Expression", m_sExpression)
+                                         .append ("NamespaceContext", m_aNamespaceContext)
+                                         .toString ();
+    }
+  }
+
+  private static final class SingletonHolder
+  {
+    private static final MicroXPathCache s_aInstance = new MicroXPathCache ();
+  }
+
+  /** The default number of items to keep in the cache */
+  public static final int MAX_CACHE_SIZE = 1000;
+
+  private static boolean s_bDefaultInstantiated = false;
+
+  private MicroXPathCache ()
+  {
+    super (MAX_CACHE_SIZE, MicroXPathCache.class.getName (), ECacheMode.CONCURRENT);
+  }
+
+  public static boolean isInstantiated ()
+  {
+    return s_bDefaultInstantiated;
+  }
+
+  @Nonnull
+  public static MicroXPathCache getInstance ()
+  {
+    final MicroXPathCache ret = SingletonHolder.s_aInstance;
+    s_bDefaultInstantiated = true;
+    return ret;
+  }
+
+  @Override
+  @Nonnull
+  @IsLocked (ELockType.WRITE)
+  protected MicroXPath getValueToCache (@Nonnull final XPathKey aKey)
+  {
+    return new MicroXPath (aKey.getExpression (), aKey.getNamespaceContext ());
+  }
+}
@@ -0,0 +1,887 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.xml.microdom.IMicroAttribute;
+import com.helger.xml.microdom.IMicroDataAware;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroNode;
+import com.helger.xml.microdom.IMicroProcessingInstruction;
+
+/**
+ * Base class for all compiled expressions. The result of an evaluation is
+ * either a {@link Boolean}, a {@link Double}, a {@link String} or a node-set
+ * represented as a {@link List} of {@link IMicroNode} and
+ * {@link IMicroAttribute} objects in document order.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+abstract class MicroXPathExpr
+{
+  /**
+   * Evaluate this expression.
+   *
+   * @param aContextItem
+   *        The context node or attribute. Never <code>null</code>.
+   * @param nPosition
+   *        The 1-based context position. Only valid if this expression is
+   *        positional.
+   * @param nSize
+   *        The context size. Only valid if this expression is positional.
+   * @return The result value. Never <code>null</code>.
+   */
+  @Nonnull
+  abstract Object evaluate (@Nonnull Object aContextItem, int nPosition, int nSize);
+
+  /**
+   * @return <code>true</code> if this expression references the context
+   *         position or the context size.
+   */
+  boolean usesPosition ()
+  {
+    return false;
+  }
+
+  /**
+   * @return <code>true</code> if this expression always returns a number.
+   */
+  boolean isNumeric ()
+  {
+    return false;
+  }
+
+  /**
+   * @return <code>true</code> if this expression, used as a predicate, depends
+   *         on the position within the candidate list.
+   */
+  final boolean isPositional ()
+  {
+    return usesPosition () || isNumeric ();
+  }
+
+  /**
+   * Evaluate this expression as a predicate.
+   *
+   * @param aContextItem
+   *        The context item. Never <code>null</code>.
+   * @param nPosition
+   *        The 1-based context position.
+   * @param nSize
+   *        The context size.
+   * @return <code>true</code> if the predicate matches
+   */
+  boolean evaluatePredicate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+  {
+    final Object aValue = evaluate (aContextItem, nPosition, nSize);
+    if (aValue instanceof Double)
+      return ((Double) aValue).doubleValue () == nPosition;
+    return getAsBoolean (aValue);
+  }
+
+  /**
+   * Evaluate this expression and convert the result to a boolean like the
+   * boolean() function. In contrast to
+   * {@link #evaluatePredicate(Object, int, int)} numbers are not compared to
+   * the position.
+   *
+   * @param aContextItem
+   *        The context item. Never <code>null</code>.
+   * @param nPosition
+   *        The 1-based context position.
+   * @param nSize
+   *        The context size.
+   * @return The boolean value of this expression.
+   */
+  boolean evaluateAsBoolean (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+  {
+    return getAsBoolean (evaluate (aContextItem, nPosition, nSize));
+  }
+
+  /**
+   * @param aItem
+   *        Node or attribute. Never <code>null</code>.
+   * @return The XPath string-value of the passed item. Never <code>null</code>.
+   */
+  @Nonnull
+  static String getStringValue (@Nonnull final Object aItem)
+  {
+    if (aItem instanceof IMicroAttribute)
+      return StringHelper.getNotNull (((IMicroAttribute) aItem).getAttributeValue ());
+
+    final IMicroNode aNode = (IMicroNode) aItem;
+    if (aNode.isText () || aNode.isCDATA () || aNode.isComment ())
+      return ((IMicroDataAware) aNode).getData ().toString ();
+    if (aNode.isProcessingInstruction ())
+      return StringHelper.getNotNull (((IMicroProcessingInstruction) aNode).getData ());
+    if (aNode.isElement () || aNode.isDocument () || aNode.isContainer ())
+    {
+      final StringBuilder aSB = new StringBuilder ();
+      _appendDescendantText (aNode, aSB);
+      return aSB.toString ();
+    }
+    return "";
+  }
+
+  private static void _appendDescendantText (@Nonnull final IMicroNode aNode, @Nonnull final StringBuilder aSB)
+  {
+    if (aNode.hasChildren ())
+      for (final IMicroNode aChild : aNode.getAllChildren ())
+        if (aChild.isText () || aChild.isCDATA ())
+          aSB.append (((IMicroDataAware) aChild).getData ());
+        else
+          if (aChild.isElement () || aChild.isContainer ())
+            _appendDescendantText (aChild, aSB);
+  }
+
+  @Nonnull
+  static String getAsString (@Nonnull final Object aValue)
+  {
+    if (aValue instanceof String)
+      return (String) aValue;
+    if (aValue instanceof List <?>)
+    {
+      final List <?> aList = (List <?>) aValue;
+      return aList.isEmpty () ? "" : getStringValue (aList.get (0));
+    }
+    if (aValue instanceof Double)
+      return getNumberAsString (((Double) aValue).doubleValue ());
+    return aValue.toString ();
+  }
+
+  @Nonnull
+  static String getNumberAsString (final double dValue)
+  {
+    if (Double.isNaN (dValue))
+      return "NaN";
+    if (Double.isInfinite (dValue))
+      return dValue > 0 ? "Infinity" : "-Infinity";
+    if (dValue == 0)
+      return "0";
+    if (dValue == Math.rint (dValue) && Math.abs (dValue) < 1e15)
+      return Long.toString ((long) dValue);
+    return BigDecimal.valueOf (dValue).stripTrailingZeros ().toPlainString ();
+  }
+
+  static double getAsNumber (@Nonnull final Object aValue)
+  {
+    if (aValue instanceof Double)
+      return ((Double) aValue).doubleValue ();
+    if (aValue instanceof Boolean)
+      return ((Boolean) aValue).booleanValue () ? 1 : 0;
+    return getStringAsNumber (getAsString (aValue));
+  }
+
+  /**
+   * Convert a string to a number according to the XPath 1.0 rules: optional
+   * whitespace, an optional minus sign, digits with an optional decimal point,
+   * optional whitespace. Everything else is NaN.
+   */
+  static double getStringAsNumber (@Nonnull final String sValue)
+  {
+    final String s = sValue.trim ();
+    final int nLen = s.length ();
+    int i = 0;
+    if (i < nLen && s.charAt (i) == '-')
+      i++;
+    boolean bDigits = false;
+    boolean bDot = false;
+    for (; i < nLen; ++i)
+    {
+      final char c = s.charAt (i);
+      if (c >= '0' && c <= '9')
+        bDigits = true;
+      else
+        if (c == '.' && !bDot)
+          bDot = true;
+        else
+          return Double.NaN;
+    }
+    return bDigits ? Double.parseDouble (s) : Double.NaN;
+  }
+
+  static boolean getAsBoolean (@Nonnull final Object aValue)
+  {
+    if (aValue instanceof Boolean)
+      return ((Boolean) aValue).booleanValue ();
+    if (aValue instanceof Double)
+    {
+      final double d = ((Double) aValue).doubleValue ();
+      return d != 0 && !Double.isNaN (d);
+    }
+    if (aValue instanceof String)
+      return ((String) aValue).length () > 0;
+    return !((List <?>) aValue).isEmpty ();
+  }
+
+  /**
+   * A string literal.
+   */
+  static final class LiteralExpr extends MicroXPathExpr
+  {
+    private final String m_sValue;
+
+    LiteralExpr (@Nonnull final String sValue)
+    {
+      m_sValue = sValue;
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return m_sValue;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Value", m_sValue).toString ();
+    }
+  }
+
+  /**
+   * A number literal.
+   */
+  static final class NumberExpr extends MicroXPathExpr
+  {
+    private final Double m_aValue;
+
+    NumberExpr (final double dValue)
+    {
+      m_aValue = Double.valueOf (dValue);
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return m_aValue;
+    }
+
+    @Override
+    boolean isNumeric ()
+    {
+      return true;
+    }
+
+    @Override
+    boolean evaluatePredicate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return m_aValue.doubleValue () == nPosition;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Value", m_aValue).toString ();
+    }
+  }
+
+  /**
+   * A location path used as an expression.
+   */
+  static final class PathExpr extends MicroXPathExpr
+  {
+    private final MicroXPathPath m_aPath;
+
+    PathExpr (@Nonnull final MicroXPathPath aPath)
+    {
+      m_aPath = aPath;
+    }
+
+    @Nonnull
+    MicroXPathPath getPath ()
+    {
+      return m_aPath;
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return m_aPath.evaluate (aContextItem);
+    }
+
+    @Override
+    boolean evaluatePredicate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return m_aPath.hasMatch (aContextItem);
+    }
+
+    @Override
+    boolean evaluateAsBoolean (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return m_aPath.hasMatch (aContextItem);
+    }
+
+    /**
+     * Check if any selected item has a string-value matching the passed
+     * predicate. Duplicates may be checked more than once.
+     */
+    boolean anyStringValueMatches (@Nonnull final Object aContextItem, @Nonnull final Predicate <String> aPredicate)
+    {
+      if (m_aPath.isSimpleAttributePath ())
+      {
+        // Fast path for "@name"
+        final String sValue = m_aPath.getSimpleAttributeValue (aContextItem);
+        return sValue != null && aPredicate.test (sValue);
+      }
+      return m_aPath.forEachItemUnordered (aContextItem, x -> aPredicate.test (getStringValue (x)));
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Path", m_aPath).toString ();
+    }
+  }
+
+  /**
+   * Unary minus.
+   */
+  static final class NegateExpr extends MicroXPathExpr
+  {
+    private final MicroXPathExpr m_aExpr;
+
+    NegateExpr (@Nonnull final MicroXPathExpr aExpr)
+    {
+      m_aExpr = aExpr;
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return Double.valueOf (-getAsNumber (m_aExpr.evaluate (aContextItem, nPosition, nSize)));
+    }
+
+    @Override
+    boolean usesPosition ()
+    {
+      return m_aExpr.usesPosition ();
+    }
+
+    @Override
+    boolean isNumeric ()
+    {
+      return true;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Expr", m_aExpr).toString ();
+    }
+  }
+
+  /**
+   * Base class for binary expressions.
+   */
+  abstract static class AbstractBinaryExpr extends MicroXPathExpr
+  {
+    protected final String m_sOperator;
+    protected final MicroXPathExpr m_aLeft;
+    protected final MicroXPathExpr m_aRight;
+
+    AbstractBinaryExpr (@Nonnull final String sOperator,
+                        @Nonnull final MicroXPathExpr aLeft,
+                        @Nonnull final MicroXPathExpr aRight)
+    {
+      m_sOperator = sOperator;
+      m_aLeft = aLeft;
+      m_aRight = aRight;
+    }
+
+    @Override
+    boolean usesPosition ()
+    {
+      return m_aLeft.usesPosition () || m_aRight.usesPosition ();
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Operator", m_sOperator)
+                                         .append ("Left", m_aLeft)
+                                         .append ("Right", m_aRight)
+                                         .toString ();
+    }
+  }
+
+  /**
+   * "and" and "or" with short-circuit evaluation.
+   */
+  static final class LogicalExpr extends AbstractBinaryExpr
+  {
+    private final boolean m_bAnd;
+
+    LogicalExpr (@Nonnull final String sOperator,
+                 @Nonnull final MicroXPathExpr aLeft,
+                 @Nonnull final MicroXPathExpr aRight)
+    {
+      super (sOperator, aLeft, aRight);
+      m_bAnd = sOperator.equals ("and");
+    }
+
+    private boolean _evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      final boolean bLeft = m_aLeft.evaluateAsBoolean (aContextItem, nPosition, nSize);
+      if (m_bAnd ? !bLeft : bLeft)
+        return bLeft;
+      return m_aRight.evaluateAsBoolean (aContextItem, nPosition, nSize);
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return Boolean.valueOf (_evaluate (aContextItem, nPosition, nSize));
+    }
+
+    @Override
+    boolean evaluatePredicate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return _evaluate (aContextItem, nPosition, nSize);
+    }
+  }
+
+  /**
+   * Arithmetic operations "+", "-", "*", "div" and "mod".
+   */
+  static final class ArithmeticExpr extends AbstractBinaryExpr
+  {
+    ArithmeticExpr (@Nonnull final String sOperator,
+                    @Nonnull final MicroXPathExpr aLeft,
+                    @Nonnull final MicroXPathExpr aRight)
+    {
+      super (sOperator, aLeft, aRight);
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      final double dLeft = getAsNumber (m_aLeft.evaluate (aContextItem, nPosition, nSize));
+      final double dRight = getAsNumber (m_aRight.evaluate (aContextItem, nPosition, nSize));
+      switch (m_sOperator)
+      {
+        case "+":
+          return Double.valueOf (dLeft + dRight);
+        case "-":
+          return Double.valueOf (dLeft - dRight);
+        case "*":
+          return Double.valueOf (dLeft * dRight);
+        case "div":
+          return Double.valueOf (dLeft / dRight);
+        case "mod":
+          return Double.valueOf (dLeft % dRight);
+        default:
+          throw new IllegalStateException ("Unsupported operator '" + m_sOperator + "'");
+      }
+    }
+
+    @Override
+    boolean isNumeric ()
+    {
+      return true;
+    }
+  }
+
+  /**
+   * Comparisons "=", "!=", "&lt;", "&lt;=", "&gt;" and "&gt;=" with the XPath
+   * 1.0 node-set semantics.
+   */
+  static final class CompareExpr extends AbstractBinaryExpr
+  {
+    CompareExpr (@Nonnull final String sOperator,
+                 @Nonnull final MicroXPathExpr aLeft,
+                 @Nonnull final MicroXPathExpr aRight)
+    {
+      super (sOperator, aLeft, aRight);
+    }
+
+    private static boolean _isEquality (@Nonnull final String sOperator)
+    {
+      return sOperator.equals ("=") || sOperator.equals ("!=");
+    }
+
+    @Nonnull
+    private static String _getSwapped (@Nonnull final String sOperator)
+    {
+      switch (sOperator)
+      {
+        case "<":
+          return ">";
+        case "<=":
+          return ">=";
+        case ">":
+          return "<";
+        case ">=":
+          return "<=";
+        default:
+          return sOperator;
+      }
+    }
+
+    private static boolean _compareNumbers (@Nonnull final String sOperator, final double dLeft, final double dRight)
+    {
+      switch (sOperator)
+      {
+        case "=":
+          return dLeft == dRight;
+        case "!=":
+          return dLeft != dRight;
+        case "<":
+          return dLeft < dRight;
+        case "<=":
+          return dLeft <= dRight;
+        case ">":
+          return dLeft > dRight;
+        case ">=":
+          return dLeft >= dRight;
+        default:
+          throw new IllegalStateException ("Unsupported operator '" + sOperator + "'");
+      }
+    }
+
+    /**
+     * Compare two values, none of them being a node-set.
+     */
+    private static boolean _compareAtomic (@Nonnull final String sOperator,
+                                           @Nonnull final Object aLeft,
+                                           @Nonnull final Object aRight)
+    {
+      if (_isEquality (sOperator))
+      {
+        final boolean bEquals;
+        if (aLeft instanceof Boolean || aRight instanceof Boolean)
+          bEquals = getAsBoolean (aLeft) == getAsBoolean (aRight);
+        else
+          if (aLeft instanceof Double || aRight instanceof Double)
+            bEquals = getAsNumber (aLeft) == getAsNumber (aRight);
+          else
+            bEquals = getAsString (aLeft).equals (getAsString (aRight));
+        return sOperator.equals ("=") ? bEquals : !bEquals;
+      }
+      return _compareNumbers (sOperator, getAsNumber (aLeft), getAsNumber (aRight));
+    }
+
+    /**
+     * Compare the string-value of a single node with a value that is neither a
+     * node-set nor a boolean.
+     */
+    private static boolean _compareStringValue (@Nonnull final String sOperator,
+                                                @Nonnull final String sNodeValue,
+                                                @Nonnull final Object aOther)
+    {
+      if (aOther instanceof String && _isEquality (sOperator))
+        return sOperator.equals ("=") == sNodeValue.equals (aOther);
+      return _compareNumbers (sOperator, getStringAsNumber (sNodeValue), getAsNumber (aOther));
+    }
+
+    /**
+     * Compare a node-set expression on the left with an arbitrary expression
+     * on the right.
+     */
+    private static boolean _comparePath (@Nonnull final String sOperator,
+                                         @Nonnull final PathExpr aLeft,
+                                         @Nonnull final MicroXPathExpr aRight,
+                                         @Nonnull final Object aContextItem,
+                                         final int nPosition,
+                                         final int nSize)
+    {
+      if (aRight instanceof PathExpr)
+      {
+        // Both are node-sets - collect the right string values once
+        final ICommonsList <Object> aRightItems = ((PathExpr) aRight).getPath ().evaluate (aContextItem);
+        if (aRightItems.isEmpty ())
+          return false;
+        final ICommonsList <String> aRightValues = new CommonsArrayList <> (aRightItems.size ());
+        for (final Object aItem : aRightItems)
+          aRightValues.add (getStringValue (aItem));
+        return aLeft.anyStringValueMatches (aContextItem, sLeft -> {
+          for (final String sRight : aRightValues)
+            if (_isEquality (sOperator) ? _compareStringValue (sOperator, sLeft, sRight)
+                                        : _compareNumbers (sOperator,
+                                                           getStringAsNumber (sLeft),
+                                                           getStringAsNumber (sRight)))
+              return true;
+          return false;
+        });
+      }
+
+      final Object aRightValue = aRight.evaluate (aContextItem, nPosition, nSize);
+      if (aRightValue instanceof Boolean)
+        return _compareAtomic (sOperator,
+                               Boolean.valueOf (aLeft.getPath ().hasMatch (aContextItem)),
+                               aRightValue);
+      return aLeft.anyStringValueMatches (aContextItem, s -> _compareStringValue (sOperator, s, aRightValue));
+    }
+
+    private boolean _evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      if (m_aLeft instanceof PathExpr)
+        return _comparePath (m_sOperator, (PathExpr) m_aLeft, m_aRight, aContextItem, nPosition, nSize);
+      if (m_aRight instanceof PathExpr)
+        return _comparePath (_getSwapped (m_sOperator),
+                             (PathExpr) m_aRight,
+                             m_aLeft,
+                             aContextItem,
+                             nPosition,
+                             nSize);
+      return _compareAtomic (m_sOperator,
+                             m_aLeft.evaluate (aContextItem, nPosition, nSize),
+                             m_aRight.evaluate (aContextItem, nPosition, nSize));
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return Boolean.valueOf (_evaluate (aContextItem, nPosition, nSize));
+    }
+
+    @Override
+    boolean evaluatePredicate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      return _evaluate (aContextItem, nPosition, nSize);
+    }
+  }
+
+  /**
+   * The supported functions.
+   */
+  enum EFunction
+  {
+    POSITION ("position", 0, 0, true),
+    LAST ("last", 0, 0, true),
+    COUNT ("count", 1, 1, true),
+    NOT ("not", 1, 1, false),
+    TRUE ("true", 0, 0, false),
+    FALSE ("false", 0, 0, false),
+    BOOLEAN ("boolean", 1, 1, false),
+    NUMBER ("number", 0, 1, true),
+    STRING ("string", 0, 1, false),
+    STRING_LENGTH ("string-length", 0, 1, true),
+    NORMALIZE_SPACE ("normalize-space", 0, 1, false),
+    CONCAT ("concat", 2, Integer.MAX_VALUE, false),
+    CONTAINS ("contains", 2, 2, false),
+    STARTS_WITH ("starts-with", 2, 2, false),
+    LOCAL_NAME ("local-name", 0, 1, false),
+    NAMESPACE_URI ("namespace-uri", 0, 1, false);
+
+    private final String m_sName;
+    private final int m_nMinArgs;
+    private final int m_nMaxArgs;
+    private final boolean m_bNumeric;
+
+    private EFunction (@Nonnull final String sName, final int nMinArgs, final int nMaxArgs, final boolean bNumeric)
+    {
+      m_sName = sName;
+      m_nMinArgs = nMinArgs;
+      m_nMaxArgs = nMaxArgs;
+      m_bNumeric = bNumeric;
+    }
+
+    @Nonnull
+    String getName ()
+    {
+      return m_sName;
+    }
+
+    int getMinArgs ()
+    {
+      return m_nMinArgs;
+    }
+
+    int getMaxArgs ()
+    {
+      return m_nMaxArgs;
+    }
+
+    boolean isNumeric ()
+    {
+      return m_bNumeric;
+    }
+
+    boolean requiresNodeSetArg ()
+    {
+      return this == COUNT || this == LOCAL_NAME || this == NAMESPACE_URI;
+    }
+
+    @Nullable
+    static EFunction getFromNameOrNull (@Nullable final String sName)
+    {
+      for (final EFunction e : values ())
+        if (e.m_sName.equals (sName))
+          return e;
+      return null;
+    }
+  }
+
+  /**
+   * A function call.
+   */
+  static final class FunctionExpr extends MicroXPathExpr
+  {
+    private final EFunction m_eFunction;
+    private final MicroXPathExpr [] m_aArgs;
+
+    FunctionExpr (@Nonnull final EFunction eFunction, @Nonnull final MicroXPathExpr [] aArgs)
+    {
+      m_eFunction = eFunction;
+      m_aArgs = aArgs;
+    }
+
+    @Override
+    boolean usesPosition ()
+    {
+      if (m_eFunction == EFunction.POSITION || m_eFunction == EFunction.LAST)
+        return true;
+      for (final MicroXPathExpr aArg : m_aArgs)
+        if (aArg.usesPosition ())
+          return true;
+      return false;
+    }
+
+    @Override
+    boolean isNumeric ()
+    {
+      return m_eFunction.isNumeric ();
+    }
+
+    @Nonnull
+    private String _getStringArg (final int nIndex,
+                                  @Nonnull final Object aContextItem,
+                                  final int nPosition,
+                                  final int nSize)
+    {
+      if (nIndex >= m_aArgs.length)
+        return getStringValue (aContextItem);
+      return getAsString (m_aArgs[nIndex].evaluate (aContextItem, nPosition, nSize));
+    }
+
+    @Nullable
+    private Object _getFirstNodeArg (@Nonnull final Object aContextItem)
+    {
+      if (m_aArgs.length == 0)
+        return aContextItem;
+      final ICommonsList <Object> aItems = ((PathExpr) m_aArgs[0]).getPath ().evaluate (aContextItem);
+      return aItems.getFirst ();
+    }
+
+    @Override
+    Object evaluate (@Nonnull final Object aContextItem, final int nPosition, final int nSize)
+    {
+      switch (m_eFunction)
+      {
+        case POSITION:
+          return Double.valueOf (nPosition);
+        case LAST:
+          return Double.valueOf (nSize);
+        case COUNT:
+          return Double.valueOf (((PathExpr) m_aArgs[0]).getPath ().evaluate (aContextItem).size ());
+        case NOT:
+          return Boolean.valueOf (!m_aArgs[0].evaluateAsBoolean (aContextItem, nPosition, nSize));
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case BOOLEAN:
+          return Boolean.valueOf (m_aArgs[0].evaluateAsBoolean (aContextItem, nPosition, nSize));
+        case NUMBER:
+          if (m_aArgs.length == 0)
+            return Double.valueOf (getStringAsNumber (getStringValue (aContextItem)));
+          return Double.valueOf (getAsNumber (m_aArgs[0].evaluate (aContextItem, nPosition, nSize)));
+        case STRING:
+          return _getStringArg (0, aContextItem, nPosition, nSize);
+        case STRING_LENGTH:
+          return Double.valueOf (_getStringArg (0, aContextItem, nPosition, nSize).length ());
+        case NORMALIZE_SPACE:
+        {
+          final String s = _getStringArg (0, aContextItem, nPosition, nSize);
+          final StringBuilder aSB = new StringBuilder (s.length ());
+          boolean bPendingSpace = false;
+          for (final char c : s.toCharArray ())
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n')
+              bPendingSpace = aSB.length () > 0;
+            else
+            {
+              if (bPendingSpace)
+              {
+                aSB.append (' ');
+                bPendingSpace = false;
+              }
+              aSB.append (c);
+            }
+          return aSB.toString ();
+        }
+        case CONCAT:
+        {
+          final StringBuilder aSB = new StringBuilder ();
+          for (int i = 0; i < m_aArgs.length; ++i)
+            aSB.append (_getStringArg (i, aContextItem, nPosition, nSize));
+          return aSB.toString ();
+        }
+        case CONTAINS:
+          return Boolean.valueOf (_getStringArg (0, aContextItem, nPosition, nSize).contains (_getStringArg (1,
+                                                                                                            aContextItem,
+                                                                                                            nPosition,
+                                                                                                            nSize)));
+        case STARTS_WITH:
+          return Boolean.valueOf (_getStringArg (0, aContextItem, nPosition, nSize).startsWith (_getStringArg (1,
+                                                                                                              aContextItem,
+                                                                                                              nPosition,
+                                                                                                              nSize)));
+        case LOCAL_NAME:
+        {
+          final Object aItem = _getFirstNodeArg (aContextItem);
+          if (aItem instanceof IMicroAttribute)
+            return ((IMicroAttribute) aItem).getAttributeName ();
+          if (aItem instanceof IMicroElement)
+            return ((IMicroElement) aItem).getTagName ();
+          if (aItem instanceof IMicroProcessingInstruction)
+            return ((IMicroProcessingInstruction) aItem).getTarget ();
+          return "";
+        }
+        case NAMESPACE_URI:
+        {
+          final Object aItem = _getFirstNodeArg (aContextItem);
+          if (aItem instanceof IMicroAttribute)
+            return StringHelper.getNotNull (((IMicroAttribute) aItem).getNamespaceURI ());
+          if (aItem instanceof IMicroElement)
+            return StringHelper.getNotNull (((IMicroElement) aItem).getNamespaceURI ());
+          return "";
+        }
+        default:
+          throw new IllegalStateException ("Unsupported function " + m_eFunction);
+      }
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Function", m_eFunction).append ("Args", m_aArgs).toString ();
+    }
+  }
+}
@@ -0,0 +1,628 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.string.StringHelper;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.ArithmeticExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.CompareExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.EFunction;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.FunctionExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.LiteralExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.LogicalExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.NegateExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.NumberExpr;
+import com.helger.xml.microdom.xpath.MicroXPathExpr.PathExpr;
+import com.helger.xml.microdom.xpath.MicroXPathStep.EAxis;
+import com.helger.xml.microdom.xpath.MicroXPathStep.ENodeTest;
+
+/**
+ * Recursive descent parser for the supported XPath subset. Namespace prefixes
+ * are resolved at compile time.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+final class MicroXPathParser
+{
+  private enum ETokenType
+  {
+    /** Name test: "*", "prefix:*", "name" or "prefix:name" */
+    NAME,
+    /** Operator including the operator names "and", "or", "div" and "mod" */
+    OPERATOR,
+    /** Other punctuation */
+    SYMBOL,
+    NUMBER,
+    LITERAL,
+    END;
+  }
+
+  private static final class Token
+  {
+    private final ETokenType m_eType;
+    private final String m_sText;
+    private final int m_nPos;
+
+    Token (@Nonnull final ETokenType eType, @Nonnull final String sText, final int nPos)
+    {
+      m_eType = eType;
+      m_sText = sText;
+      m_nPos = nPos;
+    }
+
+    boolean is (@Nonnull final ETokenType eType, @Nonnull final String sText)
+    {
+      return m_eType == eType && m_sText.equals (sText);
+    }
+  }
+
+  private final String m_sExpression;
+  private final NamespaceContext m_aNamespaceContext;
+  private final ICommonsList <Token> m_aTokens = new CommonsArrayList <> ();
+  private int m_nIndex = 0;
+
+  MicroXPathParser (@Nonnull final String sExpression, @Nullable final NamespaceContext aNamespaceContext)
+  {
+    m_sExpression = sExpression;
+    m_aNamespaceContext = aNamespaceContext;
+  }
+
+  @Nonnull
+  private IllegalArgumentException _error (final int nPos, @Nonnull final String sMsg)
+  {
+    return new IllegalArgumentException (sMsg + " at position " + nPos + " of XPath expression '" + m_sExpression + "'");
+  }
+
+  private static boolean _isNameStartChar (final char c)
+  {
+    return Character.isLetter (c) || c == '_';
+  }
+
+  private static boolean _isNameChar (final char c)
+  {
+    return Character.isLetterOrDigit (c) || c == '_' || c == '-' || c == '.';
+  }
+
+  /**
+   * @return <code>true</code> if the next '*' or NCName has to be treated as
+   *         an operator, according to the XPath 1.0 lexical rules.
+   */
+  private boolean _isOperatorExpected ()
+  {
+    if (m_aTokens.isEmpty ())
+      return false;
+    final Token aPrev = m_aTokens.getLast ();
+    if (aPrev.m_eType == ETokenType.OPERATOR)
+      return false;
+    if (aPrev.m_eType == ETokenType.SYMBOL)
+    {
+      // Only closing brackets and the abbreviated steps end an operand
+      final String sText = aPrev.m_sText;
+      return sText.equals (")") || sText.equals ("]") || sText.equals (".") || sText.equals ("..");
+    }
+    return true;
+  }
+
+  private void _tokenize ()
+  {
+    final String s = m_sExpression;
+    final int nLen = s.length ();
+    int i = 0;
+    while (i < nLen)
+    {
+      final char c = s.charAt (i);
+      final int nStart = i;
+      if (Character.isWhitespace (c))
+      {
+        i++;
+        continue;
+      }
+
+      if (c == '\'' || c == '"')
+      {
+        final int nEnd = s.indexOf (c, i + 1);
+        if (nEnd < 0)
+          throw _error (i, "Unterminated string literal");
+        m_aTokens.add (new Token (ETokenType.LITERAL, s.substring (i + 1, nEnd), nStart));
+        i = nEnd + 1;
+        continue;
+      }
+
+      if ((c >= '0' && c <= '9') || (c == '.' && i + 1 < nLen && Character.isDigit (s.charAt (i + 1))))
+      {
+        i++;
+        while (i < nLen && (Character.isDigit (s.charAt (i)) || s.charAt (i) == '.'))
+          i++;
+        m_aTokens.add (new Token (ETokenType.NUMBER, s.substring (nStart, i), nStart));
+        continue;
+      }
+
+      if (c == '*')
+      {
+        m_aTokens.add (new Token (_isOperatorExpected () ? ETokenType.OPERATOR : ETokenType.NAME, "*", nStart));
+        i++;
+        continue;
+      }
+
+      if (_isNameStartChar (c))
+      {
+        i++;
+        while (i < nLen && _isNameChar (s.charAt (i)))
+          i++;
+        final String sNCName = s.substring (nStart, i);
+        if (_isOperatorExpected ())
+        {
+          if (!sNCName.equals ("and") && !sNCName.equals ("or") && !sNCName.equals ("div") && !sNCName.equals ("mod"))
+            throw _error (nStart, "Expected an operator but found '" + sNCName + "'");
+          m_aTokens.add (new Token (ETokenType.OPERATOR, sNCName, nStart));
+          continue;
+        }
+        // QName or "prefix:*" - but not the axis separator "::"
+        if (i + 1 < nLen && s.charAt (i) == ':' && s.charAt (i + 1) != ':')
+        {
+          if (s.charAt (i + 1) == '*')
+            i += 2;
+          else
+          {
+            i++;
+            if (i >= nLen || !_isNameStartChar (s.charAt (i)))
+              throw _error (i, "Invalid qualified name");
+            while (i < nLen && _isNameChar (s.charAt (i)))
+              i++;
+          }
+        }
+        m_aTokens.add (new Token (ETokenType.NAME, s.substring (nStart, i), nStart));
+        continue;
+      }
+
+      // Two character tokens
+      final String sTwo = i + 1 < nLen ? s.substring (i, i + 2) : "";
+      switch (sTwo)
+      {
+        case "//":
+        case "!=":
+        case "<=":
+        case ">=":
+          m_aTokens.add (new Token (ETokenType.OPERATOR, sTwo, nStart));
+          i += 2;
+          continue;
+        case "::":
+        case "..":
+          m_aTokens.add (new Token (ETokenType.SYMBOL, sTwo, nStart));
+          i += 2;
+          continue;
+      }
+
+      switch (c)
+      {
+        case '/':
+        case '|':
+        case '+':
+        case '-':
+        case '=':
+        case '<':
+        case '>':
+          m_aTokens.add (new Token (ETokenType.OPERATOR, Character.toString (c), nStart));
+          break;
+        case '(':
+        case ')':
+        case '[':
+        case ']':
+        case '@':
+        case ',':
+        case '.':
+          m_aTokens.add (new Token (ETokenType.SYMBOL, Character.toString (c), nStart));
+          break;
+        case '$':
+          throw _error (i, "Variable references are not supported");
+        default:
+          throw _error (i, "Unexpected character '" + c + "'");
+      }
+      i++;
+    }
+    m_aTokens.add (new Token (ETokenType.END, "", nLen));
+  }
+
+  @Nonnull
+  private Token _peek ()
+  {
+    return m_aTokens.get (m_nIndex);
+  }
+
+  @Nonnull
+  private Token _peek (final int nOffset)
+  {
+    return m_aTokens.get (Math.min (m_nIndex + nOffset, m_aTokens.size () - 1));
+  }
+
+  @Nonnull
+  private Token _next ()
+  {
+    return m_aTokens.get (m_nIndex++);
+  }
+
+  private boolean _isOperator (@Nonnull final String sOperator)
+  {
+    return _peek ().is (ETokenType.OPERATOR, sOperator);
+  }
+
+  private boolean _isSymbol (@Nonnull final String sSymbol)
+  {
+    return _peek ().is (ETokenType.SYMBOL, sSymbol);
+  }
+
+  private void _expectSymbol (@Nonnull final String sSymbol)
+  {
+    final Token aToken = _next ();
+    if (!aToken.is (ETokenType.SYMBOL, sSymbol))
+      throw _error (aToken.m_nPos, "Expected '" + sSymbol + "'");
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseOr ()
+  {
+    MicroXPathExpr ret = _parseAnd ();
+    while (_isOperator ("or"))
+      ret = new LogicalExpr (_next ().m_sText, ret, _parseAnd ());
+    return ret;
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseAnd ()
+  {
+    MicroXPathExpr ret = _parseEquality ();
+    while (_isOperator ("and"))
+      ret = new LogicalExpr (_next ().m_sText, ret, _parseEquality ());
+    return ret;
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseEquality ()
+  {
+    MicroXPathExpr ret = _parseRelational ();
+    while (_isOperator ("=") || _isOperator ("!="))
+      ret = new CompareExpr (_next ().m_sText, ret, _parseRelational ());
+    return ret;
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseRelational ()
+  {
+    MicroXPathExpr ret = _parseAdditive ();
+    while (_isOperator ("<") || _isOperator ("<=") || _isOperator (">") || _isOperator (">="))
+      ret = new CompareExpr (_next ().m_sText, ret, _parseAdditive ());
+    return ret;
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseAdditive ()
+  {
+    MicroXPathExpr ret = _parseMultiplicative ();
+    while (_isOperator ("+") || _isOperator ("-"))
+      ret = new ArithmeticExpr (_next ().m_sText, ret, _parseMultiplicative ());
+    return ret;
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseMultiplicative ()
+  {
+    MicroXPathExpr ret = _parseUnary ();
+    while (_isOperator ("*") || _isOperator ("div") || _isOperator ("mod"))
+      ret = new ArithmeticExpr (_next ().m_sText, ret, _parseUnary ());
+    return ret;
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseUnary ()
+  {
+    if (_isOperator ("-"))
+    {
+      _next ();
+      return new NegateExpr (_parseUnary ());
+    }
+    final MicroXPathExpr ret = _parsePathExpr ();
+    if (_isOperator ("|"))
+      throw _error (_peek ().m_nPos, "Union expressions are not supported");
+    return ret;
+  }
+
+  private static boolean _isNodeType (@Nonnull final String sName)
+  {
+    return sName.equals ("node") ||
+           sName.equals ("text") ||
+           sName.equals ("comment") ||
+           sName.equals ("processing-instruction");
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parsePathExpr ()
+  {
+    final Token aToken = _peek ();
+    MicroXPathExpr ret = null;
+    switch (aToken.m_eType)
+    {
+      case LITERAL:
+        _next ();
+        ret = new LiteralExpr (aToken.m_sText);
+        break;
+      case NUMBER:
+        _next ();
+        try
+        {
+          ret = new NumberExpr (Double.parseDouble (aToken.m_sText));
+        }
+        catch (final NumberFormatException ex)
+        {
+          throw _error (aToken.m_nPos, "Invalid number '" + aToken.m_sText + "'");
+        }
+        break;
+      case SYMBOL:
+        if (aToken.m_sText.equals ("("))
+        {
+          _next ();
+          ret = _parseOr ();
+          _expectSymbol (")");
+        }
+        break;
+      case NAME:
+        if (_peek (1).is (ETokenType.SYMBOL, "(") && !_isNodeType (aToken.m_sText))
+          ret = _parseFunctionCall ();
+        break;
+      default:
+        break;
+    }
+
+    if (ret != null)
+    {
+      if (_isOperator ("/") || _isOperator ("//") || _isSymbol ("["))
+        throw _error (_peek ().m_nPos, "Filter expressions are not supported");
+      return ret;
+    }
+    return new PathExpr (_parseLocationPath ());
+  }
+
+  @Nonnull
+  private MicroXPathExpr _parseFunctionCall ()
+  {
+    final Token aName = _next ();
+    final EFunction eFunction = EFunction.getFromNameOrNull (aName.m_sText);
+    if (eFunction == null)
+      throw _error (aName.m_nPos, "Unsupported function '" + aName.m_sText + "'");
+    _expectSymbol ("(");
+
+    final ICommonsList <MicroXPathExpr> aArgs = new CommonsArrayList <> ();
+    if (!_isSymbol (")"))
+    {
+      aArgs.add (_parseOr ());
+      while (_isSymbol (","))
+      {
+        _next ();
+        aArgs.add (_parseOr ());
+      }
+    }
+    _expectSymbol (")");
+
+    if (aArgs.size () < eFunction.getMinArgs () || aArgs.size () > eFunction.getMaxArgs ())
+      throw _error (aName.m_nPos, "Invalid number of arguments for function '" + aName.m_sText + "'");
+    if (eFunction.requiresNodeSetArg () && aArgs.isNotEmpty () && !(aArgs.getFirst () instanceof PathExpr))
+      throw _error (aName.m_nPos, "Function '" + aName.m_sText + "' requires a location path argument");
+    return new FunctionExpr (eFunction, aArgs.toArray (new MicroXPathExpr [aArgs.size ()]));
+  }
+
+  private boolean _isStepStart ()
+  {
+    final Token aToken = _peek ();
+    return aToken.m_eType == ETokenType.NAME || _isSymbol ("@") || _isSymbol (".") || _isSymbol ("..");
+  }
+
+  @Nonnull
+  private static MicroXPathStep _createDescendantOrSelfNodeStep ()
+  {
+    return new MicroXPathStep (EAxis.DESCENDANT_OR_SELF, ENodeTest.ANY_NODE, null, null, new MicroXPathExpr [0]);
+  }
+
+  @Nonnull
+  private MicroXPathPath _parseLocationPath ()
+  {
+    final ICommonsList <MicroXPathStep> aSteps = new CommonsArrayList <> ();
+    boolean bAbsolute = false;
+    boolean bDescendant = false;
+    if (_isOperator ("/"))
+    {
+      _next ();
+      bAbsolute = true;
+      if (!_isStepStart ())
+        return new MicroXPathPath (true, new MicroXPathStep [0]);
+    }
+    else
+      if (_isOperator ("//"))
+      {
+        _next ();
+        bAbsolute = true;
+        bDescendant = true;
+      }
+
+    while (true)
+    {
+      if (!_isStepStart ())
+        throw _error (_peek ().m_nPos, "Expected a location step");
+      final MicroXPathStep aStep = _parseStep ();
+      if (bDescendant)
+      {
+        // "//name" is "descendant-or-self::node()/child::name" which is the
+        // same as "descendant::name" if no positional predicate is present
+        if (aStep.getAxis () == EAxis.CHILD && !aStep.hasPositionalPredicates ())
+          aSteps.add (aStep.getWithAxis (EAxis.DESCENDANT));
+        else
+        {
+          aSteps.add (_createDescendantOrSelfNodeStep ());
+          aSteps.add (aStep);
+        }
+      }
+      else
+        aSteps.add (aStep);
+
+      if (_isOperator ("/"))
+        bDescendant = false;
+      else
+        if (_isOperator ("//"))
+          bDescendant = true;
+        else
+          break;
+      _next ();
+    }
+    return new MicroXPathPath (bAbsolute, aSteps.toArray (new MicroXPathStep [aSteps.size ()]));
+  }
+
+  @Nonnull
+  private String _resolvePrefix (@Nonnull final String sPrefix, final int nPos)
+  {
+    if (sPrefix.equals (XMLConstants.XML_NS_PREFIX))
+      return XMLConstants.XML_NS_URI;
+    final String sNamespaceURI = m_aNamespaceContext == null ? null : m_aNamespaceContext.getNamespaceURI (sPrefix);
+    if (StringHelper.hasNoText (sNamespaceURI))
+      throw _error (nPos, "Unknown namespace prefix '" + sPrefix + "'");
+    return sNamespaceURI;
+  }
+
+  @Nonnull
+  private MicroXPathStep _parseStep ()
+  {
+    if (_isSymbol ("."))
+    {
+      _next ();
+      return new MicroXPathStep (EAxis.SELF, ENodeTest.ANY_NODE, null, null, _parsePredicates ());
+    }
+    if (_isSymbol (".."))
+    {
+      _next ();
+      return new MicroXPathStep (EAxis.PARENT, ENodeTest.ANY_NODE, null, null, _parsePredicates ());
+    }
+
+    EAxis eAxis = EAxis.CHILD;
+    if (_isSymbol ("@"))
+    {
+      _next ();
+      eAxis = EAxis.ATTRIBUTE;
+    }
+    else
+      if (_peek ().m_eType == ETokenType.NAME && _peek (1).is (ETokenType.SYMBOL, "::"))
+      {
+        final Token aAxis = _next ();
+        eAxis = EAxis.getFromNameOrNull (aAxis.m_sText);
+        if (eAxis == null)
+          throw _error (aAxis.m_nPos, "Unsupported axis '" + aAxis.m_sText + "'");
+        _next ();
+      }
+
+    final Token aTest = _next ();
+    if (aTest.m_eType != ETokenType.NAME)
+      throw _error (aTest.m_nPos, "Expected a node test");
+
+    if (_isSymbol ("(") && _isNodeType (aTest.m_sText))
+    {
+      _next ();
+      _expectSymbol (")");
+      final ENodeTest eNodeTest;
+      switch (aTest.m_sText)
+      {
+        case "text":
+          eNodeTest = ENodeTest.TEXT;
+          break;
+        case "comment":
+          eNodeTest = ENodeTest.COMMENT;
+          break;
+        case "processing-instruction":
+          eNodeTest = ENodeTest.PROCESSING_INSTRUCTION;
+          break;
+        default:
+          eNodeTest = ENodeTest.ANY_NODE;
+          break;
+      }
+      return new MicroXPathStep (eAxis, eNodeTest, null, null, _parsePredicates ());
+    }
+
+    final String sName = aTest.m_sText;
+    final String sNamespaceURI;
+    final String sLocalName;
+    final int nColon = sName.indexOf (':');
+    if (nColon > 0)
+    {
+      sNamespaceURI = _resolvePrefix (sName.substring (0, nColon), aTest.m_nPos);
+      final String sLocal = sName.substring (nColon + 1);
+      sLocalName = sLocal.equals ("*") ? null : sLocal;
+    }
+    else
+      if (sName.equals ("*"))
+      {
+        sNamespaceURI = null;
+        sLocalName = null;
+      }
+      else
+      {
+        // Unprefixed attributes never have a namespace, unprefixed elements
+        // use the default namespace of the namespace context
+        String sDefaultNS = null;
+        if (eAxis != EAxis.ATTRIBUTE && m_aNamespaceContext != null)
+          sDefaultNS = m_aNamespaceContext.getNamespaceURI (XMLConstants.DEFAULT_NS_PREFIX);
+        sNamespaceURI = StringHelper.getNotNull (sDefaultNS);
+        sLocalName = sName;
+      }
+    return new MicroXPathStep (eAxis, ENodeTest.NAME, sNamespaceURI, sLocalName, _parsePredicates ());
+  }
+
+  @Nonnull
+  private MicroXPathExpr [] _parsePredicates ()
+  {
+    final ICommonsList <MicroXPathExpr> ret = new CommonsArrayList <> ();
+    while (_isSymbol ("["))
+    {
+      _next ();
+      ret.add (_parseOr ());
+      _expectSymbol ("]");
+    }
+    return ret.toArray (new MicroXPathExpr [ret.size ()]);
+  }
+
+  /**
+   * Parse the expression passed in the constructor.
+   *
+   * @return The compiled location path. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the expression is invalid or uses unsupported features.
+   */
+  @Nonnull
+  MicroXPathPath parse ()
+  {
+    _tokenize ();
+    final Token aFirst = _peek ();
+    final MicroXPathExpr aExpr = _parseOr ();
+    if (_peek ().m_eType != ETokenType.END)
+      throw _error (_peek ().m_nPos, "Unexpected token '" + _peek ().m_sText + "'");
+    if (!(aExpr instanceof PathExpr))
+      throw _error (aFirst.m_nPos, "The expression must be a location path");
+    return ((PathExpr) aExpr).getPath ();
+  }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.xml.microdom.IMicroAttribute;
+import com.helger.xml.microdom.IMicroNode;
+import com.helger.xml.microdom.xpath.MicroXPathStep.EAxis;
+import com.helger.xml.microdom.xpath.MicroXPathStep.VirtualRoot;
+
+/**
+ * A compiled location path, consisting of a list of steps.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class MicroXPathPath
+{
+  private final boolean m_bAbsolute;
+  private final MicroXPathStep [] m_aSteps;
+  // Does the result of step i need to be de-duplicated and sorted?
+  private final boolean [] m_aSortAfterStep;
+  private final boolean m_bStreamable;
+  private final boolean m_bAttributeResult;
+
+  MicroXPathPath (final boolean bAbsolute, @Nonnull final MicroXPathStep [] aSteps)
+  {
+    m_bAbsolute = bAbsolute;
+    m_aSteps = aSteps;
+    m_aSortAfterStep = new boolean [aSteps.length];
+
+    // The context of the first step is always a single item. A list of context
+    // items without ancestor relationships, in document order, stays in
+    // document order and free of duplicates for the child, descendant,
+    // attribute and self axes.
+    boolean bMayBeNested = false;
+    boolean bStreamable = true;
+    boolean bAttributeResult = false;
+    for (int i = 0; i < aSteps.length; ++i)
+    {
+      final EAxis eAxis = aSteps[i].getAxis ();
+      switch (eAxis)
+      {
+        case CHILD:
+          m_aSortAfterStep[i] = bMayBeNested;
+          break;
+        case DESCENDANT:
+        case DESCENDANT_OR_SELF:
+          m_aSortAfterStep[i] = bMayBeNested;
+          bMayBeNested = true;
+          break;
+        case PARENT:
+          m_aSortAfterStep[i] = i > 0;
+          bMayBeNested = true;
+          break;
+        case ATTRIBUTE:
+          bMayBeNested = false;
+          break;
+        case SELF:
+          break;
+        default:
+          throw new IllegalStateException ("Unsupported axis " + eAxis);
+      }
+      if (m_aSortAfterStep[i])
+        bStreamable = false;
+      bAttributeResult = eAxis == EAxis.ATTRIBUTE || (eAxis == EAxis.SELF && bAttributeResult);
+    }
+    m_bStreamable = bStreamable;
+    m_bAttributeResult = bAttributeResult;
+  }
+
+  boolean isAbsolute ()
+  {
+    return m_bAbsolute;
+  }
+
+  /**
+   * @return <code>true</code> if this path selects attributes,
+   *         <code>false</code> if it selects nodes.
+   */
+  boolean isAttributeResult ()
+  {
+    return m_bAttributeResult;
+  }
+
+  boolean isSimpleAttributePath ()
+  {
+    return !m_bAbsolute && m_aSteps.length == 1 && m_aSteps[0].isSimpleAttributeStep ();
+  }
+
+  @Nullable
+  String getSimpleAttributeValue (@Nonnull final Object aContextItem)
+  {
+    return m_aSteps[0].getSimpleAttributeValue (aContextItem);
+  }
+
+  @Nonnull
+  private Object _getStartItem (@Nonnull final Object aContextItem)
+  {
+    if (!m_bAbsolute || aContextItem instanceof IMicroAttribute)
+    {
+      // The owner of an attribute is unknown, so an absolute path from an
+      // attribute behaves like a relative path
+      return aContextItem;
+    }
+
+    IMicroNode aTop = (IMicroNode) aContextItem;
+    while (aTop.getParent () != null)
+      aTop = aTop.getParent ();
+    if (aTop.isDocument ())
+      return aTop;
+    return new VirtualRoot (aTop);
+  }
+
+  private boolean _forEachItemUnordered (final int nStepIndex,
+                                         @Nonnull final Object aContextItem,
+                                         @Nonnull final Predicate <Object> aVisitor)
+  {
+    if (nStepIndex == m_aSteps.length - 1)
+      return m_aSteps[nStepIndex].forEachItem (aContextItem, aVisitor);
+    return m_aSteps[nStepIndex].forEachItem (aContextItem,
+                                             x -> _forEachItemUnordered (nStepIndex + 1, x, aVisitor));
+  }
+
+  /**
+   * Invoke the visitor for each selected item in a depth-first manner without
+   * building intermediate lists. The same item may be visited more than once
+   * and the visiting order is only the document order if the path is
+   * streamable.
+   *
+   * @param aContextItem
+   *        The context item. May not be <code>null</code>.
+   * @param aVisitor
+   *        The visitor to invoke. Returns <code>true</code> to stop.
+   * @return <code>true</code> if the visitor requested to stop
+   */
+  boolean forEachItemUnordered (@Nonnull final Object aContextItem, @Nonnull final Predicate <Object> aVisitor)
+  {
+    final Object aStart = _getStartItem (aContextItem);
+    if (m_aSteps.length == 0)
+      return aVisitor.test (aStart instanceof VirtualRoot ? ((VirtualRoot) aStart).getTop () : aStart);
+    return _forEachItemUnordered (0, aStart, aVisitor);
+  }
+
+  boolean hasMatch (@Nonnull final Object aContextItem)
+  {
+    return forEachItemUnordered (aContextItem, x -> true);
+  }
+
+  @Nullable
+  Object getFirstItem (@Nonnull final Object aContextItem)
+  {
+    if (m_bStreamable)
+    {
+      final Object [] aResult = new Object [1];
+      forEachItemUnordered (aContextItem, x -> {
+        aResult[0] = x;
+        return true;
+      });
+      return aResult[0];
+    }
+    return evaluate (aContextItem).getFirst ();
+  }
+
+  private static void _collectInDocumentOrder (@Nonnull final IMicroNode aNode,
+                                               @Nonnull final Set <Object> aRemaining,
+                                               @Nonnull final ICommonsList <Object> aTarget)
+  {
+    if (aRemaining.remove (aNode))
+      aTarget.add (aNode);
+    if (aNode.hasChildren ())
+      for (final IMicroNode aChild : aNode.getAllChildren ())
+      {
+        if (aRemaining.isEmpty ())
+          return;
+        _collectInDocumentOrder (aChild, aRemaining, aTarget);
+      }
+  }
+
+  /**
+   * Remove duplicates and sort the passed nodes in document order by walking
+   * the tree once.
+   */
+  @Nonnull
+  private static ICommonsList <Object> _getSortedUnique (@Nonnull final ICommonsList <Object> aNodes)
+  {
+    final Set <Object> aRemaining = Collections.newSetFromMap (new IdentityHashMap <> (aNodes.size () * 2));
+    aRemaining.addAll (aNodes);
+
+    IMicroNode aTop = (IMicroNode) aNodes.getFirst ();
+    while (aTop.getParent () != null)
+      aTop = aTop.getParent ();
+
+    final ICommonsList <Object> ret = new CommonsArrayList <> (aRemaining.size ());
+    _collectInDocumentOrder (aTop, aRemaining, ret);
+    return ret;
+  }
+
+  /**
+   * Evaluate this path.
+   *
+   * @param aContextItem
+   *        The context item. May not be <code>null</code>.
+   * @return A new list with all selected items in document order without
+   *         duplicates. Never <code>null</code>.
+   */
+  @Nonnull
+  ICommonsList <Object> evaluate (@Nonnull final Object aContextItem)
+  {
+    final Object aStart = _getStartItem (aContextItem);
+    if (m_aSteps.length == 0)
+      return new CommonsArrayList <> (aStart instanceof VirtualRoot ? ((VirtualRoot) aStart).getTop () : aStart);
+
+    if (m_bStreamable)
+    {
+      // No intermediate lists needed
+      final ICommonsList <Object> ret = new CommonsArrayList <> ();
+      _forEachItemUnordered (0, aStart, x -> {
+        ret.add (x);
+        return false;
+      });
+      return ret;
+    }
+
+    ICommonsList <Object> aCurrent = new CommonsArrayList <> (aStart);
+    for (int i = 0; i < m_aSteps.length; ++i)
+    {
+      final MicroXPathStep aStep = m_aSteps[i];
+      ICommonsList <Object> aNext = new CommonsArrayList <> ();
+      final ICommonsList <Object> aTarget = aNext;
+      for (final Object aItem : aCurrent)
+        aStep.forEachItem (aItem, x -> {
+          aTarget.add (x);
+          return false;
+        });
+      if (m_aSortAfterStep[i] && aCurrent.size () > 1 && aNext.size () > 1)
+        aNext = _getSortedUnique (aNext);
+      if (aNext.isEmpty ())
+        return aNext;
+      aCurrent = aNext;
+    }
+    return aCurrent;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Absolute", m_bAbsolute)
+                                       .append ("Steps", m_aSteps)
+                                       .append ("Streamable", m_bStreamable)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,426 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.xml.microdom.IMicroAttribute;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroNode;
+import com.helger.xml.microdom.IMicroQName;
+import com.helger.xml.microdom.MicroQName;
+
+/**
+ * A single compiled location step consisting of axis, node test and
+ * predicates.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class MicroXPathStep
+{
+  /**
+   * The supported axes.
+   */
+  enum EAxis
+  {
+    CHILD ("child"),
+    DESCENDANT ("descendant"),
+    DESCENDANT_OR_SELF ("descendant-or-self"),
+    SELF ("self"),
+    PARENT ("parent"),
+    ATTRIBUTE ("attribute");
+
+    private final String m_sName;
+
+    private EAxis (@Nonnull final String sName)
+    {
+      m_sName = sName;
+    }
+
+    @Nonnull
+    String getName ()
+    {
+      return m_sName;
+    }
+
+    @Nullable
+    static EAxis getFromNameOrNull (@Nullable final String sName)
+    {
+      for (final EAxis e : values ())
+        if (e.m_sName.equals (sName))
+          return e;
+      return null;
+    }
+  }
+
+  /**
+   * The supported node tests.
+   */
+  enum ENodeTest
+  {
+    /** Name test, including wildcards */
+    NAME,
+    /** node() */
+    ANY_NODE,
+    /** text() - text and CDATA nodes */
+    TEXT,
+    /** comment() */
+    COMMENT,
+    /** processing-instruction() */
+    PROCESSING_INSTRUCTION;
+  }
+
+  /**
+   * Placeholder for the root of a tree that has no document node. Its only
+   * child is the top-most node of the tree.
+   */
+  static final class VirtualRoot
+  {
+    private final IMicroNode m_aTop;
+
+    VirtualRoot (@Nonnull final IMicroNode aTop)
+    {
+      m_aTop = aTop;
+    }
+
+    @Nonnull
+    IMicroNode getTop ()
+    {
+      return m_aTop;
+    }
+  }
+
+  private final EAxis m_eAxis;
+  private final ENodeTest m_eNodeTest;
+  // null means any namespace; empty means no namespace
+  private final String m_sNamespaceURI;
+  // null means any name
+  private final String m_sLocalName;
+  // Only present for named attribute tests
+  private final IMicroQName m_aAttrQName;
+  private final MicroXPathExpr [] m_aPredicates;
+  private final boolean m_bPositional;
+
+  MicroXPathStep (@Nonnull final EAxis eAxis,
+                  @Nonnull final ENodeTest eNodeTest,
+                  @Nullable final String sNamespaceURI,
+                  @Nullable final String sLocalName,
+                  @Nonnull final MicroXPathExpr [] aPredicates)
+  {
+    m_eAxis = eAxis;
+    m_eNodeTest = eNodeTest;
+    m_sNamespaceURI = sNamespaceURI;
+    m_sLocalName = sLocalName;
+    m_aAttrQName = eAxis == EAxis.ATTRIBUTE && eNodeTest == ENodeTest.NAME && sLocalName != null
+                                                                                                 ? new MicroQName (sNamespaceURI,
+                                                                                                                   sLocalName)
+                                                                                                 : null;
+    m_aPredicates = aPredicates;
+    boolean bPositional = false;
+    for (final MicroXPathExpr aPredicate : aPredicates)
+      if (aPredicate.isPositional ())
+        bPositional = true;
+    m_bPositional = bPositional;
+  }
+
+  @Nonnull
+  EAxis getAxis ()
+  {
+    return m_eAxis;
+  }
+
+  @Nonnull
+  ENodeTest getNodeTest ()
+  {
+    return m_eNodeTest;
+  }
+
+  boolean hasPredicates ()
+  {
+    return m_aPredicates.length > 0;
+  }
+
+  boolean hasPositionalPredicates ()
+  {
+    return m_bPositional;
+  }
+
+  /**
+   * @return <code>true</code> if this is a named attribute step without
+   *         predicates, that can be resolved without iteration.
+   */
+  boolean isSimpleAttributeStep ()
+  {
+    return m_aAttrQName != null && m_aPredicates.length == 0;
+  }
+
+  @Nullable
+  String getSimpleAttributeValue (@Nonnull final Object aContextItem)
+  {
+    if (aContextItem instanceof IMicroElement)
+    {
+      final IMicroAttribute aAttr = ((IMicroElement) aContextItem).getAttributeObj (m_aAttrQName);
+      if (aAttr != null)
+        return aAttr.getAttributeValue ();
+    }
+    return null;
+  }
+
+  @Nonnull
+  MicroXPathStep getWithAxis (@Nonnull final EAxis eAxis)
+  {
+    return new MicroXPathStep (eAxis, m_eNodeTest, m_sNamespaceURI, m_sLocalName, m_aPredicates);
+  }
+
+  private boolean _isNamespaceMatch (@Nullable final String sNamespaceURI)
+  {
+    return m_sNamespaceURI == null || m_sNamespaceURI.equals (StringHelper.getNotNull (sNamespaceURI));
+  }
+
+  private boolean _matchesNode (@Nonnull final IMicroNode aNode)
+  {
+    switch (m_eNodeTest)
+    {
+      case NAME:
+        if (!aNode.isElement ())
+          return false;
+        final IMicroElement aElement = (IMicroElement) aNode;
+        return (m_sLocalName == null || m_sLocalName.equals (aElement.getTagName ())) &&
+               _isNamespaceMatch (aElement.getNamespaceURI ());
+      case ANY_NODE:
+        return true;
+      case TEXT:
+        return aNode.isText () || aNode.isCDATA ();
+      case COMMENT:
+        return aNode.isComment ();
+      case PROCESSING_INSTRUCTION:
+        return aNode.isProcessingInstruction ();
+      default:
+        throw new IllegalStateException ("Unsupported node test " + m_eNodeTest);
+    }
+  }
+
+  private boolean _matchesAttribute (@Nonnull final IMicroAttribute aAttr)
+  {
+    switch (m_eNodeTest)
+    {
+      case NAME:
+        return (m_sLocalName == null || m_sLocalName.equals (aAttr.getAttributeName ())) &&
+               _isNamespaceMatch (aAttr.getNamespaceURI ());
+      case ANY_NODE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Call the visitor for all children of the passed node. Containers are
+   * transparent.
+   *
+   * @return <code>true</code> if the visitor requested to stop
+   */
+  private static boolean _forEachChild (@Nonnull final IMicroNode aNode, @Nonnull final Predicate <Object> aVisitor)
+  {
+    if (aNode.hasChildren ())
+      for (final IMicroNode aChild : aNode.getAllChildren ())
+        if (aChild.isContainer ())
+        {
+          if (_forEachChild (aChild, aVisitor))
+            return true;
+        }
+        else
+          if (aVisitor.test (aChild))
+            return true;
+    return false;
+  }
+
+  /**
+   * Call the visitor for all descendants of the passed node in document order.
+   * Containers are transparent.
+   *
+   * @return <code>true</code> if the visitor requested to stop
+   */
+  private static boolean _forEachDescendant (@Nonnull final IMicroNode aNode, @Nonnull final Predicate <Object> aVisitor)
+  {
+    if (aNode.hasChildren ())
+      for (final IMicroNode aChild : aNode.getAllChildren ())
+      {
+        if (!aChild.isContainer () && aVisitor.test (aChild))
+          return true;
+        if (_forEachDescendant (aChild, aVisitor))
+          return true;
+      }
+    return false;
+  }
+
+  @Nullable
+  static IMicroNode getParent (@Nonnull final IMicroNode aNode)
+  {
+    IMicroNode ret = aNode.getParent ();
+    while (ret != null && ret.isContainer ())
+      ret = ret.getParent ();
+    return ret;
+  }
+
+  /**
+   * Call the visitor for all nodes of this step's axis that match the node
+   * test. Predicates are not considered.
+   *
+   * @return <code>true</code> if the visitor requested to stop
+   */
+  private boolean _forEachAxisMatch (@Nonnull final Object aContextItem, @Nonnull final Predicate <Object> aVisitor)
+  {
+    final Predicate <Object> aFilter = x -> _matchesNode ((IMicroNode) x) && aVisitor.test (x);
+    if (aContextItem instanceof VirtualRoot)
+    {
+      final IMicroNode aTop = ((VirtualRoot) aContextItem).getTop ();
+      switch (m_eAxis)
+      {
+        case CHILD:
+          if (aTop.isContainer ())
+            return _forEachChild (aTop, aFilter);
+          return aFilter.test (aTop);
+        case DESCENDANT:
+        case DESCENDANT_OR_SELF:
+          if (!aTop.isContainer () && aFilter.test (aTop))
+            return true;
+          return _forEachDescendant (aTop, aFilter);
+        default:
+          // No parent, no attributes and self is not a node
+          return false;
+      }
+    }
+
+    if (aContextItem instanceof IMicroAttribute)
+    {
+      // The owning element is unknown
+      if (m_eAxis == EAxis.SELF && _matchesAttribute ((IMicroAttribute) aContextItem))
+        return aVisitor.test (aContextItem);
+      return false;
+    }
+
+    final IMicroNode aNode = (IMicroNode) aContextItem;
+    switch (m_eAxis)
+    {
+      case CHILD:
+        return _forEachChild (aNode, aFilter);
+      case DESCENDANT:
+        return _forEachDescendant (aNode, aFilter);
+      case DESCENDANT_OR_SELF:
+        if (aFilter.test (aNode))
+          return true;
+        return _forEachDescendant (aNode, aFilter);
+      case SELF:
+        return aFilter.test (aNode);
+      case PARENT:
+      {
+        final IMicroNode aParent = getParent (aNode);
+        return aParent != null && aFilter.test (aParent);
+      }
+      case ATTRIBUTE:
+        if (aNode.isElement ())
+        {
+          final IMicroElement aElement = (IMicroElement) aNode;
+          if (m_aAttrQName != null)
+          {
+            // Direct access
+            final IMicroAttribute aAttr = aElement.getAttributeObj (m_aAttrQName);
+            return aAttr != null && aVisitor.test (aAttr);
+          }
+          if (aElement.hasAttributes ())
+            for (final IMicroAttribute aAttr : aElement.getAllAttributeObjs ())
+              if (_matchesAttribute (aAttr) && aVisitor.test (aAttr))
+                return true;
+        }
+        return false;
+      default:
+        throw new IllegalStateException ("Unsupported axis " + m_eAxis);
+    }
+  }
+
+  private boolean _matchesAllPredicates (@Nonnull final Object aItem)
+  {
+    for (final MicroXPathExpr aPredicate : m_aPredicates)
+      if (!aPredicate.evaluatePredicate (aItem, 0, 0))
+        return false;
+    return true;
+  }
+
+  /**
+   * Call the visitor for all items selected by this step from the passed
+   * context item.
+   *
+   * @param aContextItem
+   *        The context item. May not be <code>null</code>.
+   * @param aVisitor
+   *        The visitor to invoke. Returns <code>true</code> to stop.
+   * @return <code>true</code> if the visitor requested to stop
+   */
+  boolean forEachItem (@Nonnull final Object aContextItem, @Nonnull final Predicate <Object> aVisitor)
+  {
+    if (m_aPredicates.length == 0)
+      return _forEachAxisMatch (aContextItem, aVisitor);
+
+    if (!m_bPositional)
+      return _forEachAxisMatch (aContextItem, x -> _matchesAllPredicates (x) && aVisitor.test (x));
+
+    // Positional predicates need the whole candidate list
+    final ICommonsList <Object> aAllCandidates = new CommonsArrayList <> ();
+    _forEachAxisMatch (aContextItem, x -> {
+      aAllCandidates.add (x);
+      return false;
+    });
+    ICommonsList <Object> aCandidates = aAllCandidates;
+    for (final MicroXPathExpr aPredicate : m_aPredicates)
+    {
+      final int nSize = aCandidates.size ();
+      final ICommonsList <Object> aFiltered = new CommonsArrayList <> (nSize);
+      for (int i = 0; i < nSize; ++i)
+      {
+        final Object aCandidate = aCandidates.get (i);
+        if (aPredicate.evaluatePredicate (aCandidate, i + 1, nSize))
+          aFiltered.add (aCandidate);
+      }
+      aCandidates = aFiltered;
+    }
+    for (final Object aItem : aCandidates)
+      if (aVisitor.test (aItem))
+        return true;
+    return false;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Axis", m_eAxis)
+                                       .append ("NodeTest", m_eNodeTest)
+                                       .appendIfNotNull ("NamespaceURI", m_sNamespaceURI)
+                                       .appendIfNotNull ("LocalName", m_sLocalName)
+                                       .append ("Predicates", m_aPredicates)
+                                       .toString ();
+  }
+}
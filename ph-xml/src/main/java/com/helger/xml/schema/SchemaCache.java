@@ -17,6 +17,7 @@
 package com.helger.xml.schema;
 
 import java.util.Collection;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -162,6 +163,48 @@ public class SchemaCache extends AbstractNotifyingCache <ICommonsList <? extends
     return getFromCache (new CommonsArrayList <> (aResources));
   }
 
+  /**
+   * Put the {@link Schema} that consists of the passed resources into this
+   * cache, if it is not yet contained. In contrast to the
+   * <code>getSchema</code> methods the schema is compiled outside of the cache
+   * lock with a new {@link SchemaFactory}, so different schemas can be
+   * compiled by different threads at the same time, e.g. upon application
+   * startup. The error handler and resource resolver of this cache are used
+   * concurrently in this case and must therefore be thread safe.
+   *
+   * @param aSchemaFactoryProvider
+   *        The provider for the {@link SchemaFactory} to compile the schema
+   *        with. Invoked at most once per call. May not be <code>null</code>.
+   * @param aResources
+   *        The resources to parse into a single {@link Schema}. May neither
+   *        <code>null</code> nor empty nor may it contain <code>null</code>
+   *        elements.
+   * @return Either the {@link Schema} from the cache or the newly compiled one.
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final Schema preloadSchema (@Nonnull final Supplier <? extends SchemaFactory> aSchemaFactoryProvider,
+                                     @Nonnull @Nonempty final Collection <? extends IReadableResource> aResources)
+  {
+    ValueEnforcer.notNull (aSchemaFactoryProvider, "SchemaFactoryProvider");
+    ValueEnforcer.notEmptyNoNullValue (aResources, "Resources");
+
+    final ICommonsList <IReadableResource> aKey = new CommonsArrayList <> (aResources);
+    Schema ret = getFromCacheNoStats (aKey);
+    if (ret == null)
+    {
+      final SchemaFactory aSchemaFactory = aSchemaFactoryProvider.get ();
+      if (aSchemaFactory == null)
+        throw new IllegalStateException ("The SchemaFactory provider returned null");
+      aSchemaFactory.setErrorHandler (getErrorHandler ());
+      aSchemaFactory.setResourceResolver (getResourceResolver ());
+      ret = createSchema (aSchemaFactory, m_sSchemaTypeName, aKey);
+      // If another thread was faster, its schema is simply replaced
+      putInCache (aKey, ret);
+    }
+    return ret;
+  }
+
   /**
    * Get a cached {@link Schema} that consists of multiple resources.
    *
@@ -23,6 +23,7 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
 
+import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -40,7 +41,7 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.io.stream.StreamHelper;
-import com.helger.commons.pool.ObjectPool;
+import com.helger.commons.pool.ConcurrentObjectPool;
 import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
 import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
 import com.helger.commons.statistics.StatisticsManager;
@@ -64,9 +65,18 @@ public final class DOMReader
   private static final IMutableStatisticsHandlerCounter s_aDomErrorCounterHdl = StatisticsManager.getCounterHandler (DOMReader.class.getName () +
                                                                                                                      "$DOMERRORS");
 
-  // In practice no more than 5 readers are required (even 3 would be enough)
-  private static final ObjectPool <DocumentBuilder> s_aDOMPool = new ObjectPool<> (5,
-                                                                                   () -> XMLFactory.createDocumentBuilder ());
+  /**
+   * The default maximum number of pooled document builders
+   *
+   * @since 8.6.0
+   */
+  public static final int DEFAULT_POOL_SIZE = Math.max (5, 2 * Runtime.getRuntime ().availableProcessors ());
+
+  // Reset the builders upon return, to not keep references to the handlers
+  private static final ConcurrentObjectPool <DocumentBuilder> s_aPool = new ConcurrentObjectPool<> (DOMReader.class.getName () +
+                                                                                                   "$pool",
+                                                                                                   DEFAULT_POOL_SIZE,
+                                                                                                   () -> XMLFactory.createDocumentBuilder ()).setResetter (DocumentBuilder::reset);
 
   @PresentForCodeCoverage
   private static final DOMReader s_aInstance = new DOMReader ();
@@ -76,7 +86,55 @@ public final class DOMReader
 
   public static void reinitialize ()
   {
-    s_aDOMPool.clearUnusedItems ();
+    s_aPool.clearUnusedItems ();
+  }
+
+  /**
+   * @return The maximum number of pooled document builders. Always &ge; 1.
+   * @since 8.6.0
+   */
+  @Nonnegative
+  public static int getPoolSize ()
+  {
+    return s_aPool.getMaxSize ();
+  }
+
+  /**
+   * Set the maximum number of pooled document builders. This limits the
+   * number of concurrent DOM parse operations that use the default settings.
+   *
+   * @param nPoolSize
+   *        The maximum number of pooled document builders. Must be &ge; 1.
+   * @since 8.6.0
+   */
+  public static void setPoolSize (@Nonnegative final int nPoolSize)
+  {
+    s_aPool.setMaxSize (nPoolSize);
+  }
+
+  /**
+   * @return The maximum time in milliseconds to wait for a pooled document
+   *         builder before a new one is created. Negative values mean to wait
+   *         until a pooled document builder is available.
+   * @since 8.6.0
+   */
+  @CheckForSigned
+  public static long getPoolBorrowTimeoutMillis ()
+  {
+    return s_aPool.getBorrowTimeoutMillis ();
+  }
+
+  /**
+   * @param nPoolBorrowTimeoutMillis
+   *        The maximum time in milliseconds to wait for a pooled document
+   *        builder. If none is available within this time, a new document
+   *        builder is created that is not returned to the pool. Use a negative
+   *        value to wait until a pooled document builder is available.
+   * @since 8.6.0
+   */
+  public static void setPoolBorrowTimeoutMillis (final long nPoolBorrowTimeoutMillis)
+  {
+    s_aPool.setBorrowTimeoutMillis (nPoolBorrowTimeoutMillis);
   }
 
   @Nullable
@@ -307,8 +365,14 @@ public final class DOMReader
       else
       {
         // Use one from the pool
-        aDocumentBuilder = s_aDOMPool.borrowObject ();
-        bFromPool = true;
+        aDocumentBuilder = s_aPool.borrowObject ();
+        if (aDocumentBuilder != null)
+          bFromPool = true;
+        else
+        {
+          // Timeout - don't wait any longer
+          aDocumentBuilder = XMLFactory.createDocumentBuilder ();
+        }
       }
 
       try
@@ -347,7 +411,7 @@ public final class DOMReader
         if (bFromPool)
         {
           // Return to the pool
-          s_aDOMPool.returnObject (aDocumentBuilder);
+          s_aPool.returnObject (aDocumentBuilder);
         }
       }
     }
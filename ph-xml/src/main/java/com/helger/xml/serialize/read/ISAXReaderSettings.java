@@ -64,6 +64,29 @@ public interface ISAXReaderSettings extends IBaseXMLReaderSettings
    */
   boolean isRequiresNewXMLParserExplicitly ();
 
+  /**
+   * @return <code>true</code> if the micro DOM created by
+   *         {@link com.helger.xml.microdom.serialize.MicroReader} should use
+   *         the compact memory layout: names and attribute names are shared
+   *         within the document, text is stored in exact-sized immutable
+   *         strings and child lists are trimmed. This setting has no effect
+   *         on other readers.
+   * @since 8.6.0
+   */
+  boolean isCompactMicroDOM ();
+
+  /**
+   * @return <code>true</code> if
+   *         {@link com.helger.xml.microdom.serialize.MicroReader} should
+   *         canonicalize all namespace URIs, element names and attribute names
+   *         of a document via a per-parse
+   *         {@link com.helger.xml.microdom.MicroSymbolTable}. This is implied
+   *         by {@link #isCompactMicroDOM()}. This setting has no effect on
+   *         other readers.
+   * @since 8.6.0
+   */
+  boolean isUseMicroSymbolTable ();
+
   /**
    * Check if the current settings require a separate
    * {@link javax.xml.parsers.DocumentBuilderFactory} or if a pooled default
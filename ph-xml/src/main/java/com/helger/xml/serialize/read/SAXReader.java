@@ -23,6 +23,7 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
 
+import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.WillClose;
@@ -37,8 +38,7 @@ import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.io.IHasInputStream;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.io.stream.StreamHelper;
-import com.helger.commons.pool.IMutableObjectPool;
-import com.helger.commons.pool.ObjectPool;
+import com.helger.commons.pool.ConcurrentObjectPool;
 import com.helger.commons.state.ESuccess;
 import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
 import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
@@ -60,9 +60,17 @@ public final class SAXReader
   private static final IMutableStatisticsHandlerCounter s_aSaxErrorCounterHdl = StatisticsManager.getCounterHandler (SAXReader.class.getName () +
                                                                                                                      "$error");
 
-  // In practice no more than 5 readers are required (even 3 would be enough)
-  private static final IMutableObjectPool <org.xml.sax.XMLReader> s_aSAXPool = new ObjectPool <> (5,
-                                                                                                  new SAXReaderFactory ());
+  /**
+   * The default maximum number of pooled parsers
+   *
+   * @since 8.6.0
+   */
+  public static final int DEFAULT_POOL_SIZE = Math.max (5, 2 * Runtime.getRuntime ().availableProcessors ());
+
+  private static final ConcurrentObjectPool <org.xml.sax.XMLReader> s_aPool = new ConcurrentObjectPool<> (SAXReader.class.getName () +
+                                                                                                         "$pool",
+                                                                                                         DEFAULT_POOL_SIZE,
+                                                                                                         new SAXReaderFactory ());
 
   @PresentForCodeCoverage
   private static final SAXReader s_aInstance = new SAXReader ();
@@ -70,6 +78,54 @@ public final class SAXReader
   private SAXReader ()
   {}
 
+  /**
+   * @return The maximum number of pooled parsers. Always &ge; 1.
+   * @since 8.6.0
+   */
+  @Nonnegative
+  public static int getPoolSize ()
+  {
+    return s_aPool.getMaxSize ();
+  }
+
+  /**
+   * Set the maximum number of pooled parsers. This limits the number of
+   * concurrent parse operations that use the default settings.
+   *
+   * @param nPoolSize
+   *        The maximum number of pooled parsers. Must be &ge; 1.
+   * @since 8.6.0
+   */
+  public static void setPoolSize (@Nonnegative final int nPoolSize)
+  {
+    s_aPool.setMaxSize (nPoolSize);
+  }
+
+  /**
+   * @return The maximum time in milliseconds to wait for a pooled parser
+   *         before a new one is created. Negative values mean to wait until a
+   *         pooled parser is available.
+   * @since 8.6.0
+   */
+  @CheckForSigned
+  public static long getPoolBorrowTimeoutMillis ()
+  {
+    return s_aPool.getBorrowTimeoutMillis ();
+  }
+
+  /**
+   * @param nPoolBorrowTimeoutMillis
+   *        The maximum time in milliseconds to wait for a pooled parser. If no
+   *        object is available within this time, a new unpooled parser is
+   *        created. Use a negative value to wait until a pooled parser is
+   *        available.
+   * @since 8.6.0
+   */
+  public static void setPoolBorrowTimeoutMillis (final long nPoolBorrowTimeoutMillis)
+  {
+    s_aPool.setBorrowTimeoutMillis (nPoolBorrowTimeoutMillis);
+  }
+
   @Nonnull
   public static ESuccess readXMLSAX (@Nonnull final File aFile, @Nonnull final ISAXReaderSettings aSettings)
   {
@@ -214,8 +270,14 @@ public final class SAXReader
       else
       {
         // use parser from pool
-        aParser = s_aSAXPool.borrowObject ();
-        bFromPool = true;
+        aParser = s_aPool.borrowObject ();
+        if (aParser != null)
+          bFromPool = true;
+        else
+        {
+          // Timeout - don't wait any longer
+          aParser = SAXReaderFactory.createXMLReader ();
+        }
       }
 
       try
@@ -238,7 +300,7 @@ public final class SAXReader
         if (bFromPool)
         {
           // Return parser to pool
-          s_aSAXPool.returnObject (aParser);
+          s_aPool.returnObject (aParser);
         }
       }
     }
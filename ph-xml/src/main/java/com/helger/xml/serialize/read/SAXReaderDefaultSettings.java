@@ -54,6 +54,10 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public final class SAXReaderDefaultSettings
 {
   public static final boolean DEFAULT_REQUIRES_NEW_XML_PARSER_EXPLICITLY = false;
+  /** @since 8.6.0 */
+  public static final boolean DEFAULT_COMPACT_MICRO_DOM = false;
+  /** @since 8.6.0 */
+  public static final boolean DEFAULT_USE_MICRO_SYMBOL_TABLE = false;
 
   private static final SimpleReadWriteLock s_aRWLock = new SimpleReadWriteLock ();
 
@@ -73,6 +77,10 @@ public final class SAXReaderDefaultSettings
   private static IExceptionCallback <Throwable> s_aDefaultExceptionHandler = new XMLLoggingExceptionCallback ();
   @GuardedBy ("s_aRWLock")
   private static boolean s_bDefaultRequiresNewXMLParserExplicitly = DEFAULT_REQUIRES_NEW_XML_PARSER_EXPLICITLY;
+  @GuardedBy ("s_aRWLock")
+  private static boolean s_bDefaultCompactMicroDOM = DEFAULT_COMPACT_MICRO_DOM;
+  @GuardedBy ("s_aRWLock")
+  private static boolean s_bDefaultUseMicroSymbolTable = DEFAULT_USE_MICRO_SYMBOL_TABLE;
 
   static
   {
@@ -327,4 +335,48 @@ public final class SAXReaderDefaultSettings
   {
     s_aRWLock.writeLocked ( () -> s_bDefaultRequiresNewXMLParserExplicitly = bDefaultRequiresNewXMLParserExplicitly);
   }
+
+  /**
+   * @return <code>true</code> if the micro DOM created by
+   *         {@link com.helger.xml.microdom.serialize.MicroReader} should use
+   *         the compact memory layout by default.
+   * @since 8.6.0
+   */
+  public static boolean isCompactMicroDOM ()
+  {
+    return s_aRWLock.readLocked ( () -> s_bDefaultCompactMicroDOM);
+  }
+
+  /**
+   * @param bDefaultCompactMicroDOM
+   *        <code>true</code> to use the compact micro DOM memory layout by
+   *        default.
+   * @since 8.6.0
+   */
+  public static void setCompactMicroDOM (final boolean bDefaultCompactMicroDOM)
+  {
+    s_aRWLock.writeLocked ( () -> s_bDefaultCompactMicroDOM = bDefaultCompactMicroDOM);
+  }
+
+  /**
+   * @return <code>true</code> if
+   *         {@link com.helger.xml.microdom.serialize.MicroReader} should use a
+   *         symbol table for all names by default.
+   * @since 8.6.0
+   */
+  public static boolean isUseMicroSymbolTable ()
+  {
+    return s_aRWLock.readLocked ( () -> s_bDefaultUseMicroSymbolTable);
+  }
+
+  /**
+   * @param bDefaultUseMicroSymbolTable
+   *        <code>true</code> to use a symbol table for all micro DOM names by
+   *        default.
+   * @since 8.6.0
+   */
+  public static void setUseMicroSymbolTable (final boolean bDefaultUseMicroSymbolTable)
+  {
+    s_aRWLock.writeLocked ( () -> s_bDefaultUseMicroSymbolTable = bDefaultUseMicroSymbolTable);
+  }
 }
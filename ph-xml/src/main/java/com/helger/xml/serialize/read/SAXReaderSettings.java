@@ -61,6 +61,8 @@ public class SAXReaderSettings implements ISAXReaderSettings, ICloneable <SAXRea
   private final ICommonsMap <EXMLParserFeature, Boolean> m_aFeatures = new CommonsEnumMap<> (EXMLParserFeature.class);
   private IExceptionCallback <Throwable> m_aExceptionHandler;
   private boolean m_bRequiresNewXMLParserExplicitly;
+  private boolean m_bCompactMicroDOM;
+  private boolean m_bUseMicroSymbolTable;
 
   /**
    * Default constructor
@@ -76,6 +78,8 @@ public class SAXReaderSettings implements ISAXReaderSettings, ICloneable <SAXRea
     setFeatureValues (SAXReaderDefaultSettings.getAllFeatureValues ());
     setExceptionHandler (SAXReaderDefaultSettings.getExceptionHandler ());
     setRequiresNewXMLParserExplicitly (SAXReaderDefaultSettings.isRequiresNewXMLParserExplicitly ());
+    setCompactMicroDOM (SAXReaderDefaultSettings.isCompactMicroDOM ());
+    setUseMicroSymbolTable (SAXReaderDefaultSettings.isUseMicroSymbolTable ());
   }
 
   /**
@@ -97,6 +101,8 @@ public class SAXReaderSettings implements ISAXReaderSettings, ICloneable <SAXRea
     setFeatureValues (aOther.getAllFeatureValues ());
     setExceptionHandler (aOther.getExceptionHandler ());
     setRequiresNewXMLParserExplicitly (aOther.isRequiresNewXMLParserExplicitly ());
+    setCompactMicroDOM (aOther.isCompactMicroDOM ());
+    setUseMicroSymbolTable (aOther.isUseMicroSymbolTable ());
   }
 
   @Nullable
@@ -351,6 +357,49 @@ public class SAXReaderSettings implements ISAXReaderSettings, ICloneable <SAXRea
     return this;
   }
 
+  public boolean isCompactMicroDOM ()
+  {
+    return m_bCompactMicroDOM;
+  }
+
+  /**
+   * Enable or disable the compact micro DOM memory layout. This is only used
+   * by {@link com.helger.xml.microdom.serialize.MicroReader}.
+   *
+   * @param bCompactMicroDOM
+   *        <code>true</code> to enable the compact layout.
+   * @return this for chaining
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final SAXReaderSettings setCompactMicroDOM (final boolean bCompactMicroDOM)
+  {
+    m_bCompactMicroDOM = bCompactMicroDOM;
+    return this;
+  }
+
+  public boolean isUseMicroSymbolTable ()
+  {
+    return m_bUseMicroSymbolTable;
+  }
+
+  /**
+   * Enable or disable the usage of a symbol table that canonicalizes all names
+   * of a micro DOM. This is only used by
+   * {@link com.helger.xml.microdom.serialize.MicroReader}.
+   *
+   * @param bUseMicroSymbolTable
+   *        <code>true</code> to use a symbol table.
+   * @return this for chaining
+   * @since 8.6.0
+   */
+  @Nonnull
+  public final SAXReaderSettings setUseMicroSymbolTable (final boolean bUseMicroSymbolTable)
+  {
+    m_bUseMicroSymbolTable = bUseMicroSymbolTable;
+    return this;
+  }
+
   @Nonnull
   public SAXReaderSettings getClone ()
   {
@@ -388,6 +437,8 @@ public class SAXReaderSettings implements ISAXReaderSettings, ICloneable <SAXRea
                                        .append ("features", m_aFeatures)
                                        .append ("exceptionHandler", m_aExceptionHandler)
                                        .append ("requiresNewXMLParserExplicitly", m_bRequiresNewXMLParserExplicitly)
+                                       .append ("compactMicroDOM", m_bCompactMicroDOM)
+                                       .append ("useMicroSymbolTable", m_bUseMicroSymbolTable)
                                        .toString ();
   }
 
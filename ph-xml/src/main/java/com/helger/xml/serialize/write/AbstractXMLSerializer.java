@@ -465,13 +465,18 @@ public abstract class AbstractXMLSerializer <NODETYPE>
 
   protected final void handlePutNamespaceContextPrefixInRoot (@Nonnull final Map <QName, String> aAttrMap)
   {
-    if (m_aNSStack.size () == 1 &&
-        m_aSettings.isPutNamespaceContextPrefixesInRoot () &&
-        m_aSettings.isEmitNamespaces ())
+    putNamespaceContextPrefixesInRoot (m_aSettings, m_aNSStack, aAttrMap);
+  }
+
+  static void putNamespaceContextPrefixesInRoot (@Nonnull final IXMLWriterSettings aSettings,
+                                                 @Nonnull final NamespaceStack aNSStack,
+                                                 @Nonnull final Map <QName, String> aAttrMap)
+  {
+    if (aNSStack.size () == 1 && aSettings.isPutNamespaceContextPrefixesInRoot () && aSettings.isEmitNamespaces ())
     {
       // The only place where the namespace context prefixes are added to the
       // root element
-      final NamespaceContext aNC = m_aSettings.getNamespaceContext ();
+      final NamespaceContext aNC = aSettings.getNamespaceContext ();
       if (aNC != null)
       {
         if (aNC instanceof IIterableNamespaceContext)
@@ -483,7 +488,7 @@ public abstract class AbstractXMLSerializer <NODETYPE>
             final String sNSPrefix = aEntry.getKey ();
             final String sNamespaceURI = aEntry.getValue ();
             aAttrMap.put (XMLHelper.getXMLNSAttrQName (sNSPrefix), sNamespaceURI);
-            m_aNSStack.addNamespaceMapping (sNSPrefix, sNamespaceURI);
+            aNSStack.addNamespaceMapping (sNSPrefix, sNamespaceURI);
           }
         }
         else
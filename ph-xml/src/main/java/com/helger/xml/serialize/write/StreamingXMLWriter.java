@@ -0,0 +1,674 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.serialize.write;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.namespace.QName;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsLinkedHashMap;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsOrderedMap;
+import com.helger.commons.io.stream.NonBlockingBufferedWriter;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.xml.serialize.write.AbstractXMLSerializer.NamespaceStack;
+
+/**
+ * A forward-only XML writer that emits the XML directly to a {@link Writer}
+ * without building a document tree first. Only the stack of the currently open
+ * elements is kept in memory, so arbitrary large documents can be written with
+ * a constant memory footprint.<br>
+ * The output is identical to the output of the micro DOM serializer for an
+ * equivalent document, including namespace prefix handling, indentation (via
+ * {@link IXMLIndentDeterminator}) and bracket mode (via
+ * {@link IXMLBracketModeDeterminator}). To achieve this, the start tag of an
+ * element is only written, when the first child is written or when the element
+ * is closed. Until then attributes may be added to the current element.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@NotThreadSafe
+public class StreamingXMLWriter implements AutoCloseable
+{
+  /**
+   * Information about a single open element.
+   */
+  private static final class ElementInfo
+  {
+    private final String m_sNamespaceURI;
+    private final String m_sTagName;
+    private final boolean m_bIndentPrev;
+    // Only present while the start tag was not yet written
+    private ICommonsOrderedMap <QName, String> m_aAttrs = new CommonsLinkedHashMap <> ();
+    private String m_sNSPrefix;
+    private EXMLSerializeBracketMode m_eBracketMode;
+    private EXMLSerializeIndent m_eIndentOuter;
+    private EXMLSerializeIndent m_eIndentInner;
+    private boolean m_bHasChildren = false;
+    private boolean m_bFirstChildIsElement = false;
+    private boolean m_bLastChildIsInline = false;
+
+    ElementInfo (@Nullable final String sNamespaceURI,
+                 @Nonnull @Nonempty final String sTagName,
+                 final boolean bIndentPrev)
+    {
+      m_sNamespaceURI = sNamespaceURI;
+      m_sTagName = sTagName;
+      m_bIndentPrev = bIndentPrev;
+    }
+
+    boolean isStartTagWritten ()
+    {
+      return m_aAttrs == null;
+    }
+  }
+
+  private final Writer m_aWriter;
+  private final IXMLWriterSettings m_aSettings;
+  private final XMLEmitter m_aEmitter;
+  private final NamespaceStack m_aNSStack;
+  private final StringBuilder m_aIndent = new StringBuilder (32);
+  private final ICommonsList <ElementInfo> m_aElementStack = new CommonsArrayList <> ();
+  private boolean m_bAnyContentWritten = false;
+  private boolean m_bHasPendingNewLine = false;
+  private boolean m_bDocumentEnded = false;
+
+  /**
+   * Constructor
+   *
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. The
+   *        stream is closed, when this writer is closed. The charset of the
+   *        passed settings is used.
+   * @param aSettings
+   *        The XML writer settings to use. May not be <code>null</code>.
+   */
+  public StreamingXMLWriter (@Nonnull @WillCloseWhenClosed final OutputStream aOS,
+                             @Nonnull final IXMLWriterSettings aSettings)
+  {
+    this (new NonBlockingBufferedWriter (StreamHelper.createWriter (ValueEnforcer.notNull (aOS, "OutputStream"),
+                                                                    aSettings.getCharsetObj ())),
+          aSettings);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aWriter
+   *        The writer to write to. May not be <code>null</code>. The writer is
+   *        buffered automatically if necessary and closed, when this writer is
+   *        closed.
+   * @param aSettings
+   *        The XML writer settings to use. May not be <code>null</code>.
+   */
+  public StreamingXMLWriter (@Nonnull @WillCloseWhenClosed final Writer aWriter,
+                             @Nonnull final IXMLWriterSettings aSettings)
+  {
+    ValueEnforcer.notNull (aWriter, "Writer");
+    ValueEnforcer.notNull (aSettings, "Settings");
+    m_aWriter = StreamHelper.getBuffered (aWriter);
+    m_aSettings = aSettings;
+    m_aEmitter = new XMLEmitter (m_aWriter, aSettings);
+    m_aNSStack = new NamespaceStack (aSettings.getNamespaceContext ());
+  }
+
+  /**
+   * @return The XML writer settings as provided in the constructor. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public final IXMLWriterSettings getSettings ()
+  {
+    return m_aSettings;
+  }
+
+  /**
+   * @return The number of currently open elements. Always &ge; 0.
+   */
+  @Nonnegative
+  public final int getDepth ()
+  {
+    return m_aElementStack.size ();
+  }
+
+  private void _checkNotEnded ()
+  {
+    if (m_bDocumentEnded)
+      throw new IllegalStateException ("The document was already ended");
+  }
+
+  @Nullable
+  private ElementInfo _getCurrentElement ()
+  {
+    return m_aElementStack.getLast ();
+  }
+
+  private void _newLine ()
+  {
+    m_aEmitter.onContentElementWhitespace (m_aSettings.getNewLineString ());
+  }
+
+  private void _writeStartTag (@Nonnull final ElementInfo aElement, final boolean bHasChildren)
+  {
+    final boolean bEmitNamespaces = m_aSettings.isEmitNamespaces ();
+    final boolean bIsRootElement = m_aElementStack.size () == 1;
+
+    // get all attributes (order is important!)
+    final ICommonsOrderedMap <QName, String> aAttrMap = new CommonsLinkedHashMap <> ();
+
+    m_aNSStack.push ();
+
+    AbstractXMLSerializer.putNamespaceContextPrefixesInRoot (m_aSettings, m_aNSStack, aAttrMap);
+
+    // resolve Namespace prefix
+    String sElementNamespaceURI = null;
+    String sElementNSPrefix = null;
+    if (bEmitNamespaces)
+    {
+      sElementNamespaceURI = StringHelper.getNotNull (aElement.m_sNamespaceURI);
+      sElementNSPrefix = m_aNSStack.getElementNamespacePrefixToUse (sElementNamespaceURI, bIsRootElement, aAttrMap);
+    }
+
+    // For all attributes (in the correct order)
+    for (final Map.Entry <QName, String> aEntry : aElement.m_aAttrs.entrySet ())
+    {
+      final QName aAttrName = aEntry.getKey ();
+      final String sAttrNamespaceURI = aAttrName.getNamespaceURI ();
+      final String sAttrName = aAttrName.getLocalPart ();
+      final String sAttrValue = aEntry.getValue ();
+      String sAttrNSPrefix = null;
+      if (bEmitNamespaces)
+        sAttrNSPrefix = m_aNSStack.getAttributeNamespacePrefixToUse (sAttrNamespaceURI,
+                                                                     sAttrName,
+                                                                     sAttrValue,
+                                                                     aAttrMap);
+
+      if (sAttrNSPrefix != null)
+        aAttrMap.put (new QName (sAttrNamespaceURI, sAttrName, sAttrNSPrefix), sAttrValue);
+      else
+        aAttrMap.put (aAttrName, sAttrValue);
+    }
+
+    // Determine indent
+    final ElementInfo aParent = bIsRootElement ? null : m_aElementStack.get (m_aElementStack.size () - 2);
+    final String sParentNamespaceURI = aParent != null ? aParent.m_sNamespaceURI : null;
+    final String sParentTagName = aParent != null ? aParent.m_sTagName : null;
+    final IXMLIndentDeterminator aIndentDeterminator = m_aSettings.getIndentDeterminator ();
+    final EXMLSerializeIndent eIndentOuter = aIndentDeterminator.getIndentOuter (sParentNamespaceURI,
+                                                                                 sParentTagName,
+                                                                                 sElementNamespaceURI,
+                                                                                 aElement.m_sTagName,
+                                                                                 aAttrMap,
+                                                                                 bHasChildren,
+                                                                                 m_aSettings.getIndent ());
+    // Has indent only if enabled, and an indent string is not empty
+    // indent only if predecessor was an element
+    if (eIndentOuter.isIndent () && m_aIndent.length () > 0 && aElement.m_bIndentPrev)
+      m_aEmitter.onContentElementWhitespace (m_aIndent);
+
+    final EXMLSerializeBracketMode eBracketMode = m_aSettings.getBracketModeDeterminator ()
+                                                             .getBracketMode (sElementNamespaceURI,
+                                                                              aElement.m_sTagName,
+                                                                              aAttrMap,
+                                                                              bHasChildren);
+
+    m_aEmitter.onElementStart (sElementNSPrefix, aElement.m_sTagName, aAttrMap, bHasChildren, eBracketMode);
+
+    if (bHasChildren)
+    {
+      aElement.m_eIndentInner = aIndentDeterminator.getIndentInner (sParentNamespaceURI,
+                                                                    sParentTagName,
+                                                                    sElementNamespaceURI,
+                                                                    aElement.m_sTagName,
+                                                                    aAttrMap,
+                                                                    bHasChildren,
+                                                                    m_aSettings.getIndent ());
+      // increment indent
+      m_aIndent.append (m_aSettings.getIndentationString ());
+    }
+
+    aElement.m_sNSPrefix = sElementNSPrefix;
+    aElement.m_eBracketMode = eBracketMode;
+    aElement.m_eIndentOuter = eIndentOuter;
+    aElement.m_bHasChildren = bHasChildren;
+    // Release the attributes as early as possible
+    aElement.m_aAttrs = null;
+  }
+
+  /**
+   * Must be called before any node is written. Ensures the start tag of the
+   * parent element is written and handles the deferred line break of a
+   * previous sibling element.
+   *
+   * @param bIsInline
+   *        <code>true</code> if the node to be written is an inline node (text,
+   *        CDATA or entity reference)
+   */
+  private void _beforeNode (final boolean bIsInline)
+  {
+    _checkNotEnded ();
+    m_bAnyContentWritten = true;
+
+    final ElementInfo aParent = _getCurrentElement ();
+    if (aParent != null)
+    {
+      if (!aParent.isStartTagWritten ())
+      {
+        _writeStartTag (aParent, true);
+        aParent.m_bFirstChildIsElement = !bIsInline;
+        // do we have enclosing elements?
+        if (aParent.m_eIndentInner.isAlign () && !bIsInline)
+          _newLine ();
+      }
+      aParent.m_bLastChildIsInline = bIsInline;
+    }
+
+    // Line break after the previous sibling element is only emitted if no
+    // inline node follows
+    if (m_bHasPendingNewLine)
+    {
+      if (!bIsInline)
+        _newLine ();
+      m_bHasPendingNewLine = false;
+    }
+  }
+
+  /**
+   * Write the XML declaration, if enabled in the settings. This must be the
+   * first call on this writer.
+   *
+   * @return this for chaining
+   * @see #writeStartDocument(boolean)
+   */
+  @Nonnull
+  public StreamingXMLWriter writeStartDocument ()
+  {
+    return writeStartDocument (false);
+  }
+
+  /**
+   * Write the XML declaration, if enabled in the settings. This must be the
+   * first call on this writer.
+   *
+   * @param bStandalone
+   *        <code>true</code> to emit the "standalone" attribute
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeStartDocument (final boolean bStandalone)
+  {
+    _checkNotEnded ();
+    if (m_bAnyContentWritten)
+      throw new IllegalStateException ("The XML declaration must be the first thing written");
+    m_bAnyContentWritten = true;
+
+    if (m_aSettings.getSerializeXMLDeclaration ().isEmit ())
+      m_aEmitter.onXMLDeclaration (m_aSettings.getXMLVersion (), m_aSettings.getCharset (), bStandalone);
+    return this;
+  }
+
+  /**
+   * Write a document type, if enabled in the settings. This is only allowed
+   * outside of the root element.
+   *
+   * @param sQualifiedName
+   *        The qualified name of the root element. May not be
+   *        <code>null</code>.
+   * @param sPublicID
+   *        Optional public ID. May be <code>null</code>.
+   * @param sSystemID
+   *        Optional system ID. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeDocumentType (@Nonnull @Nonempty final String sQualifiedName,
+                                               @Nullable final String sPublicID,
+                                               @Nullable final String sSystemID)
+  {
+    ValueEnforcer.notEmpty (sQualifiedName, "QualifiedName");
+    if (m_aElementStack.isNotEmpty ())
+      throw new IllegalStateException ("A document type cannot be written inside an element");
+
+    _beforeNode (false);
+    if (m_aSettings.getSerializeDocType ().isEmit ())
+      m_aEmitter.onDocumentType (sQualifiedName, sPublicID, sSystemID);
+    return this;
+  }
+
+  /**
+   * Start a new element without a namespace URI.
+   *
+   * @param sTagName
+   *        The tag name of the element. May neither be <code>null</code> nor
+   *        empty.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeStartElement (@Nonnull @Nonempty final String sTagName)
+  {
+    return writeStartElement (null, sTagName);
+  }
+
+  /**
+   * Start a new element. Attributes can be added as long as no child node was
+   * written.
+   *
+   * @param sNamespaceURI
+   *        The namespace URI of the element. May be <code>null</code>.
+   * @param sTagName
+   *        The tag name of the element. May neither be <code>null</code> nor
+   *        empty.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeStartElement (@Nullable final String sNamespaceURI,
+                                               @Nonnull @Nonempty final String sTagName)
+  {
+    ValueEnforcer.notEmpty (sTagName, "TagName");
+
+    final ElementInfo aParent = _getCurrentElement ();
+    final boolean bIndentPrev = aParent == null ||
+                                !aParent.isStartTagWritten () ||
+                                !aParent.m_bLastChildIsInline;
+    _beforeNode (false);
+    m_aElementStack.add (new ElementInfo (sNamespaceURI, sTagName, bIndentPrev));
+    return this;
+  }
+
+  /**
+   * Add an attribute without a namespace URI to the current element.
+   *
+   * @param sName
+   *        The attribute name. May neither be <code>null</code> nor empty.
+   * @param sValue
+   *        The attribute value. May not be <code>null</code>.
+   * @return this for chaining
+   * @throws IllegalStateException
+   *         if no element is open or if the start tag of the current element
+   *         was already written
+   */
+  @Nonnull
+  public StreamingXMLWriter writeAttribute (@Nonnull @Nonempty final String sName, @Nonnull final String sValue)
+  {
+    return writeAttribute (null, sName, sValue);
+  }
+
+  /**
+   * Add an attribute to the current element. If an attribute with the same
+   * name is already present, it is overwritten.
+   *
+   * @param sNamespaceURI
+   *        The namespace URI of the attribute. May be <code>null</code>.
+   * @param sName
+   *        The attribute name. May neither be <code>null</code> nor empty.
+   * @param sValue
+   *        The attribute value. May not be <code>null</code>.
+   * @return this for chaining
+   * @throws IllegalStateException
+   *         if no element is open or if the start tag of the current element
+   *         was already written
+   */
+  @Nonnull
+  public StreamingXMLWriter writeAttribute (@Nullable final String sNamespaceURI,
+                                            @Nonnull @Nonempty final String sName,
+                                            @Nonnull final String sValue)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    ValueEnforcer.notNull (sValue, "Value");
+    _checkNotEnded ();
+
+    final ElementInfo aElement = _getCurrentElement ();
+    if (aElement == null || aElement.isStartTagWritten ())
+      throw new IllegalStateException ("Attributes can only be written directly after an element was started");
+    aElement.m_aAttrs.put (new QName (sNamespaceURI, sName), sValue);
+    return this;
+  }
+
+  /**
+   * Write escaped text.
+   *
+   * @param sText
+   *        The text to write. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeText (@Nullable final String sText)
+  {
+    return writeText (sText, true);
+  }
+
+  /**
+   * Write text.
+   *
+   * @param sText
+   *        The text to write. May be <code>null</code>.
+   * @param bEscape
+   *        <code>true</code> to escape the text, <code>false</code> to write it
+   *        as is.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeText (@Nullable final String sText, final boolean bEscape)
+  {
+    _beforeNode (true);
+    m_aEmitter.onText (sText, bEscape);
+    return this;
+  }
+
+  /**
+   * Write a CDATA section.
+   *
+   * @param sText
+   *        The CDATA content. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeCDATA (@Nullable final String sText)
+  {
+    _beforeNode (true);
+    m_aEmitter.onCDATA (sText);
+    return this;
+  }
+
+  /**
+   * Write an entity reference.
+   *
+   * @param sEntityRef
+   *        The name of the entity to write (without the leading '&amp;' and the
+   *        trailing ';'). May neither be <code>null</code> nor empty.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeEntityReference (@Nonnull @Nonempty final String sEntityRef)
+  {
+    ValueEnforcer.notEmpty (sEntityRef, "EntityRef");
+    _beforeNode (true);
+    m_aEmitter.onEntityReference (sEntityRef);
+    return this;
+  }
+
+  /**
+   * Write a comment, if enabled in the settings.
+   *
+   * @param sComment
+   *        The comment text. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeComment (@Nullable final String sComment)
+  {
+    _beforeNode (false);
+    if (m_aSettings.getSerializeComments ().isEmit ())
+    {
+      if (m_aSettings.getIndent ().isIndent () && m_aIndent.length () > 0)
+        m_aEmitter.onContentElementWhitespace (m_aIndent);
+      m_aEmitter.onComment (sComment);
+      if (m_aSettings.getIndent ().isAlign ())
+        _newLine ();
+    }
+    return this;
+  }
+
+  /**
+   * Write a processing instruction.
+   *
+   * @param sTarget
+   *        The PI target. May neither be <code>null</code> nor empty.
+   * @param sData
+   *        The PI data. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeProcessingInstruction (@Nonnull @Nonempty final String sTarget,
+                                                        @Nullable final String sData)
+  {
+    ValueEnforcer.notEmpty (sTarget, "Target");
+    _beforeNode (false);
+    m_aEmitter.onProcessingInstruction (sTarget, sData);
+    return this;
+  }
+
+  /**
+   * Close the current element. If no child node was written, the element is
+   * written as an empty element according to the bracket mode determinator.
+   *
+   * @return this for chaining
+   * @throws IllegalStateException
+   *         if no element is open
+   */
+  @Nonnull
+  public StreamingXMLWriter writeEndElement ()
+  {
+    _checkNotEnded ();
+    final ElementInfo aElement = _getCurrentElement ();
+    if (aElement == null)
+      throw new IllegalStateException ("No element is open");
+
+    if (!aElement.isStartTagWritten ())
+      _writeStartTag (aElement, false);
+    else
+      if (aElement.m_bHasChildren)
+      {
+        // The last child element is the last sibling
+        if (m_bHasPendingNewLine)
+        {
+          _newLine ();
+          m_bHasPendingNewLine = false;
+        }
+
+        // decrement indent
+        final int nIndentLength = m_aSettings.getIndentationString ().length ();
+        m_aIndent.delete (m_aIndent.length () - nIndentLength, m_aIndent.length ());
+
+        // add closing tag
+        if (aElement.m_eIndentInner.isIndent () && m_aIndent.length () > 0 && aElement.m_bFirstChildIsElement)
+          m_aEmitter.onContentElementWhitespace (m_aIndent);
+      }
+
+    m_aEmitter.onElementEnd (aElement.m_sNSPrefix,
+                             aElement.m_sTagName,
+                             aElement.m_bHasChildren,
+                             aElement.m_eBracketMode);
+    m_aNSStack.pop ();
+    m_aElementStack.removeLast ();
+
+    // The line break is deferred until it is clear what comes next
+    if (aElement.m_eIndentOuter.isAlign ())
+      m_bHasPendingNewLine = true;
+    return this;
+  }
+
+  /**
+   * End the document: all open elements are closed and the output is flushed.
+   * Afterwards no further content can be written. Calling this method more
+   * than once has no effect.
+   *
+   * @return this for chaining
+   */
+  @Nonnull
+  public StreamingXMLWriter writeEndDocument ()
+  {
+    if (!m_bDocumentEnded)
+    {
+      while (m_aElementStack.isNotEmpty ())
+        writeEndElement ();
+      if (m_bHasPendingNewLine)
+      {
+        _newLine ();
+        m_bHasPendingNewLine = false;
+      }
+      m_bDocumentEnded = true;
+      flush ();
+    }
+    return this;
+  }
+
+  /**
+   * Flush all buffered content to the underlying writer. Note: the start tag of
+   * the current element may not yet be written.
+   */
+  public void flush ()
+  {
+    try
+    {
+      m_aWriter.flush ();
+    }
+    catch (final IOException ex)
+    {
+      throw new IllegalStateException ("Failed to flush", ex);
+    }
+  }
+
+  /**
+   * End the document (see {@link #writeEndDocument()}) and close the
+   * underlying writer.
+   */
+  public void close ()
+  {
+    try
+    {
+      writeEndDocument ();
+    }
+    finally
+    {
+      StreamHelper.close (m_aWriter);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Settings", m_aSettings)
+                                       .append ("Depth", getDepth ())
+                                       .append ("DocumentEnded", m_bDocumentEnded)
+                                       .toString ();
+  }
+}
@@ -24,6 +24,7 @@ import javax.annotation.concurrent.Immutable;
 
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.collection.ArrayHelper;
 import com.helger.commons.collection.ext.CommonsLinkedHashSet;
 import com.helger.commons.collection.ext.ICommonsOrderedSet;
@@ -628,6 +629,60 @@ public final class XMLCharHelper
   private XMLCharHelper ()
   {}
 
+  /**
+   * Get the internal bit set of all invalid characters for the provided
+   * combination.
+   *
+   * @param eXMLVersion
+   *        XML version to be used. May not be <code>null</code>.
+   * @param eXMLCharMode
+   *        The character mode to be used. May not be <code>null</code>.
+   * @param bFirstChar
+   *        <code>true</code> to get the bit set for the first character. Only
+   *        relevant for element and attribute names.
+   * @return The bit set. Never <code>null</code>.
+   * @since 8.6.0
+   */
+  @Nonnull
+  @ReturnsMutableObject ("internal use only")
+  static BitSet getInvalidXMLCharBitSet (@Nonnull final EXMLSerializeVersion eXMLVersion,
+                                         @Nonnull final EXMLCharMode eXMLCharMode,
+                                         final boolean bFirstChar)
+  {
+    switch (eXMLVersion)
+    {
+      case XML_10:
+        switch (eXMLCharMode)
+        {
+          case ELEMENT_NAME:
+          case ATTRIBUTE_NAME:
+            return bFirstChar ? INVALID_NAME_START_CHAR_XML10 : INVALID_NAME_CHAR_XML10;
+          default:
+            return INVALID_VALUE_CHAR_XML10;
+        }
+      case XML_11:
+        switch (eXMLCharMode)
+        {
+          case ELEMENT_NAME:
+          case ATTRIBUTE_NAME:
+            return bFirstChar ? INVALID_NAME_START_CHAR_XML11 : INVALID_NAME_CHAR_XML11;
+          case ATTRIBUTE_VALUE_DOUBLE_QUOTES:
+          case ATTRIBUTE_VALUE_SINGLE_QUOTES:
+            return INVALID_ATTR_VALUE_CHAR_XML11;
+          case TEXT:
+            return INVALID_TEXT_VALUE_CHAR_XML11;
+          case CDATA:
+            return INVALID_CDATA_VALUE_CHAR_XML11;
+          default:
+            throw new IllegalArgumentException ("Unsupported XML character mode " + eXMLCharMode + "!");
+        }
+      case HTML:
+        return INVALID_CHAR_HTML;
+      default:
+        throw new IllegalArgumentException ("Unsupported XML version " + eXMLVersion + "!");
+    }
+  }
+
   /**
    * Check if the passed character is invalid for an element or attribute name
    * on the first position
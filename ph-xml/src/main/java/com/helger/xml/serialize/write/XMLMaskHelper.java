@@ -18,20 +18,20 @@ package com.helger.xml.serialize.write;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 import java.util.Set;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import com.helger.commons.CGlobal;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.collection.ArrayHelper;
-import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
 import com.helger.commons.string.StringHelper;
 import com.helger.xml.EXMLVersion;
 
@@ -427,6 +427,56 @@ public final class XMLMaskHelper
       MASK_TEXT_HTML_SQ_REPLACE[i] = getHTMLEntityReferenceString (MASK_TEXT_HTML_SQ[i]).toCharArray ();
   }
 
+  /**
+   * The precomputed lookup data for a combination of XML version and
+   * character mode.
+   */
+  private static final class MaskTable
+  {
+    // Indexed by character; null if no masking is required
+    private final char [] [] m_aReplace;
+    private final BitSet m_aInvalidFirst;
+    private final BitSet m_aInvalid;
+
+    MaskTable (@Nullable final char [] aSrcMap,
+               @Nullable final char [] [] aDstMap,
+               @Nonnull final BitSet aInvalidFirst,
+               @Nonnull final BitSet aInvalid)
+    {
+      if (aSrcMap == null)
+        m_aReplace = new char [0] [];
+      else
+      {
+        int nMax = 0;
+        for (final char c : aSrcMap)
+          nMax = Math.max (nMax, c);
+        m_aReplace = new char [nMax + 1] [];
+        for (int i = 0; i < aSrcMap.length; ++i)
+          m_aReplace[aSrcMap[i]] = aDstMap[i];
+      }
+      m_aInvalidFirst = aInvalidFirst;
+      m_aInvalid = aInvalid;
+    }
+  }
+
+  private static final MaskTable [] [] MASK_TABLES = new MaskTable [EXMLSerializeVersion.values ().length] [EXMLCharMode.values ().length];
+
+  static
+  {
+    for (final EXMLSerializeVersion eXMLVersion : EXMLSerializeVersion.values ())
+      for (final EXMLCharMode eXMLCharMode : EXMLCharMode.values ())
+        MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()] = new MaskTable (_findSourceMap (eXMLVersion,
+                                                                                                      eXMLCharMode),
+                                                                                      _findReplaceMap (eXMLVersion,
+                                                                                                       eXMLCharMode),
+                                                                                      XMLCharHelper.getInvalidXMLCharBitSet (eXMLVersion,
+                                                                                                                             eXMLCharMode,
+                                                                                                                             true),
+                                                                                      XMLCharHelper.getInvalidXMLCharBitSet (eXMLVersion,
+                                                                                                                             eXMLCharMode,
+                                                                                                                             false));
+  }
+
   @PresentForCodeCoverage
   private static final XMLMaskHelper s_aInstance = new XMLMaskHelper ();
 
@@ -556,13 +606,22 @@ public final class XMLMaskHelper
   }
 
   @Nonnull
-  @ReturnsMutableCopy
-  private static char [] [] _createEmptyReplacement (@Nonnull final char [] aSrcMap)
+  private static MaskTable _getMaskTable (@Nonnull final EXMLSerializeVersion eXMLVersion,
+                                          @Nonnull final EXMLCharMode eXMLCharMode)
   {
-    final char [] [] ret = new char [aSrcMap.length] [];
-    for (int i = 0; i < aSrcMap.length; ++i)
-      ret[i] = ArrayHelper.EMPTY_CHAR_ARRAY;
-    return ret;
+    return MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()];
+  }
+
+  private static void _notifyInvalid (@Nonnull final EXMLSerializeVersion eXMLVersion,
+                                      @Nonnull final EXMLCharMode eXMLCharMode,
+                                      @Nonnull final EXMLIncorrectCharacterHandling eIncorrectCharHandling,
+                                      @Nonnull final String s)
+  {
+    if (eIncorrectCharHandling.isNotifyRequired ())
+      eIncorrectCharHandling.notifyOnInvalidXMLCharacter (s,
+                                                          XMLCharHelper.getAllInvalidXMLChars (eXMLVersion,
+                                                                                               eXMLCharMode,
+                                                                                               s));
   }
 
   @Nonnull
@@ -574,35 +633,16 @@ public final class XMLMaskHelper
     if (StringHelper.hasNoText (s))
       return ArrayHelper.EMPTY_CHAR_ARRAY;
 
-    char [] aChars = s.toCharArray ();
-
-    // 1. do incorrect character handling
-    if (eIncorrectCharHandling.isTestRequired ())
+    final NonBlockingStringWriter aWriter = new NonBlockingStringWriter (s.length () + 16);
+    try
     {
-      if (XMLCharHelper.containsInvalidXMLChar (eXMLVersion, eXMLCharMode, aChars))
-      {
-        final ICommonsSet <Character> aAllInvalidChars = XMLCharHelper.getAllInvalidXMLChars (eXMLVersion,
-                                                                                              eXMLCharMode,
-                                                                                              aChars);
-        eIncorrectCharHandling.notifyOnInvalidXMLCharacter (s, aAllInvalidChars);
-        if (eIncorrectCharHandling.isReplaceWithNothing ())
-        {
-          final char [] aSrcMap = getAsCharArray (aAllInvalidChars);
-          final char [] [] aDstMap = _createEmptyReplacement (aSrcMap);
-          aChars = StringHelper.replaceMultiple (s, aSrcMap, aDstMap);
-        }
-      }
+      maskXMLTextTo (eXMLVersion, eXMLCharMode, eIncorrectCharHandling, s, aWriter);
     }
-
-    // 2. perform entity replacements if necessary
-    final char [] aSrcMap = _findSourceMap (eXMLVersion, eXMLCharMode);
-    if (aSrcMap == null)
+    catch (final IOException ex)
     {
-      // Nothing to replace
-      return aChars;
+      throw new IllegalStateException ("Failed to write to a StringWriter", ex);
     }
-    final char [] [] aDstMap = _findReplaceMap (eXMLVersion, eXMLCharMode);
-    return StringHelper.replaceMultiple (aChars, aSrcMap, aDstMap);
+    return aWriter.getAsCharArray ();
   }
 
   @Nonnegative
@@ -626,36 +666,62 @@ public final class XMLMaskHelper
     if (StringHelper.hasNoText (s))
       return 0;
 
-    char [] aChars = s.toCharArray ();
+    final MaskTable aTable = _getMaskTable (eXMLVersion, eXMLCharMode);
+    final char [] [] aReplace = aTable.m_aReplace;
+    final int nReplaceLen = aReplace.length;
+    final boolean bTest = eIncorrectCharHandling.isTestRequired ();
+    final boolean bRemove = eIncorrectCharHandling.isReplaceWithNothing ();
+    boolean bNotified = false;
 
-    // 1. do incorrect character handling
-    if (eIncorrectCharHandling.isTestRequired () &&
-        XMLCharHelper.containsInvalidXMLChar (eXMLVersion, eXMLCharMode, aChars))
+    final int nLen = s.length ();
+    int ret = nLen;
+    for (int i = 0; i < nLen; ++i)
     {
-      final ICommonsSet <Character> aAllInvalidChars = XMLCharHelper.getAllInvalidXMLChars (eXMLVersion,
-                                                                                            eXMLCharMode,
-                                                                                            aChars);
-      eIncorrectCharHandling.notifyOnInvalidXMLCharacter (s, aAllInvalidChars);
-      if (eIncorrectCharHandling.isReplaceWithNothing ())
+      final char c = s.charAt (i);
+      if (bTest && (i == 0 ? aTable.m_aInvalidFirst : aTable.m_aInvalid).get (c))
       {
-        final char [] aSrcMap = getAsCharArray (aAllInvalidChars);
-        final char [] [] aDstMap = _createEmptyReplacement (aSrcMap);
-        aChars = StringHelper.replaceMultiple (s, aSrcMap, aDstMap);
+        if (!bNotified)
+        {
+          _notifyInvalid (eXMLVersion, eXMLCharMode, eIncorrectCharHandling, s);
+          bNotified = true;
+        }
+        if (bRemove)
+        {
+          ret--;
+          continue;
+        }
+      }
+      if (c < nReplaceLen)
+      {
+        final char [] aReplacement = aReplace[c];
+        if (aReplacement != null)
+          ret += aReplacement.length - 1;
       }
     }
-
-    // 2. perform entity replacements if necessary
-    final char [] aSrcMap = _findSourceMap (eXMLVersion, eXMLCharMode);
-    if (aSrcMap == null)
-    {
-      // Nothing to replace
-      return aChars.length;
-    }
-    final char [] [] aDstMap = _findReplaceMap (eXMLVersion, eXMLCharMode);
-    final int nResLen = StringHelper.getReplaceMultipleResultLength (aChars, aSrcMap, aDstMap);
-    return nResLen == CGlobal.ILLEGAL_UINT ? aChars.length : nResLen;
+    return ret;
   }
 
+  /**
+   * Mask the passed string and write the result to the provided writer. This
+   * works in a single pass: runs of characters that don't need masking are
+   * written directly from the source string and all other characters are
+   * looked up in a precomputed table. If invalid characters are contained, the
+   * incorrect character handling is notified when the first invalid character
+   * is found.
+   *
+   * @param eXMLVersion
+   *        XML version to use. May not be <code>null</code>.
+   * @param eXMLCharMode
+   *        The character mode to use. May not be <code>null</code>.
+   * @param eIncorrectCharHandling
+   *        The handling of invalid characters. May not be <code>null</code>.
+   * @param s
+   *        The string to be masked. May be <code>null</code>.
+   * @param aWriter
+   *        The writer to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails
+   */
   public static void maskXMLTextTo (@Nonnull final EXMLSerializeVersion eXMLVersion,
                                     @Nonnull final EXMLCharMode eXMLCharMode,
                                     @Nonnull final EXMLIncorrectCharacterHandling eIncorrectCharHandling,
@@ -665,37 +731,51 @@ public final class XMLMaskHelper
     if (StringHelper.hasNoText (s))
       return;
 
-    char [] aChars = s.toCharArray ();
-
-    // 1. do incorrect character handling
-    if (eIncorrectCharHandling.isTestRequired ())
+    final MaskTable aTable = _getMaskTable (eXMLVersion, eXMLCharMode);
+    final char [] [] aReplace = aTable.m_aReplace;
+    final int nReplaceLen = aReplace.length;
+    final boolean bTest = eIncorrectCharHandling.isTestRequired ();
+    final boolean bRemove = eIncorrectCharHandling.isReplaceWithNothing ();
+    boolean bNotified = false;
+
+    final int nLen = s.length ();
+    // Start index of the current run of unmodified characters
+    int nRunStart = 0;
+    for (int i = 0; i < nLen; ++i)
     {
-      if (XMLCharHelper.containsInvalidXMLChar (eXMLVersion, eXMLCharMode, aChars))
+      final char c = s.charAt (i);
+      if (bTest && (i == 0 ? aTable.m_aInvalidFirst : aTable.m_aInvalid).get (c))
+      {
+        if (!bNotified)
+        {
+          _notifyInvalid (eXMLVersion, eXMLCharMode, eIncorrectCharHandling, s);
+          bNotified = true;
+        }
+        if (bRemove)
+        {
+          if (i > nRunStart)
+            aWriter.write (s, nRunStart, i - nRunStart);
+          nRunStart = i + 1;
+          continue;
+        }
+      }
+      if (c < nReplaceLen)
       {
-        final ICommonsSet <Character> aAllInvalidChars = XMLCharHelper.getAllInvalidXMLChars (eXMLVersion,
-                                                                                              eXMLCharMode,
-                                                                                              aChars);
-        eIncorrectCharHandling.notifyOnInvalidXMLCharacter (s, aAllInvalidChars);
-        if (eIncorrectCharHandling.isReplaceWithNothing ())
+        final char [] aReplacement = aReplace[c];
+        if (aReplacement != null)
         {
-          final char [] aSrcMap = getAsCharArray (aAllInvalidChars);
-          final char [] [] aDstMap = _createEmptyReplacement (aSrcMap);
-          aChars = StringHelper.replaceMultiple (s, aSrcMap, aDstMap);
+          if (i > nRunStart)
+            aWriter.write (s, nRunStart, i - nRunStart);
+          aWriter.write (aReplacement);
+          nRunStart = i + 1;
         }
       }
     }
 
-    // 2. perform entity replacements if necessary
-    final char [] aSrcMap = _findSourceMap (eXMLVersion, eXMLCharMode);
-    if (aSrcMap == null)
-    {
-      // Nothing to replace
-      aWriter.write (aChars);
-    }
+    if (nRunStart == 0)
+      aWriter.write (s);
     else
-    {
-      final char [] [] aDstMap = _findReplaceMap (eXMLVersion, eXMLCharMode);
-      StringHelper.replaceMultipleTo (aChars, aSrcMap, aDstMap, aWriter);
-    }
+      if (nRunStart < nLen)
+        aWriter.write (s, nRunStart, nLen - nRunStart);
   }
 }
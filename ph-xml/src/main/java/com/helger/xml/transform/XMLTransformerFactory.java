@@ -16,9 +16,11 @@
  */
 package com.helger.xml.transform;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
 import javax.xml.transform.ErrorListener;
 import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
@@ -42,11 +44,19 @@ import com.helger.commons.io.resource.IReadableResource;
  *
  * @author Philip Helger
  */
-@Immutable
+@ThreadSafe
 public final class XMLTransformerFactory
 {
+  /**
+   * By default stylesheet resources are compiled on every call.
+   *
+   * @since 8.6.0
+   */
+  public static final boolean DEFAULT_USE_TEMPLATES_CACHE = false;
+
   private static final Logger s_aLogger = LoggerFactory.getLogger (XMLTransformerFactory.class);
   private static final TransformerFactory s_aDefaultFactory;
+  private static final AtomicBoolean s_aUseTemplatesCache = new AtomicBoolean (DEFAULT_USE_TEMPLATES_CACHE);
 
   static
   {
@@ -79,6 +89,39 @@ public final class XMLTransformerFactory
     }
   }
 
+  /**
+   * @return <code>true</code> if the compiled stylesheet resources are taken
+   *         from the {@link XSLTTemplatesCache}, <code>false</code> if they are
+   *         compiled on every call.
+   * @see #DEFAULT_USE_TEMPLATES_CACHE
+   * @since 8.6.0
+   */
+  public static boolean isUseTemplatesCache ()
+  {
+    return s_aUseTemplatesCache.get ();
+  }
+
+  /**
+   * Define whether the <code>newTransformer</code> and
+   * <code>newTemplates</code> methods taking an {@link IReadableResource}
+   * should take the compiled stylesheet from the global
+   * {@link XSLTTemplatesCache} instead of compiling it on every call.<br>
+   * Caveat: a cached stylesheet is not recompiled when the underlying file
+   * changes, unless
+   * {@link XSLTTemplatesCache#enableFileMonitoring(com.helger.commons.io.monitor.FileMonitorManager)}
+   * was called on {@link XSLTTemplatesCache#getInstance()}. Even then only the main
+   * stylesheet is monitored and not the stylesheets it imports or includes.
+   *
+   * @param bUseTemplatesCache
+   *        <code>true</code> to use the templates cache, <code>false</code> to
+   *        compile the stylesheet on every call.
+   * @since 8.6.0
+   */
+  public static void setUseTemplatesCache (final boolean bUseTemplatesCache)
+  {
+    s_aUseTemplatesCache.set (bUseTemplatesCache);
+  }
+
   /**
    * @return The default transformer factory.
    */
@@ -138,7 +181,9 @@ public final class XMLTransformerFactory
   }
 
   /**
-   * Create a new XSLT transformer for the passed resource.
+   * Create a new XSLT transformer for the passed resource. The stylesheet is
+   * compiled on every call, unless the templates cache is enabled - see
+   * {@link #setUseTemplatesCache(boolean)}.
    *
    * @param aTransformerFactory
    *        The transformer factory to be used. May not be <code>null</code>.
@@ -150,8 +195,12 @@ public final class XMLTransformerFactory
   public static Transformer newTransformer (@Nonnull final TransformerFactory aTransformerFactory,
                                             @Nonnull final IReadableResource aResource)
   {
+    ValueEnforcer.notNull (aTransformerFactory, "TransformerFactory");
     ValueEnforcer.notNull (aResource, "Resource");
 
+    if (isUseTemplatesCache ())
+      return XSLTTemplatesCache.getInstance ().newTransformer (aTransformerFactory, aResource);
+
     return newTransformer (aTransformerFactory, TransformSourceFactory.create (aResource));
   }
 
@@ -170,7 +219,9 @@ public final class XMLTransformerFactory
   }
 
   /**
-   * Create a new XSLT transformer for the passed resource.
+   * Create a new XSLT transformer for the passed resource. The stylesheet is
+   * compiled on every call - use {@link XSLTTemplatesCache} to compile it only
+   * once.
    *
    * @param aTransformerFactory
    *        The transformer factory to be used. May not be <code>null</code>.
@@ -225,7 +276,9 @@ public final class XMLTransformerFactory
   }
 
   /**
-   * Create a new XSLT Template for the passed resource.
+   * Create a new XSLT Template for the passed resource. The stylesheet is
+   * compiled on every call, unless the templates cache is enabled - see
+   * {@link #setUseTemplatesCache(boolean)}.
    *
    * @param aFactory
    *        The transformer factory to be used. May not be <code>null</code>.
@@ -237,8 +290,22 @@ public final class XMLTransformerFactory
   public static Templates newTemplates (@Nonnull final TransformerFactory aFactory,
                                         @Nonnull final IReadableResource aResource)
   {
+    ValueEnforcer.notNull (aFactory, "TransformerFactory");
     ValueEnforcer.notNull (aResource, "Resource");
 
+    if (isUseTemplatesCache ())
+    {
+      try
+      {
+        return XSLTTemplatesCache.getInstance ().getTemplates (aFactory, aResource);
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        s_aLogger.error ("Failed to parse " + aResource, ex);
+        return null;
+      }
+    }
+
     return newTemplates (aFactory, TransformSourceFactory.create (aResource));
   }
 
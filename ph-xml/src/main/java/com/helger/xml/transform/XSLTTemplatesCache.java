@@ -0,0 +1,442 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.transform;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.transform.ErrorListener;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Singleton;
+import com.helger.commons.cache.AbstractNotifyingCache;
+import com.helger.commons.cache.ECacheMode;
+import com.helger.commons.collection.ext.CommonsHashMap;
+import com.helger.commons.collection.ext.CommonsWeakHashMap;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.io.monitor.FileChangeEvent;
+import com.helger.commons.io.monitor.FileMonitor;
+import com.helger.commons.io.monitor.FileMonitorManager;
+import com.helger.commons.io.monitor.IFileMonitorCallback;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A cache for compiled XSLT {@link Templates}. A {@link Templates} object is
+ * thread-safe and creating a new {@link Transformer} from it is cheap compared
+ * to compiling the stylesheet over and over again.<br>
+ * Entries are identified by the stylesheet resource, the
+ * {@link TransformerFactory} used to compile it and the {@link URIResolver}
+ * of that factory at compile time. Optionally file based stylesheets are
+ * removed from the cache as soon as they are changed or deleted - see
+ * {@link #enableFileMonitoring(FileMonitorManager)}. Note: only the main
+ * stylesheet is monitored, not the stylesheets it imports or includes.<br>
+ * The cache holds at most {@link #DEFAULT_MAX_SIZE} entries by default and
+ * stylesheets are compiled outside of the cache lock, so that different
+ * stylesheets can be compiled in parallel. {@link XMLTransformerFactory} only
+ * uses this cache if {@link XMLTransformerFactory#setUseTemplatesCache(boolean)}
+ * was enabled.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+@Singleton ("can be instantiated directly as well")
+public class XSLTTemplatesCache extends AbstractNotifyingCache <XSLTTemplatesCache.TemplatesKey, Templates>
+{
+  /**
+   * The key of a single cache entry.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class TemplatesKey
+  {
+    private final TransformerFactory m_aFactory;
+    private final URIResolver m_aURIResolver;
+    private final IReadableResource m_aResource;
+
+    public TemplatesKey (@Nonnull final TransformerFactory aFactory, @Nonnull final IReadableResource aResource)
+    {
+      m_aFactory = ValueEnforcer.notNull (aFactory, "TransformerFactory");
+      m_aURIResolver = aFactory.getURIResolver ();
+      m_aResource = ValueEnforcer.notNull (aResource, "Resource");
+    }
+
+    @Nonnull
+    public TransformerFactory getTransformerFactory ()
+    {
+      return m_aFactory;
+    }
+
+    @Nullable
+    public URIResolver getURIResolver ()
+    {
+      return m_aURIResolver;
+    }
+
+    @Nonnull
+    public IReadableResource getResource ()
+    {
+      return m_aResource;
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final TemplatesKey rhs = (TemplatesKey) o;
+      // Factory and resolver are compared by identity
+      return m_aFactory == rhs.m_aFactory &&
+             m_aURIResolver == rhs.m_aURIResolver &&
+             m_aResource.equals (rhs.m_aResource);
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return new HashCodeGenerator (this).append (System.identityHashCode (m_aFactory))
+                                         .append (System.identityHashCode (m_aURIResolver))
+                                         .append (m_aResource)
+                                         .getHashCode ();
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Factory", m_aFactory)
+                                         .append ("URIResolver", m_aURIResolver)
+                                         .append ("Resource", m_aResource)
+                                         .toString ();
+    }
+  }
+
+  private static final class SingletonHolder
+  {
+    private static final XSLTTemplatesCache s_aInstance = new XSLTTemplatesCache ();
+  }
+
+  /** The default maximum number of cached templates */
+  public static final int DEFAULT_MAX_SIZE = 500;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (XSLTTemplatesCache.class);
+
+  private static boolean s_bDefaultInstantiated = false;
+
+  // All cached keys of file based resources, by absolute path. The keys are
+  // weakly referenced, so that evicted entries are not kept alive.
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, Set <TemplatesKey>> m_aFileKeys = new CommonsHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private FileMonitor m_aFileMonitor;
+
+  public XSLTTemplatesCache ()
+  {
+    this (DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxSize
+   *        The maximum number of cached templates. Values &le; 0 mean
+   *        unbounded.
+   */
+  public XSLTTemplatesCache (final int nMaxSize)
+  {
+    super (nMaxSize, XSLTTemplatesCache.class.getName (), ECacheMode.CONCURRENT);
+  }
+
+  public static boolean isInstantiated ()
+  {
+    return s_bDefaultInstantiated;
+  }
+
+  @Nonnull
+  public static XSLTTemplatesCache getInstance ()
+  {
+    final XSLTTemplatesCache ret = SingletonHolder.s_aInstance;
+    s_bDefaultInstantiated = true;
+    return ret;
+  }
+
+  @Nonnull
+  private static Set <TemplatesKey> _createWeakKeySet ()
+  {
+    return Collections.newSetFromMap (new CommonsWeakHashMap <> ());
+  }
+
+  /**
+   * Remove all cached templates of the passed file.
+   *
+   * @param aFile
+   *        The changed or deleted file.
+   */
+  private void _onFileModified (@Nonnull final File aFile)
+  {
+    final Set <TemplatesKey> aKeys = m_aRWLock.writeLocked ( () -> m_aFileKeys.remove (aFile.getAbsolutePath ()));
+    if (aKeys != null)
+    {
+      s_aLogger.info ("XSLT " + aFile.getAbsolutePath () + " was modified - removing it from the cache");
+      for (final TemplatesKey aKey : aKeys)
+        removeFromCache (aKey);
+    }
+  }
+
+  /**
+   * Enable the automatic removal of modified stylesheets from this cache. All
+   * file based stylesheets that are or will be contained in this cache are
+   * monitored for modification and deletion.
+   *
+   * @param aFileMonitorManager
+   *        The file monitor manager to use. May not be <code>null</code>. It
+   *        must be started by the caller.
+   * @return {@link EChange#UNCHANGED} if file monitoring was already enabled.
+   */
+  @Nonnull
+  public final EChange enableFileMonitoring (@Nonnull final FileMonitorManager aFileMonitorManager)
+  {
+    ValueEnforcer.notNull (aFileMonitorManager, "FileMonitorManager");
+
+    return m_aRWLock.writeLocked ( () -> {
+      if (m_aFileMonitor != null)
+        return EChange.UNCHANGED;
+
+      m_aFileMonitor = aFileMonitorManager.createFileMonitor (new IFileMonitorCallback ()
+      {
+        public void onFileChanged (@Nonnull final FileChangeEvent aEvent)
+        {
+          _onFileModified (aEvent.getFile ());
+        }
+
+        public void onFileDeleted (@Nonnull final FileChangeEvent aEvent)
+        {
+          _onFileModified (aEvent.getFile ());
+        }
+      });
+      // Add all files that are already cached
+      for (final String sPath : m_aFileKeys.keySet ())
+        m_aFileMonitor.addMonitoredFile (new File (sPath));
+      return EChange.CHANGED;
+    });
+  }
+
+  /**
+   * @return <code>true</code> if file monitoring is enabled.
+   * @see #enableFileMonitoring(FileMonitorManager)
+   */
+  public final boolean isFileMonitoringEnabled ()
+  {
+    return m_aRWLock.readLocked ( () -> m_aFileMonitor != null);
+  }
+
+  @Override
+  @Nonnull
+  protected Templates getValueToCache (@Nonnull final TemplatesKey aKey)
+  {
+    final Templates ret;
+    try
+    {
+      // Factories are not thread-safe
+      final TransformerFactory aFactory = aKey.getTransformerFactory ();
+      synchronized (aFactory)
+      {
+        ret = aFactory.newTemplates (TransformSourceFactory.create (aKey.getResource ()));
+      }
+    }
+    catch (final TransformerConfigurationException ex)
+    {
+      throw new IllegalArgumentException ("Failed to compile XSLT " + aKey.getResource (), ex);
+    }
+    if (ret == null)
+      throw new IllegalStateException ("Failed to compile XSLT " + aKey.getResource ());
+
+    final File aFile = aKey.getResource ().getAsFile ();
+    if (aFile != null)
+      m_aRWLock.writeLocked ( () -> {
+        // Remove the paths whose entries were all evicted
+        m_aFileKeys.values ().removeIf (Set::isEmpty);
+
+        final String sPath = aFile.getAbsolutePath ();
+        final Set <TemplatesKey> aKeys = m_aFileKeys.computeIfAbsent (sPath, k -> _createWeakKeySet ());
+        if (aKeys.add (aKey) && m_aFileMonitor != null)
+          m_aFileMonitor.addMonitoredFile (aFile);
+      });
+    return ret;
+  }
+
+  /**
+   * Get the cached {@link Templates} of the passed stylesheet, compiled with
+   * the default transformer factory.
+   *
+   * @param aResource
+   *        The XSLT resource. May not be <code>null</code>.
+   * @return Either the cached {@link Templates} or the newly compiled one.
+   *         Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if the stylesheet cannot be compiled
+   * @see XMLTransformerFactory#getDefaultTransformerFactory()
+   */
+  @Nonnull
+  public final Templates getTemplates (@Nonnull final IReadableResource aResource)
+  {
+    return getTemplates (XMLTransformerFactory.getDefaultTransformerFactory (), aResource);
+  }
+
+  /**
+   * Get the cached {@link Templates} of the passed stylesheet.
+   *
+   * @param aFactory
+   *        The transformer factory used to compile the stylesheet. May not be
+   *        <code>null</code>.
+   * @param aResource
+   *        The XSLT resource. May not be <code>null</code>.
+   * @return Either the cached {@link Templates} or the newly compiled one.
+   *         Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if the stylesheet cannot be compiled
+   */
+  @Nonnull
+  public final Templates getTemplates (@Nonnull final TransformerFactory aFactory,
+                                       @Nonnull final IReadableResource aResource)
+  {
+    return getFromCache (new TemplatesKey (aFactory, aResource));
+  }
+
+  /**
+   * Create a new {@link Transformer} from the cached {@link Templates} of the
+   * passed stylesheet, compiled with the default transformer factory.
+   *
+   * @param aResource
+   *        The XSLT resource. May not be <code>null</code>.
+   * @return <code>null</code> if the stylesheet cannot be compiled or the
+   *         transformer cannot be created.
+   */
+  @Nullable
+  public final Transformer newTransformer (@Nonnull final IReadableResource aResource)
+  {
+    return newTransformer (XMLTransformerFactory.getDefaultTransformerFactory (), aResource);
+  }
+
+  /**
+   * Create a new {@link Transformer} from the cached {@link Templates} of the
+   * passed stylesheet. The created transformer uses the error listener and
+   * the URI resolver of the passed factory.
+   *
+   * @param aFactory
+   *        The transformer factory used to compile the stylesheet. May not be
+   *        <code>null</code>.
+   * @param aResource
+   *        The XSLT resource. May not be <code>null</code>.
+   * @return <code>null</code> if the stylesheet cannot be compiled or the
+   *         transformer cannot be created.
+   */
+  @Nullable
+  public final Transformer newTransformer (@Nonnull final TransformerFactory aFactory,
+                                           @Nonnull final IReadableResource aResource)
+  {
+    final Templates aTemplates;
+    try
+    {
+      aTemplates = getTemplates (aFactory, aResource);
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      s_aLogger.error ("Failed to parse " + aResource, ex);
+      return null;
+    }
+
+    try
+    {
+      final Transformer ret = aTemplates.newTransformer ();
+      // Same as TransformerFactory.newTransformer(Source)
+      final ErrorListener aErrorListener = aFactory.getErrorListener ();
+      if (aErrorListener != null)
+        ret.setErrorListener (aErrorListener);
+      final URIResolver aURIResolver = aFactory.getURIResolver ();
+      if (aURIResolver != null)
+        ret.setURIResolver (aURIResolver);
+      return ret;
+    }
+    catch (final TransformerConfigurationException ex)
+    {
+      s_aLogger.error ("Failed to create transformer for " + aResource, ex);
+      return null;
+    }
+  }
+
+  /**
+   * Remove all cached templates of the passed resource, independent of the
+   * transformer factory used. This only works for file based resources.
+   *
+   * @param aResource
+   *        The resource to remove. May not be <code>null</code>.
+   * @return {@link EChange}.
+   */
+  @Nonnull
+  public EChange removeFromCache (@Nonnull final IReadableResource aResource)
+  {
+    ValueEnforcer.notNull (aResource, "Resource");
+
+    final File aFile = aResource.getAsFile ();
+    if (aFile == null)
+      return EChange.UNCHANGED;
+    final Set <TemplatesKey> aKeys = m_aRWLock.writeLocked ( () -> m_aFileKeys.remove (aFile.getAbsolutePath ()));
+    if (aKeys == null)
+      return EChange.UNCHANGED;
+    EChange ret = EChange.UNCHANGED;
+    for (final TemplatesKey aKey : aKeys)
+      ret = ret.or (removeFromCache (aKey));
+    return ret;
+  }
+
+  @Override
+  @Nonnull
+  public EChange clearCache ()
+  {
+    m_aRWLock.writeLocked ( () -> m_aFileKeys.clear ());
+    return super.clearCache ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("FileKeys", m_aFileKeys.keySet ())
+                            .append ("FileMonitoring", m_aFileMonitor != null)
+                            .toString ();
+  }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.xpath;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFunctionResolver;
+import javax.xml.xpath.XPathVariableResolver;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.cache.AbstractCache;
+import com.helger.commons.collection.impl.LRUMap;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCache;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A per-thread cache for compiled {@link XPathExpression} objects. Neither
+ * {@link javax.xml.xpath.XPath} nor {@link XPathExpression} are thread-safe, so
+ * each thread has its own bounded LRU cache. A compiled expression is
+ * identified by the expression text and the identities of the namespace
+ * context, the function resolver and the variable resolver used to compile it.
+ * Hits and misses are recorded in the {@link StatisticsManager}.
+ *
+ * @author Philip Helger
+ * @since 8.6.0
+ */
+@ThreadSafe
+public final class XPathExpressionCache
+{
+  /** The default maximum number of compiled expressions per thread */
+  public static final int DEFAULT_MAX_SIZE_PER_THREAD = 500;
+
+  /**
+   * The key of a single compiled expression.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  private static final class XPathKey
+  {
+    private final XPathVariableResolver m_aVariableResolver;
+    private final XPathFunctionResolver m_aFunctionResolver;
+    private final NamespaceContext m_aNamespaceContext;
+    private final String m_sXPath;
+    // Status vars
+    private final int m_nHashCode;
+
+    XPathKey (@Nullable final XPathVariableResolver aVariableResolver,
+              @Nullable final XPathFunctionResolver aFunctionResolver,
+              @Nullable final NamespaceContext aNamespaceContext,
+              @Nonnull final String sXPath)
+    {
+      m_aVariableResolver = aVariableResolver;
+      m_aFunctionResolver = aFunctionResolver;
+      m_aNamespaceContext = aNamespaceContext;
+      m_sXPath = sXPath;
+      m_nHashCode = new HashCodeGenerator (this).append (System.identityHashCode (aVariableResolver))
+                                                .append (System.identityHashCode (aFunctionResolver))
+                                                .append (System.identityHashCode (aNamespaceContext))
+                                                .append (sXPath)
+                                                .getHashCode ();
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final XPathKey rhs = (XPathKey) o;
+      // Resolvers and context are compared by identity, as they are usually
+      // mutable
+      return m_aVariableResolver == rhs.m_aVariableResolver &&
+             m_aFunctionResolver == rhs.m_aFunctionResolver &&
+             m_aNamespaceContext == rhs.m_aNamespaceContext &&
+             m_sXPath.equals (rhs.m_sXPath);
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return m_nHashCode;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("VariableResolver", m_aVariableResolver)
+                                         .append ("FunctionResolver", m_aFunctionResolver)
+                                         .append ("NamespaceContext", m_aNamespaceContext)
+                                         .append ("XPath", m_sXPath)
+                                         .toString ();
+    }
+  }
+
+  private static final IMutableStatisticsHandlerCache s_aStatsHdl = StatisticsManager.getCacheHandler (AbstractCache.STATISTICS_PREFIX +
+                                                                                                      XPathExpressionCache.class.getName () +
+                                                                                                      "$access");
+  private static final AtomicInteger s_aMaxSizePerThread = new AtomicInteger (DEFAULT_MAX_SIZE_PER_THREAD);
+  private static final ThreadLocal <LRUMap <XPathKey, XPathExpression>> s_aPerThreadCache = ThreadLocal.withInitial ( () -> new LRUMap <> (s_aMaxSizePerThread.get ()));
+
+  @PresentForCodeCoverage
+  private static final XPathExpressionCache s_aInstance = new XPathExpressionCache ();
+
+  private XPathExpressionCache ()
+  {}
+
+  /**
+   * @return The maximum number of compiled expressions that are cached per
+   *         thread. Always &gt; 0.
+   */
+  @Nonnegative
+  public static int getMaxSizePerThread ()
+  {
+    return s_aMaxSizePerThread.get ();
+  }
+
+  /**
+   * Set the maximum number of compiled expressions that are cached per thread.
+   * This only affects threads that did not yet use this cache or whose cache
+   * was cleared with {@link #clearCacheOfCurrentThread()}.
+   *
+   * @param nMaxSizePerThread
+   *        The maximum size to use. Must be &gt; 0.
+   */
+  public static void setMaxSizePerThread (@Nonnegative final int nMaxSizePerThread)
+  {
+    ValueEnforcer.isGT0 (nMaxSizePerThread, "MaxSizePerThread");
+    s_aMaxSizePerThread.set (nMaxSizePerThread);
+  }
+
+  /**
+   * @return The number of compiled expressions cached for the current thread.
+   *         Always &ge; 0.
+   */
+  @Nonnegative
+  public static int getCacheSizeOfCurrentThread ()
+  {
+    return s_aPerThreadCache.get ().size ();
+  }
+
+  /**
+   * Remove all compiled expressions of the current thread. This should be
+   * called when a thread of a thread pool is returned, if the used resolvers
+   * should not be kept alive.
+   */
+  public static void clearCacheOfCurrentThread ()
+  {
+    s_aPerThreadCache.remove ();
+  }
+
+  /**
+   * Get the compiled XPath expression without any resolvers or namespace
+   * context. The returned object is only valid within the current thread.
+   *
+   * @param sXPath
+   *        The XPath expression to compile. May neither be <code>null</code>
+   *        nor empty.
+   * @return The cached or newly compiled expression. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the expression cannot be compiled
+   */
+  @Nonnull
+  public static XPathExpression getXPathExpression (@Nonnull @Nonempty final String sXPath)
+  {
+    return getXPathExpression ((XPathVariableResolver) null,
+                               (XPathFunctionResolver) null,
+                               (NamespaceContext) null,
+                               sXPath);
+  }
+
+  /**
+   * Get the compiled XPath expression for the passed parameters. The returned
+   * object is only valid within the current thread. The resolvers and the
+   * namespace context are compared by identity, so the same objects should be
+   * reused to benefit from this cache.
+   *
+   * @param aVariableResolver
+   *        Optional variable resolver. May be <code>null</code>.
+   * @param aFunctionResolver
+   *        Optional function resolver. May be <code>null</code>.
+   * @param aNamespaceContext
+   *        Optional namespace context. May be <code>null</code>.
+   * @param sXPath
+   *        The XPath expression to compile. May neither be <code>null</code>
+   *        nor empty.
+   * @return The cached or newly compiled expression. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the expression cannot be compiled
+   */
+  @Nonnull
+  public static XPathExpression getXPathExpression (@Nullable final XPathVariableResolver aVariableResolver,
+                                                    @Nullable final XPathFunctionResolver aFunctionResolver,
+                                                    @Nullable final NamespaceContext aNamespaceContext,
+                                                    @Nonnull @Nonempty final String sXPath)
+  {
+    ValueEnforcer.notEmpty (sXPath, "XPathExpression");
+
+    final LRUMap <XPathKey, XPathExpression> aCache = s_aPerThreadCache.get ();
+    final XPathKey aKey = new XPathKey (aVariableResolver, aFunctionResolver, aNamespaceContext, sXPath);
+    XPathExpression ret = aCache.get (aKey);
+    if (ret == null)
+    {
+      s_aStatsHdl.cacheMiss ();
+      ret = XPathHelper.createNewXPathExpresion (aVariableResolver, aFunctionResolver, aNamespaceContext, sXPath);
+      aCache.put (aKey, ret);
+    }
+    else
+      s_aStatsHdl.cacheHit ();
+    return ret;
+  }
+}
@@ -58,10 +58,16 @@ public final class XPathExpressionHelper
                                   @Nonnull final Document aDoc,
                                   @Nonnull final QName aReturnType)
   {
-    return evalXPath (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                      sXPath,
-                      aDoc,
-                      aReturnType);
+    ValueEnforcer.notEmpty (sXPath, "XPathExpression");
+    ValueEnforcer.notNull (aDoc, "Doc");
+    ValueEnforcer.notNull (aReturnType, "ReturnType");
+
+    // Compiled expressions are cached per thread
+    final XPathExpression aXPathExpression = XPathExpressionCache.getXPathExpression (aVariableResolver,
+                                                                                      aFunctionResolver,
+                                                                                      aNamespaceContext,
+                                                                                      sXPath);
+    return _evaluate (aXPathExpression, sXPath, aDoc, aReturnType);
   }
 
   @Nullable
@@ -75,9 +81,18 @@ public final class XPathExpressionHelper
     ValueEnforcer.notNull (aDoc, "Doc");
     ValueEnforcer.notNull (aReturnType, "ReturnType");
 
+    final XPathExpression aXPathExpression = XPathHelper.createNewXPathExpresion (aXPath, sXPath);
+    return _evaluate (aXPathExpression, sXPath, aDoc, aReturnType);
+  }
+
+  @Nullable
+  private static Object _evaluate (@Nonnull final XPathExpression aXPathExpression,
+                                   @Nonnull final String sXPath,
+                                   @Nonnull final Document aDoc,
+                                   @Nonnull final QName aReturnType)
+  {
     try
     {
-      final XPathExpression aXPathExpression = XPathHelper.createNewXPathExpresion (aXPath, sXPath);
       return aXPathExpression.evaluate (aDoc, aReturnType);
     }
     catch (final XPathExpressionException ex)
@@ -97,15 +112,23 @@ public final class XPathExpressionHelper
                                           @Nonnull final String sXPath,
                                           @Nonnull final Document aDoc)
   {
-    return evalXPathToNumber (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                              sXPath,
-                              aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.NUMBER);
+    return (Double) aResult;
   }
 
   @Nullable
   public static Double evalXPathToNumber (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToNumber (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToNumber ((XPathVariableResolver) null,
+                              (XPathFunctionResolver) null,
+                              (NamespaceContext) null,
+                              sXPath,
+                              aDoc);
   }
 
   @Nullable
@@ -124,15 +147,23 @@ public final class XPathExpressionHelper
                                           @Nonnull final String sXPath,
                                           @Nonnull final Document aDoc)
   {
-    return evalXPathToString (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                              sXPath,
-                              aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.STRING);
+    return (String) aResult;
   }
 
   @Nullable
   public static String evalXPathToString (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToString (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToString ((XPathVariableResolver) null,
+                              (XPathFunctionResolver) null,
+                              (NamespaceContext) null,
+                              sXPath,
+                              aDoc);
   }
 
   @Nullable
@@ -151,15 +182,23 @@ public final class XPathExpressionHelper
                                             @Nonnull final String sXPath,
                                             @Nonnull final Document aDoc)
   {
-    return evalXPathToBoolean (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                               sXPath,
-                               aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.BOOLEAN);
+    return (Boolean) aResult;
   }
 
   @Nullable
   public static Boolean evalXPathToBoolean (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToBoolean (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToBoolean ((XPathVariableResolver) null,
+                               (XPathFunctionResolver) null,
+                               (NamespaceContext) null,
+                               sXPath,
+                               aDoc);
   }
 
   @Nullable
@@ -178,15 +217,23 @@ public final class XPathExpressionHelper
                                               @Nonnull final String sXPath,
                                               @Nonnull final Document aDoc)
   {
-    return evalXPathToNodeList (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                                sXPath,
-                                aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.NODESET);
+    return (NodeList) aResult;
   }
 
   @Nullable
   public static NodeList evalXPathToNodeList (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToNodeList (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToNodeList ((XPathVariableResolver) null,
+                                (XPathFunctionResolver) null,
+                                (NamespaceContext) null,
+                                sXPath,
+                                aDoc);
   }
 
   @Nullable
@@ -205,15 +252,23 @@ public final class XPathExpressionHelper
                                       @Nonnull final String sXPath,
                                       @Nonnull final Document aDoc)
   {
-    return evalXPathToNode (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                            sXPath,
-                            aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.NODE);
+    return (Node) aResult;
   }
 
   @Nullable
   public static Node evalXPathToNode (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToNode (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToNode ((XPathVariableResolver) null,
+                            (XPathFunctionResolver) null,
+                            (NamespaceContext) null,
+                            sXPath,
+                            aDoc);
   }
 
   @Nullable
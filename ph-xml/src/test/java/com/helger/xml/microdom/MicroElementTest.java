@@ -536,6 +536,60 @@ public final class MicroElementTest extends AbstractCommonsTestCase
     assertEquals ("1234567890", e.getAttributeValue ("myattr"));
   }
 
+  @Test
+  public void testManyAttrs ()
+  {
+    final MicroElement e = new MicroElement ("any");
+    final int nCount = MicroElement.MAX_ATTRIBUTES_IN_ARRAY * 2;
+    for (int i = 0; i < nCount; ++i)
+    {
+      e.setAttribute ("a" + i, i);
+      assertEquals (i + 1, e.getAttributeCount ());
+      assertEquals (i < MicroElement.MAX_ATTRIBUTES_IN_ARRAY, e.isAttributeArrayStorage ());
+      // Replacing keeps the position
+      e.setAttribute ("a0", "first" + i);
+      assertEquals (i + 1, e.getAttributeCount ());
+      assertEquals ("a0", e.getAllAttributeObjs ().getFirst ().getAttributeName ());
+    }
+    for (int i = 1; i < nCount; ++i)
+      assertEquals (Integer.toString (i), e.getAttributeValue ("a" + i));
+    assertEquals ("a" + (nCount - 1), e.getAllAttributeQNames ().getLast ().getName ());
+
+    final MicroElement e2 = new MicroElement ("any");
+    e.forAllAttributes ( (aQName, sValue) -> e2.setAttribute (aQName, sValue));
+    assertTrue (e.isEqualContent (e2));
+    assertTrue (e.isEqualContent (e.getClone ()));
+
+    // Remove in the middle
+    assertTrue (e.removeAttribute ("a3").isChanged ());
+    assertTrue (e.removeAttribute ("a3").isUnchanged ());
+    assertEquals (nCount - 1, e.getAttributeCount ());
+    assertFalse (e.isEqualContent (e2));
+
+    // Small array
+    final MicroElement e3 = new MicroElement ("any");
+    e3.setAttribute ("x", "1");
+    e3.setAttribute ("y", "2");
+    e3.setAttribute ("z", "3");
+    assertTrue (e3.isAttributeArrayStorage ());
+    assertTrue (e3.removeAttribute ("y").isChanged ());
+    assertEquals ("[x, z]", e3.getAllAttributeQNames ().getAllMapped (IMicroQName::getName).toString ());
+    assertTrue (e3.removeAttribute ("x").isChanged ());
+    assertTrue (e3.removeAttribute ("z").isChanged ());
+    assertFalse (e3.hasAttributes ());
+    assertFalse (e3.isAttributeArrayStorage ());
+    assertNull (e3.getAllAttributeObjs ());
+
+    // Order does not matter for equality
+    final MicroElement e4 = new MicroElement ("any");
+    e4.setAttribute ("y", "2");
+    e4.setAttribute ("x", "1");
+    final MicroElement e5 = new MicroElement ("any");
+    e5.setAttribute ("x", "1");
+    e5.setAttribute ("y", "2");
+    assertTrue (e4.isEqualContent (e5));
+  }
+
   @Test
   public void testChildren ()
   {
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link MicroSymbolTable}.
+ *
+ * @author Philip Helger
+ */
+public final class MicroSymbolTableTest
+{
+  @Test
+  public void testNames ()
+  {
+    final MicroSymbolTable aST = new MicroSymbolTable (1);
+    assertNull (aST.getName (null));
+    assertNull (aST.getNamespaceURI (null));
+    assertNull (aST.getNamespaceURI (""));
+    assertEquals (0, aST.getNameCount ());
+
+    final String sName = new String ("name");
+    final String sName2 = new String ("name");
+    assertNotSame (sName, sName2);
+    assertSame (sName, aST.getName (sName));
+    assertSame (sName, aST.getName (sName2));
+    assertSame (sName, aST.getNamespaceURI (sName2));
+    assertEquals (1, aST.getNameCount ());
+
+    // Force rehashing
+    for (int i = 0; i < 1000; ++i)
+      aST.getName ("n" + i);
+    assertEquals (1001, aST.getNameCount ());
+    for (int i = 0; i < 1000; ++i)
+      assertEquals ("n" + i, aST.getName ("n" + i));
+    assertEquals (1001, aST.getNameCount ());
+    assertSame (sName, aST.getName (sName2));
+  }
+
+  @Test
+  public void testQNames ()
+  {
+    final MicroSymbolTable aST = new MicroSymbolTable (1);
+    final MicroQName aQN = aST.getQName (null, "id");
+    assertEquals (new MicroQName ("id"), aQN);
+    assertSame (aQN, aST.getQName (null, new String ("id")));
+    assertSame (aQN, aST.getQName ("", "id"));
+
+    final MicroQName aQN2 = aST.getQName ("urn:a", "id");
+    assertEquals (new MicroQName ("urn:a", "id"), aQN2);
+    assertNotSame (aQN, aQN2);
+    assertSame (aQN2, aST.getQName (new String ("urn:a"), new String ("id")));
+    // Components are canonicalized as well
+    assertSame (aQN.getName (), aQN2.getName ());
+    assertSame (aST.getNamespaceURI ("urn:a"), aQN2.getNamespaceURI ());
+    assertEquals (2, aST.getQNameCount ());
+
+    // Force rehashing
+    for (int i = 0; i < 1000; ++i)
+      aST.getQName (i % 2 == 0 ? null : "urn:b", "a" + i);
+    assertEquals (1002, aST.getQNameCount ());
+    for (int i = 0; i < 1000; ++i)
+      assertEquals (new MicroQName (i % 2 == 0 ? null : "urn:b", "a" + i),
+                    aST.getQName (i % 2 == 0 ? null : "urn:b", "a" + i));
+    assertEquals (1002, aST.getQNameCount ());
+    assertSame (aQN, aST.getQName (null, "id"));
+    assertSame (aQN2, aST.getQName ("urn:a", "id"));
+  }
+}
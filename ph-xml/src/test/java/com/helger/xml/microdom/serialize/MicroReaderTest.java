@@ -19,6 +19,7 @@ package com.helger.xml.microdom.serialize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
@@ -30,6 +31,7 @@ import org.xml.sax.InputSource;
 
 import com.helger.commons.charset.CCharset;
 import com.helger.commons.charset.CharsetManager;
+import com.helger.commons.collection.ext.ICommonsList;
 import com.helger.commons.io.IHasInputStream;
 import com.helger.commons.io.resource.ClassPathResource;
 import com.helger.commons.io.resource.IReadableResource;
@@ -41,6 +43,8 @@ import com.helger.commons.system.ENewLineMode;
 import com.helger.xml.CXML;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroText;
+import com.helger.xml.microdom.MicroQName;
 import com.helger.xml.namespace.MapBasedNamespaceContext;
 import com.helger.xml.sax.EmptyEntityResolver;
 import com.helger.xml.sax.InputSourceFactory;
@@ -416,4 +420,103 @@ public final class MicroReaderTest
     // Ensure they are written as well
     assertEquals (s, MicroWriter.getNodeAsString (aDoc, new XMLWriterSettings ().setIndent (EXMLSerializeIndent.NONE)));
   }
+
+  @Test
+  public void testCompact ()
+  {
+    final String s = "<?xml version=\"1.0\"?>" +
+                     "<root xmlns:a='urn:a'>" +
+                     "<item id='1' a:type='x'>Text <![CDATA[cd]]><![CDATA[ata]]> more<!-- c --><?pi data?></item>" +
+                     "<item id='2' a:type='y'><a:sub>Sub</a:sub></item>" +
+                     "</root>";
+    final IMicroDocument aDoc = MicroReader.readMicroXML (s);
+    final IMicroDocument aCompactDoc = MicroReader.readMicroXML (s, new SAXReaderSettings ().setCompactMicroDOM (true));
+    assertNotNull (aCompactDoc);
+    assertTrue (aDoc.isEqualContent (aCompactDoc));
+    assertEquals (MicroWriter.getNodeAsString (aDoc, XMLWriterSettings.DEFAULT_XML_SETTINGS),
+                  MicroWriter.getNodeAsString (aCompactDoc, XMLWriterSettings.DEFAULT_XML_SETTINGS));
+
+    final ICommonsList <IMicroElement> aItems = aCompactDoc.getDocumentElement ().getAllChildElements ("item");
+    assertEquals (2, aItems.size ());
+    // Attribute names are shared
+    assertSame (aItems.get (0).getAttributeObj (new MicroQName ("id")).getAttributeQName (),
+                aItems.get (1).getAttributeObj (new MicroQName ("id")).getAttributeQName ());
+    assertSame (aItems.get (0).getAttributeObj (new MicroQName ("urn:a", "type")).getAttributeQName (),
+                aItems.get (1).getAttributeObj (new MicroQName ("urn:a", "type")).getAttributeQName ());
+    assertSame (aItems.get (0).getTagName (), aItems.get (1).getTagName ());
+    // Text is stored as exact-sized String
+    final IMicroText aText = (IMicroText) aItems.get (0).getFirstChild ();
+    assertEquals ("Text ", aText.getNodeValue ());
+    assertTrue (aText.getData () instanceof String);
+    // Adjacent CDATA sections are merged like in the regular mode
+    assertEquals ("cdata", aItems.get (0).getChildAtIndex (1).getNodeValue ());
+    // Still modifiable
+    aText.appendData ("appended");
+    assertEquals ("Text appended", aText.getNodeValue ());
+  }
+
+  @Test
+  public void testSymbolTable ()
+  {
+    final String s = "<?xml version=\"1.0\"?>" +
+                     "<root xmlns='urn:d' xmlns:a='urn:a'>" +
+                     "<item id='1' a:type='x'>Text</item>" +
+                     "<item id='2' a:type='y'><a:sub a:type='z'>Sub</a:sub></item>" +
+                     "</root>";
+    final IMicroDocument aDoc = MicroReader.readMicroXML (s);
+    final IMicroDocument aSymbolDoc = MicroReader.readMicroXML (s, new SAXReaderSettings ().setUseMicroSymbolTable (true));
+    assertNotNull (aSymbolDoc);
+    assertTrue (aDoc.isEqualContent (aSymbolDoc));
+
+    final ICommonsList <IMicroElement> aItems = aSymbolDoc.getDocumentElement ().getAllChildElements ("item");
+    assertEquals (2, aItems.size ());
+    final IMicroElement eSub = aItems.get (1).getFirstChildElement ();
+    assertSame (aItems.get (0).getTagName (), aItems.get (1).getTagName ());
+    assertSame (aItems.get (0).getNamespaceURI (), aSymbolDoc.getDocumentElement ().getNamespaceURI ());
+    assertSame (aItems.get (0).getAttributeObj (new MicroQName ("id")).getAttributeQName (),
+                aItems.get (1).getAttributeObj (new MicroQName ("id")).getAttributeQName ());
+    assertSame (aItems.get (0).getAttributeObj (new MicroQName ("urn:a", "type")).getAttributeQName (),
+                eSub.getAttributeObj (new MicroQName ("urn:a", "type")).getAttributeQName ());
+    // Namespace URIs of elements and attributes are shared as well
+    assertSame (eSub.getNamespaceURI (),
+                eSub.getAttributeObj (new MicroQName ("urn:a", "type")).getAttributeQName ().getNamespaceURI ());
+  }
+
+  @Test
+  public void testCompactRecords ()
+  {
+    final int nRecords = 100;
+    final StringBuilder aSB = new StringBuilder ("<root>");
+    for (int i = 0; i < nRecords; ++i)
+      aSB.append ("<record id='")
+         .append (i)
+         .append ("' type='t' status='active'><name>Name ")
+         .append (i)
+         .append ("</name><amount>")
+         .append (i * 17)
+         .append ("</amount></record>");
+    aSB.append ("</root>");
+    final IMicroDocument aDoc = MicroReader.readMicroXML (aSB.toString (),
+                                                          new SAXReaderSettings ().setCompactMicroDOM (true));
+    assertNotNull (aDoc);
+
+    final ICommonsList <IMicroElement> aRecords = aDoc.getDocumentElement ().getAllChildElements ();
+    assertEquals (nRecords, aRecords.size ());
+    final IMicroElement eFirst = aRecords.getFirst ();
+    for (final IMicroElement eRecord : aRecords)
+    {
+      // Names are shared across the whole document
+      assertSame (eFirst.getTagName (), eRecord.getTagName ());
+      assertSame (eFirst.getAttributeObj (new MicroQName ("status")).getAttributeQName (),
+                  eRecord.getAttributeObj (new MicroQName ("status")).getAttributeQName ());
+      assertEquals (3, eRecord.getAttributeCount ());
+
+      // Text is stored as exact-sized String
+      for (final IMicroElement eChild : eRecord.getAllChildElements ())
+      {
+        assertEquals (1, eChild.getChildCount ());
+        assertTrue (((IMicroText) eChild.getFirstChild ()).getData () instanceof String);
+      }
+    }
+  }
 }
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsHashSet;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsSet;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroQName;
+import com.helger.xml.serialize.read.SAXReaderSettings;
+import com.helger.xml.serialize.write.EXMLSerializeIndent;
+import com.helger.xml.serialize.write.XMLWriterSettings;
+
+/**
+ * Test class for class {@link MicroRecordReader}.
+ *
+ * @author Philip Helger
+ */
+public final class MicroRecordReaderTest
+{
+  private static final String XML = "<?xml version='1.0'?>" +
+                                     "<items xmlns:x='urn:x'>" +
+                                     "<!-- header -->" +
+                                     "<header><item id='h'/></header>" +
+                                     "<item id='1'>Text <![CDATA[cdata]]><!-- c --><sub>Sub</sub></item>" +
+                                     "<x:item id='x1'/>" +
+                                     "<item id='2'><item id='nested'/></item>" +
+                                     "<footer/>" +
+                                     "</items>";
+
+  @Test
+  public void testBasic ()
+  {
+    final ICommonsList <IMicroElement> aRecords = new CommonsArrayList<> ();
+    assertTrue (new MicroRecordReader ("item").readRecords (XML, aRecords::add).isSuccess ());
+    // Nested records are part of the outer record
+    assertEquals (3, aRecords.size ());
+    assertEquals ("h", aRecords.get (0).getAttributeValue ("id"));
+    assertEquals ("1", aRecords.get (1).getAttributeValue ("id"));
+    assertEquals ("2", aRecords.get (2).getAttributeValue ("id"));
+    for (final IMicroElement aRecord : aRecords)
+      assertNull (aRecord.getParent ());
+
+    final XMLWriterSettings aXWS = new XMLWriterSettings ().setIndent (EXMLSerializeIndent.NONE);
+    assertEquals ("<item id=\"1\">Text <![CDATA[cdata]]><!-- c --><sub>Sub</sub></item>",
+                  MicroWriter.getNodeAsString (aRecords.get (1), aXWS));
+    assertEquals ("nested", aRecords.get (2).getFirstChildElement ("item").getAttributeValue ("id"));
+  }
+
+  @Test
+  public void testDepthAndNamespace ()
+  {
+    final ICommonsList <String> aIDs = new CommonsArrayList<> ();
+    assertTrue (new MicroRecordReader ("item").setRecordDepth (1)
+                                              .readRecords (XML, e -> aIDs.add (e.getAttributeValue ("id")))
+                                              .isSuccess ());
+    assertEquals (new CommonsArrayList<> ("1", "2"), aIDs);
+
+    aIDs.clear ();
+    assertTrue (new MicroRecordReader ("item").setRecordDepth (2)
+                                              .readRecords (XML, e -> aIDs.add (e.getAttributeValue ("id")))
+                                              .isSuccess ());
+    assertEquals (new CommonsArrayList<> ("h", "nested"), aIDs);
+
+    aIDs.clear ();
+    assertTrue (new MicroRecordReader (new MicroQName ("urn:x", "item")).readRecords (XML,
+                                                                                     e -> aIDs.add (e.getAttributeValue ("id")))
+                                                                        .isSuccess ());
+    assertEquals (new CommonsArrayList<> ("x1"), aIDs);
+
+    // Compact mode
+    aIDs.clear ();
+    assertTrue (new MicroRecordReader ("item").setRecordDepth (1)
+                                              .setSAXReaderSettings (new SAXReaderSettings ().setCompactMicroDOM (true))
+                                              .readRecords (XML, e -> aIDs.add (e.getAttributeValue ("id")))
+                                              .isSuccess ());
+    assertEquals (new CommonsArrayList<> ("1", "2"), aIDs);
+  }
+
+  @Test
+  public void testErrors ()
+  {
+    // Invalid XML
+    final AtomicInteger aCount = new AtomicInteger ();
+    assertTrue (new MicroRecordReader ("item").readRecords ("<items><item/><item></items>",
+                                                            e -> aCount.incrementAndGet ())
+                                              .isFailure ());
+    assertEquals (1, aCount.get ());
+
+    // Exception in consumer stops reading
+    aCount.set (0);
+    assertTrue (new MicroRecordReader ("item").readRecords (XML, e -> {
+      if (aCount.incrementAndGet () == 2)
+        throw new IllegalStateException ("Expected");
+    }).isFailure ());
+    assertEquals (2, aCount.get ());
+  }
+
+  @Test
+  public void testParallel ()
+  {
+    final int nRecords = 10_000;
+    final StringBuilder aSB = new StringBuilder ("<items>");
+    for (int i = 0; i < nRecords; ++i)
+      aSB.append ("<item id='").append (i).append ("'><name>Name ").append (i).append ("</name></item>");
+    aSB.append ("</items>");
+    final String sXML = aSB.toString ();
+
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsSet <String> aIDs = new CommonsHashSet<> ();
+      assertTrue (new MicroRecordReader ("item").setExecutor (aES).setMaxPendingRecords (8).readRecords (sXML, e -> {
+        synchronized (aIDs)
+        {
+          aIDs.add (e.getAttributeValue ("id"));
+        }
+      }).isSuccess ());
+      assertEquals (nRecords, aIDs.size ());
+      for (int i = 0; i < nRecords; ++i)
+        assertTrue (aIDs.contains (Integer.toString (i)));
+
+      // Exception in consumer
+      final AtomicInteger aCount = new AtomicInteger ();
+      assertTrue (new MicroRecordReader ("item").setExecutor (aES).readRecords (sXML, e -> {
+        if (aCount.incrementAndGet () == 100)
+          throw new IllegalStateException ("Expected");
+      }).isFailure ());
+      assertFalse (aCount.get () == nRecords);
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+}
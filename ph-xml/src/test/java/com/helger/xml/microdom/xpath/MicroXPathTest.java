@@ -0,0 +1,344 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.annotation.Nonnull;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.xml.microdom.IMicroAttribute;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroNode;
+import com.helger.xml.microdom.MicroContainer;
+import com.helger.xml.microdom.MicroElement;
+import com.helger.xml.microdom.serialize.MicroReader;
+import com.helger.xml.namespace.MapBasedNamespaceContext;
+import com.helger.xml.serialize.read.DOMReader;
+import com.helger.xml.xpath.XPathHelper;
+
+/**
+ * Test class for class {@link MicroXPath}.
+ *
+ * @author Philip Helger
+ */
+public final class MicroXPathTest
+{
+  private static final String NS_A = "urn:test:a";
+  private static final String NS_B = "urn:test:b";
+
+  private static final String XML = "<root xmlns:a='" +
+                                    NS_A +
+                                    "' xmlns:b='" +
+                                    NS_B +
+                                    "' version='1'>" +
+                                    "<item id='1' type='x'><name>First</name><price>10.5</price></item>" +
+                                    "<item id='2' type='y'><name>Second</name><price>3</price><!--c--></item>" +
+                                    "<group id='g'>" +
+                                    "<item id='3' type='x'><name>Third</name><price>7</price>" +
+                                    "<item id='4'><name>Nested</name></item></item>" +
+                                    "<a:item a:id='5' id='6'>NS <![CDATA[cdata]]> text</a:item>" +
+                                    "<b:item>B</b:item>" +
+                                    "</group>" +
+                                    "<?pi data?>" +
+                                    "<empty/>" +
+                                    "<item id='7' type='y'> <name>  Seventh   item </name><price>-1</price></item>" +
+                                    "</root>";
+
+  @Nonnull
+  private static NamespaceContext _createNSCtx ()
+  {
+    final MapBasedNamespaceContext ret = new MapBasedNamespaceContext ();
+    ret.addMapping ("a", NS_A);
+    ret.addMapping ("b", NS_B);
+    return ret;
+  }
+
+  @Nonnull
+  private static ICommonsList <String> _evalDOM (@Nonnull final Document aDoc,
+                                                @Nonnull final NamespaceContext aNSCtx,
+                                                @Nonnull final String sXPath) throws Exception
+  {
+    final XPath aXPath = XPathHelper.createNewXPath (aNSCtx);
+    final NodeList aNL = (NodeList) aXPath.evaluate (sXPath, aDoc, XPathConstants.NODESET);
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < aNL.getLength (); ++i)
+    {
+      final Node aNode = aNL.item (i);
+      ret.add (aNode instanceof Attr ? ((Attr) aNode).getValue () : aNode.getTextContent ());
+    }
+    return ret;
+  }
+
+  @Test
+  public void testCompareWithJAXP () throws Exception
+  {
+    final NamespaceContext aNSCtx = _createNSCtx ();
+    final IMicroDocument aMicroDoc = MicroReader.readMicroXML (XML);
+    assertNotNull (aMicroDoc);
+    final Document aDOMDoc = DOMReader.readXMLDOM (XML);
+    assertNotNull (aDOMDoc);
+
+    for (final String sXPath : new String [] { "/root",
+                                               "/root/item",
+                                               "/root/item/name",
+                                               "//item",
+                                               "//item/name",
+                                               "//item//name",
+                                               "/root//name",
+                                               "//item[1]",
+                                               "//item[last()]",
+                                               "/root/item[2]/name",
+                                               "/root/item[position() > 1]",
+                                               "/root/item[position() = last() - 1]/@id",
+                                               "//item[@type='x']",
+                                               "//item[@type!='x']/@id",
+                                               "//item[not(@type)]",
+                                               "//item[@type='x'][2]",
+                                               "//item[@type='x' and price > 8]",
+                                               "//item[@type='y' or @id=4]/@id",
+                                               "//item[price < 5]/name",
+                                               "//item[price >= 7]",
+                                               "//item[price * 2 = 21]",
+                                               "//item[price mod 2 = 1]",
+                                               "//item[price div 2 = 1.5]",
+                                               "//item[-price = 1]",
+                                               "//item[name = 'Third']/@id",
+                                               "//item[name != 'Third']/@id",
+                                               "//item[contains(name, 'ir')]",
+                                               "//item[starts-with(name, 'S')]",
+                                               "//item[string-length(name) = 5]",
+                                               "//item[normalize-space(name) = 'Seventh item']",
+                                               "//item[count(*) = 3]/@id",
+                                               "//item[count(name) = 1][position() = 2]",
+                                               "//item[concat(@id, '-', @type) = '3-x']",
+                                               "//item[number(@id) + 1 = 3]",
+                                               "//item[boolean(price)]/@id",
+                                               "//item[true()]/@id",
+                                               "//item[false()]",
+                                               "//item[@id = //group/@id]",
+                                               "//item[@id = //item/@id]/@id",
+                                               "//item[@id > 2 and @id < 7]/@id",
+                                               "//item[. = 'Second3']",
+                                               "//*[local-name() = 'item']/@id",
+                                               "//*[namespace-uri() = 'urn:test:a']",
+                                               "//a:item",
+                                               "//a:item/@a:id",
+                                               "//b:*",
+                                               "//a:*/@*",
+                                               "//item/@*",
+                                               "/root/@version",
+                                               "//group/*",
+                                               "//group/node()",
+                                               "//group/item//text()",
+                                               "//processing-instruction()",
+                                               "/root/node()",
+                                               "//name/..",
+                                               "//name/../@id",
+                                               "//item/..",
+                                               "//price/../name",
+                                               "/root/item/.",
+                                               "//item/self::item/@id",
+                                               "/child::root/child::item/attribute::id",
+                                               "/descendant::name",
+                                               "/descendant-or-self::item/@id",
+                                               "//group/descendant::item/@id",
+                                               "//group/descendant-or-self::*",
+                                               "//item[name][price]",
+                                               "//item[*[2] = 3]/@id",
+                                               "//*[@id][2]/@id",
+                                               "(//item)",
+                                               "//item[1][@type='x']/@id",
+                                               "//item/name[1]",
+                                               "//*[item]/@id",
+                                               "/root/empty",
+                                               "/root/nonexisting",
+                                               "/root/item[10]",
+                                               "//item[@id = 4 or @id = '3']/name" })
+    {
+      final ICommonsList <String> aExpected = _evalDOM (aDOMDoc, aNSCtx, sXPath);
+      final MicroXPath aMicroXPath = new MicroXPath (sXPath, aNSCtx);
+      assertEquals (sXPath, aExpected, aMicroXPath.selectValues (aMicroDoc));
+      assertEquals (sXPath, Boolean.valueOf (aExpected.isNotEmpty ()), Boolean.valueOf (aMicroXPath.hasMatch (aMicroDoc)));
+      assertEquals (sXPath, aExpected.getFirst (), aMicroXPath.selectValue (aMicroDoc));
+    }
+  }
+
+  @Test
+  public void testRelative ()
+  {
+    final IMicroDocument aDoc = MicroReader.readMicroXML (XML);
+    final IMicroElement eGroup = (IMicroElement) MicroXPath.compile ("/root/group").selectFirstNode (aDoc);
+    assertNotNull (eGroup);
+    assertEquals ("g", eGroup.getAttributeValue ("id"));
+
+    assertEquals (new CommonsArrayList <> ("3"), MicroXPath.compile ("item/@id").selectValues (eGroup));
+    assertEquals (new CommonsArrayList <> ("3", "4"), MicroXPath.compile (".//item/@id").selectValues (eGroup));
+    assertEquals ("1", MicroXPath.compile ("/root/item/@id").selectValue (eGroup));
+    assertEquals ("1", MicroXPath.compile ("../item/@id").selectValue (eGroup));
+    assertSame (aDoc.getDocumentElement (), MicroXPath.compile ("..").selectFirstNode (eGroup));
+    assertSame (aDoc, MicroXPath.compile ("/").selectFirstNode (eGroup));
+  }
+
+  @Test
+  public void testNodesAndAttributes ()
+  {
+    final IMicroDocument aDoc = MicroReader.readMicroXML (XML);
+    final MicroXPath aXP = MicroXPath.compile ("//item[@type='y']");
+    assertFalse (aXP.isAttributeResult ());
+    final ICommonsList <IMicroNode> aNodes = aXP.selectNodes (aDoc);
+    assertEquals (2, aNodes.size ());
+    assertEquals ("2", ((IMicroElement) aNodes.get (0)).getAttributeValue ("id"));
+    assertEquals ("7", ((IMicroElement) aNodes.get (1)).getAttributeValue ("id"));
+
+    final MicroXPath aXPAttr = MicroXPath.compile ("//item/@id");
+    assertTrue (aXPAttr.isAttributeResult ());
+    final ICommonsList <IMicroAttribute> aAttrs = aXPAttr.selectAttributes (aDoc);
+    assertEquals (5, aAttrs.size ());
+    assertEquals ("id", aAttrs.get (0).getAttributeName ());
+
+    try
+    {
+      aXPAttr.selectNodes (aDoc);
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+    try
+    {
+      aXP.selectAttributes (aDoc);
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testText ()
+  {
+    final IMicroDocument aDoc = MicroReader.readMicroXML (XML);
+    // In contrast to the XPath data model, adjacent text and CDATA nodes are
+    // not merged
+    assertEquals (new CommonsArrayList <> ("NS ", "cdata", " text"),
+                  MicroXPath.compile ("//a:item/text()", _createNSCtx ()).selectValues (aDoc));
+    assertEquals ("NS cdata text", MicroXPath.compile ("//a:item", _createNSCtx ()).selectValue (aDoc));
+    // The DOM reader used for comparison drops comments
+    assertEquals (new CommonsArrayList <> ("c"), MicroXPath.compile ("//comment()").selectValues (aDoc));
+    assertEquals ("data", MicroXPath.compile ("/root/processing-instruction()").selectValue (aDoc));
+  }
+
+  @Test
+  public void testWithoutDocument ()
+  {
+    // A tree without document and with a transparent container
+    final IMicroElement eRoot = new MicroElement ("root");
+    final MicroContainer aCont = new MicroContainer ();
+    aCont.appendElement ("child").setAttribute ("id", "1");
+    aCont.appendElement ("child").setAttribute ("id", "2");
+    eRoot.appendChild (aCont);
+    final IMicroElement eLast = eRoot.appendElement ("child");
+    eLast.setAttribute ("id", "3");
+
+    assertEquals (new CommonsArrayList <> ("1", "2", "3"), MicroXPath.compile ("/root/child/@id").selectValues (eLast));
+    assertEquals (new CommonsArrayList <> ("1", "2", "3"), MicroXPath.compile ("//child/@id").selectValues (eRoot));
+    assertEquals ("2", MicroXPath.compile ("child[2]/@id").selectValue (eRoot));
+    assertSame (eRoot, MicroXPath.compile ("..").selectFirstNode (eLast));
+    assertSame (eRoot, MicroXPath.compile ("/").selectFirstNode (eLast));
+    assertSame (eRoot, MicroXPath.compile ("/*").selectFirstNode (eLast));
+    assertNull (MicroXPath.compile ("/other").selectFirstNode (eLast));
+  }
+
+  @Test
+  public void testDefaultNamespace ()
+  {
+    final IMicroDocument aDoc = MicroReader.readMicroXML ("<r xmlns='" + NS_A + "'><x>1</x><x xmlns=''>2</x></r>");
+    assertEquals (new CommonsArrayList <> ("2"), MicroXPath.compile ("//x").selectValues (aDoc));
+
+    final MapBasedNamespaceContext aNSCtx = new MapBasedNamespaceContext ();
+    aNSCtx.setDefaultNamespaceURI (NS_A);
+    assertEquals (new CommonsArrayList <> ("1"), MicroXPath.compile ("/r/x", aNSCtx).selectValues (aDoc));
+    assertEquals (new CommonsArrayList <> ("1", "2"), MicroXPath.compile ("/r/*", aNSCtx).selectValues (aDoc));
+  }
+
+  @Test
+  public void testCache ()
+  {
+    final NamespaceContext aNSCtx = _createNSCtx ();
+    final MicroXPath aXP = MicroXPath.compile ("//a:item", aNSCtx);
+    assertSame (aXP, MicroXPath.compile ("//a:item", aNSCtx));
+    assertSame (aXP, MicroXPathCache.getInstance ().getFromCache (new MicroXPathCache.XPathKey ("//a:item", aNSCtx)));
+    // Different namespace context instance
+    assertFalse (aXP == MicroXPath.compile ("//a:item", _createNSCtx ()));
+    assertEquals ("//a:item", aXP.getExpression ());
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    final NamespaceContext aNSCtx = _createNSCtx ();
+    for (final String sXPath : new String [] { "/root/",
+                                               "//",
+                                               "root[",
+                                               "root[1",
+                                               "root]",
+                                               "x:root",
+                                               "'literal'",
+                                               "count(//item)",
+                                               "1 + 2",
+                                               "a | b",
+                                               "$var",
+                                               "(//a)[1]",
+                                               "following-sibling::a",
+                                               "ancestor::a",
+                                               "a[unknown()]",
+                                               "a[count('x')]",
+                                               "a[contains('x')]",
+                                               "a[@b = 'x]",
+                                               "a b",
+                                               "a#" })
+      try
+      {
+        new MicroXPath (sXPath, aNSCtx);
+        fail (sXPath);
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+  }
+}
@@ -20,14 +20,21 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import javax.xml.validation.Schema;
 
 import org.junit.Test;
 
 import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
 import com.helger.commons.io.resource.ClassPathResource;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.xml.ls.CollectingLSResourceResolver;
@@ -153,4 +160,70 @@ public final class XMLSchemaCacheTest
     catch (final IllegalArgumentException ex)
     {}
   }
+
+  @Test
+  public void testConcurrent () throws Exception
+  {
+    final XMLSchemaCache sc = new XMLSchemaCache ();
+    final IReadableResource [] [] aKeys = new IReadableResource [] [] { { new ClassPathResource ("xml/schema1.xsd") },
+                                                                        { new ClassPathResource ("xml/schema2.xsd") },
+                                                                        { new ClassPathResource ("xml/schema1.xsd"),
+                                                                          new ClassPathResource ("xml/schema2.xsd") } };
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsList <Future <Schema []>> aFutures = new CommonsArrayList<> ();
+      for (int i = 0; i < 8; ++i)
+        aFutures.add (aES.submit ( () -> {
+          final Schema [] ret = new Schema [aKeys.length];
+          for (int j = 0; j < aKeys.length; ++j)
+            ret[j] = sc.getSchema (aKeys[j]);
+          return ret;
+        }));
+
+      // Each schema is compiled only once
+      final Schema [] aFirst = aFutures.getFirst ().get ();
+      for (final Future <Schema []> aFuture : aFutures)
+      {
+        final Schema [] aSchemas = aFuture.get ();
+        for (int j = 0; j < aKeys.length; ++j)
+        {
+          assertNotNull (aSchemas[j]);
+          assertSame (aFirst[j], aSchemas[j]);
+        }
+      }
+      assertEquals (aKeys.length, sc.getSize ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testPreloadSchema () throws Exception
+  {
+    final XMLSchemaCache sc = new XMLSchemaCache ();
+    final ICommonsList <IReadableResource> aKey = new CommonsArrayList<> (new ClassPathResource ("xml/schema1.xsd"));
+    final ICommonsList <IReadableResource> aKey2 = new CommonsArrayList<> (new ClassPathResource ("xml/schema2.xsd"));
+    final ExecutorService aES = Executors.newFixedThreadPool (2);
+    try
+    {
+      final Future <Schema> aFuture1 = aES.submit ( () -> sc.preloadSchema (XMLSchemaCache::createXSDSchemaFactory,
+                                                                           aKey));
+      final Future <Schema> aFuture2 = aES.submit ( () -> sc.preloadSchema (XMLSchemaCache::createXSDSchemaFactory,
+                                                                           aKey2));
+      assertNotNull (aFuture1.get ());
+      assertNotNull (aFuture2.get ());
+      assertEquals (2, sc.getSize ());
+
+      // Already contained
+      final Schema aSchema = sc.getSchema (aKey);
+      assertSame (aSchema, sc.preloadSchema ( () -> null, aKey));
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
 }
@@ -16,6 +16,7 @@
  */
 package com.helger.xml.serialize.read;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.AfterClass;
@@ -70,4 +71,29 @@ public final class SAXReaderTest
                                                                                                                  new SAXReaderSettings ().setContentHandler (new DefaultHandler ()))
                                                                                                     .isSuccess ()));
   }
+
+  @Test
+  public void testPoolSettings ()
+  {
+    final int nOldSize = SAXReader.getPoolSize ();
+    final long nOldTimeout = SAXReader.getPoolBorrowTimeoutMillis ();
+    assertEquals (SAXReader.DEFAULT_POOL_SIZE, nOldSize);
+    try
+    {
+      // With a small pool and no waiting, new parsers are created on demand
+      SAXReader.setPoolSize (1);
+      SAXReader.setPoolBorrowTimeoutMillis (0);
+      assertEquals (1, SAXReader.getPoolSize ());
+      assertEquals (0, SAXReader.getPoolBorrowTimeoutMillis ());
+      CommonsTestHelper.testInParallel (100,
+                                        (IThrowingRunnable <SAXException>) () -> assertTrue (SAXReader.readXMLSAX (new ClassPathResource ("xml/buildinfo.xml"),
+                                                                                                                   new SAXReaderSettings ().setContentHandler (new DefaultHandler ()))
+                                                                                                      .isSuccess ()));
+    }
+    finally
+    {
+      SAXReader.setPoolSize (nOldSize);
+      SAXReader.setPoolBorrowTimeoutMillis (nOldTimeout);
+    }
+  }
 }
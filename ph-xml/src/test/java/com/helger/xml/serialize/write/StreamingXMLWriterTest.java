@@ -0,0 +1,279 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.serialize.write;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroDocumentType;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroEntityReference;
+import com.helger.xml.microdom.IMicroNode;
+import com.helger.xml.microdom.IMicroProcessingInstruction;
+import com.helger.xml.microdom.IMicroText;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.MicroDocumentType;
+import com.helger.xml.microdom.MicroText;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.namespace.MapBasedNamespaceContext;
+
+/**
+ * Test class for class {@link StreamingXMLWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class StreamingXMLWriterTest
+{
+  private static void _emitChildren (@Nonnull final StreamingXMLWriter aSW, @Nonnull final IMicroNode aNode)
+  {
+    if (aNode.hasChildren ())
+      for (final IMicroNode aChild : aNode.getAllChildren ())
+        _emit (aSW, aChild);
+  }
+
+  private static void _emit (@Nonnull final StreamingXMLWriter aSW, @Nonnull final IMicroNode aNode)
+  {
+    switch (aNode.getType ())
+    {
+      case DOCUMENT:
+        aSW.writeStartDocument (((IMicroDocument) aNode).isStandalone ());
+        _emitChildren (aSW, aNode);
+        aSW.writeEndDocument ();
+        break;
+      case DOCUMENT_TYPE:
+      {
+        final IMicroDocumentType aDocType = (IMicroDocumentType) aNode;
+        aSW.writeDocumentType (aDocType.getQualifiedName (), aDocType.getPublicID (), aDocType.getSystemID ());
+        break;
+      }
+      case ELEMENT:
+      {
+        final IMicroElement aElement = (IMicroElement) aNode;
+        aSW.writeStartElement (aElement.getNamespaceURI (), aElement.getTagName ());
+        aElement.forAllAttributes ( (n, v) -> aSW.writeAttribute (n.getNamespaceURI (), n.getName (), v));
+        _emitChildren (aSW, aNode);
+        aSW.writeEndElement ();
+        break;
+      }
+      case CONTAINER:
+        _emitChildren (aSW, aNode);
+        break;
+      case TEXT:
+        aSW.writeText (aNode.getNodeValue (), ((IMicroText) aNode).isEscape ());
+        break;
+      case CDATA:
+        aSW.writeCDATA (aNode.getNodeValue ());
+        break;
+      case COMMENT:
+        aSW.writeComment (aNode.getNodeValue ());
+        break;
+      case ENTITY_REFERENCE:
+        aSW.writeEntityReference (((IMicroEntityReference) aNode).getName ());
+        break;
+      case PROCESSING_INSTRUCTION:
+      {
+        final IMicroProcessingInstruction aPI = (IMicroProcessingInstruction) aNode;
+        aSW.writeProcessingInstruction (aPI.getTarget (), aPI.getData ());
+        break;
+      }
+      default:
+        throw new IllegalArgumentException ("Unsupported node " + aNode);
+    }
+  }
+
+  private static void _assertSame (@Nonnull final IMicroDocument aDoc, @Nonnull final IXMLWriterSettings aSettings)
+  {
+    final String sExpected = MicroWriter.getNodeAsString (aDoc, aSettings);
+
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    try (final StreamingXMLWriter aWriter = new StreamingXMLWriter (aSW, aSettings))
+    {
+      _emit (aWriter, aDoc);
+      assertEquals (0, aWriter.getDepth ());
+    }
+    assertEquals (sExpected, aSW.getAsString ());
+  }
+
+  @Nonnull
+  private static IMicroDocument _createDoc ()
+  {
+    final IMicroDocument aDoc = new MicroDocument (new MicroDocumentType ("root", null, null));
+    aDoc.appendComment ("Leading comment");
+    final IMicroElement eRoot = aDoc.appendElement ("urn:root", "root");
+    eRoot.setAttribute ("id", "4711");
+    eRoot.setAttribute ("urn:attr", "typed", "a<b");
+    eRoot.appendElement ("urn:root", "empty");
+    final IMicroElement eMixed = eRoot.appendElement ("urn:root", "mixed");
+    eMixed.appendText ("text & more ");
+    eMixed.appendElement ("urn:root", "b").appendText ("bold");
+    eMixed.appendText (" tail");
+    eMixed.appendEntityReference ("nbsp");
+    eMixed.appendCDATA ("x<y");
+    final IMicroElement eNested = eRoot.appendElement ("urn:other", "nested");
+    eNested.appendComment ("inner comment");
+    eNested.appendElement ("urn:other", "child").setAttribute ("a", "b");
+    eNested.appendElement ("urn:third", "child").appendElement ("deep");
+    eNested.appendContainer ().appendElement ("urn:other", "incontainer").appendText ("c");
+    eRoot.appendProcessingInstruction ("target", "data");
+    eRoot.appendChild (new MicroText ("unescaped <x/>").setEscape (false));
+    aDoc.appendComment ("Trailing comment");
+    return aDoc;
+  }
+
+  @Test
+  public void testSameAsMicroWriter ()
+  {
+    final IMicroDocument aDoc = _createDoc ();
+    for (final EXMLSerializeIndent eIndent : EXMLSerializeIndent.values ())
+      for (final EXMLSerializeComments eComments : EXMLSerializeComments.values ())
+        for (final boolean bEmitNamespaces : new boolean [] { true, false })
+        {
+          final XMLWriterSettings aSettings = new XMLWriterSettings ().setIndent (eIndent)
+                                                                      .setSerializeComments (eComments)
+                                                                      .setEmitNamespaces (bEmitNamespaces);
+          _assertSame (aDoc, aSettings);
+          _assertSame (aDoc, aSettings.getClone ().setSerializeXMLDeclaration (EXMLSerializeXMLDeclaration.IGNORE));
+        }
+  }
+
+  @Test
+  public void testSameAsMicroWriterWithNamespaceContext ()
+  {
+    final IMicroDocument aDoc = _createDoc ();
+    final MapBasedNamespaceContext aNSCtx = new MapBasedNamespaceContext ().addMapping ("r", "urn:root")
+                                                                            .addMapping ("o", "urn:other");
+    for (final boolean bInRoot : new boolean [] { true, false })
+      _assertSame (aDoc,
+                   new XMLWriterSettings ().setNamespaceContext (aNSCtx).setPutNamespaceContextPrefixesInRoot (bInRoot));
+  }
+
+  @Test
+  public void testSameAsMicroWriterHTML ()
+  {
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eHtml = aDoc.appendElement ("html");
+    eHtml.appendElement ("head").appendElement ("title").appendText ("Title");
+    final IMicroElement eBody = eHtml.appendElement ("body");
+    eBody.appendElement ("div");
+    eBody.appendElement ("br");
+    eBody.appendElement ("p").appendText ("Text");
+    _assertSame (aDoc, XMLWriterSettings.createForHTML4 ());
+    _assertSame (aDoc, XMLWriterSettings.createForHTML5 ());
+    _assertSame (aDoc, XMLWriterSettings.createForXHTML ());
+  }
+
+  @Test
+  public void testOutputStream ()
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try (final StreamingXMLWriter aWriter = new StreamingXMLWriter (aBAOS,
+                                                                    new XMLWriterSettings ().setIndent (EXMLSerializeIndent.NONE)))
+    {
+      aWriter.writeStartDocument ().writeStartElement ("root").writeAttribute ("a", "ä");
+      for (int i = 0; i < 1000; ++i)
+        aWriter.writeStartElement ("item").writeText (Integer.toString (i)).writeEndElement ();
+      assertEquals (1, aWriter.getDepth ());
+      // Closing implicitly closes the root element
+    }
+    final String s = aBAOS.getAsString (CCharset.CHARSET_UTF_8_OBJ);
+    assertTrue (s.startsWith ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><root a=\"ä\"><item>0</item>"));
+    assertTrue (s.endsWith ("<item>999</item></root>"));
+  }
+
+  @Test
+  public void testInvalidUsage ()
+  {
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    try (final StreamingXMLWriter aWriter = new StreamingXMLWriter (aSW, XMLWriterSettings.DEFAULT_XML_SETTINGS))
+    {
+      try
+      {
+        // No open element
+        aWriter.writeAttribute ("a", "b");
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+
+      try
+      {
+        aWriter.writeEndElement ();
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+
+      aWriter.writeStartElement ("root").writeText ("x");
+      try
+      {
+        // Start tag is already written
+        aWriter.writeAttribute ("a", "b");
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+
+      try
+      {
+        // Too late
+        aWriter.writeStartDocument ();
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+
+      try
+      {
+        aWriter.writeDocumentType ("root", null, null);
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+
+      aWriter.writeEndDocument ();
+      try
+      {
+        aWriter.writeStartElement ("other");
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+    }
+    assertEquals ("<root>x</root>", aSW.getAsString ().trim ());
+  }
+}
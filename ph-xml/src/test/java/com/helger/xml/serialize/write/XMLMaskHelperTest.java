@@ -20,9 +20,12 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+
 import org.junit.Test;
 
 import com.helger.commons.collection.ArrayHelper;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
 import com.helger.commons.mock.AbstractCommonsTestCase;
 
 /**
@@ -251,4 +254,35 @@ public final class XMLMaskHelperTest extends AbstractCommonsTestCase
                                                         EXMLIncorrectCharacterHandling.WRITE_TO_FILE_NO_LOG,
                                                         "1 & \u0001"));
   }
+
+  @Test
+  public void testMaskXMLTextTo () throws IOException
+  {
+    final String [] aTexts = new String [] { "abc",
+                                             "<a href=\"x\">&amp;</a>",
+                                             "'single' and \"double\"",
+                                             "\r\n\t\u0001\u0000\u007f\u0085\u2028",
+                                             "&",
+                                             "trailing <" };
+    for (final EXMLSerializeVersion eVersion : EXMLSerializeVersion.values ())
+      for (final EXMLCharMode eMode : EXMLCharMode.values ())
+        for (final EXMLIncorrectCharacterHandling eHandling : new EXMLIncorrectCharacterHandling [] { EXMLIncorrectCharacterHandling.WRITE_TO_FILE_NO_LOG,
+                                                                                                      EXMLIncorrectCharacterHandling.DO_NOT_WRITE_NO_LOG })
+          for (final String sText : aTexts)
+          {
+            final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+            XMLMaskHelper.maskXMLTextTo (eVersion, eMode, eHandling, sText, aSW);
+            final String sMasked = aSW.getAsString ();
+            assertEquals (new String (XMLMaskHelper.getMaskedXMLText (eVersion, eMode, eHandling, sText)), sMasked);
+            assertEquals (sMasked.length (), XMLMaskHelper.getMaskedXMLTextLength (eVersion, eMode, eHandling, sText));
+          }
+
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    XMLMaskHelper.maskXMLTextTo (EXMLSerializeVersion.XML_10,
+                                 EXMLCharMode.TEXT,
+                                 EXMLIncorrectCharacterHandling.DO_NOT_WRITE_NO_LOG,
+                                 "a\u0001<b>\u0002&c",
+                                 aSW);
+    assertEquals ("a&lt;b&gt;&amp;c", aSW.getAsString ());
+  }
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.supplementary.test.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroQName;
+import com.helger.xml.microdom.serialize.MicroReader;
+import com.helger.xml.serialize.read.SAXReaderSettings;
+
+/**
+ * Compares reading record-style XML with {@link MicroReader} with and without
+ * a symbol table: parse time, retained heap and the time for attribute lookups
+ * on the created document.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkMicroSymbolTable
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (BenchmarkMicroSymbolTable.class);
+  private static final int RECORDS = 200_000;
+  private static final int RUNS = 5;
+
+  // Avoid dead code elimination
+  private static long s_nDummy;
+
+  private BenchmarkMicroSymbolTable ()
+  {}
+
+  private static long _getUsedHeap ()
+  {
+    final Runtime aRuntime = Runtime.getRuntime ();
+    for (int i = 0; i < 3; ++i)
+      System.gc ();
+    return aRuntime.totalMemory () - aRuntime.freeMemory ();
+  }
+
+  private static IMicroDocument _read (final String sXML, final boolean bUseSymbolTable)
+  {
+    return MicroReader.readMicroXML (sXML, new SAXReaderSettings ().setUseMicroSymbolTable (bUseSymbolTable));
+  }
+
+  private static long _runRead (final String sXML, final boolean bUseSymbolTable)
+  {
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      s_nDummy += _read (sXML, bUseSymbolTable).getDocumentElement ().getChildCount ();
+    return (System.nanoTime () - nStart) / RUNS;
+  }
+
+  private static long _runLookup (final IMicroDocument aDoc)
+  {
+    // Use the attribute names of the first record for all lookups
+    final IMicroElement eFirst = aDoc.getDocumentElement ().getFirstChildElement ();
+    final IMicroQName aQNameID = eFirst.getAttributeObj ("id").getAttributeQName ();
+    final IMicroQName aQNameStatus = eFirst.getAttributeObj ("urn:rec", "status").getAttributeQName ();
+
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      for (final IMicroElement eRecord : aDoc.getDocumentElement ().getAllChildElements ())
+      {
+        s_nDummy += eRecord.getAttributeValue (aQNameID).length ();
+        s_nDummy += eRecord.getAttributeValue (aQNameStatus).length ();
+      }
+    return (System.nanoTime () - nStart) / RUNS;
+  }
+
+  private static long _getRetainedHeap (final String sXML, final boolean bUseSymbolTable)
+  {
+    final long nStart = _getUsedHeap ();
+    final IMicroDocument aDoc = _read (sXML, bUseSymbolTable);
+    final long ret = _getUsedHeap () - nStart;
+    s_nDummy += aDoc.getDocumentElement ().getChildCount ();
+    return ret;
+  }
+
+  private static String _ms (final long nNanos)
+  {
+    return Long.toString (nNanos / CGlobal.NANOSECONDS_PER_MILLISECOND) + " ms";
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    final StringBuilder aSB = new StringBuilder ("<records xmlns:r='urn:rec'>");
+    for (int i = 0; i < RECORDS; ++i)
+      aSB.append ("<record id='")
+         .append (i)
+         .append ("' type='order' r:status='open' r:channel='web'><customer>C")
+         .append (i % 1000)
+         .append ("</customer><amount currency='EUR'>")
+         .append (i * 17)
+         .append ("</amount></record>");
+    aSB.append ("</records>");
+    final String sXML = aSB.toString ();
+
+    // Warm up
+    _runRead (sXML, false);
+    _runRead (sXML, true);
+
+    for (final boolean bUseSymbolTable : new boolean [] { false, true })
+    {
+      final String sMode = bUseSymbolTable ? "With symbol table" : "Without symbol table";
+      final long nRead = _runRead (sXML, bUseSymbolTable);
+      final long nHeap = _getRetainedHeap (sXML, bUseSymbolTable);
+      final IMicroDocument aDoc = _read (sXML, bUseSymbolTable);
+      _runLookup (aDoc);
+      final long nLookup = _runLookup (aDoc);
+      s_aLogger.info (sMode +
+                      ": read " +
+                      _ms (nRead) +
+                      "; retained heap " +
+                      nHeap / RECORDS +
+                      " bytes/record; attribute lookup " +
+                      _ms (nLookup));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.supplementary.test.benchmark;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import com.helger.commons.CGlobal;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.microdom.xpath.MicroXPath;
+import com.helger.xml.serialize.read.DOMReader;
+import com.helger.xml.serialize.write.XMLWriterSettings;
+import com.helger.xml.xpath.XPathExpressionCache;
+
+/**
+ * Compares the evaluation of path expressions directly on a micro document
+ * via {@link MicroXPath} with converting the micro document to a W3C DOM and
+ * evaluating the expression via JAXP.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkMicroXPath
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (BenchmarkMicroXPath.class);
+  private static final int RECORDS = 5_000;
+  private static final int RUNS = 10;
+  private static final String [] XPATHS = new String [] { "/report/record[@id='4711']/name",
+                                                          "//record[amount > 80000]/@id",
+                                                          "/report/record[last()]",
+                                                          "//name[starts-with(., 'Name 49')]" };
+
+  // Avoid dead code elimination
+  private static long s_nDummy;
+
+  private BenchmarkMicroXPath ()
+  {}
+
+  private static long _runMicro (final IMicroDocument aDoc, final String sXPath)
+  {
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      s_nDummy += MicroXPath.compile (sXPath).selectValues (aDoc).size ();
+    return System.nanoTime () - nStart;
+  }
+
+  private static long _runDOM (final IMicroDocument aDoc, final String sXPath, final boolean bConvert) throws Exception
+  {
+    Document aDOMDoc = bConvert ? null : DOMReader.readXMLDOM (MicroWriter.getNodeAsString (aDoc, XMLWriterSettings.DEFAULT_XML_SETTINGS));
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+    {
+      if (bConvert)
+        aDOMDoc = DOMReader.readXMLDOM (MicroWriter.getNodeAsString (aDoc, XMLWriterSettings.DEFAULT_XML_SETTINGS));
+      final XPathExpression aExpr = XPathExpressionCache.getXPathExpression (sXPath);
+      s_nDummy += ((NodeList) aExpr.evaluate (aDOMDoc, XPathConstants.NODESET)).getLength ();
+    }
+    return System.nanoTime () - nStart;
+  }
+
+  private static String _us (final long nNanos)
+  {
+    return Long.toString (nNanos / RUNS / CGlobal.NANOSECONDS_PER_MICROSECOND) + " us";
+  }
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement ("report");
+    for (int i = 0; i < RECORDS; ++i)
+    {
+      final IMicroElement eRecord = eRoot.appendElement ("record");
+      eRecord.setAttribute ("id", i);
+      eRecord.appendElement ("name").appendText ("Name " + i);
+      eRecord.appendElement ("amount").appendText (Integer.toString (i * 17));
+    }
+
+    // Warm up
+    for (final String sXPath : XPATHS)
+    {
+      _runMicro (aDoc, sXPath);
+      _runDOM (aDoc, sXPath, false);
+      _runDOM (aDoc, sXPath, true);
+    }
+
+    for (final String sXPath : XPATHS)
+    {
+      final long nMicro = _runMicro (aDoc, sXPath);
+      final long nDOM = _runDOM (aDoc, sXPath, false);
+      final long nDOMConvert = _runDOM (aDoc, sXPath, true);
+      s_aLogger.info (sXPath +
+                      ": MicroXPath " +
+                      _us (nMicro) +
+                      "; JAXP on existing DOM " +
+                      _us (nDOM) +
+                      "; micro to DOM conversion and JAXP " +
+                      _us (nDOMConvert));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.supplementary.test.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.io.stream.CountingOutputStream;
+import com.helger.commons.io.stream.NullOutputStream;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.serialize.write.StreamingXMLWriter;
+import com.helger.xml.serialize.write.XMLWriterSettings;
+
+/**
+ * Compares the heap usage and the runtime of writing a large report via a
+ * micro document and {@link MicroWriter} with the {@link StreamingXMLWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkStreamingXMLWriter
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (BenchmarkStreamingXMLWriter.class);
+  private static final int RECORDS = 500_000;
+
+  private BenchmarkStreamingXMLWriter ()
+  {}
+
+  private static long _getUsedHeap ()
+  {
+    for (int i = 0; i < 3; ++i)
+      System.gc ();
+    final Runtime aRT = Runtime.getRuntime ();
+    return aRT.totalMemory () - aRT.freeMemory ();
+  }
+
+  private static void _logResult (final String sName,
+                                  final long nStartHeap,
+                                  final long nPeakHeap,
+                                  final long nStartNanos,
+                                  final CountingOutputStream aCOS)
+  {
+    s_aLogger.info (sName +
+                    ": " +
+                    aCOS.getBytesWritten () / CGlobal.BYTES_PER_MEGABYTE +
+                    " MB written in " +
+                    (System.nanoTime () - nStartNanos) / CGlobal.NANOSECONDS_PER_MILLISECOND +
+                    " ms; additional heap " +
+                    (nPeakHeap - nStartHeap) / CGlobal.BYTES_PER_KILOBYTE +
+                    " KB");
+  }
+
+  private static void _runMicroWriter (final XMLWriterSettings aXWS)
+  {
+    final long nStartHeap = _getUsedHeap ();
+    final long nStart = System.nanoTime ();
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement ("urn:report", "report");
+    for (int i = 0; i < RECORDS; ++i)
+    {
+      final IMicroElement eRecord = eRoot.appendElement ("urn:report", "record");
+      eRecord.setAttribute ("id", i);
+      eRecord.appendElement ("urn:report", "name").appendText ("Name " + i);
+      eRecord.appendElement ("urn:report", "amount").appendText (Integer.toString (i * 17));
+    }
+    // The whole tree is in memory now
+    final long nPeakHeap = _getUsedHeap ();
+    final CountingOutputStream aCOS = new CountingOutputStream (new NullOutputStream ());
+    MicroWriter.writeToStream (aDoc, aCOS, aXWS);
+    _logResult ("MicroWriter", nStartHeap, nPeakHeap, nStart, aCOS);
+  }
+
+  private static void _runStreamingWriter (final XMLWriterSettings aXWS)
+  {
+    final long nStartHeap = _getUsedHeap ();
+    final long nStart = System.nanoTime ();
+    final CountingOutputStream aCOS = new CountingOutputStream (new NullOutputStream ());
+    long nPeakHeap = nStartHeap;
+    try (final StreamingXMLWriter aWriter = new StreamingXMLWriter (aCOS, aXWS))
+    {
+      aWriter.writeStartDocument ().writeStartElement ("urn:report", "report");
+      for (int i = 0; i < RECORDS; ++i)
+      {
+        aWriter.writeStartElement ("urn:report", "record").writeAttribute ("id", Integer.toString (i));
+        aWriter.writeStartElement ("urn:report", "name").writeText ("Name " + i).writeEndElement ();
+        aWriter.writeStartElement ("urn:report", "amount").writeText (Integer.toString (i * 17)).writeEndElement ();
+        aWriter.writeEndElement ();
+        if (i == RECORDS / 2)
+          nPeakHeap = _getUsedHeap ();
+      }
+    }
+    _logResult ("StreamingXMLWriter", nStartHeap, nPeakHeap, nStart, aCOS);
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    final XMLWriterSettings aXWS = new XMLWriterSettings ();
+    for (int i = 0; i < 2; ++i)
+    {
+      _runMicroWriter (aXWS);
+      _runStreamingWriter (aXWS);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.supplementary.test.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
+import com.helger.commons.string.StringHelper;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.serialize.write.EXMLCharMode;
+import com.helger.xml.serialize.write.EXMLIncorrectCharacterHandling;
+import com.helger.xml.serialize.write.EXMLSerializeVersion;
+import com.helger.xml.serialize.write.XMLCharHelper;
+import com.helger.xml.serialize.write.XMLMaskHelper;
+import com.helger.xml.serialize.write.XMLWriterSettings;
+
+/**
+ * Benchmark for the XML masking used when serializing text heavy and attribute
+ * heavy documents. The old way of masking (char array copy and
+ * {@link StringHelper#replaceMultipleTo(char[], char[], char[][], Writer)}) is
+ * compared with the table driven {@link XMLMaskHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkXMLMaskHelper
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (BenchmarkXMLMaskHelper.class);
+  private static final int RUNS = 500;
+
+  private static final char [] TEXT_SRC;
+  private static final char [] [] TEXT_DST;
+  static
+  {
+    // Determine all masked characters for XML 1.0 text
+    final StringBuilder aSrc = new StringBuilder ();
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; ++c)
+    {
+      final String s = Character.toString ((char) c);
+      if (!s.equals (new String (XMLMaskHelper.getMaskedXMLText (EXMLSerializeVersion.XML_10,
+                                                                 EXMLCharMode.TEXT,
+                                                                 EXMLIncorrectCharacterHandling.DEFAULT,
+                                                                 s))))
+        aSrc.append ((char) c);
+    }
+    TEXT_SRC = aSrc.toString ().toCharArray ();
+    TEXT_DST = new char [TEXT_SRC.length] [];
+    for (int i = 0; i < TEXT_SRC.length; ++i)
+      TEXT_DST[i] = XMLMaskHelper.getXML10EntityReferenceString (TEXT_SRC[i]).toCharArray ();
+  }
+
+  private BenchmarkXMLMaskHelper ()
+  {}
+
+  private static void _maskOld (final String s, final Writer aWriter) throws IOException
+  {
+    final char [] aChars = s.toCharArray ();
+    if (XMLCharHelper.containsInvalidXMLChar (EXMLSerializeVersion.XML_10, EXMLCharMode.TEXT, aChars))
+      throw new IllegalStateException ();
+    StringHelper.replaceMultipleTo (aChars, TEXT_SRC, TEXT_DST, aWriter);
+  }
+
+  private static IMicroDocument _createTextDoc ()
+  {
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement ("root");
+    for (int i = 0; i < 5000; ++i)
+      eRoot.appendElement ("p")
+           .appendText ("Paragraph " +
+                        i +
+                        " contains some longer text that is written & masked < sometimes > and mostly not. " +
+                        StringHelper.getRepeated ("Lorem ipsum dolor sit amet, consectetur adipisici elit. ", 4));
+    return aDoc;
+  }
+
+  private static IMicroDocument _createAttrDoc ()
+  {
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement ("root");
+    for (int i = 0; i < 5000; ++i)
+    {
+      final IMicroElement e = eRoot.appendElement ("item");
+      e.setAttribute ("id", "id" + i);
+      e.setAttribute ("name", "Item \"" + i + "\"");
+      e.setAttribute ("description", "Some description with a < and a & char");
+      e.setAttribute ("value", i * 17);
+      e.setAttribute ("url", "http://www.example.org/path/to/item?id=" + i + "&lang=en");
+    }
+    return aDoc;
+  }
+
+  private static void _measure (final String sName, final Runnable aRunnable)
+  {
+    // Warm up
+    for (int i = 0; i < RUNS / 4; ++i)
+      aRunnable.run ();
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      aRunnable.run ();
+    final long nNanos = System.nanoTime () - nStart;
+    s_aLogger.info (sName + ": " + nNanos / RUNS / CGlobal.NANOSECONDS_PER_MICROSECOND + " us per run");
+  }
+
+  public static void main (final String [] aArgs) throws IOException
+  {
+    final XMLWriterSettings aXWS = new XMLWriterSettings ();
+    final IMicroDocument aTextDoc = _createTextDoc ();
+    final IMicroDocument aAttrDoc = _createAttrDoc ();
+    final String sText = aTextDoc.getDocumentElement ().getFirstChildElement ().getTextContent ();
+    s_aLogger.info ("Text document: " + MicroWriter.getNodeAsString (aTextDoc, aXWS).length () + " chars");
+    s_aLogger.info ("Attribute document: " + MicroWriter.getNodeAsString (aAttrDoc, aXWS).length () + " chars");
+
+    _measure ("Mask 100 text nodes (old)", () -> {
+      try
+      {
+        final NonBlockingStringWriter aSW = new NonBlockingStringWriter (sText.length () * 2 * 100);
+        for (int i = 0; i < 100; ++i)
+          _maskOld (sText, aSW);
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+    });
+    _measure ("Mask 100 text nodes (new)", () -> {
+      try
+      {
+        final NonBlockingStringWriter aSW = new NonBlockingStringWriter (sText.length () * 2 * 100);
+        for (int i = 0; i < 100; ++i)
+          XMLMaskHelper.maskXMLTextTo (EXMLSerializeVersion.XML_10,
+                                       EXMLCharMode.TEXT,
+                                       EXMLIncorrectCharacterHandling.DEFAULT,
+                                       sText,
+                                       aSW);
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+    });
+    _measure ("MicroWriter text heavy", () -> MicroWriter.getNodeAsString (aTextDoc, aXWS));
+    _measure ("MicroWriter attribute heavy", () -> MicroWriter.getNodeAsString (aAttrDoc, aXWS));
+  }
+}
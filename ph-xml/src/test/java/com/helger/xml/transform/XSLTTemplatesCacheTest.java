@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+
+import org.junit.Test;
+
+import com.helger.commons.cache.AbstractCache;
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.monitor.FileMonitorManager;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.statistics.IStatisticsHandlerCache;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.thread.ThreadHelper;
+
+/**
+ * Test class for class {@link XSLTTemplatesCache}.
+ *
+ * @author Philip Helger
+ */
+public final class XSLTTemplatesCacheTest
+{
+  private static final String XSLT = "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+                                     "<xsl:template match='/'><x/></xsl:template>" +
+                                     "</xsl:stylesheet>";
+
+  @Test
+  public void testBasic ()
+  {
+    final XSLTTemplatesCache aCache = new XSLTTemplatesCache ();
+    final IStatisticsHandlerCache aStats = StatisticsManager.getCacheHandler (AbstractCache.STATISTICS_PREFIX +
+                                                                             aCache.getName () +
+                                                                             "$access");
+    final int nHits = aStats.getHits ();
+    final int nMisses = aStats.getMisses ();
+
+    final IReadableResource aRes = new ClassPathResource ("xml/test1.xslt");
+    final Templates t1 = aCache.getTemplates (aRes);
+    assertNotNull (t1);
+    assertSame (t1, aCache.getTemplates (aRes));
+    assertSame (t1, aCache.getTemplates (new ClassPathResource ("xml/test1.xslt")));
+    assertEquals (nMisses + 1, aStats.getMisses ());
+    assertEquals (nHits + 2, aStats.getHits ());
+
+    // Transformers are always new
+    assertNotNull (aCache.newTransformer (aRes));
+    assertNotSame (aCache.newTransformer (aRes), aCache.newTransformer (aRes));
+
+    // Different factory - different templates
+    final TransformerFactory aFactory = XMLTransformerFactory.createTransformerFactory (null,
+                                                                                       new LoggingTransformURIResolver ());
+    final Templates t2 = aCache.getTemplates (aFactory, aRes);
+    assertNotNull (t2);
+    assertNotSame (t1, t2);
+    assertSame (t2, aCache.getTemplates (aFactory, aRes));
+
+    // Different URI resolver - different templates
+    aFactory.setURIResolver (new DefaultTransformURIResolver ());
+    assertNotSame (t2, aCache.getTemplates (aFactory, aRes));
+
+    // Remove all entries of the resource
+    assertTrue (aCache.removeFromCache (aRes).isChanged ());
+    assertTrue (aCache.removeFromCache (aRes).isUnchanged ());
+    assertNotSame (t1, aCache.getTemplates (aRes));
+
+    // Invalid XSLT
+    try
+    {
+      aCache.getTemplates (new ClassPathResource ("test1.txt"));
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    assertNull (aCache.newTransformer (new ClassPathResource ("test1.txt")));
+  }
+
+  @Test
+  public void testXMLTransformerFactoryDoesNotCache ()
+  {
+    final IReadableResource aRes = new ClassPathResource ("xml/test2.xslt");
+    final Templates t1 = XMLTransformerFactory.newTemplates (aRes);
+    assertNotNull (t1);
+    assertNotSame (t1, XMLTransformerFactory.newTemplates (aRes));
+    assertNotSame (t1, XSLTTemplatesCache.getInstance ().getTemplates (aRes));
+    assertSame (XSLTTemplatesCache.getInstance ().getTemplates (aRes),
+                XSLTTemplatesCache.getInstance ().getTemplates (aRes));
+  }
+
+  @Test
+  public void testXMLTransformerFactoryUseTemplatesCache ()
+  {
+    final IReadableResource aRes = new ClassPathResource ("xml/test2.xslt");
+    assertFalse (XMLTransformerFactory.isUseTemplatesCache ());
+    XMLTransformerFactory.setUseTemplatesCache (true);
+    try
+    {
+      final Templates t1 = XMLTransformerFactory.newTemplates (aRes);
+      assertNotNull (t1);
+      assertSame (t1, XMLTransformerFactory.newTemplates (aRes));
+      assertSame (t1, XSLTTemplatesCache.getInstance ().getTemplates (aRes));
+      assertNotNull (XMLTransformerFactory.newTransformer (aRes));
+    }
+    finally
+    {
+      XMLTransformerFactory.setUseTemplatesCache (XMLTransformerFactory.DEFAULT_USE_TEMPLATES_CACHE);
+    }
+  }
+
+  @Test
+  public void testMaxSize ()
+  {
+    final XSLTTemplatesCache aCache = new XSLTTemplatesCache (1);
+    assertNotNull (aCache.getTemplates (new ClassPathResource ("xml/test1.xslt")));
+    assertNotNull (aCache.getTemplates (new ClassPathResource ("xml/test2.xslt")));
+    assertEquals (1, aCache.getSize ());
+  }
+
+  @Test
+  public void testFileMonitoring ()
+  {
+    final File aFile = new File ("target/xslt-templates-cache-test.xslt").getAbsoluteFile ();
+    SimpleFileIO.writeFile (aFile, XSLT, CCharset.CHARSET_UTF_8_OBJ);
+    final FileMonitorManager aFMM = new FileMonitorManager ().setDelay (50);
+    try
+    {
+      final XSLTTemplatesCache aCache = new XSLTTemplatesCache ();
+      final IReadableResource aRes = new FileSystemResource (aFile);
+      final Templates t1 = aCache.getTemplates (aRes);
+      assertTrue (aCache.enableFileMonitoring (aFMM).isChanged ());
+      assertTrue (aCache.enableFileMonitoring (aFMM).isUnchanged ());
+      assertTrue (aCache.isFileMonitoringEnabled ());
+      aFMM.start ();
+      assertSame (t1, aCache.getTemplates (aRes));
+
+      // Modify the file
+      SimpleFileIO.writeFile (aFile, XSLT.replace ("<x/>", "<y/>"), CCharset.CHARSET_UTF_8_OBJ);
+      aFile.setLastModified (aFile.lastModified () + 10000);
+
+      // Wait until the change is detected
+      Templates t2 = t1;
+      for (int i = 0; i < 100 && t2 == t1; ++i)
+      {
+        ThreadHelper.sleep (50);
+        t2 = aCache.getTemplates (aRes);
+      }
+      assertNotSame (t1, t2);
+    }
+    finally
+    {
+      aFMM.stop ();
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+}
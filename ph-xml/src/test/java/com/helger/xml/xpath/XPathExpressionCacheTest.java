@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFunctionResolver;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.helger.commons.cache.AbstractCache;
+import com.helger.commons.statistics.IStatisticsHandlerCache;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.xml.namespace.MapBasedNamespaceContext;
+import com.helger.xml.serialize.read.DOMReader;
+
+/**
+ * Test class for class {@link XPathExpressionCache}.
+ *
+ * @author Philip Helger
+ */
+public final class XPathExpressionCacheTest
+{
+  @Test
+  public void testBasic () throws Exception
+  {
+    XPathExpressionCache.clearCacheOfCurrentThread ();
+    assertEquals (0, XPathExpressionCache.getCacheSizeOfCurrentThread ());
+
+    final IStatisticsHandlerCache aStats = StatisticsManager.getCacheHandler (AbstractCache.STATISTICS_PREFIX +
+                                                                             XPathExpressionCache.class.getName () +
+                                                                             "$access");
+    final int nHits = aStats.getHits ();
+    final int nMisses = aStats.getMisses ();
+
+    final XPathExpression x1 = XPathExpressionCache.getXPathExpression ("/root/a");
+    assertNotNull (x1);
+    assertSame (x1, XPathExpressionCache.getXPathExpression ("/root/a"));
+    assertNotSame (x1, XPathExpressionCache.getXPathExpression ("/root/b"));
+    assertEquals (2, XPathExpressionCache.getCacheSizeOfCurrentThread ());
+    assertEquals (nHits + 1, aStats.getHits ());
+    assertEquals (nMisses + 2, aStats.getMisses ());
+
+    // Namespace context and resolvers are compared by identity
+    final NamespaceContext aNSCtx = new MapBasedNamespaceContext ().addMapping ("x", "urn:x");
+    final XPathExpression x2 = XPathExpressionCache.getXPathExpression (null, null, aNSCtx, "/root/a");
+    assertNotSame (x1, x2);
+    assertSame (x2, XPathExpressionCache.getXPathExpression (null, null, aNSCtx, "/root/a"));
+    assertNotSame (x2,
+                   XPathExpressionCache.getXPathExpression (null,
+                                                            null,
+                                                            new MapBasedNamespaceContext ().addMapping ("x", "urn:x"),
+                                                            "/root/a"));
+    final XPathFunctionResolver aFR = new MapBasedXPathFunctionResolver ();
+    assertNotSame (x2, XPathExpressionCache.getXPathExpression (null, aFR, aNSCtx, "/root/a"));
+
+    // Other threads have their own cache
+    final AtomicReference <XPathExpression> aOther = new AtomicReference <> ();
+    final Thread t = new Thread ( () -> aOther.set (XPathExpressionCache.getXPathExpression ("/root/a")));
+    t.start ();
+    t.join ();
+    assertNotNull (aOther.get ());
+    assertNotSame (x1, aOther.get ());
+
+    // Invalid expression
+    try
+    {
+      XPathExpressionCache.getXPathExpression ("/root/[");
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+
+    XPathExpressionCache.clearCacheOfCurrentThread ();
+    assertEquals (0, XPathExpressionCache.getCacheSizeOfCurrentThread ());
+    assertNotSame (x1, XPathExpressionCache.getXPathExpression ("/root/a"));
+  }
+
+  @Test
+  public void testMaxSize ()
+  {
+    final int nOld = XPathExpressionCache.getMaxSizePerThread ();
+    try
+    {
+      XPathExpressionCache.setMaxSizePerThread (5);
+      // Takes effect for new caches only
+      XPathExpressionCache.clearCacheOfCurrentThread ();
+      for (int i = 0; i < 20; ++i)
+        XPathExpressionCache.getXPathExpression ("/root/a" + i);
+      assertEquals (5, XPathExpressionCache.getCacheSizeOfCurrentThread ());
+    }
+    finally
+    {
+      XPathExpressionCache.setMaxSizePerThread (nOld);
+      XPathExpressionCache.clearCacheOfCurrentThread ();
+    }
+  }
+
+  @Test
+  public void testXPathExpressionHelper () throws Exception
+  {
+    final Document aDoc = DOMReader.readXMLDOM ("<root xmlns:x='urn:x'><a>5</a><x:b>true</x:b><a>7</a></root>");
+    assertNotNull (aDoc);
+    final NamespaceContext aNSCtx = new MapBasedNamespaceContext ().addMapping ("y", "urn:x");
+    for (int i = 0; i < 3; ++i)
+    {
+      assertEquals (5d, XPathExpressionHelper.evalXPathToNumber ("/root/a", aDoc).doubleValue (), 0);
+      assertEquals ("5", XPathExpressionHelper.evalXPathToString ("/root/a", aDoc));
+      assertEquals (2, XPathExpressionHelper.evalXPathToNodeList ("/root/a", aDoc).getLength ());
+      assertEquals ("a", XPathExpressionHelper.evalXPathToNode ("/root/a", aDoc).getNodeName ());
+      assertTrue (XPathExpressionHelper.evalXPathToBoolean (null, null, aNSCtx, "/root/y:b = 'true'", aDoc)
+                                       .booleanValue ());
+    }
+  }
+}